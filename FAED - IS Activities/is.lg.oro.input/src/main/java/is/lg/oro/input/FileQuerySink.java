@@ -0,0 +1,83 @@
+package is.lg.oro.input;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * A {@link QuerySink} which writes the query file polled by a Liquid Galaxy
+ * display.
+ *
+ * <p>
+ * The query is written to a temporary file in the same directory which is then
+ * renamed over the query file, so a reader never sees a partly written query.
+ * Where a rename can't replace an existing file, the query file is deleted
+ * first, so a reader may briefly find no query file at all.
+ */
+public class FileQuerySink implements QuerySink {
+
+    /**
+     * Extension added to the query file name for the temporary file.
+     */
+    public static final String TEMPORARY_FILE_EXTENSION = ".tmp";
+
+    /**
+     * The character set queries are written in.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * The query file.
+     */
+    private final File file;
+
+    /**
+     * The temporary file the query is written to first.
+     */
+    private final File temporaryFile;
+
+    /**
+     * Construct a new sink.
+     *
+     * @param file
+     *          the query file
+     */
+    public FileQuerySink(File file) {
+        this.file = file.getAbsoluteFile();
+        temporaryFile = new File(this.file.getParentFile(), this.file.getName() + TEMPORARY_FILE_EXTENSION);
+    }
+
+    @Override
+    public void send(String query) throws IOException {
+        OutputStream out = new FileOutputStream(temporaryFile);
+        try {
+            out.write(query.getBytes(UTF8));
+        } finally {
+            out.close();
+        }
+
+        if (temporaryFile.renameTo(file)) {
+            return;
+        }
+
+        // Some platforms won't rename over an existing file.
+        if (!file.delete() && file.exists()) {
+            throw new IOException("Could not replace query file " + file);
+        }
+        if (!temporaryFile.renameTo(file)) {
+            throw new IOException("Could not rename " + temporaryFile + " to " + file);
+        }
+    }
+
+    @Override
+    public void close() {
+        temporaryFile.delete();
+    }
+
+    @Override
+    public String toString() {
+        return "file " + file;
+    }
+}
@@ -1,21 +1,91 @@
 package is.lg.oro.input;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.Map;
 
+import interactivespaces.SimpleInteractiveSpacesException;
 import interactivespaces.activity.impl.ros.BaseRoutableRosActivity;
+import interactivespaces.configuration.Configuration;
 
 /**
  * A simple Interactive Spaces Java-based activity.
+ *
+ * <p>
+ * Queries arriving on the input route are handed to a {@link QueryDispatcher}
+ * which delivers the latest query for each Liquid Galaxy target at a bounded
+ * rate, either by replacing the query file the display polls or over a socket
+ * to an Earth instance.
  */
 public class OroRoutableMasterInputActivity extends BaseRoutableRosActivity {
 
+    /**
+     * Configuration property giving the names of the Liquid Galaxy targets,
+     * separated by colons.
+     */
+    public static final String CONFIGURATION_LG_QUERY_TARGETS = "lg.query.targets";
+
+    /**
+     * The target used when a message doesn't name one.
+     */
+    public static final String LG_QUERY_TARGET_DEFAULT = "default";
+
+    /**
+     * Prefix for the configuration property giving the query file of a target.
+     */
+    public static final String CONFIGURATION_PREFIX_LG_QUERY_FILE = "lg.query.file.";
+
+    /**
+     * Prefix for the configuration property giving the host:port of the Earth
+     * instance of a target. Takes precedence over the query file.
+     */
+    public static final String CONFIGURATION_PREFIX_LG_QUERY_SOCKET = "lg.query.socket.";
+
+    /**
+     * The query file for the default target when none is configured.
+     */
+    public static final String LG_QUERY_FILE_DEFAULT = "/tmp/query.txt";
+
+    /**
+     * Configuration property giving the least time between query deliveries,
+     * in milliseconds.
+     */
+    public static final String CONFIGURATION_LG_QUERY_INTERVAL_MIN = "lg.query.interval.min";
+
+    /**
+     * The default least time between query deliveries, in milliseconds.
+     */
+    public static final long LG_QUERY_INTERVAL_MIN_DEFAULT = 100;
+
+    /**
+     * Message field holding the query.
+     */
+    public static final String MESSAGE_FIELD_QUERY = "message";
+
+    /**
+     * Message field naming the target.
+     */
+    public static final String MESSAGE_FIELD_TARGET = "target";
+
+    /**
+     * The dispatcher delivering queries to the targets.
+     */
+    private QueryDispatcher queryDispatcher;
+
     @Override
     public void onActivitySetup() {
         getLog().info("Activity is.lg.oro.galaxy setup");
+
+        Configuration configuration = getConfiguration();
+        queryDispatcher =
+                new QueryDispatcher(getSpaceEnvironment().getExecutorService(), configuration.getPropertyLong(
+                        CONFIGURATION_LG_QUERY_INTERVAL_MIN, LG_QUERY_INTERVAL_MIN_DEFAULT), getLog());
+
+        String targets = configuration.getPropertyString(CONFIGURATION_LG_QUERY_TARGETS, LG_QUERY_TARGET_DEFAULT);
+        for (String target : targets.trim().split(":")) {
+            queryDispatcher.addTarget(target, newQuerySink(configuration, target));
+        }
+
+        addManagedResource(queryDispatcher);
     }
 
     @Override
@@ -46,6 +116,9 @@ public class OroRoutableMasterInputActivity extends BaseRoutableRosActivity {
     @Override
     public void onActivityShutdown() {
         getLog().info("Activity is.lg.oro.galaxy shutdown");
+        getLog().info(String.format("Liquid Galaxy queries received %d, delivered %d, coalesced %d, dropped %d",
+                queryDispatcher.getNumberReceived(), queryDispatcher.getNumberDelivered(),
+                queryDispatcher.getNumberCoalesced(), queryDispatcher.getNumberDropped()));
     }
 
     @Override
@@ -54,31 +127,53 @@ public class OroRoutableMasterInputActivity extends BaseRoutableRosActivity {
     }
     
     @Override
-	public void onNewInputJson(String channelName, Map<String, Object> message) {
-		// There is only 1 channel for this activity, so don't bother checking
-		// which one it is.
-		getLog().info("YEAAAHHH message on input channel " + channelName);
-        getLog().info(message);
-        
-        message.toString();
-        String key = "message";
-   		String value = (String) message.get(key);
-   		
-   		try{
-       		File file= new File("/tmp", "query.txt");
-             	file.createNewFile();
-
-             	FileWriter fw = new FileWriter(file.getAbsoluteFile());
-              	BufferedWriter bw = new BufferedWriter(fw);
-              	bw.write(value);
-              	bw.close();           
-       		}
-       	catch(IOException e){
-       		System.err.println("Impossible to create file " + e);
-       	}
-   		
-        
-		
-	}
-    
+    public void onNewInputJson(String channelName, Map<String, Object> message) {
+        // There is only 1 channel for this activity, so don't bother checking
+        // which one it is.
+        if (getLog().isDebugEnabled()) {
+            getLog().debug("Message on input channel " + channelName + ": " + message);
+        }
+
+        Object query = message.get(MESSAGE_FIELD_QUERY);
+        if (query == null) {
+            getLog().warn("Message on input channel " + channelName + " has no query");
+            return;
+        }
+
+        Object target = message.get(MESSAGE_FIELD_TARGET);
+        queryDispatcher.dispatch(target != null ? target.toString() : LG_QUERY_TARGET_DEFAULT, query.toString());
+    }
+
+    /**
+     * Create the sink for a target from the configuration.
+     *
+     * @param configuration
+     *          the activity configuration
+     * @param target
+     *          name of the target
+     *
+     * @return the sink for the target
+     */
+    private QuerySink newQuerySink(Configuration configuration, String target) {
+        String socket = configuration.getPropertyString(CONFIGURATION_PREFIX_LG_QUERY_SOCKET + target);
+        if (socket != null) {
+            String[] hostPort = socket.trim().split(":");
+            if (hostPort.length != 2) {
+                throw new SimpleInteractiveSpacesException("Liquid Galaxy target " + target
+                        + " socket must be host:port, was " + socket);
+            }
+
+            return new SocketQuerySink(hostPort[0], Integer.parseInt(hostPort[1]));
+        }
+
+        String defaultFile = LG_QUERY_TARGET_DEFAULT.equals(target) ? LG_QUERY_FILE_DEFAULT : null;
+        String file = configuration.getPropertyString(CONFIGURATION_PREFIX_LG_QUERY_FILE + target, defaultFile);
+        if (file == null) {
+            throw new SimpleInteractiveSpacesException("Liquid Galaxy target " + target + " needs either "
+                    + CONFIGURATION_PREFIX_LG_QUERY_FILE + target + " or " + CONFIGURATION_PREFIX_LG_QUERY_SOCKET
+                    + target);
+        }
+
+        return new FileQuerySink(new File(file));
+    }
 }
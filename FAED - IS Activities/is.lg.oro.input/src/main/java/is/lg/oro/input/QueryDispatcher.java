@@ -0,0 +1,265 @@
+package is.lg.oro.input;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+
+import interactivespaces.util.resource.ManagedResource;
+
+/**
+ * Delivers Liquid Galaxy queries to their target displays at a bounded rate.
+ *
+ * <p>
+ * Only the latest query for a target matters, so a query which arrives while
+ * an earlier one for the same target is still waiting replaces it. Pending
+ * queries are delivered at most once every minimum write interval, and right
+ * away if nothing has been written for that long.
+ */
+public class QueryDispatcher implements ManagedResource {
+
+    /**
+     * The sinks for each target.
+     */
+    private final Map<String, QuerySink> sinks = new ConcurrentHashMap<String, QuerySink>();
+
+    /**
+     * The latest query waiting to be delivered for each target.
+     */
+    private final Map<String, String> pendingQueries = new LinkedHashMap<String, String>();
+
+    /**
+     * The executor the deliveries are run on.
+     */
+    private final ScheduledExecutorService executorService;
+
+    /**
+     * The least time between deliveries, in milliseconds.
+     */
+    private final long minimumWriteInterval;
+
+    /**
+     * The logger to use.
+     */
+    private final Log log;
+
+    /**
+     * {@code true} if a delivery has been scheduled or is running.
+     */
+    private boolean deliveryScheduled;
+
+    /**
+     * When the last delivery started, in milliseconds.
+     */
+    private long lastDeliveryTime;
+
+    /**
+     * {@code true} if the dispatcher is running.
+     */
+    private boolean running;
+
+    /**
+     * The task which delivers the pending queries.
+     */
+    private final Runnable deliveryTask = new Runnable() {
+        @Override
+        public void run() {
+            deliverPendingQueries();
+        }
+    };
+
+    /**
+     * Number of queries received.
+     */
+    private final AtomicLong numberReceived = new AtomicLong();
+
+    /**
+     * Number of queries replaced by a later query before they were delivered.
+     */
+    private final AtomicLong numberCoalesced = new AtomicLong();
+
+    /**
+     * Number of queries dropped because their target was unknown, delivery
+     * failed or the dispatcher wasn't running.
+     */
+    private final AtomicLong numberDropped = new AtomicLong();
+
+    /**
+     * Number of queries delivered.
+     */
+    private final AtomicLong numberDelivered = new AtomicLong();
+
+    /**
+     * Construct a new dispatcher.
+     *
+     * @param executorService
+     *          the executor the deliveries are run on
+     * @param minimumWriteInterval
+     *          the least time between deliveries, in milliseconds
+     * @param log
+     *          the logger to use
+     */
+    public QueryDispatcher(ScheduledExecutorService executorService, long minimumWriteInterval, Log log) {
+        this.executorService = executorService;
+        this.minimumWriteInterval = minimumWriteInterval;
+        this.log = log;
+    }
+
+    /**
+     * Add a target display.
+     *
+     * @param target
+     *          name of the target
+     * @param sink
+     *          where queries for the target are delivered
+     */
+    public void addTarget(String target, QuerySink sink) {
+        sinks.put(target, sink);
+    }
+
+    @Override
+    public synchronized void startup() {
+        running = true;
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (this) {
+            running = false;
+            numberDropped.addAndGet(pendingQueries.size());
+            pendingQueries.clear();
+        }
+
+        for (QuerySink sink : sinks.values()) {
+            sink.close();
+        }
+    }
+
+    /**
+     * Queue a query for a target.
+     *
+     * @param target
+     *          name of the target
+     * @param query
+     *          the query
+     *
+     * @return {@code true} if the query was queued, {@code false} if it was
+     *         dropped
+     */
+    public boolean dispatch(String target, String query) {
+        numberReceived.incrementAndGet();
+
+        if (!sinks.containsKey(target)) {
+            log.warn("Dropping query for unknown Liquid Galaxy target " + target);
+            numberDropped.incrementAndGet();
+            return false;
+        }
+
+        synchronized (this) {
+            if (!running) {
+                numberDropped.incrementAndGet();
+                return false;
+            }
+
+            if (pendingQueries.put(target, query) != null) {
+                numberCoalesced.incrementAndGet();
+            }
+
+            if (!deliveryScheduled) {
+                scheduleDelivery();
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return number of queries received
+     */
+    public long getNumberReceived() {
+        return numberReceived.get();
+    }
+
+    /**
+     * @return number of queries replaced by a later query before they were
+     *         delivered
+     */
+    public long getNumberCoalesced() {
+        return numberCoalesced.get();
+    }
+
+    /**
+     * @return number of queries dropped
+     */
+    public long getNumberDropped() {
+        return numberDropped.get();
+    }
+
+    /**
+     * @return number of queries delivered
+     */
+    public long getNumberDelivered() {
+        return numberDelivered.get();
+    }
+
+    /**
+     * Schedule a delivery no sooner than the minimum write interval after the
+     * last one.
+     *
+     * <p>
+     * Must be called while synchronized on the dispatcher.
+     */
+    private void scheduleDelivery() {
+        long delay = Math.max(0, lastDeliveryTime + minimumWriteInterval - System.currentTimeMillis());
+        try {
+            executorService.schedule(deliveryTask, delay, TimeUnit.MILLISECONDS);
+            deliveryScheduled = true;
+        } catch (RejectedExecutionException e) {
+            log.error("Could not schedule Liquid Galaxy query delivery", e);
+        }
+    }
+
+    /**
+     * Deliver every pending query to its sink.
+     *
+     * <p>
+     * Deliveries never overlap, so a sink is only used by one thread at a time.
+     * Queries which arrive during a delivery are picked up by the next one.
+     */
+    private void deliverPendingQueries() {
+        Map<String, String> queries;
+        synchronized (this) {
+            if (!running) {
+                deliveryScheduled = false;
+                return;
+            }
+
+            lastDeliveryTime = System.currentTimeMillis();
+            queries = new LinkedHashMap<String, String>(pendingQueries);
+            pendingQueries.clear();
+        }
+
+        for (Map.Entry<String, String> entry : queries.entrySet()) {
+            QuerySink sink = sinks.get(entry.getKey());
+            try {
+                sink.send(entry.getValue());
+                numberDelivered.incrementAndGet();
+            } catch (Exception e) {
+                log.error("Could not deliver query to Liquid Galaxy target " + entry.getKey() + " at " + sink, e);
+                numberDropped.incrementAndGet();
+            }
+        }
+
+        synchronized (this) {
+            deliveryScheduled = false;
+            if (running && !pendingQueries.isEmpty()) {
+                scheduleDelivery();
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package is.lg.oro.input;
+
+import java.io.IOException;
+
+/**
+ * A place Liquid Galaxy queries can be delivered to, such as the query file
+ * polled by a display or a socket on an Earth instance.
+ */
+public interface QuerySink {
+
+    /**
+     * Deliver a query.
+     *
+     * @param query
+     *          the query to deliver
+     *
+     * @throws IOException
+     *           the query could not be delivered
+     */
+    void send(String query) throws IOException;
+
+    /**
+     * Release anything held by the sink.
+     */
+    void close();
+}
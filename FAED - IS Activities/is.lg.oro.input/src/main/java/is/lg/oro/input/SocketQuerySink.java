@@ -0,0 +1,92 @@
+package is.lg.oro.input;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+
+/**
+ * A {@link QuerySink} which sends queries straight to an Earth instance over a
+ * TCP socket, one query per line.
+ *
+ * <p>
+ * The connection is made when the first query is sent and made again after a
+ * failure.
+ */
+public class SocketQuerySink implements QuerySink {
+
+    /**
+     * How long to wait for a connection, in milliseconds.
+     */
+    public static final int CONNECT_TIMEOUT = 2000;
+
+    /**
+     * The character set queries are sent in.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * The host of the Earth instance.
+     */
+    private final String host;
+
+    /**
+     * The port of the Earth instance.
+     */
+    private final int port;
+
+    /**
+     * The connection, {@code null} if not connected.
+     */
+    private Socket socket;
+
+    /**
+     * Construct a new sink.
+     *
+     * @param host
+     *          the host of the Earth instance
+     * @param port
+     *          the port of the Earth instance
+     */
+    public SocketQuerySink(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    @Override
+    public void send(String query) throws IOException {
+        try {
+            if (socket == null) {
+                socket = new Socket();
+                socket.setTcpNoDelay(true);
+                socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT);
+            }
+
+            OutputStream out = socket.getOutputStream();
+            out.write((query + "\n").getBytes(UTF8));
+            out.flush();
+        } catch (IOException e) {
+            close();
+
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Nothing to do, the connection is being dropped anyway.
+            }
+            socket = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "socket " + host + ":" + port;
+    }
+}
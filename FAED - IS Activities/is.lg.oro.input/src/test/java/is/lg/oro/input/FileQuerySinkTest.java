@@ -0,0 +1,76 @@
+package is.lg.oro.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link FileQuerySink}.
+ */
+public class FileQuerySinkTest {
+
+    private File file;
+
+    private FileQuerySink sink;
+
+    @Before
+    public void setup() throws IOException {
+        file = File.createTempFile("query", ".txt");
+        sink = new FileQuerySink(file);
+    }
+
+    @After
+    public void cleanup() {
+        sink.close();
+        file.delete();
+    }
+
+    /**
+     * Each query replaces the one before it, and no temporary file is left
+     * behind.
+     */
+    @Test
+    public void testReplaceQuery() throws IOException {
+        sink.send("search=first");
+        assertEquals("search=first", readFile());
+
+        sink.send("search=second");
+        assertEquals("search=second", readFile());
+
+        assertFalse(new File(file.getParentFile(), file.getName() + FileQuerySink.TEMPORARY_FILE_EXTENSION).exists());
+    }
+
+    /**
+     * Read the query file.
+     *
+     * @return the contents of the query file
+     *
+     * @throws IOException
+     *           the query file could not be read
+     */
+    private String readFile() throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            Reader reader = new InputStreamReader(in, "UTF-8");
+            StringBuilder contents = new StringBuilder();
+            char[] buffer = new char[256];
+            int count;
+            while ((count = reader.read(buffer)) != -1) {
+                contents.append(buffer, 0, count);
+            }
+            return contents.toString();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package is.lg.oro.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.impl.NoOpLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link QueryDispatcher}.
+ *
+ * <p>
+ * Deliveries are held by the executor and run by hand so the tests control
+ * exactly when they happen.
+ */
+public class QueryDispatcherTest {
+
+    /**
+     * The least time between deliveries, in milliseconds. Long enough that no
+     * test gets near it.
+     */
+    private static final long MINIMUM_WRITE_INTERVAL = 60000;
+
+    private ManualExecutor executor;
+
+    private QueryDispatcher dispatcher;
+
+    private RecordingSink sinkA;
+
+    private RecordingSink sinkB;
+
+    @Before
+    public void setup() {
+        executor = new ManualExecutor();
+        dispatcher = new QueryDispatcher(executor, MINIMUM_WRITE_INTERVAL, new NoOpLog());
+
+        sinkA = new RecordingSink();
+        sinkB = new RecordingSink();
+        dispatcher.addTarget("a", sinkA);
+        dispatcher.addTarget("b", sinkB);
+        dispatcher.startup();
+    }
+
+    @After
+    public void cleanup() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Only the latest query waiting for a target is delivered, and the first
+     * delivery goes out right away.
+     */
+    @Test
+    public void testCoalescing() {
+        assertTrue(dispatcher.dispatch("a", "a1"));
+        assertTrue(dispatcher.dispatch("b", "b1"));
+        assertTrue(dispatcher.dispatch("a", "a2"));
+
+        assertEquals(1, executor.getNumberPending());
+        assertEquals(0, executor.getNextDelay());
+        executor.runNext();
+
+        assertEquals(Arrays.asList("a2"), sinkA.queries);
+        assertEquals(Arrays.asList("b1"), sinkB.queries);
+        assertEquals(3, dispatcher.getNumberReceived());
+        assertEquals(1, dispatcher.getNumberCoalesced());
+        assertEquals(2, dispatcher.getNumberDelivered());
+        assertEquals(0, executor.getNumberPending());
+    }
+
+    /**
+     * A query after a delivery waits out the minimum write interval.
+     */
+    @Test
+    public void testRateLimit() {
+        dispatcher.dispatch("a", "a1");
+        executor.runNext();
+
+        dispatcher.dispatch("a", "a2");
+        dispatcher.dispatch("a", "a3");
+
+        assertEquals(1, executor.getNumberPending());
+        long delay = executor.getNextDelay();
+        assertTrue("Delivery delay was " + delay + "ms", delay > MINIMUM_WRITE_INTERVAL / 2
+                && delay <= MINIMUM_WRITE_INTERVAL);
+        executor.runNext();
+
+        assertEquals(Arrays.asList("a1", "a3"), sinkA.queries);
+        assertEquals(1, dispatcher.getNumberCoalesced());
+    }
+
+    /**
+     * A query arriving while a delivery is running is picked up by the next
+     * delivery, which waits out the minimum write interval.
+     */
+    @Test
+    public void testQueryDuringDelivery() {
+        sinkA.onSend = new Runnable() {
+            @Override
+            public void run() {
+                sinkA.onSend = null;
+                dispatcher.dispatch("a", "a2");
+            }
+        };
+        dispatcher.dispatch("a", "a1");
+        executor.runNext();
+
+        assertEquals(Arrays.asList("a1"), sinkA.queries);
+        assertEquals(1, executor.getNumberPending());
+        assertTrue(executor.getNextDelay() > MINIMUM_WRITE_INTERVAL / 2);
+
+        executor.runNext();
+        assertEquals(Arrays.asList("a1", "a2"), sinkA.queries);
+    }
+
+    /**
+     * Queries for unknown targets, queries which can't be delivered and
+     * queries after shutdown are dropped.
+     */
+    @Test
+    public void testDropped() {
+        assertFalse(dispatcher.dispatch("c", "c1"));
+        assertEquals(0, executor.getNumberPending());
+
+        sinkB.fail = true;
+        dispatcher.dispatch("a", "a1");
+        dispatcher.dispatch("b", "b1");
+        executor.runNext();
+        assertEquals(Arrays.asList("a1"), sinkA.queries);
+
+        dispatcher.dispatch("a", "a2");
+        dispatcher.shutdown();
+        assertFalse(dispatcher.dispatch("a", "a3"));
+        executor.runNext();
+
+        assertEquals(Arrays.asList("a1"), sinkA.queries);
+        assertTrue(sinkA.closed);
+        assertTrue(sinkB.closed);
+        assertEquals(1, dispatcher.getNumberDelivered());
+        assertEquals(4, dispatcher.getNumberDropped());
+    }
+
+    /**
+     * An executor which holds scheduled tasks until the test runs them.
+     */
+    private static class ManualExecutor extends ScheduledThreadPoolExecutor {
+
+        /**
+         * Tasks waiting to be run.
+         */
+        private final List<Runnable> pending = new ArrayList<Runnable>();
+
+        /**
+         * Delays the waiting tasks were scheduled with, in milliseconds.
+         */
+        private final List<Long> delays = new ArrayList<Long>();
+
+        /**
+         * Construct a new executor.
+         */
+        public ManualExecutor() {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            pending.add(command);
+            delays.add(unit.toMillis(delay));
+            return null;
+        }
+
+        /**
+         * Run the oldest waiting task.
+         */
+        public void runNext() {
+            delays.remove(0);
+            pending.remove(0).run();
+        }
+
+        /**
+         * @return the delay the oldest waiting task was scheduled with
+         */
+        public long getNextDelay() {
+            return delays.get(0);
+        }
+
+        /**
+         * @return the number of tasks waiting to be run
+         */
+        public int getNumberPending() {
+            return pending.size();
+        }
+    }
+
+    /**
+     * A sink which records the queries sent to it.
+     */
+    private static class RecordingSink implements QuerySink {
+
+        /**
+         * The queries sent, in order.
+         */
+        private final List<String> queries = new ArrayList<String>();
+
+        /**
+         * Run when a query is sent, can be {@code null}.
+         */
+        private Runnable onSend;
+
+        /**
+         * {@code true} if sending should fail.
+         */
+        private boolean fail;
+
+        /**
+         * {@code true} if the sink has been closed.
+         */
+        private boolean closed;
+
+        @Override
+        public void send(String query) throws IOException {
+            if (fail) {
+                throw new IOException("Test failure");
+            }
+            queries.add(query);
+            if (onSend != null) {
+                onSend.run();
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public String toString() {
+            return "recording sink";
+        }
+    }
+}
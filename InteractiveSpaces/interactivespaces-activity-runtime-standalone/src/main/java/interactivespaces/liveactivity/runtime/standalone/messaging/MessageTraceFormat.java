@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.liveactivity.runtime.standalone.messaging;
+
+import com.google.common.base.Charsets;
+
+import java.nio.charset.Charset;
+
+/**
+ * Constants describing the binary message trace format.
+ *
+ * <p>
+ * A trace starts with a header holding {@link #HEADER_MAGIC}, the format
+ * version and the time the trace was started. A series of records follows.
+ * Each record is a type byte, an int body length and the body.
+ *
+ * <ul>
+ * <li>A channel record body is an int channel ID and the UTF-8 channel name.
+ * It comes before the first message on that channel.</li>
+ * <li>A message record body is a long timestamp, an int channel ID and the
+ * UTF-8 JSON message.</li>
+ * </ul>
+ *
+ * <p>
+ * A cleanly closed trace ends with an index block and a footer. The index
+ * block holds {@link #INDEX_MAGIC}, the channel table with per channel message
+ * counts, and a time index of timestamp and file position pairs. The footer is
+ * the position of the index block followed by {@link #FOOTER_MAGIC}. A trace
+ * without a footer, for example from a crashed run, is still readable by
+ * scanning the records.
+ *
+ * @author agent
+ */
+final class MessageTraceFormat {
+
+  /**
+   * Magic number at the start of a trace, {@code ISMT}.
+   */
+  static final int HEADER_MAGIC = 0x49534d54;
+
+  /**
+   * Magic number at the start of the index block, {@code ISIX}.
+   */
+  static final int INDEX_MAGIC = 0x49534958;
+
+  /**
+   * Magic number at the end of the footer, {@code ISFT}.
+   */
+  static final int FOOTER_MAGIC = 0x49534654;
+
+  /**
+   * Version of the trace format.
+   */
+  static final int VERSION = 1;
+
+  /**
+   * Size of the trace header, in bytes.
+   */
+  static final int HEADER_SIZE = 16;
+
+  /**
+   * Size of the trace footer, in bytes.
+   */
+  static final int FOOTER_SIZE = 12;
+
+  /**
+   * Size of the type and length which start every record, in bytes.
+   */
+  static final int RECORD_HEADER_SIZE = 5;
+
+  /**
+   * Size of the fixed part of a message record body, in bytes.
+   */
+  static final int MESSAGE_BODY_HEADER_SIZE = 12;
+
+  /**
+   * Record type for a channel definition.
+   */
+  static final byte RECORD_TYPE_CHANNEL = 1;
+
+  /**
+   * Record type for a message.
+   */
+  static final byte RECORD_TYPE_MESSAGE = 2;
+
+  /**
+   * Minimum time between time index entries, in milliseconds.
+   */
+  static final long INDEX_INTERVAL = 1000;
+
+  /**
+   * The charset for channel names and messages.
+   */
+  static final Charset CHARSET = Charsets.UTF_8;
+
+  /**
+   * Private constructor for constants class.
+   */
+  private MessageTraceFormat() {
+  }
+}
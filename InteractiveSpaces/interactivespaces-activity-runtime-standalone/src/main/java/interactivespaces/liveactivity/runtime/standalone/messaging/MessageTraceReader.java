@@ -0,0 +1,560 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.liveactivity.runtime.standalone.messaging;
+
+import interactivespaces.InteractiveSpacesException;
+import interactivespaces.SimpleInteractiveSpacesException;
+
+import com.google.common.collect.Lists;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads a binary message trace written by a {@link MessageTraceWriter}.
+ *
+ * <p>
+ * The trace is memory mapped a segment at a time, so traces of any size can be
+ * read. The time index allows seeking to a time without reading the messages
+ * before it, and messages on channels outside the channel filter are skipped
+ * without being decoded.
+ *
+ * <p>
+ * Traces which were not closed cleanly have no index. The index is then
+ * rebuilt by scanning the trace, and reading stops at the last complete
+ * record.
+ *
+ * @author agent
+ */
+public class MessageTraceReader implements Closeable {
+
+  /**
+   * The largest amount of the trace mapped at one time, in bytes.
+   */
+  public static final int SEGMENT_SIZE_DEFAULT = 256 * 1024 * 1024;
+
+  /**
+   * Is the file a binary message trace?
+   *
+   * @param file
+   *          the file to check
+   *
+   * @return {@code true} if the file starts like a binary message trace
+   */
+  public static boolean isTraceFile(File file) {
+    DataInputStream in = null;
+    try {
+      in = new DataInputStream(new FileInputStream(file));
+      return in.readInt() == MessageTraceFormat.HEADER_MAGIC;
+    } catch (IOException e) {
+      return false;
+    } finally {
+      if (in != null) {
+        try {
+          in.close();
+        } catch (IOException e) {
+          // Nothing to do.
+        }
+      }
+    }
+  }
+
+  /**
+   * The trace file.
+   */
+  private final File traceFile;
+
+  /**
+   * The largest amount of the trace mapped at one time.
+   */
+  private final int segmentSize;
+
+  /**
+   * The open trace file.
+   */
+  private final RandomAccessFile file;
+
+  /**
+   * The channel for the trace file.
+   */
+  private final FileChannel fileChannel;
+
+  /**
+   * The time the trace was started, in milliseconds.
+   */
+  private long startTime;
+
+  /**
+   * The position just past the last record.
+   */
+  private long dataEnd;
+
+  /**
+   * Channel names in order of ID.
+   */
+  private final List<String> channelNames = Lists.newArrayList();
+
+  /**
+   * Number of messages on each channel, in order of ID.
+   */
+  private long[] channelCounts = new long[0];
+
+  /**
+   * Time index of alternating timestamps and file positions.
+   */
+  private long[] timeIndex = new long[0];
+
+  /**
+   * The IDs of the channels to read, {@code null} for all channels.
+   */
+  private BitSet channelFilter;
+
+  /**
+   * The currently mapped segment of the trace.
+   */
+  private ByteBuffer window;
+
+  /**
+   * The file position of the start of the mapped segment.
+   */
+  private long windowStart;
+
+  /**
+   * The position of the next record to read.
+   */
+  private long cursor;
+
+  /**
+   * Scratch space for decoding messages.
+   */
+  private byte[] scratch = new byte[4096];
+
+  /**
+   * Open a trace.
+   *
+   * @param traceFile
+   *          the trace file
+   */
+  public MessageTraceReader(File traceFile) {
+    this(traceFile, SEGMENT_SIZE_DEFAULT);
+  }
+
+  /**
+   * Open a trace.
+   *
+   * @param traceFile
+   *          the trace file
+   * @param segmentSize
+   *          the largest amount of the trace mapped at one time, in bytes
+   */
+  public MessageTraceReader(File traceFile, int segmentSize) {
+    this.traceFile = traceFile;
+    this.segmentSize = segmentSize;
+
+    try {
+      file = new RandomAccessFile(traceFile, "r");
+      fileChannel = file.getChannel();
+    } catch (IOException e) {
+      throw new InteractiveSpacesException("Could not open message trace " + traceFile.getAbsolutePath(), e);
+    }
+
+    try {
+      readHeader();
+      if (!readIndex()) {
+        scanIndex();
+      }
+      cursor = MessageTraceFormat.HEADER_SIZE;
+    } catch (IOException e) {
+      close();
+      throw new InteractiveSpacesException("Could not read message trace " + traceFile.getAbsolutePath(), e);
+    } catch (RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * Get the time the trace was started.
+   *
+   * @return the start time, in milliseconds
+   */
+  public long getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * Get the timestamp of the first message in the trace.
+   *
+   * @return the timestamp, in milliseconds, or {@code -1} if the trace is empty
+   */
+  public long getFirstTimestamp() {
+    return (timeIndex.length > 0) ? timeIndex[0] : -1;
+  }
+
+  /**
+   * Get the names of all channels in the trace.
+   *
+   * @return the channel names
+   */
+  public List<String> getChannels() {
+    return Collections.unmodifiableList(channelNames);
+  }
+
+  /**
+   * Get the number of messages on a channel.
+   *
+   * @param channel
+   *          the channel name
+   *
+   * @return the number of messages, {@code 0} if the channel is not in the
+   *         trace
+   */
+  public long getMessageCount(String channel) {
+    int channelId = channelNames.indexOf(channel);
+    return (channelId >= 0) ? channelCounts[channelId] : 0;
+  }
+
+  /**
+   * Only read messages on some channels.
+   *
+   * @param channels
+   *          the channels to read, {@code null} for all channels
+   */
+  public void setChannelFilter(Collection<String> channels) {
+    if (channels == null) {
+      channelFilter = null;
+      return;
+    }
+
+    channelFilter = new BitSet();
+    for (String channel : channels) {
+      int channelId = channelNames.indexOf(channel);
+      if (channelId >= 0) {
+        channelFilter.set(channelId);
+      }
+    }
+  }
+
+  /**
+   * Move to the first message at or after a time.
+   *
+   * @param timestamp
+   *          the time, in milliseconds
+   */
+  public void seek(long timestamp) {
+    int low = 0;
+    int high = timeIndex.length / 2 - 1;
+    cursor = MessageTraceFormat.HEADER_SIZE;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (timeIndex[2 * mid] <= timestamp) {
+        cursor = timeIndex[2 * mid + 1];
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+
+    // The index is sparse so walk forward to the exact message.
+    while (cursor + MessageTraceFormat.RECORD_HEADER_SIZE <= dataEnd) {
+      ByteBuffer buffer = map(cursor, MessageTraceFormat.RECORD_HEADER_SIZE);
+      byte type = buffer.get();
+      int bodyLength = buffer.getInt();
+      long bodyPosition = cursor + MessageTraceFormat.RECORD_HEADER_SIZE;
+      if (type == MessageTraceFormat.RECORD_TYPE_MESSAGE
+          && map(bodyPosition, MessageTraceFormat.MESSAGE_BODY_HEADER_SIZE).getLong() >= timestamp) {
+        return;
+      }
+      cursor = bodyPosition + bodyLength;
+    }
+  }
+
+  /**
+   * Move back to the start of the trace.
+   */
+  public void rewind() {
+    cursor = MessageTraceFormat.HEADER_SIZE;
+  }
+
+  /**
+   * Read the next message which passes the channel filter.
+   *
+   * @param record
+   *          the record to read the message into
+   *
+   * @return {@code true} if a message was read, {@code false} if the end of
+   *         the trace was reached
+   */
+  public boolean next(MessageTraceRecord record) {
+    while (cursor + MessageTraceFormat.RECORD_HEADER_SIZE <= dataEnd) {
+      ByteBuffer buffer = map(cursor, MessageTraceFormat.RECORD_HEADER_SIZE);
+      byte type = buffer.get();
+      int bodyLength = buffer.getInt();
+      long bodyPosition = cursor + MessageTraceFormat.RECORD_HEADER_SIZE;
+      cursor = bodyPosition + bodyLength;
+      if (type != MessageTraceFormat.RECORD_TYPE_MESSAGE) {
+        continue;
+      }
+
+      buffer = map(bodyPosition, MessageTraceFormat.MESSAGE_BODY_HEADER_SIZE);
+      long timestamp = buffer.getLong();
+      int channelId = buffer.getInt();
+      if (channelFilter != null && !channelFilter.get(channelId)) {
+        continue;
+      }
+
+      int messageLength = bodyLength - MessageTraceFormat.MESSAGE_BODY_HEADER_SIZE;
+      if (scratch.length < messageLength) {
+        scratch = new byte[Math.max(messageLength, 2 * scratch.length)];
+      }
+      map(bodyPosition + MessageTraceFormat.MESSAGE_BODY_HEADER_SIZE, messageLength).get(scratch, 0, messageLength);
+      record.set(timestamp, channelNames.get(channelId),
+          new String(scratch, 0, messageLength, MessageTraceFormat.CHARSET));
+
+      return true;
+    }
+
+    return false;
+  }
+
+  @Override
+  public void close() {
+    window = null;
+    try {
+      file.close();
+    } catch (IOException e) {
+      // Nothing to do.
+    }
+  }
+
+  /**
+   * Read and check the trace header.
+   *
+   * @throws IOException
+   *           the header could not be read
+   */
+  private void readHeader() throws IOException {
+    long fileSize = fileChannel.size();
+    if (fileSize < MessageTraceFormat.HEADER_SIZE) {
+      throw new SimpleInteractiveSpacesException("Message trace is too short: " + traceFile.getAbsolutePath());
+    }
+
+    ByteBuffer header = readFully(0, MessageTraceFormat.HEADER_SIZE);
+    if (header.getInt() != MessageTraceFormat.HEADER_MAGIC) {
+      throw new SimpleInteractiveSpacesException("Not a message trace: " + traceFile.getAbsolutePath());
+    }
+    int version = header.getInt();
+    if (version != MessageTraceFormat.VERSION) {
+      throw new SimpleInteractiveSpacesException(String.format("Unsupported message trace version %d in %s",
+          version, traceFile.getAbsolutePath()));
+    }
+    startTime = header.getLong();
+  }
+
+  /**
+   * Read the index block of a cleanly closed trace.
+   *
+   * @return {@code true} if the index was read, {@code false} if the trace has
+   *         no valid index
+   *
+   * @throws IOException
+   *           the index could not be read
+   */
+  private boolean readIndex() throws IOException {
+    long fileSize = fileChannel.size();
+    if (fileSize < MessageTraceFormat.HEADER_SIZE + MessageTraceFormat.FOOTER_SIZE) {
+      return false;
+    }
+
+    ByteBuffer footer = readFully(fileSize - MessageTraceFormat.FOOTER_SIZE, MessageTraceFormat.FOOTER_SIZE);
+    long indexPosition = footer.getLong();
+    if (footer.getInt() != MessageTraceFormat.FOOTER_MAGIC || indexPosition < MessageTraceFormat.HEADER_SIZE
+        || indexPosition > fileSize - MessageTraceFormat.FOOTER_SIZE) {
+      return false;
+    }
+
+    ByteBuffer index =
+        readFully(indexPosition, (int) (fileSize - MessageTraceFormat.FOOTER_SIZE - indexPosition));
+    if (index.getInt() != MessageTraceFormat.INDEX_MAGIC) {
+      return false;
+    }
+
+    int numberChannels = index.getInt();
+    channelCounts = new long[numberChannels];
+    for (int i = 0; i < numberChannels; i++) {
+      int channelId = index.getInt();
+      long count = index.getLong();
+      byte[] name = new byte[index.getInt()];
+      index.get(name);
+      setChannel(channelId, new String(name, MessageTraceFormat.CHARSET));
+      channelCounts[channelId] = count;
+    }
+
+    int numberEntries = index.getInt();
+    timeIndex = new long[2 * numberEntries];
+    for (int i = 0; i < timeIndex.length; i++) {
+      timeIndex[i] = index.getLong();
+    }
+
+    dataEnd = indexPosition;
+
+    return true;
+  }
+
+  /**
+   * Rebuild the index by scanning every record.
+   *
+   * @throws IOException
+   *           the trace could not be read
+   */
+  private void scanIndex() throws IOException {
+    long fileSize = fileChannel.size();
+    dataEnd = fileSize;
+
+    List<Long> entries = Lists.newArrayList();
+    long lastIndexedTimestamp = Long.MIN_VALUE;
+    long position = MessageTraceFormat.HEADER_SIZE;
+    while (position + MessageTraceFormat.RECORD_HEADER_SIZE <= fileSize) {
+      ByteBuffer buffer = map(position, MessageTraceFormat.RECORD_HEADER_SIZE);
+      byte type = buffer.get();
+      int bodyLength = buffer.getInt();
+      long bodyPosition = position + MessageTraceFormat.RECORD_HEADER_SIZE;
+      if (bodyLength < 0 || bodyPosition + bodyLength > fileSize) {
+        break;
+      }
+
+      if (type == MessageTraceFormat.RECORD_TYPE_CHANNEL && bodyLength >= 4) {
+        buffer = map(bodyPosition, bodyLength);
+        int channelId = buffer.getInt();
+        byte[] name = new byte[bodyLength - 4];
+        buffer.get(name);
+        setChannel(channelId, new String(name, MessageTraceFormat.CHARSET));
+      } else if (type == MessageTraceFormat.RECORD_TYPE_MESSAGE
+          && bodyLength >= MessageTraceFormat.MESSAGE_BODY_HEADER_SIZE) {
+        buffer = map(bodyPosition, MessageTraceFormat.MESSAGE_BODY_HEADER_SIZE);
+        long timestamp = buffer.getLong();
+        int channelId = buffer.getInt();
+        if (channelId >= channelCounts.length) {
+          break;
+        }
+        channelCounts[channelId]++;
+        if (lastIndexedTimestamp == Long.MIN_VALUE
+            || timestamp >= lastIndexedTimestamp + MessageTraceFormat.INDEX_INTERVAL) {
+          entries.add(timestamp);
+          entries.add(position);
+          lastIndexedTimestamp = timestamp;
+        }
+      } else {
+        // Anything else is the start of the index block or garbage.
+        break;
+      }
+
+      position = bodyPosition + bodyLength;
+    }
+
+    dataEnd = position;
+    window = null;
+
+    timeIndex = new long[entries.size()];
+    for (int i = 0; i < timeIndex.length; i++) {
+      timeIndex[i] = entries.get(i);
+    }
+  }
+
+  /**
+   * Record the name of a channel.
+   *
+   * @param channelId
+   *          the ID of the channel
+   * @param name
+   *          the name of the channel
+   */
+  private void setChannel(int channelId, String name) {
+    while (channelNames.size() <= channelId) {
+      channelNames.add(null);
+    }
+    channelNames.set(channelId, name);
+
+    if (channelCounts.length <= channelId) {
+      long[] newChannelCounts = new long[channelId + 1];
+      System.arraycopy(channelCounts, 0, newChannelCounts, 0, channelCounts.length);
+      channelCounts = newChannelCounts;
+    }
+  }
+
+  /**
+   * Get a buffer positioned at a range of the trace, mapping a new segment if
+   * the range is not in the current one.
+   *
+   * @param position
+   *          the file position of the range
+   * @param length
+   *          the length of the range
+   *
+   * @return the buffer, positioned at the start of the range
+   */
+  private ByteBuffer map(long position, int length) {
+    if (window == null || position < windowStart || position + length > windowStart + window.limit()) {
+      long mapLength = Math.min(Math.max(segmentSize, length), dataEnd - position);
+      try {
+        window = fileChannel.map(MapMode.READ_ONLY, position, mapLength);
+      } catch (IOException e) {
+        throw new InteractiveSpacesException("Could not map message trace " + traceFile.getAbsolutePath(), e);
+      }
+      windowStart = position;
+    }
+    window.position((int) (position - windowStart));
+
+    return window;
+  }
+
+  /**
+   * Read part of the trace into a heap buffer.
+   *
+   * @param position
+   *          the file position to read from
+   * @param length
+   *          the number of bytes to read
+   *
+   * @return the buffer, ready for reading
+   *
+   * @throws IOException
+   *           the read failed or the file was too short
+   */
+  private ByteBuffer readFully(long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (fileChannel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of message trace");
+      }
+    }
+    buffer.flip();
+
+    return buffer;
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.liveactivity.runtime.standalone.messaging;
+
+/**
+ * A message read from a binary message trace.
+ *
+ * <p>
+ * Records are reused by a {@link MessageTraceReader}, so copy anything needed
+ * past the next read.
+ *
+ * @author agent
+ */
+public class MessageTraceRecord {
+
+  /**
+   * The time of the message, in milliseconds.
+   */
+  private long timestamp;
+
+  /**
+   * The channel the message was on.
+   */
+  private String channel;
+
+  /**
+   * The message as JSON.
+   */
+  private String message;
+
+  /**
+   * Set the contents of the record.
+   *
+   * @param timestamp
+   *          the time of the message, in milliseconds
+   * @param channel
+   *          the channel the message was on
+   * @param message
+   *          the message as JSON
+   */
+  void set(long timestamp, String channel, String message) {
+    this.timestamp = timestamp;
+    this.channel = channel;
+    this.message = message;
+  }
+
+  /**
+   * @return the time of the message, in milliseconds
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * @return the channel the message was on
+   */
+  public String getChannel() {
+    return channel;
+  }
+
+  /**
+   * @return the message as JSON
+   */
+  public String getMessage() {
+    return message;
+  }
+}
@@ -0,0 +1,506 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.liveactivity.runtime.standalone.messaging;
+
+import interactivespaces.InteractiveSpacesException;
+import interactivespaces.util.data.json.JsonMapper;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.apache.commons.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes traced messages to a binary trace file, see
+ * {@link MessageTraceFormat}.
+ *
+ * <p>
+ * Recording a message only places it on a queue. Messages are serialized and
+ * written through a buffered {@link FileChannel} by a thread the writer owns,
+ * so the message path never waits on the disk. The buffer is written out whenever the
+ * queue empties. If the queue fills, messages are dropped and counted rather
+ * than blocking the message path.
+ *
+ * @author agent
+ */
+public class MessageTraceWriter {
+
+  /**
+   * The default number of messages which can be waiting to be written.
+   */
+  public static final int QUEUE_CAPACITY_DEFAULT = 65536;
+
+  /**
+   * How long to wait for queued messages to be written on close, in seconds.
+   */
+  public static final long CLOSE_WAIT_DEFAULT = 5;
+
+  /**
+   * Size of the write buffer, in bytes.
+   */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Json mapper for message serialization.
+   */
+  private static final JsonMapper MAPPER = new JsonMapper();
+
+  /**
+   * Queue entry marking the end of the trace.
+   */
+  private static final TraceEntry END_OF_TRACE = new TraceEntry(0, null, null);
+
+  /**
+   * The file being written.
+   */
+  private final File traceFile;
+
+  /**
+   * Logger for the writer.
+   */
+  private final Log log;
+
+  /**
+   * Messages waiting to be written.
+   */
+  private final BlockingQueue<TraceEntry> queue;
+
+  /**
+   * Counted down when the writer thread has finished the file.
+   */
+  private final CountDownLatch finished = new CountDownLatch(1);
+
+  /**
+   * The number of messages dropped because the queue was full.
+   */
+  private final AtomicLong numberDropped = new AtomicLong();
+
+  /**
+   * The thread writing the trace file.
+   */
+  private Thread writerThread;
+
+  /**
+   * {@code true} if the writer is accepting messages.
+   */
+  private volatile boolean running;
+
+  /**
+   * The channel for the trace file.
+   */
+  private FileChannel fileChannel;
+
+  /**
+   * Buffer for writes to the file.
+   */
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+  /**
+   * Position in the file the next byte will be written to.
+   */
+  private long position;
+
+  /**
+   * Channel IDs, keyed by channel name.
+   */
+  private final Map<String, Integer> channelIds = Maps.newHashMap();
+
+  /**
+   * Channel names in order of ID.
+   */
+  private final List<String> channelNames = Lists.newArrayList();
+
+  /**
+   * Number of messages on each channel, in order of ID.
+   */
+  private final List<long[]> channelCounts = Lists.newArrayList();
+
+  /**
+   * Time index of alternating timestamps and file positions.
+   */
+  private long[] timeIndex = new long[256];
+
+  /**
+   * Number of values in the time index.
+   */
+  private int timeIndexSize;
+
+  /**
+   * Timestamp of the last time index entry.
+   */
+  private long lastIndexedTimestamp = Long.MIN_VALUE;
+
+  /**
+   * Construct a writer with the default queue capacity.
+   *
+   * @param traceFile
+   *          the file to write
+   * @param log
+   *          logger for the writer
+   */
+  public MessageTraceWriter(File traceFile, Log log) {
+    this(traceFile, QUEUE_CAPACITY_DEFAULT, log);
+  }
+
+  /**
+   * Construct a writer.
+   *
+   * @param traceFile
+   *          the file to write
+   * @param queueCapacity
+   *          the number of messages which can be waiting to be written
+   * @param log
+   *          logger for the writer
+   */
+  public MessageTraceWriter(File traceFile, int queueCapacity, Log log) {
+    this.traceFile = traceFile;
+    this.log = log;
+    queue = new LinkedBlockingQueue<TraceEntry>(queueCapacity);
+  }
+
+  /**
+   * Open the trace file and start the writer thread.
+   *
+   * @param startTime
+   *          the time the trace starts, in milliseconds
+   */
+  public void startup(long startTime) {
+    try {
+      RandomAccessFile file = new RandomAccessFile(traceFile, "rw");
+      file.setLength(0);
+      fileChannel = file.getChannel();
+
+      buffer.putInt(MessageTraceFormat.HEADER_MAGIC);
+      buffer.putInt(MessageTraceFormat.VERSION);
+      buffer.putLong(startTime);
+      position = MessageTraceFormat.HEADER_SIZE;
+      flushBuffer();
+    } catch (IOException e) {
+      throw new InteractiveSpacesException("Could not open message trace file " + traceFile.getAbsolutePath(), e);
+    }
+
+    running = true;
+
+    // The writer spends most of its time waiting on the queue, so it gets a
+    // thread of its own rather than holding one from a shared pool.
+    writerThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        writeLoop();
+      }
+    }, "MessageTraceWriter " + traceFile.getName());
+    writerThread.setDaemon(true);
+    writerThread.start();
+  }
+
+  /**
+   * Record a message.
+   *
+   * @param timestamp
+   *          the time of the message, in milliseconds
+   * @param channel
+   *          the channel the message was on
+   * @param message
+   *          the message, which must not be changed afterwards
+   *
+   * @return {@code true} if the message will be written, {@code false} if it
+   *         was dropped
+   */
+  public boolean record(long timestamp, String channel, Map<String, Object> message) {
+    if (running && queue.offer(new TraceEntry(timestamp, channel, message))) {
+      return true;
+    }
+
+    numberDropped.incrementAndGet();
+    return false;
+  }
+
+  /**
+   * Write all queued messages, finish the trace file and close it.
+   */
+  public void close() {
+    if (!running) {
+      return;
+    }
+    running = false;
+
+    try {
+      if (!queue.offer(END_OF_TRACE, CLOSE_WAIT_DEFAULT, TimeUnit.SECONDS)
+          || !finished.await(CLOSE_WAIT_DEFAULT, TimeUnit.SECONDS)) {
+        log.warn("Timed out waiting for message trace to be written to " + traceFile.getAbsolutePath());
+        writerThread.interrupt();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    if (numberDropped.get() > 0) {
+      log.warn(String.format("Dropped %d messages from message trace %s", numberDropped.get(),
+          traceFile.getAbsolutePath()));
+    }
+  }
+
+  /**
+   * Get the number of messages dropped because the writer could not keep up.
+   *
+   * @return the number of messages dropped
+   */
+  public long getNumberDropped() {
+    return numberDropped.get();
+  }
+
+  /**
+   * Write queued messages until the end of the trace.
+   */
+  private void writeLoop() {
+    List<TraceEntry> batch = Lists.newArrayList();
+    try {
+      while (true) {
+        batch.add(queue.take());
+        queue.drainTo(batch);
+        for (TraceEntry entry : batch) {
+          if (entry == END_OF_TRACE) {
+            writeIndex();
+            return;
+          }
+          writeMessage(entry);
+        }
+        batch.clear();
+
+        // Nothing waiting, so get what we have onto disk.
+        flushBuffer();
+      }
+    } catch (InterruptedException e) {
+      log.warn("Message trace writer interrupted, trace will not be indexed");
+    } catch (Exception e) {
+      log.error("Error while writing message trace " + traceFile.getAbsolutePath(), e);
+    } finally {
+      running = false;
+      try {
+        flushBuffer();
+        fileChannel.close();
+      } catch (IOException e) {
+        log.error("Could not close message trace " + traceFile.getAbsolutePath(), e);
+      }
+      queue.clear();
+      finished.countDown();
+    }
+  }
+
+  /**
+   * Write a message record, and the channel record if this is the first
+   * message on its channel.
+   *
+   * @param entry
+   *          the message to write
+   *
+   * @throws IOException
+   *           the write failed
+   */
+  private void writeMessage(TraceEntry entry) throws IOException {
+    Integer channelId = channelIds.get(entry.channel);
+    if (channelId == null) {
+      channelId = channelNames.size();
+      channelIds.put(entry.channel, channelId);
+      channelNames.add(entry.channel);
+      channelCounts.add(new long[1]);
+
+      byte[] name = entry.channel.getBytes(MessageTraceFormat.CHARSET);
+      ensureSpace(MessageTraceFormat.RECORD_HEADER_SIZE + 4 + name.length);
+      buffer.put(MessageTraceFormat.RECORD_TYPE_CHANNEL);
+      buffer.putInt(4 + name.length);
+      buffer.putInt(channelId);
+      buffer.put(name);
+      position += MessageTraceFormat.RECORD_HEADER_SIZE + 4 + name.length;
+    }
+
+    if (entry.timestamp >= lastIndexedTimestamp + MessageTraceFormat.INDEX_INTERVAL
+        || lastIndexedTimestamp == Long.MIN_VALUE) {
+      addIndexEntry(entry.timestamp, position);
+    }
+    channelCounts.get(channelId)[0]++;
+
+    byte[] payload = MAPPER.toString(entry.message).getBytes(MessageTraceFormat.CHARSET);
+    int bodyLength = MessageTraceFormat.MESSAGE_BODY_HEADER_SIZE + payload.length;
+    ensureSpace(MessageTraceFormat.RECORD_HEADER_SIZE + MessageTraceFormat.MESSAGE_BODY_HEADER_SIZE);
+    buffer.put(MessageTraceFormat.RECORD_TYPE_MESSAGE);
+    buffer.putInt(bodyLength);
+    buffer.putLong(entry.timestamp);
+    buffer.putInt(channelId);
+    writeBytes(payload);
+    position += MessageTraceFormat.RECORD_HEADER_SIZE + bodyLength;
+  }
+
+  /**
+   * Write the index block and footer.
+   *
+   * @throws IOException
+   *           the write failed
+   */
+  private void writeIndex() throws IOException {
+    long indexPosition = position;
+
+    ensureSpace(8);
+    buffer.putInt(MessageTraceFormat.INDEX_MAGIC);
+    buffer.putInt(channelNames.size());
+    for (int i = 0; i < channelNames.size(); i++) {
+      byte[] name = channelNames.get(i).getBytes(MessageTraceFormat.CHARSET);
+      ensureSpace(16);
+      buffer.putInt(i);
+      buffer.putLong(channelCounts.get(i)[0]);
+      buffer.putInt(name.length);
+      writeBytes(name);
+    }
+
+    ensureSpace(4);
+    buffer.putInt(timeIndexSize / 2);
+    for (int i = 0; i < timeIndexSize; i += 2) {
+      ensureSpace(16);
+      buffer.putLong(timeIndex[i]);
+      buffer.putLong(timeIndex[i + 1]);
+    }
+
+    ensureSpace(MessageTraceFormat.FOOTER_SIZE);
+    buffer.putLong(indexPosition);
+    buffer.putInt(MessageTraceFormat.FOOTER_MAGIC);
+    flushBuffer();
+  }
+
+  /**
+   * Add an entry to the time index.
+   *
+   * @param timestamp
+   *          the timestamp of the record
+   * @param recordPosition
+   *          the position of the record in the file
+   */
+  private void addIndexEntry(long timestamp, long recordPosition) {
+    if (timeIndexSize == timeIndex.length) {
+      long[] newTimeIndex = new long[timeIndex.length * 2];
+      System.arraycopy(timeIndex, 0, newTimeIndex, 0, timeIndexSize);
+      timeIndex = newTimeIndex;
+    }
+    timeIndex[timeIndexSize++] = timestamp;
+    timeIndex[timeIndexSize++] = recordPosition;
+    lastIndexedTimestamp = timestamp;
+  }
+
+  /**
+   * Write bytes which may be larger than the buffer.
+   *
+   * @param bytes
+   *          the bytes to write
+   *
+   * @throws IOException
+   *           the write failed
+   */
+  private void writeBytes(byte[] bytes) throws IOException {
+    if (bytes.length <= buffer.remaining()) {
+      buffer.put(bytes);
+    } else if (bytes.length <= buffer.capacity()) {
+      flushBuffer();
+      buffer.put(bytes);
+    } else {
+      flushBuffer();
+      ByteBuffer large = ByteBuffer.wrap(bytes);
+      while (large.hasRemaining()) {
+        fileChannel.write(large);
+      }
+    }
+  }
+
+  /**
+   * Make sure the buffer has room for some bytes.
+   *
+   * @param size
+   *          the number of bytes needed
+   *
+   * @throws IOException
+   *           the buffer could not be written out
+   */
+  private void ensureSpace(int size) throws IOException {
+    if (buffer.remaining() < size) {
+      flushBuffer();
+    }
+  }
+
+  /**
+   * Write out the buffer.
+   *
+   * @throws IOException
+   *           the write failed
+   */
+  private void flushBuffer() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      fileChannel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * A message waiting to be written.
+   *
+   * @author agent
+   */
+  private static final class TraceEntry {
+
+    /**
+     * The time of the message.
+     */
+    private final long timestamp;
+
+    /**
+     * The channel the message was on.
+     */
+    private final String channel;
+
+    /**
+     * The message.
+     */
+    private final Map<String, Object> message;
+
+    /**
+     * Construct an entry.
+     *
+     * @param timestamp
+     *          the time of the message
+     * @param channel
+     *          the channel the message was on
+     * @param message
+     *          the message
+     */
+    private TraceEntry(long timestamp, String channel, Map<String, Object> message) {
+      this.timestamp = timestamp;
+      this.channel = channel;
+      this.message = message;
+    }
+  }
+}
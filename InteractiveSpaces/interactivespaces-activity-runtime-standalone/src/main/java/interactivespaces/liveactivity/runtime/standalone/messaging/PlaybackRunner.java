@@ -31,7 +31,7 @@ import java.io.FileReader;
  *
  * @author Trevor Pering
  */
-class PlaybackRunner implements Runnable {
+class PlaybackRunner implements MessagePlaybackRunner {
 
   /**
    * Default time to initially wait for completion.
@@ -121,9 +121,7 @@ class PlaybackRunner implements Runnable {
     }
   }
 
-  /**
-   * Stop the playback runner.
-   */
+  @Override
   public void stop() {
     Closeables.closeQuietly(playbackReader);
   }
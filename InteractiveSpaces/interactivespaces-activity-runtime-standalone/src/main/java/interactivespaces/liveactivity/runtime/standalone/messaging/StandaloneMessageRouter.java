@@ -32,6 +32,7 @@ import interactivespaces.liveactivity.runtime.standalone.messaging.MessageUtils.
 import interactivespaces.time.TimeProvider;
 import interactivespaces.util.data.json.JsonMapper;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import interactivespaces_msgs.GenericMessage;
@@ -40,6 +41,7 @@ import org.apache.commons.logging.Log;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.PrintWriter;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -70,6 +72,46 @@ public class StandaloneMessageRouter extends BaseActivityComponent
    */
   public static final String SEGMENT_KEY = "segment";
 
+  /**
+   * Configuration property giving the format of message traces, either
+   * {@link #TRACE_FORMAT_JSON} or {@link #TRACE_FORMAT_BINARY}.
+   */
+  public static final String CONFIGURATION_TRACE_FORMAT = "standalone.trace.format";
+
+  /**
+   * Trace format writing each message as a line of JSON.
+   */
+  public static final String TRACE_FORMAT_JSON = "json";
+
+  /**
+   * Trace format writing an indexed binary trace, see {@link MessageTraceWriter}.
+   */
+  public static final String TRACE_FORMAT_BINARY = "binary";
+
+  /**
+   * Configuration property giving the multiple of the recorded speed binary
+   * traces are played back at. {@code 0} plays back as fast as possible.
+   */
+  public static final String CONFIGURATION_PLAYBACK_SPEED = "standalone.playback.speed";
+
+  /**
+   * Configuration property giving how far into a binary trace to start
+   * playback, in milliseconds from the first message.
+   */
+  public static final String CONFIGURATION_PLAYBACK_START = "standalone.playback.start";
+
+  /**
+   * Configuration property giving the routes to play back from a binary trace,
+   * separated by {@link #CONFIGURATION_VALUES_SEPARATOR}. All routes are played
+   * back if not set.
+   */
+  public static final String CONFIGURATION_PLAYBACK_ROUTES = "standalone.playback.routes";
+
+  /**
+   * File name suffix for binary message traces.
+   */
+  public static final String BINARY_TRACE_SUFFIX = ".trace";
+
   /**
    * Router for, well, route messages.
    */
@@ -105,6 +147,17 @@ public class StandaloneMessageRouter extends BaseActivityComponent
    */
   private PrintWriter sendTraceWriter;
 
+  /**
+   * Binary output for tracing received messages, {@code null} if tracing as
+   * JSON.
+   */
+  private MessageTraceWriter receiveTraceRecorder;
+
+  /**
+   * Binary output for tracing sent messages, {@code null} if tracing as JSON.
+   */
+  private MessageTraceWriter sendTraceRecorder;
+
   /**
    * Runner for checking produced messages.
    */
@@ -113,7 +166,7 @@ public class StandaloneMessageRouter extends BaseActivityComponent
   /**
    * Runner for checking playback messages.
    */
-  private PlaybackRunner playbackRunner;
+  private MessagePlaybackRunner playbackRunner;
 
   /**
    * The activity that this router is supporting.
@@ -204,6 +257,7 @@ public class StandaloneMessageRouter extends BaseActivityComponent
       if (playbackRunner != null) {
         playbackRunner.stop();
       }
+      closeTraces();
     } finally {
       activity = null;
       listener = null;
@@ -231,11 +285,24 @@ public class StandaloneMessageRouter extends BaseActivityComponent
       });
 
       if (!messageWhiteList.isEmpty()) {
-        boolean autoFlush = true;
-        File receiveTraceFile = new File(activity.getActivityFilesystem().getLogDirectory(), "messages.recv");
-        receiveTraceWriter = new PrintWriter(new FileOutputStream(receiveTraceFile), autoFlush);
-        File sendTraceFile = new File(activity.getActivityFilesystem().getLogDirectory(), "messages.send");
-        sendTraceWriter = new PrintWriter(new FileOutputStream(sendTraceFile), autoFlush);
+        File logDirectory = activity.getActivityFilesystem().getLogDirectory();
+        String traceFormat = activity.getConfiguration().getPropertyString(CONFIGURATION_TRACE_FORMAT,
+            TRACE_FORMAT_JSON);
+        if (TRACE_FORMAT_BINARY.equals(traceFormat)) {
+          long now = getCurrentTimestamp();
+          receiveTraceRecorder =
+              new MessageTraceWriter(new File(logDirectory, "messages.recv" + BINARY_TRACE_SUFFIX), getLog());
+          receiveTraceRecorder.startup(now);
+          sendTraceRecorder =
+              new MessageTraceWriter(new File(logDirectory, "messages.send" + BINARY_TRACE_SUFFIX), getLog());
+          sendTraceRecorder.startup(now);
+        } else {
+          boolean autoFlush = true;
+          File receiveTraceFile = new File(logDirectory, "messages.recv");
+          receiveTraceWriter = new PrintWriter(new FileOutputStream(receiveTraceFile), autoFlush);
+          File sendTraceFile = new File(logDirectory, "messages.send");
+          sendTraceWriter = new PrintWriter(new FileOutputStream(sendTraceFile), autoFlush);
+        }
       }
     } catch (Exception e) {
       throw new SimpleInteractiveSpacesException("While creating standalone message route", e);
@@ -301,8 +368,14 @@ public class StandaloneMessageRouter extends BaseActivityComponent
     traceMessage.remove(SOURCE_UUID_KEY);
     traceMessage.remove(SEGMENT_KEY);
 
-    PrintWriter traceWriter = isSend ? sendTraceWriter : receiveTraceWriter;
     long now = getCurrentTimestamp();
+    MessageTraceWriter traceRecorder = isSend ? sendTraceRecorder : receiveTraceRecorder;
+    if (traceRecorder != null) {
+      traceRecorder.record(now, (String) traceMessage.get("route"), traceMessage);
+      return;
+    }
+
+    PrintWriter traceWriter = isSend ? sendTraceWriter : receiveTraceWriter;
     int timeIndex = isSend ? 0 : 1;
     if (lastMessageTime[timeIndex] < 0) {
       lastMessageTime[timeIndex] = now;
@@ -312,6 +385,28 @@ public class StandaloneMessageRouter extends BaseActivityComponent
     traceWriter.println(MAPPER.toString(traceMessage));
   }
 
+  /**
+   * Finish and close any message traces.
+   */
+  private void closeTraces() {
+    if (receiveTraceRecorder != null) {
+      receiveTraceRecorder.close();
+      receiveTraceRecorder = null;
+    }
+    if (sendTraceRecorder != null) {
+      sendTraceRecorder.close();
+      sendTraceRecorder = null;
+    }
+    if (receiveTraceWriter != null) {
+      receiveTraceWriter.close();
+      receiveTraceWriter = null;
+    }
+    if (sendTraceWriter != null) {
+      sendTraceWriter.close();
+      sendTraceWriter = null;
+    }
+  }
+
   /**
    * Make a trace message.
    *
@@ -401,7 +496,28 @@ public class StandaloneMessageRouter extends BaseActivityComponent
     if (playbackRunner != null) {
       throw new InteractiveSpacesException("Multiple playback runners activated");
     }
-    playbackRunner = new PlaybackRunner(this, new File(playbackPath), onRoute);
+    File playbackFile = new File(playbackPath);
+    if (MessageTraceReader.isTraceFile(playbackFile)) {
+      Configuration configuration = activity.getConfiguration();
+      String routes = configuration.getPropertyString(CONFIGURATION_PLAYBACK_ROUTES);
+      List<String> playbackRoutes = null;
+      if (routes != null) {
+        playbackRoutes = Lists.newArrayList();
+        for (String route : routes.split(CONFIGURATION_VALUES_SEPARATOR)) {
+          route = route.trim();
+          if (!route.isEmpty()) {
+            playbackRoutes.add(route);
+          }
+        }
+      }
+
+      playbackRunner =
+          new TracePlaybackRunner(this, playbackFile, onRoute, configuration.getPropertyDouble(
+              CONFIGURATION_PLAYBACK_SPEED, 1.0), configuration.getPropertyLong(CONFIGURATION_PLAYBACK_START, 0L),
+              playbackRoutes);
+    } else {
+      playbackRunner = new PlaybackRunner(this, playbackFile, onRoute);
+    }
     getComponentContext().getActivity().getSpaceEnvironment().getExecutorService().submit(playbackRunner);
   }
 
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.liveactivity.runtime.standalone.messaging;
+
+import interactivespaces.liveactivity.runtime.standalone.messaging.MessageUtils.MessageMap;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A runner that plays back messages from a binary message trace into the
+ * message router.
+ *
+ * <p>
+ * Playback can start part way into the trace, be limited to some channels and
+ * run at a multiple of the recorded speed or as fast as possible. Messages are
+ * sent against deadlines measured from the start of playback, so delays in
+ * handling one message do not push back all later ones.
+ *
+ * @author agent
+ */
+class TracePlaybackRunner implements MessagePlaybackRunner {
+
+  /**
+   * Number of nanoseconds in a millisecond.
+   */
+  private static final double NANOSECONDS_PER_MILLISECOND = 1000000.0;
+
+  /**
+   * The trace being played back.
+   */
+  private final MessageTraceReader traceReader;
+
+  /**
+   * {@code true} if messages should be played back on a route.
+   */
+  private final boolean onRoute;
+
+  /**
+   * Message router to use for handling messages.
+   */
+  private final StandaloneMessageRouter standaloneMessageRouter;
+
+  /**
+   * Multiple of the recorded speed to play back at, {@code 0} or less for as
+   * fast as possible.
+   */
+  private final double speed;
+
+  /**
+   * How far into the trace to start playback, in milliseconds from the first
+   * message.
+   */
+  private final long startOffset;
+
+  /**
+   * {@code true} while the playback should keep going.
+   */
+  private volatile boolean running = true;
+
+  /**
+   * Create a new playback runner.
+   *
+   * @param standaloneMessageRouter
+   *          router to use for playback
+   * @param traceFile
+   *          the binary message trace
+   * @param onRoute
+   *          {@code true} if messages should be played back on a route
+   * @param speed
+   *          multiple of the recorded speed to play back at, {@code 0} or less
+   *          for as fast as possible
+   * @param startOffset
+   *          how far into the trace to start playback, in milliseconds from
+   *          the first message
+   * @param channels
+   *          the channels to play back, {@code null} for all channels
+   */
+  public TracePlaybackRunner(StandaloneMessageRouter standaloneMessageRouter, File traceFile, boolean onRoute,
+      double speed, long startOffset, Collection<String> channels) {
+    this.standaloneMessageRouter = standaloneMessageRouter;
+    this.onRoute = onRoute;
+    this.speed = speed;
+    this.startOffset = startOffset;
+
+    traceReader = new MessageTraceReader(traceFile);
+    traceReader.setChannelFilter(channels);
+  }
+
+  @Override
+  public void run() {
+    try {
+      if (startOffset > 0) {
+        traceReader.seek(traceReader.getFirstTimestamp() + startOffset);
+      }
+
+      MessageTraceRecord record = new MessageTraceRecord();
+      long baseTimestamp = 0;
+      long baseTime = 0;
+      long numberMessages = 0;
+      while (running && traceReader.next(record)) {
+        if (numberMessages == 0) {
+          baseTimestamp = record.getTimestamp();
+          baseTime = System.nanoTime();
+        }
+        numberMessages++;
+
+        if (speed > 0) {
+          long deadline =
+              baseTime + (long) ((record.getTimestamp() - baseTimestamp) * NANOSECONDS_PER_MILLISECOND / speed);
+          long delay = deadline - System.nanoTime();
+          if (delay > 0) {
+            TimeUnit.NANOSECONDS.sleep(delay);
+          }
+        }
+
+        try {
+          standaloneMessageRouter.processMessage(MessageMap.fromString(record.getMessage()), onRoute);
+        } catch (Exception e) {
+          standaloneMessageRouter.handleError("While processing playback record", e);
+        }
+      }
+
+      if (numberMessages > 0) {
+        double elapsed = (System.nanoTime() - baseTime) / NANOSECONDS_PER_MILLISECOND;
+        standaloneMessageRouter.getLog().info(
+            String.format("Played back %d messages in %.0fms, trace covered %dms", numberMessages, elapsed,
+                record.getTimestamp() - baseTimestamp));
+      }
+
+      // Let last messages clear system.
+      long finishDelayMs = PlaybackRunner.DEFAULT_FINISH_DELAY_MS;
+      while (running && finishDelayMs > 0) {
+        standaloneMessageRouter.getLog().info(
+            String.format("Done with playback, waiting %sms for completion.", finishDelayMs));
+        Thread.sleep(finishDelayMs);
+        finishDelayMs = standaloneMessageRouter.getFinishDeltaMs();
+      }
+
+      if (running) {
+        standaloneMessageRouter.verifyFinished();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      standaloneMessageRouter.handleError("While processing playback trace", e);
+    } finally {
+      traceReader.close();
+    }
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+  }
+}
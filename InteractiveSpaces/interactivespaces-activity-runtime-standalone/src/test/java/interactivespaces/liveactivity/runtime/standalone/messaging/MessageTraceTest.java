@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.liveactivity.runtime.standalone.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import interactivespaces.liveactivity.runtime.standalone.messaging.MessageUtils.MessageMap;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.apache.commons.logging.Log;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Map;
+
+/**
+ * Tests for the {@link MessageTraceWriter} and {@link MessageTraceReader}.
+ *
+ * @author agent
+ */
+public class MessageTraceTest {
+
+  /**
+   * The time the test traces start.
+   */
+  private static final long START_TIME = 1000000;
+
+  private File file;
+
+  @Before
+  public void setup() throws IOException {
+    file = File.createTempFile("messages", ".trace");
+  }
+
+  @After
+  public void cleanup() {
+    file.delete();
+  }
+
+  /**
+   * Messages come back in order with their timestamps and channels, and the
+   * index gives the channels and their message counts.
+   */
+  @Test
+  public void testRoundTrip() {
+    writeTrace(300);
+
+    MessageTraceReader reader = new MessageTraceReader(file);
+    try {
+      assertEquals(START_TIME, reader.getStartTime());
+      assertEquals(START_TIME, reader.getFirstTimestamp());
+      assertEquals(Lists.newArrayList("even", "odd"), reader.getChannels());
+      assertEquals(150, reader.getMessageCount("even"));
+      assertEquals(150, reader.getMessageCount("odd"));
+
+      assertMessages(reader, 0, 300, 1);
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Seeking goes to the first message at or after a time, and the channel
+   * filter skips messages on other channels.
+   */
+  @Test
+  public void testSeekAndFilter() {
+    writeTrace(300);
+
+    MessageTraceReader reader = new MessageTraceReader(file);
+    try {
+      reader.seek(getTimestamp(201));
+      assertMessages(reader, 201, 300, 1);
+
+      reader.rewind();
+      reader.setChannelFilter(Lists.newArrayList("odd"));
+      assertMessages(reader, 1, 300, 2);
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * A trace cut off in the middle of a record has its index rebuilt, and
+   * reading stops at the last complete record.
+   */
+  @Test
+  public void testTruncatedMidRecord() throws IOException {
+    writeTrace(300);
+
+    // Cut into the last message record, which also removes the index.
+    truncate(getIndexPosition() - 5);
+
+    MessageTraceReader reader = new MessageTraceReader(file);
+    try {
+      assertEquals(START_TIME, reader.getFirstTimestamp());
+      assertEquals(Lists.newArrayList("even", "odd"), reader.getChannels());
+      assertEquals(150, reader.getMessageCount("even"));
+      assertEquals(149, reader.getMessageCount("odd"));
+
+      assertMessages(reader, 0, 299, 1);
+
+      reader.seek(getTimestamp(250));
+      assertMessages(reader, 250, 299, 1);
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * A trace which lost only its index still gives every message.
+   */
+  @Test
+  public void testMissingIndex() throws IOException {
+    writeTrace(300);
+    truncate(getIndexPosition());
+
+    MessageTraceReader reader = new MessageTraceReader(file);
+    try {
+      assertEquals(150, reader.getMessageCount("odd"));
+      assertMessages(reader, 0, 300, 1);
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Write a trace of messages alternating between two channels, one every
+   * 100 milliseconds.
+   *
+   * @param numberMessages
+   *          the number of messages to write
+   */
+  private void writeTrace(int numberMessages) {
+    MessageTraceWriter writer = new MessageTraceWriter(file, Mockito.mock(Log.class));
+    writer.startup(START_TIME);
+    for (int i = 0; i < numberMessages; i++) {
+      Map<String, Object> message = Maps.newHashMap();
+      message.put("id", i);
+      assertTrue(writer.record(getTimestamp(i), getChannel(i), message));
+    }
+    writer.close();
+
+    assertEquals(0, writer.getNumberDropped());
+  }
+
+  /**
+   * Assert the next messages read are the expected ones, and then the trace
+   * ends.
+   *
+   * @param reader
+   *          the trace reader
+   * @param from
+   *          the ID of the first expected message
+   * @param to
+   *          one past the ID of the last expected message
+   * @param step
+   *          the step between message IDs
+   */
+  private void assertMessages(MessageTraceReader reader, int from, int to, int step) {
+    MessageTraceRecord record = new MessageTraceRecord();
+    for (int i = from; i < to; i += step) {
+      assertTrue(reader.next(record));
+      assertEquals(getTimestamp(i), record.getTimestamp());
+      assertEquals(getChannel(i), record.getChannel());
+      assertEquals(i, ((Number) MessageMap.fromString(record.getMessage()).get("id")).intValue());
+    }
+    assertFalse(reader.next(record));
+  }
+
+  /**
+   * Get the position of the index block from the trace footer.
+   *
+   * @return the index position
+   *
+   * @throws IOException
+   *           the footer could not be read
+   */
+  private long getIndexPosition() throws IOException {
+    RandomAccessFile trace = new RandomAccessFile(file, "r");
+    try {
+      trace.seek(trace.length() - MessageTraceFormat.FOOTER_SIZE);
+      return trace.readLong();
+    } finally {
+      trace.close();
+    }
+  }
+
+  /**
+   * Cut the trace off.
+   *
+   * @param length
+   *          the new length of the trace
+   *
+   * @throws IOException
+   *           the trace could not be cut off
+   */
+  private void truncate(long length) throws IOException {
+    RandomAccessFile trace = new RandomAccessFile(file, "rw");
+    try {
+      trace.setLength(length);
+    } finally {
+      trace.close();
+    }
+  }
+
+  /**
+   * Get the timestamp of a test message.
+   *
+   * @param id
+   *          the ID of the message
+   *
+   * @return the timestamp
+   */
+  private static long getTimestamp(int id) {
+    return START_TIME + 100 * id;
+  }
+
+  /**
+   * Get the channel of a test message.
+   *
+   * @param id
+   *          the ID of the message
+   *
+   * @return the channel
+   */
+  private static String getChannel(int id) {
+    return (id % 2 == 0) ? "even" : "odd";
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.liveactivity.runtime.standalone.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import interactivespaces.liveactivity.runtime.standalone.messaging.MessageUtils.MessageMap;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.apache.commons.logging.Log;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the {@link TracePlaybackRunner}.
+ *
+ * @author agent
+ */
+public class TracePlaybackRunnerTest {
+
+  /**
+   * Milliseconds between messages in the test trace.
+   */
+  private static final long MESSAGE_INTERVAL = 100;
+
+  /**
+   * How late a played back message may be, in milliseconds.
+   */
+  private static final long LATENESS_MAX = 80;
+
+  /**
+   * Number of nanoseconds in a millisecond.
+   */
+  private static final long NANOSECONDS_PER_MILLISECOND = 1000000;
+
+  private File file;
+
+  private StandaloneMessageRouter router;
+
+  /**
+   * IDs of the played back messages, in the order they were played.
+   */
+  private List<Integer> playedIds;
+
+  /**
+   * When each message was played back, in nanoseconds.
+   */
+  private List<Long> playedTimes;
+
+  /**
+   * How long handling each message takes, in milliseconds, keyed by message
+   * ID.
+   */
+  private Map<Integer, Long> handlingTimes;
+
+  /**
+   * When playback started, in nanoseconds.
+   */
+  private long playbackStart;
+
+  @Before
+  public void setup() throws IOException {
+    file = File.createTempFile("messages", ".trace");
+
+    playedIds = Lists.newArrayList();
+    playedTimes = Lists.newArrayList();
+    handlingTimes = Maps.newHashMap();
+
+    router = Mockito.mock(StandaloneMessageRouter.class);
+    when(router.getLog()).thenReturn(Mockito.mock(Log.class));
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws InterruptedException {
+        playedTimes.add(System.nanoTime());
+        MessageMap message = (MessageMap) invocation.getArguments()[0];
+        int id = ((Number) message.get("id")).intValue();
+        playedIds.add(id);
+
+        Long handlingTime = handlingTimes.get(id);
+        if (handlingTime != null) {
+          Thread.sleep(handlingTime);
+        }
+        return null;
+      }
+    }).when(router).processMessage(any(MessageMap.class), anyBoolean());
+  }
+
+  @After
+  public void cleanup() {
+    file.delete();
+  }
+
+  /**
+   * Messages are played back with their recorded spacing.
+   */
+  @Test
+  public void testRecordedSpeed() {
+    writeTrace(5);
+
+    play(1.0, 0);
+
+    assertEquals(Lists.newArrayList(0, 1, 2, 3, 4), playedIds);
+    assertPlayedAt(MESSAGE_INTERVAL);
+  }
+
+  /**
+   * Faster playback shrinks the spacing of the messages.
+   */
+  @Test
+  public void testDoubleSpeed() {
+    writeTrace(5);
+
+    play(2.0, 0);
+
+    assertEquals(Lists.newArrayList(0, 1, 2, 3, 4), playedIds);
+    assertPlayedAt(MESSAGE_INTERVAL / 2);
+  }
+
+  /**
+   * Playback as fast as possible does not wait between messages.
+   */
+  @Test
+  public void testAsFastAsPossible() {
+    writeTrace(20);
+
+    play(0.0, 0);
+
+    assertEquals(20, playedIds.size());
+    long elapsed = (playedTimes.get(19) - playbackStart) / NANOSECONDS_PER_MILLISECOND;
+    assertTrue("Playback took " + elapsed + "ms", elapsed < MESSAGE_INTERVAL);
+  }
+
+  /**
+   * Playback starting part way into the trace times messages from the first
+   * message played.
+   */
+  @Test
+  public void testStartOffset() {
+    writeTrace(5);
+
+    play(1.0, MESSAGE_INTERVAL + MESSAGE_INTERVAL / 2);
+
+    assertEquals(Lists.newArrayList(2, 3, 4), playedIds);
+    assertPlayedAt(MESSAGE_INTERVAL);
+  }
+
+  /**
+   * A message which is slow to handle does not push back the messages after
+   * it.
+   */
+  @Test
+  public void testSlowMessage() {
+    writeTrace(5);
+    handlingTimes.put(1, MESSAGE_INTERVAL + MESSAGE_INTERVAL / 2);
+
+    play(1.0, 0);
+
+    assertEquals(Lists.newArrayList(0, 1, 2, 3, 4), playedIds);
+    long played = (playedTimes.get(3) - playbackStart) / NANOSECONDS_PER_MILLISECOND;
+    assertTrue("Message 3 played at " + played + "ms", played <= 3 * MESSAGE_INTERVAL + LATENESS_MAX);
+  }
+
+  /**
+   * Play back the test trace.
+   *
+   * @param speed
+   *          multiple of the recorded speed to play back at
+   * @param startOffset
+   *          how far into the trace to start playback, in milliseconds
+   */
+  private void play(double speed, long startOffset) {
+    TracePlaybackRunner runner = new TracePlaybackRunner(router, file, false, speed, startOffset, null);
+    playbackStart = System.nanoTime();
+    runner.run();
+  }
+
+  /**
+   * Write a trace of messages, one every {@link #MESSAGE_INTERVAL}
+   * milliseconds.
+   *
+   * @param numberMessages
+   *          the number of messages to write
+   */
+  private void writeTrace(int numberMessages) {
+    MessageTraceWriter writer = new MessageTraceWriter(file, Mockito.mock(Log.class));
+    writer.startup(0);
+    for (int i = 0; i < numberMessages; i++) {
+      Map<String, Object> message = Maps.newHashMap();
+      message.put("id", i);
+      writer.record(i * MESSAGE_INTERVAL, "channel", message);
+    }
+    writer.close();
+  }
+
+  /**
+   * Assert the messages were played back on schedule, measured from the start
+   * of playback.
+   *
+   * @param interval
+   *          the expected milliseconds between played messages
+   */
+  private void assertPlayedAt(long interval) {
+    for (int i = 0; i < playedTimes.size(); i++) {
+      long expected = i * interval;
+      long actual = (playedTimes.get(i) - playbackStart) / NANOSECONDS_PER_MILLISECOND;
+      assertTrue(String.format("Message %d played at %dms, expected %dms", i, actual, expected),
+          actual >= expected - 1 && actual <= expected + LATENESS_MAX);
+    }
+  }
+}
@@ -21,13 +21,16 @@ import interactivespaces.activity.ActivityFilesystem;
 import interactivespaces.configuration.Configuration;
 import interactivespaces.liveactivity.runtime.domain.ActivityInstallationStatus;
 import interactivespaces.liveactivity.runtime.domain.InstalledLiveActivity;
+import interactivespaces.liveactivity.runtime.installation.ActivityBundleCache;
+import interactivespaces.liveactivity.runtime.installation.ActivityContentStore;
 import interactivespaces.liveactivity.runtime.installation.ActivityInstallationListener;
+import interactivespaces.liveactivity.runtime.installation.ActivityInstallationResult;
 import interactivespaces.liveactivity.runtime.installation.ActivityInstallationManager;
 import interactivespaces.liveactivity.runtime.repository.LocalLiveActivityRepository;
 import interactivespaces.resource.Version;
+import interactivespaces.service.web.server.WebServer;
+import interactivespaces.service.web.server.internal.netty.NettyWebServer;
 import interactivespaces.system.InteractiveSpacesEnvironment;
-import interactivespaces.util.io.FileSupport;
-import interactivespaces.util.io.FileSupportImpl;
 import interactivespaces.util.web.HttpClientHttpContentCopier;
 import interactivespaces.util.web.HttpContentCopier;
 
@@ -58,6 +61,66 @@ public class SimpleActivityInstallationManager implements ActivityInstallationMa
    */
   private static final String CONTROLLER_APPLICATIONS_STAGING_DEFAULT = "controller/activities/staging";
 
+  /**
+   * Configuration property giving the location of the activity content store.
+   */
+  public static final String CONTROLLER_APPLICATION_CONTENT_DIRECTORY_PROPERTY =
+      "interactivespaces.controller.activity.content.directory";
+
+  /**
+   * The default folder for the activity content store.
+   */
+  private static final String CONTROLLER_APPLICATIONS_CONTENT_DEFAULT = "controller/activities/content";
+
+  /**
+   * Configuration property giving the location of the activity bundle cache.
+   */
+  public static final String CONTROLLER_APPLICATION_BUNDLE_DIRECTORY_PROPERTY =
+      "interactivespaces.controller.activity.bundle.directory";
+
+  /**
+   * The default folder for the activity bundle cache.
+   */
+  private static final String CONTROLLER_APPLICATIONS_BUNDLE_DEFAULT = "controller/activities/bundles";
+
+  /**
+   * Configuration property giving the maximum number of bundles kept in the bundle cache.
+   */
+  public static final String CONTROLLER_APPLICATION_BUNDLE_CACHE_SIZE_PROPERTY =
+      "interactivespaces.controller.activity.bundle.cache.size";
+
+  /**
+   * The default maximum number of bundles kept in the bundle cache.
+   */
+  public static final int CONTROLLER_APPLICATION_BUNDLE_CACHE_SIZE_DEFAULT = 10;
+
+  /**
+   * Configuration property giving the port cached bundles are served to other controllers on. Bundles aren't served
+   * if the port is {@code 0} or less.
+   *
+   * <p>
+   * Only verified bundles are served, each under the name of its digest. There is no authentication, so anyone who
+   * can reach the port and knows the digest of a bundle can download it. Only turn the server on where the controllers
+   * are on a network which is trusted with the activities being deployed.
+   */
+  public static final String CONTROLLER_APPLICATION_BUNDLE_SERVER_PORT_PROPERTY =
+      "interactivespaces.controller.activity.bundle.server.port";
+
+  /**
+   * The default port for serving cached bundles, which means bundles aren't served.
+   */
+  public static final int CONTROLLER_APPLICATION_BUNDLE_SERVER_PORT_DEFAULT = 0;
+
+  /**
+   * The URL path prefix cached bundles are served under.
+   */
+  public static final String BUNDLE_SERVER_URL_PATH_PREFIX = "bundles";
+
+  /**
+   * The name of the web server for serving cached bundles.
+   */
+  private static final String BUNDLE_SERVER_NAME = "interactivespaces-activity-bundles";
+
   /**
    * Mapping from UUID to the temporary file for an install.
    */
@@ -68,6 +131,26 @@ public class SimpleActivityInstallationManager implements ActivityInstallationMa
    */
   private File stagingBaseDirectory;
 
+  /**
+   * The store for installed activity files.
+   */
+  private ActivityContentStore contentStore;
+
+  /**
+   * The cache of activity bundles.
+   */
+  private ActivityBundleCache bundleCache;
+
+  /**
+   * The web server serving cached bundles to other controllers, {@code null} if bundles aren't served.
+   */
+  private WebServer bundleServer;
+
+  /**
+   * The base URL for cached bundles being served to other controllers.
+   */
+  private String bundleServerBaseUrl;
+
   /**
    * Copies files from the remote location.
    */
@@ -93,11 +176,6 @@ public class SimpleActivityInstallationManager implements ActivityInstallationMa
    */
   private final List<ActivityInstallationListener> listeners = new ArrayList<ActivityInstallationListener>();
 
-  /**
-   * File support to use.
-   */
-  private final FileSupport fileSupport = FileSupportImpl.INSTANCE;
-
   /**
    * Construct an activity installation manager.
    *
@@ -123,15 +201,106 @@ public class SimpleActivityInstallationManager implements ActivityInstallationMa
     stagingBaseDirectory =
         new File(spaceEnvironment.getFilesystem().getInstallDirectory(), systemConfiguration.getPropertyString(
             CONTROLLER_APPLICATION_STAGING_DIRECTORY_PROPERTY, CONTROLLER_APPLICATIONS_STAGING_DEFAULT));
+
+    contentStore =
+        new ActivityContentStore(new File(spaceEnvironment.getFilesystem().getInstallDirectory(),
+            systemConfiguration.getPropertyString(CONTROLLER_APPLICATION_CONTENT_DIRECTORY_PROPERTY,
+                CONTROLLER_APPLICATIONS_CONTENT_DEFAULT)), spaceEnvironment.getLog());
+    contentStore.startup();
+
+    bundleCache =
+        new ActivityBundleCache(new File(spaceEnvironment.getFilesystem().getInstallDirectory(),
+            systemConfiguration.getPropertyString(CONTROLLER_APPLICATION_BUNDLE_DIRECTORY_PROPERTY,
+                CONTROLLER_APPLICATIONS_BUNDLE_DEFAULT)), systemConfiguration.getPropertyInteger(
+            CONTROLLER_APPLICATION_BUNDLE_CACHE_SIZE_PROPERTY, CONTROLLER_APPLICATION_BUNDLE_CACHE_SIZE_DEFAULT),
+            remoteCopier, spaceEnvironment.getLog());
+    bundleCache.startup();
+
+    int bundleServerPort =
+        systemConfiguration.getPropertyInteger(CONTROLLER_APPLICATION_BUNDLE_SERVER_PORT_PROPERTY,
+            CONTROLLER_APPLICATION_BUNDLE_SERVER_PORT_DEFAULT);
+    if (bundleServerPort > 0) {
+      startupBundleServer(bundleServerPort);
+    }
+  }
+
+  /**
+   * Start up the web server which serves cached bundles to other controllers.
+   *
+   * @param port
+   *          the port to serve bundles on
+   */
+  private void startupBundleServer(int port) {
+    bundleServer =
+        new NettyWebServer(spaceEnvironment.getExecutorService(), spaceEnvironment.getExecutorService(),
+            spaceEnvironment.getLog());
+    bundleServer.setServerName(BUNDLE_SERVER_NAME);
+    bundleServer.setPort(port);
+
+    String webappPath = "/" + BUNDLE_SERVER_URL_PATH_PREFIX;
+    bundleServer.addStaticContentHandler(webappPath, bundleCache.getBundleDirectory());
+    bundleServer.startup();
+
+    bundleServerBaseUrl =
+        "http://"
+            + spaceEnvironment.getSystemConfiguration().getRequiredPropertyString(
+                InteractiveSpacesEnvironment.CONFIGURATION_HOSTNAME) + ":" + bundleServer.getPort() + webappPath;
+
+    spaceEnvironment.getLog().info(
+        String.format("Activity bundle server started with base URL %s", bundleServerBaseUrl));
   }
 
   @Override
   public void shutdown() {
+    if (bundleServer != null) {
+      bundleServer.shutdown();
+      bundleServer = null;
+    }
+
     remoteCopier.shutdown();
   }
 
   @Override
   public void copyActivity(String uuid, String uri) {
+    remoteCopier.copy(uri, newStagedLocation(uuid));
+  }
+
+  @Override
+  public void copyActivity(String uuid, List<String> sourceUris, String bundleDigest) {
+    if (sourceUris.isEmpty()) {
+      throw new SimpleInteractiveSpacesException("No source given for activity with UUID: " + uuid);
+    }
+
+    File stagedLocation = newStagedLocation(uuid);
+    if (bundleDigest != null) {
+      if (bundleCache.getBundle(bundleDigest, sourceUris, stagedLocation)) {
+        spaceEnvironment.getLog().info(
+            String.format("Activity with UUID %s staged from cached bundle %s", uuid, bundleDigest));
+      }
+    } else {
+      // Without a digest there is no way to check a peer's copy, so only the original source is used.
+      remoteCopier.copy(sourceUris.get(sourceUris.size() - 1), stagedLocation);
+    }
+  }
+
+  @Override
+  public String getBundleCacheUri(String bundleDigest) {
+    if (bundleServerBaseUrl == null || bundleDigest == null || !bundleCache.isCached(bundleDigest)) {
+      return null;
+    }
+
+    return bundleServerBaseUrl + "/" + ActivityBundleCache.getBundleFileName(bundleDigest);
+  }
+
+  /**
+   * Get the location an activity will be staged in and mark the activity as being copied.
+   *
+   * @param uuid
+   *          UUID of the activity
+   *
+   * @return the staged location
+   */
+  private File newStagedLocation(String uuid) {
     String fileName = uuid + ".zip";
 
     File stagedLocation = null;
@@ -145,11 +314,11 @@ public class SimpleActivityInstallationManager implements ActivityInstallationMa
       uuidToTemporary.put(uuid, stagedLocation);
     }
 
-    remoteCopier.copy(uri, stagedLocation);
+    return stagedLocation;
   }
 
   @Override
-  public Date installActivity(String uuid, String activityIdentifyingName, Version version) {
+  public ActivityInstallationResult installActivity(String uuid, String activityIdentifyingName, Version version) {
     File stagedLocation = null;
     synchronized (uuidToTemporary) {
       stagedLocation = uuidToTemporary.get(uuid);
@@ -158,22 +327,27 @@ public class SimpleActivityInstallationManager implements ActivityInstallationMa
       }
     }
 
+    long start = spaceEnvironment.getTimeProvider().getCurrentTime();
+
     ActivityFilesystem activityFilesystem = activityStorageManager.getActivityFilesystem(uuid);
 
     File installDirectory = activityFilesystem.getInstallDirectory();
-    fileSupport.deleteDirectoryContents(installDirectory);
-    fileSupport.unzip(stagedLocation, installDirectory);
+    ActivityInstallationResult result = new ActivityInstallationResult();
+    contentStore.install(uuid, stagedLocation, installDirectory, result);
 
-    Date installedDate =
-        persistInstallation(uuid, activityIdentifyingName, version,
-            activityStorageManager.getBaseActivityLocation(uuid));
+    result.setInstalledDate(persistInstallation(uuid, activityIdentifyingName, version,
+        activityStorageManager.getBaseActivityLocation(uuid)));
+    result.setInstallDuration(spaceEnvironment.getTimeProvider().getCurrentTime() - start);
 
     spaceEnvironment.getLog().info(
-        String.format("Activity %s version %s installed with uuid %s", activityIdentifyingName, version, uuid));
+        String.format("Activity %s version %s installed with uuid %s, %s", activityIdentifyingName, version, uuid,
+            result.getSummary()));
+
+    contentStore.collectGarbage();
 
     notifyInstalledActivity(uuid);
 
-    return installedDate;
+    return result;
   }
 
   /**
@@ -237,6 +411,11 @@ public class SimpleActivityInstallationManager implements ActivityInstallationMa
 
       activityStorageManager.removeActivityLocation(uuid);
 
+      if (contentStore != null) {
+        contentStore.removeManifest(uuid);
+        contentStore.collectGarbage();
+      }
+
       result = RemoveActivityResult.SUCCESS;
     } else {
       result = RemoveActivityResult.DOESNT_EXIST;
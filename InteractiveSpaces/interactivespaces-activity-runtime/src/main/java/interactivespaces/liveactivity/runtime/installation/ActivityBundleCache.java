@@ -0,0 +1,400 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.liveactivity.runtime.installation;
+
+import interactivespaces.SimpleInteractiveSpacesException;
+import interactivespaces.util.data.resource.MessageDigestResourceSignature;
+import interactivespaces.util.io.FileSupport;
+import interactivespaces.util.io.FileSupportImpl;
+import interactivespaces.util.web.HttpContentCopier;
+
+import org.apache.commons.logging.Log;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A controller-local cache of activity bundles, keyed by the digest of the bundle.
+ *
+ * <p>
+ * A bundle is fetched from the first source which can supply it, trying each source a few times and resuming partial
+ * transfers where the source supports it. A fetched bundle is only placed in the cache once its digest has been
+ * verified. Verified bundles are kept in a directory of their own, holding nothing but files named for their digests,
+ * so that directory can be served to other controllers as is. A transfer which no source could finish is kept
+ * so a later deployment can resume it, unless it is older than {@link #PARTIAL_FILE_AGE_MAX}.
+ *
+ * <p>
+ * The least recently used bundles are removed once the cache holds more than its maximum number of bundles.
+ *
+ * @author agent
+ */
+public class ActivityBundleCache {
+
+  /**
+   * File extension for cached bundles.
+   */
+  public static final String BUNDLE_FILE_EXTENSION = ".zip";
+
+  /**
+   * File extension for bundles which are still being transferred.
+   */
+  public static final String PARTIAL_FILE_EXTENSION = ".part";
+
+  /**
+   * Name of the subdirectory of the cache directory holding verified bundles.
+   */
+  public static final String BUNDLE_DIRECTORY_NAME = "verified";
+
+  /**
+   * Name of the subdirectory of the cache directory holding bundles which are still being transferred.
+   */
+  public static final String PARTIAL_DIRECTORY_NAME = "partial";
+
+  /**
+   * Pattern a normalized digest must match.
+   */
+  private static final Pattern DIGEST_PATTERN = Pattern.compile("[0-9a-f]+");
+
+  /**
+   * The number of times a single source is tried before moving on to the next.
+   */
+  public static final int SOURCE_ATTEMPTS_MAX = 3;
+
+  /**
+   * How long a partial transfer is kept to be resumed by a later deployment, in milliseconds.
+   */
+  public static final long PARTIAL_FILE_AGE_MAX = 24L * 60 * 60 * 1000;
+
+  /**
+   * File support to use.
+   */
+  private final FileSupport fileSupport = FileSupportImpl.INSTANCE;
+
+  /**
+   * Calculates bundle digests.
+   */
+  private final MessageDigestResourceSignature bundleSignature = new MessageDigestResourceSignature();
+
+  /**
+   * Directory holding the verified bundles.
+   */
+  private final File bundleDirectory;
+
+  /**
+   * Directory holding the bundles which are still being transferred.
+   */
+  private final File partialDirectory;
+
+  /**
+   * The maximum number of bundles to keep.
+   */
+  private final int maxBundles;
+
+  /**
+   * Copies bundles from their sources.
+   */
+  private final HttpContentCopier copier;
+
+  /**
+   * Logger for the cache.
+   */
+  private final Log log;
+
+  /**
+   * Mutex held while a bundle is being fetched.
+   */
+  private final Object fetchMutex = new Object();
+
+  /**
+   * Construct a new bundle cache.
+   *
+   * @param cacheDirectory
+   *          the directory holding the cache
+   * @param maxBundles
+   *          the maximum number of bundles to keep
+   * @param copier
+   *          the copier for fetching bundles
+   * @param log
+   *          the logger to use
+   */
+  public ActivityBundleCache(File cacheDirectory, int maxBundles, HttpContentCopier copier, Log log) {
+    this.bundleDirectory = new File(cacheDirectory, BUNDLE_DIRECTORY_NAME);
+    this.partialDirectory = new File(cacheDirectory, PARTIAL_DIRECTORY_NAME);
+    this.maxBundles = maxBundles;
+    this.copier = copier;
+    this.log = log;
+  }
+
+  /**
+   * Start the cache up.
+   */
+  public void startup() {
+    fileSupport.directoryExists(bundleDirectory);
+    fileSupport.directoryExists(partialDirectory);
+
+    File[] partialFiles = partialDirectory.listFiles(new FileFilter() {
+      @Override
+      public boolean accept(File file) {
+        return file.isFile() && file.getName().endsWith(PARTIAL_FILE_EXTENSION);
+      }
+    });
+    if (partialFiles != null) {
+      for (File partialFile : partialFiles) {
+        removeStalePartialFile(partialFile);
+      }
+    }
+  }
+
+  /**
+   * Get the directory holding the verified bundles.
+   *
+   * <p>
+   * The directory holds nothing but bundles named by {@link #getBundleFileName(String)}.
+   *
+   * @return the bundle directory
+   */
+  public File getBundleDirectory() {
+    return bundleDirectory;
+  }
+
+  /**
+   * Get the directory holding the bundles which are still being transferred.
+   *
+   * @return the partial transfer directory
+   */
+  public File getPartialDirectory() {
+    return partialDirectory;
+  }
+
+  /**
+   * Get the name of the file a bundle is cached in.
+   *
+   * @param digest
+   *          digest of the bundle
+   *
+   * @return the file name, relative to the bundle directory
+   */
+  public static String getBundleFileName(String digest) {
+    return normalizeDigest(digest) + BUNDLE_FILE_EXTENSION;
+  }
+
+  /**
+   * Put a digest into the form used for file names, with no whitespace and in lower case.
+   *
+   * @param digest
+   *          the digest
+   *
+   * @return the normalized digest
+   *
+   * @throws SimpleInteractiveSpacesException
+   *           the digest is not a hex string
+   */
+  public static String normalizeDigest(String digest) throws SimpleInteractiveSpacesException {
+    String normalized = digest.replaceAll("\\s", "").toLowerCase();
+    if (!DIGEST_PATTERN.matcher(normalized).matches()) {
+      throw new SimpleInteractiveSpacesException(String.format("Illegal bundle digest %s", digest));
+    }
+
+    return normalized;
+  }
+
+  /**
+   * Is a bundle in the cache?
+   *
+   * @param digest
+   *          digest of the bundle
+   *
+   * @return {@code true} if the bundle is cached
+   */
+  public boolean isCached(String digest) {
+    return getBundleFile(digest).isFile();
+  }
+
+  /**
+   * Place a bundle at a given location, fetching it into the cache first if it isn't there already.
+   *
+   * @param bundleDigest
+   *          digest of the bundle
+   * @param sourceUris
+   *          URIs the bundle can be fetched from, in the order they should be tried
+   * @param destination
+   *          where the bundle should be placed
+   *
+   * @return {@code true} if the bundle was already in the cache
+   */
+  public boolean getBundle(String bundleDigest, List<String> sourceUris, File destination) {
+    String digest = normalizeDigest(bundleDigest);
+    File bundleFile = getBundleFile(digest);
+
+    boolean cached;
+    synchronized (this) {
+      cached = bundleFile.isFile();
+      if (cached) {
+        // Marks the bundle as recently used.
+        bundleFile.setLastModified(System.currentTimeMillis());
+      }
+    }
+
+    if (!cached) {
+      // Only one fetch at a time so two deployments of the same bundle don't write the same partial file.
+      synchronized (fetchMutex) {
+        if (!bundleFile.isFile()) {
+          fetchBundle(digest, sourceUris, bundleFile);
+        }
+      }
+    }
+
+    placeBundle(bundleFile, destination);
+
+    return cached;
+  }
+
+  /**
+   * Fetch a bundle into the cache.
+   *
+   * @param digest
+   *          digest of the bundle
+   * @param sourceUris
+   *          URIs the bundle can be fetched from, in the order they should be tried
+   * @param bundleFile
+   *          the file the bundle goes into in the cache
+   */
+  private void fetchBundle(String digest, List<String> sourceUris, File bundleFile) {
+    File partialFile = new File(partialDirectory, digest + PARTIAL_FILE_EXTENSION);
+    removeStalePartialFile(partialFile);
+
+    for (String sourceUri : sourceUris) {
+      for (int attempt = 1; attempt <= SOURCE_ATTEMPTS_MAX; attempt++) {
+        try {
+          copier.copyResume(sourceUri, partialFile);
+        } catch (Exception e) {
+          log.warn(String.format("Attempt %d to fetch bundle %s from %s failed", attempt, digest, sourceUri), e);
+
+          continue;
+        }
+
+        if (digest.equals(normalizeDigest(bundleSignature.getBundleSignature(partialFile)))) {
+          synchronized (this) {
+            if (!partialFile.renameTo(bundleFile)) {
+              throw new SimpleInteractiveSpacesException(String.format("Could not move bundle %s into the cache",
+                  digest));
+            }
+            evictBundles();
+          }
+
+          log.info(String.format("Fetched bundle %s from %s", digest, sourceUri));
+
+          return;
+        }
+
+        // A corrupt transfer can't be resumed and the source will likely give the same bytes again.
+        log.warn(String.format("Bundle %s from %s did not match its digest", digest, sourceUri));
+        fileSupport.delete(partialFile);
+
+        break;
+      }
+    }
+
+    // Whatever did arrive is kept so the next deployment of the bundle can resume it.
+    throw new SimpleInteractiveSpacesException(String.format("Could not fetch bundle %s from any of %s", digest,
+        sourceUris));
+  }
+
+  /**
+   * Remove a partial transfer if it is too old to be worth resuming.
+   *
+   * @param partialFile
+   *          the partial transfer
+   */
+  private void removeStalePartialFile(File partialFile) {
+    if (partialFile.exists() && System.currentTimeMillis() - partialFile.lastModified() > PARTIAL_FILE_AGE_MAX) {
+      log.info(String.format("Removing stale partial bundle transfer %s", partialFile.getName()));
+      fileSupport.delete(partialFile);
+    }
+  }
+
+  /**
+   * Place a cached bundle at a destination, linking it if possible.
+   *
+   * @param bundleFile
+   *          the cached bundle
+   * @param destination
+   *          where the bundle should be placed
+   */
+  private void placeBundle(File bundleFile, File destination) {
+    fileSupport.directoryExists(destination.getParentFile());
+    if (destination.exists()) {
+      fileSupport.delete(destination);
+    }
+
+    if (fileSupport.createHardLink(destination, bundleFile)) {
+      return;
+    }
+
+    log.debug(String.format("Could not link bundle %s, copying instead", bundleFile));
+    fileSupport.copyFile(bundleFile, destination);
+  }
+
+  /**
+   * Remove the least recently used bundles until the cache is no larger than its maximum size.
+   *
+   * <p>
+   * Must be called while synchronized on the cache.
+   */
+  private void evictBundles() {
+    File[] bundleFiles = bundleDirectory.listFiles(new FileFilter() {
+      @Override
+      public boolean accept(File file) {
+        return file.isFile() && file.getName().endsWith(BUNDLE_FILE_EXTENSION);
+      }
+    });
+    if (bundleFiles == null || bundleFiles.length <= maxBundles) {
+      return;
+    }
+
+    Arrays.sort(bundleFiles, new Comparator<File>() {
+      @Override
+      public int compare(File file1, File file2) {
+        long modified1 = file1.lastModified();
+        long modified2 = file2.lastModified();
+
+        return (modified1 < modified2) ? -1 : ((modified1 == modified2) ? 0 : 1);
+      }
+    });
+
+    for (int i = 0; i < bundleFiles.length - maxBundles; i++) {
+      log.info(String.format("Evicting bundle %s from the bundle cache", bundleFiles[i].getName()));
+      fileSupport.delete(bundleFiles[i]);
+    }
+  }
+
+  /**
+   * Get the file a bundle is cached in.
+   *
+   * @param digest
+   *          digest of the bundle
+   *
+   * @return the cache file, which may not exist
+   */
+  private File getBundleFile(String digest) {
+    return new File(bundleDirectory, getBundleFileName(digest));
+  }
+}
@@ -0,0 +1,637 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.liveactivity.runtime.installation;
+
+import interactivespaces.SimpleInteractiveSpacesException;
+import interactivespaces.util.io.FileSupport;
+import interactivespaces.util.io.FileSupportImpl;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import org.apache.commons.logging.Log;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A controller-local store of activity files, keyed by the SHA-1 hash of their contents.
+ *
+ * <p>
+ * Each installed activity has a manifest giving the hash, CRC and size of every file that was installed. A new bundle
+ * is installed by comparing its zip entries against the manifest. Files whose CRC and size are unchanged, and whose
+ * installed copy still has the recorded hash, are left alone without being extracted. Changed files are extracted into the store once and copied into the install directory, so
+ * identical files shared between activities or versions are only extracted once.
+ *
+ * <p>
+ * Installed files are copies, never links into the store, so an activity which changes its own files can't change
+ * what the store gives other activities or later installs.
+ *
+ * @author agent
+ */
+public class ActivityContentStore {
+
+  /**
+   * Subdirectory of the store holding the file contents.
+   */
+  public static final String SUBDIRECTORY_OBJECTS = "objects";
+
+  /**
+   * Subdirectory of the store holding the activity manifests.
+   */
+  public static final String SUBDIRECTORY_MANIFESTS = "manifests";
+
+  /**
+   * Subdirectory of the store for files being extracted.
+   */
+  public static final String SUBDIRECTORY_TEMP = "tmp";
+
+  /**
+   * The separator between fields in a manifest line.
+   */
+  private static final char MANIFEST_FIELD_SEPARATOR = '\t';
+
+  /**
+   * Size of the buffer used when extracting files.
+   */
+  private static final int EXTRACT_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The charset for manifests.
+   */
+  private static final Charset MANIFEST_CHARSET = Charset.forName("UTF-8");
+
+  /**
+   * File support to use.
+   */
+  private final FileSupport fileSupport = FileSupportImpl.INSTANCE;
+
+  /**
+   * Root directory of the store.
+   */
+  private final File baseDirectory;
+
+  /**
+   * Directory for the file contents.
+   */
+  private final File objectsDirectory;
+
+  /**
+   * Directory for the manifests.
+   */
+  private final File manifestsDirectory;
+
+  /**
+   * Directory for files being extracted.
+   */
+  private final File tempDirectory;
+
+  /**
+   * Logger for the store.
+   */
+  private final Log log;
+
+  /**
+   * Construct a new store.
+   *
+   * @param baseDirectory
+   *          the root directory of the store
+   * @param log
+   *          the logger to use
+   */
+  public ActivityContentStore(File baseDirectory, Log log) {
+    this.baseDirectory = baseDirectory;
+    this.log = log;
+
+    objectsDirectory = new File(baseDirectory, SUBDIRECTORY_OBJECTS);
+    manifestsDirectory = new File(baseDirectory, SUBDIRECTORY_MANIFESTS);
+    tempDirectory = new File(baseDirectory, SUBDIRECTORY_TEMP);
+  }
+
+  /**
+   * Start the store up.
+   */
+  public void startup() {
+    fileSupport.directoryExists(objectsDirectory);
+    fileSupport.directoryExists(manifestsDirectory);
+    fileSupport.directoryExists(tempDirectory);
+    fileSupport.deleteDirectoryContents(tempDirectory);
+  }
+
+  /**
+   * Get the root directory of the store.
+   *
+   * @return the root directory
+   */
+  public File getBaseDirectory() {
+    return baseDirectory;
+  }
+
+  /**
+   * Install a bundle into an install directory, only extracting what has changed since the last install.
+   *
+   * <p>
+   * If there is no manifest for the activity, the install directory is emptied and everything is extracted.
+   *
+   * @param uuid
+   *          UUID of the activity
+   * @param bundle
+   *          the zip file for the activity
+   * @param installDirectory
+   *          the install directory for the activity
+   * @param result
+   *          the installation result to record file counts in
+   */
+  public synchronized void install(String uuid, File bundle, File installDirectory, ActivityInstallationResult result) {
+    Map<String, ManifestEntry> oldManifest = readManifest(uuid);
+    if (oldManifest == null) {
+      fileSupport.deleteDirectoryContents(installDirectory);
+      oldManifest = Maps.newHashMap();
+    }
+
+    Map<String, ManifestEntry> newManifest = Maps.newHashMap();
+    Set<String> directories = Sets.newHashSet();
+
+    // Write an empty manifest first so a failed install is never mistaken for a complete one.
+    writeManifest(uuid, newManifest);
+
+    ZipFile zipFile = null;
+    try {
+      zipFile = new ZipFile(bundle);
+
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        String path = normalizePath(entry.getName());
+        if (path.isEmpty()) {
+          continue;
+        }
+
+        File target = new File(installDirectory, path);
+        if (entry.isDirectory()) {
+          directories.add(path);
+          if (!target.isDirectory() && !target.mkdirs()) {
+            throw new SimpleInteractiveSpacesException("Could not create directory: " + target);
+          }
+
+          continue;
+        }
+
+        ManifestEntry previous = oldManifest.get(path);
+        if (previous != null && entry.getCrc() != -1 && previous.crc == entry.getCrc()
+            && previous.size == entry.getSize() && isInstalled(target, previous)) {
+          newManifest.put(path, previous);
+          result.setNumberFilesUnchanged(result.getNumberFilesUnchanged() + 1);
+        } else {
+          newManifest.put(path, extractEntry(zipFile, entry, target, result));
+        }
+      }
+    } catch (IOException e) {
+      throw new SimpleInteractiveSpacesException(String.format("Error while installing bundle %s",
+          bundle.getAbsolutePath()), e);
+    } finally {
+      // ZipFile does not implement Closeable, so can't use utility function.
+      if (zipFile != null) {
+        try {
+          zipFile.close();
+        } catch (IOException e) {
+          // Don't care.
+        }
+      }
+    }
+
+    removeStaleFiles(installDirectory, "", newManifest.keySet(), directories, result);
+
+    writeManifest(uuid, newManifest);
+  }
+
+  /**
+   * Remove the manifest for an activity.
+   *
+   * @param uuid
+   *          UUID of the activity
+   */
+  public synchronized void removeManifest(String uuid) {
+    File manifest = getManifestFile(uuid);
+    if (manifest.exists() && !manifest.delete()) {
+      log.warn(String.format("Could not delete activity content manifest %s", manifest));
+    }
+  }
+
+  /**
+   * Delete every stored file which is not referenced by any manifest.
+   *
+   * @return the number of files deleted
+   */
+  public synchronized int collectGarbage() {
+    Set<String> referenced = Sets.newHashSet();
+    File[] manifests = manifestsDirectory.listFiles();
+    if (manifests != null) {
+      for (File manifest : manifests) {
+        Map<String, ManifestEntry> entries = readManifest(manifest);
+        if (entries != null) {
+          for (ManifestEntry entry : entries.values()) {
+            referenced.add(entry.hash);
+          }
+        }
+      }
+    }
+
+    int numberDeleted = 0;
+    File[] prefixDirectories = objectsDirectory.listFiles();
+    if (prefixDirectories != null) {
+      for (File prefixDirectory : prefixDirectories) {
+        File[] objects = prefixDirectory.listFiles();
+        if (objects == null) {
+          continue;
+        }
+
+        for (File object : objects) {
+          if (!referenced.contains(prefixDirectory.getName() + object.getName())) {
+            if (object.delete()) {
+              numberDeleted++;
+            } else {
+              log.warn(String.format("Could not delete unreferenced activity content %s", object));
+            }
+          }
+        }
+      }
+    }
+
+    return numberDeleted;
+  }
+
+  /**
+   * Extract a zip entry into the store and copy it into the install directory.
+   *
+   * @param zipFile
+   *          the zip file containing the entry
+   * @param entry
+   *          the entry to extract
+   * @param target
+   *          where the file goes in the install directory
+   * @param result
+   *          the installation result to record file counts in
+   *
+   * @return the manifest entry for the file
+   *
+   * @throws IOException
+   *           the file could not be extracted
+   */
+  private ManifestEntry extractEntry(ZipFile zipFile, ZipEntry entry, File target, ActivityInstallationResult result)
+      throws IOException {
+    File temp = File.createTempFile("extract", ".tmp", tempDirectory);
+    Hasher hasher = Hashing.sha1().newHasher();
+    long size = 0;
+
+    InputStream in = null;
+    OutputStream out = null;
+    try {
+      in = zipFile.getInputStream(entry);
+      out = new FileOutputStream(temp);
+
+      byte[] buffer = new byte[EXTRACT_BUFFER_SIZE];
+      int len;
+      while ((len = in.read(buffer)) != -1) {
+        hasher.putBytes(buffer, 0, len);
+        out.write(buffer, 0, len);
+        size += len;
+      }
+    } finally {
+      fileSupport.close(in, false);
+      fileSupport.close(out, false);
+    }
+
+    String hash = hasher.hash().toString();
+    File object = getObjectFile(hash);
+    if (object.exists()) {
+      fileSupport.delete(temp);
+      result.setNumberFilesShared(result.getNumberFilesShared() + 1);
+    } else {
+      File prefixDirectory = object.getParentFile();
+      if (!prefixDirectory.isDirectory() && !prefixDirectory.mkdirs()) {
+        throw new SimpleInteractiveSpacesException("Could not create directory: " + prefixDirectory);
+      }
+      if (!temp.renameTo(object)) {
+        fileSupport.delete(temp);
+        throw new SimpleInteractiveSpacesException("Could not move extracted file into activity content store: "
+            + object);
+      }
+      result.setNumberFilesExtracted(result.getNumberFilesExtracted() + 1);
+    }
+
+    copyObject(object, target);
+
+    return new ManifestEntry(hash, entry.getCrc(), size);
+  }
+
+  /**
+   * Is a file still installed as a manifest says?
+   *
+   * <p>
+   * The installed file is hashed, so changes made to it since it was installed are found even if its size is the same.
+   *
+   * @param target
+   *          the installed file
+   * @param previous
+   *          the manifest entry for the file
+   *
+   * @return {@code true} if the installed file has the contents in the manifest entry
+   *
+   * @throws IOException
+   *           the installed file could not be read
+   */
+  private boolean isInstalled(File target, ManifestEntry previous) throws IOException {
+    if (!target.isFile() || target.length() != previous.size) {
+      return false;
+    }
+
+    Hasher hasher = Hashing.sha1().newHasher();
+    InputStream in = null;
+    try {
+      in = new FileInputStream(target);
+
+      byte[] buffer = new byte[EXTRACT_BUFFER_SIZE];
+      int len;
+      while ((len = in.read(buffer)) != -1) {
+        hasher.putBytes(buffer, 0, len);
+      }
+    } finally {
+      fileSupport.close(in, false);
+    }
+
+    return previous.hash.equals(hasher.hash().toString());
+  }
+
+  /**
+   * Copy a stored file into an install directory.
+   *
+   * @param object
+   *          the stored file
+   * @param target
+   *          where the file goes in the install directory
+   */
+  private void copyObject(File object, File target) {
+    File parent = target.getParentFile();
+    if (!parent.isDirectory() && !parent.mkdirs()) {
+      throw new SimpleInteractiveSpacesException("Could not create parent directory: " + parent);
+    }
+
+    // Installs from before files were copied may have left a link to the stored file, which must not be written
+    // through.
+    if (target.exists() && !target.delete()) {
+      throw new SimpleInteractiveSpacesException("Could not replace installed file: " + target);
+    }
+
+    fileSupport.copyFile(object, target);
+  }
+
+  /**
+   * Remove everything from an install directory which is not part of the new installation.
+   *
+   * @param directory
+   *          the directory being cleaned
+   * @param prefix
+   *          the path of the directory relative to the install directory
+   * @param files
+   *          the relative paths of all installed files
+   * @param directories
+   *          the relative paths of all directories in the bundle
+   * @param result
+   *          the installation result to record file counts in
+   *
+   * @return {@code true} if the directory is now empty
+   */
+  private boolean removeStaleFiles(File directory, String prefix, Set<String> files, Set<String> directories,
+      ActivityInstallationResult result) {
+    File[] contents = directory.listFiles();
+    if (contents == null) {
+      return true;
+    }
+
+    boolean empty = true;
+    for (File file : contents) {
+      String path = prefix + file.getName();
+      if (file.isDirectory()) {
+        if (removeStaleFiles(file, path + "/", files, directories, result) && !directories.contains(path)) {
+          if (!file.delete()) {
+            log.warn(String.format("Could not delete stale activity directory %s", file));
+            empty = false;
+          }
+        } else {
+          empty = false;
+        }
+      } else if (!files.contains(path)) {
+        if (file.delete()) {
+          result.setNumberFilesRemoved(result.getNumberFilesRemoved() + 1);
+        } else {
+          log.warn(String.format("Could not delete stale activity file %s", file));
+          empty = false;
+        }
+      } else {
+        empty = false;
+      }
+    }
+
+    return empty;
+  }
+
+  /**
+   * Normalize the name of a zip entry into a relative path.
+   *
+   * @param name
+   *          the zip entry name
+   *
+   * @return the relative path, with no leading or trailing separators
+   */
+  private String normalizePath(String name) {
+    String path = name.replace('\\', '/');
+    while (path.startsWith("/")) {
+      path = path.substring(1);
+    }
+    while (path.endsWith("/")) {
+      path = path.substring(0, path.length() - 1);
+    }
+
+    if (path.equals("..") || path.startsWith("../") || path.contains("/../")) {
+      throw new SimpleInteractiveSpacesException("Activity bundle entry escapes the install directory: " + name);
+    }
+
+    return path;
+  }
+
+  /**
+   * Get the store file for a hash.
+   *
+   * @param hash
+   *          the hash of the file contents
+   *
+   * @return the store file
+   */
+  private File getObjectFile(String hash) {
+    return new File(new File(objectsDirectory, hash.substring(0, 2)), hash.substring(2));
+  }
+
+  /**
+   * Get the manifest file for an activity.
+   *
+   * @param uuid
+   *          UUID of the activity
+   *
+   * @return the manifest file
+   */
+  private File getManifestFile(String uuid) {
+    return new File(manifestsDirectory, uuid);
+  }
+
+  /**
+   * Read the manifest for an activity.
+   *
+   * @param uuid
+   *          UUID of the activity
+   *
+   * @return the manifest, or {@code null} if there is none
+   */
+  private Map<String, ManifestEntry> readManifest(String uuid) {
+    return readManifest(getManifestFile(uuid));
+  }
+
+  /**
+   * Read a manifest file.
+   *
+   * @param manifestFile
+   *          the manifest file
+   *
+   * @return the manifest, or {@code null} if it doesn't exist or can't be read
+   */
+  private Map<String, ManifestEntry> readManifest(File manifestFile) {
+    if (!manifestFile.isFile()) {
+      return null;
+    }
+
+    Map<String, ManifestEntry> manifest = Maps.newHashMap();
+    BufferedReader reader = null;
+    try {
+      reader = new BufferedReader(new InputStreamReader(new FileInputStream(manifestFile), MANIFEST_CHARSET));
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] fields = line.split(String.valueOf(MANIFEST_FIELD_SEPARATOR), 4);
+        if (fields.length != 4) {
+          log.warn(String.format("Ignoring malformed activity content manifest %s", manifestFile));
+          return null;
+        }
+
+        manifest.put(fields[3], new ManifestEntry(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+      }
+
+      return manifest;
+    } catch (Exception e) {
+      log.warn(String.format("Could not read activity content manifest %s", manifestFile), e);
+      return null;
+    } finally {
+      fileSupport.close(reader, false);
+    }
+  }
+
+  /**
+   * Write the manifest for an activity.
+   *
+   * @param uuid
+   *          UUID of the activity
+   * @param manifest
+   *          the manifest
+   */
+  private void writeManifest(String uuid, Map<String, ManifestEntry> manifest) {
+    File manifestFile = getManifestFile(uuid);
+    File temp = new File(tempDirectory, uuid + ".manifest");
+
+    BufferedWriter writer = null;
+    try {
+      writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temp), MANIFEST_CHARSET));
+      for (Map.Entry<String, ManifestEntry> entry : manifest.entrySet()) {
+        ManifestEntry value = entry.getValue();
+        writer.append(value.hash).append(MANIFEST_FIELD_SEPARATOR).append(Long.toString(value.crc))
+            .append(MANIFEST_FIELD_SEPARATOR).append(Long.toString(value.size)).append(MANIFEST_FIELD_SEPARATOR)
+            .append(entry.getKey());
+        writer.newLine();
+      }
+    } catch (IOException e) {
+      throw new SimpleInteractiveSpacesException("Could not write activity content manifest " + manifestFile, e);
+    } finally {
+      fileSupport.close(writer, false);
+    }
+
+    if (manifestFile.exists() && !manifestFile.delete() || !temp.renameTo(manifestFile)) {
+      throw new SimpleInteractiveSpacesException("Could not write activity content manifest " + manifestFile);
+    }
+  }
+
+  /**
+   * An installed file in a manifest.
+   *
+   * @author agent
+   */
+  private static class ManifestEntry {
+
+    /**
+     * SHA-1 hash of the file contents.
+     */
+    private final String hash;
+
+    /**
+     * CRC of the file contents, as given by the zip file.
+     */
+    private final long crc;
+
+    /**
+     * Size of the file in bytes.
+     */
+    private final long size;
+
+    /**
+     * Construct a new manifest entry.
+     *
+     * @param hash
+     *          SHA-1 hash of the file contents
+     * @param crc
+     *          CRC of the file contents
+     * @param size
+     *          size of the file in bytes
+     */
+    public ManifestEntry(String hash, long crc, long size) {
+      this.hash = hash;
+      this.crc = crc;
+      this.size = size;
+    }
+  }
+}
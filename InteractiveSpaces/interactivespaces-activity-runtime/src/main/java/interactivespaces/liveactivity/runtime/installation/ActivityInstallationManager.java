@@ -19,7 +19,7 @@ package interactivespaces.liveactivity.runtime.installation;
 import interactivespaces.resource.Version;
 import interactivespaces.util.resource.ManagedResource;
 
-import java.util.Date;
+import java.util.List;
 
 /**
  * Manages activity deployment on the controller.
@@ -38,6 +38,32 @@ public interface ActivityInstallationManager extends ManagedResource {
    */
   void copyActivity(String uuid, String uri);
 
+  /**
+   * Copy a packed activity to the controller through the local bundle cache.
+   *
+   * <p>
+   * The sources are tried in order until one supplies a bundle matching the digest. Nothing is transferred if the
+   * bundle is already in the cache. If the digest is {@code null} the last source is copied from directly.
+   *
+   * @param uuid
+   *          UUID of the activity
+   * @param sourceUris
+   *          URIs for zip files containing the activity, in the order they should be tried
+   * @param bundleDigest
+   *          the digest of the zip file, can be {@code null}
+   */
+  void copyActivity(String uuid, List<String> sourceUris, String bundleDigest);
+
+  /**
+   * Get the URI other controllers can fetch a cached bundle from.
+   *
+   * @param bundleDigest
+   *          the digest of the bundle
+   *
+   * @return the URI, or {@code null} if bundles aren't served to other controllers or the bundle isn't cached
+   */
+  String getBundleCacheUri(String bundleDigest);
+
   /**
    * Install the activity to its final location.
    *
@@ -48,9 +74,9 @@ public interface ActivityInstallationManager extends ManagedResource {
    * @param version
    *          version of the activity
    *
-   * @return the timestamp from when the activity was installed
+   * @return the result of the installation
    */
-  Date installActivity(String uuid, String activityIdentifyingName, Version version);
+  ActivityInstallationResult installActivity(String uuid, String activityIdentifyingName, Version version);
 
   /**
    * Delete the packed activity from file system.
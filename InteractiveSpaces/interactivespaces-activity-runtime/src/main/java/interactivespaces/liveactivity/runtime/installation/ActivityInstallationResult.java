@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.liveactivity.runtime.installation;
+
+import java.util.Date;
+
+/**
+ * The result of installing an activity on a controller.
+ *
+ * @author agent
+ */
+public class ActivityInstallationResult {
+
+  /**
+   * When the activity was installed.
+   */
+  private Date installedDate;
+
+  /**
+   * How long the installation took, in milliseconds.
+   */
+  private long installDuration;
+
+  /**
+   * Number of files which were extracted from the bundle.
+   */
+  private int numberFilesExtracted;
+
+  /**
+   * Number of changed files whose contents were already in the content store.
+   */
+  private int numberFilesShared;
+
+  /**
+   * Number of files which were unchanged from the previous installation.
+   */
+  private int numberFilesUnchanged;
+
+  /**
+   * Number of files from the previous installation which were removed.
+   */
+  private int numberFilesRemoved;
+
+  /**
+   * Get when the activity was installed.
+   *
+   * @return the installation date
+   */
+  public Date getInstalledDate() {
+    return installedDate;
+  }
+
+  /**
+   * Set when the activity was installed.
+   *
+   * @param installedDate
+   *          the installation date
+   */
+  public void setInstalledDate(Date installedDate) {
+    this.installedDate = installedDate;
+  }
+
+  /**
+   * Get how long the installation took.
+   *
+   * @return the installation duration, in milliseconds
+   */
+  public long getInstallDuration() {
+    return installDuration;
+  }
+
+  /**
+   * Set how long the installation took.
+   *
+   * @param installDuration
+   *          the installation duration, in milliseconds
+   */
+  public void setInstallDuration(long installDuration) {
+    this.installDuration = installDuration;
+  }
+
+  /**
+   * Get the number of files which were extracted from the bundle.
+   *
+   * @return the number of extracted files
+   */
+  public int getNumberFilesExtracted() {
+    return numberFilesExtracted;
+  }
+
+  /**
+   * Set the number of files which were extracted from the bundle.
+   *
+   * @param numberFilesExtracted
+   *          the number of extracted files
+   */
+  public void setNumberFilesExtracted(int numberFilesExtracted) {
+    this.numberFilesExtracted = numberFilesExtracted;
+  }
+
+  /**
+   * Get the number of changed files whose contents were already in the content store.
+   *
+   * @return the number of shared files
+   */
+  public int getNumberFilesShared() {
+    return numberFilesShared;
+  }
+
+  /**
+   * Set the number of changed files whose contents were already in the content store.
+   *
+   * @param numberFilesShared
+   *          the number of shared files
+   */
+  public void setNumberFilesShared(int numberFilesShared) {
+    this.numberFilesShared = numberFilesShared;
+  }
+
+  /**
+   * Get the number of files which were unchanged from the previous installation.
+   *
+   * @return the number of unchanged files
+   */
+  public int getNumberFilesUnchanged() {
+    return numberFilesUnchanged;
+  }
+
+  /**
+   * Set the number of files which were unchanged from the previous installation.
+   *
+   * @param numberFilesUnchanged
+   *          the number of unchanged files
+   */
+  public void setNumberFilesUnchanged(int numberFilesUnchanged) {
+    this.numberFilesUnchanged = numberFilesUnchanged;
+  }
+
+  /**
+   * Get the number of files from the previous installation which were removed.
+   *
+   * @return the number of removed files
+   */
+  public int getNumberFilesRemoved() {
+    return numberFilesRemoved;
+  }
+
+  /**
+   * Set the number of files from the previous installation which were removed.
+   *
+   * @param numberFilesRemoved
+   *          the number of removed files
+   */
+  public void setNumberFilesRemoved(int numberFilesRemoved) {
+    this.numberFilesRemoved = numberFilesRemoved;
+  }
+
+  /**
+   * Get a short description of the installation.
+   *
+   * @return the description
+   */
+  public String getSummary() {
+    return String.format("installed in %d msec: %d extracted, %d shared, %d unchanged, %d removed", installDuration,
+        numberFilesExtracted, numberFilesShared, numberFilesUnchanged, numberFilesRemoved);
+  }
+
+  @Override
+  public String toString() {
+    return "ActivityInstallationResult [" + getSummary() + "]";
+  }
+}
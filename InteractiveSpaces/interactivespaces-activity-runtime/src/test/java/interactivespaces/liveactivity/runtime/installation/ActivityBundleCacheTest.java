@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.liveactivity.runtime.installation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import interactivespaces.InteractiveSpacesException;
+import interactivespaces.util.data.resource.MessageDigestResourceSignature;
+import interactivespaces.util.io.Files;
+import interactivespaces.util.web.HttpContentCopier;
+
+import com.google.common.collect.Lists;
+
+import org.apache.commons.logging.Log;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.List;
+
+/**
+ * Tests for the {@link ActivityBundleCache}.
+ *
+ * @author agent
+ */
+public class ActivityBundleCacheTest {
+
+  private static final String GOOD_CONTENT = "the bundle";
+
+  private File baseDirectory;
+
+  private HttpContentCopier copier;
+
+  private ActivityBundleCache cache;
+
+  private String digest;
+
+  private List<String> fetchedUris;
+
+  @Before
+  public void setup() throws Exception {
+    baseDirectory = File.createTempFile("bundlecache", "test");
+    baseDirectory.delete();
+    baseDirectory.mkdirs();
+
+    digest =
+        ActivityBundleCache.normalizeDigest(new MessageDigestResourceSignature()
+            .getBundleSignature(new ByteArrayInputStream(GOOD_CONTENT.getBytes("UTF-8"))));
+
+    fetchedUris = Lists.newArrayList();
+    copier = Mockito.mock(HttpContentCopier.class);
+    Mockito.doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        String uri = (String) invocation.getArguments()[0];
+        File destination = (File) invocation.getArguments()[1];
+        fetchedUris.add(uri);
+        if (uri.startsWith("bad")) {
+          Files.writeFile(destination, "not the bundle");
+        } else if (uri.startsWith("cut")) {
+          Files.writeFile(destination, GOOD_CONTENT.substring(0, 3));
+          throw new InteractiveSpacesException("Connection reset");
+        } else if (uri.startsWith("down")) {
+          throw new InteractiveSpacesException("Connection refused");
+        } else {
+          Files.writeFile(destination, GOOD_CONTENT);
+        }
+
+        return null;
+      }
+    }).when(copier).copyResume(Mockito.anyString(), Mockito.any(File.class));
+
+    cache = new ActivityBundleCache(new File(baseDirectory, "bundles"), 2, copier, Mockito.mock(Log.class));
+    cache.startup();
+  }
+
+  @After
+  public void cleanup() {
+    Files.deleteDirectoryContents(baseDirectory);
+    baseDirectory.delete();
+  }
+
+  /**
+   * A bundle is fetched once and then served from the cache.
+   */
+  @Test
+  public void testCached() throws Exception {
+    File staged1 = new File(baseDirectory, "staged1.zip");
+    assertFalse(cache.getBundle(digest, Lists.newArrayList("master"), staged1));
+    assertEquals(GOOD_CONTENT, Files.readFile(staged1).trim());
+    assertTrue(cache.isCached(digest));
+
+    File staged2 = new File(baseDirectory, "staged2.zip");
+    assertTrue(cache.getBundle(digest, Lists.newArrayList("master"), staged2));
+    assertEquals(GOOD_CONTENT, Files.readFile(staged2).trim());
+    assertEquals(1, fetchedUris.size());
+  }
+
+  /**
+   * Sources which fail or give a corrupt bundle are skipped.
+   */
+  @Test
+  public void testFallback() throws Exception {
+    File staged = new File(baseDirectory, "staged.zip");
+    cache.getBundle(digest, Lists.newArrayList("down-peer", "bad-peer", "master"), staged);
+
+    assertEquals(GOOD_CONTENT, Files.readFile(staged).trim());
+    assertEquals("master", fetchedUris.get(fetchedUris.size() - 1));
+    assertFalse(new File(cache.getPartialDirectory(), digest + ActivityBundleCache.PARTIAL_FILE_EXTENSION).exists());
+  }
+
+  /**
+   * Nothing is cached if no source has the bundle.
+   */
+  @Test(expected = InteractiveSpacesException.class)
+  public void testNoSource() throws Exception {
+    try {
+      cache.getBundle(digest, Lists.newArrayList("bad-master"), new File(baseDirectory, "staged.zip"));
+    } finally {
+      assertFalse(cache.isCached(digest));
+    }
+  }
+
+  /**
+   * A transfer no source could finish is kept for resuming.
+   */
+  @Test
+  public void testPartialKept() throws Exception {
+    File partialFile = new File(cache.getPartialDirectory(), digest + ActivityBundleCache.PARTIAL_FILE_EXTENSION);
+    try {
+      cache.getBundle(digest, Lists.newArrayList("cut-master"), new File(baseDirectory, "staged.zip"));
+      fail();
+    } catch (InteractiveSpacesException e) {
+      // Expected
+    }
+
+    assertTrue(partialFile.isFile());
+
+    cache.startup();
+    assertTrue(partialFile.isFile());
+  }
+
+  /**
+   * A transfer which is too old to be resumed is removed.
+   */
+  @Test
+  public void testStalePartialRemoved() throws Exception {
+    File partialFile = new File(cache.getPartialDirectory(), digest + ActivityBundleCache.PARTIAL_FILE_EXTENSION);
+    Files.writeFile(partialFile, "the");
+    partialFile.setLastModified(System.currentTimeMillis() - ActivityBundleCache.PARTIAL_FILE_AGE_MAX - 60000);
+
+    cache.startup();
+    assertFalse(partialFile.exists());
+  }
+
+  /**
+   * Only verified bundles end up in the bundle directory.
+   */
+  @Test
+  public void testBundleDirectoryOnlyVerified() throws Exception {
+    try {
+      cache.getBundle(digest, Lists.newArrayList("cut-master"), new File(baseDirectory, "staged.zip"));
+      fail();
+    } catch (InteractiveSpacesException e) {
+      // Expected
+    }
+    assertEquals(0, cache.getBundleDirectory().list().length);
+
+    cache.getBundle(digest, Lists.newArrayList("master"), new File(baseDirectory, "staged.zip"));
+    assertEquals(Lists.newArrayList(ActivityBundleCache.getBundleFileName(digest)),
+        Lists.newArrayList(cache.getBundleDirectory().list()));
+  }
+
+  /**
+   * A digest which isn't hex can't name a file.
+   */
+  @Test(expected = InteractiveSpacesException.class)
+  public void testIllegalDigest() throws Exception {
+    cache.getBundle("../" + digest, Lists.newArrayList("master"), new File(baseDirectory, "staged.zip"));
+  }
+}
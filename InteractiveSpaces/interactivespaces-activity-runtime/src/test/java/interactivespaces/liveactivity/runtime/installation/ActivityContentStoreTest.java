@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.liveactivity.runtime.installation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import interactivespaces.util.io.Files;
+
+import org.apache.commons.logging.Log;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Tests for the {@link ActivityContentStore}.
+ *
+ * @author agent
+ */
+public class ActivityContentStoreTest {
+
+  private File baseDirectory;
+
+  private File installDirectory;
+
+  private ActivityContentStore store;
+
+  @Before
+  public void setup() throws Exception {
+    baseDirectory = File.createTempFile("contentstore", "test");
+    baseDirectory.delete();
+    baseDirectory.mkdirs();
+
+    installDirectory = new File(baseDirectory, "install");
+    installDirectory.mkdirs();
+
+    store = new ActivityContentStore(new File(baseDirectory, "content"), Mockito.mock(Log.class));
+    store.startup();
+  }
+
+  @After
+  public void cleanup() {
+    Files.deleteDirectoryContents(baseDirectory);
+    baseDirectory.delete();
+  }
+
+  /**
+   * A first install replaces whatever was in the install directory.
+   */
+  @Test
+  public void testFirstInstall() throws Exception {
+    File stray = new File(installDirectory, "stray.txt");
+    Files.writeFile(stray, "stray");
+
+    ActivityInstallationResult result = new ActivityInstallationResult();
+    store.install("foo", writeBundle("v1.zip", "a.txt", "a", "lib/b.txt", "b"), installDirectory, result);
+
+    assertEquals(2, result.getNumberFilesExtracted());
+    assertFalse(stray.exists());
+    assertEquals("a", Files.readFile(new File(installDirectory, "a.txt")).trim());
+    assertEquals("b", Files.readFile(new File(installDirectory, "lib/b.txt")).trim());
+  }
+
+  /**
+   * A second install only extracts what changed and removes what is gone.
+   */
+  @Test
+  public void testDeltaInstall() throws Exception {
+    store.install("foo", writeBundle("v1.zip", "a.txt", "a", "b.txt", "b", "lib/c.txt", "c"), installDirectory,
+        new ActivityInstallationResult());
+
+    ActivityInstallationResult result = new ActivityInstallationResult();
+    store.install("foo", writeBundle("v2.zip", "a.txt", "a", "b.txt", "changed"), installDirectory, result);
+
+    assertEquals(1, result.getNumberFilesUnchanged());
+    assertEquals(1, result.getNumberFilesExtracted());
+    assertEquals(1, result.getNumberFilesRemoved());
+    assertEquals("changed", Files.readFile(new File(installDirectory, "b.txt")).trim());
+    assertFalse(new File(installDirectory, "lib").exists());
+  }
+
+  /**
+   * Identical contents are only stored once and unreferenced contents are collected.
+   */
+  @Test
+  public void testSharedContents() throws Exception {
+    File otherInstallDirectory = new File(baseDirectory, "other");
+    store.install("foo", writeBundle("v1.zip", "a.txt", "a"), installDirectory, new ActivityInstallationResult());
+
+    ActivityInstallationResult result = new ActivityInstallationResult();
+    store.install("bar", writeBundle("v2.zip", "copy.txt", "a"), otherInstallDirectory, result);
+
+    assertEquals(0, result.getNumberFilesExtracted());
+    assertEquals(1, result.getNumberFilesShared());
+    assertEquals(0, store.collectGarbage());
+
+    store.removeManifest("foo");
+    assertEquals(0, store.collectGarbage());
+
+    store.removeManifest("bar");
+    assertEquals(1, store.collectGarbage());
+    assertTrue(new File(otherInstallDirectory, "copy.txt").exists());
+  }
+
+  /**
+   * A redeploy restores an installed file which was changed in place, even if its size stayed the same.
+   */
+  @Test
+  public void testChangedFileRestored() throws Exception {
+    store.install("foo", writeBundle("v1.zip", "a.txt", "abc"), installDirectory, new ActivityInstallationResult());
+    Files.writeFile(new File(installDirectory, "a.txt"), "xyz");
+
+    ActivityInstallationResult result = new ActivityInstallationResult();
+    store.install("foo", writeBundle("v2.zip", "a.txt", "abc"), installDirectory, result);
+
+    assertEquals(0, result.getNumberFilesUnchanged());
+    assertEquals("abc", Files.readFile(new File(installDirectory, "a.txt")).trim());
+  }
+
+  /**
+   * Changing an installed file in place changes neither other installs nor what later installs get.
+   */
+  @Test
+  public void testInstalledFilesIndependent() throws Exception {
+    File otherInstallDirectory = new File(baseDirectory, "other");
+    File thirdInstallDirectory = new File(baseDirectory, "third");
+    store.install("foo", writeBundle("v1.zip", "a.txt", "a"), installDirectory, new ActivityInstallationResult());
+    store.install("bar", writeBundle("v2.zip", "copy.txt", "a"), otherInstallDirectory,
+        new ActivityInstallationResult());
+
+    Files.writeFile(new File(installDirectory, "a.txt"), "x");
+
+    store.install("baz", writeBundle("v3.zip", "a.txt", "a"), thirdInstallDirectory, new ActivityInstallationResult());
+
+    assertEquals("a", Files.readFile(new File(otherInstallDirectory, "copy.txt")).trim());
+    assertEquals("a", Files.readFile(new File(thirdInstallDirectory, "a.txt")).trim());
+  }
+
+  /**
+   * Write a bundle.
+   *
+   * @param name
+   *          name of the bundle file
+   * @param contents
+   *          alternating entry names and contents
+   *
+   * @return the bundle file
+   */
+  private File writeBundle(String name, String... contents) throws Exception {
+    File bundle = new File(baseDirectory, name);
+    ZipOutputStream out = new ZipOutputStream(new FileOutputStream(bundle));
+    try {
+      for (int i = 0; i < contents.length; i += 2) {
+        out.putNextEntry(new ZipEntry(contents[i]));
+        out.write(contents[i + 1].getBytes("UTF-8"));
+        out.closeEntry();
+      }
+    } finally {
+      out.close();
+    }
+
+    return bundle;
+  }
+}
@@ -0,0 +1,716 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.controller.runtime;
+
+import interactivespaces.InteractiveSpacesException;
+import interactivespaces.SimpleInteractiveSpacesException;
+import interactivespaces.util.data.chunk.ChunkedContentBundle;
+import interactivespaces.util.data.chunk.ChunkedContentManifest;
+import interactivespaces.util.data.chunk.ChunkedContentManifest.ManifestFile;
+import interactivespaces.util.data.chunk.ChunkedContentManifest.ManifestSection;
+import interactivespaces.util.data.chunk.ContentChunk;
+import interactivespaces.util.data.chunk.ContentChunkHandler;
+import interactivespaces.util.data.chunk.ContentChunker;
+import interactivespaces.util.io.FileSupport;
+import interactivespaces.util.web.HttpContentCopier;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Closeables;
+import com.google.common.io.Files;
+
+import org.apache.commons.logging.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Moves controller data bundles as chunked content, so only the chunks the other side doesn't have cross the wire.
+ *
+ * <p>
+ * A data bundle is made of sections, each a directory tree such as the controller data directory or the permanent data
+ * directory of an activity. Sections are chunked and compressed in parallel.
+ *
+ * @author agent
+ */
+public class IncrementalDataBundleTransfer {
+
+  /**
+   * Splits files into chunks.
+   */
+  private final ContentChunker chunker = new ContentChunker();
+
+  /**
+   * The content copier for moving bundles and chunks.
+   */
+  private final HttpContentCopier contentCopier;
+
+  /**
+   * The file support to use.
+   */
+  private final FileSupport fileSupport;
+
+  /**
+   * The executor service for working on sections in parallel.
+   */
+  private final ExecutorService executorService;
+
+  /**
+   * Logger for the transfer.
+   */
+  private final Log log;
+
+  /**
+   * Construct a new transfer.
+   *
+   * @param contentCopier
+   *          the content copier for moving bundles and chunks
+   * @param fileSupport
+   *          the file support to use
+   * @param executorService
+   *          the executor service for working on sections in parallel
+   * @param log
+   *          the logger to use
+   */
+  public IncrementalDataBundleTransfer(HttpContentCopier contentCopier, FileSupport fileSupport,
+      ExecutorService executorService, Log log) {
+    this.contentCopier = contentCopier;
+    this.fileSupport = fileSupport;
+    this.executorService = executorService;
+    this.log = log;
+  }
+
+  /**
+   * Get the chunks the holder of a data bundle already has.
+   *
+   * @param bundleUri
+   *          URI of the data bundle
+   * @param workDirectory
+   *          directory for temporary files, it must exist
+   *
+   * @return the hashes of the chunks, empty if there is no chunked data bundle at the URI
+   */
+  public Set<String> getKnownChunks(String bundleUri, File workDirectory) {
+    File bundleFile = new File(workDirectory, "current.zip");
+    try {
+      contentCopier.copy(bundleUri, bundleFile);
+      ChunkedContentManifest manifest = ChunkedContentBundle.readManifest(bundleFile);
+      if (manifest != null) {
+        return manifest.getChunkHashes();
+      }
+    } catch (Exception e) {
+      log.info(String.format("No current chunked data bundle at %s, sending all chunks", bundleUri));
+    } finally {
+      fileSupport.delete(bundleFile);
+    }
+
+    return Collections.emptySet();
+  }
+
+  /**
+   * Create a chunked data bundle with only the chunks not already known.
+   *
+   * @param sections
+   *          the directory for each section, in the order they go in the bundle
+   * @param knownChunks
+   *          hashes of the chunks which don't need to be sent
+   * @param workDirectory
+   *          directory for temporary files, it must exist
+   *
+   * @return the bundle file, which is in the work directory
+   */
+  public File createBundle(Map<String, File> sections, Set<String> knownChunks, File workDirectory) {
+    ChunkedContentManifest manifest = new ChunkedContentManifest();
+    ConcurrentMap<String, PendingChunk> newChunks = Maps.newConcurrentMap();
+
+    List<Future<?>> futures = Lists.newArrayList();
+    for (Map.Entry<String, File> section : sections.entrySet()) {
+      File contentDirectory = section.getValue();
+      if (!contentDirectory.isDirectory()) {
+        log.warn(String.format("Skipping non-existent data directory %s", contentDirectory.getAbsolutePath()));
+        continue;
+      }
+
+      File chunkDirectory = new File(workDirectory, "section-" + futures.size());
+      fileSupport.directoryExists(chunkDirectory);
+      futures.add(executorService.submit(new SectionChunkingTask(manifest.getOrCreateSection(section.getKey()),
+          contentDirectory, knownChunks, newChunks, chunkDirectory)));
+    }
+    waitForAll(futures);
+
+    File bundleFile = new File(workDirectory, "bundle.zip");
+    ZipOutputStream zipOutputStream = null;
+    try {
+      zipOutputStream = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(bundleFile)));
+      zipOutputStream.putNextEntry(new ZipEntry(ChunkedContentBundle.ENTRY_MANIFEST));
+      manifest.write(zipOutputStream);
+      zipOutputStream.closeEntry();
+
+      long bytesSent = 0;
+      for (Map.Entry<String, PendingChunk> chunk : newChunks.entrySet()) {
+        PendingChunk pendingChunk = chunk.getValue();
+
+        // Chunks are already compressed, so are stored as is.
+        ZipEntry entry = new ZipEntry(ChunkedContentBundle.ENTRY_CHUNK_PREFIX + chunk.getKey());
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(pendingChunk.compressedSize);
+        entry.setCompressedSize(pendingChunk.compressedSize);
+        entry.setCrc(pendingChunk.crc);
+        zipOutputStream.putNextEntry(entry);
+        Files.copy(pendingChunk.file, zipOutputStream);
+        zipOutputStream.closeEntry();
+
+        bytesSent += pendingChunk.compressedSize;
+      }
+
+      zipOutputStream.close();
+      zipOutputStream = null;
+
+      log.info(String.format("Chunked data bundle has %d chunks, %d new totalling %d compressed bytes", manifest
+          .getChunkHashes().size(), newChunks.size(), bytesSent));
+    } catch (IOException e) {
+      throw new InteractiveSpacesException("Could not write chunked data bundle " + bundleFile.getAbsolutePath(), e);
+    } finally {
+      fileSupport.close(zipOutputStream, false);
+    }
+
+    return bundleFile;
+  }
+
+  /**
+   * Assemble the sections of a chunked data bundle, reusing chunks from the current content where possible.
+   *
+   * @param manifest
+   *          the manifest of the bundle
+   * @param sections
+   *          the current directory for each section which should be assembled
+   * @param incomingDirectory
+   *          the directory to assemble the sections in, each section goes in a subdirectory with its name
+   * @param workDirectory
+   *          directory for temporary files, it must exist
+   */
+  public void assembleSections(ChunkedContentManifest manifest, Map<String, File> sections, File incomingDirectory,
+      File workDirectory) {
+    String chunkUri = manifest.getProperty(ChunkedContentBundle.PROPERTY_CHUNK_URI);
+    if (chunkUri == null) {
+      throw new SimpleInteractiveSpacesException("Chunked data bundle does not say where to get chunks from");
+    }
+
+    File chunkCacheDirectory = new File(workDirectory, "chunks");
+    fileSupport.directoryExists(chunkCacheDirectory);
+
+    AtomicLong numberChunksFetched = new AtomicLong();
+    for (Map.Entry<String, File> section : sections.entrySet()) {
+      ManifestSection manifestSection = manifest.getSection(section.getKey());
+      if (manifestSection == null) {
+        continue;
+      }
+
+      Map<String, LocalChunk> localChunks = indexLocalChunks(section.getValue());
+      File sectionDirectory = new File(incomingDirectory, section.getKey());
+      fileSupport.directoryExists(sectionDirectory);
+
+      for (String directory : manifestSection.getDirectories()) {
+        fileSupport.directoryExists(resolvePath(sectionDirectory, directory));
+      }
+      for (ManifestFile file : manifestSection.getFiles()) {
+        assembleFile(file, resolvePath(sectionDirectory, file.getPath()), localChunks, chunkUri,
+            chunkCacheDirectory, numberChunksFetched);
+      }
+    }
+
+    log.info(String.format("Assembled chunked data bundle, fetched %d chunks", numberChunksFetched.get()));
+  }
+
+  /**
+   * Assemble a single file from its chunks.
+   *
+   * @param file
+   *          the file in the manifest
+   * @param destination
+   *          where the file goes
+   * @param localChunks
+   *          chunks available locally
+   * @param chunkUri
+   *          the template for chunk URIs
+   * @param chunkCacheDirectory
+   *          directory for chunks which have been fetched
+   * @param numberChunksFetched
+   *          count of chunks fetched so far
+   */
+  private void assembleFile(ManifestFile file, File destination, Map<String, LocalChunk> localChunks,
+      String chunkUri, File chunkCacheDirectory, AtomicLong numberChunksFetched) {
+    fileSupport.directoryExists(destination.getParentFile());
+
+    OutputStream out = null;
+    try {
+      out = new BufferedOutputStream(new FileOutputStream(destination));
+      long size = 0;
+      for (String hash : file.getChunkHashes()) {
+        byte[] data;
+        LocalChunk localChunk = localChunks.get(hash);
+        if (localChunk != null) {
+          data = localChunk.read();
+        } else {
+          data = getFetchedChunk(hash, chunkUri, chunkCacheDirectory, numberChunksFetched);
+        }
+        out.write(data);
+        size += data.length;
+      }
+      out.close();
+      out = null;
+
+      if (size != file.getSize()) {
+        throw new SimpleInteractiveSpacesException(String.format("Assembled file %s has size %d, expected %d",
+            file.getPath(), size, file.getSize()));
+      }
+    } catch (IOException e) {
+      throw new InteractiveSpacesException("Could not assemble data bundle file " + destination.getAbsolutePath(), e);
+    } finally {
+      fileSupport.close(out, false);
+    }
+  }
+
+  /**
+   * Get a chunk which isn't available locally, fetching it if it hasn't been fetched yet.
+   *
+   * @param hash
+   *          hash of the chunk
+   * @param chunkUri
+   *          the template for chunk URIs
+   * @param chunkCacheDirectory
+   *          directory for chunks which have been fetched
+   * @param numberChunksFetched
+   *          count of chunks fetched so far
+   *
+   * @return the chunk contents
+   *
+   * @throws IOException
+   *           the chunk could not be read
+   */
+  private byte[] getFetchedChunk(String hash, String chunkUri, File chunkCacheDirectory,
+      AtomicLong numberChunksFetched) throws IOException {
+    File chunkFile = new File(chunkCacheDirectory, hash);
+    if (!chunkFile.isFile()) {
+      contentCopier.copy(ChunkedContentBundle.getChunkUri(chunkUri, hash), chunkFile);
+      numberChunksFetched.incrementAndGet();
+    }
+
+    InputStream in = new BufferedInputStream(new FileInputStream(chunkFile));
+    byte[] data;
+    try {
+      data = ContentChunker.decompressChunk(in);
+    } finally {
+      Closeables.closeQuietly(in);
+    }
+
+    if (!hash.equals(ContentChunker.hashChunk(data, data.length))) {
+      fileSupport.delete(chunkFile);
+      throw new SimpleInteractiveSpacesException("Fetched data bundle chunk is corrupt: " + hash);
+    }
+
+    return data;
+  }
+
+  /**
+   * Find all chunks in the files of a directory tree.
+   *
+   * @param directory
+   *          root of the tree, can be missing
+   *
+   * @return where each chunk can be found, keyed by chunk hash
+   */
+  private Map<String, LocalChunk> indexLocalChunks(File directory) {
+    final Map<String, LocalChunk> localChunks = Maps.newHashMap();
+    if (!directory.isDirectory()) {
+      return localChunks;
+    }
+
+    for (final File file : listFiles(directory)) {
+      InputStream in = null;
+      try {
+        in = new BufferedInputStream(new FileInputStream(file));
+        for (ContentChunk chunk : chunker.chunk(in, null)) {
+          localChunks.put(chunk.getHash(), new LocalChunk(file, chunk.getOffset(), chunk.getLength()));
+        }
+      } catch (IOException e) {
+        // The chunks of this file will just be fetched.
+        log.warn(String.format("Could not read current data file %s", file.getAbsolutePath()), e);
+      } finally {
+        Closeables.closeQuietly(in);
+      }
+    }
+
+    return localChunks;
+  }
+
+  /**
+   * List all files in a directory tree, in a stable order.
+   *
+   * @param directory
+   *          root of the tree
+   *
+   * @return the files
+   */
+  private List<File> listFiles(File directory) {
+    List<File> files = Lists.newArrayList();
+    File[] children = directory.listFiles();
+    if (children == null) {
+      return files;
+    }
+
+    Arrays.sort(children);
+    for (File child : children) {
+      if (child.isDirectory()) {
+        files.addAll(listFiles(child));
+      } else if (child.isFile()) {
+        files.add(child);
+      }
+    }
+
+    return files;
+  }
+
+  /**
+   * Resolve a manifest path inside a directory, refusing paths which would escape it.
+   *
+   * @param baseDirectory
+   *          the directory
+   * @param path
+   *          the manifest path
+   *
+   * @return the file for the path
+   */
+  private File resolvePath(File baseDirectory, String path) {
+    if (path.startsWith("/") || path.equals("..") || path.startsWith("../") || path.contains("/../")
+        || path.endsWith("/..")) {
+      throw new SimpleInteractiveSpacesException("Data bundle path escapes its section: " + path);
+    }
+
+    return new File(baseDirectory, path);
+  }
+
+  /**
+   * Wait for all tasks to complete.
+   *
+   * @param futures
+   *          the futures for the tasks
+   */
+  private void waitForAll(List<Future<?>> futures) {
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (ExecutionException e) {
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+
+      throw new InteractiveSpacesException("Could not chunk data bundle section", e.getCause());
+    } catch (InterruptedException e) {
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+      Thread.currentThread().interrupt();
+
+      throw new SimpleInteractiveSpacesException("Interrupted while chunking data bundle");
+    }
+  }
+
+  /**
+   * Chunks the files of one section and compresses the chunks which need to be sent.
+   *
+   * @author agent
+   */
+  private class SectionChunkingTask implements Callable<Void> {
+
+    /**
+     * The manifest section being filled in.
+     */
+    private final ManifestSection section;
+
+    /**
+     * Root of the section's directory tree.
+     */
+    private final File contentDirectory;
+
+    /**
+     * Hashes of the chunks which don't need to be sent.
+     */
+    private final Set<String> knownChunks;
+
+    /**
+     * The chunks to be sent, shared by all sections.
+     */
+    private final ConcurrentMap<String, PendingChunk> newChunks;
+
+    /**
+     * Directory for the compressed chunks of this section.
+     */
+    private final File chunkDirectory;
+
+    /**
+     * Construct a new task.
+     *
+     * @param section
+     *          the manifest section to fill in
+     * @param contentDirectory
+     *          root of the section's directory tree
+     * @param knownChunks
+     *          hashes of the chunks which don't need to be sent
+     * @param newChunks
+     *          the chunks to be sent, shared by all sections
+     * @param chunkDirectory
+     *          directory for the compressed chunks of this section
+     */
+    public SectionChunkingTask(ManifestSection section, File contentDirectory, Set<String> knownChunks,
+        ConcurrentMap<String, PendingChunk> newChunks, File chunkDirectory) {
+      this.section = section;
+      this.contentDirectory = contentDirectory;
+      this.knownChunks = knownChunks;
+      this.newChunks = newChunks;
+      this.chunkDirectory = chunkDirectory;
+    }
+
+    @Override
+    public Void call() throws IOException {
+      addDirectory(contentDirectory, "");
+
+      return null;
+    }
+
+    /**
+     * Add the contents of a directory to the section.
+     *
+     * @param directory
+     *          the directory
+     * @param prefix
+     *          the relative path of the directory, ending in a slash, or empty for the root
+     *
+     * @throws IOException
+     *           a file could not be read
+     */
+    private void addDirectory(File directory, String prefix) throws IOException {
+      File[] children = directory.listFiles();
+      if (children == null) {
+        return;
+      }
+
+      Arrays.sort(children);
+      for (File child : children) {
+        String path = prefix + child.getName();
+        if (child.isDirectory()) {
+          section.addDirectory(path);
+          addDirectory(child, path + "/");
+        } else if (child.isFile()) {
+          addFile(child, path);
+        }
+      }
+    }
+
+    /**
+     * Chunk a file and add it to the section.
+     *
+     * @param file
+     *          the file
+     * @param path
+     *          the relative path of the file
+     *
+     * @throws IOException
+     *           the file could not be read
+     */
+    private void addFile(File file, String path) throws IOException {
+      InputStream in = new BufferedInputStream(new FileInputStream(file));
+      try {
+        long size = file.length();
+        List<ContentChunk> chunks = chunker.chunk(in, new ContentChunkHandler() {
+          @Override
+          public void onChunk(ContentChunk chunk, byte[] data) throws IOException {
+            if (!knownChunks.contains(chunk.getHash()) && !newChunks.containsKey(chunk.getHash())) {
+              PendingChunk pendingChunk = writeChunk(chunk, data);
+              if (newChunks.putIfAbsent(chunk.getHash(), pendingChunk) != null) {
+                // Another section got there first.
+                fileSupport.delete(pendingChunk.file);
+              }
+            }
+          }
+        });
+
+        long chunkedSize = 0;
+        for (ContentChunk chunk : chunks) {
+          chunkedSize += chunk.getLength();
+        }
+        if (chunkedSize != size) {
+          log.warn(String.format("Data file %s changed while being captured", file.getAbsolutePath()));
+        }
+
+        section.addFile(path, chunkedSize, chunks);
+      } finally {
+        Closeables.closeQuietly(in);
+      }
+    }
+
+    /**
+     * Compress a chunk and write it into the section's chunk directory.
+     *
+     * @param chunk
+     *          the chunk
+     * @param data
+     *          the chunk contents
+     *
+     * @return the chunk waiting to be sent
+     *
+     * @throws IOException
+     *           the chunk could not be written
+     */
+    private PendingChunk writeChunk(ContentChunk chunk, byte[] data) throws IOException {
+      byte[] compressed = ContentChunker.compressChunk(data, chunk.getLength());
+      CRC32 crc = new CRC32();
+      crc.update(compressed);
+
+      File chunkFile = new File(chunkDirectory, chunk.getHash());
+      OutputStream out = new FileOutputStream(chunkFile);
+      try {
+        out.write(compressed);
+      } finally {
+        out.close();
+      }
+
+      return new PendingChunk(chunkFile, compressed.length, crc.getValue());
+    }
+  }
+
+  /**
+   * A compressed chunk waiting to be sent.
+   *
+   * @author agent
+   */
+  private static class PendingChunk {
+
+    /**
+     * The file holding the compressed chunk.
+     */
+    private final File file;
+
+    /**
+     * Size of the compressed chunk.
+     */
+    private final long compressedSize;
+
+    /**
+     * CRC of the compressed chunk.
+     */
+    private final long crc;
+
+    /**
+     * Construct a new pending chunk.
+     *
+     * @param file
+     *          the file holding the compressed chunk
+     * @param compressedSize
+     *          size of the compressed chunk
+     * @param crc
+     *          CRC of the compressed chunk
+     */
+    public PendingChunk(File file, long compressedSize, long crc) {
+      this.file = file;
+      this.compressedSize = compressedSize;
+      this.crc = crc;
+    }
+  }
+
+  /**
+   * A chunk available in a local file.
+   *
+   * @author agent
+   */
+  private static class LocalChunk {
+
+    /**
+     * The file holding the chunk.
+     */
+    private final File file;
+
+    /**
+     * Where the chunk starts in the file.
+     */
+    private final long offset;
+
+    /**
+     * Length of the chunk.
+     */
+    private final int length;
+
+    /**
+     * Construct a new local chunk.
+     *
+     * @param file
+     *          the file holding the chunk
+     * @param offset
+     *          where the chunk starts in the file
+     * @param length
+     *          length of the chunk
+     */
+    public LocalChunk(File file, long offset, int length) {
+      this.file = file;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    /**
+     * Read the chunk.
+     *
+     * @return the chunk contents
+     *
+     * @throws IOException
+     *           the chunk could not be read
+     */
+    public byte[] read() throws IOException {
+      RandomAccessFile in = new RandomAccessFile(file, "r");
+      try {
+        byte[] data = new byte[length];
+        in.seek(offset);
+        in.readFully(data);
+
+        return data;
+      } finally {
+        in.close();
+      }
+    }
+  }
+}
@@ -20,7 +20,7 @@ import interactivespaces.system.InteractiveSpacesEnvironment;
 import interactivespaces.system.InteractiveSpacesSystemControl;
 import interactivespaces.util.io.directorywatcher.DirectoryWatcher;
 import interactivespaces.util.io.directorywatcher.DirectoryWatcherListener;
-import interactivespaces.util.io.directorywatcher.SimpleDirectoryWatcher;
+import interactivespaces.util.io.directorywatcher.DirectoryWatchers;
 import interactivespaces.util.resource.ManagedResource;
 
 import java.io.File;
@@ -38,7 +38,8 @@ import java.util.concurrent.TimeUnit;
 public class SpaceControllerFileControl implements DirectoryWatcherListener, ManagedResource {
 
   /**
-   * Default period for the watcher scans, in seconds.
+   * Default period for polling the control directory if the filesystem can't
+   * report changes, in seconds.
    */
   public static final int WATCHER_PERIOD_DEFAULT = 10;
 
@@ -97,7 +98,7 @@ public class SpaceControllerFileControl implements DirectoryWatcherListener, Man
   @Override
   public void startup() {
     File controlDirectory = new File(spaceEnvironment.getFilesystem().getInstallDirectory(), FOLDER_RUN_CONTROL);
-    watcher = new SimpleDirectoryWatcher(true);
+    watcher = DirectoryWatchers.newDirectoryWatcher(true);
     watcher.addDirectory(controlDirectory);
     watcher.addDirectoryWatcherListener(this);
 
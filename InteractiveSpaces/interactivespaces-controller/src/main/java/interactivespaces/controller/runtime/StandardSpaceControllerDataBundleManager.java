@@ -21,6 +21,8 @@ import interactivespaces.SimpleInteractiveSpacesException;
 import interactivespaces.common.ResourceRepositoryUploadChannel;
 import interactivespaces.liveactivity.runtime.LiveActivityStorageManager;
 import interactivespaces.liveactivity.runtime.domain.InstalledLiveActivity;
+import interactivespaces.util.data.chunk.ChunkedContentBundle;
+import interactivespaces.util.data.chunk.ChunkedContentManifest;
 import interactivespaces.util.io.FileSupport;
 import interactivespaces.util.io.FileSupportImpl;
 import interactivespaces.util.web.HttpClientHttpContentCopier;
@@ -32,6 +34,7 @@ import org.apache.commons.logging.Log;
 
 import java.io.File;
 import java.util.Map;
+import java.util.Set;
 import java.util.zip.ZipOutputStream;
 
 /**
@@ -51,6 +54,21 @@ public class StandardSpaceControllerDataBundleManager implements SpaceController
    */
   public static final String ACTIVITY_DATA_BUNDLE_PREFIX = "activity/";
 
+  /**
+   * Configuration property saying whether data bundles are captured incrementally as chunked content.
+   *
+   * <p>
+   * Only turn this on when the master stores chunked data bundles. A master from before chunked data bundles, or one
+   * without a resource repository storage manager, stores the upload as is and it can't be restored.
+   */
+  public static final String CONFIGURATION_PROPERTY_DATA_BUNDLE_INCREMENTAL =
+      "interactivespaces.controller.databundle.incremental";
+
+  /**
+   * The default for whether data bundles are captured incrementally.
+   */
+  public static final boolean DATA_BUNDLE_INCREMENTAL_DEFAULT = false;
+
   /**
    * The content copier used for actually copying bundles.
    */
@@ -103,6 +121,12 @@ public class StandardSpaceControllerDataBundleManager implements SpaceController
 
   @Override
   public void captureControllerDataBundle(String destinationUri) {
+    if (isIncrementalCapture()) {
+      captureIncrementalDataBundle(destinationUri);
+
+      return;
+    }
+
     File dataBundle = createDataBundle();
     try {
       Map<String, String> parameters = Maps.newHashMap();
@@ -119,12 +143,106 @@ public class StandardSpaceControllerDataBundleManager implements SpaceController
     File dataBundle = generateDataBundleTempFile();
     try {
       contentCopier.copy(sourceUri, dataBundle);
-      extractFullDataBundle(dataBundle);
+
+      ChunkedContentManifest manifest = ChunkedContentBundle.readManifest(dataBundle);
+      if (manifest != null) {
+        extractChunkedDataBundle(manifest);
+      } else {
+        extractFullDataBundle(dataBundle);
+      }
+    } catch (InteractiveSpacesException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new InteractiveSpacesException("Could not read data bundle from " + sourceUri, e);
     } finally {
       dataBundle.delete();
     }
   }
 
+  /**
+   * Capture a data bundle, only sending the chunks the destination doesn't already have.
+   *
+   * @param destinationUri
+   *          the URI for the data bundle
+   */
+  private void captureIncrementalDataBundle(String destinationUri) {
+    File workDirectory = generateDataBundleTempFile();
+    fileSupport.directoryExists(workDirectory);
+    try {
+      IncrementalDataBundleTransfer transfer = newIncrementalTransfer();
+      Set<String> knownChunks = transfer.getKnownChunks(destinationUri, workDirectory);
+      File dataBundle = transfer.createBundle(getDataBundleSections(), knownChunks, workDirectory);
+
+      Map<String, String> parameters = Maps.newHashMap();
+      parameters.put("uuid", getControllerUuid());
+      String channel = ResourceRepositoryUploadChannel.DATA_BUNDLE_UPLOAD.getChannelId();
+      contentCopier.copyTo(destinationUri, dataBundle, channel, parameters);
+    } finally {
+      fileSupport.delete(workDirectory);
+    }
+  }
+
+  /**
+   * Extract a chunked data bundle, fetching only the chunks which aren't in the current data.
+   *
+   * @param manifest
+   *          the manifest of the data bundle
+   */
+  private void extractChunkedDataBundle(ChunkedContentManifest manifest) {
+    File incomingDirectory = generateDataBundleTempFile();
+    File workDirectory = generateDataBundleTempFile();
+    fileSupport.directoryExists(workDirectory);
+
+    try {
+      Map<String, File> sections = getDataBundleSections();
+      newIncrementalTransfer().assembleSections(manifest, sections, incomingDirectory, workDirectory);
+
+      for (Map.Entry<String, File> section : sections.entrySet()) {
+        extractDataBundleSection(incomingDirectory, section.getKey(), section.getValue());
+      }
+    } catch (Exception e) {
+      throw new InteractiveSpacesException("Extracting chunked data bundle", e);
+    } finally {
+      fileSupport.delete(incomingDirectory);
+      fileSupport.delete(workDirectory);
+    }
+  }
+
+  /**
+   * Get the content directory for every section of the data bundle.
+   *
+   * @return the directories keyed by section name, in bundle order
+   */
+  private Map<String, File> getDataBundleSections() {
+    Map<String, File> sections = Maps.newLinkedHashMap();
+    sections.put(CONTROLLER_DATA_BUNDLE_ENTRY, getControllerDataContentDirectory());
+    for (InstalledLiveActivity activity : spaceController.getAllInstalledLiveActivities()) {
+      sections.put(ACTIVITY_DATA_BUNDLE_PREFIX + activity.getUuid(), getActivityDataContentDirectory(activity));
+    }
+
+    return sections;
+  }
+
+  /**
+   * Create a new incremental transfer.
+   *
+   * @return the transfer
+   */
+  private IncrementalDataBundleTransfer newIncrementalTransfer() {
+    return new IncrementalDataBundleTransfer(contentCopier, fileSupport, spaceController.getSpaceEnvironment()
+        .getExecutorService(), getLog());
+  }
+
+  /**
+   * Are data bundles captured incrementally?
+   *
+   * @return {@code true} if captures are incremental
+   */
+  private boolean isIncrementalCapture() {
+    return spaceController.getSpaceEnvironment().getSystemConfiguration()
+        .getPropertyBoolean(CONFIGURATION_PROPERTY_DATA_BUNDLE_INCREMENTAL, DATA_BUNDLE_INCREMENTAL_DEFAULT);
+  }
+
   /**
    * Create a data bundle for this controller.
    *
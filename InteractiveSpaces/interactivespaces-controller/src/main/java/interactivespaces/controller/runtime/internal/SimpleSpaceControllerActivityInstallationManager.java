@@ -24,11 +24,14 @@ import interactivespaces.controller.runtime.SpaceControllerLiveActivityDeleteReq
 import interactivespaces.controller.runtime.SpaceControllerLiveActivityDeleteStatus;
 import interactivespaces.liveactivity.runtime.installation.ActivityInstallationManager;
 import interactivespaces.liveactivity.runtime.installation.ActivityInstallationManager.RemoveActivityResult;
+import interactivespaces.liveactivity.runtime.installation.ActivityInstallationResult;
 import interactivespaces.system.InteractiveSpacesEnvironment;
 
 import interactivespaces_msgs.LiveActivityDeleteStatus;
 
-import java.util.Date;
+import com.google.common.collect.Lists;
+
+import java.util.List;
 
 /**
  * The controller side of the installation manager for Interactive Spaces live
@@ -79,14 +82,16 @@ public class SimpleSpaceControllerActivityInstallationManager implements SpaceCo
     ActivityDeployStatus status = null;
     boolean success = true;
 
-    Date installedDate = null;
+    ActivityInstallationResult installationResult = null;
 
     try {
       status = ActivityDeployStatus.STATUS_FAILURE_COPY;
-      activityInstallationManager.copyActivity(uuid, activityUri);
+      List<String> sourceUris = Lists.newArrayList(request.getPeerSourceUris());
+      sourceUris.add(activityUri);
+      activityInstallationManager.copyActivity(uuid, sourceUris, request.getBundleDigest());
 
       status = ActivityDeployStatus.STATUS_FAILURE_UNPACK;
-      installedDate =
+      installationResult =
           activityInstallationManager.installActivity(uuid, request.getIdentifyingName(), request.getVersion());
 
       status = ActivityDeployStatus.STATUS_SUCCESS;
@@ -98,7 +103,7 @@ public class SimpleSpaceControllerActivityInstallationManager implements SpaceCo
       activityInstallationManager.removePackedActivity(uuid);
     }
 
-    return createDeployResult(request, status, success, installedDate);
+    return createDeployResult(request, status, success, installationResult);
   }
 
   /**
@@ -110,19 +115,26 @@ public class SimpleSpaceControllerActivityInstallationManager implements SpaceCo
    *          final status
    * @param success
    *          if the deployment was successful
-   * @param installedDate
-   *          date to mark it if successful
+   * @param installationResult
+   *          the result of the installation, {@code null} if the installation didn't complete
    * @return an appropriately filled out deployment status
    */
   private LiveActivityDeploymentResponse createDeployResult(ActivityDeploymentRequest request,
-      ActivityDeployStatus status, boolean success, Date installedDate) {
+      ActivityDeployStatus status, boolean success, ActivityInstallationResult installationResult) {
 
     long timeDeployed = 0;
-    if (installedDate != null) {
-      timeDeployed = installedDate.getTime();
+    if (installationResult != null) {
+      timeDeployed = installationResult.getInstalledDate().getTime();
+    }
+
+    LiveActivityDeploymentResponse response =
+        new LiveActivityDeploymentResponse(request.getTransactionId(), request.getUuid(), status, timeDeployed);
+    if (installationResult != null) {
+      response.setStatusDetail(installationResult.getSummary());
+      response.setBundleCacheUri(activityInstallationManager.getBundleCacheUri(request.getBundleDigest()));
     }
 
-    return new LiveActivityDeploymentResponse(request.getTransactionId(), request.getUuid(), status, timeDeployed);
+    return response;
   }
 
   @Override
@@ -58,6 +58,7 @@ import interactivespaces_msgs.ControllerDataRequest;
 import interactivespaces_msgs.ControllerFullStatus;
 import interactivespaces_msgs.ControllerRequest;
 import interactivespaces_msgs.ControllerStatus;
+import interactivespaces_msgs.ControllerStatusRequest;
 import interactivespaces_msgs.LiveActivityDeleteRequest;
 import interactivespaces_msgs.LiveActivityDeleteStatus;
 import interactivespaces_msgs.LiveActivityDeployRequest;
@@ -93,6 +94,13 @@ public class RosSpaceControllerCommunicator implements SpaceControllerCommunicat
    */
   public static final int STARTUP_NOTIFICATION_DELAY = 1000;
 
+  /**
+   * Configuration property giving the number of milliseconds live activity status changes are held so they can be
+   * sent to the master together. {@code 0} sends every change on its own.
+   */
+  public static final String CONFIGURATION_PROPERTY_STATUS_BATCH_WINDOW =
+      "interactivespaces.controller.status.batch.window";
+
   /**
    * The controller being controlled.
    */
@@ -118,6 +126,11 @@ public class RosSpaceControllerCommunicator implements SpaceControllerCommunicat
    */
   private Publisher<ControllerStatus> controllerStatusPublisher;
 
+  /**
+   * Publishes status messages from the controller, batching them where it can.
+   */
+  private RosSpaceControllerStatusPublisher statusPublisher;
+
   /**
    * Subscriber for controller requests.
    */
@@ -128,6 +141,11 @@ public class RosSpaceControllerCommunicator implements SpaceControllerCommunicat
    */
   private MessageSerializer<ControllerFullStatus> controllerFullStatusMessageSerializer;
 
+  /**
+   * ROS message deserializer for controller status requests.
+   */
+  private MessageDeserializer<ControllerStatusRequest> controllerStatusRequestDeserializer;
+
   /**
    * ROS message deserializer for live activity runtime requests.
    */
@@ -264,6 +282,9 @@ public class RosSpaceControllerCommunicator implements SpaceControllerCommunicat
     controllerFullStatusMessageSerializer =
         messageSerializationFactory.newMessageSerializer(ControllerFullStatus._TYPE);
 
+    controllerStatusRequestDeserializer =
+        messageSerializationFactory.newMessageDeserializer(ControllerStatusRequest._TYPE);
+
     liveActivityRuntimeRequestDeserializer =
         messageSerializationFactory.newMessageDeserializer(LiveActivityRuntimeRequest._TYPE);
 
@@ -296,6 +317,14 @@ public class RosSpaceControllerCommunicator implements SpaceControllerCommunicat
 
     containerResourceCommitResponseSerializer =
         messageSerializationFactory.newMessageSerializer(ContainerResourceCommitResponseMessage._TYPE);
+
+    long statusBatchWindow =
+        spaceEnvironment.getSystemConfiguration().getPropertyLong(CONFIGURATION_PROPERTY_STATUS_BATCH_WINDOW,
+            RosSpaceControllerStatusPublisher.BATCH_WINDOW_DEFAULT);
+    statusPublisher =
+        new RosSpaceControllerStatusPublisher(controllerStatusPublisher, rosMessageFactory,
+            controllerFullStatusMessageSerializer, liveActivityRuntimeStatusSerializer,
+            spaceEnvironment.getExecutorService(), statusBatchWindow, spaceEnvironment.getLog());
   }
 
   @Override
@@ -310,6 +339,11 @@ public class RosSpaceControllerCommunicator implements SpaceControllerCommunicat
 
   @Override
   public void onShutdown() {
+    if (statusPublisher != null) {
+      statusPublisher.shutdown();
+      statusPublisher = null;
+    }
+
     if (node != null) {
       node.shutdown();
       node = null;
@@ -331,7 +365,12 @@ public class RosSpaceControllerCommunicator implements SpaceControllerCommunicat
   void handleControllerRequest(interactivespaces_msgs.ControllerRequest request) {
     switch (request.getOperation()) {
       case ControllerRequest.OPERATION_CONTROLLER_STATUS:
-        publishControllerFullStatus();
+        long acknowledgedSnapshotId = 0;
+        if (request.getPayload() != null && request.getPayload().readable()) {
+          acknowledgedSnapshotId =
+              controllerStatusRequestDeserializer.deserialize(request.getPayload()).getAcknowledgedSnapshotId();
+        }
+        publishControllerFullStatus(acknowledgedSnapshotId);
 
         break;
 
@@ -473,8 +512,11 @@ public class RosSpaceControllerCommunicator implements SpaceControllerCommunicat
 
   /**
    * Create and publish controller full status.
+   *
+   * @param acknowledgedSnapshotId
+   *          ID of the last full status snapshot the master applied, {@code 0} if none
    */
-  private void publishControllerFullStatus() {
+  private void publishControllerFullStatus(long acknowledgedSnapshotId) {
     spaceEnvironment.getLog().info("Getting full controller status");
 
     SimpleSpaceController controllerInfo = controllerControl.getControllerInfo();
@@ -517,8 +559,7 @@ public class RosSpaceControllerCommunicator implements SpaceControllerCommunicat
       fullStatus.getLiveActivityStatuses().add(cas);
     }
 
-    publishControllerStatus(ControllerStatus.STATUS_CONTROLLER_FULL_STATUS,
-        controllerFullStatusMessageSerializer.serialize(fullStatus));
+    statusPublisher.publishFullStatus(controllerInfo.getUuid(), fullStatus, acknowledgedSnapshotId);
   }
 
   @Override
@@ -536,7 +577,7 @@ public class RosSpaceControllerCommunicator implements SpaceControllerCommunicat
       statusMsg.setStatusDetail(InteractiveSpacesException.getStackTrace(e));
     }
 
-    controllerStatusPublisher.publish(statusMsg);
+    statusPublisher.publishStatus(statusMsg);
   }
 
   /**
@@ -754,8 +795,7 @@ public class RosSpaceControllerCommunicator implements SpaceControllerCommunicat
         status.setStatusDetail(astatus.getDescription());
       }
 
-      publishControllerStatus(ControllerStatus.STATUS_CONTROLLER_LIVE_ACTIVITY_RUNTIME_STATUS,
-          liveActivityRuntimeStatusSerializer.serialize(status));
+      statusPublisher.publishLiveActivityStatus(controllerControl.getControllerInfo().getUuid(), status);
     } catch (Exception e) {
       spaceEnvironment.getLog().error(
           String.format("Could not publish Status change %s for Live Activity %s\n", uuid, astatus), e);
@@ -777,7 +817,7 @@ public class RosSpaceControllerCommunicator implements SpaceControllerCommunicat
       status.setPayload(payload);
     }
 
-    controllerStatusPublisher.publish(status);
+    statusPublisher.publishStatus(status);
   }
 
   /**
@@ -896,28 +936,17 @@ public class RosSpaceControllerCommunicator implements SpaceControllerCommunicat
   /**
    * Give heartbeats from controller using ROS.
    *
+   * <p>
+   * A heartbeat which comes due while live activity status changes are being held is sent along with them.
+   *
    * @author Keith M. Hughes
    */
   private class RosControllerHeartbeat implements SpaceControllerHeartbeat {
 
-    /**
-     * heartbeatLoop status is always the same, so create once.
-     */
-    private final ControllerStatus status;
-
-    /**
-     * Construct a heartbeat object.
-     */
-    public RosControllerHeartbeat() {
-      status = rosMessageFactory.newFromType(ControllerStatus._TYPE);
-      status.setStatus(ControllerStatus.STATUS_CONTROLLER_HEARTBEAT);
-    }
-
     @Override
     public void sendHeartbeat() {
-      // In case the UUID changed.
-      status.setControllerUuid(controllerControl.getControllerInfo().getUuid());
-      controllerStatusPublisher.publish(status);
+      // Get the UUID every time in case it changed.
+      statusPublisher.publishHeartbeat(controllerControl.getControllerInfo().getUuid());
     }
   }
 }
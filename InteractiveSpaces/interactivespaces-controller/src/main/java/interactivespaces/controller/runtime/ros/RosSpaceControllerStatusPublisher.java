@@ -0,0 +1,424 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.controller.runtime.ros;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import interactivespaces_msgs.ControllerFullStatus;
+import interactivespaces_msgs.ControllerStatus;
+import interactivespaces_msgs.LiveActivityRuntimeStatus;
+import org.apache.commons.logging.Log;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.ros.message.MessageFactory;
+import org.ros.message.MessageSerializer;
+import org.ros.node.topic.Publisher;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes live activity status and heartbeats from a space controller to the master.
+ *
+ * <p>
+ * Live activity status changes are held for a short window and then sent together in one message. A heartbeat which
+ * comes due while changes are being held rides along with them rather than being sent on its own.
+ *
+ * <p>
+ * Every full status is kept as a snapshot for a while. When the master says which snapshot it last applied, the next
+ * full status only carries the live activities whose status has changed since then, or for which a status change was
+ * published since then. The latter covers a change the master never got which was later undone.
+ *
+ * @author agent
+ */
+public class RosSpaceControllerStatusPublisher {
+
+  /**
+   * The default number of milliseconds live activity status changes are held before being sent.
+   */
+  public static final long BATCH_WINDOW_DEFAULT = 50;
+
+  /**
+   * The number of full status snapshots kept for sending changes against.
+   */
+  public static final int NUMBER_SNAPSHOTS_KEPT = 4;
+
+  /**
+   * The publisher for controller status messages.
+   */
+  private final Publisher<ControllerStatus> controllerStatusPublisher;
+
+  /**
+   * Message factory for creating messages.
+   */
+  private final MessageFactory rosMessageFactory;
+
+  /**
+   * ROS message serializer for controller full status messages.
+   */
+  private final MessageSerializer<ControllerFullStatus> controllerFullStatusSerializer;
+
+  /**
+   * ROS message serializer for live activity runtime statuses.
+   */
+  private final MessageSerializer<LiveActivityRuntimeStatus> liveActivityRuntimeStatusSerializer;
+
+  /**
+   * The executor service for sending held status changes.
+   */
+  private final ScheduledExecutorService executorService;
+
+  /**
+   * The number of milliseconds live activity status changes are held before being sent. {@code 0} sends them
+   * immediately.
+   */
+  private final long batchWindow;
+
+  /**
+   * The logger to use.
+   */
+  private final Log log;
+
+  /**
+   * Live activity status changes being held, in the order they happened.
+   */
+  private final List<LiveActivityRuntimeStatus> pendingStatuses = Lists.newArrayList();
+
+  /**
+   * UUID of the controller the held status changes are for.
+   */
+  private String pendingControllerUuid;
+
+  /**
+   * {@code true} if a heartbeat came due while status changes were being held.
+   */
+  private boolean heartbeatPending;
+
+  /**
+   * The future for sending the held status changes.
+   */
+  private Future<?> flushFuture;
+
+  /**
+   * The most recent full status snapshots, keyed by snapshot ID.
+   */
+  private final Map<Long, StatusSnapshot> snapshots = new LinkedHashMap<Long, StatusSnapshot>() {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, StatusSnapshot> eldest) {
+      return size() > NUMBER_SNAPSHOTS_KEPT;
+    }
+  };
+
+  /**
+   * The ID of the last snapshot taken.
+   *
+   * <p>
+   * Starts from the clock so IDs from before a restart of the controller are not reused.
+   */
+  private long lastSnapshotId = System.currentTimeMillis();
+
+  /**
+   * Mutex for the held status changes and snapshots. Held while publishing so messages go out in order.
+   */
+  private final Object mutex = new Object();
+
+  /**
+   * Construct a new status publisher.
+   *
+   * @param controllerStatusPublisher
+   *          the publisher for controller status messages
+   * @param rosMessageFactory
+   *          message factory for creating messages
+   * @param controllerFullStatusSerializer
+   *          ROS message serializer for controller full status messages
+   * @param liveActivityRuntimeStatusSerializer
+   *          ROS message serializer for live activity runtime statuses
+   * @param executorService
+   *          the executor service for sending held status changes
+   * @param batchWindow
+   *          the number of milliseconds live activity status changes are held before being sent, {@code 0} to send
+   *          them immediately
+   * @param log
+   *          the logger to use
+   */
+  public RosSpaceControllerStatusPublisher(Publisher<ControllerStatus> controllerStatusPublisher,
+      MessageFactory rosMessageFactory, MessageSerializer<ControllerFullStatus> controllerFullStatusSerializer,
+      MessageSerializer<LiveActivityRuntimeStatus> liveActivityRuntimeStatusSerializer,
+      ScheduledExecutorService executorService, long batchWindow, Log log) {
+    this.controllerStatusPublisher = controllerStatusPublisher;
+    this.rosMessageFactory = rosMessageFactory;
+    this.controllerFullStatusSerializer = controllerFullStatusSerializer;
+    this.liveActivityRuntimeStatusSerializer = liveActivityRuntimeStatusSerializer;
+    this.executorService = executorService;
+    this.batchWindow = batchWindow;
+    this.log = log;
+  }
+
+  /**
+   * Stop holding status changes. Anything being held is sent.
+   */
+  public void shutdown() {
+    flush();
+  }
+
+  /**
+   * Publish a live activity status change.
+   *
+   * @param controllerUuid
+   *          UUID of the controller
+   * @param status
+   *          the status of the live activity
+   */
+  public void publishLiveActivityStatus(String controllerUuid, LiveActivityRuntimeStatus status) {
+    synchronized (mutex) {
+      if (batchWindow <= 0) {
+        recordPublished(status);
+        publish(controllerUuid, ControllerStatus.STATUS_CONTROLLER_LIVE_ACTIVITY_RUNTIME_STATUS,
+            liveActivityRuntimeStatusSerializer.serialize(status));
+        return;
+      }
+
+      if (!controllerUuid.equals(pendingControllerUuid)) {
+        flush();
+        pendingControllerUuid = controllerUuid;
+      }
+
+      pendingStatuses.add(status);
+      if (flushFuture == null) {
+        flushFuture = executorService.schedule(new Runnable() {
+          @Override
+          public void run() {
+            flush();
+          }
+        }, batchWindow, TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+
+  /**
+   * Publish a controller status message.
+   *
+   * <p>
+   * Any held live activity status changes are sent first so the master sees everything in order.
+   *
+   * @param status
+   *          the status message
+   */
+  public void publishStatus(ControllerStatus status) {
+    synchronized (mutex) {
+      flush();
+
+      controllerStatusPublisher.publish(status);
+    }
+  }
+
+  /**
+   * Publish a heartbeat.
+   *
+   * <p>
+   * If status changes are being held, the heartbeat is sent with them.
+   *
+   * @param controllerUuid
+   *          UUID of the controller
+   */
+  public void publishHeartbeat(String controllerUuid) {
+    synchronized (mutex) {
+      if (!pendingStatuses.isEmpty()) {
+        heartbeatPending = true;
+        return;
+      }
+
+      publish(controllerUuid, ControllerStatus.STATUS_CONTROLLER_HEARTBEAT, null);
+    }
+  }
+
+  /**
+   * Publish a full status.
+   *
+   * <p>
+   * Any held status changes are sent first. The master treats a full status as a heartbeat.
+   *
+   * @param controllerUuid
+   *          UUID of the controller
+   * @param fullStatus
+   *          the full status with every live activity in it, will have its snapshot fields set and may have
+   *          unchanged live activities removed
+   * @param acknowledgedSnapshotId
+   *          ID of the last snapshot the master applied, {@code 0} if none
+   */
+  public void publishFullStatus(String controllerUuid, ControllerFullStatus fullStatus, long acknowledgedSnapshotId) {
+    synchronized (mutex) {
+      flush();
+
+      List<LiveActivityRuntimeStatus> liveActivityStatuses = fullStatus.getLiveActivityStatuses();
+      StatusSnapshot snapshot = new StatusSnapshot();
+      for (LiveActivityRuntimeStatus status : liveActivityStatuses) {
+        snapshot.statuses.put(status.getUuid(), status);
+      }
+
+      long snapshotId = ++lastSnapshotId;
+      fullStatus.setSnapshotId(snapshotId);
+
+      StatusSnapshot baseSnapshot = snapshots.get(acknowledgedSnapshotId);
+      if (baseSnapshot != null) {
+        int numberLiveActivities = liveActivityStatuses.size();
+        Iterator<LiveActivityRuntimeStatus> statuses = liveActivityStatuses.iterator();
+        while (statuses.hasNext()) {
+          if (isUnchanged(statuses.next(), baseSnapshot)) {
+            statuses.remove();
+          }
+        }
+        fullStatus.setBaseSnapshotId(acknowledgedSnapshotId);
+
+        if (log.isDebugEnabled()) {
+          log.debug(String.format("Full status snapshot %d has %d of %d live activities changed from snapshot %d",
+              snapshotId, liveActivityStatuses.size(), numberLiveActivities, acknowledgedSnapshotId));
+        }
+      } else {
+        fullStatus.setBaseSnapshotId(0);
+      }
+
+      snapshots.put(snapshotId, snapshot);
+
+      publish(controllerUuid, ControllerStatus.STATUS_CONTROLLER_FULL_STATUS,
+          controllerFullStatusSerializer.serialize(fullStatus));
+    }
+  }
+
+  /**
+   * Send any held status changes.
+   */
+  private void flush() {
+    synchronized (mutex) {
+      if (flushFuture != null) {
+        flushFuture.cancel(false);
+        flushFuture = null;
+      }
+
+      if (pendingStatuses.isEmpty()) {
+        heartbeatPending = false;
+        return;
+      }
+
+      for (LiveActivityRuntimeStatus status : pendingStatuses) {
+        recordPublished(status);
+      }
+
+      String controllerUuid = pendingControllerUuid;
+      if (pendingStatuses.size() == 1 && !heartbeatPending) {
+        publish(controllerUuid, ControllerStatus.STATUS_CONTROLLER_LIVE_ACTIVITY_RUNTIME_STATUS,
+            liveActivityRuntimeStatusSerializer.serialize(pendingStatuses.get(0)));
+      } else {
+        ControllerFullStatus batch = rosMessageFactory.newFromType(ControllerFullStatus._TYPE);
+        batch.getLiveActivityStatuses().addAll(pendingStatuses);
+        batch.setHeartbeat(heartbeatPending);
+        publish(controllerUuid, ControllerStatus.STATUS_CONTROLLER_LIVE_ACTIVITY_RUNTIME_STATUS_BATCH,
+            controllerFullStatusSerializer.serialize(batch));
+      }
+
+      pendingStatuses.clear();
+      heartbeatPending = false;
+    }
+  }
+
+  /**
+   * Record that a live activity status change was published, so every snapshot kept so far counts it as changed.
+   *
+   * @param status
+   *          the live activity status
+   */
+  private void recordPublished(LiveActivityRuntimeStatus status) {
+    for (StatusSnapshot snapshot : snapshots.values()) {
+      snapshot.publishedSince.add(status.getUuid());
+    }
+  }
+
+  /**
+   * Is a live activity status unchanged since a snapshot?
+   *
+   * @param status
+   *          the live activity status
+   * @param snapshot
+   *          the snapshot
+   *
+   * @return {@code true} if the snapshot has the same status and status detail for the live activity and no status
+   *         change has been published for it since the snapshot was taken
+   */
+  private boolean isUnchanged(LiveActivityRuntimeStatus status, StatusSnapshot snapshot) {
+    if (snapshot.publishedSince.contains(status.getUuid())) {
+      return false;
+    }
+
+    LiveActivityRuntimeStatus snapshotStatus = snapshot.statuses.get(status.getUuid());
+    if (snapshotStatus == null || snapshotStatus.getStatus() != status.getStatus()) {
+      return false;
+    }
+
+    String detail = status.getStatusDetail();
+    String snapshotDetail = snapshotStatus.getStatusDetail();
+
+    return detail == null ? snapshotDetail == null : detail.equals(snapshotDetail);
+  }
+
+  /**
+   * Publish a controller status message.
+   *
+   * @param controllerUuid
+   *          UUID of the controller
+   * @param statusCode
+   *          the status code
+   * @param payload
+   *          the payload, can be {@code null}
+   */
+  private void publish(String controllerUuid, int statusCode, ChannelBuffer payload) {
+    ControllerStatus status = rosMessageFactory.newFromType(ControllerStatus._TYPE);
+    status.setControllerUuid(controllerUuid);
+    status.setStatus(statusCode);
+    if (payload != null) {
+      status.setPayload(payload);
+    }
+
+    controllerStatusPublisher.publish(status);
+  }
+
+  /**
+   * A snapshot of the live activity statuses sent in a full status.
+   *
+   * @author agent
+   */
+  private static class StatusSnapshot {
+
+    /**
+     * The live activity statuses, keyed by live activity UUID.
+     */
+    private final Map<String, LiveActivityRuntimeStatus> statuses = Maps.newHashMap();
+
+    /**
+     * UUIDs of the live activities with a status change published since the snapshot was taken.
+     */
+    private final Set<String> publishedSince = Sets.newHashSet();
+  }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.controller.runtime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import interactivespaces.InteractiveSpacesException;
+import interactivespaces.util.data.chunk.ChunkedContentBundle;
+import interactivespaces.util.data.chunk.ChunkedContentManifest;
+import interactivespaces.util.data.chunk.ContentChunk;
+import interactivespaces.util.data.chunk.ContentChunker;
+import interactivespaces.util.io.FileSupport;
+import interactivespaces.util.io.FileSupportImpl;
+import interactivespaces.util.web.HttpContentCopier;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+import org.apache.commons.logging.Log;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Tests for the {@link IncrementalDataBundleTransfer}.
+ *
+ * <p>
+ * Captured bundles are stored by hand the way the master stores them, with each chunk in a file named by its hash.
+ *
+ * @author agent
+ */
+public class IncrementalDataBundleTransferTest {
+
+  private static final String SECTION = "controller";
+
+  private static final String CHUNK_URI_PREFIX = "chunk:";
+
+  private FileSupport fileSupport = FileSupportImpl.INSTANCE;
+
+  private ExecutorService executorService;
+
+  private HttpContentCopier contentCopier;
+
+  private IncrementalDataBundleTransfer transfer;
+
+  private File baseDirectory;
+
+  private File sourceDirectory;
+
+  private File chunkStoreDirectory;
+
+  @Before
+  public void setup() {
+    executorService = Executors.newFixedThreadPool(2);
+    contentCopier = Mockito.mock(HttpContentCopier.class);
+    transfer = new IncrementalDataBundleTransfer(contentCopier, fileSupport, executorService, Mockito.mock(Log.class));
+
+    baseDirectory = Files.createTempDir();
+    sourceDirectory = new File(baseDirectory, "source");
+    chunkStoreDirectory = new File(baseDirectory, "store");
+    fileSupport.directoryExists(chunkStoreDirectory);
+
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Exception {
+        String uri = (String) invocation.getArguments()[0];
+        File destination = (File) invocation.getArguments()[1];
+        File chunkFile = new File(chunkStoreDirectory, uri.substring(CHUNK_URI_PREFIX.length()));
+        if (!uri.startsWith(CHUNK_URI_PREFIX) || !chunkFile.isFile()) {
+          throw new InteractiveSpacesException("Nothing at " + uri);
+        }
+        Files.copy(chunkFile, destination);
+
+        return null;
+      }
+    }).when(contentCopier).copy(anyString(), any(File.class));
+  }
+
+  @After
+  public void cleanup() {
+    executorService.shutdown();
+    fileSupport.delete(baseDirectory);
+  }
+
+  /**
+   * A captured section is assembled back into the same files and directories.
+   */
+  @Test
+  public void testCaptureAndRestore() throws Exception {
+    writeSourceFiles();
+
+    ChunkedContentManifest manifest = capture(Collections.<String> emptySet());
+    File incomingDirectory = new File(baseDirectory, "incoming");
+    assemble(manifest, new File(baseDirectory, "missing"), incomingDirectory);
+
+    File sectionDirectory = new File(incomingDirectory, SECTION);
+    assertSameFile(new File(sourceDirectory, "a.bin"), new File(sectionDirectory, "a.bin"));
+    assertSameFile(new File(sourceDirectory, "sub/b.bin"), new File(sectionDirectory, "sub/b.bin"));
+    assertSameFile(new File(sourceDirectory, "sub/a-copy.bin"), new File(sectionDirectory, "sub/a-copy.bin"));
+    assertSameFile(new File(sourceDirectory, "c.txt"), new File(sectionDirectory, "c.txt"));
+    assertTrue(new File(sectionDirectory, "empty").isDirectory());
+  }
+
+  /**
+   * Chunks the destination already has, and chunks repeated in the section, are only sent once.
+   */
+  @Test
+  public void testOnlyNewChunksSent() throws Exception {
+    writeSourceFiles();
+
+    ChunkedContentManifest manifest = capture(Collections.<String> emptySet());
+    assertEquals(manifest.getChunkHashes().size(), chunkStoreDirectory.listFiles().length);
+
+    File bundleFile = transfer.createBundle(getSections(), manifest.getChunkHashes(), newWorkDirectory());
+    assertEquals(Lists.newArrayList(ChunkedContentBundle.ENTRY_MANIFEST), getEntryNames(bundleFile));
+  }
+
+  /**
+   * Chunks found in the current content are used instead of being fetched.
+   */
+  @Test
+  public void testRestoreReusesCurrentChunks() throws Exception {
+    writeSourceFiles();
+
+    ChunkedContentManifest manifest = capture(Collections.<String> emptySet());
+    File incomingDirectory = new File(baseDirectory, "incoming");
+    assemble(manifest, sourceDirectory, incomingDirectory);
+
+    verify(contentCopier, never()).copy(anyString(), any(File.class));
+    assertSameFile(new File(sourceDirectory, "sub/b.bin"), new File(incomingDirectory, SECTION + "/sub/b.bin"));
+  }
+
+  /**
+   * A fetched chunk whose contents don't match its hash is rejected.
+   */
+  @Test
+  public void testCorruptChunkRejected() throws Exception {
+    writeSourceFiles();
+
+    ChunkedContentManifest manifest = capture(Collections.<String> emptySet());
+    String hash = manifest.getChunkHashes().iterator().next();
+    byte[] wrongData = randomContent(100, 99);
+    Files.write(ContentChunker.compressChunk(wrongData, wrongData.length), new File(chunkStoreDirectory, hash));
+
+    try {
+      assemble(manifest, new File(baseDirectory, "missing"), new File(baseDirectory, "incoming"));
+      fail("Corrupt chunk was accepted");
+    } catch (InteractiveSpacesException e) {
+      // Expected.
+    }
+  }
+
+  /**
+   * A manifest path which would leave its section is rejected.
+   */
+  @Test
+  public void testEscapingPathRejected() throws Exception {
+    ChunkedContentManifest manifest = new ChunkedContentManifest();
+    manifest.setProperty(ChunkedContentBundle.PROPERTY_CHUNK_URI, CHUNK_URI_PREFIX
+        + ChunkedContentBundle.CHUNK_URI_HASH_PLACEHOLDER);
+    manifest.getOrCreateSection(SECTION).addFile("../escaped", 0, Collections.<ContentChunk> emptyList());
+
+    try {
+      assemble(manifest, new File(baseDirectory, "missing"), new File(baseDirectory, "incoming"));
+      fail("Escaping path was accepted");
+    } catch (InteractiveSpacesException e) {
+      // Expected.
+    }
+    assertFalse(new File(baseDirectory, "escaped").exists());
+  }
+
+  /**
+   * Write the files of the source section.
+   *
+   * @throws IOException
+   *           a file could not be written
+   */
+  private void writeSourceFiles() throws IOException {
+    byte[] a = randomContent(300000, 1);
+    writeFile(new File(sourceDirectory, "a.bin"), a);
+    writeFile(new File(sourceDirectory, "sub/b.bin"), randomContent(200000, 2));
+    writeFile(new File(sourceDirectory, "sub/a-copy.bin"), a);
+    writeFile(new File(sourceDirectory, "c.txt"), "small file".getBytes());
+    fileSupport.directoryExists(new File(sourceDirectory, "empty"));
+  }
+
+  /**
+   * Capture the source section and store its new chunks the way the master does.
+   *
+   * @param knownChunks
+   *          hashes of the chunks which don't need to be sent
+   *
+   * @return the manifest of the captured bundle, with its chunk URI set
+   *
+   * @throws IOException
+   *           the bundle could not be read
+   */
+  private ChunkedContentManifest capture(Set<String> knownChunks) throws IOException {
+    File bundleFile = transfer.createBundle(getSections(), knownChunks, newWorkDirectory());
+
+    ZipFile zipFile = new ZipFile(bundleFile);
+    try {
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        String hash = ChunkedContentBundle.getChunkHash(entry.getName());
+        if (hash != null) {
+          InputStream in = zipFile.getInputStream(entry);
+          try {
+            Files.write(ByteStreams.toByteArray(in), new File(chunkStoreDirectory, hash));
+          } finally {
+            in.close();
+          }
+        }
+      }
+    } finally {
+      zipFile.close();
+    }
+
+    ChunkedContentManifest manifest = ChunkedContentBundle.readManifest(bundleFile);
+    manifest.setProperty(ChunkedContentBundle.PROPERTY_CHUNK_URI, CHUNK_URI_PREFIX
+        + ChunkedContentBundle.CHUNK_URI_HASH_PLACEHOLDER);
+
+    return manifest;
+  }
+
+  /**
+   * Assemble the section of a bundle.
+   *
+   * @param manifest
+   *          the manifest of the bundle
+   * @param currentDirectory
+   *          the current content of the section
+   * @param incomingDirectory
+   *          where the section is assembled
+   */
+  private void assemble(ChunkedContentManifest manifest, File currentDirectory, File incomingDirectory) {
+    Map<String, File> sections = Maps.newLinkedHashMap();
+    sections.put(SECTION, currentDirectory);
+    transfer.assembleSections(manifest, sections, incomingDirectory, newWorkDirectory());
+  }
+
+  /**
+   * Get the sections to capture.
+   *
+   * @return the sections
+   */
+  private Map<String, File> getSections() {
+    Map<String, File> sections = Maps.newLinkedHashMap();
+    sections.put(SECTION, sourceDirectory);
+
+    return sections;
+  }
+
+  /**
+   * Create a new, empty work directory.
+   *
+   * @return the directory
+   */
+  private File newWorkDirectory() {
+    File workDirectory = new File(baseDirectory, "work-" + System.nanoTime());
+    fileSupport.directoryExists(workDirectory);
+
+    return workDirectory;
+  }
+
+  /**
+   * Get the names of all entries in a zip file.
+   *
+   * @param file
+   *          the zip file
+   *
+   * @return the entry names, in order
+   *
+   * @throws IOException
+   *           the file could not be read
+   */
+  private List<String> getEntryNames(File file) throws IOException {
+    List<String> names = Lists.newArrayList();
+    ZipFile zipFile = new ZipFile(file);
+    try {
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        names.add(entries.nextElement().getName());
+      }
+    } finally {
+      zipFile.close();
+    }
+
+    return names;
+  }
+
+  /**
+   * Assert two files have the same contents.
+   *
+   * @param expected
+   *          the expected file
+   * @param actual
+   *          the actual file
+   *
+   * @throws IOException
+   *           a file could not be read
+   */
+  private void assertSameFile(File expected, File actual) throws IOException {
+    assertArrayEquals(Files.toByteArray(expected), Files.toByteArray(actual));
+  }
+
+  /**
+   * Write a file, creating its parent directories.
+   *
+   * @param file
+   *          the file
+   * @param content
+   *          the file contents
+   *
+   * @throws IOException
+   *           the file could not be written
+   */
+  private void writeFile(File file, byte[] content) throws IOException {
+    fileSupport.directoryExists(file.getParentFile());
+    Files.write(content, file);
+  }
+
+  /**
+   * Create random content.
+   *
+   * @param length
+   *          the number of bytes
+   * @param seed
+   *          the random seed
+   *
+   * @return the content
+   */
+  private byte[] randomContent(int length, long seed) {
+    byte[] content = new byte[length];
+    new Random(seed).nextBytes(content);
+
+    return content;
+  }
+}
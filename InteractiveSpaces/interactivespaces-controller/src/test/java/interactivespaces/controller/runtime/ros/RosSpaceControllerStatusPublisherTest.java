@@ -0,0 +1,401 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.controller.runtime.ros;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.Lists;
+
+import interactivespaces_msgs.ControllerFullStatus;
+import interactivespaces_msgs.ControllerStatus;
+import interactivespaces_msgs.LiveActivityRuntimeStatus;
+import org.apache.commons.logging.Log;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.ros.message.MessageFactory;
+import org.ros.message.MessageSerializer;
+import org.ros.node.topic.Publisher;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the {@link RosSpaceControllerStatusPublisher}.
+ *
+ * <p>
+ * The executor service is a mock, so held status changes are only sent when a test runs the scheduled flush by hand.
+ *
+ * @author agent
+ */
+public class RosSpaceControllerStatusPublisherTest {
+
+  private static final String CONTROLLER_UUID = "controller";
+
+  private static final long BATCH_WINDOW = 50;
+
+  private Publisher<ControllerStatus> controllerStatusPublisher;
+
+  private MessageFactory rosMessageFactory;
+
+  private MessageSerializer<ControllerFullStatus> controllerFullStatusSerializer;
+
+  private MessageSerializer<LiveActivityRuntimeStatus> liveActivityRuntimeStatusSerializer;
+
+  private ScheduledExecutorService executorService;
+
+  private ScheduledFuture<?> flushFuture;
+
+  private RosSpaceControllerStatusPublisher statusPublisher;
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setup() {
+    controllerStatusPublisher = Mockito.mock(Publisher.class);
+    rosMessageFactory = Mockito.mock(MessageFactory.class);
+    controllerFullStatusSerializer = Mockito.mock(MessageSerializer.class);
+    liveActivityRuntimeStatusSerializer = Mockito.mock(MessageSerializer.class);
+    executorService = Mockito.mock(ScheduledExecutorService.class);
+
+    when(rosMessageFactory.newFromType(ControllerStatus._TYPE)).thenAnswer(new Answer<ControllerStatus>() {
+      @Override
+      public ControllerStatus answer(InvocationOnMock invocation) {
+        return Mockito.mock(ControllerStatus.class);
+      }
+    });
+
+    flushFuture = Mockito.mock(ScheduledFuture.class);
+    doReturn(flushFuture).when(executorService).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+
+    statusPublisher =
+        new RosSpaceControllerStatusPublisher(controllerStatusPublisher, rosMessageFactory,
+            controllerFullStatusSerializer, liveActivityRuntimeStatusSerializer, executorService, BATCH_WINDOW,
+            Mockito.mock(Log.class));
+  }
+
+  /**
+   * A single held change goes out as a plain runtime status once the window closes.
+   */
+  @Test
+  public void testSingleHeldChange() {
+    LiveActivityRuntimeStatus status =
+        newLiveActivityStatus("a", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_RUNNING, null);
+    ChannelBuffer payload = serializesTo(liveActivityRuntimeStatusSerializer, status);
+
+    statusPublisher.publishLiveActivityStatus(CONTROLLER_UUID, status);
+    assertEquals(0, getPublished().size());
+
+    runFlush();
+
+    List<ControllerStatus> published = getPublished();
+    assertEquals(1, published.size());
+    assertStatus(published.get(0), ControllerStatus.STATUS_CONTROLLER_LIVE_ACTIVITY_RUNTIME_STATUS, payload);
+  }
+
+  /**
+   * Held changes go out as one batch, in order, before another controller status.
+   */
+  @Test
+  public void testWindowFlushedBeforeOtherStatus() {
+    LiveActivityRuntimeStatus status1 =
+        newLiveActivityStatus("a", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_STARTUP_ATTEMPT, null);
+    LiveActivityRuntimeStatus status2 =
+        newLiveActivityStatus("b", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_RUNNING, null);
+    LiveActivityRuntimeStatus status3 =
+        newLiveActivityStatus("a", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_RUNNING, null);
+    ControllerFullStatus batch = newBatch();
+    ChannelBuffer payload = serializesTo(controllerFullStatusSerializer, batch);
+
+    statusPublisher.publishLiveActivityStatus(CONTROLLER_UUID, status1);
+    statusPublisher.publishLiveActivityStatus(CONTROLLER_UUID, status2);
+    statusPublisher.publishLiveActivityStatus(CONTROLLER_UUID, status3);
+
+    ControllerStatus otherStatus = Mockito.mock(ControllerStatus.class);
+    statusPublisher.publishStatus(otherStatus);
+
+    List<ControllerStatus> published = getPublished();
+    assertEquals(2, published.size());
+    assertStatus(published.get(0), ControllerStatus.STATUS_CONTROLLER_LIVE_ACTIVITY_RUNTIME_STATUS_BATCH, payload);
+    assertSame(otherStatus, published.get(1));
+
+    assertEquals(Lists.newArrayList(status1, status2, status3), batch.getLiveActivityStatuses());
+    verify(batch).setHeartbeat(false);
+    verify(flushFuture).cancel(false);
+  }
+
+  /**
+   * A heartbeat which comes due while a change is held is sent with it.
+   */
+  @Test
+  public void testHeartbeatWithHeldChange() {
+    LiveActivityRuntimeStatus status =
+        newLiveActivityStatus("a", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_RUNNING, null);
+    ControllerFullStatus batch = newBatch();
+    ChannelBuffer payload = serializesTo(controllerFullStatusSerializer, batch);
+
+    statusPublisher.publishLiveActivityStatus(CONTROLLER_UUID, status);
+    statusPublisher.publishHeartbeat(CONTROLLER_UUID);
+    assertEquals(0, getPublished().size());
+
+    runFlush();
+
+    List<ControllerStatus> published = getPublished();
+    assertEquals(1, published.size());
+    assertStatus(published.get(0), ControllerStatus.STATUS_CONTROLLER_LIVE_ACTIVITY_RUNTIME_STATUS_BATCH, payload);
+    assertEquals(Lists.newArrayList(status), batch.getLiveActivityStatuses());
+    verify(batch).setHeartbeat(true);
+  }
+
+  /**
+   * A full status against a known snapshot only carries the live activities which changed.
+   */
+  @Test
+  public void testDeltaAgainstKnownSnapshot() {
+    ControllerFullStatus first =
+        newFullStatus(newLiveActivityStatus("a", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_READY, null),
+            newLiveActivityStatus("b", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_RUNNING, null),
+            newLiveActivityStatus("c", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_CRASH, "first"));
+    statusPublisher.publishFullStatus(CONTROLLER_UUID, first, 0);
+    long firstSnapshotId = getSnapshotId(first);
+    verify(first).setBaseSnapshotId(0);
+    assertEquals(3, first.getLiveActivityStatuses().size());
+
+    LiveActivityRuntimeStatus changedStatus =
+        newLiveActivityStatus("b", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_ACTIVE, null);
+    LiveActivityRuntimeStatus changedDetail =
+        newLiveActivityStatus("c", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_CRASH, "second");
+    LiveActivityRuntimeStatus added =
+        newLiveActivityStatus("d", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_READY, null);
+    ControllerFullStatus second =
+        newFullStatus(newLiveActivityStatus("a", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_READY, null),
+            changedStatus, changedDetail, added);
+    ChannelBuffer payload = serializesTo(controllerFullStatusSerializer, second);
+    statusPublisher.publishFullStatus(CONTROLLER_UUID, second, firstSnapshotId);
+
+    verify(second).setBaseSnapshotId(firstSnapshotId);
+    assertEquals(Lists.newArrayList(changedStatus, changedDetail, added), second.getLiveActivityStatuses());
+
+    List<ControllerStatus> published = getPublished();
+    assertEquals(2, published.size());
+    assertStatus(published.get(1), ControllerStatus.STATUS_CONTROLLER_FULL_STATUS, payload);
+  }
+
+  /**
+   * A live activity whose status changed and changed back since the snapshot is still sent, in case the master missed
+   * one of the changes.
+   */
+  @Test
+  public void testDeltaIncludesPublishedSinceSnapshot() {
+    statusPublisher.publishLiveActivityStatus(CONTROLLER_UUID,
+        newLiveActivityStatus("b", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_CRASH, null));
+    runFlush();
+
+    ControllerFullStatus first =
+        newFullStatus(newLiveActivityStatus("a", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_RUNNING, null),
+            newLiveActivityStatus("b", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_READY, null));
+    statusPublisher.publishFullStatus(CONTROLLER_UUID, first, 0);
+    long firstSnapshotId = getSnapshotId(first);
+
+    statusPublisher.publishLiveActivityStatus(CONTROLLER_UUID,
+        newLiveActivityStatus("a", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_CRASH, null));
+    statusPublisher.publishLiveActivityStatus(CONTROLLER_UUID,
+        newLiveActivityStatus("a", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_RUNNING, null));
+    newBatch();
+    statusPublisher.publishStatus(Mockito.mock(ControllerStatus.class));
+
+    LiveActivityRuntimeStatus reverted =
+        newLiveActivityStatus("a", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_RUNNING, null);
+    ControllerFullStatus second =
+        newFullStatus(reverted,
+            newLiveActivityStatus("b", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_READY, null));
+    statusPublisher.publishFullStatus(CONTROLLER_UUID, second, firstSnapshotId);
+
+    verify(second).setBaseSnapshotId(firstSnapshotId);
+    assertEquals(Lists.newArrayList(reverted), second.getLiveActivityStatuses());
+  }
+
+  /**
+   * A full status against a snapshot the controller never took is complete.
+   */
+  @Test
+  public void testUnknownSnapshot() {
+    statusPublisher.publishFullStatus(CONTROLLER_UUID,
+        newFullStatus(newLiveActivityStatus("a", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_READY, null)), 0);
+
+    ControllerFullStatus fullStatus =
+        newFullStatus(newLiveActivityStatus("a", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_READY, null));
+    statusPublisher.publishFullStatus(CONTROLLER_UUID, fullStatus, 12345);
+
+    verify(fullStatus).setBaseSnapshotId(0);
+    assertEquals(1, fullStatus.getLiveActivityStatuses().size());
+  }
+
+  /**
+   * A full status against a snapshot which is no longer kept is complete.
+   */
+  @Test
+  public void testExpiredSnapshot() {
+    ControllerFullStatus first =
+        newFullStatus(newLiveActivityStatus("a", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_READY, null));
+    statusPublisher.publishFullStatus(CONTROLLER_UUID, first, 0);
+    long firstSnapshotId = getSnapshotId(first);
+
+    for (int i = 0; i < RosSpaceControllerStatusPublisher.NUMBER_SNAPSHOTS_KEPT; i++) {
+      statusPublisher.publishFullStatus(CONTROLLER_UUID,
+          newFullStatus(newLiveActivityStatus("a", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_READY, null)), 0);
+    }
+
+    ControllerFullStatus fullStatus =
+        newFullStatus(newLiveActivityStatus("a", LiveActivityRuntimeStatus.STATUS_LIVE_ACTIVITY_READY, null));
+    statusPublisher.publishFullStatus(CONTROLLER_UUID, fullStatus, firstSnapshotId);
+
+    verify(fullStatus).setBaseSnapshotId(0);
+    assertEquals(1, fullStatus.getLiveActivityStatuses().size());
+  }
+
+  /**
+   * Run the flush the publisher scheduled.
+   */
+  private void runFlush() {
+    ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+    verify(executorService).schedule(flush.capture(), eq(BATCH_WINDOW), eq(TimeUnit.MILLISECONDS));
+
+    flush.getValue().run();
+  }
+
+  /**
+   * Get all controller status messages published so far.
+   *
+   * @return the messages, in the order they were published
+   */
+  private List<ControllerStatus> getPublished() {
+    ArgumentCaptor<ControllerStatus> published = ArgumentCaptor.forClass(ControllerStatus.class);
+    verify(controllerStatusPublisher, Mockito.atLeast(0)).publish(published.capture());
+
+    return published.getAllValues();
+  }
+
+  /**
+   * Assert a controller status message was made with the given status and payload.
+   *
+   * @param status
+   *          the status message
+   * @param statusCode
+   *          the expected status code
+   * @param payload
+   *          the expected payload
+   */
+  private void assertStatus(ControllerStatus status, int statusCode, ChannelBuffer payload) {
+    verify(status).setControllerUuid(CONTROLLER_UUID);
+    verify(status).setStatus(statusCode);
+    verify(status).setPayload(payload);
+  }
+
+  /**
+   * Get the snapshot ID given to a full status.
+   *
+   * @param fullStatus
+   *          the full status
+   *
+   * @return the snapshot ID
+   */
+  private long getSnapshotId(ControllerFullStatus fullStatus) {
+    ArgumentCaptor<Long> snapshotId = ArgumentCaptor.forClass(Long.class);
+    verify(fullStatus).setSnapshotId(snapshotId.capture());
+
+    return snapshotId.getValue();
+  }
+
+  /**
+   * Make a serializer give a payload of its own for a message.
+   *
+   * @param serializer
+   *          the serializer
+   * @param message
+   *          the message
+   *
+   * @return the payload
+   */
+  private <T> ChannelBuffer serializesTo(MessageSerializer<T> serializer, T message) {
+    ChannelBuffer payload = ChannelBuffers.buffer(1);
+    when(serializer.serialize(message)).thenReturn(payload);
+
+    return payload;
+  }
+
+  /**
+   * Create the batch the message factory gives next.
+   *
+   * @return the batch
+   */
+  private ControllerFullStatus newBatch() {
+    ControllerFullStatus batch = newFullStatus();
+    when(rosMessageFactory.newFromType(ControllerFullStatus._TYPE)).thenReturn(batch);
+
+    return batch;
+  }
+
+  /**
+   * Create a full status.
+   *
+   * @param liveActivityStatuses
+   *          the live activity statuses in the full status
+   *
+   * @return the full status
+   */
+  private ControllerFullStatus newFullStatus(LiveActivityRuntimeStatus... liveActivityStatuses) {
+    ControllerFullStatus fullStatus = Mockito.mock(ControllerFullStatus.class);
+    when(fullStatus.getLiveActivityStatuses()).thenReturn(Lists.newArrayList(liveActivityStatuses));
+
+    return fullStatus;
+  }
+
+  /**
+   * Create a live activity status.
+   *
+   * @param uuid
+   *          UUID of the live activity
+   * @param status
+   *          the status
+   * @param statusDetail
+   *          the status detail, can be {@code null}
+   *
+   * @return the live activity status
+   */
+  private LiveActivityRuntimeStatus newLiveActivityStatus(String uuid, int status, String statusDetail) {
+    LiveActivityRuntimeStatus liveActivityStatus = Mockito.mock(LiveActivityRuntimeStatus.class);
+    when(liveActivityStatus.getUuid()).thenReturn(uuid);
+    when(liveActivityStatus.getStatus()).thenReturn(status);
+    when(liveActivityStatus.getStatusDetail()).thenReturn(statusDetail);
+
+    return liveActivityStatus;
+  }
+}
@@ -92,6 +92,9 @@ public class BasicNativeWebBrowserRunner implements NativeWebBrowserRunner {
       appConfig.put(NativeApplicationRunner.EXECUTABLE_ENVIRONMENT, commandEnvironment);
     }
 
+    // The browser runs until it is shut down, so notice a crash right away.
+    appConfig.put(NativeApplicationRunner.EXECUTABLE_WATCH_EXIT, true);
+
     browserRunner.configure(appConfig);
     browserRunner.setRestartStrategy(getDefaultRestartStrategy());
 
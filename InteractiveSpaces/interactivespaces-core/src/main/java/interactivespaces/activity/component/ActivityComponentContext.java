@@ -19,7 +19,6 @@ package interactivespaces.activity.component;
 import interactivespaces.InteractiveSpacesException;
 import interactivespaces.SimpleInteractiveSpacesException;
 import interactivespaces.activity.SupportedActivity;
-import interactivespaces.util.InteractiveSpacesUtilities;
 import interactivespaces.util.graph.DependencyResolver;
 
 import com.google.common.collect.Lists;
@@ -32,6 +31,10 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A context for {@link ActivityComponent} instances to run in.
@@ -70,6 +73,41 @@ public class ActivityComponentContext {
    */
   private final AtomicInteger numberProcessingHandlers = new AtomicInteger();
 
+  /**
+   * Number of threads waiting for the processing handlers to drain.
+   */
+  private final AtomicInteger numberQuiescenceWaiters = new AtomicInteger();
+
+  /**
+   * Lock for waiting on the processing handlers to drain.
+   */
+  private final Lock quiescenceLock = new ReentrantLock();
+
+  /**
+   * Signalled when the last processing handler exits.
+   */
+  private final Condition quiescent = quiescenceLock.newCondition();
+
+  /**
+   * The start times of the handlers the current thread is in, innermost last.
+   */
+  private final ThreadLocal<HandlerStartTimes> handlerStartTimes = new ThreadLocal<HandlerStartTimes>() {
+    @Override
+    protected HandlerStartTimes initialValue() {
+      return new HandlerStartTimes();
+    }
+  };
+
+  /**
+   * The total number of handler invocations which have completed.
+   */
+  private final AtomicLong numberHandlerInvocations = new AtomicLong();
+
+  /**
+   * The longest a handler has taken, in nanoseconds.
+   */
+  private final AtomicLong maxHandlerDuration = new AtomicLong();
+
   /**
    * All components in the activity.
    */
@@ -152,16 +190,52 @@ public class ActivityComponentContext {
    */
   public void enterHandler() {
     numberProcessingHandlers.incrementAndGet();
+    handlerStartTimes.get().push(System.nanoTime());
   }
 
   /**
    * A handler has been exited.
+   *
+   * <p>
+   * Must be called on the same thread which entered the handler.
    */
   public void exitHandler() {
-    if (numberProcessingHandlers.decrementAndGet() < 0) {
+    HandlerStartTimes startTimes = handlerStartTimes.get();
+    if (!startTimes.isEmpty()) {
+      recordHandlerDuration(System.nanoTime() - startTimes.pop());
+    }
+
+    int remaining = numberProcessingHandlers.decrementAndGet();
+    if (remaining == 0) {
+      // Only pay for the lock if someone is waiting. A waiter registers
+      // before checking the count, so either it sees the count at 0 or
+      // it is seen here.
+      if (numberQuiescenceWaiters.get() > 0) {
+        quiescenceLock.lock();
+        try {
+          quiescent.signalAll();
+        } finally {
+          quiescenceLock.unlock();
+        }
+      }
+    } else if (remaining < 0) {
       getActivity().getLog().error("There are more handler exits than enters");
     }
+  }
 
+  /**
+   * Record how long a handler took.
+   *
+   * @param duration
+   *          the duration of the handler, in nanoseconds
+   */
+  private void recordHandlerDuration(long duration) {
+    numberHandlerInvocations.incrementAndGet();
+
+    long max = maxHandlerDuration.get();
+    while (duration > max && !maxHandlerDuration.compareAndSet(max, duration)) {
+      max = maxHandlerDuration.get();
+    }
   }
 
   /**
@@ -173,25 +247,96 @@ public class ActivityComponentContext {
     return numberProcessingHandlers.get() > 0;
   }
 
+  /**
+   * Get the number of handlers which are currently processing.
+   *
+   * @return the number of processing handlers
+   */
+  public int getNumberProcessingHandlers() {
+    return Math.max(numberProcessingHandlers.get(), 0);
+  }
+
+  /**
+   * Get the number of handler invocations which have completed.
+   *
+   * @return the number of completed handler invocations
+   */
+  public long getNumberHandlerInvocations() {
+    return numberHandlerInvocations.get();
+  }
+
+  /**
+   * Get the longest time any handler has taken.
+   *
+   * @param unit
+   *          the time unit for the result
+   *
+   * @return the maximum handler duration
+   */
+  public long getMaxHandlerDuration(TimeUnit unit) {
+    return unit.convert(maxHandlerDuration.get(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Reset the handler invocation count and maximum handler duration.
+   */
+  public void resetHandlerStatistics() {
+    numberHandlerInvocations.set(0);
+    maxHandlerDuration.set(0);
+  }
+
   /**
    * Block until there are no longer handlers which are processing.
    *
-   * @param sampleTime
-   *          how often sampling should take place for whether there are processing handler, in milliseconds
-   * @param maxSamplingTime
-   *          how long should sampling take place before punting, in msecs
+   * <p>
+   * Returns as soon as the last processing handler exits.
+   *
+   * @param timeout
+   *          the maximum time to wait
+   * @param unit
+   *          the time unit for the timeout
    *
    * @return {@code true} if there are no more processing handlers
    */
-  public boolean waitOnNoProcessingHandlings(long sampleTime, long maxSamplingTime) {
-    long start = System.currentTimeMillis();
-    while (areProcessingHandlers() && (System.currentTimeMillis() - start) < maxSamplingTime) {
-      InteractiveSpacesUtilities.delay(sampleTime);
+  public boolean awaitNoProcessingHandlers(long timeout, TimeUnit unit) {
+    if (!areProcessingHandlers()) {
+      return true;
+    }
+
+    numberQuiescenceWaiters.incrementAndGet();
+    quiescenceLock.lock();
+    try {
+      long remaining = unit.toNanos(timeout);
+      while (areProcessingHandlers() && remaining > 0) {
+        remaining = quiescent.awaitNanos(remaining);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      quiescenceLock.unlock();
+      numberQuiescenceWaiters.decrementAndGet();
     }
 
     return !areProcessingHandlers();
   }
 
+  /**
+   * Block until there are no longer handlers which are processing.
+   *
+   * @param sampleTime
+   *          no longer used, the wait ends as soon as the last handler exits
+   * @param maxSamplingTime
+   *          how long to wait before punting, in msecs
+   *
+   * @return {@code true} if there are no more processing handlers
+   *
+   * @deprecated Use {@link #awaitNoProcessingHandlers(long, TimeUnit)}.
+   */
+  @Deprecated
+  public boolean waitOnNoProcessingHandlings(long sampleTime, long maxSamplingTime) {
+    return awaitNoProcessingHandlers(maxSamplingTime, TimeUnit.MILLISECONDS);
+  }
+
   /**
    * Wait for the context to complete startup, whether successfully or unsuccessfully.
    *
@@ -544,4 +689,55 @@ public class ActivityComponentContext {
   private void handleComponentError(ActivityComponent component, String message, Throwable t) {
     activity.getLog().error(String.format("%s (%s)", message, component.getName()), t);
   }
+
+  /**
+   * A stack of handler start times for a single thread.
+   *
+   * @author Keith M. Hughes
+   */
+  private static class HandlerStartTimes {
+
+    /**
+     * The start times, in nanoseconds.
+     */
+    private long[] startTimes = new long[4];
+
+    /**
+     * The number of start times on the stack.
+     */
+    private int depth;
+
+    /**
+     * Push a new start time.
+     *
+     * @param startTime
+     *          the start time, in nanoseconds
+     */
+    public void push(long startTime) {
+      if (depth == startTimes.length) {
+        long[] newStartTimes = new long[depth * 2];
+        System.arraycopy(startTimes, 0, newStartTimes, 0, depth);
+        startTimes = newStartTimes;
+      }
+      startTimes[depth++] = startTime;
+    }
+
+    /**
+     * Pop the most recent start time.
+     *
+     * @return the start time, in nanoseconds
+     */
+    public long pop() {
+      return startTimes[--depth];
+    }
+
+    /**
+     * Is the stack empty?
+     *
+     * @return {@code true} if there are no start times
+     */
+    public boolean isEmpty() {
+      return depth == 0;
+    }
+  }
 }
@@ -21,6 +21,8 @@ import interactivespaces.activity.component.binary.NativeActivityComponent;
 import interactivespaces.activity.component.ros.BasicRosActivityComponent;
 import interactivespaces.activity.component.ros.RosActivityComponent;
 import interactivespaces.activity.component.route.ros.RosMessageRouterActivityComponent;
+import interactivespaces.activity.component.timeseries.BasicTimeSeriesActivityComponent;
+import interactivespaces.activity.component.timeseries.TimeSeriesActivityComponent;
 import interactivespaces.activity.component.web.WebBrowserActivityComponent;
 import interactivespaces.activity.component.web.WebServerActivityComponent;
 import interactivespaces.activity.component.web.BasicWebBrowserActivityComponent;
@@ -44,5 +46,6 @@ public class CoreExistingActivityComponentFactory extends SimpleActivityComponen
         RosMessageRouterActivityComponent.class);
     register(WebBrowserActivityComponent.COMPONENT_NAME, BasicWebBrowserActivityComponent.class);
     register(WebServerActivityComponent.COMPONENT_NAME, BasicWebServerActivityComponent.class);
+    register(TimeSeriesActivityComponent.COMPONENT_NAME, BasicTimeSeriesActivityComponent.class);
   }
 }
@@ -163,6 +163,9 @@ public class BasicNativeActivityComponent extends BaseActivityComponent implemen
     String commandEnvironment = configuration.getPropertyString(executableEnvironmentProperty + "." + os);
     appConfig.put(NativeActivityRunner.EXECUTABLE_ENVIRONMENT, commandEnvironment);
 
+    appConfig.put(NativeActivityRunner.EXECUTABLE_WATCH_EXIT, configuration.getPropertyBoolean(
+        CONFIGURATION_ACTIVITY_EXECUTABLE_WATCH_EXIT, CONFIGURATION_DEFAULT_ACTIVITY_EXECUTABLE_WATCH_EXIT));
+
     nativeActivity = activity.getActivityRuntime().getNativeActivityRunnerFactory().newPlatformNativeActivityRunner(activity.getLog());
     nativeActivity.configure(appConfig);
 
@@ -67,6 +67,17 @@ public interface NativeActivityComponent extends ActivityComponent {
    */
   String CONFIGURATION_ACTIVITY_EXECUTABLE_ENVIRONMENT = "space.activity.component.native.executable.environment";
 
+  /**
+   * Configuration property giving whether the runner should wait on the native application to exit, so that exits are
+   * noticed and restarts begin right away, rather than sampling the application periodically.
+   */
+  String CONFIGURATION_ACTIVITY_EXECUTABLE_WATCH_EXIT = "space.activity.component.native.executable.watch.exit";
+
+  /**
+   * Default value for {@link #CONFIGURATION_ACTIVITY_EXECUTABLE_WATCH_EXIT}.
+   */
+  boolean CONFIGURATION_DEFAULT_ACTIVITY_EXECUTABLE_WATCH_EXIT = false;
+
   /**
    * Get the native activity runner for the component.
    *
@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.activity.component.route;
+
+import interactivespaces.util.statistics.LatencyHistogram;
+import interactivespaces.util.statistics.LatencyHistogram.LatencySummary;
+import interactivespaces.util.statistics.RateMeter;
+import interactivespaces.util.statistics.StatisticsUtils;
+
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and latency statistics for a single channel of a
+ * {@link MessageRouterActivityComponent}.
+ *
+ * <p>
+ * All methods are safe to call from multiple threads. Recording a message costs
+ * a handful of atomic operations, so the statistics are always on.
+ *
+ * @author agent
+ */
+public class MessageRouteStatistics {
+
+  /**
+   * The number of bytes handled, as estimated by the router.
+   */
+  private final AtomicLong numberBytes = new AtomicLong();
+
+  /**
+   * The number of messages whose handling failed.
+   */
+  private final AtomicLong numberErrors = new AtomicLong();
+
+  /**
+   * The number of messages currently being handled.
+   */
+  private final AtomicInteger numberInFlight = new AtomicInteger();
+
+  /**
+   * The largest number of messages handled at the same time.
+   */
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  /**
+   * The time taken to handle each message, in nanoseconds. Its count is the
+   * number of messages handled.
+   */
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  /**
+   * The recent rate messages are handled at.
+   */
+  private final RateMeter messageRate = new RateMeter();
+
+  /**
+   * The recent rate bytes are handled at.
+   */
+  private final RateMeter byteRate = new RateMeter();
+
+  /**
+   * Construct a new statistics object.
+   */
+  public MessageRouteStatistics() {
+    reset();
+  }
+
+  /**
+   * Handling of a message is starting.
+   *
+   * <p>
+   * Must be followed by a call to {@link #endMessage(long, int, boolean)}.
+   *
+   * @return the start time to hand to {@link #endMessage(long, int, boolean)}
+   */
+  public long startMessage() {
+    StatisticsUtils.updateMaximum(maxInFlight, numberInFlight.incrementAndGet());
+
+    return System.nanoTime();
+  }
+
+  /**
+   * Handling of a message has ended.
+   *
+   * @param startTime
+   *          the value returned by {@link #startMessage()}
+   * @param size
+   *          the size of the message in bytes, {@code 0} if not known
+   * @param success
+   *          {@code true} if the message was handled without error
+   */
+  public void endMessage(long startTime, int size, boolean success) {
+    latency.record(System.nanoTime() - startTime);
+    numberInFlight.decrementAndGet();
+
+    numberBytes.addAndGet(size);
+    messageRate.mark(1);
+    byteRate.mark(size);
+    if (!success) {
+      numberErrors.incrementAndGet();
+    }
+  }
+
+  /**
+   * Reset all statistics.
+   *
+   * <p>
+   * The number of messages currently being handled is not reset.
+   */
+  public void reset() {
+    numberBytes.set(0);
+    numberErrors.set(0);
+    maxInFlight.set(numberInFlight.get());
+    latency.reset();
+    messageRate.reset();
+    byteRate.reset();
+  }
+
+  /**
+   * Get the number of messages handled since the last reset.
+   *
+   * @return the number of messages
+   */
+  public long getNumberMessages() {
+    return latency.getTotalCount();
+  }
+
+  /**
+   * Get the number of bytes handled since the last reset.
+   *
+   * @return the number of bytes
+   */
+  public long getNumberBytes() {
+    return numberBytes.get();
+  }
+
+  /**
+   * Get the number of messages whose handling failed since the last reset.
+   *
+   * @return the number of errors
+   */
+  public long getNumberErrors() {
+    return numberErrors.get();
+  }
+
+  /**
+   * Get the number of messages which are being handled right now.
+   *
+   * @return the number of messages in flight
+   */
+  public int getNumberInFlight() {
+    return numberInFlight.get();
+  }
+
+  /**
+   * Get the largest number of messages handled at the same time since the last
+   * reset.
+   *
+   * @return the maximum number of messages in flight
+   */
+  public int getMaxInFlight() {
+    return maxInFlight.get();
+  }
+
+  /**
+   * Get the rate messages have been handled at over the last few seconds.
+   *
+   * @return the number of messages per second
+   */
+  public double getMessagesPerSecond() {
+    return messageRate.getRate();
+  }
+
+  /**
+   * Get the rate bytes have been handled at over the last few seconds.
+   *
+   * @return the number of bytes per second
+   */
+  public double getBytesPerSecond() {
+    return byteRate.getRate();
+  }
+
+  /**
+   * Get a summary of the time taken to handle messages.
+   *
+   * @param unit
+   *          the units for the latencies
+   *
+   * @return the summary
+   */
+  public LatencySummary getLatency(TimeUnit unit) {
+    return latency.getSummary(TimeUnit.NANOSECONDS, unit);
+  }
+
+  /**
+   * Get the statistics as a map suitable for turning into JSON.
+   *
+   * <p>
+   * Latencies are in microseconds.
+   *
+   * @return the statistics
+   */
+  public Map<String, Object> toMap() {
+    LatencySummary summary = getLatency(TimeUnit.MICROSECONDS);
+
+    Map<String, Object> latencyData = Maps.newLinkedHashMap();
+    latencyData.put("mean", summary.getMean());
+    latencyData.put("p50", summary.getP50());
+    latencyData.put("p90", summary.getP90());
+    latencyData.put("p99", summary.getP99());
+    latencyData.put("p999", summary.getP999());
+    latencyData.put("max", summary.getMax());
+
+    Map<String, Object> data = Maps.newLinkedHashMap();
+    data.put("messages", getNumberMessages());
+    data.put("bytes", getNumberBytes());
+    data.put("errors", getNumberErrors());
+    data.put("messagesPerSecond", getMessagesPerSecond());
+    data.put("bytesPerSecond", getBytesPerSecond());
+    data.put("inFlight", getNumberInFlight());
+    data.put("maxInFlight", getMaxInFlight());
+    data.put("latencyMicros", latencyData);
+
+    return data;
+  }
+
+  @Override
+  public String toString() {
+    LatencySummary summary = getLatency(TimeUnit.MICROSECONDS);
+
+    return String.format("messages=%d, errors=%d, messagesPerSecond=%.2f, bytesPerSecond=%.2f, inFlight=%d, "
+        + "maxInFlight=%d, latencyMicros[p50=%.1f, p99=%.1f, max=%.1f]", getNumberMessages(), getNumberErrors(),
+        getMessagesPerSecond(), getBytesPerSecond(), getNumberInFlight(), getMaxInFlight(), summary.getP50(),
+        summary.getP99(), summary.getMax());
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.activity.component.route;
+
+import interactivespaces.InteractiveSpacesException;
+import interactivespaces.service.web.server.HttpDynamicRequestHandler;
+import interactivespaces.service.web.server.HttpRequest;
+import interactivespaces.service.web.server.HttpResponse;
+import interactivespaces.util.data.json.JsonMapper;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * An HTTP handler which returns the statistics of the channels of a message
+ * router as JSON.
+ *
+ * <p>
+ * Requests never change the statistics. Rates are over the last few seconds,
+ * and clients wanting counts over a period should difference two reads.
+ *
+ * @author agent
+ */
+public class MessageRouteStatisticsHttpDynamicRequestHandler implements HttpDynamicRequestHandler {
+
+  /**
+   * The content type of responses.
+   */
+  public static final String CONTENT_TYPE_JSON = "application/json";
+
+  /**
+   * The statistics of the input channels, keyed by channel name.
+   */
+  private final Map<String, MessageRouteStatistics> inputStatistics;
+
+  /**
+   * The statistics of the output channels, keyed by channel name.
+   */
+  private final Map<String, MessageRouteStatistics> outputStatistics;
+
+  /**
+   * Construct a new handler.
+   *
+   * @param inputStatistics
+   *          the live statistics of the input channels, keyed by channel name
+   * @param outputStatistics
+   *          the live statistics of the output channels, keyed by channel name
+   */
+  public MessageRouteStatisticsHttpDynamicRequestHandler(Map<String, MessageRouteStatistics> inputStatistics,
+      Map<String, MessageRouteStatistics> outputStatistics) {
+    this.inputStatistics = inputStatistics;
+    this.outputStatistics = outputStatistics;
+  }
+
+  @Override
+  public void handle(HttpRequest request, HttpResponse response) {
+    Map<String, Object> result = Maps.newLinkedHashMap();
+    result.put("inputs", toData(inputStatistics));
+    result.put("outputs", toData(outputStatistics));
+
+    response.setContentType(CONTENT_TYPE_JSON);
+    try {
+      response.getOutputStream().write(JsonMapper.INSTANCE.toString(result).getBytes(Charsets.UTF_8));
+    } catch (IOException e) {
+      throw new InteractiveSpacesException(String.format("Could not write route statistics for %s",
+          request.getUri()), e);
+    }
+  }
+
+  /**
+   * Get the JSON data for a collection of channel statistics.
+   *
+   * @param statistics
+   *          the statistics, keyed by channel name
+   *
+   * @return the JSON object for the statistics
+   */
+  private Map<String, Object> toData(Map<String, MessageRouteStatistics> statistics) {
+    Map<String, Object> data = Maps.newTreeMap();
+    for (Map.Entry<String, MessageRouteStatistics> entry : statistics.entrySet()) {
+      data.put(entry.getKey(), entry.getValue().toMap());
+    }
+
+    return data;
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.activity.component.route;
+
+/**
+ * Estimates the size of messages passing through a message router so the
+ * router can report byte throughput.
+ *
+ * @param <T>
+ *          the type of messages
+ *
+ * @author agent
+ */
+public interface MessageSizeEstimator<T> {
+
+  /**
+   * Estimate the size of a message.
+   *
+   * @param message
+   *          the message
+   *
+   * @return the estimated size of the message in bytes
+   */
+  int estimateSize(T message);
+}
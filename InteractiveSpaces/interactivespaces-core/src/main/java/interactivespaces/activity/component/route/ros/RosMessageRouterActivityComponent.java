@@ -21,9 +21,13 @@ import interactivespaces.SimpleInteractiveSpacesException;
 import interactivespaces.activity.component.ActivityComponent;
 import interactivespaces.activity.component.BaseActivityComponent;
 import interactivespaces.activity.component.ros.RosActivityComponent;
+import interactivespaces.activity.component.route.MessageRouteStatistics;
+import interactivespaces.activity.component.route.MessageRouteStatisticsHttpDynamicRequestHandler;
 import interactivespaces.activity.component.route.MessageRouterActivityComponent;
 import interactivespaces.activity.component.route.MessageRouterActivityComponentListener;
+import interactivespaces.activity.component.route.MessageSizeEstimator;
 import interactivespaces.activity.component.route.RoutableInputMessageListener;
+import interactivespaces.activity.component.web.WebServerActivityComponent;
 import interactivespaces.activity.impl.StatusDetail;
 import interactivespaces.configuration.Configuration;
 import interactivespaces.util.ros.BasePublisherListener;
@@ -45,8 +49,10 @@ import org.ros.node.topic.PublisherListener;
 import org.ros.node.topic.Subscriber;
 import org.ros.node.topic.SubscriberListener;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -77,6 +83,21 @@ public class RosMessageRouterActivityComponent<T> extends BaseActivityComponent
    */
   public static final List<String> BASE_COMPONENT_DEPENDENCIES = ImmutableList.of(RosActivityComponent.COMPONENT_NAME);
 
+  /**
+   * Configuration property for the path the route statistics are served on if
+   * the activity has a web server. An empty path, the default, means they are
+   * not served.
+   *
+   * <p>
+   * The statistics are served read-only and without authentication.
+   */
+  public static final String CONFIGURATION_ROUTES_STATISTICS_WEB_PATH = "space.activity.routes.statistics.web.path";
+
+  /**
+   * Default value for {@link #CONFIGURATION_ROUTES_STATISTICS_WEB_PATH}.
+   */
+  public static final String CONFIGURATION_ROUTES_STATISTICS_WEB_PATH_DEFAULT = "";
+
   /**
    * The ROS activity component this component requires.
    */
@@ -117,6 +138,24 @@ public class RosMessageRouterActivityComponent<T> extends BaseActivityComponent
    */
   private final Map<String, String> outputTopics = new ConcurrentSkipListMap<String, String>();
 
+  /**
+   * Statistics for each input channel, keyed by channel name.
+   */
+  private final ConcurrentMap<String, MessageRouteStatistics> inputStatistics =
+      new ConcurrentSkipListMap<String, MessageRouteStatistics>();
+
+  /**
+   * Statistics for each output channel, keyed by channel name.
+   */
+  private final ConcurrentMap<String, MessageRouteStatistics> outputStatistics =
+      new ConcurrentSkipListMap<String, MessageRouteStatistics>();
+
+  /**
+   * Estimates message sizes for the statistics, {@code null} if sizes aren't
+   * tracked.
+   */
+  private volatile MessageSizeEstimator<T> messageSizeEstimator;
+
   /**
    * A publisher collection to be used as a message factory.
    *
@@ -236,6 +275,18 @@ public class RosMessageRouterActivityComponent<T> extends BaseActivityComponent
           "Router has no routes. Define either %s or %s in your configuration", CONFIGURATION_ROUTES_INPUTS,
           CONFIGURATION_ROUTES_OUTPUTS));
     }
+
+    WebServerActivityComponent webServerComponent =
+        componentContext.getActivityComponent(WebServerActivityComponent.COMPONENT_NAME);
+    if (webServerComponent != null) {
+      String webPath =
+          configuration.getPropertyString(CONFIGURATION_ROUTES_STATISTICS_WEB_PATH,
+              CONFIGURATION_ROUTES_STATISTICS_WEB_PATH_DEFAULT);
+      if (webPath != null && !webPath.trim().isEmpty()) {
+        webServerComponent.addDynamicContent(webPath.trim(), false,
+            new MessageRouteStatisticsHttpDynamicRequestHandler(inputStatistics, outputStatistics));
+      }
+    }
   }
 
   @Override
@@ -385,6 +436,9 @@ public class RosMessageRouterActivityComponent<T> extends BaseActivityComponent
       return;
     }
 
+    MessageRouteStatistics statistics = getStatistics(inputStatistics, channelName);
+    long statisticsStart = statistics.startMessage();
+    boolean success = false;
     try {
       getComponentContext().enterHandler();
 
@@ -397,6 +451,7 @@ public class RosMessageRouterActivityComponent<T> extends BaseActivityComponent
 
       // Send the message out to the listener.
       messageListener.onNewRoutableInputMessage(channelName, message);
+      success = true;
 
       if (log.isDebugEnabled()) {
         log.debug(String.format("Exiting ROS route message handler invocation %s in %d msecs", handlerInvocationId,
@@ -406,6 +461,7 @@ public class RosMessageRouterActivityComponent<T> extends BaseActivityComponent
       handleError(String.format("Error after receiving routing message for channel %s", channelName), e);
     } finally {
       getComponentContext().exitHandler();
+      statistics.endMessage(statisticsStart, estimateSize(message), success);
     }
   }
 
@@ -417,8 +473,15 @@ public class RosMessageRouterActivityComponent<T> extends BaseActivityComponent
       if (outputChannelName != null) {
         final RosPublishers<T> output = outputs.get(outputChannelName);
         if (output != null) {
-          output.publishMessage(message);
-
+          MessageRouteStatistics statistics = getStatistics(outputStatistics, outputChannelName);
+          long statisticsStart = statistics.startMessage();
+          boolean success = false;
+          try {
+            output.publishMessage(message);
+            success = true;
+          } finally {
+            statistics.endMessage(statisticsStart, estimateSize(message), success);
+          }
         } else {
           handleError(String.format("Unknown route output channel %s. Message dropped.", outputChannelName), null);
         }
@@ -432,6 +495,81 @@ public class RosMessageRouterActivityComponent<T> extends BaseActivityComponent
     }
   }
 
+  /**
+   * Set the estimator used for the byte counts of the route statistics.
+   *
+   * @param messageSizeEstimator
+   *          the estimator, {@code null} if sizes shouldn't be tracked
+   */
+  public void setMessageSizeEstimator(MessageSizeEstimator<T> messageSizeEstimator) {
+    this.messageSizeEstimator = messageSizeEstimator;
+  }
+
+  /**
+   * Get the statistics of the input channels.
+   *
+   * @return the live statistics, keyed by channel name
+   */
+  public Map<String, MessageRouteStatistics> getInputStatistics() {
+    return Collections.unmodifiableMap(inputStatistics);
+  }
+
+  /**
+   * Get the statistics of the output channels.
+   *
+   * @return the live statistics, keyed by channel name
+   */
+  public Map<String, MessageRouteStatistics> getOutputStatistics() {
+    return Collections.unmodifiableMap(outputStatistics);
+  }
+
+  /**
+   * Get the statistics for a channel, creating them if the channel has none
+   * yet.
+   *
+   * @param statisticsMap
+   *          the statistics for all channels of the same direction
+   * @param channelName
+   *          name of the channel
+   *
+   * @return the statistics for the channel
+   */
+  private MessageRouteStatistics getStatistics(ConcurrentMap<String, MessageRouteStatistics> statisticsMap,
+      String channelName) {
+    MessageRouteStatistics statistics = statisticsMap.get(channelName);
+    if (statistics == null) {
+      statistics = new MessageRouteStatistics();
+      MessageRouteStatistics existing = statisticsMap.putIfAbsent(channelName, statistics);
+      if (existing != null) {
+        statistics = existing;
+      }
+    }
+
+    return statistics;
+  }
+
+  /**
+   * Estimate the size of a message for the statistics.
+   *
+   * @param message
+   *          the message
+   *
+   * @return the estimated size in bytes, {@code 0} if there is no estimator or
+   *         it failed
+   */
+  private int estimateSize(T message) {
+    MessageSizeEstimator<T> estimator = messageSizeEstimator;
+    if (estimator == null || message == null) {
+      return 0;
+    }
+
+    try {
+      return estimator.estimateSize(message);
+    } catch (RuntimeException e) {
+      return 0;
+    }
+  }
+
   /**
    * Create a new handler invocation ID.
    *
@@ -446,11 +584,13 @@ public class RosMessageRouterActivityComponent<T> extends BaseActivityComponent
     Map<String, String> sortedRoutes = Maps.newTreeMap();
     for (Map.Entry<String, String> input : inputTopics.entrySet()) {
       String key = input.getKey();
-      sortedRoutes.put(key + ">", makeRouteDetail("input-route", key, StatusDetail.ARROW_LEFT, input.getValue()));
+      sortedRoutes.put(key + ">", makeRouteDetail("input-route", key, StatusDetail.ARROW_LEFT, input.getValue())
+          + makeStatisticsDetail("input-route-statistics", inputStatistics.get(key)));
     }
     for (Map.Entry<String, String> output : outputTopics.entrySet()) {
       String key = output.getKey();
-      sortedRoutes.put(key + "<", makeRouteDetail("output-route", key, StatusDetail.ARROW_RIGHT, output.getValue()));
+      sortedRoutes.put(key + "<", makeRouteDetail("output-route", key, StatusDetail.ARROW_RIGHT, output.getValue())
+          + makeStatisticsDetail("output-route-statistics", outputStatistics.get(key)));
     }
     String nodeName = rosActivityComponent.getNode().getName().toString();
     return String.format(StatusDetail.HEADER_FORMAT, "route-detail")
@@ -478,6 +618,24 @@ public class RosMessageRouterActivityComponent<T> extends BaseActivityComponent
         + StatusDetail.SEPARATOR + value + StatusDetail.POSTFIX;
   }
 
+  /**
+   * Format the statistics of a route as a status row.
+   *
+   * @param className
+   *          class name for the row
+   * @param statistics
+   *          the statistics for the route, can be {@code null}
+   *
+   * @return formatted line for the statistics, empty if there are none
+   */
+  private String makeStatisticsDetail(String className, MessageRouteStatistics statistics) {
+    if (statistics == null) {
+      return "";
+    }
+
+    return makeRouteDetail(className, "", StatusDetail.ITEM_IS, statistics.toString());
+  }
+
   /**
    * Handle the event of a new subscriber coming in for a publisher.
    *
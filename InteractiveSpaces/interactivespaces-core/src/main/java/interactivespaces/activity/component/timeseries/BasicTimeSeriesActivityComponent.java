@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.activity.component.timeseries;
+
+import interactivespaces.SimpleInteractiveSpacesException;
+import interactivespaces.activity.Activity;
+import interactivespaces.activity.component.BaseActivityComponent;
+import interactivespaces.activity.component.web.WebServerActivityComponent;
+import interactivespaces.configuration.Configuration;
+import interactivespaces.service.data.timeseries.TimeSeriesHttpDynamicRequestHandler;
+import interactivespaces.service.data.timeseries.TimeSeriesService;
+import interactivespaces.service.data.timeseries.TimeSeriesStore;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * A {@link TimeSeriesActivityComponent} using the {@link TimeSeriesService}.
+ *
+ * @author agent
+ */
+public class BasicTimeSeriesActivityComponent extends BaseActivityComponent implements TimeSeriesActivityComponent {
+
+  /**
+   * Subdirectory of the permanent data directory for spill files.
+   */
+  public static final String SPILL_SUBDIRECTORY = "timeseries";
+
+  /**
+   * The store for the component.
+   */
+  private TimeSeriesStore store;
+
+  @Override
+  public String getName() {
+    return COMPONENT_NAME;
+  }
+
+  @Override
+  public String getDescription() {
+    return COMPONENT_DESCRIPTION;
+  }
+
+  @Override
+  public void configureComponent(Configuration configuration) {
+    super.configureComponent(configuration);
+
+    Activity activity = getComponentContext().getActivity();
+
+    List<String> columnNames =
+        configuration.getPropertyStringList(CONFIGURATION_TIMESERIES_COLUMNS, CONFIGURATION_VALUES_SEPARATOR);
+    if (columnNames == null || columnNames.isEmpty()) {
+      throw new SimpleInteractiveSpacesException(String.format(
+          "Time series component has no columns. Define %s in your configuration",
+          CONFIGURATION_TIMESERIES_COLUMNS));
+    }
+
+    long retention =
+        configuration.getPropertyLong(CONFIGURATION_TIMESERIES_RETENTION, CONFIGURATION_TIMESERIES_RETENTION_DEFAULT)
+            * 1000;
+
+    File spillDirectory = null;
+    if (configuration.getPropertyBoolean(CONFIGURATION_TIMESERIES_SPILL_ENABLE,
+        CONFIGURATION_TIMESERIES_SPILL_ENABLE_DEFAULT)) {
+      String spillDirectoryPath = configuration.getPropertyString(CONFIGURATION_TIMESERIES_SPILL_DIRECTORY);
+      if (spillDirectoryPath != null) {
+        spillDirectory = new File(spillDirectoryPath);
+      } else {
+        spillDirectory =
+            new File(activity.getActivityFilesystem().getPermanentDataDirectory(), SPILL_SUBDIRECTORY);
+      }
+    }
+
+    int segmentSize =
+        configuration.getPropertyInteger(CONFIGURATION_TIMESERIES_SEGMENT_SIZE,
+            TimeSeriesService.SEGMENT_SIZE_DEFAULT);
+    int numberMemorySegments =
+        configuration.getPropertyInteger(CONFIGURATION_TIMESERIES_SEGMENTS_MEMORY,
+            TimeSeriesService.NUMBER_MEMORY_SEGMENTS_DEFAULT);
+
+    TimeSeriesService timeSeriesService =
+        activity.getSpaceEnvironment().getServiceRegistry().getRequiredService(TimeSeriesService.SERVICE_NAME);
+    store =
+        timeSeriesService.newTimeSeriesStore(activity.getName(), columnNames, retention, spillDirectory,
+            segmentSize, numberMemorySegments, activity.getLog());
+
+    WebServerActivityComponent webServerComponent =
+        componentContext.getActivityComponent(WebServerActivityComponent.COMPONENT_NAME);
+    if (webServerComponent != null) {
+      String webPath =
+          configuration.getPropertyString(CONFIGURATION_TIMESERIES_WEB_PATH,
+              CONFIGURATION_TIMESERIES_WEB_PATH_DEFAULT);
+      webServerComponent.addDynamicContent(webPath, false, new TimeSeriesHttpDynamicRequestHandler(store));
+    }
+  }
+
+  @Override
+  public void startupComponent() {
+    store.startup();
+    getComponentContext().getActivity().getLog().info("Time series component started up");
+  }
+
+  @Override
+  public void shutdownComponent() {
+    if (store != null) {
+      store.shutdown();
+      store = null;
+    }
+  }
+
+  @Override
+  public boolean isComponentRunning() {
+    return store != null;
+  }
+
+  @Override
+  public TimeSeriesStore getTimeSeriesStore() {
+    return store;
+  }
+
+  @Override
+  public boolean append(String entityId, long timestamp, double... values) {
+    return store.append(entityId, timestamp, values);
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.activity.component.timeseries;
+
+import interactivespaces.activity.component.ActivityComponent;
+import interactivespaces.service.data.timeseries.TimeSeriesStore;
+
+/**
+ * An activity component which keeps a time series store for the activity.
+ *
+ * <p>
+ * If the activity also has a web server component, the store can be queried
+ * over HTTP.
+ *
+ * @author agent
+ */
+public interface TimeSeriesActivityComponent extends ActivityComponent {
+
+  /**
+   * Name of the component.
+   */
+  String COMPONENT_NAME = "data.timeseries";
+
+  /**
+   * Descriptive name of the component.
+   */
+  String COMPONENT_DESCRIPTION = "Time Series Store";
+
+  /**
+   * Configuration property giving the names of the columns, separated by
+   * {@link #CONFIGURATION_VALUES_SEPARATOR}.
+   */
+  String CONFIGURATION_TIMESERIES_COLUMNS = "space.activity.timeseries.columns";
+
+  /**
+   * Configuration property giving how long data is kept, in seconds.
+   *
+   * <p>
+   * Without spilling, an entity keeps at most the memory segments' worth of
+   * points, whatever the retention.
+   */
+  String CONFIGURATION_TIMESERIES_RETENTION = "space.activity.timeseries.retention";
+
+  /**
+   * The default for how long data is kept, in seconds.
+   */
+  long CONFIGURATION_TIMESERIES_RETENTION_DEFAULT = 6 * 60 * 60;
+
+  /**
+   * Configuration property saying whether segments which no longer fit in
+   * memory are spilled to disk.
+   */
+  String CONFIGURATION_TIMESERIES_SPILL_ENABLE = "space.activity.timeseries.spill.enable";
+
+  /**
+   * The default for whether segments are spilled to disk.
+   */
+  boolean CONFIGURATION_TIMESERIES_SPILL_ENABLE_DEFAULT = true;
+
+  /**
+   * Configuration property giving the directory for spill files. The default
+   * is a subdirectory of the permanent data directory of the activity.
+   */
+  String CONFIGURATION_TIMESERIES_SPILL_DIRECTORY = "space.activity.timeseries.spill.directory";
+
+  /**
+   * Configuration property giving the size of a storage segment, in bytes.
+   */
+  String CONFIGURATION_TIMESERIES_SEGMENT_SIZE = "space.activity.timeseries.segment.size";
+
+  /**
+   * Configuration property giving the number of segments kept in memory for
+   * each entity.
+   */
+  String CONFIGURATION_TIMESERIES_SEGMENTS_MEMORY = "space.activity.timeseries.segments.memory";
+
+  /**
+   * Configuration property giving the URI prefix the store is queried at on the
+   * activity web server.
+   */
+  String CONFIGURATION_TIMESERIES_WEB_PATH = "space.activity.timeseries.web.path";
+
+  /**
+   * The default URI prefix the store is queried at.
+   */
+  String CONFIGURATION_TIMESERIES_WEB_PATH_DEFAULT = "/timeseries";
+
+  /**
+   * The separator for multiple values in a configuration property.
+   */
+  String CONFIGURATION_VALUES_SEPARATOR = ":";
+
+  /**
+   * Get the time series store.
+   *
+   * @return the store, {@code null} if the component hasn't been configured
+   */
+  TimeSeriesStore getTimeSeriesStore();
+
+  /**
+   * Append a point to the series of an entity.
+   *
+   * @param entityId
+   *          ID of the entity
+   * @param timestamp
+   *          timestamp of the point, in milliseconds
+   * @param values
+   *          the column values, in column order
+   *
+   * @return {@code true} if the point was stored
+   */
+  boolean append(String entityId, long timestamp, double... values);
+}
@@ -38,6 +38,7 @@ import com.google.common.collect.Maps;
 import java.io.File;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Support for building an Interactive Spaces activity.
@@ -51,11 +52,6 @@ public abstract class BaseActivity extends ActivitySupport implements SupportedA
    */
   private static final int SHUTDOWN_EVENT_HANDLER_COMPLETION_MAX_SAMPLE_TIME = 3000;
 
-  /**
-   * How long to wait between samples when checking for event handlers to complete, in msecs.
-   */
-  private static final int SHUTDOWN_EVENT_HANDLER_COMPLETION_SAMPLE_TIME = 500;
-
   /**
    * Filename for activity startup config log.
    */
@@ -476,13 +472,19 @@ public abstract class BaseActivity extends ActivitySupport implements SupportedA
 
     componentContext.beginShutdownPhase();
     boolean handlersAllComplete =
-        componentContext.waitOnNoProcessingHandlings(SHUTDOWN_EVENT_HANDLER_COMPLETION_SAMPLE_TIME,
-            SHUTDOWN_EVENT_HANDLER_COMPLETION_MAX_SAMPLE_TIME);
+        componentContext.awaitNoProcessingHandlers(SHUTDOWN_EVENT_HANDLER_COMPLETION_MAX_SAMPLE_TIME,
+            TimeUnit.MILLISECONDS);
     if (!handlersAllComplete) {
       getLog().warn(
           String.format("Handlers still running after %d msecs of shutdown",
               SHUTDOWN_EVENT_HANDLER_COMPLETION_MAX_SAMPLE_TIME));
     }
+    if (getLog().isDebugEnabled()) {
+      getLog().debug(
+          String.format("Activity handlers completed %d invocations, longest took %d msecs",
+              componentContext.getNumberHandlerInvocations(),
+              componentContext.getMaxHandlerDuration(TimeUnit.MILLISECONDS)));
+    }
 
     if (managedCommands != null) {
       managedCommands.shutdownAll();
@@ -17,6 +17,7 @@
 package interactivespaces.activity.impl.ros;
 
 import interactivespaces.activity.component.route.MessageRouterSupportedMessageTypes;
+import interactivespaces.activity.component.route.MessageSizeEstimator;
 import interactivespaces.activity.component.route.RoutableInputMessageListener;
 import interactivespaces.activity.component.route.ros.RosMessageRouterActivityComponent;
 import interactivespaces.activity.execution.ActivityMethodInvocation;
@@ -40,6 +41,23 @@ public class BaseRoutableRosActivity extends BaseRosActivity {
    */
   private static final JsonMapper MAPPER = new JsonMapper();
 
+  /**
+   * Estimates the size of a generic message as it goes over the wire: each of
+   * the two strings is serialized with a 4 byte length prefix. Characters are
+   * counted rather than encoded so the estimate is cheap, which is exact for
+   * ASCII content.
+   */
+  private static final MessageSizeEstimator<GenericMessage> MESSAGE_SIZE_ESTIMATOR =
+      new MessageSizeEstimator<GenericMessage>() {
+        @Override
+        public int estimateSize(GenericMessage message) {
+          String type = message.getType();
+          String content = message.getMessage();
+
+          return 8 + (type != null ? type.length() : 0) + (content != null ? content.length() : 0);
+        }
+      };
+
   /**
    * Router for input and output messages.
    */
@@ -58,6 +76,7 @@ public class BaseRoutableRosActivity extends BaseRosActivity {
                 handleRoutableInputMessage(channelName, message);
               }
             }));
+    router.setMessageSizeEstimator(MESSAGE_SIZE_ESTIMATOR);
   }
 
   /**
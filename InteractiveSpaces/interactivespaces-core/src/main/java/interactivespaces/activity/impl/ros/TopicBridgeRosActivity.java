@@ -23,6 +23,7 @@ import interactivespaces.bridge.message.ros.RosMessageBridgeFactory;
 import interactivespaces.util.io.Files;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An {@link Activity} which provides a bridge between two Interactive Spaces
@@ -41,6 +42,18 @@ public class TopicBridgeRosActivity extends BaseRosActivity {
    */
   public static final String CONFIGURATION_BRIDGE_TOPIC_FILE = "space.bridge.topic";
 
+  /**
+   * Configuration property which gives how often the bridge statistics are
+   * logged while the bridge runs, in seconds. {@code 0} logs them only when the
+   * bridge is cleaned up.
+   */
+  public static final String CONFIGURATION_BRIDGE_STATISTICS_LOG_PERIOD = "space.bridge.statistics.log.period";
+
+  /**
+   * Default value for {@link #CONFIGURATION_BRIDGE_STATISTICS_LOG_PERIOD}.
+   */
+  public static final long BRIDGE_STATISTICS_LOG_PERIOD_DEFAULT = 60;
+
   /**
    * The bridge between two topics.
    */
@@ -56,12 +69,26 @@ public class TopicBridgeRosActivity extends BaseRosActivity {
 
     topicMessageBridge = messageBridgeFactory.newMessageBridge(Files.readFile(confFile), getLog());
     topicMessageBridge.startup();
+
+    long statisticsLogPeriod =
+        getConfiguration().getPropertyLong(CONFIGURATION_BRIDGE_STATISTICS_LOG_PERIOD,
+            BRIDGE_STATISTICS_LOG_PERIOD_DEFAULT);
+    if (statisticsLogPeriod > 0) {
+      final MessageBridge bridge = topicMessageBridge;
+      getManagedCommands().scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          getLog().info(String.format("Topic bridge statistics: %s", bridge.getStatistics()));
+        }
+      }, statisticsLogPeriod, statisticsLogPeriod, TimeUnit.SECONDS);
+    }
   }
 
   @Override
   public void commonActivityCleanup() {
     if (topicMessageBridge != null) {
       topicMessageBridge.shutdown();
+      getLog().info(String.format("Topic bridge final statistics: %s", topicMessageBridge.getStatistics()));
       topicMessageBridge = null;
     }
   }
@@ -24,4 +24,11 @@ import interactivespaces.util.resource.ManagedResource;
  * @author Keith M. Hughes
  */
 public interface MessageBridge extends ManagedResource {
+
+  /**
+   * Get the throughput and latency statistics for the bridge.
+   *
+   * @return the statistics
+   */
+  MessageBridgeStatistics getStatistics();
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.bridge.message;
+
+import interactivespaces.util.statistics.LatencyHistogram;
+import interactivespaces.util.statistics.LatencyHistogram.LatencySummary;
+import interactivespaces.util.statistics.RateMeter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and latency statistics for a {@link MessageBridge}.
+ *
+ * <p>
+ * All methods are safe to call from multiple threads, so the statistics can be
+ * read while the bridge is running.
+ *
+ * @author agent
+ */
+public class MessageBridgeStatistics {
+
+  /**
+   * The number of messages which failed to bridge.
+   */
+  private final AtomicLong numberErrors = new AtomicLong();
+
+  /**
+   * The time spent bridging each message, in nanoseconds. Its count is the
+   * number of messages successfully bridged.
+   */
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  /**
+   * The recent rate messages are bridged at.
+   */
+  private final RateMeter messageRate = new RateMeter();
+
+  /**
+   * A message has been bridged.
+   *
+   * @param latency
+   *          how long the message took to bridge, in nanoseconds
+   */
+  public void recordMessage(long latency) {
+    this.latency.record(latency);
+    messageRate.mark(1);
+  }
+
+  /**
+   * A message failed to bridge.
+   */
+  public void recordError() {
+    numberErrors.incrementAndGet();
+  }
+
+  /**
+   * Reset all statistics.
+   */
+  public void reset() {
+    numberErrors.set(0);
+    latency.reset();
+    messageRate.reset();
+  }
+
+  /**
+   * Get the number of messages successfully bridged since the last reset.
+   *
+   * @return the number of messages
+   */
+  public long getNumberMessages() {
+    return latency.getTotalCount();
+  }
+
+  /**
+   * Get the number of messages which failed to bridge since the last reset.
+   *
+   * @return the number of errors
+   */
+  public long getNumberErrors() {
+    return numberErrors.get();
+  }
+
+  /**
+   * Get the rate messages have been bridged at over the last few seconds.
+   *
+   * @return the number of messages per second
+   */
+  public double getMessagesPerSecond() {
+    return messageRate.getRate();
+  }
+
+  /**
+   * Get the average time taken to bridge a message.
+   *
+   * @param unit
+   *          the units for the latency
+   *
+   * @return the average latency, or {@code 0} if no messages have been bridged
+   */
+  public double getAverageLatency(TimeUnit unit) {
+    return latency.getMean() / unit.toNanos(1);
+  }
+
+  /**
+   * Get the longest time taken to bridge a single message.
+   *
+   * @param unit
+   *          the units for the latency
+   *
+   * @return the maximum latency
+   */
+  public long getMaxLatency(TimeUnit unit) {
+    return unit.convert(latency.getMaxValue(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Get a summary of the time taken to bridge messages.
+   *
+   * @param unit
+   *          the units for the latencies
+   *
+   * @return the summary
+   */
+  public LatencySummary getLatency(TimeUnit unit) {
+    return latency.getSummary(TimeUnit.NANOSECONDS, unit);
+  }
+
+  @Override
+  public String toString() {
+    LatencySummary summary = getLatency(TimeUnit.MICROSECONDS);
+
+    return String.format("MessageBridgeStatistics [messages=%d, errors=%d, messagesPerSecond=%.2f, "
+        + "latencyMicros[mean=%.1f, p50=%.1f, p99=%.1f, max=%.1f]]", getNumberMessages(), getNumberErrors(),
+        getMessagesPerSecond(), summary.getMean(), summary.getP50(), summary.getP99(), summary.getMax());
+  }
+}
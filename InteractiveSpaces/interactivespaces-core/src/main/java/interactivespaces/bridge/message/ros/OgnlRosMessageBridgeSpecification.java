@@ -28,17 +28,47 @@ import java.util.List;
 /**
  * Specification for a ROS Message Bridge
  *
+ * <p>
+ * The OGNL expressions are parsed once when the specification is compiled, and
+ * each thread executing the bridge reuses its own evaluation context.
+ *
  * @author Keith M. Hughes
  */
 public class OgnlRosMessageBridgeSpecification<SourceMessage, DestinationMessage> extends
     RosMessageBridgeSpecification<SourceMessage, DestinationMessage> {
+
   /**
-   * OGNL expressions to be evaluated for the bridge.
+   * Parsed OGNL expression trees to be evaluated for the bridge.
    */
-  private List<String> expressions;
+  private final List<Object> expressions;
 
+  /**
+   * The evaluation context for each thread running the bridge.
+   */
+  private final ThreadLocal<OgnlContext> contexts = new ThreadLocal<OgnlContext>() {
+    @Override
+    protected OgnlContext initialValue() {
+      return newContext();
+    }
+  };
+
+  /**
+   * Construct a new specification.
+   *
+   * @param sourceTopicName
+   *          the name of the source topic
+   * @param sourceTopicMessageType
+   *          the message type of the source topic
+   * @param destinationTopicName
+   *          the name of the destination topic
+   * @param destinationTopicMessageType
+   *          the message type of the destination topic
+   * @param expressions
+   *          the parsed OGNL expression trees, see
+   *          {@link Ognl#parseExpression(String)}
+   */
   public OgnlRosMessageBridgeSpecification(String sourceTopicName, String sourceTopicMessageType,
-      String destinationTopicName, String destinationTopicMessageType, List<String> expressions) {
+      String destinationTopicName, String destinationTopicMessageType, List<Object> expressions) {
     super(sourceTopicName, sourceTopicMessageType, destinationTopicName,
         destinationTopicMessageType);
 
@@ -53,23 +83,27 @@ public class OgnlRosMessageBridgeSpecification<SourceMessage, DestinationMessage
    * @param destination
    *          the destination message to translate to
    */
+  @Override
   public void execute(SourceMessage source, DestinationMessage destination) {
     BridgeObject bo = new BridgeObject(source, destination);
-    OgnlContext context = newContext();
+    OgnlContext context = contexts.get();
 
     try {
-      for (String expression : expressions) {
+      for (Object expression : expressions) {
         Ognl.getValue(expression, context, bo);
       }
     } catch (OgnlException e) {
       throw new InteractiveSpacesException("Could not execute bridge expression", e);
+    } finally {
+      // Don't let variables or the message leak into the next execution.
+      context.clear();
     }
   }
 
   /**
    * Create a new context for the expression evaluation.
    *
-   * @return
+   * @return a new context
    */
   protected OgnlContext newContext() {
     return new OgnlContext();
@@ -20,11 +20,18 @@ import com.google.common.collect.Lists;
 
 import interactivespaces.InteractiveSpacesException;
 
+import org.apache.commons.ognl.Ognl;
+import org.apache.commons.ognl.OgnlException;
+
 import java.util.List;
 
 /**
  * A {@link RosMessageBridgeSpecificationCompiler} which uses OGNL.
  *
+ * <p>
+ * Expressions are parsed at compile time, so syntax errors are found before
+ * the bridge starts and no parsing happens per message.
+ *
  * @author Keith M. Hughes
  */
 public class OgnlRosMessageBridgeSpecificationCompiler implements
@@ -55,13 +62,19 @@ public class OgnlRosMessageBridgeSpecificationCompiler implements
     String destinationTopicName = destinations[0].trim();
     String destinationMessageType = destinations[1].trim();
 
-    List<String> expressions = Lists.newArrayList();
+    List<Object> expressions = Lists.newArrayList();
     for (int i = 2; i < lines.length; i++) {
-      // Figure out how to compile the expressions. Classloaders in
+      // Figure out how to compile the expressions to bytecode. Classloaders in
       // OGNL and Javassist are screwing me up and no time to figure out
-      // now.
-      if (!lines[i].trim().isEmpty()) {
-        expressions.add(lines[i]);
+      // now. Parsed trees at least save reparsing for every message.
+      String expression = lines[i].trim();
+      if (!expression.isEmpty()) {
+        try {
+          expressions.add(Ognl.parseExpression(expression));
+        } catch (OgnlException e) {
+          throw new InteractiveSpacesException(String.format(
+              "Illegal message bridge expression %s", expression), e);
+        }
       }
     }
 
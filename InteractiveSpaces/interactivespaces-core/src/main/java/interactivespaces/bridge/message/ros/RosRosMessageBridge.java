@@ -17,6 +17,7 @@
 package interactivespaces.bridge.message.ros;
 
 import interactivespaces.bridge.message.MessageBridge;
+import interactivespaces.bridge.message.MessageBridgeStatistics;
 
 import org.apache.commons.logging.Log;
 import org.ros.message.MessageListener;
@@ -60,6 +61,11 @@ public class RosRosMessageBridge implements MessageBridge {
    */
   private Log log;
 
+  /**
+   * Throughput and latency statistics for the bridge.
+   */
+  private final MessageBridgeStatistics statistics = new MessageBridgeStatistics();
+
   /**
    * @param node
    *          the node to attach the publishers and subscribers to, the bridge
@@ -96,6 +102,11 @@ public class RosRosMessageBridge implements MessageBridge {
     publisher.shutdown();
   }
 
+  @Override
+  public MessageBridgeStatistics getStatistics() {
+    return statistics;
+  }
+
   /**
    * Translate the source message and publish it to the destination.
    *
@@ -103,6 +114,7 @@ public class RosRosMessageBridge implements MessageBridge {
    *          the message which came in from the source
    */
   private void translateAndPublishMessage(Object sourceMessage) {
+    long start = System.nanoTime();
     try {
       Object destinationMessage =
           node.getTopicMessageFactory().newFromType(
@@ -111,7 +123,10 @@ public class RosRosMessageBridge implements MessageBridge {
       bridgeSpecification.execute(sourceMessage, destinationMessage);
 
       publisher.publish(destinationMessage);
+
+      statistics.recordMessage(System.nanoTime() - start);
     } catch (Exception e) {
+      statistics.recordError();
       log.error("Could not publish bridge message", e);
     }
   }
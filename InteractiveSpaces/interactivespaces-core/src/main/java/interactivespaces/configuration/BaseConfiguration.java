@@ -24,23 +24,93 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Support for implementations of {@link Configuration}.
  *
+ * <p>
+ * Evaluated property values are memoized. While a property is being evaluated,
+ * every other configuration property it reads is recorded, so that a change to
+ * any of them, whether in this configuration, a configuration evaluated
+ * through, or a parent, invalidates exactly the values which depended on it.
+ * Subclasses must call {@link #invalidateValue(String)} or
+ * {@link #invalidateAllValues()} whenever their local values change.
+ *
+ * <p>
+ * Values are only memoized when every configuration in the parent chain is a
+ * {@code BaseConfiguration}, since other parents can't report their changes.
+ *
  * @author Keith M. Hughes
  */
 public abstract class BaseConfiguration implements Configuration, EvaluationEnvironment {
 
+  /**
+   * Lock for the dependency graph of every configuration.
+   *
+   * <p>
+   * A dependency can cross configurations, so a single lock keeps invalidation
+   * and memoization from racing. It is only taken when a value has to be
+   * evaluated or a value changes.
+   */
+  private static final Object DEPENDENCY_LOCK = new Object();
+
+  /**
+   * The properties being evaluated by the current thread, innermost last.
+   */
+  private static final ThreadLocal<LinkedList<ValueEvaluation>> EVALUATIONS =
+      new ThreadLocal<LinkedList<ValueEvaluation>>() {
+        @Override
+        protected LinkedList<ValueEvaluation> initialValue() {
+          return new LinkedList<ValueEvaluation>();
+        }
+      };
+
+  /**
+   * Number of invalidations across all configurations. An evaluation which
+   * overlaps an invalidation is not memoized.
+   */
+  private static volatile long invalidationCount;
+
   /**
    * Parent configuration to this configuration.
    */
   private Configuration parent;
 
+  /**
+   * The memoized evaluated values, keyed by property name.
+   */
+  private final ConcurrentMap<String, String> evaluatedValues = Maps.newConcurrentMap();
+
+  /**
+   * The evaluated values which depend on a property of this configuration,
+   * keyed by the property name. Each value maps the configuration holding the
+   * dependent values to the names of its dependent properties.
+   *
+   * <p>
+   * Access only while holding {@link #DEPENDENCY_LOCK}.
+   */
+  private final Map<String, Map<BaseConfiguration, Set<String>>> dependentValues = Maps.newHashMap();
+
+  /**
+   * The configurations which have this configuration as their parent.
+   *
+   * <p>
+   * Access only while holding {@link #DEPENDENCY_LOCK}.
+   */
+  private final Map<BaseConfiguration, Boolean> children = new WeakHashMap<BaseConfiguration, Boolean>();
+
+  /**
+   * {@code true} if evaluated values can be memoized.
+   */
+  private volatile boolean memoizable;
+
   /**
    * The expression evaluator for this configuration.
    */
@@ -66,7 +136,7 @@ public abstract class BaseConfiguration implements Configuration, EvaluationEnvi
    */
   public BaseConfiguration(ExpressionEvaluator expressionEvaluator, Configuration parent) {
     this.expressionEvaluator = expressionEvaluator;
-    this.parent = parent;
+    changeParent(parent);
   }
 
   @Override
@@ -76,7 +146,29 @@ public abstract class BaseConfiguration implements Configuration, EvaluationEnvi
 
   @Override
   public void setParent(Configuration parent) {
-    this.parent = parent;
+    changeParent(parent);
+  }
+
+  /**
+   * Change the parent of this configuration.
+   *
+   * @param parent
+   *          the new parent, can be {@code null}
+   */
+  private void changeParent(Configuration parent) {
+    synchronized (DEPENDENCY_LOCK) {
+      if (this.parent instanceof BaseConfiguration) {
+        ((BaseConfiguration) this.parent).children.remove(this);
+      }
+
+      this.parent = parent;
+
+      if (parent instanceof BaseConfiguration) {
+        ((BaseConfiguration) parent).children.put(this, Boolean.TRUE);
+      }
+
+      onParentChainChanged();
+    }
   }
 
   @Override
@@ -230,13 +322,134 @@ public abstract class BaseConfiguration implements Configuration, EvaluationEnvi
    * @return the value of the property, or null if not found
    */
   private String getValue(String property) {
-    String value = findValue(property);
+    LinkedList<ValueEvaluation> evaluations = EVALUATIONS.get();
+    if (!evaluations.isEmpty()) {
+      evaluations.getLast().addDependency(this, property);
+    }
 
+    String value = evaluatedValues.get(property);
     if (value != null) {
-      return expressionEvaluator.evaluateStringExpression(value);
-    } else {
+      return value;
+    }
+
+    value = findValue(property);
+    if (value == null) {
       return null;
     }
+
+    long startInvalidationCount = invalidationCount;
+
+    ValueEvaluation evaluation = new ValueEvaluation();
+    evaluations.add(evaluation);
+    try {
+      value = expressionEvaluator.evaluateStringExpression(value);
+    } finally {
+      evaluations.removeLast();
+    }
+
+    if (memoizable) {
+      synchronized (DEPENDENCY_LOCK) {
+        if (invalidationCount == startInvalidationCount) {
+          evaluation.registerDependencies(this, property);
+          evaluatedValues.put(property, value);
+        }
+      }
+    }
+
+    return value;
+  }
+
+  /**
+   * A local value of this configuration has changed. Invalidate it and every
+   * evaluated value which depends on it.
+   *
+   * @param property
+   *          the property which changed
+   */
+  protected void invalidateValue(String property) {
+    synchronized (DEPENDENCY_LOCK) {
+      invalidationCount++;
+      invalidate(property);
+    }
+  }
+
+  /**
+   * All local values of this configuration may have changed. Invalidate every
+   * evaluated value which depends on this configuration.
+   */
+  protected void invalidateAllValues() {
+    synchronized (DEPENDENCY_LOCK) {
+      invalidationCount++;
+      invalidateAll();
+    }
+  }
+
+  /**
+   * Invalidate a property and everything which depends on it.
+   *
+   * <p>
+   * Must be called while holding {@link #DEPENDENCY_LOCK}.
+   *
+   * @param property
+   *          the property to invalidate
+   */
+  private void invalidate(String property) {
+    evaluatedValues.remove(property);
+
+    Map<BaseConfiguration, Set<String>> dependents = dependentValues.remove(property);
+    if (dependents != null) {
+      for (Entry<BaseConfiguration, Set<String>> dependent : dependents.entrySet()) {
+        for (String dependentProperty : dependent.getValue()) {
+          dependent.getKey().invalidate(dependentProperty);
+        }
+      }
+    }
+
+    // Children which don't override the property inherit it.
+    for (BaseConfiguration child : Lists.newArrayList(children.keySet())) {
+      child.invalidate(property);
+    }
+  }
+
+  /**
+   * Invalidate every property and everything which depends on them.
+   *
+   * <p>
+   * Must be called while holding {@link #DEPENDENCY_LOCK}.
+   */
+  private void invalidateAll() {
+    for (String property : Lists.newArrayList(dependentValues.keySet())) {
+      invalidate(property);
+    }
+    evaluatedValues.clear();
+
+    for (BaseConfiguration child : Lists.newArrayList(children.keySet())) {
+      child.invalidateAll();
+    }
+  }
+
+  /**
+   * The parent chain of this configuration has changed.
+   *
+   * <p>
+   * Must be called while holding {@link #DEPENDENCY_LOCK}.
+   */
+  private void onParentChainChanged() {
+    invalidationCount++;
+
+    if (parent == null) {
+      memoizable = true;
+    } else if (parent instanceof BaseConfiguration) {
+      memoizable = ((BaseConfiguration) parent).memoizable;
+    } else {
+      memoizable = false;
+    }
+
+    invalidateAll();
+
+    for (BaseConfiguration child : Lists.newArrayList(children.keySet())) {
+      child.onParentChainChanged();
+    }
   }
 
   @Override
@@ -274,4 +487,65 @@ public abstract class BaseConfiguration implements Configuration, EvaluationEnvi
 
     return map;
   }
+
+  /**
+   * The configuration properties read while evaluating a value.
+   *
+   * @author Keith M. Hughes
+   */
+  private static class ValueEvaluation {
+
+    /**
+     * The properties read, keyed by the configuration they were read from.
+     */
+    private final Map<BaseConfiguration, Set<String>> dependencies = Maps.newHashMap();
+
+    /**
+     * Record that a property was read.
+     *
+     * @param configuration
+     *          the configuration the property was read from
+     * @param property
+     *          the name of the property
+     */
+    public void addDependency(BaseConfiguration configuration, String property) {
+      Set<String> properties = dependencies.get(configuration);
+      if (properties == null) {
+        properties = Sets.newHashSet();
+        dependencies.put(configuration, properties);
+      }
+      properties.add(property);
+    }
+
+    /**
+     * Register the evaluated value with everything it depends on.
+     *
+     * <p>
+     * Must be called while holding {@link #DEPENDENCY_LOCK}.
+     *
+     * @param owner
+     *          the configuration which evaluated the value
+     * @param ownerProperty
+     *          the name of the evaluated property
+     */
+    public void registerDependencies(BaseConfiguration owner, String ownerProperty) {
+      for (Entry<BaseConfiguration, Set<String>> dependency : dependencies.entrySet()) {
+        BaseConfiguration configuration = dependency.getKey();
+        for (String property : dependency.getValue()) {
+          Map<BaseConfiguration, Set<String>> dependents = configuration.dependentValues.get(property);
+          if (dependents == null) {
+            dependents = new WeakHashMap<BaseConfiguration, Set<String>>();
+            configuration.dependentValues.put(property, dependents);
+          }
+
+          Set<String> ownerProperties = dependents.get(owner);
+          if (ownerProperties == null) {
+            ownerProperties = Sets.newHashSet();
+            dependents.put(owner, ownerProperties);
+          }
+          ownerProperties.add(ownerProperty);
+        }
+      }
+    }
+  }
 }
@@ -59,11 +59,21 @@ public class PropertiesConfiguration extends BaseConfiguration {
   @Override
   public void setValue(String property, String value) {
     values.put(property, value);
+    invalidateValue(property);
+  }
+
+  /**
+   * The backing properties have been changed directly rather than through
+   * this configuration.
+   */
+  public void onPropertiesChanged() {
+    invalidateAllValues();
   }
 
   @Override
   public void clear() {
     values.clear();
+    invalidateAllValues();
   }
 
   @Override
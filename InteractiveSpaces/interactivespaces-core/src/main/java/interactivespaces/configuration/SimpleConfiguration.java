@@ -83,11 +83,13 @@ public class SimpleConfiguration extends BaseConfiguration {
   @Override
   public void setValue(String property, String value) {
     values.put(property, value);
+    invalidateValue(property);
   }
 
   @Override
   public void clear() {
     values.clear();
+    invalidateAllValues();
   }
 
   @Override
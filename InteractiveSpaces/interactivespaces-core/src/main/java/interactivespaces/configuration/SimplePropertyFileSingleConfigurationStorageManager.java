@@ -43,7 +43,7 @@ public class SimplePropertyFileSingleConfigurationStorageManager implements Sing
   /**
    * The configuration being managed.
    */
-  private Configuration configuration;
+  private PropertiesConfiguration configuration;
 
   /**
    * The file containing the configuration.
@@ -131,6 +131,8 @@ public class SimplePropertyFileSingleConfigurationStorageManager implements Sing
               // Don't care
             }
           }
+
+          configuration.onPropertiesChanged();
         }
       }
     } else {
@@ -172,6 +174,7 @@ public class SimplePropertyFileSingleConfigurationStorageManager implements Sing
     for (Entry<String, String> entry : update.entrySet()) {
       properties.put(entry.getKey(), entry.getValue());
     }
+    configuration.onPropertiesChanged();
 
     return this;
   }
@@ -179,6 +182,7 @@ public class SimplePropertyFileSingleConfigurationStorageManager implements Sing
   @Override
   public SingleConfigurationStorageManager clear() {
     properties.clear();
+    configuration.onPropertiesChanged();
 
     return this;
   }
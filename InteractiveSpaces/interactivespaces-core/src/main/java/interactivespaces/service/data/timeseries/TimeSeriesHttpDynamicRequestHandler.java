@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.data.timeseries;
+
+import interactivespaces.InteractiveSpacesException;
+import interactivespaces.service.web.HttpResponseCode;
+import interactivespaces.service.web.server.HttpDynamicRequestHandler;
+import interactivespaces.service.web.server.HttpRequest;
+import interactivespaces.service.web.server.HttpResponse;
+import interactivespaces.util.data.json.JsonMapper;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An HTTP handler which answers range queries against a
+ * {@link TimeSeriesStore} with JSON.
+ *
+ * <p>
+ * Without an {@link #QUERY_PARAMETER_NAME_ENTITY} parameter the handler lists
+ * the entities in the store and the time range of each. Otherwise it returns
+ * the points of the entity in the requested range as one array of timestamps
+ * and one array of values per column. If no downsampling interval is given and
+ * the range holds more than the maximum number of points, an interval is
+ * picked so that the result fits.
+ *
+ * @author agent
+ */
+public class TimeSeriesHttpDynamicRequestHandler implements HttpDynamicRequestHandler {
+
+  /**
+   * Query parameter for the ID of the entity.
+   */
+  public static final String QUERY_PARAMETER_NAME_ENTITY = "entity";
+
+  /**
+   * Query parameter for the start of the range, in milliseconds.
+   */
+  public static final String QUERY_PARAMETER_NAME_FROM = "from";
+
+  /**
+   * Query parameter for the end of the range, in milliseconds.
+   */
+  public static final String QUERY_PARAMETER_NAME_TO = "to";
+
+  /**
+   * Query parameter for the downsampling interval, in milliseconds.
+   */
+  public static final String QUERY_PARAMETER_NAME_INTERVAL = "interval";
+
+  /**
+   * Query parameter for the maximum number of points returned.
+   */
+  public static final String QUERY_PARAMETER_NAME_MAX_POINTS = "maxPoints";
+
+  /**
+   * The default maximum number of points returned.
+   */
+  public static final int MAX_POINTS_DEFAULT = 10000;
+
+  /**
+   * The largest maximum number of points a client can ask for. Larger requests
+   * are cut down to this.
+   */
+  public static final int MAX_POINTS_LIMIT = 100000;
+
+  /**
+   * The content type of responses.
+   */
+  public static final String CONTENT_TYPE_JSON = "application/json";
+
+  /**
+   * The store being queried.
+   */
+  private final TimeSeriesStore store;
+
+  /**
+   * Construct a new handler.
+   *
+   * @param store
+   *          the store being queried
+   */
+  public TimeSeriesHttpDynamicRequestHandler(TimeSeriesStore store) {
+    this.store = store;
+  }
+
+  @Override
+  public void handle(HttpRequest request, HttpResponse response) {
+    Map<String, String> parameters = request.getUriQueryParameters();
+
+    Map<String, Object> result;
+    try {
+      String entityId = parameters.get(QUERY_PARAMETER_NAME_ENTITY);
+      if (entityId == null) {
+        result = listEntities();
+      } else {
+        result = queryEntity(entityId, parameters);
+      }
+      if (result == null) {
+        response.setResponseCode(HttpResponseCode.NOT_FOUND);
+        return;
+      }
+    } catch (NumberFormatException e) {
+      response.setResponseCode(HttpResponseCode.BAD_REQUEST);
+      return;
+    }
+
+    response.setContentType(CONTENT_TYPE_JSON);
+    try {
+      response.getOutputStream().write(JsonMapper.INSTANCE.toString(result).getBytes(Charsets.UTF_8));
+    } catch (IOException e) {
+      throw new InteractiveSpacesException(String.format("Could not write time series query result for %s",
+          request.getUri()), e);
+    }
+  }
+
+  /**
+   * List the entities in the store.
+   *
+   * @return the JSON object for the list
+   */
+  private Map<String, Object> listEntities() {
+    List<Object> entities = Lists.newArrayList();
+    for (String entityId : store.getEntityIds()) {
+      long[] range = store.getTimeRange(entityId);
+      if (range != null) {
+        Map<String, Object> entity = Maps.newHashMap();
+        entity.put("id", entityId);
+        entity.put("from", range[0]);
+        entity.put("to", range[1]);
+        entities.add(entity);
+      }
+    }
+
+    Map<String, Object> result = newResult();
+    result.put("entities", entities);
+
+    return result;
+  }
+
+  /**
+   * Query the points of an entity.
+   *
+   * @param entityId
+   *          ID of the entity
+   * @param parameters
+   *          the query parameters of the request
+   *
+   * @return the JSON object for the points, or {@code null} if the entity
+   *         isn't in the store
+   *
+   * @throws NumberFormatException
+   *           one of the numeric parameters was malformed
+   */
+  private Map<String, Object> queryEntity(String entityId, Map<String, String> parameters)
+      throws NumberFormatException {
+    long[] range = store.getTimeRange(entityId);
+    if (range == null) {
+      return null;
+    }
+
+    long from = Math.max(getLong(parameters, QUERY_PARAMETER_NAME_FROM, range[0]), range[0]);
+    long to = Math.min(getLong(parameters, QUERY_PARAMETER_NAME_TO, range[1]), range[1]);
+    long interval = getLong(parameters, QUERY_PARAMETER_NAME_INTERVAL, 0);
+    int maxPoints =
+        (int) Math.min(MAX_POINTS_LIMIT,
+            Math.max(1, getLong(parameters, QUERY_PARAMETER_NAME_MAX_POINTS, MAX_POINTS_DEFAULT)));
+
+    ColumnCollector collector = new ColumnCollector(store.getColumnNames().size(), maxPoints);
+    if (from <= to) {
+      if (interval > 0) {
+        store.queryDownsampled(entityId, from, to, interval, collector);
+      } else {
+        int numberPoints = store.query(entityId, from, to, collector);
+        if (numberPoints > maxPoints) {
+          interval = Math.max(1, (to - from) / maxPoints + 1);
+          collector = new ColumnCollector(store.getColumnNames().size(), maxPoints);
+          store.queryDownsampled(entityId, from, to, interval, collector);
+        }
+      }
+    }
+
+    Map<String, Object> result = newResult();
+    result.put("entity", entityId);
+    result.put("from", from);
+    result.put("to", to);
+    result.put("interval", interval);
+    result.put("timestamps", collector.timestamps);
+    result.put("values", collector.columns);
+
+    return result;
+  }
+
+  /**
+   * Create a result object with the fields common to all responses.
+   *
+   * @return the result object
+   */
+  private Map<String, Object> newResult() {
+    Map<String, Object> result = Maps.newHashMap();
+    result.put("store", store.getName());
+    result.put("columns", store.getColumnNames());
+
+    return result;
+  }
+
+  /**
+   * Get a numeric query parameter.
+   *
+   * @param parameters
+   *          the query parameters
+   * @param name
+   *          name of the parameter
+   * @param defaultValue
+   *          value to use if the parameter isn't there
+   *
+   * @return the value of the parameter
+   *
+   * @throws NumberFormatException
+   *           the parameter was malformed
+   */
+  private long getLong(Map<String, String> parameters, String name, long defaultValue)
+      throws NumberFormatException {
+    String value = parameters.get(name);
+
+    return value != null ? Long.parseLong(value.trim()) : defaultValue;
+  }
+
+  /**
+   * Collects points into columns, up to a maximum number of points.
+   *
+   * @author agent
+   */
+  private static class ColumnCollector implements TimeSeriesVisitor {
+
+    /**
+     * The timestamps collected.
+     */
+    private final List<Long> timestamps = Lists.newArrayList();
+
+    /**
+     * The values collected for each column.
+     */
+    private final List<List<Double>> columns = Lists.newArrayList();
+
+    /**
+     * The most points collected.
+     */
+    private final int maxPoints;
+
+    /**
+     * Construct a new collector.
+     *
+     * @param columnCount
+     *          the number of columns
+     * @param maxPoints
+     *          the most points collected
+     */
+    public ColumnCollector(int columnCount, int maxPoints) {
+      this.maxPoints = maxPoints;
+      for (int column = 0; column < columnCount; column++) {
+        columns.add(Lists.<Double>newArrayList());
+      }
+    }
+
+    @Override
+    public void onPoint(long timestamp, double[] values) {
+      if (timestamps.size() >= maxPoints) {
+        return;
+      }
+
+      timestamps.add(timestamp);
+      for (int column = 0; column < values.length; column++) {
+        double value = values[column];
+
+        // JSON has no representation for NaN or the infinities.
+        columns.get(column).add(Double.isNaN(value) || Double.isInfinite(value) ? null : value);
+      }
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.data.timeseries;
+
+import interactivespaces.service.SupportedService;
+
+import org.apache.commons.logging.Log;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * A service for keeping the recent history of numeric telemetry, such as the
+ * position and attitude of a set of vehicles, and querying it by time range.
+ *
+ * @author agent
+ */
+public interface TimeSeriesService extends SupportedService {
+
+  /**
+   * The name of the service.
+   */
+  String SERVICE_NAME = "data.timeseries";
+
+  /**
+   * The default size of a storage segment, in bytes.
+   */
+  int SEGMENT_SIZE_DEFAULT = 64 * 1024;
+
+  /**
+   * The default number of segments kept in memory for each entity.
+   */
+  int NUMBER_MEMORY_SEGMENTS_DEFAULT = 8;
+
+  /**
+   * Create a new store with the default segment sizes.
+   *
+   * @param name
+   *          name of the store
+   * @param columnNames
+   *          names of the columns every entity has a value for
+   * @param retention
+   *          how long data is kept, in milliseconds
+   * @param spillDirectory
+   *          directory for segments which no longer fit in memory, can be
+   *          {@code null} if data is only to be kept in memory
+   * @param log
+   *          the logger for the store
+   *
+   * @return the new store, it still needs to be started up
+   */
+  TimeSeriesStore newTimeSeriesStore(String name, List<String> columnNames, long retention, File spillDirectory,
+      Log log);
+
+  /**
+   * Create a new store.
+   *
+   * @param name
+   *          name of the store
+   * @param columnNames
+   *          names of the columns every entity has a value for
+   * @param retention
+   *          how long data is kept, in milliseconds
+   * @param spillDirectory
+   *          directory for segments which no longer fit in memory, can be
+   *          {@code null} if data is only to be kept in memory
+   * @param segmentSize
+   *          the size of a storage segment, in bytes
+   * @param numberMemorySegments
+   *          the number of segments kept in memory for each entity
+   * @param log
+   *          the logger for the store
+   *
+   * @return the new store, it still needs to be started up
+   */
+  TimeSeriesStore newTimeSeriesStore(String name, List<String> columnNames, long retention, File spillDirectory,
+      int segmentSize, int numberMemorySegments, Log log);
+}
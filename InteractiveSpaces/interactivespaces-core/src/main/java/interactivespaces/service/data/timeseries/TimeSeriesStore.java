@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.data.timeseries;
+
+import interactivespaces.util.resource.ManagedResource;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A store of time series, one per entity, where every point of every series
+ * has a value for each of the columns of the store.
+ *
+ * <p>
+ * Points for an entity must be appended in time order. Data older than the
+ * retention period of the store is dropped.
+ *
+ * @author agent
+ */
+public interface TimeSeriesStore extends ManagedResource {
+
+  /**
+   * @return name of the store
+   */
+  String getName();
+
+  /**
+   * @return names of the columns, in column order
+   */
+  List<String> getColumnNames();
+
+  /**
+   * Append a point to the series of an entity.
+   *
+   * @param entityId
+   *          ID of the entity
+   * @param timestamp
+   *          timestamp of the point, in milliseconds
+   * @param values
+   *          the column values, in column order
+   *
+   * @return {@code true} if the point was stored, {@code false} if it was older
+   *         than the last point for the entity and so was dropped
+   */
+  boolean append(String entityId, long timestamp, double[] values);
+
+  /**
+   * @return the IDs of all entities with points in the store
+   */
+  Set<String> getEntityIds();
+
+  /**
+   * Visit all points of an entity in a time range.
+   *
+   * @param entityId
+   *          ID of the entity
+   * @param from
+   *          start of the range, inclusive, in milliseconds
+   * @param to
+   *          end of the range, inclusive, in milliseconds
+   * @param visitor
+   *          the visitor for the points, in time order
+   *
+   * @return the number of points visited
+   */
+  int query(String entityId, long from, long to, TimeSeriesVisitor visitor);
+
+  /**
+   * Visit the points of an entity in a time range averaged over fixed
+   * intervals.
+   *
+   * <p>
+   * Intervals are aligned on multiples of the interval length. The visitor
+   * gets one point per interval which has data, with the start of the
+   * interval as its timestamp and the mean of each column as its values.
+   *
+   * @param entityId
+   *          ID of the entity
+   * @param from
+   *          start of the range, inclusive, in milliseconds
+   * @param to
+   *          end of the range, inclusive, in milliseconds
+   * @param interval
+   *          length of the intervals, in milliseconds
+   * @param visitor
+   *          the visitor for the interval points, in time order
+   *
+   * @return the number of interval points visited
+   */
+  int queryDownsampled(String entityId, long from, long to, long interval, TimeSeriesVisitor visitor);
+
+  /**
+   * Get the time range of the data kept for an entity.
+   *
+   * @param entityId
+   *          ID of the entity
+   *
+   * @return the timestamps of the first and last points, or {@code null} if
+   *         there is no data for the entity
+   */
+  long[] getTimeRange(String entityId);
+
+  /**
+   * @return the number of bytes the compressed data takes up in memory and in
+   *         spill files
+   */
+  long getStorageSize();
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.data.timeseries;
+
+/**
+ * A visitor for the points returned by a time series query.
+ *
+ * @author agent
+ */
+public interface TimeSeriesVisitor {
+
+  /**
+   * A point has been found.
+   *
+   * <p>
+   * The values array is reused for the next point, copy it if it needs to be
+   * kept.
+   *
+   * @param timestamp
+   *          the timestamp of the point, in milliseconds
+   * @param values
+   *          the column values of the point, in column order
+   */
+  void onPoint(long timestamp, double[] values);
+}
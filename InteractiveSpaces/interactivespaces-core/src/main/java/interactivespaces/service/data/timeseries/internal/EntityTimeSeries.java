@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.data.timeseries.internal;
+
+import interactivespaces.service.data.timeseries.TimeSeriesVisitor;
+
+import com.google.common.collect.Lists;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The time series for a single entity.
+ *
+ * <p>
+ * Points are written into a ring of fixed-size off-heap segments. When the
+ * ring is full, the oldest segment is copied to the spill, if there is one, and
+ * its memory reused. Segments whose last point is older than the retention
+ * period are dropped.
+ *
+ * <p>
+ * Queries only hold the lock long enough to pick the segments to read. Spilled
+ * segments are immutable and read in place, segments in memory can be reused
+ * and are copied.
+ *
+ * @author agent
+ */
+final class EntityTimeSeries {
+
+  /**
+   * The layout of the segments.
+   */
+  private final SegmentLayout layout;
+
+  /**
+   * The most segments kept in memory, including the one being written.
+   */
+  private final int numberMemorySegments;
+
+  /**
+   * The spill for segments pushed out of memory, can be {@code null}.
+   */
+  private final SegmentSpill spill;
+
+  /**
+   * The writer for the active segment.
+   */
+  private final SegmentWriter writer;
+
+  /**
+   * Segments in the spill, oldest first.
+   */
+  private final Deque<SpilledSegment> spilledSegments = new ArrayDeque<SpilledSegment>();
+
+  /**
+   * Full segments still in memory, oldest first.
+   */
+  private final Deque<ByteBuffer> memorySegments = new ArrayDeque<ByteBuffer>();
+
+  /**
+   * Segments which have been allocated but hold no data.
+   */
+  private final List<ByteBuffer> freeSegments = Lists.newArrayList();
+
+  /**
+   * The segment being written, {@code null} until the first point arrives.
+   */
+  private ByteBuffer activeSegment;
+
+  /**
+   * Number of segments allocated so far.
+   */
+  private int numberAllocatedSegments;
+
+  /**
+   * Construct a new entity time series.
+   *
+   * @param layout
+   *          the layout of the segments
+   * @param numberMemorySegments
+   *          the most segments kept in memory
+   * @param spill
+   *          the spill for segments pushed out of memory, can be {@code null}
+   */
+  public EntityTimeSeries(SegmentLayout layout, int numberMemorySegments, SegmentSpill spill) {
+    this.layout = layout;
+    this.numberMemorySegments = numberMemorySegments;
+    this.spill = spill;
+
+    writer = new SegmentWriter(layout);
+  }
+
+  /**
+   * Append a point.
+   *
+   * @param timestamp
+   *          timestamp of the point
+   * @param values
+   *          column values of the point
+   * @param retention
+   *          how long data is kept, {@code 0} or less to keep it until it is
+   *          pushed out
+   *
+   * @return {@code true} if the point was stored, {@code false} if it was
+   *         before the last point
+   */
+  public synchronized boolean append(long timestamp, double[] values, long retention) {
+    if (activeSegment == null) {
+      activeSegment = obtainSegment();
+      writer.start(activeSegment, 0, timestamp, values);
+    } else if (timestamp < writer.getLastTimestamp()) {
+      return false;
+    } else if (writer.hasRoom()) {
+      writer.append(timestamp, values);
+    } else {
+      memorySegments.addLast(activeSegment);
+      activeSegment = obtainSegment();
+      writer.start(activeSegment, 0, timestamp, values);
+    }
+
+    if (retention > 0) {
+      expire(timestamp - retention);
+    }
+
+    return true;
+  }
+
+  /**
+   * Visit all points in a time range.
+   *
+   * @param from
+   *          start of the range, inclusive
+   * @param to
+   *          end of the range, inclusive
+   * @param reader
+   *          the reader to decode segments with
+   * @param visitor
+   *          the visitor for the points
+   *
+   * @return the number of points visited
+   */
+  public int query(long from, long to, SegmentReader reader, TimeSeriesVisitor visitor) {
+    List<SpilledSegment> spilledToRead = Lists.newArrayList();
+    List<ByteBuffer> memoryToRead = Lists.newArrayList();
+    synchronized (this) {
+      selectSegments(from, to, spilledToRead, memoryToRead);
+    }
+
+    // A spill file may be deleted while its segments are being read, but its
+    // mapping stays valid until the buffer is garbage collected.
+    int numberVisited = 0;
+    for (SpilledSegment segment : spilledToRead) {
+      numberVisited += reader.read(segment.getBuffer(), segment.getBase(), from, to, visitor);
+    }
+    for (ByteBuffer segment : memoryToRead) {
+      numberVisited += reader.read(segment, 0, from, to, visitor);
+    }
+
+    return numberVisited;
+  }
+
+  /**
+   * Drop all segments whose data is entirely before a cutoff.
+   *
+   * <p>
+   * Appends do this for their own entity. The store also calls it so that
+   * entities which have stopped getting points don't keep old segments, and
+   * the spill files they are in, forever.
+   *
+   * @param cutoff
+   *          the cutoff timestamp
+   */
+  public synchronized void expire(long cutoff) {
+    while (!spilledSegments.isEmpty() && spilledSegments.peekFirst().getLastTimestamp() < cutoff) {
+      spill.release(spilledSegments.pollFirst());
+    }
+
+    while (!memorySegments.isEmpty() && layout.getLastTimestamp(memorySegments.peekFirst(), 0) < cutoff) {
+      freeSegments.add(memorySegments.pollFirst());
+    }
+  }
+
+  /**
+   * Get the time range of the data being kept.
+   *
+   * @return the first and last timestamps, or {@code null} if there is no data
+   */
+  public synchronized long[] getTimeRange() {
+    if (activeSegment == null) {
+      return null;
+    }
+
+    long first;
+    if (!spilledSegments.isEmpty()) {
+      first = spilledSegments.peekFirst().getFirstTimestamp();
+    } else if (!memorySegments.isEmpty()) {
+      first = layout.getFirstTimestamp(memorySegments.peekFirst(), 0);
+    } else {
+      first = layout.getFirstTimestamp(activeSegment, 0);
+    }
+
+    return new long[] { first, writer.getLastTimestamp() };
+  }
+
+  /**
+   * Get the number of bytes the compressed data takes up.
+   *
+   * @return the compressed size, in bytes
+   */
+  public synchronized long getStorageSize() {
+    long size = 0;
+    for (SpilledSegment segment : spilledSegments) {
+      size += segment.getCompressedSize();
+    }
+    for (ByteBuffer segment : memorySegments) {
+      size += layout.getCompressedSize(segment, 0);
+    }
+    if (activeSegment != null) {
+      size += layout.getCompressedSize(activeSegment, 0);
+    }
+
+    return size;
+  }
+
+  /**
+   * Release all data. Memory is released when the segments are garbage
+   * collected.
+   */
+  public synchronized void close() {
+    if (spill != null) {
+      for (SpilledSegment segment : spilledSegments) {
+        spill.release(segment);
+      }
+    }
+    spilledSegments.clear();
+    memorySegments.clear();
+    freeSegments.clear();
+    activeSegment = null;
+  }
+
+  /**
+   * Pick the segments which hold points in a time range, oldest first.
+   *
+   * <p>
+   * Must be called while synchronized.
+   *
+   * @param from
+   *          start of the range, inclusive
+   * @param to
+   *          end of the range, inclusive
+   * @param spilledToRead
+   *          the list to add the spilled segments to read to
+   * @param memoryToRead
+   *          the list to add copies of the memory segments to read to
+   */
+  private void selectSegments(long from, long to, List<SpilledSegment> spilledToRead,
+      List<ByteBuffer> memoryToRead) {
+    for (SpilledSegment segment : spilledSegments) {
+      if (segment.getFirstTimestamp() > to) {
+        return;
+      }
+      if (segment.getLastTimestamp() >= from) {
+        spilledToRead.add(segment);
+      }
+    }
+
+    for (ByteBuffer segment : memorySegments) {
+      if (layout.getFirstTimestamp(segment, 0) > to) {
+        return;
+      }
+      if (layout.getLastTimestamp(segment, 0) >= from) {
+        memoryToRead.add(layout.copySegment(segment, 0));
+      }
+    }
+
+    if (activeSegment != null && layout.getFirstTimestamp(activeSegment, 0) <= to
+        && layout.getLastTimestamp(activeSegment, 0) >= from) {
+      memoryToRead.add(layout.copySegment(activeSegment, 0));
+    }
+  }
+
+  /**
+   * Get a segment to write into.
+   *
+   * <p>
+   * A free segment is used if there is one, then a new one is allocated if the
+   * ring is not full yet. Otherwise the oldest segment in memory is pushed out.
+   *
+   * @return the segment
+   */
+  private ByteBuffer obtainSegment() {
+    if (!freeSegments.isEmpty()) {
+      return freeSegments.remove(freeSegments.size() - 1);
+    }
+
+    if (numberAllocatedSegments < numberMemorySegments) {
+      numberAllocatedSegments++;
+      return ByteBuffer.allocateDirect(layout.getSegmentSize());
+    }
+
+    ByteBuffer segment = memorySegments.pollFirst();
+    if (spill != null) {
+      SpilledSegment spilled = spill.write(segment, layout);
+      if (spilled != null) {
+        spilledSegments.addLast(spilled);
+      }
+    }
+
+    return segment;
+  }
+}
@@ -0,0 +1,397 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.data.timeseries.internal;
+
+import interactivespaces.SimpleInteractiveSpacesException;
+import interactivespaces.service.data.timeseries.TimeSeriesStore;
+import interactivespaces.service.data.timeseries.TimeSeriesVisitor;
+import interactivespaces.util.statistics.StatisticsUtils;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+import org.apache.commons.logging.Log;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link TimeSeriesStore} which keeps compressed columnar segments outside
+ * the Java heap, optionally spilling older segments to memory-mapped files.
+ *
+ * @author agent
+ */
+public class OffHeapTimeSeriesStore implements TimeSeriesStore {
+
+  /**
+   * How many times during each retention period every entity is checked for
+   * expired data, including entities which are no longer getting points.
+   */
+  public static final int EXPIRY_SWEEPS_PER_RETENTION = 10;
+
+  /**
+   * Name of the store.
+   */
+  private final String name;
+
+  /**
+   * Names of the columns.
+   */
+  private final List<String> columnNames;
+
+  /**
+   * How long data is kept, in milliseconds.
+   */
+  private final long retention;
+
+  /**
+   * Directory for spill files, can be {@code null}.
+   */
+  private final File spillDirectory;
+
+  /**
+   * The number of segments kept in memory for each entity.
+   */
+  private final int numberMemorySegments;
+
+  /**
+   * The layout of the segments.
+   */
+  private final SegmentLayout layout;
+
+  /**
+   * The spill, {@code null} if there is no spill directory or the store isn't
+   * running.
+   */
+  private SegmentSpill spill;
+
+  /**
+   * The time series for each entity, keyed by entity ID.
+   */
+  private final ConcurrentMap<String, EntityTimeSeries> entities = Maps.newConcurrentMap();
+
+  /**
+   * The latest timestamp stored for any entity.
+   */
+  private final AtomicLong latestTimestamp = new AtomicLong(Long.MIN_VALUE);
+
+  /**
+   * The latest timestamp at which all entities are next checked for expired
+   * data.
+   */
+  private final AtomicLong nextExpirySweep = new AtomicLong(Long.MIN_VALUE);
+
+  /**
+   * The logger to use.
+   */
+  private final Log log;
+
+  /**
+   * Construct a new store.
+   *
+   * @param name
+   *          name of the store
+   * @param columnNames
+   *          names of the columns
+   * @param retention
+   *          how long data is kept, in milliseconds, {@code 0} or less keeps
+   *          data until it is pushed out of memory and the spill
+   * @param spillDirectory
+   *          directory for spill files, can be {@code null}
+   * @param segmentSize
+   *          the size of a segment, in bytes
+   * @param numberMemorySegments
+   *          the number of segments kept in memory for each entity
+   * @param log
+   *          the logger to use
+   */
+  public OffHeapTimeSeriesStore(String name, List<String> columnNames, long retention, File spillDirectory,
+      int segmentSize, int numberMemorySegments, Log log) {
+    if (numberMemorySegments < 1) {
+      throw new SimpleInteractiveSpacesException(String.format(
+          "Time series store %s needs at least one segment in memory", name));
+    }
+
+    this.name = name;
+    this.columnNames = ImmutableList.copyOf(columnNames);
+    this.retention = retention;
+    this.spillDirectory = spillDirectory;
+    this.numberMemorySegments = numberMemorySegments;
+    this.log = log;
+
+    layout = new SegmentLayout(segmentSize, columnNames.size());
+  }
+
+  @Override
+  public synchronized void startup() {
+    if (spillDirectory != null) {
+      spill = new SegmentSpill(spillDirectory, name, layout.getSegmentSize(), log);
+    }
+  }
+
+  @Override
+  public synchronized void shutdown() {
+    for (EntityTimeSeries entity : entities.values()) {
+      entity.close();
+    }
+    entities.clear();
+
+    if (spill != null) {
+      spill.close();
+      spill = null;
+    }
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public List<String> getColumnNames() {
+    return columnNames;
+  }
+
+  @Override
+  public boolean append(String entityId, long timestamp, double[] values) {
+    if (values.length != columnNames.size()) {
+      throw new SimpleInteractiveSpacesException(String.format(
+          "Time series store %s has %d columns, point for entity %s has %d values", name, columnNames.size(),
+          entityId, values.length));
+    }
+
+    EntityTimeSeries entity = entities.get(entityId);
+    if (entity == null) {
+      EntityTimeSeries newEntity;
+      synchronized (this) {
+        newEntity = new EntityTimeSeries(layout, numberMemorySegments, spill);
+      }
+      entity = entities.putIfAbsent(entityId, newEntity);
+      if (entity == null) {
+        entity = newEntity;
+      }
+    }
+
+    boolean stored = entity.append(timestamp, values, retention);
+    if (stored) {
+      if (retention > 0) {
+        StatisticsUtils.updateMaximum(latestTimestamp, timestamp);
+        sweepExpired();
+      }
+    } else if (log.isDebugEnabled()) {
+      log.debug(String.format("Time series store %s dropped out of order point for entity %s at %d", name,
+          entityId, timestamp));
+    }
+
+    return stored;
+  }
+
+  @Override
+  public Set<String> getEntityIds() {
+    return ImmutableSet.copyOf(entities.keySet());
+  }
+
+  @Override
+  public int query(String entityId, long from, long to, TimeSeriesVisitor visitor) {
+    EntityTimeSeries entity = entities.get(entityId);
+    if (entity == null) {
+      return 0;
+    }
+
+    return entity.query(from, to, new SegmentReader(layout), visitor);
+  }
+
+  @Override
+  public int queryDownsampled(String entityId, long from, long to, long interval, TimeSeriesVisitor visitor) {
+    if (interval <= 0) {
+      throw new SimpleInteractiveSpacesException(String.format(
+          "Time series downsampling interval must be positive, was %d", interval));
+    }
+
+    EntityTimeSeries entity = entities.get(entityId);
+    if (entity == null) {
+      return 0;
+    }
+
+    DownsamplingVisitor downsampler = new DownsamplingVisitor(columnNames.size(), interval, visitor);
+    entity.query(from, to, new SegmentReader(layout), downsampler);
+    downsampler.flush();
+
+    return downsampler.getNumberVisited();
+  }
+
+  @Override
+  public long[] getTimeRange(String entityId) {
+    EntityTimeSeries entity = entities.get(entityId);
+    if (entity == null) {
+      return null;
+    }
+
+    return entity.getTimeRange();
+  }
+
+  @Override
+  public long getStorageSize() {
+    long size = 0;
+    for (EntityTimeSeries entity : entities.values()) {
+      size += entity.getStorageSize();
+    }
+
+    return size;
+  }
+
+  /**
+   * Drop expired data from all entities if a sweep is due.
+   *
+   * <p>
+   * Entities only expire their own data when they get a point. Without a
+   * sweep, an entity which stopped getting points would keep its segments, and
+   * the spill files they share with other entities, until shutdown.
+   */
+  private void sweepExpired() {
+    long latest = latestTimestamp.get();
+    long next = nextExpirySweep.get();
+    if (latest >= next
+        && nextExpirySweep.compareAndSet(next, latest + Math.max(1, retention / EXPIRY_SWEEPS_PER_RETENTION))) {
+      long cutoff = latest - retention;
+      for (EntityTimeSeries entity : entities.values()) {
+        entity.expire(cutoff);
+      }
+    }
+  }
+
+  /**
+   * A visitor which averages the points it is given over fixed intervals and
+   * passes the averages on.
+   *
+   * @author agent
+   */
+  private static class DownsamplingVisitor implements TimeSeriesVisitor {
+
+    /**
+     * Length of the intervals.
+     */
+    private final long interval;
+
+    /**
+     * The visitor for the averaged points.
+     */
+    private final TimeSeriesVisitor delegate;
+
+    /**
+     * Sums of the column values in the current interval.
+     */
+    private final double[] sums;
+
+    /**
+     * The averages handed to the delegate.
+     */
+    private final double[] averages;
+
+    /**
+     * Start of the current interval.
+     */
+    private long intervalStart;
+
+    /**
+     * Number of points in the current interval.
+     */
+    private int numberPoints;
+
+    /**
+     * Number of averaged points handed to the delegate.
+     */
+    private int numberVisited;
+
+    /**
+     * Construct a new downsampling visitor.
+     *
+     * @param columnCount
+     *          the number of columns
+     * @param interval
+     *          length of the intervals
+     * @param delegate
+     *          the visitor for the averaged points
+     */
+    public DownsamplingVisitor(int columnCount, long interval, TimeSeriesVisitor delegate) {
+      this.interval = interval;
+      this.delegate = delegate;
+
+      sums = new double[columnCount];
+      averages = new double[columnCount];
+    }
+
+    @Override
+    public void onPoint(long timestamp, double[] values) {
+      long start = timestamp - mod(timestamp, interval);
+      if (numberPoints > 0 && start != intervalStart) {
+        flush();
+      }
+
+      intervalStart = start;
+      numberPoints++;
+      for (int column = 0; column < sums.length; column++) {
+        sums[column] += values[column];
+      }
+    }
+
+    /**
+     * Pass the average of the current interval on, if there is one.
+     */
+    public void flush() {
+      if (numberPoints == 0) {
+        return;
+      }
+
+      for (int column = 0; column < sums.length; column++) {
+        averages[column] = sums[column] / numberPoints;
+        sums[column] = 0;
+      }
+      numberPoints = 0;
+
+      delegate.onPoint(intervalStart, averages);
+      numberVisited++;
+    }
+
+    /**
+     * @return number of averaged points handed to the delegate
+     */
+    public int getNumberVisited() {
+      return numberVisited;
+    }
+
+    /**
+     * Get the non-negative remainder of a division.
+     *
+     * @param value
+     *          the dividend
+     * @param divisor
+     *          the divisor, must be positive
+     *
+     * @return the remainder
+     */
+    private static long mod(long value, long divisor) {
+      long remainder = value % divisor;
+
+      return remainder < 0 ? remainder + divisor : remainder;
+    }
+  }
+}
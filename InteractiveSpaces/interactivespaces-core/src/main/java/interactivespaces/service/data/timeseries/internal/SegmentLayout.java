@@ -0,0 +1,418 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.data.timeseries.internal;
+
+import interactivespaces.SimpleInteractiveSpacesException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The layout of a compressed time series segment.
+ *
+ * <p>
+ * A segment is a fixed-size block of bytes. It starts with a header giving
+ * the number of points, the first and last timestamps, and the length in bits
+ * of each of the compressed streams. The rest of the segment is split between
+ * one stream for the timestamps and one stream per column, the column streams
+ * getting twice the room of the timestamp stream.
+ *
+ * <p>
+ * Since a segment carries everything needed to decode it, it can be moved
+ * from memory to a spill file with a straight byte copy.
+ *
+ * @author agent
+ */
+final class SegmentLayout {
+
+  /**
+   * The magic number at the start of every segment.
+   */
+  public static final int MAGIC = 0x49535453;
+
+  /**
+   * Offset of the magic number in the header.
+   */
+  public static final int OFFSET_MAGIC = 0;
+
+  /**
+   * Offset of the point count in the header.
+   */
+  public static final int OFFSET_POINT_COUNT = 4;
+
+  /**
+   * Offset of the first timestamp in the header.
+   */
+  public static final int OFFSET_FIRST_TIMESTAMP = 8;
+
+  /**
+   * Offset of the last timestamp in the header.
+   */
+  public static final int OFFSET_LAST_TIMESTAMP = 16;
+
+  /**
+   * Offset of the column count in the header.
+   */
+  public static final int OFFSET_COLUMN_COUNT = 24;
+
+  /**
+   * Offset of the stream bit lengths in the header. The timestamp stream comes
+   * first, followed by the column streams.
+   */
+  public static final int OFFSET_STREAM_LENGTHS = 32;
+
+  /**
+   * The most bits a single timestamp can take in its stream.
+   */
+  public static final int TIMESTAMP_BITS_MAX = 4 + 64;
+
+  /**
+   * The most bits a single value can take in its stream.
+   */
+  public static final int VALUE_BITS_MAX = 2 + 5 + 6 + 64;
+
+  /**
+   * The largest segment size supported, in bytes. Bit positions must fit in an
+   * {@code int}.
+   */
+  public static final int SEGMENT_SIZE_MAX = 128 * 1024 * 1024;
+
+  /**
+   * Size of a segment, in bytes.
+   */
+  private final int segmentSize;
+
+  /**
+   * Number of columns in a point.
+   */
+  private final int columnCount;
+
+  /**
+   * Size of the header, in bytes.
+   */
+  private final int headerSize;
+
+  /**
+   * Byte offsets of the streams from the start of the segment.
+   */
+  private final int[] streamOffsets;
+
+  /**
+   * Capacity of the streams, in bits.
+   */
+  private final int[] streamCapacities;
+
+  /**
+   * Construct a new layout.
+   *
+   * @param segmentSize
+   *          size of a segment, in bytes
+   * @param columnCount
+   *          number of columns in a point
+   */
+  public SegmentLayout(int segmentSize, int columnCount) {
+    if (columnCount < 1) {
+      throw new SimpleInteractiveSpacesException("A time series needs at least one column");
+    }
+    if (segmentSize > SEGMENT_SIZE_MAX) {
+      throw new SimpleInteractiveSpacesException(String.format(
+          "Time series segment size %d is larger than the maximum of %d", segmentSize, SEGMENT_SIZE_MAX));
+    }
+
+    this.segmentSize = segmentSize;
+    this.columnCount = columnCount;
+
+    int numberStreams = columnCount + 1;
+    headerSize = align(OFFSET_STREAM_LENGTHS + numberStreams * 4);
+
+    int units = 1 + 2 * columnCount;
+    int unitSize = ((segmentSize - headerSize) / units) & ~7;
+    if (unitSize * 8 < 2 * VALUE_BITS_MAX) {
+      throw new SimpleInteractiveSpacesException(String.format(
+          "Time series segment size %d is too small for %d columns", segmentSize, columnCount));
+    }
+
+    streamOffsets = new int[numberStreams];
+    streamCapacities = new int[numberStreams];
+    streamOffsets[0] = headerSize;
+    streamCapacities[0] = unitSize * 8;
+    for (int column = 0; column < columnCount; column++) {
+      streamOffsets[column + 1] = headerSize + unitSize * (1 + 2 * column);
+      streamCapacities[column + 1] = 2 * unitSize * 8;
+    }
+  }
+
+  /**
+   * @return size of a segment, in bytes
+   */
+  public int getSegmentSize() {
+    return segmentSize;
+  }
+
+  /**
+   * @return number of columns in a point
+   */
+  public int getColumnCount() {
+    return columnCount;
+  }
+
+  /**
+   * Get the byte offset of a stream from the start of the segment.
+   *
+   * @param stream
+   *          the stream, {@code 0} is the timestamp stream and column streams
+   *          follow
+   *
+   * @return the offset of the stream
+   */
+  public int getStreamOffset(int stream) {
+    return streamOffsets[stream];
+  }
+
+  /**
+   * Get the capacity of a stream.
+   *
+   * @param stream
+   *          the stream, {@code 0} is the timestamp stream and column streams
+   *          follow
+   *
+   * @return the capacity of the stream, in bits
+   */
+  public int getStreamCapacity(int stream) {
+    return streamCapacities[stream];
+  }
+
+  /**
+   * Check that a segment was written with this layout.
+   *
+   * @param buffer
+   *          buffer holding the segment
+   * @param base
+   *          offset of the segment in the buffer
+   *
+   * @throws SimpleInteractiveSpacesException
+   *           the segment is not valid for this layout
+   */
+  public void checkSegment(ByteBuffer buffer, int base) throws SimpleInteractiveSpacesException {
+    if (buffer.getInt(base + OFFSET_MAGIC) != MAGIC) {
+      throw new SimpleInteractiveSpacesException("Time series segment has a bad magic number");
+    }
+    if (buffer.getInt(base + OFFSET_COLUMN_COUNT) != columnCount) {
+      throw new SimpleInteractiveSpacesException(String.format(
+          "Time series segment has %d columns, expected %d", buffer.getInt(base + OFFSET_COLUMN_COUNT),
+          columnCount));
+    }
+  }
+
+  /**
+   * Get the number of points in a segment.
+   *
+   * @param buffer
+   *          buffer holding the segment
+   * @param base
+   *          offset of the segment in the buffer
+   *
+   * @return the number of points
+   */
+  public int getPointCount(ByteBuffer buffer, int base) {
+    return buffer.getInt(base + OFFSET_POINT_COUNT);
+  }
+
+  /**
+   * Get the timestamp of the first point in a segment.
+   *
+   * @param buffer
+   *          buffer holding the segment
+   * @param base
+   *          offset of the segment in the buffer
+   *
+   * @return the first timestamp
+   */
+  public long getFirstTimestamp(ByteBuffer buffer, int base) {
+    return buffer.getLong(base + OFFSET_FIRST_TIMESTAMP);
+  }
+
+  /**
+   * Get the timestamp of the last point in a segment.
+   *
+   * @param buffer
+   *          buffer holding the segment
+   * @param base
+   *          offset of the segment in the buffer
+   *
+   * @return the last timestamp
+   */
+  public long getLastTimestamp(ByteBuffer buffer, int base) {
+    return buffer.getLong(base + OFFSET_LAST_TIMESTAMP);
+  }
+
+  /**
+   * Get the length of a stream in a segment.
+   *
+   * @param buffer
+   *          buffer holding the segment
+   * @param base
+   *          offset of the segment in the buffer
+   * @param stream
+   *          the stream, {@code 0} is the timestamp stream and column streams
+   *          follow
+   *
+   * @return the length of the stream, in bits
+   */
+  public int getStreamLength(ByteBuffer buffer, int base, int stream) {
+    return buffer.getInt(base + OFFSET_STREAM_LENGTHS + stream * 4);
+  }
+
+  /**
+   * Get the number of bytes of a segment which actually hold data.
+   *
+   * @param buffer
+   *          buffer holding the segment
+   * @param base
+   *          offset of the segment in the buffer
+   *
+   * @return the compressed size of the segment, in bytes
+   */
+  public int getCompressedSize(ByteBuffer buffer, int base) {
+    int size = headerSize;
+    for (int stream = 0; stream <= columnCount; stream++) {
+      size += (getStreamLength(buffer, base, stream) + 7) >>> 3;
+    }
+
+    return size;
+  }
+
+  /**
+   * Copy the parts of a segment which hold data into a new heap buffer.
+   *
+   * <p>
+   * The copy can be decoded while the original is reused.
+   *
+   * @param buffer
+   *          buffer holding the segment
+   * @param base
+   *          offset of the segment in the buffer
+   *
+   * @return the copy, with the segment at offset {@code 0}
+   */
+  public ByteBuffer copySegment(ByteBuffer buffer, int base) {
+    ByteBuffer copy = ByteBuffer.allocate(segmentSize);
+    copyRange(buffer, base, copy, 0, headerSize);
+    for (int stream = 0; stream <= columnCount; stream++) {
+      int length = (getStreamLength(buffer, base, stream) + 7) >>> 3;
+      copyRange(buffer, base + streamOffsets[stream], copy, streamOffsets[stream], length);
+    }
+
+    return copy;
+  }
+
+  /**
+   * Write bits into a stream.
+   *
+   * <p>
+   * The stream must have been zeroed before anything was written into it.
+   *
+   * @param buffer
+   *          the buffer holding the stream
+   * @param offset
+   *          byte offset of the stream in the buffer
+   * @param position
+   *          the bit position in the stream to write at
+   * @param value
+   *          the bits to write, in the low order bits of the value
+   * @param numberBits
+   *          the number of bits to write
+   */
+  public static void writeBits(ByteBuffer buffer, int offset, int position, long value, int numberBits) {
+    while (numberBits > 0) {
+      int index = offset + (position >>> 3);
+      int bitOffset = position & 7;
+      int take = Math.min(8 - bitOffset, numberBits);
+      int chunk = (int) (value >>> (numberBits - take)) & ((1 << take) - 1);
+      buffer.put(index, (byte) (buffer.get(index) | (chunk << (8 - bitOffset - take))));
+
+      position += take;
+      numberBits -= take;
+    }
+  }
+
+  /**
+   * Read bits from a stream.
+   *
+   * @param buffer
+   *          the buffer holding the stream
+   * @param offset
+   *          byte offset of the stream in the buffer
+   * @param position
+   *          the bit position in the stream to read from
+   * @param numberBits
+   *          the number of bits to read
+   *
+   * @return the bits read, in the low order bits of the value
+   */
+  public static long readBits(ByteBuffer buffer, int offset, int position, int numberBits) {
+    long value = 0;
+    while (numberBits > 0) {
+      int index = offset + (position >>> 3);
+      int bitOffset = position & 7;
+      int take = Math.min(8 - bitOffset, numberBits);
+      int chunk = ((buffer.get(index) & 0xff) >>> (8 - bitOffset - take)) & ((1 << take) - 1);
+      value = (value << take) | chunk;
+
+      position += take;
+      numberBits -= take;
+    }
+
+    return value;
+  }
+
+  /**
+   * Round a size up to a multiple of 8.
+   *
+   * @param size
+   *          the size
+   *
+   * @return the aligned size
+   */
+  private static int align(int size) {
+    return (size + 7) & ~7;
+  }
+
+  /**
+   * Copy bytes from one buffer to another without changing either buffer's
+   * position.
+   *
+   * @param source
+   *          the buffer to copy from
+   * @param sourceOffset
+   *          offset of the bytes in the source
+   * @param destination
+   *          the buffer to copy to
+   * @param destinationOffset
+   *          offset to copy the bytes to in the destination
+   * @param length
+   *          the number of bytes to copy
+   */
+  private static void copyRange(ByteBuffer source, int sourceOffset, ByteBuffer destination,
+      int destinationOffset, int length) {
+    ByteBuffer from = source.duplicate();
+    from.limit(sourceOffset + length);
+    from.position(sourceOffset);
+    ByteBuffer to = destination.duplicate();
+    to.position(destinationOffset);
+    to.put(from);
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.data.timeseries.internal;
+
+import interactivespaces.service.data.timeseries.TimeSeriesVisitor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes the points of a compressed time series segment written by a
+ * {@link SegmentWriter}.
+ *
+ * <p>
+ * A reader holds the decoder state for one segment at a time and is not
+ * thread safe.
+ *
+ * @author agent
+ */
+final class SegmentReader {
+
+  /**
+   * The layout of the segments.
+   */
+  private final SegmentLayout layout;
+
+  /**
+   * Current bit position in each stream.
+   */
+  private final int[] positions;
+
+  /**
+   * The bits of the last value read for each column.
+   */
+  private final long[] lastValues;
+
+  /**
+   * The leading zero count of the current XOR window for each column.
+   */
+  private final int[] leadingZeros;
+
+  /**
+   * The trailing zero count of the current XOR window for each column.
+   */
+  private final int[] trailingZeros;
+
+  /**
+   * The values handed to visitors.
+   */
+  private final double[] values;
+
+  /**
+   * The buffer holding the segment being read.
+   */
+  private ByteBuffer buffer;
+
+  /**
+   * Offset of the segment being read in its buffer.
+   */
+  private int base;
+
+  /**
+   * Construct a new reader.
+   *
+   * @param layout
+   *          the layout of the segments
+   */
+  public SegmentReader(SegmentLayout layout) {
+    this.layout = layout;
+
+    int columnCount = layout.getColumnCount();
+    positions = new int[columnCount + 1];
+    lastValues = new long[columnCount];
+    leadingZeros = new int[columnCount];
+    trailingZeros = new int[columnCount];
+    values = new double[columnCount];
+  }
+
+  /**
+   * Visit all points of a segment in a time range.
+   *
+   * @param buffer
+   *          the buffer holding the segment
+   * @param base
+   *          offset of the segment in the buffer
+   * @param from
+   *          start of the range, inclusive
+   * @param to
+   *          end of the range, inclusive
+   * @param visitor
+   *          the visitor for the points
+   *
+   * @return the number of points visited
+   */
+  public int read(ByteBuffer buffer, int base, long from, long to, TimeSeriesVisitor visitor) {
+    layout.checkSegment(buffer, base);
+
+    this.buffer = buffer;
+    this.base = base;
+
+    int pointCount = layout.getPointCount(buffer, base);
+    long timestamp = layout.getFirstTimestamp(buffer, base);
+    long delta = 0;
+
+    for (int stream = 0; stream < positions.length; stream++) {
+      positions[stream] = 0;
+    }
+
+    int numberVisited = 0;
+    for (int point = 0; point < pointCount; point++) {
+      if (point > 0) {
+        delta += readDeltaOfDelta();
+        timestamp += delta;
+      }
+      if (timestamp > to) {
+        break;
+      }
+
+      for (int column = 0; column < values.length; column++) {
+        values[column] = Double.longBitsToDouble(point > 0 ? readValue(column) : readFirstValue(column));
+      }
+
+      if (timestamp >= from) {
+        visitor.onPoint(timestamp, values);
+        numberVisited++;
+      }
+    }
+
+    this.buffer = null;
+
+    return numberVisited;
+  }
+
+  /**
+   * Read a timestamp delta-of-delta from the timestamp stream.
+   *
+   * @return the delta-of-delta
+   */
+  private long readDeltaOfDelta() {
+    if (read(0, 1) == 0) {
+      return 0;
+    } else if (read(0, 1) == 0) {
+      return read(0, 7) - 63;
+    } else if (read(0, 1) == 0) {
+      return read(0, 9) - 255;
+    } else if (read(0, 1) == 0) {
+      return read(0, 12) - 2047;
+    } else {
+      return read(0, 64);
+    }
+  }
+
+  /**
+   * Read the uncompressed first value of a column.
+   *
+   * @param column
+   *          the column
+   *
+   * @return the bits of the value
+   */
+  private long readFirstValue(int column) {
+    long bits = read(column + 1, 64);
+    lastValues[column] = bits;
+    leadingZeros[column] = 0;
+    trailingZeros[column] = 0;
+
+    return bits;
+  }
+
+  /**
+   * Read the next value of a column.
+   *
+   * @param column
+   *          the column
+   *
+   * @return the bits of the value
+   */
+  private long readValue(int column) {
+    int stream = column + 1;
+    if (read(stream, 1) == 0) {
+      return lastValues[column];
+    }
+
+    if (read(stream, 1) == 1) {
+      leadingZeros[column] = (int) read(stream, 5);
+      int meaningfulBits = (int) read(stream, 6) + 1;
+      trailingZeros[column] = 64 - leadingZeros[column] - meaningfulBits;
+    }
+
+    int trailing = trailingZeros[column];
+    long xor = read(stream, 64 - leadingZeros[column] - trailing) << trailing;
+    long bits = lastValues[column] ^ xor;
+    lastValues[column] = bits;
+
+    return bits;
+  }
+
+  /**
+   * Read bits from a stream.
+   *
+   * @param stream
+   *          the stream
+   * @param numberBits
+   *          the number of bits to read
+   *
+   * @return the bits read
+   */
+  private long read(int stream, int numberBits) {
+    long value =
+        SegmentLayout.readBits(buffer, base + layout.getStreamOffset(stream), positions[stream], numberBits);
+    positions[stream] += numberBits;
+
+    return value;
+  }
+}
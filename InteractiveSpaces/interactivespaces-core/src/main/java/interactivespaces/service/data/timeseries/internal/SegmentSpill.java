@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.data.timeseries.internal;
+
+import interactivespaces.util.io.FileSupport;
+import interactivespaces.util.io.FileSupportImpl;
+
+import com.google.common.collect.Lists;
+
+import org.apache.commons.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.List;
+
+/**
+ * Memory-mapped files holding the time series segments which no longer fit in
+ * memory.
+ *
+ * <p>
+ * Each file has a fixed number of segment slots which are filled in order.
+ * Segments of all entities of a store share the files. A file is deleted once
+ * it is full and all of its segments have been released.
+ *
+ * <p>
+ * The files are working storage for a running store. They are deleted when
+ * the spill is closed and are not read back in when a store starts.
+ *
+ * @author agent
+ */
+final class SegmentSpill {
+
+  /**
+   * The most segment slots in a spill file. Files are kept under 2 GB, so
+   * large segments get fewer slots.
+   */
+  public static final int SLOTS_PER_FILE_MAX = 64;
+
+  /**
+   * The file extension for spill files.
+   */
+  public static final String SPILL_FILE_EXTENSION = ".spill";
+
+  /**
+   * The directory the spill files are in.
+   */
+  private final File directory;
+
+  /**
+   * The prefix for the names of the spill files.
+   */
+  private final String filePrefix;
+
+  /**
+   * Size of a segment, in bytes.
+   */
+  private final int segmentSize;
+
+  /**
+   * The number of segment slots in a spill file.
+   */
+  private final int slotsPerFile;
+
+  /**
+   * All files which still have live segments, including the one being filled.
+   */
+  private final List<SpillFile> files = Lists.newArrayList();
+
+  /**
+   * The file currently being filled, if any.
+   */
+  private SpillFile currentFile;
+
+  /**
+   * Number for the next spill file.
+   */
+  private int nextFileNumber;
+
+  /**
+   * The logger to use.
+   */
+  private final Log log;
+
+  /**
+   * The file support to use.
+   */
+  private final FileSupport fileSupport = FileSupportImpl.INSTANCE;
+
+  /**
+   * Construct a new spill.
+   *
+   * @param directory
+   *          the directory for the spill files, will be created if it doesn't
+   *          exist
+   * @param filePrefix
+   *          the prefix for the names of the spill files
+   * @param segmentSize
+   *          size of a segment, in bytes
+   * @param log
+   *          the logger to use
+   */
+  public SegmentSpill(File directory, String filePrefix, int segmentSize, Log log) {
+    this.directory = directory;
+    this.filePrefix = filePrefix;
+    this.segmentSize = segmentSize;
+    this.log = log;
+
+    slotsPerFile = Math.max(1, Math.min(SLOTS_PER_FILE_MAX, Integer.MAX_VALUE / segmentSize));
+
+    fileSupport.directoryExists(directory);
+  }
+
+  /**
+   * Copy a segment into the spill.
+   *
+   * @param segment
+   *          buffer holding the segment, the whole buffer is copied
+   * @param layout
+   *          the layout of the segment
+   *
+   * @return the spilled segment, or {@code null} if it could not be written
+   */
+  public synchronized SpilledSegment write(ByteBuffer segment, SegmentLayout layout) {
+    try {
+      if (currentFile == null || currentFile.nextSlot == slotsPerFile) {
+        currentFile = newSpillFile();
+        files.add(currentFile);
+      }
+
+      int base = currentFile.nextSlot * segmentSize;
+      ByteBuffer source = segment.duplicate();
+      source.clear();
+      ByteBuffer destination = currentFile.buffer.duplicate();
+      destination.position(base);
+      destination.put(source);
+
+      currentFile.nextSlot++;
+      currentFile.numberLiveSegments++;
+
+      return new SpilledSegment(currentFile.buffer, base, currentFile, layout.getFirstTimestamp(segment, 0),
+          layout.getLastTimestamp(segment, 0), layout.getCompressedSize(segment, 0));
+    } catch (IOException e) {
+      log.error(String.format("Could not spill time series segment to %s, dropping it", directory), e);
+
+      return null;
+    }
+  }
+
+  /**
+   * Release a spilled segment. Its slot is not reused.
+   *
+   * @param segment
+   *          the segment to release
+   */
+  public synchronized void release(SpilledSegment segment) {
+    SpillFile file = segment.getFile();
+    file.numberLiveSegments--;
+    if (file.numberLiveSegments == 0 && file != currentFile) {
+      files.remove(file);
+      deleteFile(file);
+    }
+  }
+
+  /**
+   * Close the spill and delete all of its files.
+   */
+  public synchronized void close() {
+    for (SpillFile file : files) {
+      deleteFile(file);
+    }
+    files.clear();
+    currentFile = null;
+  }
+
+  /**
+   * Create a new spill file and map it into memory.
+   *
+   * @return the new file
+   *
+   * @throws IOException
+   *           the file could not be created
+   */
+  private SpillFile newSpillFile() throws IOException {
+    File file = fileSupport.newFile(directory, filePrefix + "-" + nextFileNumber++ + SPILL_FILE_EXTENSION);
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+    try {
+      // The mapping stays valid after the channel is closed.
+      MappedByteBuffer buffer =
+          randomAccessFile.getChannel().map(MapMode.READ_WRITE, 0, (long) slotsPerFile * segmentSize);
+
+      return new SpillFile(file, buffer);
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+
+  /**
+   * Delete a spill file.
+   *
+   * <p>
+   * The mapping is released when the buffer is garbage collected.
+   *
+   * @param file
+   *          the file to delete
+   */
+  private void deleteFile(SpillFile file) {
+    if (!file.file.delete()) {
+      log.warn(String.format("Could not delete time series spill file %s", file.file));
+    }
+  }
+
+  /**
+   * A memory-mapped spill file.
+   *
+   * @author agent
+   */
+  static final class SpillFile {
+
+    /**
+     * The file.
+     */
+    private final File file;
+
+    /**
+     * The mapping of the file.
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The next free slot.
+     */
+    private int nextSlot;
+
+    /**
+     * The number of segments in the file which have not been released.
+     */
+    private int numberLiveSegments;
+
+    /**
+     * Construct a new spill file.
+     *
+     * @param file
+     *          the file
+     * @param buffer
+     *          the mapping of the file
+     */
+    private SpillFile(File file, MappedByteBuffer buffer) {
+      this.file = file;
+      this.buffer = buffer;
+    }
+  }
+}
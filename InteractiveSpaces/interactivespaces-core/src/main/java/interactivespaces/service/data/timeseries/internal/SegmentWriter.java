@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.data.timeseries.internal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Appends points to a compressed time series segment.
+ *
+ * <p>
+ * Timestamps are stored as delta-of-deltas in variable sized buckets and
+ * column values are XORed against the previous value of the column, so
+ * regularly sampled, slowly changing telemetry takes a few bits a point.
+ *
+ * <p>
+ * The writer keeps the encoder state for one segment at a time. The header of
+ * the segment is kept current after every append so the segment can be read
+ * while it is still being written.
+ *
+ * @author agent
+ */
+final class SegmentWriter {
+
+  /**
+   * The layout of the segments.
+   */
+  private final SegmentLayout layout;
+
+  /**
+   * The buffer holding the current segment.
+   */
+  private ByteBuffer buffer;
+
+  /**
+   * Offset of the current segment in its buffer.
+   */
+  private int base;
+
+  /**
+   * Number of points in the current segment.
+   */
+  private int pointCount;
+
+  /**
+   * The last timestamp written.
+   */
+  private long lastTimestamp;
+
+  /**
+   * The last timestamp delta written.
+   */
+  private long lastDelta;
+
+  /**
+   * Current length of each stream, in bits.
+   */
+  private final int[] streamLengths;
+
+  /**
+   * The bits of the last value written for each column.
+   */
+  private final long[] lastValues;
+
+  /**
+   * The leading zero count of the last stored XOR window for each column, or
+   * {@code -1} if there is no window yet.
+   */
+  private final int[] lastLeadingZeros;
+
+  /**
+   * The trailing zero count of the last stored XOR window for each column.
+   */
+  private final int[] lastTrailingZeros;
+
+  /**
+   * Construct a new writer.
+   *
+   * @param layout
+   *          the layout of the segments
+   */
+  public SegmentWriter(SegmentLayout layout) {
+    this.layout = layout;
+
+    int columnCount = layout.getColumnCount();
+    streamLengths = new int[columnCount + 1];
+    lastValues = new long[columnCount];
+    lastLeadingZeros = new int[columnCount];
+    lastTrailingZeros = new int[columnCount];
+  }
+
+  /**
+   * Start a new segment with its first point.
+   *
+   * <p>
+   * The segment is cleared before anything is written.
+   *
+   * @param buffer
+   *          the buffer for the segment
+   * @param base
+   *          offset of the segment in the buffer
+   * @param timestamp
+   *          timestamp of the first point
+   * @param values
+   *          column values of the first point
+   */
+  public void start(ByteBuffer buffer, int base, long timestamp, double[] values) {
+    this.buffer = buffer;
+    this.base = base;
+
+    int segmentSize = layout.getSegmentSize();
+    for (int i = 0; i < segmentSize; i += 8) {
+      buffer.putLong(base + i, 0L);
+    }
+
+    buffer.putInt(base + SegmentLayout.OFFSET_MAGIC, SegmentLayout.MAGIC);
+    buffer.putLong(base + SegmentLayout.OFFSET_FIRST_TIMESTAMP, timestamp);
+    buffer.putInt(base + SegmentLayout.OFFSET_COLUMN_COUNT, layout.getColumnCount());
+
+    pointCount = 1;
+    lastTimestamp = timestamp;
+    lastDelta = 0;
+    streamLengths[0] = 0;
+    for (int column = 0; column < lastValues.length; column++) {
+      long bits = Double.doubleToRawLongBits(values[column]);
+      streamLengths[column + 1] = 0;
+      write(column + 1, bits, 64);
+      lastValues[column] = bits;
+      lastLeadingZeros[column] = -1;
+      lastTrailingZeros[column] = 0;
+    }
+
+    updateHeader();
+  }
+
+  /**
+   * Is there guaranteed room in the current segment for another point?
+   *
+   * @return {@code true} if another point can be appended
+   */
+  public boolean hasRoom() {
+    if (streamLengths[0] + SegmentLayout.TIMESTAMP_BITS_MAX > layout.getStreamCapacity(0)) {
+      return false;
+    }
+    for (int stream = 1; stream < streamLengths.length; stream++) {
+      if (streamLengths[stream] + SegmentLayout.VALUE_BITS_MAX > layout.getStreamCapacity(stream)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Append a point to the current segment.
+   *
+   * <p>
+   * {@link #hasRoom()} must have been checked first and the timestamp must not
+   * be before the last timestamp.
+   *
+   * @param timestamp
+   *          timestamp of the point
+   * @param values
+   *          column values of the point
+   */
+  public void append(long timestamp, double[] values) {
+    long delta = timestamp - lastTimestamp;
+    writeDeltaOfDelta(delta - lastDelta);
+    lastDelta = delta;
+    lastTimestamp = timestamp;
+
+    for (int column = 0; column < lastValues.length; column++) {
+      writeValue(column, Double.doubleToRawLongBits(values[column]));
+    }
+
+    pointCount++;
+    updateHeader();
+  }
+
+  /**
+   * @return the buffer holding the current segment
+   */
+  public ByteBuffer getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * @return the last timestamp written
+   */
+  public long getLastTimestamp() {
+    return lastTimestamp;
+  }
+
+  /**
+   * Write a timestamp delta-of-delta into the timestamp stream.
+   *
+   * @param deltaOfDelta
+   *          the delta-of-delta
+   */
+  private void writeDeltaOfDelta(long deltaOfDelta) {
+    if (deltaOfDelta == 0) {
+      write(0, 0x0, 1);
+    } else if (deltaOfDelta >= -63 && deltaOfDelta <= 64) {
+      write(0, 0x2, 2);
+      write(0, deltaOfDelta + 63, 7);
+    } else if (deltaOfDelta >= -255 && deltaOfDelta <= 256) {
+      write(0, 0x6, 3);
+      write(0, deltaOfDelta + 255, 9);
+    } else if (deltaOfDelta >= -2047 && deltaOfDelta <= 2048) {
+      write(0, 0xe, 4);
+      write(0, deltaOfDelta + 2047, 12);
+    } else {
+      write(0, 0xf, 4);
+      write(0, deltaOfDelta, 64);
+    }
+  }
+
+  /**
+   * Write a value into the stream for its column.
+   *
+   * @param column
+   *          the column
+   * @param bits
+   *          the bits of the value
+   */
+  private void writeValue(int column, long bits) {
+    int stream = column + 1;
+    long xor = bits ^ lastValues[column];
+    lastValues[column] = bits;
+
+    if (xor == 0) {
+      write(stream, 0x0, 1);
+      return;
+    }
+
+    int leadingZeros = Math.min(Long.numberOfLeadingZeros(xor), 31);
+    int trailingZeros = Long.numberOfTrailingZeros(xor);
+    int lastLeading = lastLeadingZeros[column];
+    int lastTrailing = lastTrailingZeros[column];
+    if (lastLeading >= 0 && leadingZeros >= lastLeading && trailingZeros >= lastTrailing) {
+      write(stream, 0x2, 2);
+      write(stream, xor >>> lastTrailing, 64 - lastLeading - lastTrailing);
+    } else {
+      int meaningfulBits = 64 - leadingZeros - trailingZeros;
+      write(stream, 0x3, 2);
+      write(stream, leadingZeros, 5);
+      write(stream, meaningfulBits - 1, 6);
+      write(stream, xor >>> trailingZeros, meaningfulBits);
+
+      lastLeadingZeros[column] = leadingZeros;
+      lastTrailingZeros[column] = trailingZeros;
+    }
+  }
+
+  /**
+   * Write bits to the end of a stream.
+   *
+   * @param stream
+   *          the stream
+   * @param value
+   *          the bits to write
+   * @param numberBits
+   *          the number of bits to write
+   */
+  private void write(int stream, long value, int numberBits) {
+    SegmentLayout.writeBits(buffer, base + layout.getStreamOffset(stream), streamLengths[stream], value, numberBits);
+    streamLengths[stream] += numberBits;
+  }
+
+  /**
+   * Bring the header of the current segment up to date.
+   */
+  private void updateHeader() {
+    buffer.putInt(base + SegmentLayout.OFFSET_POINT_COUNT, pointCount);
+    buffer.putLong(base + SegmentLayout.OFFSET_LAST_TIMESTAMP, lastTimestamp);
+    for (int stream = 0; stream < streamLengths.length; stream++) {
+      buffer.putInt(base + SegmentLayout.OFFSET_STREAM_LENGTHS + stream * 4, streamLengths[stream]);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.data.timeseries.internal;
+
+import interactivespaces.service.BaseSupportedService;
+import interactivespaces.service.data.timeseries.TimeSeriesService;
+import interactivespaces.service.data.timeseries.TimeSeriesStore;
+
+import org.apache.commons.logging.Log;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * A {@link TimeSeriesService} which gives {@link OffHeapTimeSeriesStore}
+ * instances.
+ *
+ * @author agent
+ */
+public class SimpleTimeSeriesService extends BaseSupportedService implements TimeSeriesService {
+
+  @Override
+  public String getName() {
+    return TimeSeriesService.SERVICE_NAME;
+  }
+
+  @Override
+  public TimeSeriesStore newTimeSeriesStore(String name, List<String> columnNames, long retention,
+      File spillDirectory, Log log) {
+    return newTimeSeriesStore(name, columnNames, retention, spillDirectory, SEGMENT_SIZE_DEFAULT,
+        NUMBER_MEMORY_SEGMENTS_DEFAULT, log);
+  }
+
+  @Override
+  public TimeSeriesStore newTimeSeriesStore(String name, List<String> columnNames, long retention,
+      File spillDirectory, int segmentSize, int numberMemorySegments, Log log) {
+    return new OffHeapTimeSeriesStore(name, columnNames, retention, spillDirectory, segmentSize,
+        numberMemorySegments, log);
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.data.timeseries.internal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A time series segment which has been moved to a {@link SegmentSpill}.
+ *
+ * @author agent
+ */
+final class SpilledSegment {
+
+  /**
+   * The buffer holding the segment.
+   */
+  private final ByteBuffer buffer;
+
+  /**
+   * Offset of the segment in the buffer.
+   */
+  private final int base;
+
+  /**
+   * The spill file holding the segment.
+   */
+  private final SegmentSpill.SpillFile file;
+
+  /**
+   * Timestamp of the first point in the segment.
+   */
+  private final long firstTimestamp;
+
+  /**
+   * Timestamp of the last point in the segment.
+   */
+  private final long lastTimestamp;
+
+  /**
+   * Number of bytes of the segment which hold data.
+   */
+  private final int compressedSize;
+
+  /**
+   * Construct a new spilled segment.
+   *
+   * @param buffer
+   *          the buffer holding the segment
+   * @param base
+   *          offset of the segment in the buffer
+   * @param file
+   *          the spill file holding the segment
+   * @param firstTimestamp
+   *          timestamp of the first point in the segment
+   * @param lastTimestamp
+   *          timestamp of the last point in the segment
+   * @param compressedSize
+   *          number of bytes of the segment which hold data
+   */
+  SpilledSegment(ByteBuffer buffer, int base, SegmentSpill.SpillFile file, long firstTimestamp,
+      long lastTimestamp, int compressedSize) {
+    this.buffer = buffer;
+    this.base = base;
+    this.file = file;
+    this.firstTimestamp = firstTimestamp;
+    this.lastTimestamp = lastTimestamp;
+    this.compressedSize = compressedSize;
+  }
+
+  /**
+   * @return the buffer holding the segment
+   */
+  public ByteBuffer getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * @return offset of the segment in the buffer
+   */
+  public int getBase() {
+    return base;
+  }
+
+  /**
+   * @return the spill file holding the segment
+   */
+  SegmentSpill.SpillFile getFile() {
+    return file;
+  }
+
+  /**
+   * @return timestamp of the first point in the segment
+   */
+  public long getFirstTimestamp() {
+    return firstTimestamp;
+  }
+
+  /**
+   * @return timestamp of the last point in the segment
+   */
+  public long getLastTimestamp() {
+    return lastTimestamp;
+  }
+
+  /**
+   * @return number of bytes of the segment which hold data
+   */
+  public int getCompressedSize() {
+    return compressedSize;
+  }
+}
@@ -110,6 +110,29 @@ public interface InteractiveSpacesEnvironment {
    */
   String CONFIGURATION_PROVIDER_TIME_NTP_URL = "interactivespaces.provider.time.ntp.url";
 
+  /**
+   * Configuration property value which says the time provider should be
+   * synchronized to the time server run by the master.
+   *
+   * <p>
+   * The master only runs its time server when
+   * {@code interactivespaces.master.time.server.enable} is {@code true}.
+   */
+  String CONFIGURATION_VALUE_PROVIDER_TIME_MASTER = "master";
+
+  /**
+   * Configuration property giving the host of the master's time server.
+   *
+   * <p>
+   * Defaults to the host of the ROS master.
+   */
+  String CONFIGURATION_PROVIDER_TIME_MASTER_HOST = "interactivespaces.provider.time.master.host";
+
+  /**
+   * Configuration property giving the port of the master's time server.
+   */
+  String CONFIGURATION_PROVIDER_TIME_MASTER_PORT = "interactivespaces.provider.time.master.port";
+
   /**
    * Configuration property value which says what the default time provider
    * should be.
@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.time;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Disciplines a local clock to a reference clock from a series of offset
+ * measurements.
+ *
+ * <p>
+ * The offset to the reference clock is modeled as a line whose slope is the
+ * skew between the two clocks. The skew is estimated by a least squares fit over
+ * recent measurements. Small errors are corrected by slewing, that is the rate
+ * of the corrected clock is changed by a bounded amount until the error is
+ * used up, so corrected time never jumps and never runs backwards. Only errors
+ * larger than the step threshold, or the first measurement, step the clock.
+ *
+ * <p>
+ * All times are in nanoseconds on the local clock. Offsets are reference time
+ * minus local time.
+ *
+ * @author agent
+ */
+public class ClockDiscipline {
+
+  /**
+   * The default largest error, in nanoseconds, which will be slewed away.
+   */
+  public static final long STEP_THRESHOLD_DEFAULT = 128 * MonotonicWallClock.NANOSECONDS_PER_MILLISECOND;
+
+  /**
+   * The default maximum rate at which an error is slewed away, as a fraction of
+   * elapsed time.
+   */
+  public static final double SLEW_RATE_MAX_DEFAULT = 500e-6;
+
+  /**
+   * The largest skew which will be believed, as a fraction of elapsed time.
+   */
+  public static final double SKEW_MAX = 500e-6;
+
+  /**
+   * The number of measurements the skew is fit over.
+   */
+  public static final int NUMBER_SKEW_SAMPLES = 16;
+
+  /**
+   * The shortest span of measurements, in nanoseconds, the skew will be fit
+   * over.
+   */
+  public static final long SKEW_SPAN_MIN = 1000 * MonotonicWallClock.NANOSECONDS_PER_MILLISECOND;
+
+  /**
+   * Errors larger than this are stepped rather than slewed.
+   */
+  private final long stepThreshold;
+
+  /**
+   * The maximum rate at which an error is slewed away.
+   */
+  private final double slewRateMax;
+
+  /**
+   * The current model of the offset.
+   */
+  private volatile OffsetModel model;
+
+  /**
+   * Recent measurements, oldest first, as pairs of local time and offset.
+   */
+  private final Deque<long[]> samples = new ArrayDeque<long[]>();
+
+  /**
+   * Construct a discipline with the default thresholds.
+   */
+  public ClockDiscipline() {
+    this(STEP_THRESHOLD_DEFAULT, SLEW_RATE_MAX_DEFAULT);
+  }
+
+  /**
+   * Construct a discipline.
+   *
+   * @param stepThreshold
+   *          errors larger than this, in nanoseconds, are stepped rather than
+   *          slewed
+   * @param slewRateMax
+   *          the maximum rate at which an error is slewed away, as a fraction
+   *          of elapsed time
+   */
+  public ClockDiscipline(long stepThreshold, double slewRateMax) {
+    this.stepThreshold = stepThreshold;
+    this.slewRateMax = slewRateMax;
+  }
+
+  /**
+   * Add an offset measurement.
+   *
+   * @param localTime
+   *          the local time the measurement applies to, this should be as
+   *          close to the current local time as possible
+   * @param measuredOffset
+   *          the measured offset of the reference clock
+   *
+   * @return the error between the measurement and the offset which was being
+   *         used at that time, {@code 0} if this is the first measurement
+   */
+  public synchronized long update(long localTime, long measuredOffset) {
+    OffsetModel current = model;
+    if (current == null) {
+      step(localTime, measuredOffset);
+      return 0;
+    }
+
+    long predictedOffset = current.getOffset(localTime);
+    long error = measuredOffset - predictedOffset;
+    if (Math.abs(error) > stepThreshold) {
+      step(localTime, measuredOffset);
+      return error;
+    }
+
+    samples.addLast(new long[] { localTime, measuredOffset });
+    if (samples.size() > NUMBER_SKEW_SAMPLES) {
+      samples.removeFirst();
+    }
+    double skew = estimateSkew(current.skew);
+
+    // The new model starts where the old one was so the corrected time is
+    // continuous.
+    long slewDuration = (long) Math.ceil(Math.abs(error) / slewRateMax);
+    double slewRate = (slewDuration > 0) ? (double) error / slewDuration : 0.0;
+    model = new OffsetModel(localTime, predictedOffset, skew, slewRate, localTime + slewDuration);
+
+    return error;
+  }
+
+  /**
+   * Has there been at least one measurement?
+   *
+   * @return {@code true} if the offset is based on a measurement
+   */
+  public boolean isSynchronized() {
+    return model != null;
+  }
+
+  /**
+   * Get the offset to apply at a given local time.
+   *
+   * @param localTime
+   *          the local time
+   *
+   * @return the offset, {@code 0} if there have been no measurements
+   */
+  public long getOffset(long localTime) {
+    OffsetModel current = model;
+    if (current == null) {
+      return 0;
+    }
+
+    return current.getOffset(localTime);
+  }
+
+  /**
+   * Get the current estimate of the skew between the clocks.
+   *
+   * @return how fast the reference clock gains on the local clock, as a
+   *         fraction of elapsed time
+   */
+  public double getSkew() {
+    OffsetModel current = model;
+    return (current != null) ? current.skew : 0.0;
+  }
+
+  /**
+   * Forget all measurements.
+   */
+  public synchronized void reset() {
+    model = null;
+    samples.clear();
+  }
+
+  /**
+   * Jump straight to a measured offset, forgetting the measurement history.
+   *
+   * @param localTime
+   *          the local time of the measurement
+   * @param measuredOffset
+   *          the measured offset
+   */
+  private void step(long localTime, long measuredOffset) {
+    samples.clear();
+    samples.addLast(new long[] { localTime, measuredOffset });
+    model = new OffsetModel(localTime, measuredOffset, 0.0, 0.0, localTime);
+  }
+
+  /**
+   * Fit the skew to the recent measurements.
+   *
+   * @param currentSkew
+   *          the skew to use if there are not enough measurements
+   *
+   * @return the estimated skew
+   */
+  private double estimateSkew(double currentSkew) {
+    long firstTime = samples.getFirst()[0];
+    long lastTime = samples.getLast()[0];
+    if (samples.size() < 3 || lastTime - firstTime < SKEW_SPAN_MIN) {
+      return currentSkew;
+    }
+
+    // Work relative to the first sample to keep the sums well inside double
+    // precision.
+    long firstOffset = samples.getFirst()[1];
+    double meanTime = 0.0;
+    double meanOffset = 0.0;
+    for (long[] sample : samples) {
+      meanTime += sample[0] - firstTime;
+      meanOffset += sample[1] - firstOffset;
+    }
+    meanTime /= samples.size();
+    meanOffset /= samples.size();
+
+    double covariance = 0.0;
+    double variance = 0.0;
+    for (long[] sample : samples) {
+      double dt = sample[0] - firstTime - meanTime;
+      covariance += dt * (sample[1] - firstOffset - meanOffset);
+      variance += dt * dt;
+    }
+    if (variance == 0.0) {
+      return currentSkew;
+    }
+
+    return Math.max(-SKEW_MAX, Math.min(SKEW_MAX, covariance / variance));
+  }
+
+  /**
+   * A piecewise linear model of the offset, anchored at a reference local time.
+   *
+   * @author agent
+   */
+  private static final class OffsetModel {
+
+    /**
+     * The local time the model is anchored at.
+     */
+    private final long referenceTime;
+
+    /**
+     * The offset at the reference time.
+     */
+    private final long referenceOffset;
+
+    /**
+     * How fast the offset changes from the skew between the clocks.
+     */
+    private final double skew;
+
+    /**
+     * How fast the offset changes while slewing away an error.
+     */
+    private final double slewRate;
+
+    /**
+     * The local time at which slewing stops.
+     */
+    private final long slewEndTime;
+
+    /**
+     * Construct a model.
+     *
+     * @param referenceTime
+     *          the local time the model is anchored at
+     * @param referenceOffset
+     *          the offset at the reference time
+     * @param skew
+     *          how fast the offset changes from the skew between the clocks
+     * @param slewRate
+     *          how fast the offset changes while slewing away an error
+     * @param slewEndTime
+     *          the local time at which slewing stops
+     */
+    private OffsetModel(long referenceTime, long referenceOffset, double skew, double slewRate, long slewEndTime) {
+      this.referenceTime = referenceTime;
+      this.referenceOffset = referenceOffset;
+      this.skew = skew;
+      this.slewRate = slewRate;
+      this.slewEndTime = slewEndTime;
+    }
+
+    /**
+     * Get the offset at a local time.
+     *
+     * @param localTime
+     *          the local time
+     *
+     * @return the offset at that time
+     */
+    private long getOffset(long localTime) {
+      long elapsed = Math.max(0, localTime - referenceTime);
+      long slewElapsed = Math.min(elapsed, slewEndTime - referenceTime);
+
+      return referenceOffset + Math.round(skew * elapsed + slewRate * slewElapsed);
+    }
+  }
+}
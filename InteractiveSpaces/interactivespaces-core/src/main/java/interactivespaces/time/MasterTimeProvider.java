@@ -0,0 +1,339 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.time;
+
+import org.apache.commons.logging.Log;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link TimeProvider} which is synchronized to a {@link TimeSyncServer},
+ * usually the one run by the master.
+ *
+ * <p>
+ * Each update makes several round trip exchanges with the server and keeps the
+ * one with the shortest round trip, since it has the least room for queuing
+ * delays. The offset from that exchange is handed to a {@link ClockDiscipline}
+ * which tracks the skew between the clocks and slews small corrections in
+ * rather than stepping the time.
+ *
+ * <p>
+ * Until the first successful update the local time is used.
+ *
+ * @author agent
+ */
+public class MasterTimeProvider implements TimeProvider {
+
+  /**
+   * The number of round trips made for each update.
+   */
+  public static final int NUMBER_SAMPLES = 8;
+
+  /**
+   * How long to wait for an answer to a single request, in milliseconds.
+   */
+  public static final int SAMPLE_TIMEOUT = 250;
+
+  /**
+   * The host the time server is on.
+   */
+  private final InetAddress host;
+
+  /**
+   * The port the time server is listening on.
+   */
+  private final int port;
+
+  /**
+   * Update period for the time provider.
+   */
+  private final long updatePeriod;
+
+  /**
+   * Time unit for the update period for the time provider.
+   */
+  private final TimeUnit updatePeriodTimeUnit;
+
+  /**
+   * The thread pool.
+   */
+  private final ScheduledExecutorService scheduledExecutorService;
+
+  /**
+   * Logging for the provider.
+   */
+  private final Log log;
+
+  /**
+   * The local clock being corrected.
+   */
+  private final MonotonicWallClock localClock;
+
+  /**
+   * The discipline correcting the local clock.
+   */
+  private final ClockDiscipline discipline = new ClockDiscipline();
+
+  /**
+   * The socket for talking to the time server.
+   */
+  private DatagramSocket socket;
+
+  /**
+   * The sequence number of the last request sent.
+   */
+  private long sequence;
+
+  /**
+   * The round trip delay of the best exchange in the last update, in
+   * nanoseconds.
+   */
+  private volatile long roundTripDelay = -1;
+
+  /**
+   * The periodic update task.
+   */
+  private ScheduledFuture<?> scheduledFuture;
+
+  /**
+   * Construct a new provider.
+   *
+   * @param host
+   *          the host the time server is on
+   * @param port
+   *          the port the time server is listening on
+   * @param updatePeriod
+   *          how often the time should be updated from the server
+   * @param updatePeriodTimeUnit
+   *          time units for the update period
+   * @param scheduledExecutorService
+   *          thread pool to use
+   * @param log
+   *          logger for the provider
+   */
+  public MasterTimeProvider(InetAddress host, int port, long updatePeriod, TimeUnit updatePeriodTimeUnit,
+      ScheduledExecutorService scheduledExecutorService, Log log) {
+    this(host, port, updatePeriod, updatePeriodTimeUnit, scheduledExecutorService, log, new MonotonicWallClock());
+  }
+
+  /**
+   * Construct a new provider with a given local clock.
+   *
+   * @param host
+   *          the host the time server is on
+   * @param port
+   *          the port the time server is listening on
+   * @param updatePeriod
+   *          how often the time should be updated from the server
+   * @param updatePeriodTimeUnit
+   *          time units for the update period
+   * @param scheduledExecutorService
+   *          thread pool to use
+   * @param log
+   *          logger for the provider
+   * @param localClock
+   *          the local clock to correct
+   */
+  public MasterTimeProvider(InetAddress host, int port, long updatePeriod, TimeUnit updatePeriodTimeUnit,
+      ScheduledExecutorService scheduledExecutorService, Log log, MonotonicWallClock localClock) {
+    this.host = host;
+    this.port = port;
+    this.updatePeriod = updatePeriod;
+    this.updatePeriodTimeUnit = updatePeriodTimeUnit;
+    this.scheduledExecutorService = scheduledExecutorService;
+    this.log = log;
+    this.localClock = localClock;
+  }
+
+  @Override
+  public void startup() {
+    // The first update happens immediately. Errors while periodically
+    // updating are logged but not rethrown so updates keep happening.
+    scheduledFuture = scheduledExecutorService.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          updateTime();
+        } catch (Exception e) {
+          log.error(String.format("Periodic time sync with %s:%d failed", host.getHostName(), port), e);
+        }
+      }
+    }, 0, updatePeriod, updatePeriodTimeUnit);
+  }
+
+  @Override
+  public synchronized void shutdown() {
+    if (scheduledFuture != null) {
+      scheduledFuture.cancel(true);
+      scheduledFuture = null;
+    }
+
+    if (socket != null) {
+      socket.close();
+      socket = null;
+    }
+  }
+
+  @Override
+  public long getCurrentTime() {
+    return getCurrentTimeNanos() / MonotonicWallClock.NANOSECONDS_PER_MILLISECOND;
+  }
+
+  /**
+   * Get the current time with the full resolution of the provider.
+   *
+   * @return the difference in nanoseconds between the current time and
+   *         midnight, Jan 1, 1970
+   */
+  public long getCurrentTimeNanos() {
+    long localTime = localClock.getCurrentTimeNanos();
+    return localTime + discipline.getOffset(localTime);
+  }
+
+  /**
+   * Get the offset currently being applied to the local clock.
+   *
+   * @return the offset in nanoseconds
+   */
+  public long getOffsetNanos() {
+    return discipline.getOffset(localClock.getCurrentTimeNanos());
+  }
+
+  /**
+   * Get the round trip delay of the best exchange in the last update.
+   *
+   * <p>
+   * Half of this bounds the error of the last measured offset.
+   *
+   * @return the delay in nanoseconds, or {@code -1} if there has not been a
+   *         successful update
+   */
+  public long getRoundTripDelayNanos() {
+    return roundTripDelay;
+  }
+
+  /**
+   * Get the estimated skew between the local clock and the server's clock.
+   *
+   * @return how fast the server clock gains on the local clock, as a fraction
+   *         of elapsed time
+   */
+  public double getSkew() {
+    return discipline.getSkew();
+  }
+
+  /**
+   * Has the provider been synchronized with the server?
+   *
+   * @return {@code true} if at least one update has succeeded
+   */
+  public boolean isSynchronized() {
+    return discipline.isSynchronized();
+  }
+
+  /**
+   * Update the time offset from the time server.
+   *
+   * @throws IOException
+   *           no exchange with the server succeeded
+   */
+  public synchronized void updateTime() throws IOException {
+    if (socket == null) {
+      socket = new DatagramSocket();
+      socket.connect(host, port);
+      socket.setSoTimeout(SAMPLE_TIMEOUT);
+    }
+
+    byte[] buffer = new byte[TimeSyncProtocol.RESPONSE_SIZE];
+    DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+
+    long bestOffset = 0;
+    long bestDelay = Long.MAX_VALUE;
+    for (int i = 0; i < NUMBER_SAMPLES; i++) {
+      long requestSequence = ++sequence;
+      long clientTransmitTime = localClock.getCurrentTimeNanos();
+      TimeSyncProtocol.writeRequest(buffer, requestSequence, clientTransmitTime);
+      packet.setLength(TimeSyncProtocol.REQUEST_SIZE);
+      socket.send(packet);
+
+      if (!receiveResponse(packet, requestSequence)) {
+        continue;
+      }
+      long clientReceiveTime = localClock.getCurrentTimeNanos();
+
+      long serverReceiveTime = TimeSyncProtocol.readLong(buffer, TimeSyncProtocol.POSITION_SERVER_RECEIVE);
+      long serverTransmitTime = TimeSyncProtocol.readLong(buffer, TimeSyncProtocol.POSITION_SERVER_TRANSMIT);
+      long delay = (clientReceiveTime - clientTransmitTime) - (serverTransmitTime - serverReceiveTime);
+      if (delay < bestDelay) {
+        bestDelay = delay;
+        bestOffset =
+            ((serverReceiveTime - clientTransmitTime) + (serverTransmitTime - clientReceiveTime)) / 2;
+      }
+    }
+
+    if (bestDelay == Long.MAX_VALUE) {
+      throw new IOException(String.format("No answer from time sync server %s:%d", host.getHostName(), port));
+    }
+
+    roundTripDelay = bestDelay;
+    long error = discipline.update(localClock.getCurrentTimeNanos(), bestOffset);
+
+    if (log.isDebugEnabled()) {
+      log.debug(String.format("Time sync offset %d nsec, error %d nsec, round trip %d nsec, skew %.3f ppm",
+          bestOffset, error, bestDelay, discipline.getSkew() * 1e6));
+    }
+  }
+
+  /**
+   * Wait for the response to a request, discarding stale responses to earlier
+   * requests.
+   *
+   * @param packet
+   *          the packet to receive into
+   * @param requestSequence
+   *          the sequence number of the request
+   *
+   * @return {@code true} if the response arrived, {@code false} if it timed
+   *         out
+   *
+   * @throws IOException
+   *           the socket failed
+   */
+  private boolean receiveResponse(DatagramPacket packet, long requestSequence) throws IOException {
+    byte[] buffer = packet.getData();
+    while (true) {
+      try {
+        packet.setLength(buffer.length);
+        socket.receive(packet);
+      } catch (SocketTimeoutException e) {
+        return false;
+      }
+
+      if (TimeSyncProtocol.isValid(buffer, packet.getLength(), TimeSyncProtocol.TYPE_RESPONSE)
+          && TimeSyncProtocol.readLong(buffer, TimeSyncProtocol.POSITION_SEQUENCE) == requestSequence) {
+        return true;
+      }
+    }
+  }
+}
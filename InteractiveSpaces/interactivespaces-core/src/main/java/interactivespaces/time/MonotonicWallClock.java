@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.time;
+
+/**
+ * A wall clock with nanosecond resolution.
+ *
+ * <p>
+ * The clock is anchored to a wall time and from then on advances with
+ * {@link System#nanoTime()}, so changes to the system clock do not affect it.
+ * It only runs backwards if it is anchored again with
+ * {@link #setCurrentTime(long)}.
+ *
+ * @author agent
+ */
+public class MonotonicWallClock {
+
+  /**
+   * Number of nanoseconds in a millisecond.
+   */
+  public static final long NANOSECONDS_PER_MILLISECOND = 1000000L;
+
+  /**
+   * The wall time, in nanoseconds, at which {@link System#nanoTime()} would
+   * read 0.
+   */
+  private volatile long epochNanos;
+
+  /**
+   * Construct a clock anchored to the current system time.
+   */
+  public MonotonicWallClock() {
+    this(System.currentTimeMillis());
+  }
+
+  /**
+   * Construct a clock anchored to the given wall time.
+   *
+   * @param currentTimeMillis
+   *          the wall time right now, in milliseconds since midnight, Jan 1,
+   *          1970
+   */
+  public MonotonicWallClock(long currentTimeMillis) {
+    setCurrentTime(currentTimeMillis);
+  }
+
+  /**
+   * Anchor the clock to a new wall time.
+   *
+   * @param currentTimeMillis
+   *          the wall time right now, in milliseconds since midnight, Jan 1,
+   *          1970
+   */
+  public void setCurrentTime(long currentTimeMillis) {
+    epochNanos = currentTimeMillis * NANOSECONDS_PER_MILLISECOND - System.nanoTime();
+  }
+
+  /**
+   * Get the current time.
+   *
+   * @return the difference in nanoseconds between the current time and
+   *         midnight, Jan 1, 1970
+   */
+  public long getCurrentTimeNanos() {
+    return epochNanos + System.nanoTime();
+  }
+
+  /**
+   * Get the wall time at which {@link System#nanoTime()} would read 0.
+   *
+   * <p>
+   * Two clocks in processes on the same machine can be compared exactly by
+   * this value, on platforms where every process shares the same
+   * {@link System#nanoTime()} origin.
+   *
+   * @return the epoch of the clock, in nanoseconds
+   */
+  public long getEpochNanos() {
+    return epochNanos;
+  }
+}
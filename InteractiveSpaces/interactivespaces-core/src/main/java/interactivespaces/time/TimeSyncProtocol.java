@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.time;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The wire format for the time synchronization protocol spoken between a
+ * {@link TimeSyncServer} and a {@link MasterTimeProvider}.
+ *
+ * <p>
+ * Every packet starts with a magic number, a version, a packet type and the
+ * sequence number of the exchange. A request then carries the client transmit
+ * time. A response echoes the client transmit time and adds the server receive
+ * and transmit times. All times are in nanoseconds.
+ *
+ * @author agent
+ */
+final class TimeSyncProtocol {
+
+  /**
+   * The magic number which starts every packet, {@code ISTS}.
+   */
+  static final int MAGIC = 0x49535453;
+
+  /**
+   * The version of the protocol.
+   */
+  static final byte VERSION = 1;
+
+  /**
+   * Packet type for a request from a client.
+   */
+  static final byte TYPE_REQUEST = 1;
+
+  /**
+   * Packet type for a response from the server.
+   */
+  static final byte TYPE_RESPONSE = 2;
+
+  /**
+   * Size of a request packet, in bytes.
+   */
+  static final int REQUEST_SIZE = 24;
+
+  /**
+   * Size of a response packet, in bytes.
+   */
+  static final int RESPONSE_SIZE = 40;
+
+  /**
+   * Position of the packet type in a packet.
+   */
+  private static final int POSITION_TYPE = 5;
+
+  /**
+   * Position of the sequence number in a packet.
+   */
+  static final int POSITION_SEQUENCE = 8;
+
+  /**
+   * Position of the client transmit time in a packet.
+   */
+  static final int POSITION_CLIENT_TRANSMIT = 16;
+
+  /**
+   * Position of the server receive time in a response.
+   */
+  static final int POSITION_SERVER_RECEIVE = 24;
+
+  /**
+   * Position of the server transmit time in a response.
+   */
+  static final int POSITION_SERVER_TRANSMIT = 32;
+
+  /**
+   * Write a request into a buffer.
+   *
+   * @param buffer
+   *          the buffer to write into, must be at least {@link #REQUEST_SIZE}
+   *          bytes
+   * @param sequence
+   *          the sequence number of the exchange
+   * @param clientTransmitTime
+   *          the client time the request is sent
+   */
+  static void writeRequest(byte[] buffer, long sequence, long clientTransmitTime) {
+    ByteBuffer out = ByteBuffer.wrap(buffer);
+    writeHeader(out, TYPE_REQUEST, sequence);
+    out.putLong(clientTransmitTime);
+  }
+
+  /**
+   * Turn a request into a response in place.
+   *
+   * @param buffer
+   *          the buffer holding the request, must be at least
+   *          {@link #RESPONSE_SIZE} bytes
+   * @param serverReceiveTime
+   *          the server time the request was received
+   * @param serverTransmitTime
+   *          the server time the response is sent
+   */
+  static void writeResponse(byte[] buffer, long serverReceiveTime, long serverTransmitTime) {
+    ByteBuffer out = ByteBuffer.wrap(buffer);
+    out.put(POSITION_TYPE, TYPE_RESPONSE);
+    out.putLong(POSITION_SERVER_RECEIVE, serverReceiveTime);
+    out.putLong(POSITION_SERVER_TRANSMIT, serverTransmitTime);
+  }
+
+  /**
+   * Is the packet a valid packet of the given type?
+   *
+   * @param buffer
+   *          the buffer holding the packet
+   * @param length
+   *          the number of bytes in the packet
+   * @param type
+   *          the expected type
+   *
+   * @return {@code true} if the packet is valid
+   */
+  static boolean isValid(byte[] buffer, int length, byte type) {
+    int expectedLength = (type == TYPE_REQUEST) ? REQUEST_SIZE : RESPONSE_SIZE;
+    if (length < expectedLength) {
+      return false;
+    }
+
+    ByteBuffer in = ByteBuffer.wrap(buffer);
+    return in.getInt(0) == MAGIC && in.get(4) == VERSION && in.get(POSITION_TYPE) == type;
+  }
+
+  /**
+   * Read a time or sequence number from a packet.
+   *
+   * @param buffer
+   *          the buffer holding the packet
+   * @param position
+   *          the position of the value
+   *
+   * @return the value
+   */
+  static long readLong(byte[] buffer, int position) {
+    return ByteBuffer.wrap(buffer).getLong(position);
+  }
+
+  /**
+   * Write the packet header.
+   *
+   * @param out
+   *          the buffer to write into
+   * @param type
+   *          the packet type
+   * @param sequence
+   *          the sequence number of the exchange
+   */
+  private static void writeHeader(ByteBuffer out, byte type, long sequence) {
+    out.putInt(MAGIC);
+    out.put(VERSION);
+    out.put(type);
+    out.putShort((short) 0);
+    out.putLong(sequence);
+  }
+
+  /**
+   * Private constructor for utility class.
+   */
+  private TimeSyncProtocol() {
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.time;
+
+import interactivespaces.InteractiveSpacesException;
+import interactivespaces.util.resource.ManagedResource;
+
+import org.apache.commons.logging.Log;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.SocketException;
+
+/**
+ * A lightweight UDP time server which {@link MasterTimeProvider}s synchronize
+ * against.
+ *
+ * <p>
+ * Each request is answered with the time it was received and the time the
+ * answer was sent, both read from a {@link MonotonicWallClock} as close to
+ * the socket as possible.
+ *
+ * <p>
+ * The server answers on a daemon thread of its own, since it spends nearly all
+ * of its time blocked waiting for a request.
+ *
+ * @author agent
+ */
+public class TimeSyncServer implements ManagedResource {
+
+  /**
+   * The default port the server listens on.
+   */
+  public static final int PORT_DEFAULT = 8095;
+
+  /**
+   * Size of the receive buffer, large enough for any packet in the protocol.
+   */
+  private static final int BUFFER_SIZE = 64;
+
+  /**
+   * The port to listen on, {@code 0} for any free port.
+   */
+  private final int port;
+
+  /**
+   * The clock giving the time served.
+   */
+  private final MonotonicWallClock clock;
+
+  /**
+   * Logger for the server.
+   */
+  private final Log log;
+
+  /**
+   * The socket requests come in on.
+   */
+  private volatile DatagramSocket socket;
+
+  /**
+   * Construct a new server.
+   *
+   * @param port
+   *          the port to listen on, {@code 0} for any free port
+   * @param clock
+   *          the clock giving the time served
+   * @param log
+   *          logger for the server
+   */
+  public TimeSyncServer(int port, MonotonicWallClock clock, Log log) {
+    this.port = port;
+    this.clock = clock;
+    this.log = log;
+  }
+
+  @Override
+  public void startup() {
+    try {
+      socket = new DatagramSocket(port);
+    } catch (SocketException e) {
+      throw new InteractiveSpacesException(String.format("Could not open time sync server on port %d", port), e);
+    }
+
+    final DatagramSocket serverSocket = socket;
+    Thread serverThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        serve(serverSocket);
+      }
+    }, "TimeSyncServer " + serverSocket.getLocalPort());
+    serverThread.setDaemon(true);
+    serverThread.start();
+
+    log.info(String.format("Time sync server listening on port %d", socket.getLocalPort()));
+  }
+
+  @Override
+  public void shutdown() {
+    // Closing the socket ends the blocked receive, so the server thread exits
+    // on its own.
+    DatagramSocket oldSocket = socket;
+    socket = null;
+    if (oldSocket != null) {
+      oldSocket.close();
+    }
+  }
+
+  /**
+   * Get the port the server is listening on.
+   *
+   * @return the port, or {@code -1} if the server is not running
+   */
+  public int getPort() {
+    DatagramSocket currentSocket = socket;
+    return (currentSocket != null) ? currentSocket.getLocalPort() : -1;
+  }
+
+  /**
+   * Answer requests until the socket is closed.
+   *
+   * @param serverSocket
+   *          the socket to answer requests on
+   */
+  private void serve(DatagramSocket serverSocket) {
+    byte[] buffer = new byte[BUFFER_SIZE];
+    DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+    while (!serverSocket.isClosed()) {
+      try {
+        packet.setLength(buffer.length);
+        serverSocket.receive(packet);
+        long receiveTime = clock.getCurrentTimeNanos();
+
+        if (!TimeSyncProtocol.isValid(buffer, packet.getLength(), TimeSyncProtocol.TYPE_REQUEST)) {
+          if (log.isDebugEnabled()) {
+            log.debug(String.format("Ignoring bad time sync request from %s", packet.getSocketAddress()));
+          }
+          continue;
+        }
+
+        packet.setLength(TimeSyncProtocol.RESPONSE_SIZE);
+        TimeSyncProtocol.writeResponse(buffer, receiveTime, clock.getCurrentTimeNanos());
+        serverSocket.send(packet);
+      } catch (IOException e) {
+        if (!serverSocket.isClosed()) {
+          log.error("Error while answering time sync request", e);
+        }
+      }
+    }
+  }
+}
@@ -22,8 +22,9 @@ import interactivespaces.system.InteractiveSpacesEnvironment;
 
 import org.apache.commons.logging.Log;
 
-import java.util.concurrent.Future;
+import java.util.concurrent.Executor;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -35,7 +36,8 @@ import java.util.concurrent.atomic.AtomicLong;
  * The event queue can also be set to accepting new events or not.
  *
  * <p>
- * Integrates into Interactive Spaces thread pools.
+ * Integrates into Interactive Spaces thread pools. A pool thread is only used
+ * while there are events to run.
  *
  * @author Keith M. Hughes
  */
@@ -57,19 +59,9 @@ public class AcceptingPriorityEventQueue {
   private PriorityBlockingQueue<Event> events = Queues.newPriorityBlockingQueue();
 
   /**
-   * The queue future, used for shutting the queue down.
+   * The processor running the events.
    */
-  private Future<?> queueFuture;
-
-  /**
-   * The space environment to run under.
-   */
-  private InteractiveSpacesEnvironment spaceEnvironment;
-
-  /**
-   * The logger for errors.
-   */
-  private Log log;
+  private final SerialEventProcessor<Event> processor;
 
   /**
    * Lock for adding items to the queue.
@@ -81,9 +73,21 @@ public class AcceptingPriorityEventQueue {
    */
   private Object runningMutex = new Object();
 
-  public AcceptingPriorityEventQueue(InteractiveSpacesEnvironment spaceEnvironment, Log log) {
-    this.spaceEnvironment = spaceEnvironment;
-    this.log = log;
+  /**
+   * Construct a new event queue.
+   *
+   * @param spaceEnvironment
+   *          the space environment the queue will use
+   * @param log
+   *          the logger to use
+   */
+  public AcceptingPriorityEventQueue(final InteractiveSpacesEnvironment spaceEnvironment, Log log) {
+    processor = new SerialEventProcessor<Event>(events, new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        spaceEnvironment.getExecutorService().execute(command);
+      }
+    }, log);
   }
 
   /**
@@ -94,13 +98,8 @@ public class AcceptingPriorityEventQueue {
    */
   public void startup() {
     synchronized (runningMutex) {
-      if (queueFuture == null) {
-        queueFuture = spaceEnvironment.getExecutorService().submit(new Runnable() {
-          @Override
-          public void run() {
-            processEvents();
-          }
-        });
+      if (!processor.isRunning()) {
+        processor.startup();
       }
     }
   }
@@ -113,10 +112,7 @@ public class AcceptingPriorityEventQueue {
    */
   public void shutdown() {
     synchronized (runningMutex) {
-      if (queueFuture != null) {
-        queueFuture.cancel(true);
-        queueFuture = null;
-      }
+      processor.shutdown();
     }
   }
 
@@ -137,7 +133,7 @@ public class AcceptingPriorityEventQueue {
    */
   public boolean isRunning() {
     synchronized (runningMutex) {
-      return queueFuture != null;
+      return processor.isRunning();
     }
   }
 
@@ -175,39 +171,42 @@ public class AcceptingPriorityEventQueue {
   public void addEvent(Runnable event, int priority) {
     synchronized (acceptingMutex) {
       if (accepting) {
-        events.put(new Event(event, priority));
+        processor.addEvent(new Event(event, priority));
       }
     }
   }
 
   /**
-   * Process events until the event processing thread is interrupted.
+   * Get the number of events waiting to run.
+   *
+   * @return the queue depth
    */
-  private void processEvents() {
-    try {
-      while (!Thread.interrupted()) {
-        processNextEvent();
-      }
-    } catch (InterruptedException e) {
-      // Don't care
-    }
+  public int getQueueDepth() {
+    return processor.getQueueDepth();
   }
 
   /**
-   * Process the next event.
+   * Get the average time events waited before running.
    *
-   * @throws InterruptedException
+   * @param unit
+   *          the time unit for the result
+   *
+   * @return the average wait time
    */
-  private void processNextEvent() throws InterruptedException {
-    try {
-      Event event = events.take();
+  public long getAverageWaitTime(TimeUnit unit) {
+    return processor.getAverageWaitTime(unit);
+  }
 
-      event.run();
-    } catch (InterruptedException e) {
-      throw e;
-    } catch (Exception e) {
-      log.error("Error during event processing", e);
-    }
+  /**
+   * Get the longest time an event waited before running.
+   *
+   * @param unit
+   *          the time unit for the result
+   *
+   * @return the maximum wait time
+   */
+  public long getMaxWaitTime(TimeUnit unit) {
+    return processor.getMaxWaitTime(unit);
   }
 
   /**
@@ -215,18 +214,13 @@ public class AcceptingPriorityEventQueue {
    *
    * @author Keith M. Hughes
    */
-  private static class Event implements Comparable<Event> {
+  private static class Event extends QueuedEvent implements Comparable<Event> {
 
     /**
      * The sequence of events to support FIFO ordering.
      */
     private static final AtomicLong sequence = new AtomicLong();
 
-    /**
-     * The runnable for the event.
-     */
-    private Runnable runnable;
-
     /**
      * The priority of the event.
      */
@@ -237,27 +231,32 @@ public class AcceptingPriorityEventQueue {
      */
     private long sequenceNumber;
 
+    /**
+     * Construct a new event.
+     *
+     * @param runnable
+     *          the runnable for the event
+     * @param priority
+     *          priority of the event, lower values run first
+     */
     public Event(Runnable runnable, int priority) {
-      this.runnable = runnable;
+      super(runnable);
       this.priority = priority;
       this.sequenceNumber = sequence.getAndIncrement();
     }
 
-    /**
-     * Run the wrapped runnable.
-     */
-    public void run() {
-      runnable.run();
-    }
-
     @Override
     public int compareTo(Event o) {
-      int res = priority - o.priority;
-      if (res == 0 && this != o) {
-        res = (priority < o.priority) ? -1 : 1;
+      if (priority != o.priority) {
+        return (priority < o.priority) ? -1 : 1;
+      }
+
+      // Equal priorities run in the order they were added.
+      if (sequenceNumber != o.sequenceNumber) {
+        return (sequenceNumber < o.sequenceNumber) ? -1 : 1;
       }
 
-      return res;
+      return 0;
     }
   }
 }
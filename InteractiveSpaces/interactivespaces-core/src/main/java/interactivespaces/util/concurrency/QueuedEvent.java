@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.concurrency;
+
+/**
+ * An event waiting in an event queue, stamped with the time it was queued.
+ *
+ * @author agent
+ */
+public class QueuedEvent implements Runnable {
+
+  /**
+   * The runnable for the event.
+   */
+  private final Runnable runnable;
+
+  /**
+   * When the event was queued, in nanoseconds.
+   */
+  private final long queuedTime;
+
+  /**
+   * Construct a new queued event.
+   *
+   * @param runnable
+   *          the runnable for the event
+   */
+  public QueuedEvent(Runnable runnable) {
+    this.runnable = runnable;
+    this.queuedTime = System.nanoTime();
+  }
+
+  /**
+   * Get the time the event was queued.
+   *
+   * @return the queued time, in nanoseconds from {@link System#nanoTime()}
+   */
+  public long getQueuedTime() {
+    return queuedTime;
+  }
+
+  @Override
+  public void run() {
+    runnable.run();
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.concurrency;
+
+import interactivespaces.util.statistics.LatencyHistogram;
+
+import org.apache.commons.logging.Log;
+
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the events of a queue one at a time on a shared thread pool.
+ *
+ * <p>
+ * The queue only holds a pool thread while it has events. When events arrive
+ * a single drain task is scheduled, which runs events in queue order until the
+ * queue is empty or a batch limit is reached, then gives the thread back. An
+ * idle queue costs no thread at all.
+ *
+ * @param <E>
+ *          the type of the events
+ *
+ * @author agent
+ */
+public class SerialEventProcessor<E extends QueuedEvent> {
+
+  /**
+   * The maximum number of events run before the drain task gives its thread
+   * back to the pool.
+   */
+  public static final int MAX_EVENTS_PER_DRAIN = 64;
+
+  /**
+   * The events to process.
+   */
+  private final Queue<E> events;
+
+  /**
+   * The pool to run drain tasks on.
+   */
+  private final Executor executor;
+
+  /**
+   * The logger for errors.
+   */
+  private final Log log;
+
+  /**
+   * {@code true} if events should be processed.
+   */
+  private volatile boolean running;
+
+  /**
+   * {@code true} if a drain task is scheduled or running.
+   */
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+  /**
+   * Time processed events waited in the queue, in nanoseconds. Its count is the
+   * number of events processed.
+   */
+  private final LatencyHistogram waitTimes = new LatencyHistogram();
+
+  /**
+   * The task which drains the queue.
+   */
+  private final Runnable drainTask = new Runnable() {
+    @Override
+    public void run() {
+      drain();
+    }
+  };
+
+  /**
+   * Construct a new processor.
+   *
+   * @param events
+   *          the events to process, must be safe for concurrent use
+   * @param executor
+   *          the pool to run drain tasks on
+   * @param log
+   *          the logger for errors
+   */
+  public SerialEventProcessor(Queue<E> events, Executor executor, Log log) {
+    this.events = events;
+    this.executor = executor;
+    this.log = log;
+  }
+
+  /**
+   * Start processing events, including any already in the queue.
+   */
+  public void startup() {
+    running = true;
+    scheduleDrain();
+  }
+
+  /**
+   * Stop processing events.
+   *
+   * <p>
+   * An event already running is allowed to finish. Events still in the queue
+   * stay there.
+   */
+  public void shutdown() {
+    running = false;
+  }
+
+  /**
+   * Is the processor processing events?
+   *
+   * @return {@code true} if running
+   */
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Add an event to the queue and make sure it will be processed.
+   *
+   * @param event
+   *          the event to add
+   */
+  public void addEvent(E event) {
+    events.offer(event);
+    scheduleDrain();
+  }
+
+  /**
+   * Get the number of events waiting in the queue.
+   *
+   * @return the queue depth
+   */
+  public int getQueueDepth() {
+    return events.size();
+  }
+
+  /**
+   * Get the number of events which have been processed.
+   *
+   * @return the number of events processed
+   */
+  public long getNumberEventsProcessed() {
+    return waitTimes.getTotalCount();
+  }
+
+  /**
+   * Get the average time events waited in the queue before running.
+   *
+   * @param unit
+   *          the time unit for the result
+   *
+   * @return the average wait time, 0 if no events have been processed
+   */
+  public long getAverageWaitTime(TimeUnit unit) {
+    return unit.convert((long) waitTimes.getMean(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Get the longest time an event waited in the queue before running.
+   *
+   * @param unit
+   *          the time unit for the result
+   *
+   * @return the maximum wait time
+   */
+  public long getMaxWaitTime(TimeUnit unit) {
+    return unit.convert(waitTimes.getMaxValue(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Schedule a drain task if the processor is running, there are events, and
+   * no drain task is already scheduled.
+   */
+  private void scheduleDrain() {
+    if (running && !events.isEmpty() && drainScheduled.compareAndSet(false, true)) {
+      try {
+        executor.execute(drainTask);
+      } catch (RejectedExecutionException e) {
+        drainScheduled.set(false);
+        log.error("Could not schedule event processing", e);
+      }
+    }
+  }
+
+  /**
+   * Run events until the queue is empty or the batch limit is reached.
+   */
+  private void drain() {
+    try {
+      for (int i = 0; running && i < MAX_EVENTS_PER_DRAIN; i++) {
+        E event = events.poll();
+        if (event == null) {
+          break;
+        }
+
+        processEvent(event);
+      }
+    } finally {
+      drainScheduled.set(false);
+    }
+
+    // Events may have arrived after the last poll but before the flag was
+    // cleared, their adders would not have scheduled a drain.
+    scheduleDrain();
+  }
+
+  /**
+   * Process a single event.
+   *
+   * @param event
+   *          the event to process
+   */
+  private void processEvent(E event) {
+    waitTimes.record(System.nanoTime() - event.getQueuedTime());
+
+    try {
+      event.run();
+    } catch (Exception e) {
+      log.error("Error during event processing", e);
+    }
+  }
+}
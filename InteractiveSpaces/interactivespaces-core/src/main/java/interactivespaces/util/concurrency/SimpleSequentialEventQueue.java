@@ -20,13 +20,17 @@ import interactivespaces.system.InteractiveSpacesEnvironment;
 
 import org.apache.commons.logging.Log;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An event queue which will run its event handlers in First in, First Out order.
  *
+ * <p>
+ * The queue only uses a thread from the space environment's pool while it has events to run.
+ *
  * @author Keith M. Hughes
  */
 public class SimpleSequentialEventQueue implements SequentialEventQueue {
@@ -34,22 +38,12 @@ public class SimpleSequentialEventQueue implements SequentialEventQueue {
   /**
    * The list of events to process.
    */
-  private BlockingQueue<Runnable> events = new LinkedBlockingQueue<Runnable>();
-
-  /**
-   * The queue future, used for shutting the queue down.
-   */
-  private Future<?> queueFuture;
+  private final Queue<QueuedEvent> events = new ConcurrentLinkedQueue<QueuedEvent>();
 
   /**
-   * The space environment to run under.
+   * The processor running the events.
    */
-  private InteractiveSpacesEnvironment spaceEnvironment;
-
-  /**
-   * The logger for errors.
-   */
-  private Log log;
+  private final SerialEventProcessor<QueuedEvent> processor;
 
   /**
    * Construct a new event queue.
@@ -59,26 +53,24 @@ public class SimpleSequentialEventQueue implements SequentialEventQueue {
    * @param log
    *          the logger to use
    */
-  public SimpleSequentialEventQueue(InteractiveSpacesEnvironment spaceEnvironment, Log log) {
-    this.spaceEnvironment = spaceEnvironment;
-    this.log = log;
+  public SimpleSequentialEventQueue(final InteractiveSpacesEnvironment spaceEnvironment, Log log) {
+    processor = new SerialEventProcessor<QueuedEvent>(events, new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        spaceEnvironment.getExecutorService().execute(command);
+      }
+    }, log);
   }
 
   @Override
   public void startup() {
-    queueFuture = spaceEnvironment.getExecutorService().submit(new Runnable() {
-      @Override
-      public void run() {
-        processEvents();
-      }
-    });
+    processor.startup();
   }
 
   @Override
   public void shutdown() {
-    if (queueFuture != null) {
-      queueFuture.cancel(true);
-      queueFuture = null;
+    if (processor.isRunning()) {
+      processor.shutdown();
 
       events.clear();
     }
@@ -86,41 +78,39 @@ public class SimpleSequentialEventQueue implements SequentialEventQueue {
 
   @Override
   public void addEvent(Runnable event) {
-    try {
-      events.put(event);
-    } catch (InterruptedException e) {
-      // Don't care
-    }
+    processor.addEvent(new QueuedEvent(event));
   }
 
   /**
-   * Process events until the event processing thread is interrupted.
+   * Get the number of events waiting to run.
+   *
+   * @return the queue depth
    */
-  private void processEvents() {
-    try {
-      while (!Thread.interrupted()) {
-        processNextEvent();
-      }
-    } catch (InterruptedException e) {
-      // Don't care
-    }
+  public int getQueueDepth() {
+    return processor.getQueueDepth();
   }
 
   /**
-   * Process the next event.
+   * Get the average time events waited before running.
+   *
+   * @param unit
+   *          the time unit for the result
    *
-   * @throws InterruptedException
-   *           the thread got interrupted
+   * @return the average wait time
    */
-  private void processNextEvent() throws InterruptedException {
-    try {
-      Runnable event = events.take();
+  public long getAverageWaitTime(TimeUnit unit) {
+    return processor.getAverageWaitTime(unit);
+  }
 
-      event.run();
-    } catch (InterruptedException e) {
-      throw e;
-    } catch (Exception e) {
-      log.error("Error during event processing", e);
-    }
+  /**
+   * Get the longest time an event waited before running.
+   *
+   * @param unit
+   *          the time unit for the result
+   *
+   * @return the maximum wait time
+   */
+  public long getMaxWaitTime(TimeUnit unit) {
+    return processor.getMaxWaitTime(unit);
   }
 }
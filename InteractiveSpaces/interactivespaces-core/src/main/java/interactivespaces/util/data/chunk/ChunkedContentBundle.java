@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.data.chunk;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The zip layout used to move chunked content between machines.
+ *
+ * <p>
+ * A chunked content bundle holds a {@link ChunkedContentManifest} and any chunks the receiver doesn't have yet, each
+ * compressed with {@link ContentChunker#compressChunk(byte[], int)}.
+ *
+ * @author agent
+ */
+public final class ChunkedContentBundle {
+
+  /**
+   * Name of the zip entry holding the manifest.
+   */
+  public static final String ENTRY_MANIFEST = "chunked-content.manifest";
+
+  /**
+   * Prefix of the zip entries holding chunks, followed by the chunk hash.
+   */
+  public static final String ENTRY_CHUNK_PREFIX = "chunks/";
+
+  /**
+   * Manifest property giving the URI chunks can be fetched from, with {@link #CHUNK_URI_HASH_PLACEHOLDER} standing in
+   * for the chunk hash.
+   */
+  public static final String PROPERTY_CHUNK_URI = "chunk.uri";
+
+  /**
+   * Placeholder for the chunk hash in {@link #PROPERTY_CHUNK_URI}.
+   */
+  public static final String CHUNK_URI_HASH_PLACEHOLDER = "{hash}";
+
+  /**
+   * Read the manifest of a chunked content bundle.
+   *
+   * @param bundleFile
+   *          the bundle file
+   *
+   * @return the manifest, or {@code null} if the file is not a chunked content bundle
+   *
+   * @throws IOException
+   *           the file is a chunked content bundle but its manifest could not be read
+   */
+  public static ChunkedContentManifest readManifest(File bundleFile) throws IOException {
+    if (!bundleFile.isFile()) {
+      return null;
+    }
+
+    ZipFile zipFile = null;
+    try {
+      try {
+        zipFile = new ZipFile(bundleFile);
+      } catch (IOException e) {
+        // Not a zip file, so not a chunked bundle.
+        return null;
+      }
+
+      ZipEntry manifestEntry = zipFile.getEntry(ENTRY_MANIFEST);
+      if (manifestEntry == null) {
+        return null;
+      }
+
+      InputStream in = zipFile.getInputStream(manifestEntry);
+      try {
+        return ChunkedContentManifest.read(in);
+      } finally {
+        in.close();
+      }
+    } finally {
+      if (zipFile != null) {
+        try {
+          zipFile.close();
+        } catch (IOException e) {
+          // Nothing to do, the manifest was already read.
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the URI for fetching a chunk.
+   *
+   * @param chunkUri
+   *          the chunk URI template from the manifest
+   * @param hash
+   *          hash of the chunk
+   *
+   * @return the URI for the chunk
+   */
+  public static String getChunkUri(String chunkUri, String hash) {
+    return chunkUri.replace(CHUNK_URI_HASH_PLACEHOLDER, hash);
+  }
+
+  /**
+   * Get the hash of the chunk in a zip entry.
+   *
+   * @param entryName
+   *          name of the zip entry
+   *
+   * @return the hash, or {@code null} if the entry doesn't hold a chunk
+   */
+  public static String getChunkHash(String entryName) {
+    if (entryName.startsWith(ENTRY_CHUNK_PREFIX) && entryName.length() > ENTRY_CHUNK_PREFIX.length()) {
+      return entryName.substring(ENTRY_CHUNK_PREFIX.length());
+    }
+
+    return null;
+  }
+
+  /**
+   * Private constructor for utility class.
+   */
+  private ChunkedContentBundle() {
+  }
+}
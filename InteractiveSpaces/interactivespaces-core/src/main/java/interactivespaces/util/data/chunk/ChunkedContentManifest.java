@@ -0,0 +1,462 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.data.chunk;
+
+import interactivespaces.SimpleInteractiveSpacesException;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A manifest describing directory trees as lists of content chunks.
+ *
+ * <p>
+ * The manifest is split into named sections, each describing one directory tree. Every file in a section is given by
+ * its path relative to the root of the tree, its size and the hashes of its chunks in order. Directories are listed so
+ * that empty ones survive a round trip.
+ *
+ * <p>
+ * The manifest is written as UTF-8 text, one tab separated record per line.
+ *
+ * @author agent
+ */
+public class ChunkedContentManifest {
+
+  /**
+   * The version of the manifest format.
+   */
+  public static final String FORMAT_VERSION = "1";
+
+  /**
+   * The charset for manifests.
+   */
+  private static final Charset MANIFEST_CHARSET = Charset.forName("UTF-8");
+
+  /**
+   * Record type for the format version.
+   */
+  private static final String RECORD_FORMAT = "format";
+
+  /**
+   * Record type for a property.
+   */
+  private static final String RECORD_PROPERTY = "property";
+
+  /**
+   * Record type which starts a section.
+   */
+  private static final String RECORD_SECTION = "section";
+
+  /**
+   * Record type for a directory.
+   */
+  private static final String RECORD_DIRECTORY = "dir";
+
+  /**
+   * Record type for a file.
+   */
+  private static final String RECORD_FILE = "file";
+
+  /**
+   * Separator between the fields of a record.
+   */
+  private static final char FIELD_SEPARATOR = '\t';
+
+  /**
+   * Separator between chunk hashes in a file record.
+   */
+  private static final char CHUNK_SEPARATOR = ',';
+
+  /**
+   * Properties of the manifest.
+   */
+  private final Map<String, String> properties = Maps.newLinkedHashMap();
+
+  /**
+   * The sections, keyed by name, in the order they were added.
+   */
+  private final Map<String, ManifestSection> sections = Maps.newLinkedHashMap();
+
+  /**
+   * Set a property of the manifest.
+   *
+   * @param name
+   *          name of the property
+   * @param value
+   *          value of the property
+   */
+  public void setProperty(String name, String value) {
+    checkField(name);
+    checkField(value);
+    properties.put(name, value);
+  }
+
+  /**
+   * Get a property of the manifest.
+   *
+   * @param name
+   *          name of the property
+   *
+   * @return the value of the property, or {@code null} if not set
+   */
+  public String getProperty(String name) {
+    return properties.get(name);
+  }
+
+  /**
+   * Get a section, creating it if it doesn't exist.
+   *
+   * @param name
+   *          name of the section
+   *
+   * @return the section
+   */
+  public ManifestSection getOrCreateSection(String name) {
+    ManifestSection section = sections.get(name);
+    if (section == null) {
+      checkField(name);
+      section = new ManifestSection(name);
+      sections.put(name, section);
+    }
+
+    return section;
+  }
+
+  /**
+   * Get a section.
+   *
+   * @param name
+   *          name of the section
+   *
+   * @return the section, or {@code null} if there is no such section
+   */
+  public ManifestSection getSection(String name) {
+    return sections.get(name);
+  }
+
+  /**
+   * Get all sections.
+   *
+   * @return the sections, in the order they were added
+   */
+  public List<ManifestSection> getSections() {
+    return Lists.newArrayList(sections.values());
+  }
+
+  /**
+   * Get the hashes of every chunk in the manifest.
+   *
+   * @return the chunk hashes
+   */
+  public Set<String> getChunkHashes() {
+    Set<String> hashes = Sets.newHashSet();
+    for (ManifestSection section : sections.values()) {
+      for (ManifestFile file : section.files) {
+        hashes.addAll(file.chunkHashes);
+      }
+    }
+
+    return hashes;
+  }
+
+  /**
+   * Write the manifest.
+   *
+   * @param out
+   *          the stream to write to, the stream is flushed but not closed
+   *
+   * @throws IOException
+   *           the manifest could not be written
+   */
+  public void write(OutputStream out) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, MANIFEST_CHARSET));
+    Joiner fieldJoiner = Joiner.on(FIELD_SEPARATOR);
+    Joiner chunkJoiner = Joiner.on(CHUNK_SEPARATOR);
+
+    writeRecord(writer, fieldJoiner.join(RECORD_FORMAT, FORMAT_VERSION));
+    for (Map.Entry<String, String> property : properties.entrySet()) {
+      writeRecord(writer, fieldJoiner.join(RECORD_PROPERTY, property.getKey(), property.getValue()));
+    }
+
+    for (ManifestSection section : sections.values()) {
+      writeRecord(writer, fieldJoiner.join(RECORD_SECTION, section.name));
+      for (String directory : section.directories) {
+        writeRecord(writer, fieldJoiner.join(RECORD_DIRECTORY, directory));
+      }
+      for (ManifestFile file : section.files) {
+        writeRecord(writer,
+            fieldJoiner.join(RECORD_FILE, file.path, Long.toString(file.size), chunkJoiner.join(file.chunkHashes)));
+      }
+    }
+
+    writer.flush();
+  }
+
+  /**
+   * Write a single record.
+   *
+   * @param writer
+   *          the writer for the manifest
+   * @param record
+   *          the record
+   *
+   * @throws IOException
+   *           the record could not be written
+   */
+  private void writeRecord(Writer writer, String record) throws IOException {
+    writer.write(record);
+    writer.write('\n');
+  }
+
+  /**
+   * Read a manifest.
+   *
+   * @param in
+   *          the stream to read from, the stream is not closed
+   *
+   * @return the manifest
+   *
+   * @throws IOException
+   *           the manifest could not be read
+   */
+  public static ChunkedContentManifest read(InputStream in) throws IOException {
+    ChunkedContentManifest manifest = new ChunkedContentManifest();
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, MANIFEST_CHARSET));
+    Splitter fieldSplitter = Splitter.on(FIELD_SEPARATOR);
+    Splitter chunkSplitter = Splitter.on(CHUNK_SEPARATOR).omitEmptyStrings();
+
+    ManifestSection section = null;
+    boolean formatSeen = false;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.isEmpty()) {
+        continue;
+      }
+
+      List<String> fields = fieldSplitter.splitToList(line);
+      String recordType = fields.get(0);
+      if (!formatSeen) {
+        if (!RECORD_FORMAT.equals(recordType) || fields.size() != 2 || !FORMAT_VERSION.equals(fields.get(1))) {
+          throw new SimpleInteractiveSpacesException("Unsupported chunked content manifest format: " + line);
+        }
+        formatSeen = true;
+      } else if (RECORD_PROPERTY.equals(recordType) && fields.size() == 3) {
+        manifest.properties.put(fields.get(1), fields.get(2));
+      } else if (RECORD_SECTION.equals(recordType) && fields.size() == 2) {
+        section = manifest.getOrCreateSection(fields.get(1));
+      } else if (RECORD_DIRECTORY.equals(recordType) && fields.size() == 2 && section != null) {
+        section.directories.add(fields.get(1));
+      } else if (RECORD_FILE.equals(recordType) && fields.size() == 4 && section != null) {
+        section.files.add(new ManifestFile(fields.get(1), Long.parseLong(fields.get(2)), chunkSplitter
+            .splitToList(fields.get(3))));
+      } else {
+        throw new SimpleInteractiveSpacesException("Bad chunked content manifest record: " + line);
+      }
+    }
+
+    if (!formatSeen) {
+      throw new SimpleInteractiveSpacesException("Empty chunked content manifest");
+    }
+
+    return manifest;
+  }
+
+  /**
+   * Make sure a value can be written as a field.
+   *
+   * @param value
+   *          the value
+   */
+  private static void checkField(String value) {
+    if (value.indexOf(FIELD_SEPARATOR) != -1 || value.indexOf('\n') != -1 || value.indexOf('\r') != -1) {
+      throw new SimpleInteractiveSpacesException("Chunked content manifest value has a tab or line break: " + value);
+    }
+  }
+
+  /**
+   * A section of the manifest, describing a single directory tree.
+   *
+   * @author agent
+   */
+  public static class ManifestSection {
+
+    /**
+     * Name of the section.
+     */
+    private final String name;
+
+    /**
+     * Relative paths of the directories in the tree.
+     */
+    private final List<String> directories = Lists.newArrayList();
+
+    /**
+     * The files in the tree.
+     */
+    private final List<ManifestFile> files = Lists.newArrayList();
+
+    /**
+     * Construct a new section.
+     *
+     * @param name
+     *          name of the section
+     */
+    private ManifestSection(String name) {
+      this.name = name;
+    }
+
+    /**
+     * Get the name of the section.
+     *
+     * @return the name
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Add a directory to the section.
+     *
+     * @param path
+     *          path of the directory relative to the root of the tree
+     */
+    public synchronized void addDirectory(String path) {
+      checkField(path);
+      directories.add(path);
+    }
+
+    /**
+     * Add a file to the section.
+     *
+     * @param path
+     *          path of the file relative to the root of the tree
+     * @param size
+     *          size of the file, in bytes
+     * @param chunks
+     *          the chunks of the file, in order
+     */
+    public synchronized void addFile(String path, long size, List<ContentChunk> chunks) {
+      checkField(path);
+      List<String> chunkHashes = Lists.newArrayListWithCapacity(chunks.size());
+      for (ContentChunk chunk : chunks) {
+        chunkHashes.add(chunk.getHash());
+      }
+      files.add(new ManifestFile(path, size, chunkHashes));
+    }
+
+    /**
+     * Get the directories in the section.
+     *
+     * @return relative paths of the directories
+     */
+    public synchronized List<String> getDirectories() {
+      return Collections.unmodifiableList(Lists.newArrayList(directories));
+    }
+
+    /**
+     * Get the files in the section.
+     *
+     * @return the files
+     */
+    public synchronized List<ManifestFile> getFiles() {
+      return Collections.unmodifiableList(Lists.newArrayList(files));
+    }
+  }
+
+  /**
+   * A file in a manifest section.
+   *
+   * @author agent
+   */
+  public static class ManifestFile {
+
+    /**
+     * Path of the file relative to the root of its tree.
+     */
+    private final String path;
+
+    /**
+     * Size of the file, in bytes.
+     */
+    private final long size;
+
+    /**
+     * Hashes of the chunks of the file, in order.
+     */
+    private final List<String> chunkHashes;
+
+    /**
+     * Construct a new file.
+     *
+     * @param path
+     *          path of the file relative to the root of its tree
+     * @param size
+     *          size of the file, in bytes
+     * @param chunkHashes
+     *          hashes of the chunks of the file, in order
+     */
+    public ManifestFile(String path, long size, List<String> chunkHashes) {
+      this.path = path;
+      this.size = size;
+      this.chunkHashes = Collections.unmodifiableList(Lists.newArrayList(chunkHashes));
+    }
+
+    /**
+     * Get the path of the file.
+     *
+     * @return the path relative to the root of its tree
+     */
+    public String getPath() {
+      return path;
+    }
+
+    /**
+     * Get the size of the file.
+     *
+     * @return the size, in bytes
+     */
+    public long getSize() {
+      return size;
+    }
+
+    /**
+     * Get the hashes of the chunks of the file.
+     *
+     * @return the hashes, in order
+     */
+    public List<String> getChunkHashes() {
+      return chunkHashes;
+    }
+  }
+}
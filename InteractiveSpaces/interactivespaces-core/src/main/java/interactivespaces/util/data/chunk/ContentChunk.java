@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.data.chunk;
+
+/**
+ * A chunk of content found by a {@link ContentChunker}.
+ *
+ * @author agent
+ */
+public class ContentChunk {
+
+  /**
+   * The hash of the chunk contents.
+   */
+  private final String hash;
+
+  /**
+   * Where the chunk starts in the content.
+   */
+  private final long offset;
+
+  /**
+   * The length of the chunk, in bytes.
+   */
+  private final int length;
+
+  /**
+   * Construct a new chunk.
+   *
+   * @param hash
+   *          the hash of the chunk contents
+   * @param offset
+   *          where the chunk starts in the content
+   * @param length
+   *          the length of the chunk, in bytes
+   */
+  public ContentChunk(String hash, long offset, int length) {
+    this.hash = hash;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /**
+   * Get the hash of the chunk contents.
+   *
+   * @return the hash
+   */
+  public String getHash() {
+    return hash;
+  }
+
+  /**
+   * Get where the chunk starts in the content.
+   *
+   * @return the offset, in bytes
+   */
+  public long getOffset() {
+    return offset;
+  }
+
+  /**
+   * Get the length of the chunk.
+   *
+   * @return the length, in bytes
+   */
+  public int getLength() {
+    return length;
+  }
+
+  @Override
+  public String toString() {
+    return "ContentChunk [hash=" + hash + ", offset=" + offset + ", length=" + length + "]";
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.data.chunk;
+
+import java.io.IOException;
+
+/**
+ * Handles the chunks found by a {@link ContentChunker}.
+ *
+ * @author agent
+ */
+public interface ContentChunkHandler {
+
+  /**
+   * A chunk has been found.
+   *
+   * @param chunk
+   *          the chunk
+   * @param data
+   *          buffer holding the chunk contents, only valid for the duration of the call
+   *
+   * @throws IOException
+   *           the chunk could not be handled
+   */
+  void onChunk(ContentChunk chunk, byte[] data) throws IOException;
+}
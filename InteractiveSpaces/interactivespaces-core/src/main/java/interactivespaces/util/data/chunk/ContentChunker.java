@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.data.chunk;
+
+import interactivespaces.SimpleInteractiveSpacesException;
+
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Splits content into chunks whose boundaries depend on the content itself, using a rolling gear hash.
+ *
+ * <p>
+ * Since a boundary only depends on the bytes just before it, inserting or removing bytes in one place of a file only
+ * changes the chunks around that place. Unchanged parts of the file give the same chunks as before and don't need to be
+ * sent again.
+ *
+ * @author agent
+ */
+public class ContentChunker {
+
+  /**
+   * The default minimum chunk size, in bytes.
+   */
+  public static final int CHUNK_SIZE_MIN_DEFAULT = 16 * 1024;
+
+  /**
+   * The default average chunk size, in bytes.
+   */
+  public static final int CHUNK_SIZE_AVERAGE_DEFAULT = 64 * 1024;
+
+  /**
+   * The default maximum chunk size, in bytes.
+   */
+  public static final int CHUNK_SIZE_MAX_DEFAULT = 256 * 1024;
+
+  /**
+   * Size of the buffer for reading content.
+   */
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The seed for the gear table. It must never change or previously stored chunks will no longer match.
+   */
+  private static final long GEAR_SEED = 0x4953434855554e4bL;
+
+  /**
+   * Random values for each byte value, mixed into the rolling hash.
+   */
+  private static final long[] GEAR = new long[256];
+
+  static {
+    Random random = new Random(GEAR_SEED);
+    for (int i = 0; i < GEAR.length; i++) {
+      GEAR[i] = random.nextLong();
+    }
+  }
+
+  /**
+   * The minimum chunk size, in bytes.
+   */
+  private final int minChunkSize;
+
+  /**
+   * The maximum chunk size, in bytes.
+   */
+  private final int maxChunkSize;
+
+  /**
+   * The mask giving a boundary when none of its bits are set in the rolling hash.
+   */
+  private final long boundaryMask;
+
+  /**
+   * Construct a chunker with the default chunk sizes.
+   */
+  public ContentChunker() {
+    this(CHUNK_SIZE_MIN_DEFAULT, CHUNK_SIZE_AVERAGE_DEFAULT, CHUNK_SIZE_MAX_DEFAULT);
+  }
+
+  /**
+   * Construct a chunker.
+   *
+   * @param minChunkSize
+   *          the minimum chunk size, in bytes
+   * @param averageChunkSize
+   *          the average chunk size, in bytes, must be a power of 2
+   * @param maxChunkSize
+   *          the maximum chunk size, in bytes
+   */
+  public ContentChunker(int minChunkSize, int averageChunkSize, int maxChunkSize) {
+    if (Integer.bitCount(averageChunkSize) != 1) {
+      throw new SimpleInteractiveSpacesException("Average chunk size must be a power of 2: " + averageChunkSize);
+    }
+    if (minChunkSize <= 0 || minChunkSize > averageChunkSize || averageChunkSize > maxChunkSize) {
+      throw new SimpleInteractiveSpacesException(String.format("Chunk sizes out of order: min %d, average %d, max %d",
+          minChunkSize, averageChunkSize, maxChunkSize));
+    }
+
+    this.minChunkSize = minChunkSize;
+    this.maxChunkSize = maxChunkSize;
+
+    // The top bits of the gear hash are the best mixed.
+    boundaryMask = (averageChunkSize - 1L) << (Long.SIZE - Integer.numberOfTrailingZeros(averageChunkSize));
+  }
+
+  /**
+   * Split content into chunks.
+   *
+   * @param in
+   *          the content, the stream is not closed
+   * @param handler
+   *          the handler for the chunks, can be {@code null}
+   *
+   * @return the chunks, in the order they appear in the content
+   *
+   * @throws IOException
+   *           the content could not be read or a chunk could not be handled
+   */
+  public List<ContentChunk> chunk(InputStream in, ContentChunkHandler handler) throws IOException {
+    List<ContentChunk> chunks = Lists.newArrayList();
+
+    byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+    byte[] chunkBuffer = new byte[maxChunkSize];
+    int chunkLength = 0;
+    long chunkOffset = 0;
+    long hash = 0;
+
+    int numberRead;
+    while ((numberRead = in.read(readBuffer)) != -1) {
+      for (int i = 0; i < numberRead; i++) {
+        byte b = readBuffer[i];
+        chunkBuffer[chunkLength++] = b;
+        hash = (hash << 1) + GEAR[b & 0xff];
+
+        if ((chunkLength >= minChunkSize && (hash & boundaryMask) == 0) || chunkLength == maxChunkSize) {
+          chunks.add(emitChunk(chunkBuffer, chunkLength, chunkOffset, handler));
+          chunkOffset += chunkLength;
+          chunkLength = 0;
+          hash = 0;
+        }
+      }
+    }
+
+    if (chunkLength > 0) {
+      chunks.add(emitChunk(chunkBuffer, chunkLength, chunkOffset, handler));
+    }
+
+    return chunks;
+  }
+
+  /**
+   * A chunk boundary has been found.
+   *
+   * @param chunkBuffer
+   *          the buffer holding the chunk
+   * @param chunkLength
+   *          the length of the chunk
+   * @param chunkOffset
+   *          where the chunk starts in the content
+   * @param handler
+   *          the handler for the chunk, can be {@code null}
+   *
+   * @return the chunk
+   *
+   * @throws IOException
+   *           the handler could not handle the chunk
+   */
+  private ContentChunk emitChunk(byte[] chunkBuffer, int chunkLength, long chunkOffset, ContentChunkHandler handler)
+      throws IOException {
+    ContentChunk chunk = new ContentChunk(hashChunk(chunkBuffer, chunkLength), chunkOffset, chunkLength);
+    if (handler != null) {
+      handler.onChunk(chunk, chunkBuffer);
+    }
+
+    return chunk;
+  }
+
+  /**
+   * Get the hash identifying chunk contents.
+   *
+   * @param data
+   *          buffer holding the chunk
+   * @param length
+   *          length of the chunk
+   *
+   * @return the hash
+   */
+  public static String hashChunk(byte[] data, int length) {
+    return Hashing.sha1().hashBytes(data, 0, length).toString();
+  }
+
+  /**
+   * Compress chunk contents for storage or transfer.
+   *
+   * @param data
+   *          buffer holding the chunk
+   * @param length
+   *          length of the chunk
+   *
+   * @return the compressed chunk
+   */
+  public static byte[] compressChunk(byte[] data, int length) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(length / 2 + 64);
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    try {
+      DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater);
+      out.write(data, 0, length);
+      out.close();
+    } catch (IOException e) {
+      throw new SimpleInteractiveSpacesException("Could not compress chunk", e);
+    } finally {
+      deflater.end();
+    }
+
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Decompress chunk contents compressed by {@link #compressChunk(byte[], int)}.
+   *
+   * @param in
+   *          stream of the compressed chunk, the stream is not closed
+   *
+   * @return the chunk contents
+   *
+   * @throws IOException
+   *           the chunk could not be read
+   */
+  public static byte[] decompressChunk(InputStream in) throws IOException {
+    return ByteStreams.toByteArray(new InflaterInputStream(in));
+  }
+}
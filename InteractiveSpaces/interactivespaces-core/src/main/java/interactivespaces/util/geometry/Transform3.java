@@ -103,6 +103,20 @@ public class Transform3 {
     return this;
   }
 
+  /**
+   * Transform a batch of vectors according to the current transform.
+   *
+   * @param vectors
+   *          the batch of vectors, its vectors are transformed in place
+   *
+   * @return this transform
+   */
+  public Transform3 transformSelf(Vector3Batch vectors) {
+    vectors.multiplySelf(transform);
+
+    return this;
+  }
+
   /**
    * Reset the transform to an identify transform.
    *
@@ -0,0 +1,691 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.geometry;
+
+import interactivespaces.InteractiveSpacesException;
+
+import com.google.common.collect.Lists;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A batch of 3D vectors stored as one array per component.
+ *
+ * <p>
+ * The operations change the vectors in place and create no objects per vector, so a large set of points can be
+ * transformed every frame without creating garbage. Each operation is a simple loop over the component arrays which
+ * the JIT can unroll and vectorize.
+ *
+ * <p>
+ * If an executor service is set, operations on batches of at least the parallel threshold are split into fixed size
+ * chunks which run on the executor, with the calling thread running the first chunk and then waiting for the rest.
+ *
+ * @author agent
+ */
+public class Vector3Batch {
+
+  /**
+   * The default size a batch has to be before operations are split across the executor service.
+   */
+  public static final int PARALLEL_THRESHOLD_DEFAULT = 16384;
+
+  /**
+   * The number of vectors in each chunk of a parallel operation.
+   */
+  public static final int PARALLEL_CHUNK_SIZE = 4096;
+
+  /**
+   * The first components of the vectors.
+   */
+  double[] v0;
+
+  /**
+   * The second components of the vectors.
+   */
+  double[] v1;
+
+  /**
+   * The third components of the vectors.
+   */
+  double[] v2;
+
+  /**
+   * The number of vectors in the batch.
+   */
+  private int size;
+
+  /**
+   * The executor service for parallel operations, can be {@code null}.
+   */
+  private ExecutorService executorService;
+
+  /**
+   * The size a batch has to be before operations are split across the executor service.
+   */
+  private int parallelThreshold = PARALLEL_THRESHOLD_DEFAULT;
+
+  /**
+   * Construct an empty batch.
+   *
+   * @param capacity
+   *          the number of vectors the batch can hold before it has to grow
+   */
+  public Vector3Batch(int capacity) {
+    v0 = new double[capacity];
+    v1 = new double[capacity];
+    v2 = new double[capacity];
+  }
+
+  /**
+   * Construct a batch holding the components of a list of vectors.
+   *
+   * @param vectors
+   *          the vectors
+   */
+  public Vector3Batch(List<Vector3> vectors) {
+    this(vectors.size());
+
+    for (Vector3 v : vectors) {
+      add(v);
+    }
+  }
+
+  /**
+   * Get the number of vectors in the batch.
+   *
+   * @return the number of vectors
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Set the number of vectors in the batch. The batch grows if needed, new vectors have undefined components.
+   *
+   * @param size
+   *          the number of vectors
+   *
+   * @return this batch
+   */
+  public Vector3Batch setSize(int size) {
+    ensureCapacity(size);
+    this.size = size;
+
+    return this;
+  }
+
+  /**
+   * Remove all vectors from the batch.
+   *
+   * @return this batch
+   */
+  public Vector3Batch clear() {
+    size = 0;
+
+    return this;
+  }
+
+  /**
+   * Set the executor service to split operations on large batches across.
+   *
+   * @param executorService
+   *          the executor service, {@code null} if all operations should run in the calling thread
+   *
+   * @return this batch
+   */
+  public Vector3Batch setExecutorService(ExecutorService executorService) {
+    this.executorService = executorService;
+
+    return this;
+  }
+
+  /**
+   * Set the size a batch has to be before operations are split across the executor service.
+   *
+   * @param parallelThreshold
+   *          the number of vectors
+   *
+   * @return this batch
+   */
+  public Vector3Batch setParallelThreshold(int parallelThreshold) {
+    this.parallelThreshold = parallelThreshold;
+
+    return this;
+  }
+
+  /**
+   * Add a vector to the end of the batch.
+   *
+   * @param v0
+   *          the first component
+   * @param v1
+   *          the second component
+   * @param v2
+   *          the third component
+   *
+   * @return this batch
+   */
+  public Vector3Batch add(double v0, double v1, double v2) {
+    ensureCapacity(size + 1);
+    this.v0[size] = v0;
+    this.v1[size] = v1;
+    this.v2[size] = v2;
+    size++;
+
+    return this;
+  }
+
+  /**
+   * Add a vector to the end of the batch.
+   *
+   * @param v
+   *          the vector
+   *
+   * @return this batch
+   */
+  public Vector3Batch add(Vector3 v) {
+    return add(v.v0, v.v1, v.v2);
+  }
+
+  /**
+   * Set a vector in the batch.
+   *
+   * @param index
+   *          index of the vector
+   * @param v0
+   *          the first component
+   * @param v1
+   *          the second component
+   * @param v2
+   *          the third component
+   *
+   * @return this batch
+   */
+  public Vector3Batch set(int index, double v0, double v1, double v2) {
+    checkIndex(index);
+
+    this.v0[index] = v0;
+    this.v1[index] = v1;
+    this.v2[index] = v2;
+
+    return this;
+  }
+
+  /**
+   * Copy a vector in the batch into a vector object.
+   *
+   * @param index
+   *          index of the vector
+   * @param v
+   *          the vector to copy into
+   *
+   * @return the vector copied into
+   */
+  public Vector3 get(int index, Vector3 v) {
+    checkIndex(index);
+
+    return v.set(v0[index], v1[index], v2[index]);
+  }
+
+  /**
+   * Copy the vectors into a list of vector objects. The list must be at least as long as the batch.
+   *
+   * @param vectors
+   *          the vectors to copy into
+   *
+   * @return this batch
+   */
+  public Vector3Batch copyTo(List<Vector3> vectors) {
+    for (int i = 0; i < size; i++) {
+      vectors.get(i).set(v0[i], v1[i], v2[i]);
+    }
+
+    return this;
+  }
+
+  /**
+   * Get the first component of a vector.
+   *
+   * @param index
+   *          index of the vector
+   *
+   * @return the first component
+   */
+  public double getV0(int index) {
+    checkIndex(index);
+
+    return v0[index];
+  }
+
+  /**
+   * Get the second component of a vector.
+   *
+   * @param index
+   *          index of the vector
+   *
+   * @return the second component
+   */
+  public double getV1(int index) {
+    checkIndex(index);
+
+    return v1[index];
+  }
+
+  /**
+   * Get the third component of a vector.
+   *
+   * @param index
+   *          index of the vector
+   *
+   * @return the third component
+   */
+  public double getV2(int index) {
+    checkIndex(index);
+
+    return v2[index];
+  }
+
+  /**
+   * Add a vector to every vector in the batch.
+   *
+   * @param v
+   *          the vector to add
+   *
+   * @return this batch
+   */
+  public Vector3Batch addSelf(Vector3 v) {
+    final double a0 = v.v0;
+    final double a1 = v.v1;
+    final double a2 = v.v2;
+    run(new BatchKernel() {
+      @Override
+      public void apply(int from, int to) {
+        double[] b0 = v0;
+        double[] b1 = v1;
+        double[] b2 = v2;
+        for (int i = from; i < to; i++) {
+          b0[i] += a0;
+          b1[i] += a1;
+          b2[i] += a2;
+        }
+      }
+    });
+
+    return this;
+  }
+
+  /**
+   * Add the vectors of another batch to the corresponding vectors of this batch.
+   *
+   * @param batch
+   *          the batch to add, must be the same size as this batch
+   *
+   * @return this batch
+   */
+  public Vector3Batch addSelf(final Vector3Batch batch) {
+    checkSameSize(batch);
+
+    run(new BatchKernel() {
+      @Override
+      public void apply(int from, int to) {
+        double[] b0 = v0;
+        double[] b1 = v1;
+        double[] b2 = v2;
+        double[] a0 = batch.v0;
+        double[] a1 = batch.v1;
+        double[] a2 = batch.v2;
+        for (int i = from; i < to; i++) {
+          b0[i] += a0[i];
+          b1[i] += a1[i];
+          b2[i] += a2[i];
+        }
+      }
+    });
+
+    return this;
+  }
+
+  /**
+   * Subtract a vector from every vector in the batch.
+   *
+   * @param v
+   *          the vector to subtract
+   *
+   * @return this batch
+   */
+  public Vector3Batch subtractSelf(Vector3 v) {
+    return addSelf(new Vector3(-v.v0, -v.v1, -v.v2));
+  }
+
+  /**
+   * Scale every vector in the batch.
+   *
+   * @param factor
+   *          the scaling factor
+   *
+   * @return this batch
+   */
+  public Vector3Batch scaleSelf(final double factor) {
+    run(new BatchKernel() {
+      @Override
+      public void apply(int from, int to) {
+        double[] b0 = v0;
+        double[] b1 = v1;
+        double[] b2 = v2;
+        for (int i = from; i < to; i++) {
+          b0[i] *= factor;
+          b1[i] *= factor;
+          b2[i] *= factor;
+        }
+      }
+    });
+
+    return this;
+  }
+
+  /**
+   * Normalize every vector in the batch.
+   *
+   * @return this batch
+   */
+  public Vector3Batch normalizeSelf() {
+    run(new BatchKernel() {
+      @Override
+      public void apply(int from, int to) {
+        double[] b0 = v0;
+        double[] b1 = v1;
+        double[] b2 = v2;
+        for (int i = from; i < to; i++) {
+          double length = Math.sqrt(b0[i] * b0[i] + b1[i] * b1[i] + b2[i] * b2[i]);
+          b0[i] /= length;
+          b1[i] /= length;
+          b2[i] /= length;
+        }
+      }
+    });
+
+    return this;
+  }
+
+  /**
+   * Get the lengths of all vectors in the batch.
+   *
+   * @param lengths
+   *          the array to place the lengths in, must be at least as long as the batch
+   *
+   * @return the array of lengths
+   */
+  public double[] getLengths(final double[] lengths) {
+    run(new BatchKernel() {
+      @Override
+      public void apply(int from, int to) {
+        double[] b0 = v0;
+        double[] b1 = v1;
+        double[] b2 = v2;
+        for (int i = from; i < to; i++) {
+          lengths[i] = Math.sqrt(b0[i] * b0[i] + b1[i] * b1[i] + b2[i] * b2[i]);
+        }
+      }
+    });
+
+    return lengths;
+  }
+
+  /**
+   * Multiply every vector in the batch by a matrix, treating the vectors as homogeneous points. This gives the same
+   * results as {@link Vector3#multiplySelf(Matrix4)}.
+   *
+   * @param m
+   *          the matrix to multiply by
+   *
+   * @return this batch
+   */
+  public Vector3Batch multiplySelf(Matrix4 m) {
+    final double m00 = m.matrix[0][0];
+    final double m01 = m.matrix[0][1];
+    final double m02 = m.matrix[0][2];
+    final double m03 = m.matrix[0][3];
+    final double m10 = m.matrix[1][0];
+    final double m11 = m.matrix[1][1];
+    final double m12 = m.matrix[1][2];
+    final double m13 = m.matrix[1][3];
+    final double m20 = m.matrix[2][0];
+    final double m21 = m.matrix[2][1];
+    final double m22 = m.matrix[2][2];
+    final double m23 = m.matrix[2][3];
+    final double m30 = m.matrix[3][0];
+    final double m31 = m.matrix[3][1];
+    final double m32 = m.matrix[3][2];
+    final double m33 = m.matrix[3][3];
+
+    if (m30 == 0.0 && m31 == 0.0 && m32 == 0.0 && m33 == 1.0) {
+      // Affine transforms always have a homogeneous coordinate of 1, so the divide can be skipped.
+      run(new BatchKernel() {
+        @Override
+        public void apply(int from, int to) {
+          double[] b0 = v0;
+          double[] b1 = v1;
+          double[] b2 = v2;
+          for (int i = from; i < to; i++) {
+            double x = b0[i];
+            double y = b1[i];
+            double z = b2[i];
+            b0[i] = x * m00 + y * m01 + z * m02 + m03;
+            b1[i] = x * m10 + y * m11 + z * m12 + m13;
+            b2[i] = x * m20 + y * m21 + z * m22 + m23;
+          }
+        }
+      });
+    } else {
+      run(new BatchKernel() {
+        @Override
+        public void apply(int from, int to) {
+          double[] b0 = v0;
+          double[] b1 = v1;
+          double[] b2 = v2;
+          for (int i = from; i < to; i++) {
+            double x = b0[i];
+            double y = b1[i];
+            double z = b2[i];
+            double w = x * m30 + y * m31 + z * m32 + m33;
+            b0[i] = (x * m00 + y * m01 + z * m02 + m03) / w;
+            b1[i] = (x * m10 + y * m11 + z * m12 + m13) / w;
+            b2[i] = (x * m20 + y * m21 + z * m22 + m23) / w;
+          }
+        }
+      });
+    }
+
+    return this;
+  }
+
+  /**
+   * Transform every vector in the batch.
+   *
+   * @param transform
+   *          the transform
+   *
+   * @return this batch
+   */
+  public Vector3Batch transformSelf(Transform3 transform) {
+    return multiplySelf(transform.get());
+  }
+
+  /**
+   * Rotate every vector in the batch by a quaternion.
+   *
+   * <p>
+   * The rotation will be inconsistent if the quaternion does not have a length of 1.
+   *
+   * @param q
+   *          the quaternion
+   *
+   * @return this batch
+   */
+  public Vector3Batch rotateSelf(Quaternion q) {
+    return multiplySelf(new Matrix4().set(q));
+  }
+
+  /**
+   * Run a kernel over the whole batch, splitting it across the executor service if the batch is large enough.
+   *
+   * @param kernel
+   *          the kernel to run
+   */
+  private void run(BatchKernel kernel) {
+    if (executorService == null || size < parallelThreshold || size <= PARALLEL_CHUNK_SIZE) {
+      kernel.apply(0, size);
+
+      return;
+    }
+
+    List<Future<?>> chunks = Lists.newArrayList();
+    try {
+      for (int from = PARALLEL_CHUNK_SIZE; from < size; from += PARALLEL_CHUNK_SIZE) {
+        chunks.add(executorService.submit(new BatchKernelChunk(kernel, from, Math.min(from + PARALLEL_CHUNK_SIZE,
+            size))));
+      }
+
+      kernel.apply(0, PARALLEL_CHUNK_SIZE);
+
+      for (Future<?> chunk : chunks) {
+        chunk.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InteractiveSpacesException("Interrupted during a batch operation", e);
+    } catch (ExecutionException e) {
+      throw new InteractiveSpacesException("Error during a batch operation", e.getCause());
+    } finally {
+      for (Future<?> chunk : chunks) {
+        chunk.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * Make sure the batch can hold a given number of vectors.
+   *
+   * @param capacity
+   *          the number of vectors
+   */
+  private void ensureCapacity(int capacity) {
+    if (capacity > v0.length) {
+      int newCapacity = Math.max(capacity, v0.length * 2);
+      v0 = Arrays.copyOf(v0, newCapacity);
+      v1 = Arrays.copyOf(v1, newCapacity);
+      v2 = Arrays.copyOf(v2, newCapacity);
+    }
+  }
+
+  /**
+   * Make sure an index refers to a vector in the batch.
+   *
+   * @param index
+   *          the index
+   *
+   * @throws IndexOutOfBoundsException
+   *           the index is not in the batch
+   */
+  private void checkIndex(int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(String.format("Index %d not in batch of size %d", index, size));
+    }
+  }
+
+  /**
+   * Make sure another batch is the same size as this batch.
+   *
+   * @param batch
+   *          the other batch
+   *
+   * @throws IllegalArgumentException
+   *           the batches are different sizes
+   */
+  private void checkSameSize(Vector3Batch batch) throws IllegalArgumentException {
+    if (batch.size != size) {
+      throw new IllegalArgumentException(String.format("Batch of size %d does not match batch of size %d", batch.size,
+          size));
+    }
+  }
+
+  /**
+   * An operation on a range of the vectors in a batch.
+   *
+   * @author agent
+   */
+  private interface BatchKernel {
+
+    /**
+     * Apply the operation.
+     *
+     * @param from
+     *          index of the first vector, inclusive
+     * @param to
+     *          index of the last vector, exclusive
+     */
+    void apply(int from, int to);
+  }
+
+  /**
+   * A chunk of a parallel operation, which runs a kernel over a range of vectors.
+   *
+   * @author agent
+   */
+  private static class BatchKernelChunk implements Runnable {
+
+    /**
+     * The kernel to run.
+     */
+    private final BatchKernel kernel;
+
+    /**
+     * Index of the first vector, inclusive.
+     */
+    private final int from;
+
+    /**
+     * Index of the last vector, exclusive.
+     */
+    private final int to;
+
+    /**
+     * Construct a new chunk.
+     *
+     * @param kernel
+     *          the kernel to run
+     * @param from
+     *          index of the first vector, inclusive
+     * @param to
+     *          index of the last vector, exclusive
+     */
+    public BatchKernelChunk(BatchKernel kernel, int from, int to) {
+      this.kernel = kernel;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public void run() {
+      kernel.apply(from, to);
+    }
+  }
+}
@@ -23,5 +23,8 @@
  *
  * <p>
  * 3D transforms are supported by the {@link Transform3} class.
+ *
+ * <p>
+ * Large sets of 3D points can be held in a {@link Vector3Batch} and transformed without creating an object per point.
  */
 package interactivespaces.util.geometry;
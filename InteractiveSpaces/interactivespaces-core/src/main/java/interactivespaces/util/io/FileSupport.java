@@ -506,6 +506,24 @@ public interface FileSupport {
    */
   boolean rename(File from, File to);
 
+  /**
+   * Create a hard link to an existing file.
+   *
+   * <p>
+   * Hard links need {@code java.nio.file}, which is not available on every runtime Interactive Spaces runs on, and not
+   * every file system supports them. Callers should fall back to copying the file when this method returns
+   * {@code false}.
+   *
+   * @param link
+   *          the new link to create, must not exist
+   * @param existing
+   *          the existing file the link will refer to
+   *
+   * @return {@code true} if the link was created, {@code false} if hard links are not available or the link could not
+   *         be made
+   */
+  boolean createHardLink(File link, File existing);
+
   /**
    * Create a unique temporary file in the given directory, using default prefix and suffix.
    *
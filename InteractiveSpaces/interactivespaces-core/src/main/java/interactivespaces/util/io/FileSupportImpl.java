@@ -33,6 +33,8 @@ import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.nio.channels.FileChannel;
 import java.security.SecureRandom;
 import java.util.Enumeration;
@@ -505,6 +507,23 @@ public class FileSupportImpl implements FileSupport {
     return from.renameTo(to);
   }
 
+  @Override
+  public boolean createHardLink(File link, File existing) {
+    if (!HardLinks.AVAILABLE) {
+      return false;
+    }
+
+    try {
+      HardLinks.createLink.invoke(null, HardLinks.toPath.invoke(link), HardLinks.toPath.invoke(existing));
+      return true;
+    } catch (InvocationTargetException e) {
+      // IOException, UnsupportedOperationException or SecurityException from the file system.
+      return false;
+    } catch (IllegalAccessException e) {
+      return false;
+    }
+  }
+
   @Override
   public File createTempFile(File baseDir) {
     return createTempFile(baseDir, TEMP_FILE_PREFIX, "");
@@ -576,4 +595,55 @@ public class FileSupportImpl implements FileSupport {
       }
     }
   }
+
+  /**
+   * Lazily resolved access to {@code java.nio.file} hard links.
+   *
+   * <p>
+   * The project targets Java 6, so the Java 7 classes are only reached through reflection and only when the runtime
+   * has them.
+   *
+   * @author Keith M. Hughes
+   */
+  private static final class HardLinks {
+
+    /**
+     * {@code File.toPath()}, or {@code null} if not available.
+     */
+    private static final Method toPath;
+
+    /**
+     * {@code Files.createLink(Path, Path)}, or {@code null} if not available.
+     */
+    private static final Method createLink;
+
+    /**
+     * {@code true} if hard links can be attempted on this runtime.
+     */
+    private static final boolean AVAILABLE;
+
+    static {
+      Method toPathMethod = null;
+      Method createLinkMethod = null;
+      try {
+        Class<?> pathClass = Class.forName("java.nio.file.Path");
+        Class<?> filesClass = Class.forName("java.nio.file.Files");
+        toPathMethod = File.class.getMethod("toPath");
+        createLinkMethod = filesClass.getMethod("createLink", pathClass, pathClass);
+      } catch (ClassNotFoundException e) {
+        // Pre-Java 7 runtime.
+      } catch (NoSuchMethodException e) {
+        // Pre-Java 7 runtime.
+      }
+      toPath = toPathMethod;
+      createLink = createLinkMethod;
+      AVAILABLE = toPathMethod != null && createLinkMethod != null;
+    }
+
+    /**
+     * Not instantiable.
+     */
+    private HardLinks() {
+    }
+  }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.io.directorywatcher;
+
+/**
+ * Factory methods for directory watchers.
+ *
+ * <p>
+ * Watchers come from filesystem change events when the runtime has the
+ * {@code java.nio.file} watch service from Java 7, and fall back to polling
+ * otherwise, for instance on Android. The event based watcher class is never
+ * loaded unless the watch service is there.
+ *
+ * @author agent
+ */
+public final class DirectoryWatchers {
+
+  /**
+   * Name of the class which must be available for the event based watcher.
+   */
+  private static final String WATCH_SERVICE_CLASS_NAME = "java.nio.file.WatchService";
+
+  /**
+   * {@code true} if the runtime has a filesystem watch service.
+   */
+  private static final boolean WATCH_SERVICE_AVAILABLE = checkWatchServiceAvailable();
+
+  /**
+   * Create a new directory watcher.
+   *
+   * @param cleanFirst
+   *          {@code true} if added directories are cleaned before they are
+   *          watched
+   *
+   * @return the new watcher
+   */
+  public static DirectoryWatcher newDirectoryWatcher(boolean cleanFirst) {
+    if (WATCH_SERVICE_AVAILABLE) {
+      return new WatchServiceDirectoryWatcher(cleanFirst);
+    } else {
+      return new SimpleDirectoryWatcher(cleanFirst);
+    }
+  }
+
+  /**
+   * Create a new directory watcher which does not clean its directories.
+   *
+   * @return the new watcher
+   */
+  public static DirectoryWatcher newDirectoryWatcher() {
+    return newDirectoryWatcher(false);
+  }
+
+  /**
+   * Create a new batch directory watcher.
+   *
+   * @return the new watcher
+   */
+  public static BatchDirectoryWatcher newBatchDirectoryWatcher() {
+    if (WATCH_SERVICE_AVAILABLE) {
+      return new WatchServiceDirectoryWatcher();
+    } else {
+      return new SimpleBatchDirectoryWatcher();
+    }
+  }
+
+  /**
+   * Does the runtime have a filesystem watch service?
+   *
+   * @return {@code true} if watchers can be driven by filesystem events
+   */
+  public static boolean isWatchServiceAvailable() {
+    return WATCH_SERVICE_AVAILABLE;
+  }
+
+  /**
+   * Check whether the runtime has a filesystem watch service.
+   *
+   * @return {@code true} if the watch service classes can be loaded
+   */
+  private static boolean checkWatchServiceAvailable() {
+    try {
+      Class.forName(WATCH_SERVICE_CLASS_NAME);
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    } catch (LinkageError e) {
+      return false;
+    }
+  }
+
+  /**
+   * Private constructor for utility class.
+   */
+  private DirectoryWatchers() {
+  }
+}
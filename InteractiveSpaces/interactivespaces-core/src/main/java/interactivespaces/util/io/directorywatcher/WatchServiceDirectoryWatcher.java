@@ -0,0 +1,801 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.io.directorywatcher;
+
+import interactivespaces.system.InteractiveSpacesEnvironment;
+import interactivespaces.util.io.Files;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import org.apache.commons.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A directory watcher which is driven by filesystem events from a
+ * {@link WatchService}.
+ *
+ * <p>
+ * Events are debounced: changes are collected until the directories have been
+ * quiet for a short time and are then delivered together, which also means a
+ * file still being written has a chance to finish before listeners hear about
+ * it. The watcher can be used either as a {@link DirectoryWatcher} or as a
+ * {@link BatchDirectoryWatcher}, batch listeners get each debounced set of
+ * added files in one call.
+ *
+ * <p>
+ * Directories which can't be registered with the watch service, either because
+ * they don't exist yet or because their filesystem doesn't support change
+ * events, are polled with the period given at startup. A directory which
+ * appears later is registered the first time it is polled.
+ *
+ * <p>
+ * The watch service is checked on a short scheduled tick rather than by a
+ * thread blocked waiting on it, so watchers don't tie up threads in the shared
+ * executor.
+ *
+ * <p>
+ * This class needs the {@code java.nio.file} package from Java 7. Use
+ * {@link DirectoryWatchers} to get a watcher which falls back to polling on
+ * older runtimes.
+ *
+ * @author agent
+ */
+public class WatchServiceDirectoryWatcher implements DirectoryWatcher, BatchDirectoryWatcher {
+
+  /**
+   * The default time the directories must be quiet before changes are
+   * delivered, in milliseconds.
+   */
+  public static final long DEBOUNCE_DELAY_DEFAULT = 100;
+
+  /**
+   * The maximum number of debounce delays changes can be held back by a
+   * directory which never goes quiet.
+   */
+  public static final int DEBOUNCE_DELAY_MAX_MULTIPLE = 10;
+
+  /**
+   * The number of times the watch service is checked for events during each
+   * debounce delay.
+   */
+  public static final int EVENT_CHECKS_PER_DEBOUNCE_DELAY = 2;
+
+  /**
+   * The directories being watched.
+   */
+  private final List<File> directoriesWatched = Lists.newArrayList();
+
+  /**
+   * The directories registered with the watch service, keyed by their watch
+   * key.
+   */
+  private final Map<WatchKey, File> registeredDirectories = Maps.newHashMap();
+
+  /**
+   * The files known to be in the watched directories.
+   */
+  private Set<File> filesKnown = Sets.newHashSet();
+
+  /**
+   * Files which have had events since the last delivery of changes.
+   */
+  private final Set<File> filesTouched = Sets.newHashSet();
+
+  /**
+   * The listeners.
+   */
+  private final List<DirectoryWatcherListener> listeners =
+      new CopyOnWriteArrayList<DirectoryWatcherListener>();
+
+  /**
+   * The batch listeners.
+   */
+  private final List<BatchDirectoryWatcherListener> batchListeners =
+      new CopyOnWriteArrayList<BatchDirectoryWatcherListener>();
+
+  /**
+   * Held while changes are found and signalled, so listeners hear about changes
+   * in order. Listeners are called without holding the watcher lock.
+   *
+   * <p>
+   * Always taken before the watcher lock, never while holding it.
+   */
+  private final Object deliveryLock = new Object();
+
+  /**
+   * The watch service, {@code null} if the filesystem doesn't support one.
+   */
+  private WatchService watchService;
+
+  /**
+   * The executor service for all watcher tasks.
+   */
+  private ScheduledExecutorService executorService;
+
+  /**
+   * The future for the periodic check of the watch service for events.
+   */
+  private ScheduledFuture<?> eventCheckFuture;
+
+  /**
+   * The future for polling directories not handled by the watch service.
+   */
+  private ScheduledFuture<?> pollingFuture;
+
+  /**
+   * The future for the pending delivery of changes, if any.
+   */
+  private ScheduledFuture<?> deliveryFuture;
+
+  /**
+   * The time of the first event since changes were last delivered, in
+   * milliseconds.
+   */
+  private long firstEventTime;
+
+  /**
+   * The time of the most recent event, in milliseconds.
+   */
+  private long lastEventTime;
+
+  /**
+   * How long the directories must be quiet before changes are delivered, in
+   * milliseconds.
+   */
+  private final long debounceDelay;
+
+  /**
+   * {@code true} if the directories should be cleaned before they are watched.
+   */
+  private boolean cleanFirst = false;
+
+  /**
+   * {@code true} if the watcher should stop when there is an exception.
+   */
+  private boolean stopOnException = true;
+
+  /**
+   * {@code true} if the watcher is running.
+   */
+  private volatile boolean running;
+
+  /**
+   * The logger to use.
+   */
+  private Log log;
+
+  /**
+   * Construct a new watcher.
+   *
+   * <p>
+   * Directories will not be cleaned before they are watched.
+   */
+  public WatchServiceDirectoryWatcher() {
+    this(false);
+  }
+
+  /**
+   * Construct a new watcher.
+   *
+   * @param cleanFirst
+   *          {@code true} if added directories are cleaned before they are
+   *          watched
+   */
+  public WatchServiceDirectoryWatcher(boolean cleanFirst) {
+    this(cleanFirst, null);
+  }
+
+  /**
+   * Construct a new watcher.
+   *
+   * @param cleanFirst
+   *          {@code true} if added directories are cleaned before they are
+   *          watched
+   * @param log
+   *          the logger to use, can be {@code null} to use the space
+   *          environment log
+   */
+  public WatchServiceDirectoryWatcher(boolean cleanFirst, Log log) {
+    this(cleanFirst, log, DEBOUNCE_DELAY_DEFAULT);
+  }
+
+  /**
+   * Construct a new watcher.
+   *
+   * @param cleanFirst
+   *          {@code true} if added directories are cleaned before they are
+   *          watched
+   * @param log
+   *          the logger to use, can be {@code null} to use the space
+   *          environment log
+   * @param debounceDelay
+   *          how long the directories must be quiet before changes are
+   *          delivered, in milliseconds
+   */
+  public WatchServiceDirectoryWatcher(boolean cleanFirst, Log log, long debounceDelay) {
+    this.log = log;
+    this.debounceDelay = debounceDelay;
+    setCleanFirst(cleanFirst);
+  }
+
+  @Override
+  public void startup(InteractiveSpacesEnvironment environment, long period, TimeUnit unit) {
+    startWatching(environment, period, unit, true);
+  }
+
+  @Override
+  public Set<File> startupWithScan(InteractiveSpacesEnvironment environment, long period, TimeUnit unit) {
+    Set<File> initialFiles;
+    synchronized (this) {
+      filesKnown = scanDirectories(directoriesWatched);
+      initialFiles = Sets.newHashSet(filesKnown);
+    }
+
+    startWatching(environment, period, unit, false);
+
+    return initialFiles;
+  }
+
+  /**
+   * Start watching the directories.
+   *
+   * @param environment
+   *          the spaces environment being run under
+   * @param period
+   *          how often directories not handled by the watch service should be
+   *          polled
+   * @param unit
+   *          time unit for the polling period
+   * @param initialScan
+   *          {@code true} if the directories should be scanned immediately and
+   *          listeners told about all files found
+   */
+  private synchronized void startWatching(InteractiveSpacesEnvironment environment, long period, TimeUnit unit,
+      boolean initialScan) {
+    // If no log was set, we will use the space environment log
+    if (log == null) {
+      log = environment.getLog();
+    }
+    executorService = environment.getExecutorService();
+    running = true;
+
+    try {
+      watchService = FileSystems.getDefault().newWatchService();
+    } catch (IOException e) {
+      log.warn("Could not create a filesystem watch service, directories will be polled", e);
+    } catch (UnsupportedOperationException e) {
+      log.warn("Filesystem has no watch service, directories will be polled", e);
+    }
+
+    for (File directory : directoriesWatched) {
+      registerDirectory(directory);
+    }
+
+    if (watchService != null) {
+      long eventCheckPeriod = Math.max(1, debounceDelay / EVENT_CHECKS_PER_DEBOUNCE_DELAY);
+      eventCheckFuture = executorService.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          processWatchEvents();
+        }
+      }, eventCheckPeriod, eventCheckPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    pollingFuture = executorService.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        pollUnregisteredDirectories();
+      }
+    }, period, period, unit);
+
+    if (initialScan) {
+      executorService.execute(new Runnable() {
+        @Override
+        public void run() {
+          runSafely(new Runnable() {
+            @Override
+            public void run() {
+              scan();
+            }
+          });
+        }
+      });
+    }
+  }
+
+  @Override
+  public synchronized void shutdown() {
+    running = false;
+
+    if (pollingFuture != null) {
+      pollingFuture.cancel(false);
+      pollingFuture = null;
+    }
+    if (deliveryFuture != null) {
+      deliveryFuture.cancel(false);
+      deliveryFuture = null;
+    }
+    if (eventCheckFuture != null) {
+      eventCheckFuture.cancel(false);
+      eventCheckFuture = null;
+    }
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        log.warn("Could not close filesystem watch service", e);
+      }
+      watchService = null;
+    }
+
+    registeredDirectories.clear();
+    filesTouched.clear();
+  }
+
+  @Override
+  public synchronized void addDirectory(File directory) {
+    if (directory.isDirectory()) {
+      if (directory.canRead()) {
+        if (cleanFirst && directory.canWrite()) {
+          Files.deleteDirectoryContents(directory);
+        }
+      } else {
+        throw new IllegalArgumentException(String.format("%s is not readable", directory));
+      }
+    } else if (directory.exists()) {
+      // The file exists, but it isn't a directory.
+      //
+      // This is checked for separately to handle directories added
+      // after the watcher starts running.
+      throw new IllegalArgumentException(String.format("%s is not a directory", directory));
+    }
+
+    // A directory which doesn't exist yet will be polled until it does.
+    directoriesWatched.add(directory);
+
+    if (running) {
+      registerDirectory(directory);
+    }
+  }
+
+  @Override
+  public synchronized void addDirectoryWatcherListener(DirectoryWatcherListener listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public synchronized void removeDirectoryWatcherListener(DirectoryWatcherListener listener) {
+    listeners.remove(listener);
+  }
+
+  @Override
+  public synchronized void addBatchDirectoryWatcherListener(BatchDirectoryWatcherListener listener) {
+    batchListeners.add(listener);
+  }
+
+  @Override
+  public synchronized void removeBatchDirectoryWatcherListener(BatchDirectoryWatcherListener listener) {
+    batchListeners.remove(listener);
+  }
+
+  @Override
+  public void scan() {
+    synchronized (deliveryLock) {
+      Set<File> filesAdded = Sets.newHashSet();
+      Set<File> filesRemoved = Sets.newHashSet();
+      findScanChanges(filesAdded, filesRemoved);
+
+      signalChanges(filesAdded, filesRemoved);
+    }
+  }
+
+  /**
+   * Scan the directories for changes since the files were last known.
+   *
+   * @param filesAdded
+   *          the set to add the files which have been added to
+   * @param filesRemoved
+   *          the set to add the files which have been removed to
+   */
+  private synchronized void findScanChanges(Set<File> filesAdded, Set<File> filesRemoved) {
+    for (File directory : directoriesWatched) {
+      if (!isRegistered(directory)) {
+        registerDirectory(directory);
+      }
+    }
+
+    Set<File> currentScan = scanDirectories(directoriesWatched);
+    filesAdded.addAll(Sets.difference(currentScan, filesKnown));
+    filesRemoved.addAll(Sets.difference(filesKnown, currentScan));
+
+    // Everything touched has just been accounted for.
+    filesTouched.clear();
+    filesKnown = currentScan;
+  }
+
+  @Override
+  public void setCleanFirst(boolean cleanFirst) {
+    this.cleanFirst = cleanFirst;
+  }
+
+  @Override
+  public void setStopOnException(boolean stopOnException) {
+    this.stopOnException = stopOnException;
+  }
+
+  /**
+   * Is the watcher getting change events from the filesystem for a directory?
+   *
+   * @param directory
+   *          the directory to check
+   *
+   * @return {@code true} if the directory is registered with the watch service
+   */
+  public synchronized boolean isRegistered(File directory) {
+    return registeredDirectories.containsValue(directory);
+  }
+
+  /**
+   * Handle every watch key the watch service has signalled since the last
+   * check, without waiting for more.
+   */
+  private void processWatchEvents() {
+    WatchService service;
+    synchronized (this) {
+      service = watchService;
+    }
+
+    while (running && service != null) {
+      WatchKey key;
+      try {
+        key = service.poll();
+      } catch (ClosedWatchServiceException e) {
+        return;
+      }
+      if (key == null) {
+        return;
+      }
+
+      try {
+        handleWatchKey(key);
+      } catch (Throwable e) {
+        handleException("Exception while processing directory watcher events", e);
+      }
+    }
+  }
+
+  /**
+   * Handle all events for a signalled watch key.
+   *
+   * @param key
+   *          the key which was signalled
+   */
+  private synchronized void handleWatchKey(WatchKey key) {
+    File directory = registeredDirectories.get(key);
+    if (directory == null) {
+      key.cancel();
+      return;
+    }
+
+    boolean overflow = false;
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+        overflow = true;
+      } else {
+        Path name = (Path) event.context();
+        filesTouched.add(new File(directory, name.toString()));
+      }
+    }
+
+    if (!key.reset()) {
+      // The directory is gone. It goes back to being polled until it returns.
+      registeredDirectories.remove(key);
+      overflow = true;
+    }
+
+    if (overflow) {
+      // Events were lost, so everything that was in the directory has to be
+      // rechecked.
+      for (File file : filesKnown) {
+        if (directory.equals(file.getParentFile())) {
+          filesTouched.add(file);
+        }
+      }
+      filesTouched.addAll(scanDirectories(Lists.newArrayList(directory)));
+    }
+
+    scheduleDelivery();
+  }
+
+  /**
+   * Note that an event has happened and make sure changes will be delivered
+   * once things are quiet.
+   *
+   * <p>
+   * Must be called while synchronized.
+   */
+  private void scheduleDelivery() {
+    long now = System.currentTimeMillis();
+    if (deliveryFuture == null) {
+      firstEventTime = now;
+    }
+    lastEventTime = now;
+
+    if (deliveryFuture == null && running) {
+      deliveryFuture = executorService.schedule(new Runnable() {
+        @Override
+        public void run() {
+          runSafely(new Runnable() {
+            @Override
+            public void run() {
+              deliverChanges();
+            }
+          });
+        }
+      }, debounceDelay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Deliver all changes seen since the last delivery, unless events are still
+   * arriving.
+   */
+  private void deliverChanges() {
+    synchronized (deliveryLock) {
+      Set<File> filesAdded = Sets.newHashSet();
+      Set<File> filesRemoved = Sets.newHashSet();
+      if (findTouchedChanges(filesAdded, filesRemoved)) {
+        signalChanges(filesAdded, filesRemoved);
+      }
+    }
+  }
+
+  /**
+   * Find the changes to the files touched since the last delivery, unless
+   * events are still arriving.
+   *
+   * @param filesAdded
+   *          the set to add the files which have been added to
+   * @param filesRemoved
+   *          the set to add the files which have been removed to
+   *
+   * @return {@code true} if the changes should be delivered now
+   */
+  private synchronized boolean findTouchedChanges(Set<File> filesAdded, Set<File> filesRemoved) {
+    deliveryFuture = null;
+    if (!running) {
+      return false;
+    }
+
+    long now = System.currentTimeMillis();
+    long quietTime = now - lastEventTime;
+    if (quietTime < debounceDelay && now - firstEventTime < debounceDelay * DEBOUNCE_DELAY_MAX_MULTIPLE) {
+      deliveryFuture = executorService.schedule(new Runnable() {
+        @Override
+        public void run() {
+          runSafely(new Runnable() {
+            @Override
+            public void run() {
+              deliverChanges();
+            }
+          });
+        }
+      }, debounceDelay - quietTime, TimeUnit.MILLISECONDS);
+      return false;
+    }
+
+    for (File file : filesTouched) {
+      boolean exists = file.exists();
+      boolean known = filesKnown.contains(file);
+      if (exists && !known) {
+        filesAdded.add(file);
+        filesKnown.add(file);
+      } else if (!exists && known) {
+        filesRemoved.add(file);
+        filesKnown.remove(file);
+      }
+    }
+    filesTouched.clear();
+
+    return true;
+  }
+
+  /**
+   * Poll all directories which aren't being handled by the watch service,
+   * registering any which can now be registered.
+   */
+  private void pollUnregisteredDirectories() {
+    runSafely(new Runnable() {
+      @Override
+      public void run() {
+        synchronized (WatchServiceDirectoryWatcher.this) {
+          if (!running) {
+            return;
+          }
+
+          List<File> directoriesToPoll = Lists.newArrayList();
+          for (File directory : directoriesWatched) {
+            if (!isRegistered(directory)) {
+              // Registration may succeed now if the directory has appeared.
+              // Its contents still need a scan to catch files created before
+              // registration.
+              registerDirectory(directory);
+              directoriesToPoll.add(directory);
+            }
+          }
+
+          if (directoriesToPoll.isEmpty()) {
+            return;
+          }
+
+          for (File file : filesKnown) {
+            if (directoriesToPoll.contains(file.getParentFile())) {
+              filesTouched.add(file);
+            }
+          }
+          filesTouched.addAll(scanDirectories(directoriesToPoll));
+
+          scheduleDelivery();
+        }
+      }
+    });
+  }
+
+  /**
+   * Try to register a directory with the watch service.
+   *
+   * <p>
+   * Must be called while synchronized.
+   *
+   * @param directory
+   *          the directory to register
+   */
+  private void registerDirectory(File directory) {
+    if (watchService == null || !directory.isDirectory() || isRegistered(directory)) {
+      return;
+    }
+
+    try {
+      WatchKey key =
+          directory.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+              StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+      registeredDirectories.put(key, directory);
+    } catch (IOException e) {
+      log.warn(String.format("Could not watch directory %s for changes, it will be polled", directory), e);
+    } catch (UnsupportedOperationException e) {
+      log.warn(String.format("Directory %s does not support change events, it will be polled", directory), e);
+    } catch (ClosedWatchServiceException e) {
+      // Shutting down, nothing to do.
+    }
+  }
+
+  /**
+   * Scan directories for the files they contain.
+   *
+   * @param directories
+   *          the directories to scan
+   *
+   * @return the set of all files which are currently in the directories
+   */
+  private Set<File> scanDirectories(Collection<File> directories) {
+    Set<File> currentScan = Sets.newHashSet();
+    for (File directory : directories) {
+      if (directory.isDirectory()) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+          for (File file : files) {
+            currentScan.add(file);
+          }
+        }
+      }
+    }
+
+    return currentScan;
+  }
+
+  /**
+   * Signal all listeners about changes.
+   *
+   * <p>
+   * Must be called while holding the delivery lock and not the watcher lock.
+   *
+   * @param filesAdded
+   *          the files which have been added
+   * @param filesRemoved
+   *          the files which have been removed
+   */
+  private void signalChanges(Set<File> filesAdded, Set<File> filesRemoved) {
+    for (File fileAdded : filesAdded) {
+      for (DirectoryWatcherListener listener : listeners) {
+        try {
+          listener.onFileAdded(fileAdded);
+        } catch (Exception e) {
+          log.error(String.format("Exception while signalling file added %s", fileAdded.getAbsolutePath()), e);
+        }
+      }
+    }
+
+    for (File fileRemoved : filesRemoved) {
+      for (DirectoryWatcherListener listener : listeners) {
+        try {
+          listener.onFileRemoved(fileRemoved);
+        } catch (Exception e) {
+          log.error(String.format("Exception while signalling file removed %s", fileRemoved.getAbsolutePath()), e);
+        }
+      }
+    }
+
+    if (!filesAdded.isEmpty()) {
+      for (BatchDirectoryWatcherListener listener : batchListeners) {
+        try {
+          listener.onFilesAdded(Sets.newHashSet(filesAdded));
+        } catch (Exception e) {
+          log.error("Exception while signalling files added", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Run a watcher task, handling any exception it throws.
+   *
+   * @param task
+   *          the task to run
+   */
+  private void runSafely(Runnable task) {
+    try {
+      task.run();
+    } catch (Throwable e) {
+      handleException("Exception happened during directory watcher scan", e);
+    }
+  }
+
+  /**
+   * Handle an exception from one of the watcher tasks.
+   *
+   * @param message
+   *          the message to log
+   * @param e
+   *          the exception
+   */
+  private void handleException(String message, Throwable e) {
+    log.error(message, e);
+
+    if (stopOnException) {
+      shutdown();
+    }
+  }
+}
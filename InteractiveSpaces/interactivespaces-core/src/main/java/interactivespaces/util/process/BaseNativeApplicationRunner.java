@@ -33,8 +33,11 @@ import com.google.common.collect.Maps;
 
 import org.apache.commons.logging.Log;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -54,6 +57,17 @@ public abstract class BaseNativeApplicationRunner implements NativeApplicationRu
    */
   public static final int RESTART_DURATION_MAXIMUM_DEFAULT = 10000;
 
+  /**
+   * The number of lines of each process output stream which are kept.
+   */
+  public static final int OUTPUT_BUFFER_SIZE = 500;
+
+  /**
+   * How long to wait for the output streams to be read to the end once a watched process has exited, in
+   * milliseconds.
+   */
+  public static final long OUTPUT_DRAIN_TIMEOUT = 250;
+
   /**
    * File support instance to use for this activity runner.
    */
@@ -138,6 +152,32 @@ public abstract class BaseNativeApplicationRunner implements NativeApplicationRu
    */
   private Map<String, String> environment;
 
+  /**
+   * {@code true} if the process exit should be waited on rather than sampled.
+   */
+  private volatile boolean watchProcessExit;
+
+  /**
+   * The most recent lines from the standard output of the process.
+   */
+  private final ProcessOutputBuffer outputBuffer = new ProcessOutputBuffer(OUTPUT_BUFFER_SIZE);
+
+  /**
+   * The watcher for the current process, {@code null} if the process isn't being watched.
+   */
+  private ProcessWatcher processWatcher;
+
+  /**
+   * The watcher for the process being restarted, {@code null} if there is none. Only its output pumps run until the
+   * restart is complete.
+   */
+  private ProcessWatcher restartProcessWatcher;
+
+  /**
+   * The most recent lines from the standard error of the process.
+   */
+  private final ProcessOutputBuffer errorBuffer = new ProcessOutputBuffer(OUTPUT_BUFFER_SIZE);
+
   /**
    * The application runner listeners.
    */
@@ -167,6 +207,11 @@ public abstract class BaseNativeApplicationRunner implements NativeApplicationRu
     this.cleanEnvironment = cleanEnvironment;
   }
 
+  @Override
+  public void setWatchProcessExit(boolean watchProcessExit) {
+    this.watchProcessExit = watchProcessExit;
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public void configure(Map<String, Object> config) {
@@ -194,6 +239,11 @@ public abstract class BaseNativeApplicationRunner implements NativeApplicationRu
         extractEnvironment((String) entry.getValue());
       } else if (EXECUTABLE_ENVIRONMENT_MAP.equals(key)) {
         environment.putAll((Map<String, String>) entry.getValue());
+      } else if (EXECUTABLE_WATCH_EXIT.equals(key)) {
+        Object value = entry.getValue();
+        if (value != null) {
+          setWatchProcessExit(Boolean.parseBoolean(value.toString()));
+        }
       } else {
         String arg = " --" + key;
         Object value = entry.getValue();
@@ -231,6 +281,7 @@ public abstract class BaseNativeApplicationRunner implements NativeApplicationRu
       process = attemptRun(true);
 
       handleApplicationRunning();
+      watchProcess(process);
     } finally {
       processLock.unlock();
     }
@@ -316,6 +367,7 @@ public abstract class BaseNativeApplicationRunner implements NativeApplicationRu
           restartProcess.destroy();
           restartProcess = null;
         }
+        restartProcessWatcher = null;
       }
 
       if (process != null) {
@@ -324,6 +376,7 @@ public abstract class BaseNativeApplicationRunner implements NativeApplicationRu
         // Otherwise we will kill the process the impolite way.
         if (!handleApplicationShutdownRequested()) {
           process.destroy();
+          stopWatchingProcess();
 
           process = null;
           handleApplicationShutdown(NativeApplicationRunnerState.SHUTDOWN);
@@ -341,25 +394,17 @@ public abstract class BaseNativeApplicationRunner implements NativeApplicationRu
       if (process != null) {
         // The process was running normally. Sample to see if it is still
         // running.
+        // A watched process is still running until the watcher says otherwise.
+        if (watchProcessExit) {
+          return true;
+        }
+
         try {
           int exitValue = process.exitValue();
 
           logProcessResultStreams();
 
-          boolean successfulShutdown = handleProcessExit(exitValue, commandLine);
-
-          // If restarter is working, the outside should be told
-          // that we are still "running" until the restarter punts.
-          if (startRestarter()) {
-            runnerState.set(NativeApplicationRunnerState.RESTARTING);
-            return true;
-          }
-
-          // No longer running, is OK that it isn't running or no restarter, so
-          // signal done.
-          handleApplicationShutdown(successfulShutdown ? NativeApplicationRunnerState.SHUTDOWN
-              : NativeApplicationRunnerState.CRASHED);
-          return false;
+          return handleExitedProcess(exitValue);
         } catch (IllegalThreadStateException e) {
           // Can't get exit value if process is still running.
 
@@ -374,7 +419,11 @@ public abstract class BaseNativeApplicationRunner implements NativeApplicationRu
       if (isRestarterActive()) {
         return true;
       } else {
-        handleApplicationShutdown(NativeApplicationRunnerState.CRASHED);
+        // The exit may have already been handled, in which case listeners have
+        // already been told.
+        if (!isFinished()) {
+          handleApplicationShutdown(NativeApplicationRunnerState.CRASHED);
+        }
 
         return false;
       }
@@ -388,6 +437,123 @@ public abstract class BaseNativeApplicationRunner implements NativeApplicationRu
     return runnerState.get();
   }
 
+  @Override
+  public List<String> getOutputTail(int numberLines) {
+    return outputBuffer.getTail(numberLines);
+  }
+
+  @Override
+  public List<String> getErrorTail(int numberLines) {
+    return errorBuffer.getTail(numberLines);
+  }
+
+  /**
+   * The process has exited, either start a restart or signal that the application is done.
+   *
+   * <p>
+   * Must be called with the process lock held.
+   *
+   * @param exitValue
+   *          the exit value of the process
+   *
+   * @return {@code true} if the application should still be considered running because a restart is underway
+   */
+  private boolean handleExitedProcess(int exitValue) {
+    boolean successfulShutdown = handleProcessExit(exitValue, commandLine);
+
+    // If restarter is working, the outside should be told
+    // that we are still "running" until the restarter punts.
+    if (startRestarter()) {
+      runnerState.set(NativeApplicationRunnerState.RESTARTING);
+      return true;
+    }
+
+    // No longer running, is OK that it isn't running or no restarter, so
+    // signal done.
+    handleApplicationShutdown(successfulShutdown ? NativeApplicationRunnerState.SHUTDOWN
+        : NativeApplicationRunnerState.CRASHED);
+    return false;
+  }
+
+  /**
+   * Has the runner reached a final state?
+   *
+   * @return {@code true} if the runner has shut down, crashed, or failed to restart
+   */
+  private boolean isFinished() {
+    NativeApplicationRunnerState state = runnerState.get();
+    return state == NativeApplicationRunnerState.SHUTDOWN || state == NativeApplicationRunnerState.CRASHED
+        || state == NativeApplicationRunnerState.RESTART_FAILED;
+  }
+
+  /**
+   * Start watching a process if the runner is watching process exits.
+   *
+   * <p>
+   * The output streams of the process are pumped into the output buffers and the log, and a waiter blocks until the
+   * process exits. These run on daemon threads owned by the runner rather than on the space executor, since they are
+   * held for the whole life of the process.
+   *
+   * <p>
+   * Must be called with {@link #processLock} held.
+   *
+   * @param watchedProcess
+   *          the process to watch
+   */
+  private void watchProcess(Process watchedProcess) {
+    if (!watchProcessExit || watchedProcess == null) {
+      return;
+    }
+
+    stopWatchingProcess();
+
+    if (restartProcessWatcher != null && restartProcessWatcher.isWatching(watchedProcess)) {
+      processWatcher = restartProcessWatcher;
+    } else {
+      processWatcher = new ProcessWatcher(watchedProcess);
+    }
+    restartProcessWatcher = null;
+
+    processWatcher.start();
+  }
+
+  /**
+   * Stop the watcher for the current process, if any.
+   *
+   * <p>
+   * Must be called with {@link #processLock} held.
+   */
+  private void stopWatchingProcess() {
+    if (processWatcher != null) {
+      processWatcher.stop();
+      processWatcher = null;
+    }
+  }
+
+  /**
+   * A watched process has exited.
+   *
+   * @param watchedProcess
+   *          the process which exited
+   * @param exitValue
+   *          the exit value of the process
+   */
+  private void handleWatchedProcessExit(Process watchedProcess, int exitValue) {
+    processLock.lock();
+    try {
+      // The process was destroyed by a shutdown or has already been replaced.
+      if (process != watchedProcess) {
+        return;
+      }
+
+      processWatcher = null;
+
+      handleExitedProcess(exitValue);
+    } finally {
+      processLock.unlock();
+    }
+  }
+
   /**
    * Handle the process result streams for this process, copying the results to the appropriate info or error logs.
    */
@@ -396,12 +562,14 @@ public abstract class BaseNativeApplicationRunner implements NativeApplicationRu
       InputStream inputStream = process.getInputStream();
       String inputString = FILE_SUPPORT.readAvailableToString(inputStream);
       if (!Strings.isNullOrEmpty(inputString)) {
+        outputBuffer.addText(inputString);
         log.info(inputString);
       }
 
       InputStream errorStream = process.getErrorStream();
       String errorString = FILE_SUPPORT.readAvailableToString(errorStream);
       if (!Strings.isNullOrEmpty(errorString)) {
+        errorBuffer.addText(errorString);
         log.error(errorString);
       }
     } catch (Exception e) {
@@ -479,6 +647,13 @@ public abstract class BaseNativeApplicationRunner implements NativeApplicationRu
     processLock.lock();
     try {
       restartProcess = attemptRun(false);
+
+      // Read the output of the new process right away, so it can't block on a full pipe while the restart is checked.
+      restartProcessWatcher = null;
+      if (watchProcessExit && restartProcess != null) {
+        restartProcessWatcher = new ProcessWatcher(restartProcess);
+        restartProcessWatcher.startPumps();
+      }
     } finally {
       processLock.unlock();
     }
@@ -514,11 +689,13 @@ public abstract class BaseNativeApplicationRunner implements NativeApplicationRu
         process = restartProcess;
         log.info("Native application restart successful");
         handleApplicationRunning();
+        watchProcess(process);
       } else {
         handleApplicationShutdown(NativeApplicationRunnerState.RESTART_FAILED);
       }
 
       restartProcess = null;
+      restartProcessWatcher = null;
       restarter = null;
     } finally {
       processLock.unlock();
@@ -732,6 +909,15 @@ public abstract class BaseNativeApplicationRunner implements NativeApplicationRu
     return commandLine;
   }
 
+  /**
+   * Is the runner waiting on the process to exit rather than sampling it?
+   *
+   * @return {@code true} if the process exit is watched
+   */
+  public boolean isWatchProcessExit() {
+    return watchProcessExit;
+  }
+
   /**
    * Get the environment for the runner.
    *
@@ -758,4 +944,189 @@ public abstract class BaseNativeApplicationRunner implements NativeApplicationRu
   public Log getLog() {
     return log;
   }
+
+  /**
+   * Watches a single process on dedicated daemon threads: one waiting for the process to exit and one pumping each of
+   * its output streams.
+   *
+   * @author Keith M. Hughes
+   */
+  private class ProcessWatcher implements Runnable {
+
+    /**
+     * The process being watched.
+     */
+    private final Process watchedProcess;
+
+    /**
+     * The thread waiting for the process to exit.
+     */
+    private final Thread waiterThread;
+
+    /**
+     * The thread pumping the output stream.
+     */
+    private final Thread outputPumpThread;
+
+    /**
+     * The thread pumping the error stream.
+     */
+    private final Thread errorPumpThread;
+
+    /**
+     * {@code true} if the pump threads have been started.
+     */
+    private boolean pumpsStarted;
+
+    /**
+     * Construct a new watcher.
+     *
+     * @param watchedProcess
+     *          the process to watch
+     */
+    public ProcessWatcher(Process watchedProcess) {
+      this.watchedProcess = watchedProcess;
+
+      String threadPrefix = "native-" + new File(appName).getName();
+      waiterThread = newDaemonThread(this, threadPrefix + "-waiter");
+      outputPumpThread =
+          newDaemonThread(new ProcessStreamPump(watchedProcess.getInputStream(), outputBuffer, false), threadPrefix
+              + "-stdout");
+      errorPumpThread =
+          newDaemonThread(new ProcessStreamPump(watchedProcess.getErrorStream(), errorBuffer, true), threadPrefix
+              + "-stderr");
+    }
+
+    /**
+     * Start watching, including the output pumps if they aren't running yet.
+     */
+    public void start() {
+      startPumps();
+      waiterThread.start();
+    }
+
+    /**
+     * Start pumping the output streams of the process without waiting for it to exit.
+     */
+    public void startPumps() {
+      if (!pumpsStarted) {
+        pumpsStarted = true;
+        outputPumpThread.start();
+        errorPumpThread.start();
+      }
+    }
+
+    /**
+     * Is this the watcher for a process?
+     *
+     * @param process
+     *          the process to check
+     *
+     * @return {@code true} if the watcher is for the process
+     */
+    public boolean isWatching(Process process) {
+      return watchedProcess == process;
+    }
+
+    /**
+     * Stop watching.
+     *
+     * <p>
+     * The pumps end on their own once the process is gone and its streams close.
+     */
+    public void stop() {
+      waiterThread.interrupt();
+    }
+
+    @Override
+    public void run() {
+      try {
+        int exitValue = watchedProcess.waitFor();
+
+        // Give the pumps a chance to read whatever the process wrote before exiting.
+        outputPumpThread.join(OUTPUT_DRAIN_TIMEOUT);
+        errorPumpThread.join(OUTPUT_DRAIN_TIMEOUT);
+
+        handleWatchedProcessExit(watchedProcess, exitValue);
+      } catch (InterruptedException e) {
+        // The watcher has been stopped.
+      }
+    }
+
+    /**
+     * Create a daemon thread.
+     *
+     * @param runnable
+     *          what the thread runs
+     * @param name
+     *          the name of the thread
+     *
+     * @return the thread, not started
+     */
+    private Thread newDaemonThread(Runnable runnable, String name) {
+      Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+
+      return thread;
+    }
+  }
+
+  /**
+   * Copies an output stream of a process, line by line, into an output buffer and the runner log.
+   *
+   * @author Keith M. Hughes
+   */
+  private class ProcessStreamPump implements Runnable {
+
+    /**
+     * The stream being read.
+     */
+    private final InputStream stream;
+
+    /**
+     * The buffer to place lines in.
+     */
+    private final ProcessOutputBuffer buffer;
+
+    /**
+     * {@code true} if the stream is the error stream of the process.
+     */
+    private final boolean errorStream;
+
+    /**
+     * Construct a new pump.
+     *
+     * @param stream
+     *          the stream to read
+     * @param buffer
+     *          the buffer to place lines in
+     * @param errorStream
+     *          {@code true} if the stream is the error stream of the process
+     */
+    public ProcessStreamPump(InputStream stream, ProcessOutputBuffer buffer, boolean errorStream) {
+      this.stream = stream;
+      this.buffer = buffer;
+      this.errorStream = errorStream;
+    }
+
+    @Override
+    public void run() {
+      BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
+      try {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          buffer.addLine(line);
+          if (errorStream) {
+            log.error(line);
+          } else {
+            log.info(line);
+          }
+        }
+      } catch (IOException e) {
+        // The stream is closed when the process is destroyed.
+      } finally {
+        FILE_SUPPORT.close(reader, false);
+      }
+    }
+  }
 }
@@ -20,6 +20,7 @@ import interactivespaces.util.process.restart.RestartStrategy;
 import interactivespaces.util.process.restart.Restartable;
 import interactivespaces.util.resource.ManagedResource;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -64,6 +65,12 @@ public interface NativeApplicationRunner extends ManagedResource, Restartable {
    */
   String EXECUTABLE_ENVIRONMENT_MAP = "executableEnvironmentMap";
 
+  /**
+   * Whether the runner should wait on the process to exit rather than sampling it, either a {@link Boolean} or the
+   * string {@code true} or {@code false}. See {@link #setWatchProcessExit(boolean)}.
+   */
+  String EXECUTABLE_WATCH_EXIT = "executableWatchExit";
+
   /**
    * The name of the property which gives the fully qualified name for the application.
    *
@@ -88,6 +95,21 @@ public interface NativeApplicationRunner extends ManagedResource, Restartable {
    */
   void setCleanEnvironment(boolean cleanEnvironment);
 
+  /**
+   * Set whether the runner should wait on the process to exit rather than sampling it.
+   *
+   * <p>
+   * When watching, the process exit is noticed as soon as it happens and any restart strategy is started right away.
+   * The output streams of the process are also read continuously rather than when the runner is sampled.
+   *
+   * <p>
+   * Must be called before the runner is started.
+   *
+   * @param watchProcessExit
+   *          {@code true} if the process exit should be watched
+   */
+  void setWatchProcessExit(boolean watchProcessExit);
+
   /**
    * Configure the runner.
    *
@@ -110,6 +132,26 @@ public interface NativeApplicationRunner extends ManagedResource, Restartable {
    */
   NativeApplicationRunnerState getState();
 
+  /**
+   * Get the most recent lines the application wrote to its standard output.
+   *
+   * @param numberLines
+   *          the maximum number of lines to get
+   *
+   * @return the lines, oldest first
+   */
+  List<String> getOutputTail(int numberLines);
+
+  /**
+   * Get the most recent lines the application wrote to its standard error.
+   *
+   * @param numberLines
+   *          the maximum number of lines to get
+   *
+   * @return the lines, oldest first
+   */
+  List<String> getErrorTail(int numberLines);
+
   /**
    * Set the restart strategy for the runner.
    *
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.process;
+
+import com.google.common.collect.Lists;
+
+import java.util.List;
+
+/**
+ * A bounded buffer of the most recent lines written by a process.
+ *
+ * <p>
+ * Once the buffer is full, each new line replaces the oldest one.
+ *
+ * @author agent
+ */
+public class ProcessOutputBuffer {
+
+  /**
+   * The lines in the buffer.
+   */
+  private final String[] lines;
+
+  /**
+   * The index where the next line will be written.
+   */
+  private int next;
+
+  /**
+   * The number of lines currently in the buffer.
+   */
+  private int size;
+
+  /**
+   * The total number of lines ever added to the buffer.
+   */
+  private long numberLinesAdded;
+
+  /**
+   * Construct a new buffer.
+   *
+   * @param capacity
+   *          the maximum number of lines the buffer will hold
+   */
+  public ProcessOutputBuffer(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Process output buffer capacity must be positive");
+    }
+
+    lines = new String[capacity];
+  }
+
+  /**
+   * Add a line to the buffer, removing the oldest line if the buffer is full.
+   *
+   * @param line
+   *          the line to add
+   */
+  public synchronized void addLine(String line) {
+    lines[next] = line;
+    next = (next + 1) % lines.length;
+    if (size < lines.length) {
+      size++;
+    }
+    numberLinesAdded++;
+  }
+
+  /**
+   * Add all lines in a block of text to the buffer.
+   *
+   * @param text
+   *          the text to add, can be {@code null}
+   */
+  public void addText(String text) {
+    if (text == null || text.isEmpty()) {
+      return;
+    }
+
+    for (String line : text.split("\\r?\\n")) {
+      addLine(line);
+    }
+  }
+
+  /**
+   * Get the most recent lines in the buffer.
+   *
+   * @param numberLines
+   *          the maximum number of lines to get
+   *
+   * @return the lines, oldest first
+   */
+  public synchronized List<String> getTail(int numberLines) {
+    int count = Math.max(0, Math.min(numberLines, size));
+    List<String> tail = Lists.newArrayListWithCapacity(count);
+    int start = next - count;
+    if (start < 0) {
+      start += lines.length;
+    }
+    for (int i = 0; i < count; i++) {
+      tail.add(lines[(start + i) % lines.length]);
+    }
+
+    return tail;
+  }
+
+  /**
+   * Get the number of lines currently in the buffer.
+   *
+   * @return the number of lines
+   */
+  public synchronized int getSize() {
+    return size;
+  }
+
+  /**
+   * Get the number of lines which have ever been added to the buffer.
+   *
+   * @return the total number of lines
+   */
+  public synchronized long getNumberLinesAdded() {
+    return numberLinesAdded;
+  }
+
+  /**
+   * Remove all lines from the buffer.
+   */
+  public synchronized void clear() {
+    for (int i = 0; i < lines.length; i++) {
+      lines[i] = null;
+    }
+    next = 0;
+    size = 0;
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.sampling;
+
+import java.io.File;
+
+/**
+ * A sampled data sequence loader which uses a compact binary file for storage.
+ *
+ * <p>
+ * Long recordings can be played without loading them by giving a {@link BinarySampledDataSequenceReader} straight to
+ * a {@link SampledDataSequencePlayer}.
+ *
+ * @author agent
+ */
+public class BinaryFileSampledDataSequenceLoader implements SampledDataSequenceLoader {
+
+  @Override
+  public void save(File dataFile, SampledDataSequence dataSequence) {
+    BinarySampledDataSequenceWriter writer = new BinarySampledDataSequenceWriter(dataFile);
+    writer.startup();
+    try {
+      writer.writeFrames(dataSequence);
+    } finally {
+      writer.shutdown();
+    }
+  }
+
+  @Override
+  public int load(File dataFile, SampledDataSequence dataSequence) {
+    dataSequence.reset();
+
+    BinarySampledDataSequenceReader reader = new BinarySampledDataSequenceReader(dataFile);
+    reader.startup();
+    try {
+      reader.readFrames(dataSequence);
+
+      return reader.getNumberFrames();
+    } finally {
+      reader.shutdown();
+    }
+  }
+}
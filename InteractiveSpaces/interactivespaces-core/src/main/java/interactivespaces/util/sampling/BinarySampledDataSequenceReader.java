@@ -0,0 +1,415 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.sampling;
+
+import interactivespaces.InteractiveSpacesException;
+import interactivespaces.SimpleInteractiveSpacesException;
+import interactivespaces.util.resource.ManagedResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * Reads a file written by a {@link BinarySampledDataSequenceWriter} through a memory map.
+ *
+ * <p>
+ * Only the source names are read onto the heap. Frames and the frame index are decoded straight from the map when
+ * asked for, so even very long recordings open immediately. Reading frames in order only decodes each frame once.
+ *
+ * <p>
+ * Frames must be read from one thread at a time. The samples array for a source is reused for every frame from that
+ * source.
+ *
+ * @author agent
+ */
+public class BinarySampledDataSequenceReader implements SampledDataFrameSource, ManagedResource {
+
+  /**
+   * The number of bits of a file position used within a mapped segment.
+   */
+  private static final int SEGMENT_BITS = 30;
+
+  /**
+   * The size of a mapped segment.
+   */
+  private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+  /**
+   * The file being read.
+   */
+  private final File file;
+
+  /**
+   * The mapped segments of the file.
+   */
+  private MappedByteBuffer[] segments;
+
+  /**
+   * The number of frames in the file.
+   */
+  private int numberFrames;
+
+  /**
+   * The offset of the source table, which is also the end of the frame data.
+   */
+  private long sourceTableOffset;
+
+  /**
+   * The offset of the frame index.
+   */
+  private long indexOffset;
+
+  /**
+   * The names of the sources, by source number.
+   */
+  private String[] sourceNames;
+
+  /**
+   * The samples most recently decoded for each source, by source number.
+   */
+  private int[][] sourceSamples;
+
+  /**
+   * The index of the frame most recently decoded for each source, by source number. -1 if there is none.
+   */
+  private int[] sourceDecodedFrames;
+
+  /**
+   * The position in the file of the next byte to decode.
+   */
+  private long readPosition;
+
+  /**
+   * Construct a new reader.
+   *
+   * @param file
+   *          the file to read
+   */
+  public BinarySampledDataSequenceReader(File file) {
+    this.file = file;
+  }
+
+  @Override
+  public void startup() {
+    RandomAccessFile randomAccessFile = null;
+    try {
+      randomAccessFile = new RandomAccessFile(file, "r");
+      FileChannel channel = randomAccessFile.getChannel();
+      long size = channel.size();
+      if (size < BinarySampledDataSequenceWriter.FILE_HEADER_SIZE + BinarySampledDataSequenceWriter.FILE_TRAILER_SIZE) {
+        throw new SimpleInteractiveSpacesException(String.format("Sampled data file %s is too short", file));
+      }
+
+      segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >> SEGMENT_BITS)];
+      for (int segment = 0; segment < segments.length; segment++) {
+        long segmentStart = (long) segment << SEGMENT_BITS;
+        segments[segment] = channel.map(MapMode.READ_ONLY, segmentStart, Math.min(SEGMENT_SIZE, size - segmentStart));
+      }
+
+      // The map stays valid after the channel is closed.
+      randomAccessFile.close();
+      randomAccessFile = null;
+
+      if (getInt(0) != BinarySampledDataSequenceWriter.FILE_MAGIC
+          || getInt(size - 4) != BinarySampledDataSequenceWriter.FILE_MAGIC) {
+        throw new SimpleInteractiveSpacesException(String.format("%s is not a complete sampled data file", file));
+      }
+      int version = getInt(4);
+      if (version != BinarySampledDataSequenceWriter.FILE_FORMAT_VERSION) {
+        throw new SimpleInteractiveSpacesException(String.format(
+            "Sampled data file %s has unsupported format version %d", file, version));
+      }
+
+      long trailerOffset = size - BinarySampledDataSequenceWriter.FILE_TRAILER_SIZE;
+      sourceTableOffset = getLong(trailerOffset);
+      indexOffset = getLong(trailerOffset + 8);
+      numberFrames = getInt(trailerOffset + 16);
+
+      readSourceTable();
+    } catch (IOException e) {
+      throw new InteractiveSpacesException(String.format("Could not open sampled data file %s", file), e);
+    } finally {
+      if (randomAccessFile != null) {
+        try {
+          randomAccessFile.close();
+        } catch (IOException e) {
+          // Don't care. Closing.
+        }
+      }
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    // The maps are released when they are garbage collected.
+    segments = null;
+    sourceSamples = null;
+  }
+
+  @Override
+  public int getNumberFrames() {
+    return numberFrames;
+  }
+
+  /**
+   * Get the number of sources in the file.
+   *
+   * @return the number of sources
+   */
+  public int getNumberSources() {
+    return sourceNames.length;
+  }
+
+  @Override
+  public long getFrameTimestamp(int frame) {
+    return getLong(getIndexEntryOffset(frame));
+  }
+
+  @Override
+  public String getFrameSource(int frame) {
+    return sourceNames[getFrameSourceNumber(frame)];
+  }
+
+  @Override
+  public int[] getFrameSamples(int frame) {
+    int sourceNumber = getFrameSourceNumber(frame);
+    int keyframe = getInt(getIndexEntryOffset(frame) + 12);
+
+    // Continue from the last frame decoded for the source if it is on the way, otherwise start at the keyframe.
+    int decodedFrame = sourceDecodedFrames[sourceNumber];
+    int startFrame = keyframe;
+    if (decodedFrame >= keyframe && decodedFrame <= frame) {
+      if (decodedFrame == frame) {
+        return sourceSamples[sourceNumber];
+      }
+      startFrame = decodedFrame + 1;
+    }
+
+    for (int decodeFrame = startFrame; decodeFrame <= frame; decodeFrame++) {
+      if (getFrameSourceNumber(decodeFrame) == sourceNumber) {
+        decodeFrame(decodeFrame, sourceNumber);
+      }
+    }
+
+    return sourceSamples[sourceNumber];
+  }
+
+  @Override
+  public int findFrame(long timestamp) {
+    int low = 0;
+    int high = numberFrames;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (getFrameTimestamp(middle) < timestamp) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+
+  /**
+   * Read all frames into a sequence.
+   *
+   * @param sequence
+   *          the sequence to add the frames to
+   */
+  public void readFrames(SampledDataSequence sequence) {
+    for (int frame = 0; frame < numberFrames; frame++) {
+      sequence.addFrame(getFrameSource(frame), getFrameSamples(frame).clone(), getFrameTimestamp(frame));
+    }
+  }
+
+  /**
+   * Decode a frame into the samples for its source.
+   *
+   * @param frame
+   *          index of the frame
+   * @param sourceNumber
+   *          number of the source of the frame
+   */
+  private void decodeFrame(int frame, int sourceNumber) {
+    readPosition = getLong(getIndexEntryOffset(frame) + 16);
+    boolean keyframe = (getByte(readPosition++) & BinarySampledDataSequenceWriter.FRAME_FLAG_KEYFRAME) != 0;
+    int numberSamples = readVarint();
+
+    int[] samples = sourceSamples[sourceNumber];
+    if (keyframe) {
+      if (samples == null || samples.length != numberSamples) {
+        samples = new int[numberSamples];
+        sourceSamples[sourceNumber] = samples;
+      }
+
+      int previous = 0;
+      for (int i = 0; i < numberSamples; i++) {
+        previous += unzigzag(readVarint());
+        samples[i] = previous;
+      }
+    } else {
+      if (samples == null || samples.length != numberSamples) {
+        throw new SimpleInteractiveSpacesException(String.format(
+            "Sampled data file %s has a frame %d which does not follow its source's previous frame", file, frame));
+      }
+
+      for (int i = 0; i < numberSamples; i++) {
+        samples[i] += unzigzag(readVarint());
+      }
+    }
+
+    sourceDecodedFrames[sourceNumber] = frame;
+  }
+
+  /**
+   * Read the source table.
+   *
+   * @throws IOException
+   *           the source table could not be read
+   */
+  private void readSourceTable() throws IOException {
+    byte[] sourceTable = new byte[(int) (indexOffset - sourceTableOffset)];
+    for (int i = 0; i < sourceTable.length; i++) {
+      sourceTable[i] = getByte(sourceTableOffset + i);
+    }
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(sourceTable));
+    int numberSources = in.readInt();
+    sourceNames = new String[numberSources];
+    for (int source = 0; source < numberSources; source++) {
+      sourceNames[source] = in.readUTF();
+    }
+
+    sourceSamples = new int[numberSources][];
+    sourceDecodedFrames = new int[numberSources];
+    for (int source = 0; source < numberSources; source++) {
+      sourceDecodedFrames[source] = -1;
+    }
+  }
+
+  /**
+   * Get the source number of a frame.
+   *
+   * @param frame
+   *          index of the frame
+   *
+   * @return the source number
+   */
+  private int getFrameSourceNumber(int frame) {
+    return getInt(getIndexEntryOffset(frame) + 8);
+  }
+
+  /**
+   * Get the offset of the index entry for a frame.
+   *
+   * @param frame
+   *          index of the frame
+   *
+   * @return offset of the index entry
+   */
+  private long getIndexEntryOffset(int frame) {
+    if (frame < 0 || frame >= numberFrames) {
+      throw new IndexOutOfBoundsException(String.format("Frame %d not in sampled data file with %d frames", frame,
+          numberFrames));
+    }
+
+    return indexOffset + (long) frame * BinarySampledDataSequenceWriter.FRAME_INDEX_ENTRY_SIZE;
+  }
+
+  /**
+   * Read an unsigned varint from the read position.
+   *
+   * @return the value
+   */
+  private int readVarint() {
+    int value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = getByte(readPosition++);
+      value |= (b & 0x7f) << shift;
+      shift += 7;
+    } while (b < 0);
+
+    return value;
+  }
+
+  /**
+   * Undo the zigzag encoding of a value.
+   *
+   * @param value
+   *          the encoded value
+   *
+   * @return the original value
+   */
+  private static int unzigzag(int value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Get a byte from the file.
+   *
+   * @param position
+   *          position in the file
+   *
+   * @return the byte
+   */
+  private byte getByte(long position) {
+    return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & (SEGMENT_SIZE - 1)));
+  }
+
+  /**
+   * Get a big-endian int from the file.
+   *
+   * @param position
+   *          position in the file
+   *
+   * @return the int
+   */
+  private int getInt(long position) {
+    int segment = (int) (position >>> SEGMENT_BITS);
+    int segmentPosition = (int) (position & (SEGMENT_SIZE - 1));
+    if (segmentPosition + 4 <= segments[segment].limit()) {
+      return segments[segment].getInt(segmentPosition);
+    }
+
+    int value = 0;
+    for (int i = 0; i < 4; i++) {
+      value = (value << 8) | (getByte(position + i) & 0xff);
+    }
+
+    return value;
+  }
+
+  /**
+   * Get a big-endian long from the file.
+   *
+   * @param position
+   *          position in the file
+   *
+   * @return the long
+   */
+  private long getLong(long position) {
+    return ((long) getInt(position) << 32) | (getInt(position + 4) & 0xffffffffL);
+  }
+}
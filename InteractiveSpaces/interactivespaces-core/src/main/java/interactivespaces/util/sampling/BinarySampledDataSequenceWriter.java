@@ -0,0 +1,419 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.sampling;
+
+import interactivespaces.InteractiveSpacesException;
+import interactivespaces.SimpleInteractiveSpacesException;
+import interactivespaces.util.resource.ManagedResource;
+import interactivespaces.util.sampling.SampledDataSequence.SampledDataFrame;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes sampled data frames to a compact binary file as they arrive.
+ *
+ * <p>
+ * The file starts with a header of the magic number and the format version, both ints. The frames follow, each as a
+ * flags byte, a varint sample count and one zigzag varint per sample. A keyframe stores each sample as the difference
+ * from the sample before it in the frame. Any other frame stores each sample as the difference from the same sample in
+ * the previous frame from its source. Every source gets a keyframe at regular intervals so that frames can be found
+ * without decoding from the start of the file.
+ *
+ * <p>
+ * After the frames comes the source table, an int count followed by the source names. Then comes the frame index, with
+ * a timestamp, source number, keyframe index and data offset for each frame. The file ends with a trailer holding the
+ * source table offset, the frame index offset, the number of frames and the magic number.
+ *
+ * <p>
+ * Timestamps should never decrease. A frame with an earlier timestamp than the frame before it is given the timestamp
+ * of the frame before it.
+ *
+ * @author agent
+ */
+public class BinarySampledDataSequenceWriter implements ManagedResource {
+
+  /**
+   * The magic number which starts and ends every file.
+   */
+  public static final int FILE_MAGIC = 0x49535344;
+
+  /**
+   * The version of the file format.
+   */
+  public static final int FILE_FORMAT_VERSION = 1;
+
+  /**
+   * The size of the file header, in bytes.
+   */
+  public static final int FILE_HEADER_SIZE = 8;
+
+  /**
+   * The size of an entry in the frame index, in bytes.
+   */
+  public static final int FRAME_INDEX_ENTRY_SIZE = 24;
+
+  /**
+   * The size of the file trailer, in bytes.
+   */
+  public static final int FILE_TRAILER_SIZE = 24;
+
+  /**
+   * The flag in a frame record marking it as a keyframe.
+   */
+  public static final int FRAME_FLAG_KEYFRAME = 1;
+
+  /**
+   * The default number of frames from a source between keyframes.
+   */
+  public static final int KEYFRAME_INTERVAL_DEFAULT = 64;
+
+  /**
+   * The file being written.
+   */
+  private final File file;
+
+  /**
+   * The number of frames from a source between keyframes.
+   */
+  private final int keyframeInterval;
+
+  /**
+   * The stream for the file.
+   */
+  private DataOutputStream out;
+
+  /**
+   * The number of bytes written to the file so far.
+   */
+  private long fileOffset;
+
+  /**
+   * The names of the sources, in the order they were first seen.
+   */
+  private final List<String> sourceNames = Lists.newArrayList();
+
+  /**
+   * The state of each source, keyed by source name.
+   */
+  private final Map<String, SourceState> sources = Maps.newHashMap();
+
+  /**
+   * The timestamp of each frame.
+   */
+  private long[] frameTimestamps = new long[1024];
+
+  /**
+   * The data offset of each frame.
+   */
+  private long[] frameOffsets = new long[1024];
+
+  /**
+   * The source number of each frame.
+   */
+  private int[] frameSources = new int[1024];
+
+  /**
+   * The index of the keyframe each frame is decoded from.
+   */
+  private int[] frameKeyframes = new int[1024];
+
+  /**
+   * The number of frames written so far.
+   */
+  private int numberFrames;
+
+  /**
+   * Buffer for encoding a frame.
+   */
+  private byte[] encodeBuffer = new byte[1024];
+
+  /**
+   * Construct a writer with the default keyframe interval.
+   *
+   * @param file
+   *          the file to write
+   */
+  public BinarySampledDataSequenceWriter(File file) {
+    this(file, KEYFRAME_INTERVAL_DEFAULT);
+  }
+
+  /**
+   * Construct a writer.
+   *
+   * @param file
+   *          the file to write
+   * @param keyframeInterval
+   *          the number of frames from a source between keyframes
+   */
+  public BinarySampledDataSequenceWriter(File file, int keyframeInterval) {
+    this.file = file;
+    this.keyframeInterval = keyframeInterval;
+  }
+
+  @Override
+  public void startup() {
+    try {
+      out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+      out.writeInt(FILE_MAGIC);
+      out.writeInt(FILE_FORMAT_VERSION);
+      fileOffset = FILE_HEADER_SIZE;
+    } catch (IOException e) {
+      throw new InteractiveSpacesException(String.format("Could not create sampled data file %s", file), e);
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    if (out == null) {
+      return;
+    }
+
+    try {
+      ByteArrayOutputStream sourceTableBytes = new ByteArrayOutputStream();
+      DataOutputStream sourceTable = new DataOutputStream(sourceTableBytes);
+      sourceTable.writeInt(sourceNames.size());
+      for (String sourceName : sourceNames) {
+        sourceTable.writeUTF(sourceName);
+      }
+      sourceTable.close();
+
+      long sourceTableOffset = fileOffset;
+      sourceTableBytes.writeTo(out);
+      long indexOffset = sourceTableOffset + sourceTableBytes.size();
+
+      for (int frame = 0; frame < numberFrames; frame++) {
+        out.writeLong(frameTimestamps[frame]);
+        out.writeInt(frameSources[frame]);
+        out.writeInt(frameKeyframes[frame]);
+        out.writeLong(frameOffsets[frame]);
+      }
+
+      out.writeLong(sourceTableOffset);
+      out.writeLong(indexOffset);
+      out.writeInt(numberFrames);
+      out.writeInt(FILE_MAGIC);
+
+      out.close();
+    } catch (IOException e) {
+      throw new InteractiveSpacesException(String.format("Could not complete sampled data file %s", file), e);
+    } finally {
+      out = null;
+    }
+  }
+
+  /**
+   * Write a frame to the file.
+   *
+   * @param source
+   *          name of the source of the samples
+   * @param samples
+   *          the samples
+   * @param timestamp
+   *          timestamp of the frame
+   */
+  public void writeFrame(String source, int[] samples, long timestamp) {
+    if (out == null) {
+      throw new SimpleInteractiveSpacesException(String.format("Sampled data file %s is not open", file));
+    }
+
+    SourceState sourceState = sources.get(source);
+    if (sourceState == null) {
+      sourceState = new SourceState(sourceNames.size());
+      sources.put(source, sourceState);
+      sourceNames.add(source);
+    }
+
+    int[] previousSamples = sourceState.previousSamples;
+    boolean keyframe =
+        previousSamples == null || previousSamples.length != samples.length
+            || sourceState.framesSinceKeyframe >= keyframeInterval - 1;
+
+    // Flags and count, then at most 5 bytes per sample.
+    ensureEncodeBuffer(6 + 5 * samples.length);
+    int length = 0;
+    encodeBuffer[length++] = (byte) (keyframe ? FRAME_FLAG_KEYFRAME : 0);
+    length = writeVarint(samples.length, length);
+    if (keyframe) {
+      int previous = 0;
+      for (int sample : samples) {
+        length = writeVarint(zigzag(sample - previous), length);
+        previous = sample;
+      }
+    } else {
+      for (int i = 0; i < samples.length; i++) {
+        length = writeVarint(zigzag(samples[i] - previousSamples[i]), length);
+      }
+    }
+
+    try {
+      out.write(encodeBuffer, 0, length);
+    } catch (IOException e) {
+      throw new InteractiveSpacesException(String.format("Could not write to sampled data file %s", file), e);
+    }
+
+    if (keyframe) {
+      sourceState.keyframe = numberFrames;
+      sourceState.framesSinceKeyframe = 0;
+      sourceState.previousSamples = samples.clone();
+    } else {
+      sourceState.framesSinceKeyframe++;
+      System.arraycopy(samples, 0, previousSamples, 0, samples.length);
+    }
+
+    ensureIndexCapacity(numberFrames + 1);
+    if (numberFrames > 0) {
+      timestamp = Math.max(timestamp, frameTimestamps[numberFrames - 1]);
+    }
+    frameTimestamps[numberFrames] = timestamp;
+    frameSources[numberFrames] = sourceState.sourceNumber;
+    frameKeyframes[numberFrames] = sourceState.keyframe;
+    frameOffsets[numberFrames] = fileOffset;
+    numberFrames++;
+
+    fileOffset += length;
+  }
+
+  /**
+   * Write all frames of a sequence to the file.
+   *
+   * @param sequence
+   *          the sequence
+   */
+  public void writeFrames(SampledDataSequence sequence) {
+    for (SampledDataFrame frame : sequence.getFrames()) {
+      writeFrame(frame.getSource(), frame.getSamples(), frame.getTimestamp());
+    }
+  }
+
+  /**
+   * Get the number of frames written so far.
+   *
+   * @return the number of frames
+   */
+  public int getNumberFrames() {
+    return numberFrames;
+  }
+
+  /**
+   * Write an unsigned varint into the encode buffer.
+   *
+   * @param value
+   *          the value, treated as unsigned
+   * @param position
+   *          the position in the buffer to write at
+   *
+   * @return the position after the varint
+   */
+  private int writeVarint(int value, int position) {
+    while ((value & ~0x7f) != 0) {
+      encodeBuffer[position++] = (byte) ((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    encodeBuffer[position++] = (byte) value;
+
+    return position;
+  }
+
+  /**
+   * Zigzag encode a value so small negative numbers become small unsigned numbers.
+   *
+   * @param value
+   *          the value
+   *
+   * @return the encoded value
+   */
+  private static int zigzag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+
+  /**
+   * Make sure the encode buffer can hold a number of bytes.
+   *
+   * @param size
+   *          the number of bytes
+   */
+  private void ensureEncodeBuffer(int size) {
+    if (encodeBuffer.length < size) {
+      encodeBuffer = new byte[Math.max(size, encodeBuffer.length * 2)];
+    }
+  }
+
+  /**
+   * Make sure the index arrays can hold a number of frames.
+   *
+   * @param capacity
+   *          the number of frames
+   */
+  private void ensureIndexCapacity(int capacity) {
+    if (frameTimestamps.length < capacity) {
+      int newCapacity = Math.max(capacity, frameTimestamps.length * 2);
+      frameTimestamps = Arrays.copyOf(frameTimestamps, newCapacity);
+      frameSources = Arrays.copyOf(frameSources, newCapacity);
+      frameKeyframes = Arrays.copyOf(frameKeyframes, newCapacity);
+      frameOffsets = Arrays.copyOf(frameOffsets, newCapacity);
+    }
+  }
+
+  /**
+   * The encoding state of a source.
+   *
+   * @author agent
+   */
+  private static class SourceState {
+
+    /**
+     * The number of the source in the source table.
+     */
+    private final int sourceNumber;
+
+    /**
+     * The samples of the previous frame from the source, or {@code null} if there has been no frame.
+     */
+    private int[] previousSamples;
+
+    /**
+     * The index of the latest keyframe from the source.
+     */
+    private int keyframe;
+
+    /**
+     * The number of frames from the source since the latest keyframe.
+     */
+    private int framesSinceKeyframe;
+
+    /**
+     * Construct a new source state.
+     *
+     * @param sourceNumber
+     *          the number of the source in the source table
+     */
+    public SourceState(int sourceNumber) {
+      this.sourceNumber = sourceNumber;
+    }
+  }
+}
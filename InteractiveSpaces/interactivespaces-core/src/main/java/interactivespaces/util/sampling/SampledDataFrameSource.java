@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.sampling;
+
+/**
+ * A source of sampled data frames which can be read in any order.
+ *
+ * @author agent
+ */
+public interface SampledDataFrameSource {
+
+  /**
+   * Get the number of frames.
+   *
+   * @return the number of frames
+   */
+  int getNumberFrames();
+
+  /**
+   * Get the timestamp of a frame.
+   *
+   * @param frame
+   *          index of the frame
+   *
+   * @return the timestamp of the frame
+   */
+  long getFrameTimestamp(int frame);
+
+  /**
+   * Get the name of the source of a frame.
+   *
+   * @param frame
+   *          index of the frame
+   *
+   * @return name of the source of the frame
+   */
+  String getFrameSource(int frame);
+
+  /**
+   * Get the samples of a frame.
+   *
+   * <p>
+   * The array can be reused by later calls, so it should not be modified or kept.
+   *
+   * @param frame
+   *          index of the frame
+   *
+   * @return the samples of the frame
+   */
+  int[] getFrameSamples(int frame);
+
+  /**
+   * Find the first frame at or after a given time. Frame timestamps must never decrease.
+   *
+   * @param timestamp
+   *          the time
+   *
+   * @return index of the frame, or the number of frames if all frames are before the time
+   */
+  int findFrame(long timestamp);
+}
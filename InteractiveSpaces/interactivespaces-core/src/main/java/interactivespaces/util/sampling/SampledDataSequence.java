@@ -25,7 +25,7 @@ import java.util.List;
  *
  * @author Keith M. Hughes
  */
-public class SampledDataSequence {
+public class SampledDataSequence implements SampledDataFrameSource {
 
   /**
    * The samples which have been captured indexed by their source.
@@ -62,6 +62,42 @@ public class SampledDataSequence {
     return frames;
   }
 
+  @Override
+  public int getNumberFrames() {
+    return frames.size();
+  }
+
+  @Override
+  public long getFrameTimestamp(int frame) {
+    return frames.get(frame).getTimestamp();
+  }
+
+  @Override
+  public String getFrameSource(int frame) {
+    return frames.get(frame).getSource();
+  }
+
+  @Override
+  public int[] getFrameSamples(int frame) {
+    return frames.get(frame).getSamples();
+  }
+
+  @Override
+  public int findFrame(long timestamp) {
+    int low = 0;
+    int high = frames.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (frames.get(middle).getTimestamp() < timestamp) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+
   /**
    * A frame of sampled data. The frame consists of a name for the source of
    * data and a collection of sample values.
@@ -17,26 +17,33 @@
 package interactivespaces.util.sampling;
 
 import interactivespaces.util.resource.ManagedResource;
-import interactivespaces.util.sampling.SampledDataSequence.SampledDataFrame;
 
 import org.apache.commons.logging.Log;
 
-import java.util.Arrays;
-import java.util.List;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Send a sampled data sequence out as a series of frames.
  *
+ * <p>
+ * Each frame is sent at a deadline computed from the start of playback, so sending time and scheduler jitter do not
+ * accumulate over a long sequence. Playback can be sped up or slowed down and moved to another position while it is
+ * running.
+ *
  * @author Keith M. Hughes
  */
 public class SampledDataSequencePlayer implements ManagedResource {
 
+  /**
+   * The number of nanoseconds in a millisecond.
+   */
+  private static final long NANOSECONDS_PER_MILLISECOND = 1000000L;
+
   /**
    * The data to be sent.
    */
-  private final SampledDataSequence sequence;
+  private final SampledDataFrameSource sequence;
 
   /**
    * The object which will actually transmit the samples.
@@ -58,6 +65,36 @@ public class SampledDataSequencePlayer implements ManagedResource {
    */
   private final Log log;
 
+  /**
+   * Mutex for the playback position and speed.
+   */
+  private final Object mutex = new Object();
+
+  /**
+   * The index of the next frame to send.
+   */
+  private int nextFrame;
+
+  /**
+   * The frame timestamp which corresponds to {@link #baseNanoTime}.
+   */
+  private long baseFrameTime;
+
+  /**
+   * The system nano time at which the frame timestamp {@link #baseFrameTime} is to be played.
+   */
+  private long baseNanoTime;
+
+  /**
+   * The playback speed, where {@code 1} is real time.
+   */
+  private double speed = 1.0;
+
+  /**
+   * {@code true} if playback starts over at the beginning when the end of the sequence is reached.
+   */
+  private volatile boolean looping = true;
+
   /**
    * Construct a sampled data sequence player.
    *
@@ -70,7 +107,7 @@ public class SampledDataSequencePlayer implements ManagedResource {
    * @param log
    *          the logger to use
    */
-  public SampledDataSequencePlayer(SampledDataSequence sequence, SampledDataSequenceSampleSender sender,
+  public SampledDataSequencePlayer(SampledDataFrameSource sequence, SampledDataSequenceSampleSender sender,
       ScheduledExecutorService executorService, Log log) {
     this.sequence = sequence;
     this.sender = sender;
@@ -88,6 +125,70 @@ public class SampledDataSequencePlayer implements ManagedResource {
     stopPlayback();
   }
 
+  /**
+   * Set the playback speed.
+   *
+   * <p>
+   * The playback position does not jump when the speed is changed.
+   *
+   * @param speed
+   *          the speed, {@code 1} is real time, {@code 2} is twice as fast
+   */
+  public void setSpeed(double speed) {
+    if (speed <= 0.0) {
+      throw new IllegalArgumentException("Playback speed must be positive");
+    }
+
+    synchronized (mutex) {
+      long now = System.nanoTime();
+      baseFrameTime = getFrameTimeAt(now);
+      baseNanoTime = now;
+      this.speed = speed;
+
+      mutex.notifyAll();
+    }
+  }
+
+  /**
+   * Get the playback speed.
+   *
+   * @return the speed, {@code 1} is real time
+   */
+  public double getSpeed() {
+    synchronized (mutex) {
+      return speed;
+    }
+  }
+
+  /**
+   * Move playback to a new position.
+   *
+   * <p>
+   * The next frame sent will be the first frame at or after the timestamp.
+   *
+   * @param timestamp
+   *          the frame timestamp to play from
+   */
+  public void seek(long timestamp) {
+    synchronized (mutex) {
+      nextFrame = sequence.findFrame(timestamp);
+      baseFrameTime = timestamp;
+      baseNanoTime = System.nanoTime();
+
+      mutex.notifyAll();
+    }
+  }
+
+  /**
+   * Set whether playback starts over when the end of the sequence is reached.
+   *
+   * @param looping
+   *          {@code true} if playback should loop, the default
+   */
+  public void setLooping(boolean looping) {
+    this.looping = looping;
+  }
+
   /**
    * Play the frames in sequence.
    *
@@ -95,32 +196,72 @@ public class SampledDataSequencePlayer implements ManagedResource {
    *           the player has been interrupted
    */
   private void play() throws InterruptedException {
+    int numberFrames = sequence.getNumberFrames();
+    if (numberFrames == 0) {
+      return;
+    }
 
-    List<SampledDataFrame> frames = sequence.getFrames();
-    int maxFrames = frames.size() - 1;
-
+    log.info("Starting playback of sampled data");
     while (!Thread.interrupted()) {
-      log.info("Starting playback of sampled data");
-      SampledDataFrame currentFrame = frames.get(0);
-      int[] samples = currentFrame.getSamples();
-      sender.sendSampledData(currentFrame.getSource(), Arrays.copyOf(samples, samples.length));
-      SampledDataFrame previousFrame;
-      for (int frame = 1; !Thread.interrupted() && frame < maxFrames; frame++) {
-        previousFrame = currentFrame;
-        currentFrame = frames.get(frame);
-
-        long delay = currentFrame.getTimestamp() - previousFrame.getTimestamp();
+      int frame;
+      synchronized (mutex) {
+        if (nextFrame >= numberFrames) {
+          log.info("Ending playback of sampled data");
+          if (!looping) {
+            return;
+          }
+
+          log.info("Starting playback of sampled data");
+          nextFrame = 0;
+          baseFrameTime = sequence.getFrameTimestamp(0);
+          baseNanoTime = System.nanoTime();
+        }
+
+        // Wait for the deadline of the next frame. A seek or speed change wakes the wait so the deadline is recomputed.
+        frame = nextFrame;
+        long delay = getFrameDeadline(sequence.getFrameTimestamp(frame)) - System.nanoTime();
         if (delay > 0) {
-          Thread.sleep(delay);
+          mutex.wait(delay / NANOSECONDS_PER_MILLISECOND, (int) (delay % NANOSECONDS_PER_MILLISECOND));
+          continue;
         }
 
-        samples = currentFrame.getSamples();
-        sender.sendSampledData(currentFrame.getSource(), Arrays.copyOf(samples, samples.length));
+        nextFrame = frame + 1;
       }
-      log.info("Ending playback of sampled data");
+
+      sender.sendSampledData(sequence.getFrameSource(frame), sequence.getFrameSamples(frame));
     }
   }
 
+  /**
+   * Get the system nano time at which a frame should be sent.
+   *
+   * <p>
+   * Must be called with {@link #mutex} held.
+   *
+   * @param frameTime
+   *          the timestamp of the frame
+   *
+   * @return the nano time for sending the frame
+   */
+  private long getFrameDeadline(long frameTime) {
+    return baseNanoTime + (long) ((frameTime - baseFrameTime) * NANOSECONDS_PER_MILLISECOND / speed);
+  }
+
+  /**
+   * Get the frame timestamp being played at a given system nano time.
+   *
+   * <p>
+   * Must be called with {@link #mutex} held.
+   *
+   * @param nanoTime
+   *          the system nano time
+   *
+   * @return the frame timestamp
+   */
+  private long getFrameTimeAt(long nanoTime) {
+    return baseFrameTime + (long) ((nanoTime - baseNanoTime) * speed / NANOSECONDS_PER_MILLISECOND);
+  }
+
   /**
    * Start playing the data.
    *
@@ -129,6 +270,12 @@ public class SampledDataSequencePlayer implements ManagedResource {
    */
   public synchronized void startPlayback() {
     if (runningFuture == null) {
+      synchronized (mutex) {
+        nextFrame = 0;
+        baseFrameTime = sequence.getNumberFrames() > 0 ? sequence.getFrameTimestamp(0) : 0;
+        baseNanoTime = System.nanoTime();
+      }
+
       runningFuture = executorService.submit(new Runnable() {
         @Override
         public void run() {
@@ -160,6 +307,11 @@ public class SampledDataSequencePlayer implements ManagedResource {
   /**
    * The data sender.
    *
+   * <p>
+   * The samples array handed to the sender is not a copy. It may be the same array for every frame from a source and
+   * is overwritten when a later frame is read, so a sender which needs the samples after
+   * {@link #sendSampledData(String, int[])} returns must copy them.
+   *
    * @author Keith M. Hughes
    */
   public interface SampledDataSequenceSampleSender {
@@ -170,7 +322,8 @@ public class SampledDataSequencePlayer implements ManagedResource {
      * @param source
      *          name of the source
      * @param samples
-     *          the samples for the source in the current frame
+     *          the samples for the source in the current frame, the array may be reused for later frames so must not
+     *          be modified or kept after the call returns
      */
     void sendSampledData(String source, int[] samples);
   }
@@ -23,6 +23,8 @@
  *
  * <p>
  * This package provides classes for capturing data, saving it and loading it, calculating background values for the samples.
+ * Long sequences can be stored in a compact binary form which is read through a memory map and played back without
+ * being loaded.
  *
  * @author Keith M. Hughes
  */
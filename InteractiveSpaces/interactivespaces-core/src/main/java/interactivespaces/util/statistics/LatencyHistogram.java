@@ -0,0 +1,342 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.statistics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size, lock-free histogram of latencies.
+ *
+ * <p>
+ * Values below {@code 64} are counted exactly. Larger values go into buckets
+ * whose width doubles with each power of two, with {@value #SUB_BUCKET_COUNT}
+ * buckets per power of two, so any recorded value is known to within about 3%.
+ * Recording a value is a few shifts and an atomic increment.
+ *
+ * @author agent
+ */
+public class LatencyHistogram {
+
+  /**
+   * Number of bits of precision kept for each value.
+   */
+  public static final int SUB_BUCKET_BITS = 5;
+
+  /**
+   * Number of buckets for each power of two.
+   */
+  public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  /**
+   * Values below this are counted exactly.
+   */
+  private static final long EXACT_LIMIT = 2 * SUB_BUCKET_COUNT;
+
+  /**
+   * Total number of buckets, enough for any non-negative {@code long}.
+   */
+  private static final int BUCKET_COUNT = getBucketIndex(Long.MAX_VALUE) + 1;
+
+  /**
+   * The count for each bucket.
+   */
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+  /**
+   * Total number of values recorded.
+   */
+  private final AtomicLong totalCount = new AtomicLong();
+
+  /**
+   * Sum of all values recorded.
+   */
+  private final AtomicLong totalValue = new AtomicLong();
+
+  /**
+   * Largest value recorded.
+   */
+  private final AtomicLong maxValue = new AtomicLong();
+
+  /**
+   * Record a value.
+   *
+   * @param value
+   *          the value, negative values are recorded as {@code 0}
+   */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+
+    counts.incrementAndGet(getBucketIndex(value));
+    totalCount.incrementAndGet();
+    totalValue.addAndGet(value);
+    StatisticsUtils.updateMaximum(maxValue, value);
+  }
+
+  /**
+   * Clear all recorded values.
+   *
+   * <p>
+   * Values recorded while the reset is happening may or may not be kept.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts.set(i, 0);
+    }
+    totalCount.set(0);
+    totalValue.set(0);
+    maxValue.set(0);
+  }
+
+  /**
+   * @return the number of values recorded
+   */
+  public long getTotalCount() {
+    return totalCount.get();
+  }
+
+  /**
+   * @return the largest value recorded
+   */
+  public long getMaxValue() {
+    return maxValue.get();
+  }
+
+  /**
+   * @return the mean of the values recorded, or {@code 0} if there are none
+   */
+  public double getMean() {
+    long count = totalCount.get();
+
+    return count > 0 ? (double) totalValue.get() / count : 0.0;
+  }
+
+  /**
+   * Get the value at a percentile.
+   *
+   * <p>
+   * The value returned is the top of the bucket holding the percentile, capped
+   * at the largest value recorded, so it never understates a latency.
+   *
+   * @param percentile
+   *          the percentile, from {@code 0} to {@code 100}
+   *
+   * @return the value at the percentile, or {@code 0} if there are no values
+   */
+  public long getValueAtPercentile(double percentile) {
+    long count = 0;
+    long[] snapshot = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      snapshot[i] = counts.get(i);
+      count += snapshot[i];
+    }
+    if (count == 0) {
+      return 0;
+    }
+
+    long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += snapshot[i];
+      if (seen >= target) {
+        return Math.min(getBucketHighestValue(i), maxValue.get());
+      }
+    }
+
+    return maxValue.get();
+  }
+
+  /**
+   * Get a summary of the histogram for values which are times.
+   *
+   * @param valueUnit
+   *          the units of the recorded values
+   * @param summaryUnit
+   *          the units for the summary
+   *
+   * @return the summary
+   */
+  public LatencySummary getSummary(TimeUnit valueUnit, TimeUnit summaryUnit) {
+    double scale = (double) valueUnit.toNanos(1) / summaryUnit.toNanos(1);
+
+    return new LatencySummary(getTotalCount(), getMean() * scale, getValueAtPercentile(50.0) * scale,
+        getValueAtPercentile(90.0) * scale, getValueAtPercentile(99.0) * scale,
+        getValueAtPercentile(99.9) * scale, getMaxValue() * scale);
+  }
+
+  /**
+   * Get the bucket a value belongs in.
+   *
+   * @param value
+   *          the value, must not be negative
+   *
+   * @return the index of the bucket
+   */
+  private static int getBucketIndex(long value) {
+    if (value < EXACT_LIMIT) {
+      return (int) value;
+    }
+
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+
+    // The top bit of the value is always set, so the sub-bucket is between
+    // SUB_BUCKET_COUNT and 2 * SUB_BUCKET_COUNT.
+    return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+  }
+
+  /**
+   * Get the largest value which goes into a bucket.
+   *
+   * @param index
+   *          the index of the bucket
+   *
+   * @return the largest value for the bucket
+   */
+  private static long getBucketHighestValue(int index) {
+    if (index < EXACT_LIMIT) {
+      return index;
+    }
+
+    int shift = index / SUB_BUCKET_COUNT - 1;
+    long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+  /**
+   * A snapshot of the main figures of a latency histogram.
+   *
+   * @author agent
+   */
+  public static class LatencySummary {
+
+    /**
+     * Number of values.
+     */
+    private final long count;
+
+    /**
+     * Mean value.
+     */
+    private final double mean;
+
+    /**
+     * Median value.
+     */
+    private final double p50;
+
+    /**
+     * 90th percentile.
+     */
+    private final double p90;
+
+    /**
+     * 99th percentile.
+     */
+    private final double p99;
+
+    /**
+     * 99.9th percentile.
+     */
+    private final double p999;
+
+    /**
+     * Largest value.
+     */
+    private final double max;
+
+    /**
+     * Construct a new summary.
+     *
+     * @param count
+     *          number of values
+     * @param mean
+     *          mean value
+     * @param p50
+     *          median value
+     * @param p90
+     *          90th percentile
+     * @param p99
+     *          99th percentile
+     * @param p999
+     *          99.9th percentile
+     * @param max
+     *          largest value
+     */
+    public LatencySummary(long count, double mean, double p50, double p90, double p99, double p999, double max) {
+      this.count = count;
+      this.mean = mean;
+      this.p50 = p50;
+      this.p90 = p90;
+      this.p99 = p99;
+      this.p999 = p999;
+      this.max = max;
+    }
+
+    /**
+     * @return the number of values
+     */
+    public long getCount() {
+      return count;
+    }
+
+    /**
+     * @return the mean value
+     */
+    public double getMean() {
+      return mean;
+    }
+
+    /**
+     * @return the median value
+     */
+    public double getP50() {
+      return p50;
+    }
+
+    /**
+     * @return the 90th percentile
+     */
+    public double getP90() {
+      return p90;
+    }
+
+    /**
+     * @return the 99th percentile
+     */
+    public double getP99() {
+      return p99;
+    }
+
+    /**
+     * @return the 99.9th percentile
+     */
+    public double getP999() {
+      return p999;
+    }
+
+    /**
+     * @return the largest value
+     */
+    public double getMax() {
+      return max;
+    }
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.statistics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free meter for the recent rate of events.
+ *
+ * <p>
+ * Events are counted in a ring of time slots. The rate is the count in the
+ * slots still inside the window divided by the time they cover, so it follows
+ * changes in load within one window rather than averaging over the life of the
+ * meter.
+ *
+ * @author agent
+ */
+public class RateMeter {
+
+  /**
+   * The default number of slots in the window.
+   */
+  public static final int NUMBER_SLOTS_DEFAULT = 10;
+
+  /**
+   * The default length of a slot, in milliseconds.
+   */
+  public static final long SLOT_LENGTH_DEFAULT = 1000;
+
+  /**
+   * The number of slots in the window.
+   */
+  private final int numberSlots;
+
+  /**
+   * The length of a slot, in nanoseconds.
+   */
+  private final long slotLength;
+
+  /**
+   * The time slot numbers are measured from, in nanoseconds.
+   */
+  private final long origin;
+
+  /**
+   * The count for each slot.
+   */
+  private final AtomicLongArray counts;
+
+  /**
+   * The number of the slot each count belongs to.
+   */
+  private final AtomicLongArray slotNumbers;
+
+  /**
+   * The time the meter was started or last reset, in nanoseconds.
+   */
+  private volatile long startTime;
+
+  /**
+   * Construct a meter with a window of {@value #NUMBER_SLOTS_DEFAULT} slots of
+   * {@value #SLOT_LENGTH_DEFAULT} milliseconds.
+   */
+  public RateMeter() {
+    this(NUMBER_SLOTS_DEFAULT, SLOT_LENGTH_DEFAULT, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Construct a new meter.
+   *
+   * @param numberSlots
+   *          the number of slots in the window
+   * @param slotLength
+   *          the length of a slot
+   * @param unit
+   *          the units for the slot length
+   */
+  public RateMeter(int numberSlots, long slotLength, TimeUnit unit) {
+    this(numberSlots, slotLength, unit, System.nanoTime());
+  }
+
+  /**
+   * Construct a new meter.
+   *
+   * @param numberSlots
+   *          the number of slots in the window
+   * @param slotLength
+   *          the length of a slot
+   * @param unit
+   *          the units for the slot length
+   * @param now
+   *          the current time, in nanoseconds
+   */
+  RateMeter(int numberSlots, long slotLength, TimeUnit unit, long now) {
+    this.numberSlots = numberSlots;
+    this.slotLength = unit.toNanos(slotLength);
+    this.origin = now;
+    counts = new AtomicLongArray(numberSlots);
+    slotNumbers = new AtomicLongArray(numberSlots);
+
+    reset(now);
+  }
+
+  /**
+   * Count events.
+   *
+   * @param amount
+   *          the number of events
+   */
+  public void mark(long amount) {
+    mark(amount, System.nanoTime());
+  }
+
+  /**
+   * Count events.
+   *
+   * @param amount
+   *          the number of events
+   * @param now
+   *          the current time, in nanoseconds
+   */
+  void mark(long amount, long now) {
+    long slotNumber = getSlotNumber(now);
+    int index = (int) (slotNumber % numberSlots);
+
+    long currentSlotNumber = slotNumbers.get(index);
+    if (currentSlotNumber < slotNumber) {
+      // Only the thread which moves the slot on removes the old count. Counts
+      // added for the new slot in the meantime are kept.
+      long oldCount = counts.get(index);
+      if (slotNumbers.compareAndSet(index, currentSlotNumber, slotNumber)) {
+        counts.addAndGet(index, -oldCount);
+      }
+    }
+
+    counts.addAndGet(index, amount);
+  }
+
+  /**
+   * Clear the meter.
+   *
+   * <p>
+   * Events counted while the reset is happening may or may not be kept.
+   */
+  public void reset() {
+    reset(System.nanoTime());
+  }
+
+  /**
+   * Clear the meter.
+   *
+   * @param now
+   *          the current time, in nanoseconds
+   */
+  void reset(long now) {
+    for (int i = 0; i < numberSlots; i++) {
+      slotNumbers.set(i, -1);
+      counts.set(i, 0);
+    }
+    startTime = now;
+  }
+
+  /**
+   * Get the rate of events over the window.
+   *
+   * <p>
+   * Just after a reset the rate is over the time since the reset.
+   *
+   * @return the number of events per second
+   */
+  public double getRate() {
+    return getRate(System.nanoTime());
+  }
+
+  /**
+   * Get the rate of events over the window.
+   *
+   * @param now
+   *          the current time, in nanoseconds
+   *
+   * @return the number of events per second
+   */
+  double getRate(long now) {
+    long slotNumber = getSlotNumber(now);
+    long firstSlotNumber = slotNumber - numberSlots + 1;
+
+    long count = 0;
+    for (int i = 0; i < numberSlots; i++) {
+      long countSlotNumber = slotNumbers.get(i);
+      if (countSlotNumber >= firstSlotNumber && countSlotNumber <= slotNumber) {
+        count += counts.get(i);
+      }
+    }
+
+    long elapsed = now - Math.max(startTime, origin + firstSlotNumber * slotLength);
+    if (elapsed <= 0) {
+      return 0.0;
+    }
+
+    return count * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+  }
+
+  /**
+   * Get the number of the slot a time falls in.
+   *
+   * @param now
+   *          the time, in nanoseconds
+   *
+   * @return the slot number
+   */
+  private long getSlotNumber(long now) {
+    return Math.max(0, now - origin) / slotLength;
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.statistics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Utilities for keeping statistics which are updated from many threads.
+ *
+ * @author agent
+ */
+public class StatisticsUtils {
+
+  /**
+   * Raise a maximum to a value if the value is larger.
+   *
+   * @param maximum
+   *          the maximum
+   * @param value
+   *          the value
+   */
+  public static void updateMaximum(AtomicLong maximum, long value) {
+    long current = maximum.get();
+    while (value > current && !maximum.compareAndSet(current, value)) {
+      current = maximum.get();
+    }
+  }
+
+  /**
+   * Raise a maximum to a value if the value is larger.
+   *
+   * @param maximum
+   *          the maximum
+   * @param value
+   *          the value
+   */
+  public static void updateMaximum(AtomicInteger maximum, int value) {
+    int current = maximum.get();
+    while (value > current && !maximum.compareAndSet(current, value)) {
+      current = maximum.get();
+    }
+  }
+}
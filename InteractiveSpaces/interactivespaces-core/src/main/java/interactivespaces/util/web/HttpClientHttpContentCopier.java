@@ -64,6 +64,11 @@ public class HttpClientHttpContentCopier implements HttpContentCopier {
    */
   private static final int BUFFER_SIZE = 4096;
 
+  /**
+   * The HTTP header for range requests.
+   */
+  private static final String HEADER_RANGE = "Range";
+
   /**
    * The HTTPClient instance which does the actual transfer.
    */
@@ -129,7 +134,12 @@ public class HttpClientHttpContentCopier implements HttpContentCopier {
 
   @Override
   public void copy(String sourceUri, File destinationFile) {
-    new FileHttpEntityCopier(destinationFile).retrieveRemoteContent(sourceUri);
+    new FileHttpEntityCopier(destinationFile, false).retrieveRemoteContent(sourceUri);
+  }
+
+  @Override
+  public void copyResume(String sourceUri, File destinationFile) {
+    new FileHttpEntityCopier(destinationFile, true).retrieveRemoteContent(sourceUri);
   }
 
   @Override
@@ -269,19 +279,41 @@ public class HttpClientHttpContentCopier implements HttpContentCopier {
      */
     private File destinationFile;
 
+    /**
+     * Where in the destination file the transfer starts, {@code 0} if the whole content is requested.
+     */
+    private final long resumeOffset;
+
     /**
      * Construct a file copier.
      *
      * @param destinationFile
      *          the destination file
+     * @param resume
+     *          {@code true} if the transfer should continue from the end of the destination file
      */
-    public FileHttpEntityCopier(File destinationFile) {
+    public FileHttpEntityCopier(File destinationFile, boolean resume) {
       this.destinationFile = destinationFile;
+
+      resumeOffset = (resume && destinationFile.isFile()) ? destinationFile.length() : 0;
+    }
+
+    @Override
+    protected void prepareRequest(HttpGet request) {
+      if (resumeOffset > 0) {
+        request.addHeader(HEADER_RANGE, "bytes=" + resumeOffset + "-");
+      }
+    }
+
+    @Override
+    protected boolean isSuccessStatus(int statusCode) {
+      return statusCode == HttpStatus.SC_OK || (resumeOffset > 0 && statusCode == HttpStatus.SC_PARTIAL_CONTENT);
     }
 
     @Override
     protected OutputStream getOutputStream() throws IOException {
-      return new FileOutputStream(destinationFile);
+      // Only append if the server honored the range request.
+      return new FileOutputStream(destinationFile, getResponseStatusCode() == HttpStatus.SC_PARTIAL_CONTENT);
     }
 
     @Override
@@ -298,6 +330,11 @@ public class HttpClientHttpContentCopier implements HttpContentCopier {
    */
   private abstract class HttpResponseCopier {
 
+    /**
+     * The status code of the response being copied.
+     */
+    private int responseStatusCode;
+
     /**
      * Create the output stream needed for the copier.
      *
@@ -315,6 +352,37 @@ public class HttpClientHttpContentCopier implements HttpContentCopier {
      */
     protected abstract String getDestinationDescription();
 
+    /**
+     * Add anything needed to the request before it is sent.
+     *
+     * @param request
+     *          the request
+     */
+    protected void prepareRequest(HttpGet request) {
+      // Default is to leave the request alone.
+    }
+
+    /**
+     * Is the status code of the response one which means there is content to copy?
+     *
+     * @param statusCode
+     *          the status code
+     *
+     * @return {@code true} if the content should be copied
+     */
+    protected boolean isSuccessStatus(int statusCode) {
+      return statusCode == HttpStatus.SC_OK;
+    }
+
+    /**
+     * Get the status code of the response being copied.
+     *
+     * @return the status code
+     */
+    protected int getResponseStatusCode() {
+      return responseStatusCode;
+    }
+
     /**
      * Get the remote content from the source URI.
      *
@@ -325,12 +393,14 @@ public class HttpClientHttpContentCopier implements HttpContentCopier {
       HttpEntity entity = null;
       try {
         HttpGet httpGet = new HttpGet(sourceUri);
+        prepareRequest(httpGet);
         HttpResponse response = httpClient.execute(httpGet);
 
         entity = response.getEntity();
 
         int statusCode = response.getStatusLine().getStatusCode();
-        if (statusCode == HttpStatus.SC_OK) {
+        responseStatusCode = statusCode;
+        if (isSuccessStatus(statusCode)) {
           if (entity != null) {
             InputStream in = entity.getContent();
             try {
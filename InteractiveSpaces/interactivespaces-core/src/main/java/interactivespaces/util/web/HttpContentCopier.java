@@ -92,6 +92,28 @@ public interface HttpContentCopier extends ManagedResource {
    */
   void copy(String sourceUri, File destination) throws InteractiveSpacesException;
 
+  /**
+   * Copy the contents from the source URI to the destination file, continuing from the end of the destination file if
+   * it already has some content.
+   *
+   * <p>
+   * The remaining content is requested with an HTTP range request. If the server ignores the range, the destination
+   * file is rewritten from the beginning.
+   *
+   * <p>
+   * This method blocks until the transfer is complete or it fails. Content transferred before a failure is kept, so
+   * the copy can be resumed by calling this method again.
+   *
+   * @param sourceUri
+   *          the URI to copy the content from
+   * @param destination
+   *          where to copy the content to
+   *
+   * @throws InteractiveSpacesException
+   *           if transfer was not successful
+   */
+  void copyResume(String sourceUri, File destination) throws InteractiveSpacesException;
+
   /**
    * Copy content to a remote web server using an HTTP POST.
    *
@@ -144,6 +144,49 @@ public class ActivityComponentContextTest {
     Assert.assertTrue(context.waitOnNoProcessingHandlings(500, 4000));
   }
 
+  /**
+   * Test that a wait ends as soon as the last handler exits rather than after
+   * a full timeout.
+   */
+  @Test
+  public void testWaitEndsOnLastExit() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        context.enterHandler();
+        latch.countDown();
+        InteractiveSpacesUtilities.delay(100);
+        context.exitHandler();
+      }
+    });
+
+    Assert.assertTrue(latch.await(500, TimeUnit.MILLISECONDS));
+
+    long start = System.currentTimeMillis();
+    Assert.assertTrue(context.awaitNoProcessingHandlers(4000, TimeUnit.MILLISECONDS));
+    Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+  }
+
+  /**
+   * Test that handler statistics are collected.
+   */
+  @Test
+  public void testHandlerStatistics() {
+    context.enterHandler();
+    Assert.assertEquals(1, context.getNumberProcessingHandlers());
+    InteractiveSpacesUtilities.delay(20);
+    context.exitHandler();
+
+    Assert.assertEquals(0, context.getNumberProcessingHandlers());
+    Assert.assertEquals(1, context.getNumberHandlerInvocations());
+    Assert.assertTrue(context.getMaxHandlerDuration(TimeUnit.MILLISECONDS) >= 20);
+
+    context.resetHandlerStatistics();
+    Assert.assertEquals(0, context.getNumberHandlerInvocations());
+    Assert.assertEquals(0, context.getMaxHandlerDuration(TimeUnit.MILLISECONDS));
+  }
+
   /**
    * Tests the context failing to startup in time when waiting for the context
    * to signal startup complete.
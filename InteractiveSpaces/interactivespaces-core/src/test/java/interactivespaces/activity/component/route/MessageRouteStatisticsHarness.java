@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.activity.component.route;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A harness for measuring what {@link MessageRouteStatistics} adds to the cost
+ * of handling a routed message.
+ *
+ * <p>
+ * The same trivial handler is run with and without statistics around it, first
+ * on one thread and then on several threads sharing one statistics object the
+ * way the threads of a busy input channel do. Run with an optional number of
+ * threads.
+ *
+ * @author agent
+ */
+public class MessageRouteStatisticsHarness {
+
+  /**
+   * The number of messages handled in each measurement.
+   */
+  public static final int NUMBER_MESSAGES = 20000000;
+
+  /**
+   * The number of times each measurement is made, the first ones warm up the
+   * JIT.
+   */
+  public static final int NUMBER_ROUNDS = 3;
+
+  /**
+   * The default number of threads for the contended measurement.
+   */
+  public static final int NUMBER_THREADS_DEFAULT = 4;
+
+  /**
+   * A message the handler works on.
+   */
+  private static final String MESSAGE = "{\"x\":1}";
+
+  /**
+   * Keeps the handler from being optimized away.
+   */
+  private volatile long sink;
+
+  /**
+   * The handler being measured.
+   *
+   * @param message
+   *          the message
+   */
+  private void handle(String message) {
+    sink += message.length();
+  }
+
+  /**
+   * Handle messages without statistics.
+   *
+   * @param numberMessages
+   *          the number of messages to handle
+   *
+   * @return the time taken, in nanoseconds
+   */
+  private long runBaseline(int numberMessages) {
+    long start = System.nanoTime();
+    for (int i = 0; i < numberMessages; i++) {
+      handle(MESSAGE);
+    }
+
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Handle messages with statistics.
+   *
+   * @param statistics
+   *          the statistics to record into
+   * @param numberMessages
+   *          the number of messages to handle
+   *
+   * @return the time taken, in nanoseconds
+   */
+  private long runInstrumented(MessageRouteStatistics statistics, int numberMessages) {
+    long start = System.nanoTime();
+    for (int i = 0; i < numberMessages; i++) {
+      long messageStart = statistics.startMessage();
+      handle(MESSAGE);
+      statistics.endMessage(messageStart, MESSAGE.length(), true);
+    }
+
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Measure the overhead on a single thread.
+   */
+  private void measureSingleThread() {
+    MessageRouteStatistics statistics = new MessageRouteStatistics();
+    for (int round = 0; round < NUMBER_ROUNDS; round++) {
+      double baseline = (double) runBaseline(NUMBER_MESSAGES) / NUMBER_MESSAGES;
+      double instrumented = (double) runInstrumented(statistics, NUMBER_MESSAGES) / NUMBER_MESSAGES;
+      System.out.format("Single thread: baseline %.1f nsec/message, instrumented %.1f nsec/message, "
+          + "overhead %.1f nsec/message%n", baseline, instrumented, instrumented - baseline);
+    }
+    System.out.println(statistics);
+  }
+
+  /**
+   * Measure the overhead with several threads recording into the same
+   * statistics.
+   *
+   * @param numberThreads
+   *          the number of threads
+   *
+   * @throws InterruptedException
+   *           the measurement was interrupted
+   */
+  private void measureContended(int numberThreads) throws InterruptedException {
+    final MessageRouteStatistics statistics = new MessageRouteStatistics();
+    final int messagesPerThread = NUMBER_MESSAGES / numberThreads;
+
+    Thread[] threads = new Thread[numberThreads];
+    long start = System.nanoTime();
+    for (int i = 0; i < numberThreads; i++) {
+      threads[i] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          runInstrumented(statistics, messagesPerThread);
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    long elapsed = System.nanoTime() - start;
+
+    System.out.format("%d threads: %.1f nsec/message aggregate, max in flight %d, p99 %.2f usec%n", numberThreads,
+        (double) elapsed / (messagesPerThread * numberThreads), statistics.getMaxInFlight(),
+        statistics.getLatency(TimeUnit.MICROSECONDS).getP99());
+  }
+
+  /**
+   * Run the harness.
+   *
+   * @param args
+   *          optionally the number of threads for the contended measurement
+   *
+   * @throws Exception
+   *           the measurement failed
+   */
+  public static void main(String[] args) throws Exception {
+    int numberThreads = args.length > 0 ? Integer.parseInt(args[0]) : NUMBER_THREADS_DEFAULT;
+
+    MessageRouteStatisticsHarness harness = new MessageRouteStatisticsHarness();
+    harness.measureSingleThread();
+    harness.measureContended(numberThreads);
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.activity.component.route;
+
+import static org.junit.Assert.assertEquals;
+
+import interactivespaces.service.web.server.HttpRequest;
+import interactivespaces.service.web.server.HttpResponse;
+import interactivespaces.util.data.json.JsonMapper;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+
+/**
+ * Tests for the {@link MessageRouteStatisticsHttpDynamicRequestHandler}.
+ *
+ * @author agent
+ */
+public class MessageRouteStatisticsHttpDynamicRequestHandlerTest {
+
+  /**
+   * The statistics are written as JSON and a request never resets them, even
+   * when asked to.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testReadOnly() throws Exception {
+    MessageRouteStatistics statistics = new MessageRouteStatistics();
+    statistics.endMessage(statistics.startMessage(), 10, true);
+
+    Map<String, MessageRouteStatistics> inputs = Maps.newHashMap();
+    inputs.put("input1", statistics);
+    MessageRouteStatisticsHttpDynamicRequestHandler handler =
+        new MessageRouteStatisticsHttpDynamicRequestHandler(inputs, Maps.<String, MessageRouteStatistics> newHashMap());
+
+    HttpRequest request = Mockito.mock(HttpRequest.class);
+    Mockito.when(request.getUriQueryParameters()).thenReturn(ImmutableMap.of("reset", "true"));
+    HttpResponse response = Mockito.mock(HttpResponse.class);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Mockito.when(response.getOutputStream()).thenReturn(out);
+
+    handler.handle(request, response);
+
+    Map<String, Object> result = JsonMapper.INSTANCE.parseObject(new String(out.toByteArray(), Charsets.UTF_8));
+    Map<String, Object> input = (Map<String, Object>) ((Map<String, Object>) result.get("inputs")).get("input1");
+    assertEquals(1, ((Number) input.get("messages")).intValue());
+    assertEquals(10, ((Number) input.get("bytes")).intValue());
+
+    assertEquals(1, statistics.getNumberMessages());
+  }
+}
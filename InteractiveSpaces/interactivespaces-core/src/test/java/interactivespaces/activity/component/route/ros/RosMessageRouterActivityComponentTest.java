@@ -16,7 +16,12 @@
 
 package interactivespaces.activity.component.route.ros;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
 import interactivespaces.activity.component.ActivityComponentContext;
+import interactivespaces.activity.component.route.MessageRouteStatistics;
+import interactivespaces.activity.component.route.MessageSizeEstimator;
 import interactivespaces.activity.component.route.RoutableInputMessageListener;
 import interactivespaces.activity.component.route.ros.RosMessageRouterActivityComponent;
 import interactivespaces.activity.execution.ActivityExecutionContext;
@@ -31,6 +36,8 @@ import org.junit.Test;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * tests for {@link RosMessageRouterActivityComponent}.
  *
@@ -146,4 +153,57 @@ public class RosMessageRouterActivityComponentTest {
     Mockito.verify(activityComponentContext, Mockito.never()).exitHandler();
   }
 
+  /**
+   * Statistics are kept for each input channel, including failed messages.
+   */
+  @Test
+  public void testHandlerStatistics() {
+    configuration.setValue("space.activity.routes.inputs", "foo");
+    configuration.setValue("space.activity.route.input.foo", "bar");
+
+    component.setComponentContext(activityComponentContext);
+    component.configureComponent(configuration);
+    component.setMessageSizeEstimator(new MessageSizeEstimator<String>() {
+      @Override
+      public int estimateSize(String message) {
+        return message.length();
+      }
+    });
+
+    Mockito.when(activityComponentContext.canHandlerRun()).thenReturn(true);
+
+    Mockito.doThrow(new RuntimeException()).when(messageListener).onNewRoutableInputMessage("foo", "broken");
+
+    component.handleNewMessage("foo", "bar");
+    component.handleNewMessage("foo", "bletch");
+    component.handleNewMessage("foo", "broken");
+
+    MessageRouteStatistics statistics = component.getInputStatistics().get("foo");
+    assertEquals(3, statistics.getNumberMessages());
+    assertEquals(15, statistics.getNumberBytes());
+    assertEquals(1, statistics.getNumberErrors());
+    assertEquals(0, statistics.getNumberInFlight());
+    assertEquals(1, statistics.getMaxInFlight());
+    assertEquals(3, statistics.getLatency(TimeUnit.NANOSECONDS).getCount());
+
+    assertNull(component.getOutputStatistics().get("foo"));
+  }
+
+  /**
+   * No statistics are kept for messages the handler isn't allowed to see.
+   */
+  @Test
+  public void testHandlerNoRunStatistics() {
+    configuration.setValue("space.activity.routes.inputs", "foo");
+    configuration.setValue("space.activity.route.input.foo", "bar");
+
+    component.setComponentContext(activityComponentContext);
+    component.configureComponent(configuration);
+
+    Mockito.when(activityComponentContext.canHandlerRun()).thenReturn(false);
+
+    component.handleNewMessage("foo", "bar");
+
+    assertNull(component.getInputStatistics().get("foo"));
+  }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.bridge.message;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link MessageBridgeStatistics}.
+ *
+ * @author agent
+ */
+public class MessageBridgeStatisticsTest {
+
+  private MessageBridgeStatistics statistics;
+
+  @Before
+  public void setup() {
+    statistics = new MessageBridgeStatistics();
+  }
+
+  /**
+   * New statistics are all zero.
+   */
+  @Test
+  public void testEmpty() {
+    assertEquals(0, statistics.getNumberMessages());
+    assertEquals(0, statistics.getNumberErrors());
+    assertEquals(0.0, statistics.getMessagesPerSecond(), 0.0);
+    assertEquals(0.0, statistics.getAverageLatency(TimeUnit.MICROSECONDS), 0.0);
+    assertEquals(0, statistics.getMaxLatency(TimeUnit.MICROSECONDS));
+  }
+
+  /**
+   * Messages and errors are counted and their latencies summarized.
+   */
+  @Test
+  public void testRecord() {
+    statistics.recordMessage(TimeUnit.MICROSECONDS.toNanos(10));
+    statistics.recordMessage(TimeUnit.MICROSECONDS.toNanos(30));
+    statistics.recordError();
+
+    assertEquals(2, statistics.getNumberMessages());
+    assertEquals(1, statistics.getNumberErrors());
+    assertEquals(20.0, statistics.getAverageLatency(TimeUnit.MICROSECONDS), 0.001);
+    assertEquals(30, statistics.getMaxLatency(TimeUnit.MICROSECONDS));
+    assertTrue(statistics.getMessagesPerSecond() > 0.0);
+    assertTrue(statistics.toString().contains("messages=2, errors=1"));
+  }
+
+  /**
+   * A reset clears everything.
+   */
+  @Test
+  public void testReset() {
+    statistics.recordMessage(1000);
+    statistics.recordError();
+    statistics.reset();
+
+    assertEquals(0, statistics.getNumberMessages());
+    assertEquals(0, statistics.getNumberErrors());
+    assertEquals(0, statistics.getMaxLatency(TimeUnit.NANOSECONDS));
+    assertEquals(0.0, statistics.getMessagesPerSecond(), 0.0);
+  }
+
+  /**
+   * Messages recorded from many threads at once are all counted, and the
+   * statistics can be read while they are recorded.
+   */
+  @Test
+  public void testConcurrent() throws Exception {
+    final int numberThreads = 4;
+    final int numberMessages = 10000;
+    final CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[numberThreads];
+    for (int i = 0; i < numberThreads; i++) {
+      final long latency = i + 1;
+      threads[i] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (int j = 0; j < numberMessages; j++) {
+            statistics.recordMessage(latency);
+          }
+        }
+      });
+      threads[i].start();
+    }
+
+    start.countDown();
+    while (statistics.getNumberMessages() < numberThreads * numberMessages) {
+      statistics.toString();
+      Thread.yield();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(numberThreads * numberMessages, statistics.getNumberMessages());
+    assertEquals(numberThreads, statistics.getMaxLatency(TimeUnit.NANOSECONDS));
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.bridge.message.ros;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import interactivespaces.InteractiveSpacesException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link OgnlRosMessageBridgeSpecificationCompiler}.
+ *
+ * @author agent
+ */
+public class OgnlRosMessageBridgeSpecificationCompilerTest {
+
+  private OgnlRosMessageBridgeSpecificationCompiler compiler;
+
+  @Before
+  public void setup() {
+    compiler = new OgnlRosMessageBridgeSpecificationCompiler();
+  }
+
+  /**
+   * A compiled specification can be run many times and gives the right
+   * answer each time.
+   */
+  @Test
+  public void testRepeatedExecution() {
+    RosMessageBridgeSpecification<Source, Destination> spec =
+        compiler.compile("/a : std_msgs/Int32; /b : std_msgs/Int32; dst.value = src.value * 2;");
+
+    assertEquals("/a", spec.getSourceTopicName());
+    assertEquals("std_msgs/Int32", spec.getDestinationTopicMessageType());
+
+    for (int i = 0; i < 10; i++) {
+      Source source = new Source();
+      source.setValue(i);
+      Destination destination = new Destination();
+
+      spec.execute(source, destination);
+
+      assertEquals(i * 2, destination.getValue());
+    }
+  }
+
+  /**
+   * An expression which doesn't parse fails at compile time.
+   */
+  @Test
+  public void testIllegalExpression() {
+    try {
+      compiler.compile("/a : std_msgs/Int32; /b : std_msgs/Int32; dst.value = = src.value;");
+
+      fail();
+    } catch (InteractiveSpacesException e) {
+      // Expected
+    }
+  }
+
+  /**
+   * A source message for the tests.
+   */
+  public static class Source {
+    private int value;
+
+    public int getValue() {
+      return value;
+    }
+
+    public void setValue(int value) {
+      this.value = value;
+    }
+  }
+
+  /**
+   * A destination message for the tests.
+   */
+  public static class Destination {
+    private int value;
+
+    public int getValue() {
+      return value;
+    }
+
+    public void setValue(int value) {
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.configuration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import interactivespaces.evaluation.ExpressionEvaluator;
+import interactivespaces.evaluation.SimpleExpressionEvaluator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for memoized evaluation in the {@link SimpleConfiguration}.
+ *
+ * @author agent
+ */
+public class SimpleConfigurationTest {
+
+  private SimpleConfiguration parent;
+
+  private SimpleConfiguration child;
+
+  @Before
+  public void setup() {
+    parent = SimpleConfiguration.newConfiguration();
+
+    ExpressionEvaluator childEvaluator = new SimpleExpressionEvaluator();
+    child = new SimpleConfiguration(childEvaluator, parent);
+    childEvaluator.setEvaluationEnvironment(child);
+  }
+
+  /**
+   * Changing a referenced property changes the value of properties using it.
+   */
+  @Test
+  public void testReferencedPropertyChanged() {
+    parent.setValue("a", "1");
+    parent.setValue("b", "${a}-b");
+    parent.setValue("c", "${b}-c");
+
+    assertEquals("1-b-c", parent.getPropertyString("c"));
+
+    parent.setValue("a", "2");
+    assertEquals("2-b-c", parent.getPropertyString("c"));
+    assertEquals("2-b", parent.getPropertyString("b"));
+  }
+
+  /**
+   * Changing a parent property changes the value seen by the child.
+   */
+  @Test
+  public void testParentPropertyChanged() {
+    parent.setValue("host", "alpha");
+    child.setValue("url", "http://${host}/");
+
+    assertEquals("http://alpha/", child.getPropertyString("url"));
+
+    parent.setValue("host", "beta");
+    assertEquals("http://beta/", child.getPropertyString("url"));
+  }
+
+  /**
+   * A child override of an inherited property is seen by values evaluated in
+   * the child.
+   */
+  @Test
+  public void testChildOverride() {
+    parent.setValue("host", "alpha");
+    parent.setValue("url", "http://${host}/");
+
+    assertEquals("http://alpha/", child.getPropertyString("url"));
+
+    child.setValue("host", "gamma");
+    assertEquals("http://gamma/", child.getPropertyString("url"));
+    assertEquals("http://alpha/", parent.getPropertyString("url"));
+  }
+
+  /**
+   * Clearing and replacing the parent drop memoized values.
+   */
+  @Test
+  public void testClearAndReparent() {
+    parent.setValue("a", "1");
+    child.setValue("b", "${a}");
+    assertEquals("1", child.getPropertyString("b"));
+
+    SimpleConfiguration otherParent = SimpleConfiguration.newConfiguration();
+    otherParent.setValue("a", "other");
+    child.setParent(otherParent);
+    assertEquals("other", child.getPropertyString("b"));
+
+    child.clear();
+    assertNull(child.getPropertyString("b"));
+  }
+}
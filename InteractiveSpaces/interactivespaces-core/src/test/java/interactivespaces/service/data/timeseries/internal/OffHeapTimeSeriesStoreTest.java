@@ -0,0 +1,350 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.data.timeseries.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import interactivespaces.service.data.timeseries.TimeSeriesVisitor;
+import interactivespaces.util.io.Files;
+
+import com.google.common.collect.Lists;
+
+import org.apache.commons.logging.Log;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for the {@link OffHeapTimeSeriesStore}.
+ *
+ * @author agent
+ */
+public class OffHeapTimeSeriesStoreTest {
+
+  private static final List<String> COLUMNS = Lists.newArrayList("altitude", "speed");
+
+  private static final int SEGMENT_SIZE = 1024;
+
+  private Log log;
+
+  private File spillDirectory;
+
+  private OffHeapTimeSeriesStore store;
+
+  @Before
+  public void setup() throws Exception {
+    log = Mockito.mock(Log.class);
+
+    spillDirectory = File.createTempFile("timeseries", "test");
+    spillDirectory.delete();
+  }
+
+  @After
+  public void cleanup() {
+    if (store != null) {
+      store.shutdown();
+    }
+    if (spillDirectory.exists()) {
+      Files.deleteDirectoryContents(spillDirectory);
+      spillDirectory.delete();
+    }
+  }
+
+  /**
+   * Values and timestamps come back exactly as written, whatever their
+   * pattern.
+   */
+  @Test
+  public void testRoundTrip() {
+    store = newStore(0, null, 64 * 1024, 4);
+
+    Random random = new Random(1234);
+    int numberPoints = 5000;
+    long[] timestamps = new long[numberPoints];
+    double[][] values = new double[numberPoints][];
+    long timestamp = 1000;
+    for (int i = 0; i < numberPoints; i++) {
+      // Mostly regular with jitter, repeats and the odd large gap.
+      timestamp += i % 100 == 99 ? 1000000 : 100 + random.nextInt(5) - 2;
+      if (i % 37 == 0) {
+        timestamp -= 100;
+      }
+      timestamps[i] = Math.max(timestamp, i > 0 ? timestamps[i - 1] : timestamp);
+      timestamp = timestamps[i];
+
+      double altitude = i % 500 == 0 ? Double.NaN : 100.0 + Math.sin(i / 50.0) * 20;
+      double speed = i % 3 == 0 ? -random.nextDouble() * 1e9 : 12.5;
+      values[i] = new double[] { altitude, speed };
+
+      assertTrue(store.append("drone1", timestamps[i], values[i]));
+    }
+
+    CollectingVisitor visitor = new CollectingVisitor();
+    assertEquals(numberPoints, store.query("drone1", Long.MIN_VALUE, Long.MAX_VALUE, visitor));
+    for (int i = 0; i < numberPoints; i++) {
+      assertEquals(timestamps[i], (long) visitor.timestamps.get(i));
+      for (int column = 0; column < 2; column++) {
+        assertEquals(Double.doubleToRawLongBits(values[i][column]),
+            Double.doubleToRawLongBits(visitor.values.get(i)[column]));
+      }
+    }
+  }
+
+  /**
+   * Only points within the range are visited.
+   */
+  @Test
+  public void testRangeQuery() {
+    store = newStore(0, null, SEGMENT_SIZE, 16);
+    appendRegular("drone1", 0, 1000, 10);
+    appendRegular("drone2", 0, 10, 10);
+
+    CollectingVisitor visitor = new CollectingVisitor();
+    assertEquals(11, store.query("drone1", 2000, 2100, visitor));
+    assertEquals(2000L, (long) visitor.timestamps.get(0));
+    assertEquals(2100L, (long) visitor.timestamps.get(10));
+    assertEquals(200.0, visitor.values.get(0)[0], 0.0);
+
+    assertEquals(0, store.query("drone1", 20000, 30000, new CollectingVisitor()));
+    assertEquals(0, store.query("unknown", 0, 30000, new CollectingVisitor()));
+
+    assertEquals(2, store.getEntityIds().size());
+    assertArrayEquals(new long[] { 0, 9990 }, store.getTimeRange("drone1"));
+    assertNull(store.getTimeRange("unknown"));
+  }
+
+  /**
+   * Downsampled queries give the interval averages.
+   */
+  @Test
+  public void testDownsampledQuery() {
+    store = newStore(0, null, SEGMENT_SIZE, 16);
+    appendRegular("drone1", 0, 1000, 10);
+
+    CollectingVisitor visitor = new CollectingVisitor();
+    assertEquals(10, store.queryDownsampled("drone1", 0, 9999, 1000, visitor));
+    assertEquals(0L, (long) visitor.timestamps.get(0));
+    assertEquals(1000L, (long) visitor.timestamps.get(1));
+
+    // Points 0..99 have altitudes 0..99.
+    assertEquals(49.5, visitor.values.get(0)[0], 1e-9);
+    assertEquals(149.5, visitor.values.get(1)[0], 1e-9);
+  }
+
+  /**
+   * A point before the last point of its entity is dropped.
+   */
+  @Test
+  public void testOutOfOrderDropped() {
+    store = newStore(0, null, SEGMENT_SIZE, 16);
+
+    assertTrue(store.append("drone1", 1000, new double[] { 1, 2 }));
+    assertFalse(store.append("drone1", 999, new double[] { 1, 2 }));
+    assertTrue(store.append("drone1", 1000, new double[] { 3, 4 }));
+    assertTrue(store.append("drone2", 10, new double[] { 1, 2 }));
+
+    assertEquals(2, store.query("drone1", 0, 2000, new CollectingVisitor()));
+  }
+
+  /**
+   * Without a spill the oldest segments are dropped when memory is full.
+   */
+  @Test
+  public void testRingEviction() {
+    store = newStore(0, null, SEGMENT_SIZE, 2);
+    int numberPoints = 10000;
+    appendRegular("drone1", 0, numberPoints, 10);
+
+    long[] range = store.getTimeRange("drone1");
+    assertTrue(range[0] > 0);
+    assertEquals((numberPoints - 1) * 10L, range[1]);
+
+    CollectingVisitor visitor = new CollectingVisitor();
+    int numberVisited = store.query("drone1", 0, Long.MAX_VALUE, visitor);
+    assertTrue(numberVisited > 0 && numberVisited < numberPoints);
+    assertEquals(range[0], (long) visitor.timestamps.get(0));
+    assertTrue(store.getStorageSize() <= 2 * SEGMENT_SIZE);
+  }
+
+  /**
+   * With a spill nothing is lost when memory is full, and the spill files go
+   * away when the store shuts down.
+   */
+  @Test
+  public void testSpill() {
+    store = newStore(0, spillDirectory, SEGMENT_SIZE, 2);
+    int numberPoints = 20000;
+    appendRegular("drone1", 0, numberPoints, 10);
+    appendRegular("drone2", 5, numberPoints, 10);
+
+    assertTrue(spillDirectory.listFiles().length > 0);
+
+    CollectingVisitor visitor = new CollectingVisitor();
+    assertEquals(numberPoints, store.query("drone2", 0, Long.MAX_VALUE, visitor));
+    for (int i = 0; i < numberPoints; i++) {
+      assertEquals(5 + i * 10L, (long) visitor.timestamps.get(i));
+      assertEquals(i, visitor.values.get(i)[0], 0.0);
+    }
+
+    store.shutdown();
+    store = null;
+    assertEquals(0, spillDirectory.listFiles().length);
+  }
+
+  /**
+   * Data older than the retention period is dropped a segment at a time, along
+   * with spill files holding only expired segments.
+   */
+  @Test
+  public void testRetention() {
+    long retention = 10000;
+    store = newStore(retention, spillDirectory, SEGMENT_SIZE, 2);
+    int numberPoints = 100000;
+    appendRegular("drone1", 0, numberPoints, 10);
+
+    long last = (numberPoints - 1) * 10L;
+    long[] range = store.getTimeRange("drone1");
+    assertEquals(last, range[1]);
+    assertTrue(range[0] > 0);
+    assertTrue(last - range[0] < 2 * retention);
+
+    CollectingVisitor visitor = new CollectingVisitor();
+    store.query("drone1", last - retention, last, visitor);
+    assertEquals(last - retention, (long) visitor.timestamps.get(0));
+
+    // Well under what 100000 points would need.
+    assertTrue(spillDirectory.listFiles().length <= 2);
+  }
+
+  /**
+   * An entity which stops getting points still has its expired data dropped
+   * as other entities move time on.
+   */
+  @Test
+  public void testIdleEntityExpired() {
+    long retention = 10000;
+    store = newStore(retention, spillDirectory, SEGMENT_SIZE, 2);
+    appendRegular("idle", 0, 20000, 10);
+    appendRegular("busy", 0, 100000, 10);
+
+    long idleLast = (20000 - 1) * 10L;
+    long[] range = store.getTimeRange("idle");
+    assertEquals(idleLast, range[1]);
+    assertTrue(range[0] > idleLast - retention);
+
+    assertTrue(spillDirectory.listFiles().length <= 2);
+  }
+
+  /**
+   * Queries running while points are appended and segments are reused only
+   * see whole, correct points.
+   */
+  @Test
+  public void testQueryDuringAppend() throws Exception {
+    store = newStore(0, null, SEGMENT_SIZE, 2);
+    final int numberPoints = 200000;
+    Thread appender = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        appendRegular("drone1", 0, numberPoints, 10);
+      }
+    });
+    appender.start();
+
+    while (appender.isAlive()) {
+      CollectingVisitor visitor = new CollectingVisitor();
+      store.query("drone1", 0, Long.MAX_VALUE, visitor);
+      long previous = -1;
+      for (int i = 0; i < visitor.timestamps.size(); i++) {
+        long timestamp = visitor.timestamps.get(i);
+        assertTrue(timestamp > previous);
+        assertEquals(timestamp / 10, visitor.values.get(i)[0], 0.0);
+        assertEquals(5.0, visitor.values.get(i)[1], 0.0);
+        previous = timestamp;
+      }
+    }
+    appender.join();
+  }
+
+  /**
+   * Create and start a new store.
+   *
+   * @param retention
+   *          how long data is kept
+   * @param spillDirectory
+   *          directory for spill files, can be {@code null}
+   * @param segmentSize
+   *          size of a segment
+   * @param numberMemorySegments
+   *          segments kept in memory per entity
+   *
+   * @return the running store
+   */
+  private OffHeapTimeSeriesStore newStore(long retention, File spillDirectory, int segmentSize,
+      int numberMemorySegments) {
+    OffHeapTimeSeriesStore newStore =
+        new OffHeapTimeSeriesStore("test", COLUMNS, retention, spillDirectory, segmentSize, numberMemorySegments, log);
+    newStore.startup();
+
+    return newStore;
+  }
+
+  /**
+   * Append regularly spaced points where the first column is the point number
+   * and the second is constant.
+   *
+   * @param entityId
+   *          ID of the entity
+   * @param start
+   *          timestamp of the first point
+   * @param numberPoints
+   *          number of points
+   * @param period
+   *          time between points
+   */
+  private void appendRegular(String entityId, long start, int numberPoints, long period) {
+    double[] values = new double[2];
+    for (int i = 0; i < numberPoints; i++) {
+      values[0] = i;
+      values[1] = 5.0;
+      assertTrue(store.append(entityId, start + i * period, values));
+    }
+  }
+
+  /**
+   * A visitor which keeps copies of everything it is given.
+   */
+  private static class CollectingVisitor implements TimeSeriesVisitor {
+    private final List<Long> timestamps = Lists.newArrayList();
+    private final List<double[]> values = Lists.newArrayList();
+
+    @Override
+    public void onPoint(long timestamp, double[] pointValues) {
+      timestamps.add(timestamp);
+      values.add(pointValues.clone());
+    }
+  }
+}
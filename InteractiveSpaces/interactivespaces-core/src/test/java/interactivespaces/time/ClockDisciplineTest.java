@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.time;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link ClockDiscipline}.
+ *
+ * @author agent
+ */
+public class ClockDisciplineTest {
+
+  private static final long MSEC = MonotonicWallClock.NANOSECONDS_PER_MILLISECOND;
+
+  private static final long SEC = 1000 * MSEC;
+
+  private ClockDiscipline discipline;
+
+  @Before
+  public void setup() {
+    discipline = new ClockDiscipline();
+  }
+
+  /**
+   * The first measurement is used immediately.
+   */
+  @Test
+  public void testFirstMeasurementSteps() {
+    assertFalse(discipline.isSynchronized());
+    assertEquals(0, discipline.getOffset(10 * SEC));
+
+    discipline.update(10 * SEC, 5 * MSEC);
+
+    assertTrue(discipline.isSynchronized());
+    assertEquals(5 * MSEC, discipline.getOffset(10 * SEC));
+  }
+
+  /**
+   * A small error is slewed in at the maximum slew rate without a jump.
+   */
+  @Test
+  public void testSmallErrorSlewed() {
+    discipline.update(0, 0);
+    long error = discipline.update(SEC, MSEC);
+
+    assertEquals(MSEC, error);
+    assertEquals(0, discipline.getOffset(SEC));
+
+    long slewDuration = (long) (MSEC / ClockDiscipline.SLEW_RATE_MAX_DEFAULT);
+    assertEquals(MSEC / 2, discipline.getOffset(SEC + slewDuration / 2), 1000);
+    assertEquals(MSEC, discipline.getOffset(SEC + slewDuration));
+    assertEquals(MSEC, discipline.getOffset(SEC + 2 * slewDuration));
+
+    long lastCorrected = Long.MIN_VALUE;
+    for (long t = 0; t < SEC + 2 * slewDuration; t += 10 * MSEC) {
+      long corrected = t + discipline.getOffset(t);
+      assertTrue(corrected > lastCorrected);
+      lastCorrected = corrected;
+    }
+  }
+
+  /**
+   * A large error is stepped.
+   */
+  @Test
+  public void testLargeErrorStepped() {
+    discipline.update(0, 0);
+    discipline.update(SEC, 2 * ClockDiscipline.STEP_THRESHOLD_DEFAULT);
+
+    assertEquals(2 * ClockDiscipline.STEP_THRESHOLD_DEFAULT, discipline.getOffset(SEC));
+  }
+
+  /**
+   * A steady skew between the clocks is learned and followed.
+   */
+  @Test
+  public void testSkewTracked() {
+    double skew = 100e-6;
+    for (long t = 0; t <= 20 * SEC; t += SEC) {
+      discipline.update(t, (long) (skew * t));
+    }
+
+    assertEquals(skew, discipline.getSkew(), 1e-6);
+
+    // Well after any slewing has finished the offset follows the skew.
+    long t = 60 * SEC;
+    assertEquals((long) (skew * t), discipline.getOffset(t), 50000);
+  }
+
+  /**
+   * A reset forgets the measurements.
+   */
+  @Test
+  public void testReset() {
+    discipline.update(0, 5 * MSEC);
+    discipline.reset();
+
+    assertFalse(discipline.isSynchronized());
+    assertEquals(0, discipline.getOffset(SEC));
+  }
+}
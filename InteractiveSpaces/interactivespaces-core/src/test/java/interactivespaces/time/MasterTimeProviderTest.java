@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.time;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.commons.logging.Log;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.ros.concurrent.DefaultScheduledExecutorService;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link MasterTimeProvider} against a {@link TimeSyncServer}.
+ *
+ * <p>
+ * Synchronizing with a server in another process is measured by the
+ * {@link TimeSyncHarness}, which is run by hand since its accuracy depends on
+ * the machine.
+ *
+ * @author agent
+ */
+public class MasterTimeProviderTest {
+
+  /**
+   * The largest offset error allowed, in nanoseconds.
+   */
+  private static final long OFFSET_ERROR_MAX = MonotonicWallClock.NANOSECONDS_PER_MILLISECOND;
+
+  private ScheduledExecutorService executorService;
+
+  private Log log;
+
+  private MonotonicWallClock localClock;
+
+  private TimeSyncServer server;
+
+  private MasterTimeProvider provider;
+
+  @Before
+  public void setup() {
+    executorService = new DefaultScheduledExecutorService();
+    log = Mockito.mock(Log.class);
+    localClock = new MonotonicWallClock();
+  }
+
+  @After
+  public void cleanup() {
+    if (provider != null) {
+      provider.shutdown();
+    }
+    if (server != null) {
+      server.shutdown();
+    }
+    executorService.shutdown();
+  }
+
+  /**
+   * Synchronize with a server in the same process whose clock is well ahead of
+   * the local clock.
+   */
+  @Test
+  public void testSyncInProcess() throws Exception {
+    MonotonicWallClock serverClock = new MonotonicWallClock(System.currentTimeMillis() + 5000);
+    server = new TimeSyncServer(0, serverClock, log);
+    server.startup();
+
+    provider = newProvider(server.getPort());
+    assertFalse(provider.isSynchronized());
+
+    provider.updateTime();
+
+    assertTrue(provider.isSynchronized());
+    assertTrue(provider.getRoundTripDelayNanos() >= 0);
+    long trueOffset = serverClock.getEpochNanos() - localClock.getEpochNanos();
+    assertEquals(trueOffset, provider.getOffsetNanos(), OFFSET_ERROR_MAX);
+    assertEquals(serverClock.getCurrentTimeNanos(), provider.getCurrentTimeNanos(), 2 * OFFSET_ERROR_MAX);
+  }
+
+  /**
+   * An update fails when nothing answers, and local time is still given.
+   */
+  @Test
+  public void testNoServer() throws Exception {
+    server = new TimeSyncServer(0, new MonotonicWallClock(), log);
+    server.startup();
+    int port = server.getPort();
+    server.shutdown();
+    server = null;
+
+    provider = newProvider(port);
+    try {
+      provider.updateTime();
+      fail("Update should have failed");
+    } catch (IOException e) {
+      // Expected.
+    }
+
+    assertFalse(provider.isSynchronized());
+    assertEquals(localClock.getCurrentTimeNanos(), provider.getCurrentTimeNanos(), OFFSET_ERROR_MAX);
+  }
+
+  /**
+   * Create a provider talking to a server on the loopback interface.
+   *
+   * @param port
+   *          the port of the server
+   *
+   * @return the provider
+   *
+   * @throws UnknownHostException
+   *           the loopback address could not be made
+   */
+  private MasterTimeProvider newProvider(int port) throws UnknownHostException {
+    return new MasterTimeProvider(InetAddress.getByName("127.0.0.1"), port, 1, TimeUnit.SECONDS, executorService, log,
+        localClock);
+  }
+}
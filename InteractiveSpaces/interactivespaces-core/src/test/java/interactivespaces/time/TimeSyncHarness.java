@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.time;
+
+import org.apache.commons.logging.impl.NoOpLog;
+import org.ros.concurrent.DefaultScheduledExecutorService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A harness for measuring how well a {@link MasterTimeProvider} synchronizes
+ * with a {@link TimeSyncServer} running in another process on the same
+ * machine.
+ *
+ * <p>
+ * The server process is given a clock deliberately offset from the local
+ * clock. Since both processes share the same {@link System#nanoTime()} origin
+ * on the usual platforms, the true offset between the two clocks is known
+ * exactly and the error of the synchronized time can be measured.
+ *
+ * <p>
+ * Run with no arguments to make a measurement. Run with {@code server} and
+ * an offset in milliseconds to be the server process, which prints its port
+ * and clock epoch and runs until its input is closed.
+ *
+ * @author agent
+ */
+public class TimeSyncHarness {
+
+  /**
+   * Argument which makes the harness be the server process.
+   */
+  public static final String MODE_SERVER = "server";
+
+  /**
+   * The offset given to the server clock when making a measurement, in
+   * milliseconds.
+   */
+  public static final long SERVER_OFFSET_DEFAULT = 2500;
+
+  /**
+   * The number of updates made when measuring.
+   */
+  public static final int NUMBER_UPDATES = 20;
+
+  /**
+   * The server process.
+   */
+  private Process serverProcess;
+
+  /**
+   * The port the server is listening on.
+   */
+  private int serverPort;
+
+  /**
+   * The epoch of the server clock, in nanoseconds.
+   */
+  private long serverEpochNanos;
+
+  /**
+   * Start the server in another process.
+   *
+   * @param serverOffset
+   *          how far ahead of the local clock the server clock runs, in
+   *          milliseconds
+   *
+   * @throws IOException
+   *           the server process could not be started
+   */
+  public void startServer(long serverOffset) throws IOException {
+    String java = System.getProperty("java.home") + "/bin/java";
+    ProcessBuilder builder =
+        new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), TimeSyncHarness.class.getName(),
+            MODE_SERVER, Long.toString(serverOffset));
+    builder.redirectErrorStream(true);
+    serverProcess = builder.start();
+
+    BufferedReader reader = new BufferedReader(new InputStreamReader(serverProcess.getInputStream()));
+    String line = reader.readLine();
+    if (line == null) {
+      stopServer();
+      throw new IOException("Time sync server process exited before starting");
+    }
+    String[] parts = line.trim().split(" ");
+    serverPort = Integer.parseInt(parts[0]);
+    serverEpochNanos = Long.parseLong(parts[1]);
+  }
+
+  /**
+   * Stop the server process.
+   */
+  public void stopServer() {
+    if (serverProcess != null) {
+      serverProcess.destroy();
+      serverProcess = null;
+    }
+  }
+
+  /**
+   * Get the port the server process is listening on.
+   *
+   * @return the port
+   */
+  public int getServerPort() {
+    return serverPort;
+  }
+
+  /**
+   * Get the true offset of the server clock from a local clock.
+   *
+   * @param localClock
+   *          the local clock
+   *
+   * @return the offset in nanoseconds
+   */
+  public long getTrueOffsetNanos(MonotonicWallClock localClock) {
+    return serverEpochNanos - localClock.getEpochNanos();
+  }
+
+  /**
+   * Run the server side of the harness.
+   *
+   * @param serverOffset
+   *          how far ahead of the local clock the server clock runs, in
+   *          milliseconds
+   *
+   * @throws Exception
+   *           something went wrong
+   */
+  private static void runServer(long serverOffset) throws Exception {
+    MonotonicWallClock clock = new MonotonicWallClock(System.currentTimeMillis() + serverOffset);
+    TimeSyncServer server = new TimeSyncServer(0, clock, new NoOpLog());
+    server.startup();
+
+    System.out.println(server.getPort() + " " + clock.getEpochNanos());
+    System.out.flush();
+
+    // Run until the parent closes our input or kills us.
+    while (System.in.read() >= 0) {
+      // Nothing to do.
+    }
+
+    server.shutdown();
+  }
+
+  /**
+   * Measure how well a provider synchronizes with the server process.
+   *
+   * @throws Exception
+   *           something went wrong
+   */
+  private static void runMeasurement() throws Exception {
+    TimeSyncHarness harness = new TimeSyncHarness();
+    harness.startServer(SERVER_OFFSET_DEFAULT);
+    ScheduledExecutorService executorService = new DefaultScheduledExecutorService();
+    try {
+      MonotonicWallClock localClock = new MonotonicWallClock();
+      MasterTimeProvider provider =
+          new MasterTimeProvider(InetAddress.getByName("127.0.0.1"), harness.getServerPort(), 1, TimeUnit.SECONDS,
+              executorService, new NoOpLog(), localClock);
+      long trueOffset = harness.getTrueOffsetNanos(localClock);
+
+      long maxError = 0;
+      double sumError = 0;
+      for (int i = 0; i < NUMBER_UPDATES; i++) {
+        provider.updateTime();
+        long error = provider.getOffsetNanos() - trueOffset;
+        maxError = Math.max(maxError, Math.abs(error));
+        sumError += Math.abs(error);
+        System.out.println(String.format("update %2d: offset error %8d nsec, round trip %8d nsec", i, error,
+            provider.getRoundTripDelayNanos()));
+        Thread.sleep(100);
+      }
+      provider.shutdown();
+
+      System.out.println(String.format("mean offset error %.0f nsec, max offset error %d nsec", sumError
+          / NUMBER_UPDATES, maxError));
+    } finally {
+      executorService.shutdown();
+      harness.stopServer();
+    }
+  }
+
+  /**
+   * Run the harness.
+   *
+   * @param args
+   *          the command line arguments
+   *
+   * @throws Exception
+   *           something went wrong
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length > 0 && MODE_SERVER.equals(args[0])) {
+      runServer(Long.parseLong(args[1]));
+    } else {
+      runMeasurement();
+    }
+  }
+}
@@ -167,6 +167,28 @@ public class AcceptingPriorityEventQueueTest {
     assertTrue(event1.getOrder() < event2.getOrder());
   }
 
+  /**
+   * Make sure events with the same priority are handled in the order added.
+   */
+  @Test
+  public void testSamePriorityInOrder() throws Exception {
+    queue.setAccepting(true);
+
+    InOrderEvent[] events = new InOrderEvent[20];
+    for (int i = 0; i < events.length; i++) {
+      events[i] = new InOrderEvent();
+      queue.addEvent(events[i], 5);
+    }
+
+    queue.startup();
+
+    // Assume it gets answered in under a second.
+    assertTrue(events[events.length - 1].await(1, TimeUnit.SECONDS));
+    for (int i = 1; i < events.length; i++) {
+      assertTrue(events[i - 1].getOrder() < events[i].getOrder());
+    }
+  }
+
   public static class InOrderEvent implements Runnable {
     public static final AtomicInteger sequence = new AtomicInteger();
 
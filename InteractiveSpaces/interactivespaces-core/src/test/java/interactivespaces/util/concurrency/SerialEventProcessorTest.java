@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.concurrency;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.Lists;
+
+import org.apache.commons.logging.Log;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * A set of tests for the {@link SerialEventProcessor}.
+ *
+ * <p>
+ * Drain tasks are run by hand so the tests control exactly when they run.
+ *
+ * @author agent
+ */
+public class SerialEventProcessorTest {
+
+  private ManualExecutor executor;
+
+  private HookedQueue events;
+
+  private SerialEventProcessor<QueuedEvent> processor;
+
+  private List<Integer> processed;
+
+  @Before
+  public void setup() {
+    executor = new ManualExecutor();
+    events = new HookedQueue();
+    processor = new SerialEventProcessor<QueuedEvent>(events, executor, Mockito.mock(Log.class));
+    processed = Lists.newArrayList();
+  }
+
+  /**
+   * Events run in the order they were added, from a single drain task.
+   */
+  @Test
+  public void testFifoOrder() {
+    processor.startup();
+    for (int i = 0; i < 10; i++) {
+      processor.addEvent(newEvent(i));
+    }
+
+    assertEquals(1, executor.getNumberPending());
+    executor.runNext();
+
+    assertEquals(range(0, 10), processed);
+    assertEquals(0, executor.getNumberPending());
+    assertEquals(10, processor.getNumberEventsProcessed());
+  }
+
+  /**
+   * Events added before startup are processed once the processor starts.
+   */
+  @Test
+  public void testEventsBeforeStartup() {
+    processor.addEvent(newEvent(0));
+    assertEquals(0, executor.getNumberPending());
+
+    processor.startup();
+    executor.runNext();
+
+    assertEquals(range(0, 1), processed);
+  }
+
+  /**
+   * A drain task stops at the batch limit and submits another task for the
+   * rest.
+   */
+  @Test
+  public void testBatchLimit() {
+    processor.startup();
+    int numberEvents = SerialEventProcessor.MAX_EVENTS_PER_DRAIN + 36;
+    for (int i = 0; i < numberEvents; i++) {
+      processor.addEvent(newEvent(i));
+    }
+
+    assertEquals(1, executor.getNumberPending());
+    executor.runNext();
+
+    assertEquals(range(0, SerialEventProcessor.MAX_EVENTS_PER_DRAIN), processed);
+    assertEquals(36, processor.getQueueDepth());
+    assertEquals(1, executor.getNumberPending());
+
+    executor.runNext();
+
+    assertEquals(range(0, numberEvents), processed);
+    assertEquals(0, executor.getNumberPending());
+  }
+
+  /**
+   * An event arriving after the drain task's last poll, but before the task
+   * has finished, still gets a drain task.
+   */
+  @Test
+  public void testEventAddedAtEndOfDrain() {
+    processor.startup();
+    processor.addEvent(newEvent(0));
+
+    events.setEmptyPollHook(new Runnable() {
+      @Override
+      public void run() {
+        processor.addEvent(newEvent(1));
+      }
+    });
+    executor.runNext();
+
+    assertEquals(range(0, 1), processed);
+    assertEquals(1, executor.getNumberPending());
+
+    executor.runNext();
+
+    assertEquals(range(0, 2), processed);
+    assertEquals(0, executor.getNumberPending());
+  }
+
+  /**
+   * Events added by a running event are run by the same drain task.
+   */
+  @Test
+  public void testEventAddedDuringDrain() {
+    processor.startup();
+    processor.addEvent(new QueuedEvent(new Runnable() {
+      @Override
+      public void run() {
+        processed.add(0);
+        processor.addEvent(newEvent(1));
+      }
+    }));
+
+    executor.runNext();
+
+    assertEquals(range(0, 2), processed);
+    assertEquals(0, executor.getNumberPending());
+  }
+
+  /**
+   * After shutdown no events are run and they stay in the queue until the
+   * processor is started again.
+   */
+  @Test
+  public void testShutdown() {
+    processor.startup();
+    processor.addEvent(new QueuedEvent(new Runnable() {
+      @Override
+      public void run() {
+        processed.add(0);
+        processor.shutdown();
+      }
+    }));
+    processor.addEvent(newEvent(1));
+
+    executor.runNext();
+
+    assertEquals(range(0, 1), processed);
+    assertEquals(1, processor.getQueueDepth());
+    assertEquals(0, executor.getNumberPending());
+
+    processor.addEvent(newEvent(2));
+    assertEquals(0, executor.getNumberPending());
+
+    processor.startup();
+    executor.runNext();
+
+    assertEquals(range(0, 3), processed);
+  }
+
+  /**
+   * Create an event which records its ID when run.
+   *
+   * @param id
+   *          the ID of the event
+   *
+   * @return the event
+   */
+  private QueuedEvent newEvent(final int id) {
+    return new QueuedEvent(new Runnable() {
+      @Override
+      public void run() {
+        processed.add(id);
+      }
+    });
+  }
+
+  /**
+   * Get a list of consecutive integers.
+   *
+   * @param from
+   *          the first integer
+   * @param to
+   *          one past the last integer
+   *
+   * @return the list
+   */
+  private static List<Integer> range(int from, int to) {
+    List<Integer> result = Lists.newArrayList();
+    for (int i = from; i < to; i++) {
+      result.add(i);
+    }
+
+    return result;
+  }
+
+  /**
+   * An executor which holds tasks until the test runs them.
+   */
+  private static class ManualExecutor implements Executor {
+
+    /**
+     * Tasks waiting to be run.
+     */
+    private final List<Runnable> pending = Lists.newArrayList();
+
+    @Override
+    public void execute(Runnable command) {
+      pending.add(command);
+    }
+
+    /**
+     * Run the oldest waiting task.
+     */
+    public void runNext() {
+      pending.remove(0).run();
+    }
+
+    /**
+     * Get the number of tasks waiting to be run.
+     *
+     * @return the number of waiting tasks
+     */
+    public int getNumberPending() {
+      return pending.size();
+    }
+  }
+
+  /**
+   * An event queue which can run a hook the first time a poll finds it empty,
+   * standing in for another thread adding an event at that moment.
+   */
+  private static class HookedQueue extends ConcurrentLinkedQueue<QueuedEvent> {
+
+    /**
+     * The hook to run, {@code null} if none.
+     */
+    private Runnable emptyPollHook;
+
+    /**
+     * Set the hook to run the next time a poll finds the queue empty.
+     *
+     * @param emptyPollHook
+     *          the hook
+     */
+    public void setEmptyPollHook(Runnable emptyPollHook) {
+      this.emptyPollHook = emptyPollHook;
+    }
+
+    @Override
+    public QueuedEvent poll() {
+      QueuedEvent event = super.poll();
+      if (event == null && emptyPollHook != null) {
+        Runnable hook = emptyPollHook;
+        emptyPollHook = null;
+        hook.run();
+      }
+
+      return event;
+    }
+  }
+}
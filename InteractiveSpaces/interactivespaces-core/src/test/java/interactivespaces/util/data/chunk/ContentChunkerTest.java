@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.data.chunk;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Tests for the {@link ContentChunker} and {@link ChunkedContentManifest}.
+ *
+ * @author agent
+ */
+public class ContentChunkerTest {
+
+  private ContentChunker chunker;
+
+  @Before
+  public void setup() {
+    chunker = new ContentChunker(1024, 4096, 16384);
+  }
+
+  /**
+   * Chunks put back together give the original content.
+   */
+  @Test
+  public void testChunksCoverContent() throws Exception {
+    byte[] content = randomContent(100000, 1);
+
+    final ByteArrayOutputStream reassembled = new ByteArrayOutputStream();
+    List<ContentChunk> chunks = chunker.chunk(new ByteArrayInputStream(content), new ContentChunkHandler() {
+      @Override
+      public void onChunk(ContentChunk chunk, byte[] data) {
+        reassembled.write(data, 0, chunk.getLength());
+        assertEquals(ContentChunker.hashChunk(data, chunk.getLength()), chunk.getHash());
+      }
+    });
+
+    assertArrayEquals(content, reassembled.toByteArray());
+    long offset = 0;
+    for (ContentChunk chunk : chunks) {
+      assertEquals(offset, chunk.getOffset());
+      assertTrue(chunk.getLength() <= 16384);
+      offset += chunk.getLength();
+    }
+  }
+
+  /**
+   * Inserting bytes near the front of the content only changes the chunks around the insert.
+   */
+  @Test
+  public void testChunksStableAfterInsert() throws Exception {
+    byte[] content = randomContent(200000, 2);
+    byte[] modified = new byte[content.length + 10];
+    System.arraycopy(content, 0, modified, 0, 5000);
+    System.arraycopy(content, 5000, modified, 5010, content.length - 5000);
+
+    Set<String> originalHashes = getHashes(chunker.chunk(new ByteArrayInputStream(content), null));
+    List<ContentChunk> modifiedChunks = chunker.chunk(new ByteArrayInputStream(modified), null);
+
+    int numberNew = 0;
+    for (ContentChunk chunk : modifiedChunks) {
+      if (!originalHashes.contains(chunk.getHash())) {
+        numberNew++;
+      }
+    }
+
+    assertTrue(numberNew <= 2);
+    assertTrue(modifiedChunks.size() > 10);
+  }
+
+  /**
+   * Compressing and decompressing a chunk gives the original data.
+   */
+  @Test
+  public void testCompressRoundTrip() throws Exception {
+    byte[] content = randomContent(5000, 3);
+
+    byte[] compressed = ContentChunker.compressChunk(content, content.length);
+
+    assertArrayEquals(content, ContentChunker.decompressChunk(new ByteArrayInputStream(compressed)));
+  }
+
+  /**
+   * A written manifest reads back the same.
+   */
+  @Test
+  public void testManifestRoundTrip() throws Exception {
+    ChunkedContentManifest manifest = new ChunkedContentManifest();
+    manifest.setProperty("chunk.uri", "http://localhost/data/chunk-{hash}");
+    ChunkedContentManifest.ManifestSection section = manifest.getOrCreateSection("controller");
+    section.addDirectory("a dir");
+    section.addFile("a dir/file.txt", 30,
+        Arrays.asList(new ContentChunk("abc", 0, 10), new ContentChunk("def", 10, 20)));
+    manifest.getOrCreateSection("activity/1234");
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    manifest.write(out);
+    ChunkedContentManifest read = ChunkedContentManifest.read(new ByteArrayInputStream(out.toByteArray()));
+
+    assertEquals("http://localhost/data/chunk-{hash}", read.getProperty("chunk.uri"));
+    assertEquals(2, read.getSections().size());
+    ChunkedContentManifest.ManifestSection readSection = read.getSection("controller");
+    assertEquals(Lists.newArrayList("a dir"), readSection.getDirectories());
+    assertEquals(1, readSection.getFiles().size());
+    ChunkedContentManifest.ManifestFile file = readSection.getFiles().get(0);
+    assertEquals("a dir/file.txt", file.getPath());
+    assertEquals(30, file.getSize());
+    assertEquals(Lists.newArrayList("abc", "def"), file.getChunkHashes());
+    assertEquals(Sets.newHashSet("abc", "def"), read.getChunkHashes());
+  }
+
+  /**
+   * Get the hashes of a list of chunks.
+   *
+   * @param chunks
+   *          the chunks
+   *
+   * @return the hashes
+   */
+  private Set<String> getHashes(List<ContentChunk> chunks) {
+    Set<String> hashes = Sets.newHashSet();
+    for (ContentChunk chunk : chunks) {
+      hashes.add(chunk.getHash());
+    }
+
+    return hashes;
+  }
+
+  /**
+   * Create reproducible random content.
+   *
+   * @param size
+   *          number of bytes
+   * @param seed
+   *          seed for the random generator
+   *
+   * @return the content
+   */
+  private byte[] randomContent(int size, long seed) {
+    byte[] content = new byte[size];
+    new Random(seed).nextBytes(content);
+
+    return content;
+  }
+}
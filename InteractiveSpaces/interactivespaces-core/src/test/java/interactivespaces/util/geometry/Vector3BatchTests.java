@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.geometry;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tests for the {@link Vector3Batch} class.
+ *
+ * @author agent
+ */
+public class Vector3BatchTests {
+
+  /**
+   * A batch transform gives the same results as transforming each vector.
+   */
+  @Test
+  public void testTransformMatchesVectors() {
+    List<Vector3> vectors = newVectors(1000);
+    Vector3Batch batch = new Vector3Batch(vectors);
+
+    Transform3 transform = new Transform3();
+    transform.translate(1.0, -2.0, 3.5).rotateZ(0.7).scale(2.0, 0.5, 1.0);
+
+    transform.transformSelf(batch);
+    transform.transformSelf(vectors);
+
+    assertBatchEquals(vectors, batch);
+  }
+
+  /**
+   * A projective matrix gives the same results as multiplying each vector.
+   */
+  @Test
+  public void testProjectiveMatchesVectors() {
+    List<Vector3> vectors = newVectors(100);
+    Vector3Batch batch = new Vector3Batch(vectors);
+
+    Matrix4 m = new Matrix4().identity().setEntry(3, 2, 0.25);
+
+    batch.multiplySelf(m);
+    for (Vector3 v : vectors) {
+      v.multiplySelf(m);
+    }
+
+    assertBatchEquals(vectors, batch);
+  }
+
+  /**
+   * The component operations give the same results as the vector operations.
+   */
+  @Test
+  public void testComponentOperationsMatchVectors() {
+    List<Vector3> vectors = newVectors(100);
+    Vector3Batch batch = new Vector3Batch(vectors);
+
+    Vector3 offset = new Vector3(1.0, 2.0, 3.0);
+    batch.addSelf(offset).scaleSelf(3.0).subtractSelf(offset).normalizeSelf();
+    for (Vector3 v : vectors) {
+      v.addSelf(offset).scaleSelf(3.0).subtractSelf(offset).normalizeSelf();
+    }
+
+    assertBatchEquals(vectors, batch);
+
+    double[] lengths = batch.getLengths(new double[batch.getSize()]);
+    for (double length : lengths) {
+      Assert.assertEquals(1.0, length, 0.000001);
+    }
+  }
+
+  /**
+   * Splitting a batch across an executor service gives the same results as running it in one thread.
+   */
+  @Test
+  public void testParallelMatchesSerial() {
+    List<Vector3> vectors = newVectors(50000);
+    Vector3Batch serial = new Vector3Batch(vectors);
+    Vector3Batch parallel = new Vector3Batch(vectors);
+
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      parallel.setExecutorService(executorService).setParallelThreshold(1000);
+
+      Quaternion q = new Quaternion(new Vector3(1.0, 1.0, 0.0).normalize(), 0.3);
+      serial.rotateSelf(q).addSelf(serial);
+      parallel.rotateSelf(q).addSelf(parallel);
+
+      for (int i = 0; i < serial.getSize(); i++) {
+        Assert.assertEquals(serial.getV0(i), parallel.getV0(i), 0.0);
+        Assert.assertEquals(serial.getV1(i), parallel.getV1(i), 0.0);
+        Assert.assertEquals(serial.getV2(i), parallel.getV2(i), 0.0);
+      }
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  /**
+   * Create a list of random vectors.
+   *
+   * @param count
+   *          the number of vectors
+   *
+   * @return the vectors
+   */
+  private List<Vector3> newVectors(int count) {
+    Random random = new Random(count);
+    List<Vector3> vectors = new ArrayList<Vector3>();
+    for (int i = 0; i < count; i++) {
+      vectors.add(new Vector3(random.nextDouble() * 10.0, random.nextDouble() * 10.0, random.nextDouble() * 10.0));
+    }
+
+    return vectors;
+  }
+
+  /**
+   * Assert a batch holds the same vectors as a list.
+   *
+   * @param expected
+   *          the expected vectors
+   * @param batch
+   *          the batch
+   */
+  private void assertBatchEquals(List<Vector3> expected, Vector3Batch batch) {
+    Assert.assertEquals(expected.size(), batch.getSize());
+
+    Vector3 actual = new Vector3();
+    for (int i = 0; i < expected.size(); i++) {
+      Assert.assertTrue(expected.get(i).equal(batch.get(i, actual), 0.000001));
+    }
+  }
+}
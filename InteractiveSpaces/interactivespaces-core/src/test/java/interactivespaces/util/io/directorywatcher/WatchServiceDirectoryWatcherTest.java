@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.io.directorywatcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import interactivespaces.system.InteractiveSpacesEnvironment;
+import interactivespaces.util.io.Files;
+
+import com.google.common.collect.Sets;
+
+import org.apache.commons.logging.Log;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.ros.concurrent.DefaultScheduledExecutorService;
+
+import java.io.File;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link WatchServiceDirectoryWatcher}.
+ *
+ * @author agent
+ */
+public class WatchServiceDirectoryWatcherTest {
+
+  private ScheduledExecutorService executorService;
+
+  private InteractiveSpacesEnvironment spaceEnvironment;
+
+  private Log log;
+
+  private File baseDirectory;
+
+  private WatchServiceDirectoryWatcher watcher;
+
+  @Before
+  public void setup() throws Exception {
+    executorService = new DefaultScheduledExecutorService();
+
+    log = Mockito.mock(Log.class);
+    spaceEnvironment = Mockito.mock(InteractiveSpacesEnvironment.class);
+    Mockito.when(spaceEnvironment.getExecutorService()).thenReturn(executorService);
+    Mockito.when(spaceEnvironment.getLog()).thenReturn(log);
+
+    baseDirectory = File.createTempFile("watcher", "test");
+    baseDirectory.delete();
+    baseDirectory.mkdirs();
+
+    watcher = new WatchServiceDirectoryWatcher(false, log, 20);
+  }
+
+  @After
+  public void cleanup() {
+    watcher.shutdown();
+    executorService.shutdown();
+    Files.deleteDirectoryContents(baseDirectory);
+    baseDirectory.delete();
+  }
+
+  /**
+   * Files already in the directory are reported on a plain startup, new ones
+   * are reported without waiting for the polling period.
+   */
+  @Test
+  public void testFileAdded() throws Exception {
+    File existing = new File(baseDirectory, "existing");
+    existing.createNewFile();
+
+    final CountDownLatch existingLatch = new CountDownLatch(1);
+    final CountDownLatch addedLatch = new CountDownLatch(1);
+    final File added = new File(baseDirectory, "added");
+    watcher.addDirectory(baseDirectory);
+    watcher.addDirectoryWatcherListener(new BaseDirectoryWatcherListener() {
+      @Override
+      public void onFileAdded(File file) {
+        if (file.equals(added)) {
+          addedLatch.countDown();
+        } else {
+          existingLatch.countDown();
+        }
+      }
+    });
+
+    watcher.startup(spaceEnvironment, 1, TimeUnit.HOURS);
+    assertTrue(existingLatch.await(2, TimeUnit.SECONDS));
+
+    added.createNewFile();
+    assertTrue(addedLatch.await(5, TimeUnit.SECONDS));
+  }
+
+  /**
+   * Removed files are reported.
+   */
+  @Test
+  public void testFileRemoved() throws Exception {
+    File file = new File(baseDirectory, "removed");
+    file.createNewFile();
+
+    final CountDownLatch removedLatch = new CountDownLatch(1);
+    watcher.addDirectory(baseDirectory);
+    watcher.addDirectoryWatcherListener(new BaseDirectoryWatcherListener() {
+      @Override
+      public void onFileRemoved(File file) {
+        removedLatch.countDown();
+      }
+    });
+
+    Set<File> initial = watcher.startupWithScan(spaceEnvironment, 50, TimeUnit.MILLISECONDS);
+    assertEquals(Sets.newHashSet(file), initial);
+
+    file.delete();
+    assertTrue(removedLatch.await(5, TimeUnit.SECONDS));
+  }
+
+  /**
+   * Batch listeners get the added files together.
+   */
+  @Test
+  public void testBatchAdded() throws Exception {
+    final CountDownLatch batchLatch = new CountDownLatch(1);
+    final Set<File> filesSeen = Sets.newConcurrentHashSet();
+    watcher.addDirectory(baseDirectory);
+    watcher.addBatchDirectoryWatcherListener(new BatchDirectoryWatcherListener() {
+      @Override
+      public void onFilesAdded(Set<File> files) {
+        filesSeen.addAll(files);
+        if (filesSeen.size() == 3) {
+          batchLatch.countDown();
+        }
+      }
+    });
+    watcher.startupWithScan(spaceEnvironment, 50, TimeUnit.MILLISECONDS);
+
+    for (int i = 0; i < 3; i++) {
+      new File(baseDirectory, "batch" + i).createNewFile();
+    }
+
+    assertTrue(batchLatch.await(5, TimeUnit.SECONDS));
+  }
+
+  /**
+   * A directory which doesn't exist at startup is picked up once it appears.
+   */
+  @Test
+  public void testDirectoryCreatedLater() throws Exception {
+    File directory = new File(baseDirectory, "later");
+    final CountDownLatch addedLatch = new CountDownLatch(1);
+    watcher.addDirectory(directory);
+    watcher.addDirectoryWatcherListener(new BaseDirectoryWatcherListener() {
+      @Override
+      public void onFileAdded(File file) {
+        addedLatch.countDown();
+      }
+    });
+    watcher.startupWithScan(spaceEnvironment, 50, TimeUnit.MILLISECONDS);
+
+    directory.mkdirs();
+    new File(directory, "file").createNewFile();
+
+    assertTrue(addedLatch.await(5, TimeUnit.SECONDS));
+  }
+
+  /**
+   * Running watchers don't keep any executor threads busy, so other work still
+   * runs on a single thread executor.
+   */
+  @Test
+  public void testNoExecutorThreadHeld() throws Exception {
+    ScheduledExecutorService singleThreadExecutor = Executors.newScheduledThreadPool(1);
+    InteractiveSpacesEnvironment singleThreadEnvironment = Mockito.mock(InteractiveSpacesEnvironment.class);
+    Mockito.when(singleThreadEnvironment.getExecutorService()).thenReturn(singleThreadExecutor);
+    Mockito.when(singleThreadEnvironment.getLog()).thenReturn(log);
+
+    WatchServiceDirectoryWatcher otherWatcher = new WatchServiceDirectoryWatcher(false, log, 20);
+    try {
+      final CountDownLatch addedLatch = new CountDownLatch(1);
+      watcher.addDirectory(baseDirectory);
+      watcher.addDirectoryWatcherListener(new BaseDirectoryWatcherListener() {
+        @Override
+        public void onFileAdded(File file) {
+          addedLatch.countDown();
+        }
+      });
+      otherWatcher.addDirectory(baseDirectory);
+
+      watcher.startupWithScan(singleThreadEnvironment, 1, TimeUnit.HOURS);
+      otherWatcher.startupWithScan(singleThreadEnvironment, 1, TimeUnit.HOURS);
+
+      final CountDownLatch taskLatch = new CountDownLatch(1);
+      singleThreadExecutor.execute(new Runnable() {
+        @Override
+        public void run() {
+          taskLatch.countDown();
+        }
+      });
+      assertTrue(taskLatch.await(2, TimeUnit.SECONDS));
+
+      new File(baseDirectory, "file").createNewFile();
+      assertTrue(addedLatch.await(5, TimeUnit.SECONDS));
+    } finally {
+      otherWatcher.shutdown();
+      watcher.shutdown();
+      singleThreadExecutor.shutdown();
+    }
+  }
+
+  /**
+   * Listeners are called without the watcher locked, so a slow listener
+   * doesn't block other calls on the watcher.
+   */
+  @Test
+  public void testListenerNotLocked() throws Exception {
+    final CountDownLatch listenerEntered = new CountDownLatch(1);
+    final CountDownLatch listenerRelease = new CountDownLatch(1);
+    watcher.addDirectory(baseDirectory);
+    watcher.addDirectoryWatcherListener(new BaseDirectoryWatcherListener() {
+      @Override
+      public void onFileAdded(File file) {
+        listenerEntered.countDown();
+        try {
+          listenerRelease.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+    watcher.startupWithScan(spaceEnvironment, 1, TimeUnit.HOURS);
+
+    new File(baseDirectory, "file").createNewFile();
+    try {
+      assertTrue(listenerEntered.await(5, TimeUnit.SECONDS));
+
+      final CountDownLatch addDone = new CountDownLatch(1);
+      Thread adder = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          watcher.addDirectory(new File(baseDirectory, "other"));
+          addDone.countDown();
+        }
+      });
+      adder.start();
+      assertTrue(addDone.await(2, TimeUnit.SECONDS));
+    } finally {
+      listenerRelease.countDown();
+    }
+  }
+}
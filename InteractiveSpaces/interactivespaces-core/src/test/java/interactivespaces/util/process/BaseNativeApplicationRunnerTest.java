@@ -16,12 +16,19 @@
 
 package interactivespaces.util.process;
 
+import interactivespaces.system.InteractiveSpacesEnvironment;
+import interactivespaces.util.process.NativeApplicationRunner.NativeApplicationRunnerState;
+
 import com.google.common.collect.Maps;
 
+import org.apache.commons.logging.Log;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
 
+import java.io.File;
 import java.util.Map;
 
 /**
@@ -56,6 +63,30 @@ public class BaseNativeApplicationRunnerTest {
     Assert.assertArrayEquals(new String[] { "foo/bar", "--a", "-b", "-c"}, runner.getCommandLine());
   }
 
+  /**
+   * The watch exit setting turns on exit watching and is not passed to the
+   * application as a flag.
+   */
+  @Test
+  public void testWatchExitConfiguration() {
+    Map<String, Object> config = Maps.newHashMap();
+    config.put(NativeApplicationRunner.EXECUTABLE_PATHNAME, "foo/bar");
+    config.put(NativeApplicationRunner.EXECUTABLE_FLAGS, "-a");
+    config.put(NativeApplicationRunner.EXECUTABLE_WATCH_EXIT, "true");
+
+    Assert.assertFalse(runner.isWatchProcessExit());
+
+    runner.configure(config);
+
+    Assert.assertTrue(runner.isWatchProcessExit());
+    Assert.assertArrayEquals(new String[] { "foo/bar", "-a" }, runner.getCommandLine());
+
+    config.put(NativeApplicationRunner.EXECUTABLE_WATCH_EXIT, Boolean.FALSE);
+    runner.configure(config);
+
+    Assert.assertFalse(runner.isWatchProcessExit());
+  }
+
   /**
    * Test the parsing of environment variables without nulls.
    */
@@ -115,4 +146,71 @@ public class BaseNativeApplicationRunnerTest {
     Assert.assertEquals("there", processEnvironment.get("hiya"));
     Assert.assertFalse(processEnvironment.containsKey("spam"));
   }
+
+  /**
+   * A watched process is noticed exiting, and its output captured, without
+   * using the space executor.
+   */
+  @Test
+  public void testWatchedProcessExit() throws Exception {
+    Assume.assumeTrue(new File("/bin/echo").canExecute());
+
+    InteractiveSpacesEnvironment spaceEnvironment = Mockito.mock(InteractiveSpacesEnvironment.class);
+    BaseNativeApplicationRunner watchedRunner =
+        new BaseNativeApplicationRunner(spaceEnvironment, Mockito.mock(Log.class)) {
+          @Override
+          public boolean handleProcessExit(int exitValue, String[] commands) {
+            return exitValue == 0;
+          }
+        };
+
+    Map<String, Object> config = Maps.newHashMap();
+    config.put(NativeApplicationRunner.EXECUTABLE_PATHNAME, "/bin/echo");
+    config.put(NativeApplicationRunner.EXECUTABLE_FLAGS, "hello");
+    watchedRunner.configure(config);
+    watchedRunner.setWatchProcessExit(true);
+
+    watchedRunner.startup();
+
+    long end = System.currentTimeMillis() + 5000;
+    while (watchedRunner.getState() != NativeApplicationRunnerState.SHUTDOWN && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+
+    Assert.assertEquals(NativeApplicationRunnerState.SHUTDOWN, watchedRunner.getState());
+    Assert.assertEquals("hello", watchedRunner.getOutputTail(1).get(0));
+    Mockito.verify(spaceEnvironment, Mockito.never()).getExecutorService();
+  }
+
+  /**
+   * The output of a watched process is read as soon as a restart starts it,
+   * before the restart is complete.
+   */
+  @Test
+  public void testWatchedRestartOutputRead() throws Exception {
+    Assume.assumeTrue(new File("/bin/echo").canExecute());
+
+    BaseNativeApplicationRunner watchedRunner =
+        new BaseNativeApplicationRunner(Mockito.mock(InteractiveSpacesEnvironment.class), Mockito.mock(Log.class)) {
+          @Override
+          public boolean handleProcessExit(int exitValue, String[] commands) {
+            return exitValue == 0;
+          }
+        };
+
+    Map<String, Object> config = Maps.newHashMap();
+    config.put(NativeApplicationRunner.EXECUTABLE_PATHNAME, "/bin/echo");
+    config.put(NativeApplicationRunner.EXECUTABLE_FLAGS, "restarted");
+    watchedRunner.configure(config);
+    watchedRunner.setWatchProcessExit(true);
+
+    watchedRunner.attemptRestart();
+
+    long end = System.currentTimeMillis() + 5000;
+    while (watchedRunner.getOutputTail(1).isEmpty() && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+
+    Assert.assertEquals("restarted", watchedRunner.getOutputTail(1).get(0));
+  }
 }
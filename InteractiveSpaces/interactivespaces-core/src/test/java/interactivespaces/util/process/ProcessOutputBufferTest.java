@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.process;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Tests for the {@link ProcessOutputBuffer}.
+ *
+ * @author agent
+ */
+public class ProcessOutputBufferTest {
+
+  /**
+   * Test getting a tail before the buffer is full.
+   */
+  @Test
+  public void testTailNotFull() {
+    ProcessOutputBuffer buffer = new ProcessOutputBuffer(4);
+    buffer.addLine("a");
+    buffer.addLine("b");
+
+    Assert.assertEquals(Arrays.asList("a", "b"), buffer.getTail(10));
+    Assert.assertEquals(Arrays.asList("b"), buffer.getTail(1));
+  }
+
+  /**
+   * Test that the oldest lines are dropped once the buffer is full.
+   */
+  @Test
+  public void testWrapAround() {
+    ProcessOutputBuffer buffer = new ProcessOutputBuffer(3);
+    buffer.addText("a\nb\r\nc\nd\ne");
+
+    Assert.assertEquals(Arrays.asList("c", "d", "e"), buffer.getTail(3));
+    Assert.assertEquals(Arrays.asList("d", "e"), buffer.getTail(2));
+    Assert.assertEquals(3, buffer.getSize());
+    Assert.assertEquals(5, buffer.getNumberLinesAdded());
+  }
+
+  /**
+   * Test clearing the buffer.
+   */
+  @Test
+  public void testClear() {
+    ProcessOutputBuffer buffer = new ProcessOutputBuffer(3);
+    buffer.addText("a\nb\nc\nd");
+    buffer.clear();
+
+    Assert.assertTrue(buffer.getTail(3).isEmpty());
+
+    buffer.addLine("e");
+    Assert.assertEquals(Arrays.asList("e"), buffer.getTail(3));
+  }
+}
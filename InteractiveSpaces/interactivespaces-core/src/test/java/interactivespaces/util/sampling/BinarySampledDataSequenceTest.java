@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.sampling;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Tests for the {@link BinarySampledDataSequenceWriter} and {@link BinarySampledDataSequenceReader}.
+ *
+ * @author agent
+ */
+public class BinarySampledDataSequenceTest {
+
+  private File file;
+
+  @Before
+  public void setup() throws IOException {
+    file = File.createTempFile("sampled", ".isd");
+  }
+
+  @After
+  public void cleanup() {
+    file.delete();
+  }
+
+  /**
+   * Frames from several sources come back exactly as they were written.
+   */
+  @Test
+  public void testRoundTrip() {
+    SampledDataSequence sequence = createSequence(500);
+    writeSequence(sequence, 16);
+
+    BinarySampledDataSequenceReader reader = new BinarySampledDataSequenceReader(file);
+    reader.startup();
+    try {
+      assertEquals(sequence.getNumberFrames(), reader.getNumberFrames());
+      assertEquals(3, reader.getNumberSources());
+      for (int frame = 0; frame < sequence.getNumberFrames(); frame++) {
+        assertFrameEquals(sequence, reader, frame);
+      }
+    } finally {
+      reader.shutdown();
+    }
+  }
+
+  /**
+   * Frames can be read in any order.
+   */
+  @Test
+  public void testRandomAccess() {
+    SampledDataSequence sequence = createSequence(500);
+    writeSequence(sequence, 16);
+
+    BinarySampledDataSequenceReader reader = new BinarySampledDataSequenceReader(file);
+    reader.startup();
+    try {
+      Random random = new Random(42);
+      for (int i = 0; i < 200; i++) {
+        assertFrameEquals(sequence, reader, random.nextInt(sequence.getNumberFrames()));
+      }
+    } finally {
+      reader.shutdown();
+    }
+  }
+
+  /**
+   * Finding a frame by timestamp gives the first frame at or after the time.
+   */
+  @Test
+  public void testFindFrame() {
+    SampledDataSequence sequence = createSequence(100);
+    writeSequence(sequence, 8);
+
+    BinarySampledDataSequenceReader reader = new BinarySampledDataSequenceReader(file);
+    reader.startup();
+    try {
+      for (long timestamp = -5; timestamp < 1100; timestamp += 7) {
+        assertEquals(sequence.findFrame(timestamp), reader.findFrame(timestamp));
+      }
+      assertEquals(sequence.getNumberFrames(), reader.findFrame(Long.MAX_VALUE));
+    } finally {
+      reader.shutdown();
+    }
+  }
+
+  /**
+   * The file loader round trips a sequence.
+   */
+  @Test
+  public void testLoader() {
+    SampledDataSequence sequence = createSequence(50);
+    BinaryFileSampledDataSequenceLoader loader = new BinaryFileSampledDataSequenceLoader();
+    loader.save(file, sequence);
+
+    SampledDataSequence loaded = new SampledDataSequence();
+    assertEquals(sequence.getNumberFrames(), loader.load(file, loaded));
+    for (int frame = 0; frame < sequence.getNumberFrames(); frame++) {
+      assertFrameEquals(sequence, loaded, frame);
+    }
+  }
+
+  /**
+   * Create a sequence of frames from several sources, one of which changes its number of samples.
+   *
+   * @param numberFrames
+   *          the number of frames to create
+   *
+   * @return the sequence
+   */
+  private SampledDataSequence createSequence(int numberFrames) {
+    Random random = new Random(1234);
+    SampledDataSequence sequence = new SampledDataSequence();
+    int[] base = new int[8];
+    for (int frame = 0; frame < numberFrames; frame++) {
+      int source = frame % 3;
+      int numberSamples = (source == 2 && frame > numberFrames / 2) ? 4 : 8;
+      int[] samples = new int[numberSamples];
+      for (int i = 0; i < numberSamples; i++) {
+        base[i] += random.nextInt(21) - 10;
+        samples[i] = base[i] + (random.nextInt(5) == 0 ? random.nextInt() : 0);
+      }
+      sequence.addFrame("source" + source, samples, frame * 10L);
+    }
+
+    return sequence;
+  }
+
+  /**
+   * Write a sequence to the test file.
+   *
+   * @param sequence
+   *          the sequence to write
+   * @param keyframeInterval
+   *          the number of frames between keyframes
+   */
+  private void writeSequence(SampledDataSequence sequence, int keyframeInterval) {
+    BinarySampledDataSequenceWriter writer = new BinarySampledDataSequenceWriter(file, keyframeInterval);
+    writer.startup();
+    try {
+      writer.writeFrames(sequence);
+    } finally {
+      writer.shutdown();
+    }
+  }
+
+  /**
+   * Assert that a frame is the same in two frame sources.
+   *
+   * @param expected
+   *          the expected frames
+   * @param actual
+   *          the frames to check
+   * @param frame
+   *          index of the frame
+   */
+  private void assertFrameEquals(SampledDataFrameSource expected, SampledDataFrameSource actual, int frame) {
+    assertEquals(expected.getFrameTimestamp(frame), actual.getFrameTimestamp(frame));
+    assertEquals(expected.getFrameSource(frame), actual.getFrameSource(frame));
+    assertArrayEquals(expected.getFrameSamples(frame), actual.getFrameSamples(frame));
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.sampling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import interactivespaces.util.sampling.SampledDataSequencePlayer.SampledDataSequenceSampleSender;
+
+import org.apache.commons.logging.Log;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link SampledDataSequencePlayer}.
+ *
+ * @author agent
+ */
+public class SampledDataSequencePlayerTest {
+
+  /**
+   * How long to wait for a frame which should be sent, in milliseconds.
+   */
+  private static final long FRAME_WAIT = 2000;
+
+  /**
+   * How late a frame can be sent and still be on time, in milliseconds. Generous so loaded build machines pass.
+   */
+  private static final long LATENESS_MAX = 100;
+
+  private ScheduledExecutorService executorService;
+
+  private BlockingQueue<SentFrame> sentFrames;
+
+  private SampledDataSequenceSampleSender sender;
+
+  private SampledDataSequencePlayer player;
+
+  private Log log;
+
+  @Before
+  public void setup() {
+    executorService = Executors.newScheduledThreadPool(1);
+    log = Mockito.mock(Log.class);
+
+    sentFrames = new LinkedBlockingQueue<SentFrame>();
+    sender = new SampledDataSequenceSampleSender() {
+      @Override
+      public void sendSampledData(String source, int[] samples) {
+        sentFrames.add(new SentFrame(samples[0], System.nanoTime()));
+      }
+    };
+  }
+
+  @After
+  public void cleanup() {
+    if (player != null) {
+      player.shutdown();
+    }
+    executorService.shutdownNow();
+  }
+
+  /**
+   * Every frame is sent once, including the last.
+   */
+  @Test
+  public void testAllFramesSent() throws Exception {
+    startPlayer(createSequence(5, 10), false, 1.0);
+
+    for (int frame = 0; frame < 5; frame++) {
+      assertEquals(frame, takeFrame().sample);
+    }
+    assertNull(sentFrames.poll(200, TimeUnit.MILLISECONDS));
+  }
+
+  /**
+   * Each frame is sent at its deadline measured from the start of playback.
+   */
+  @Test
+  public void testDeadlines() throws Exception {
+    long startTime = System.nanoTime();
+    startPlayer(createSequence(6, 50), false, 1.0);
+
+    for (int frame = 0; frame < 6; frame++) {
+      assertSentAt(takeFrame(), startTime, frame * 50);
+    }
+  }
+
+  /**
+   * Playing faster shortens the time between frames.
+   */
+  @Test
+  public void testSpeed() throws Exception {
+    long startTime = System.nanoTime();
+    startPlayer(createSequence(5, 100), false, 4.0);
+
+    for (int frame = 0; frame < 5; frame++) {
+      assertSentAt(takeFrame(), startTime, frame * 25);
+    }
+  }
+
+  /**
+   * A speed change during playback keeps the current position.
+   */
+  @Test
+  public void testSpeedChange() throws Exception {
+    startPlayer(createSequence(3, 400), false, 1.0);
+    assertEquals(0, takeFrame().sample);
+
+    long changeTime = System.nanoTime();
+    player.setSpeed(4.0);
+
+    // 400 ms of sequence time is left until frame 1 and is now played 4 times as fast.
+    assertSentAt(takeFrame(), changeTime, 100);
+    assertSentAt(takeFrame(), changeTime, 200);
+  }
+
+  /**
+   * A speed which doesn't move playback forward is refused.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalSpeed() {
+    player = new SampledDataSequencePlayer(createSequence(1, 10), sender, executorService, log);
+    player.setSpeed(0.0);
+  }
+
+  /**
+   * A seek makes the frame at the new position the next one sent, right away.
+   */
+  @Test
+  public void testSeek() throws Exception {
+    startPlayer(createSequence(10, 200), false, 1.0);
+    assertEquals(0, takeFrame().sample);
+
+    long seekTime = System.nanoTime();
+    player.seek(1000);
+
+    assertSentAt(takeFrame(), seekTime, 0);
+    assertEquals(6, takeFrame().sample);
+  }
+
+  /**
+   * A looping player starts over at the first frame after the last.
+   */
+  @Test
+  public void testLooping() throws Exception {
+    startPlayer(createSequence(3, 10), true, 1.0);
+
+    for (int i = 0; i < 7; i++) {
+      assertEquals(i % 3, takeFrame().sample);
+    }
+  }
+
+  /**
+   * Create and start a player.
+   *
+   * @param sequence
+   *          the sequence to play
+   * @param looping
+   *          {@code true} if the player should loop
+   * @param speed
+   *          the playback speed
+   */
+  private void startPlayer(SampledDataFrameSource sequence, boolean looping, double speed) {
+    player = new SampledDataSequencePlayer(sequence, sender, executorService, log);
+    player.setLooping(looping);
+    player.setSpeed(speed);
+    player.startup();
+    player.startPlayback();
+  }
+
+  /**
+   * Create a sequence whose frames are evenly spaced. Each frame has a single sample holding its index.
+   *
+   * @param numberFrames
+   *          the number of frames
+   * @param interval
+   *          the time between frames, in milliseconds
+   *
+   * @return the sequence
+   */
+  private SampledDataSequence createSequence(int numberFrames, long interval) {
+    SampledDataSequence sequence = new SampledDataSequence();
+    for (int frame = 0; frame < numberFrames; frame++) {
+      sequence.addFrame("source", new int[] { frame }, frame * interval);
+    }
+
+    return sequence;
+  }
+
+  /**
+   * Wait for the next frame to be sent.
+   *
+   * @return the frame
+   *
+   * @throws InterruptedException
+   *           the wait was interrupted
+   */
+  private SentFrame takeFrame() throws InterruptedException {
+    SentFrame frame = sentFrames.poll(FRAME_WAIT, TimeUnit.MILLISECONDS);
+    assertNotNull("No frame was sent", frame);
+
+    return frame;
+  }
+
+  /**
+   * Assert that a frame was sent at its deadline, never early and not too late.
+   *
+   * @param frame
+   *          the frame
+   * @param baseTime
+   *          the nano time the deadline is measured from
+   * @param deadline
+   *          the deadline, in milliseconds after the base time
+   */
+  private void assertSentAt(SentFrame frame, long baseTime, long deadline) {
+    long sentAt = TimeUnit.NANOSECONDS.toMillis(frame.sendTime - baseTime);
+    assertTrue(String.format("Frame %d sent at %d ms, deadline %d ms", frame.sample, sentAt, deadline),
+        sentAt >= deadline - 1 && sentAt <= deadline + LATENESS_MAX);
+  }
+
+  /**
+   * A frame which was sent.
+   */
+  private static class SentFrame {
+
+    /**
+     * The first sample of the frame.
+     */
+    private final int sample;
+
+    /**
+     * The nano time the frame was sent.
+     */
+    private final long sendTime;
+
+    /**
+     * Construct a new sent frame.
+     *
+     * @param sample
+     *          the first sample of the frame
+     * @param sendTime
+     *          the nano time the frame was sent
+     */
+    public SentFrame(int sample, long sendTime) {
+      this.sample = sample;
+      this.sendTime = sendTime;
+    }
+  }
+}
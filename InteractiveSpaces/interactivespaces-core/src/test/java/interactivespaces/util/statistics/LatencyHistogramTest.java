@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import interactivespaces.util.statistics.LatencyHistogram.LatencySummary;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link LatencyHistogram}.
+ *
+ * @author agent
+ */
+public class LatencyHistogramTest {
+
+  private LatencyHistogram histogram;
+
+  @Before
+  public void setup() {
+    histogram = new LatencyHistogram();
+  }
+
+  /**
+   * An empty histogram reports zeros.
+   */
+  @Test
+  public void testEmpty() {
+    assertEquals(0, histogram.getTotalCount());
+    assertEquals(0, histogram.getValueAtPercentile(99.0));
+    assertEquals(0.0, histogram.getMean(), 0.0);
+  }
+
+  /**
+   * Small values are counted exactly.
+   */
+  @Test
+  public void testSmallValuesExact() {
+    for (int i = 1; i <= 50; i++) {
+      histogram.record(i);
+    }
+
+    assertEquals(50, histogram.getTotalCount());
+    assertEquals(25, histogram.getValueAtPercentile(50.0));
+    assertEquals(50, histogram.getValueAtPercentile(100.0));
+    assertEquals(25.5, histogram.getMean(), 0.0001);
+  }
+
+  /**
+   * Percentiles of large values are within the precision of the histogram and
+   * never understate the value.
+   */
+  @Test
+  public void testLargeValuesPrecision() {
+    Random random = new Random(1234);
+    long[] values = new long[10000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = 1000 + (long) (random.nextDouble() * 10000000);
+      histogram.record(values[i]);
+    }
+    Arrays.sort(values);
+
+    for (double percentile : new double[] { 50.0, 90.0, 99.0, 99.9 }) {
+      long expected = values[(int) Math.ceil(percentile / 100.0 * values.length) - 1];
+      long actual = histogram.getValueAtPercentile(percentile);
+      assertTrue(actual >= expected);
+      assertTrue(actual <= expected + expected / LatencyHistogram.SUB_BUCKET_COUNT);
+    }
+    assertEquals(values[values.length - 1], histogram.getMaxValue());
+    assertEquals(values[values.length - 1], histogram.getValueAtPercentile(100.0));
+  }
+
+  /**
+   * The summary converts units.
+   */
+  @Test
+  public void testSummaryUnits() {
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(2));
+
+    LatencySummary summary = histogram.getSummary(TimeUnit.NANOSECONDS, TimeUnit.MICROSECONDS);
+    assertEquals(1, summary.getCount());
+    assertEquals(2000.0, summary.getMax(), 0.0001);
+    assertEquals(2000.0, summary.getP50(), 0.0001);
+  }
+
+  /**
+   * Resetting clears everything.
+   */
+  @Test
+  public void testReset() {
+    histogram.record(100);
+    histogram.record(Long.MAX_VALUE);
+    histogram.reset();
+
+    assertEquals(0, histogram.getTotalCount());
+    assertEquals(0, histogram.getMaxValue());
+    assertEquals(0, histogram.getValueAtPercentile(50.0));
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.util.statistics;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link RateMeter}.
+ *
+ * @author agent
+ */
+public class RateMeterTest {
+
+  /**
+   * One second in nanoseconds.
+   */
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  /**
+   * The time the meter was created at.
+   */
+  private static final long START = 1000 * SECOND;
+
+  private RateMeter meter;
+
+  @Before
+  public void setup() {
+    meter = new RateMeter(5, 1, TimeUnit.SECONDS, START);
+  }
+
+  /**
+   * A meter with no events has no rate.
+   */
+  @Test
+  public void testEmpty() {
+    assertEquals(0.0, meter.getRate(START), 0.0);
+    assertEquals(0.0, meter.getRate(START + 10 * SECOND), 0.0);
+  }
+
+  /**
+   * Before the window has filled the rate is over the time since the start.
+   */
+  @Test
+  public void testPartialWindow() {
+    meter.mark(10, START + SECOND / 2);
+    meter.mark(10, START + SECOND + SECOND / 2);
+
+    assertEquals(10.0, meter.getRate(START + 2 * SECOND), 0.001);
+  }
+
+  /**
+   * A steady load gives its rate.
+   */
+  @Test
+  public void testSteady() {
+    for (int second = 0; second < 20; second++) {
+      meter.mark(100, START + second * SECOND);
+    }
+
+    assertEquals(100.0, meter.getRate(START + 20 * SECOND - 1), 1.0);
+  }
+
+  /**
+   * The rate follows a change in load once the old load leaves the window,
+   * rather than averaging over the life of the meter.
+   */
+  @Test
+  public void testRecent() {
+    for (int second = 0; second < 100; second++) {
+      meter.mark(1000, START + second * SECOND);
+    }
+    for (int second = 100; second < 110; second++) {
+      meter.mark(10, START + second * SECOND);
+    }
+
+    assertEquals(10.0, meter.getRate(START + 110 * SECOND - 1), 0.1);
+  }
+
+  /**
+   * Events stop counting once they leave the window.
+   */
+  @Test
+  public void testIdle() {
+    meter.mark(100, START);
+
+    assertEquals(0.0, meter.getRate(START + 6 * SECOND), 0.0);
+  }
+
+  /**
+   * A reset clears the meter and restarts the window.
+   */
+  @Test
+  public void testReset() {
+    meter.mark(100, START);
+    meter.reset(START + SECOND / 2);
+
+    assertEquals(0.0, meter.getRate(START + SECOND), 0.0);
+
+    meter.mark(5, START + SECOND);
+    assertEquals(5.0, meter.getRate(START + SECOND + SECOND / 2), 0.001);
+  }
+}
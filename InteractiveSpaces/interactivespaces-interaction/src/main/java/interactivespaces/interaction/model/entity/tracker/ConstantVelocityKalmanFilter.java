@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.interaction.model.entity.tracker;
+
+/**
+ * A Kalman filter for an entity moving at a roughly constant velocity.
+ *
+ * <p>
+ * Each axis is filtered separately with a position and velocity state. Changes in velocity are modelled as white
+ * noise acceleration.
+ *
+ * @author agent
+ */
+public class ConstantVelocityKalmanFilter {
+
+  /**
+   * The estimated position on each axis.
+   */
+  private final double[] position;
+
+  /**
+   * The estimated velocity on each axis.
+   */
+  private final double[] velocity;
+
+  /**
+   * The variance of the position estimate on each axis.
+   */
+  private final double[] positionVariance;
+
+  /**
+   * The covariance of the position and velocity estimates on each axis.
+   */
+  private final double[] covariance;
+
+  /**
+   * The variance of the velocity estimate on each axis.
+   */
+  private final double[] velocityVariance;
+
+  /**
+   * The variance of the acceleration, in units squared per second to the fourth.
+   */
+  private final double processNoise;
+
+  /**
+   * The variance of a measurement, in units squared.
+   */
+  private final double measurementNoise;
+
+  /**
+   * Construct a new filter starting at a measured position with no velocity.
+   *
+   * @param measurement
+   *          the first measured position
+   * @param processNoise
+   *          the variance of the acceleration, in units squared per second to the fourth
+   * @param measurementNoise
+   *          the variance of a measurement, in units squared
+   * @param initialVelocityVariance
+   *          the variance of the starting velocity, in units squared per second squared
+   */
+  public ConstantVelocityKalmanFilter(double[] measurement, double processNoise, double measurementNoise,
+      double initialVelocityVariance) {
+    this.processNoise = processNoise;
+    this.measurementNoise = measurementNoise;
+
+    int dimensions = measurement.length;
+    position = measurement.clone();
+    velocity = new double[dimensions];
+    positionVariance = new double[dimensions];
+    covariance = new double[dimensions];
+    velocityVariance = new double[dimensions];
+    for (int axis = 0; axis < dimensions; axis++) {
+      positionVariance[axis] = measurementNoise;
+      velocityVariance[axis] = initialVelocityVariance;
+    }
+  }
+
+  /**
+   * Move the estimate forward in time.
+   *
+   * @param dt
+   *          the time step, in seconds
+   */
+  public void predict(double dt) {
+    double dt2 = dt * dt;
+    double q00 = processNoise * dt2 * dt2 / 4.0;
+    double q01 = processNoise * dt2 * dt / 2.0;
+    double q11 = processNoise * dt2;
+    for (int axis = 0; axis < position.length; axis++) {
+      position[axis] += velocity[axis] * dt;
+
+      double p01 = covariance[axis];
+      double p11 = velocityVariance[axis];
+      positionVariance[axis] += 2.0 * dt * p01 + dt2 * p11 + q00;
+      covariance[axis] = p01 + dt * p11 + q01;
+      velocityVariance[axis] = p11 + q11;
+    }
+  }
+
+  /**
+   * Correct the estimate with a measured position.
+   *
+   * @param measurement
+   *          the measured position
+   */
+  public void update(double[] measurement) {
+    for (int axis = 0; axis < position.length; axis++) {
+      double p00 = positionVariance[axis];
+      double p01 = covariance[axis];
+      double innovationVariance = p00 + measurementNoise;
+      double positionGain = p00 / innovationVariance;
+      double velocityGain = p01 / innovationVariance;
+      double innovation = measurement[axis] - position[axis];
+
+      position[axis] += positionGain * innovation;
+      velocity[axis] += velocityGain * innovation;
+
+      positionVariance[axis] = (1.0 - positionGain) * p00;
+      covariance[axis] = (1.0 - positionGain) * p01;
+      velocityVariance[axis] -= velocityGain * p01;
+    }
+  }
+
+  /**
+   * Get the estimated position.
+   *
+   * @param coordinates
+   *          the array to place the position in
+   *
+   * @return the array with the position
+   */
+  public double[] getPosition(double[] coordinates) {
+    System.arraycopy(position, 0, coordinates, 0, position.length);
+
+    return coordinates;
+  }
+
+  /**
+   * Get the estimated velocity.
+   *
+   * @param coordinates
+   *          the array to place the velocity in, in units per second
+   *
+   * @return the array with the velocity
+   */
+  public double[] getVelocity(double[] coordinates) {
+    System.arraycopy(velocity, 0, coordinates, 0, velocity.length);
+
+    return coordinates;
+  }
+
+  /**
+   * Get where the entity is expected to be after some time, without changing the estimate.
+   *
+   * @param dt
+   *          the time from now, in seconds
+   * @param coordinates
+   *          the array to place the position in
+   *
+   * @return the array with the position
+   */
+  public double[] predictPosition(double dt, double[] coordinates) {
+    for (int axis = 0; axis < position.length; axis++) {
+      coordinates[axis] = position[axis] + velocity[axis] * dt;
+    }
+
+    return coordinates;
+  }
+}
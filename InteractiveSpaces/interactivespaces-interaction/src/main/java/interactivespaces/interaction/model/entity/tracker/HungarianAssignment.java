@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.interaction.model.entity.tracker;
+
+import java.util.Arrays;
+
+/**
+ * Finds the assignment of rows to columns of a cost matrix with the smallest total cost using the Hungarian
+ * algorithm.
+ *
+ * @author agent
+ */
+final class HungarianAssignment {
+
+  /**
+   * Find the assignment with the smallest total cost.
+   *
+   * <p>
+   * This runs in O(n<sup>3</sup>) time, so should only be used on small matrices.
+   *
+   * @param costs
+   *          the cost matrix, must be at least {@code size} by {@code size}
+   * @param size
+   *          the number of rows and columns to use from the cost matrix
+   *
+   * @return the column assigned to each row
+   */
+  static int[] solve(double[][] costs, int size) {
+    // Potentials and matching use 1-based indices, with column 0 as a sentinel.
+    double[] rowPotential = new double[size + 1];
+    double[] columnPotential = new double[size + 1];
+    int[] columnMatch = new int[size + 1];
+    int[] way = new int[size + 1];
+    double[] minSlack = new double[size + 1];
+    boolean[] used = new boolean[size + 1];
+
+    for (int row = 1; row <= size; row++) {
+      columnMatch[0] = row;
+      int column0 = 0;
+      Arrays.fill(minSlack, Double.POSITIVE_INFINITY);
+      Arrays.fill(used, false);
+
+      do {
+        used[column0] = true;
+        int row0 = columnMatch[column0];
+        double delta = Double.POSITIVE_INFINITY;
+        int column1 = 0;
+        for (int column = 1; column <= size; column++) {
+          if (!used[column]) {
+            double slack = costs[row0 - 1][column - 1] - rowPotential[row0] - columnPotential[column];
+            if (slack < minSlack[column]) {
+              minSlack[column] = slack;
+              way[column] = column0;
+            }
+            if (minSlack[column] < delta) {
+              delta = minSlack[column];
+              column1 = column;
+            }
+          }
+        }
+
+        for (int column = 0; column <= size; column++) {
+          if (used[column]) {
+            rowPotential[columnMatch[column]] += delta;
+            columnPotential[column] -= delta;
+          } else {
+            minSlack[column] -= delta;
+          }
+        }
+        column0 = column1;
+      } while (columnMatch[column0] != 0);
+
+      do {
+        int column1 = way[column0];
+        columnMatch[column0] = columnMatch[column1];
+        column0 = column1;
+      } while (column0 != 0);
+    }
+
+    int[] assignment = new int[size];
+    for (int column = 1; column <= size; column++) {
+      assignment[columnMatch[column] - 1] = column - 1;
+    }
+
+    return assignment;
+  }
+
+  /**
+   * Private constructor for utility class.
+   */
+  /**
+   * Find the assignment with the smallest total cost for a rectangular cost matrix, leaving rows unassigned rather
+   * than giving them a column at or beyond a gate cost.
+   *
+   * <p>
+   * Assigning a row to a column costing the gate cost or more is no better than leaving both unassigned, so such a
+   * pair is never chosen over real pairs.
+   *
+   * @param costs
+   *          the cost matrix, must be at least {@code rows} by {@code columns}
+   * @param rows
+   *          the number of rows to use from the cost matrix
+   * @param columns
+   *          the number of columns to use from the cost matrix
+   * @param gateCost
+   *          the cost at which a row and column can no longer be paired
+   *
+   * @return the column assigned to each row, or -1 if the row is unassigned
+   */
+  static int[] solveGated(double[][] costs, int rows, int columns, double gateCost) {
+    int size = Math.max(rows, columns);
+    double[][] squareCosts = new double[size][size];
+    for (int row = 0; row < size; row++) {
+      Arrays.fill(squareCosts[row], gateCost);
+      if (row < rows) {
+        for (int column = 0; column < columns; column++) {
+          squareCosts[row][column] = Math.min(costs[row][column], gateCost);
+        }
+      }
+    }
+
+    int[] squareAssignment = solve(squareCosts, size);
+    int[] assignment = new int[rows];
+    for (int row = 0; row < rows; row++) {
+      int column = squareAssignment[row];
+      assignment[row] = column < columns && squareCosts[row][column] < gateCost ? column : -1;
+    }
+
+    return assignment;
+  }
+
+  private HungarianAssignment() {
+  }
+}
@@ -0,0 +1,584 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.interaction.model.entity.tracker;
+
+import interactivespaces.interaction.detection.DetectionEventListener;
+import interactivespaces.interaction.model.entity.SimpleTrackedEntity;
+import interactivespaces.interaction.model.entity.TrackedEntity;
+import interactivespaces.interaction.model.entity.TrackedEntityListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A tracker which follows many entities from frames of unlabelled detections.
+ *
+ * <p>
+ * Each frame, every track is moved forward with a constant velocity Kalman filter. A spatial hash finds which tracks
+ * are within the gate distance of each detection. Tracks and detections which compete for each other are then
+ * assigned with the Hungarian algorithm so the total distance is as small as possible. Detections left over start new
+ * tracks, and tracks which go unseen for longer than the lost timeout are dropped.
+ *
+ * <p>
+ * The tracked entities carry the smoothed positions from the filters. Listeners are sent every track after each frame,
+ * including tracks which were just lost.
+ *
+ * @param <T>
+ *          the location type
+ *
+ * @author agent
+ */
+public class MultiTargetTracker<T> implements DetectionEventListener<Object, T> {
+
+  /**
+   * The prefix for the IDs of new tracks.
+   */
+  public static final String TRACK_ID_PREFIX = "track-";
+
+  /**
+   * Converts between positions and coordinates.
+   */
+  private final PositionCoordinates<T> positionCoordinates;
+
+  /**
+   * The number of coordinates in a position.
+   */
+  private final int dimensions;
+
+  /**
+   * The square of the furthest a detection can be from a track and still be assigned to it.
+   */
+  private final double gateDistanceSquared;
+
+  /**
+   * The variance of the acceleration of an entity, in units squared per second to the fourth.
+   */
+  private final double processNoise;
+
+  /**
+   * The variance of a detection, in units squared.
+   */
+  private final double measurementNoise;
+
+  /**
+   * The variance of the velocity of a new track, in units squared per second squared.
+   */
+  private final double initialVelocityVariance;
+
+  /**
+   * How long a track can go unseen before it is lost, in milliseconds.
+   */
+  private final long lostTimeout;
+
+  /**
+   * The spatial hash of the predicted track positions.
+   */
+  private final SpatialHashGrid trackGrid;
+
+  /**
+   * The listeners for tracking updates.
+   */
+  private final List<TrackedEntityListener<T>> listeners = new CopyOnWriteArrayList<TrackedEntityListener<T>>();
+
+  /**
+   * The current tracks.
+   */
+  private List<EntityTrack> tracks = new ArrayList<EntityTrack>();
+
+  /**
+   * The current tracks, keyed by ID.
+   */
+  private final Map<String, EntityTrack> tracksById = new HashMap<String, EntityTrack>();
+
+  /**
+   * The time of the last frame, in milliseconds, or negative if there has been no frame.
+   */
+  private long lastFrameTime = -1;
+
+  /**
+   * The number for the next new track.
+   */
+  private long nextTrackNumber;
+
+  /**
+   * Construct a new tracker.
+   *
+   * @param positionCoordinates
+   *          converts between positions and coordinates
+   * @param gateDistance
+   *          the furthest a detection can be from a track and still be assigned to it
+   * @param processNoise
+   *          the variance of the acceleration of an entity, in units squared per second to the fourth
+   * @param measurementNoise
+   *          the variance of a detection, in units squared
+   * @param lostTimeout
+   *          how long a track can go unseen before it is lost, in milliseconds
+   */
+  public MultiTargetTracker(PositionCoordinates<T> positionCoordinates, double gateDistance, double processNoise,
+      double measurementNoise, long lostTimeout) {
+    this.positionCoordinates = positionCoordinates;
+    this.gateDistanceSquared = gateDistance * gateDistance;
+    this.processNoise = processNoise;
+    this.measurementNoise = measurementNoise;
+    this.lostTimeout = lostTimeout;
+
+    // A new entity could be moving up to about a gate distance per second.
+    initialVelocityVariance = gateDistanceSquared;
+
+    dimensions = positionCoordinates.getDimensions();
+    trackGrid = new SpatialHashGrid(gateDistance, dimensions);
+  }
+
+  /**
+   * Add a listener for tracking updates.
+   *
+   * @param listener
+   *          the listener to add
+   */
+  public void addTrackedEntityListener(TrackedEntityListener<T> listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Remove a listener for tracking updates.
+   *
+   * <p>
+   * Does nothing if the listener was never added.
+   *
+   * @param listener
+   *          the listener to remove
+   */
+  public void removeTrackedEntityListener(TrackedEntityListener<T> listener) {
+    listeners.remove(listener);
+  }
+
+  @Override
+  public void onNewDetectionEvent(Object source, Collection<T> detections) {
+    update(detections, System.currentTimeMillis());
+  }
+
+  /**
+   * Process a frame of detections.
+   *
+   * @param detections
+   *          the positions of everything detected in the frame
+   * @param frameTime
+   *          the time of the frame, in milliseconds
+   *
+   * @return the state of all tracks after the frame, including tracks which were just lost
+   */
+  public synchronized List<TrackedEntity<T>> update(Collection<T> detections, long frameTime) {
+    predictTracks(frameTime);
+
+    double[][] detectionCoordinates = new double[detections.size()][];
+    int detection = 0;
+    for (T position : detections) {
+      detectionCoordinates[detection] = new double[dimensions];
+      positionCoordinates.getCoordinates(position, detectionCoordinates[detection]);
+      detection++;
+    }
+
+    int[] trackAssignments = assignDetections(detectionCoordinates);
+
+    boolean[] detectionAssigned = new boolean[detectionCoordinates.length];
+    List<EntityTrack> currentTracks = new ArrayList<EntityTrack>(tracks.size() + detectionCoordinates.length);
+    List<TrackedEntity<T>> entities = new ArrayList<TrackedEntity<T>>(currentTracks.size());
+    for (int trackIndex = 0; trackIndex < tracks.size(); trackIndex++) {
+      EntityTrack track = tracks.get(trackIndex);
+      track.stateNew = false;
+
+      int assignedDetection = trackAssignments[trackIndex];
+      if (assignedDetection >= 0) {
+        detectionAssigned[assignedDetection] = true;
+        track.filter.update(detectionCoordinates[assignedDetection]);
+        track.lastSeenTime = frameTime;
+        track.stateVisible = true;
+      } else {
+        track.stateVisible = false;
+      }
+
+      boolean lost = frameTime - track.lastSeenTime > lostTimeout;
+      if (lost) {
+        tracksById.remove(track.id);
+      } else {
+        currentTracks.add(track);
+      }
+      entities.add(newTrackedEntity(track, lost));
+    }
+
+    for (detection = 0; detection < detectionCoordinates.length; detection++) {
+      if (!detectionAssigned[detection]) {
+        EntityTrack track = new EntityTrack(TRACK_ID_PREFIX + nextTrackNumber++, new ConstantVelocityKalmanFilter(
+            detectionCoordinates[detection], processNoise, measurementNoise, initialVelocityVariance), frameTime);
+        tracksById.put(track.id, track);
+        currentTracks.add(track);
+        entities.add(newTrackedEntity(track, false));
+      }
+    }
+
+    tracks = currentTracks;
+
+    List<TrackedEntity<T>> update = Collections.unmodifiableList(entities);
+    if (!update.isEmpty()) {
+      for (TrackedEntityListener<T> listener : listeners) {
+        listener.onTrackedEntityUpdate(update);
+      }
+    }
+
+    return update;
+  }
+
+  /**
+   * Get the state of all current tracks.
+   *
+   * @return the tracked entities
+   */
+  public synchronized List<TrackedEntity<T>> getTrackedEntities() {
+    List<TrackedEntity<T>> entities = new ArrayList<TrackedEntity<T>>(tracks.size());
+    for (EntityTrack track : tracks) {
+      entities.add(newTrackedEntity(track, false));
+    }
+
+    return entities;
+  }
+
+  /**
+   * Get the number of current tracks.
+   *
+   * @return the number of tracks
+   */
+  public synchronized int getNumberTracks() {
+    return tracks.size();
+  }
+
+  /**
+   * Predict where a tracked entity will be at a given time.
+   *
+   * @param id
+   *          ID of the tracked entity
+   * @param time
+   *          the time, in milliseconds
+   *
+   * @return the predicted position, or {@code null} if there is no such track
+   */
+  public synchronized T predictPosition(String id, long time) {
+    EntityTrack track = tracksById.get(id);
+    if (track == null) {
+      return null;
+    }
+
+    double dt = lastFrameTime < 0 ? 0.0 : (time - lastFrameTime) / 1000.0;
+    return positionCoordinates.newPosition(track.filter.predictPosition(dt, new double[dimensions]));
+  }
+
+  /**
+   * Move all tracks forward to the time of a frame.
+   *
+   * @param frameTime
+   *          the time of the frame, in milliseconds
+   */
+  private void predictTracks(long frameTime) {
+    if (lastFrameTime >= 0 && frameTime > lastFrameTime) {
+      double dt = (frameTime - lastFrameTime) / 1000.0;
+      for (EntityTrack track : tracks) {
+        track.filter.predict(dt);
+      }
+    }
+
+    lastFrameTime = Math.max(lastFrameTime, frameTime);
+  }
+
+  /**
+   * Assign detections to tracks.
+   *
+   * @param detectionCoordinates
+   *          the coordinates of the detections
+   *
+   * @return the index of the detection assigned to each track, or -1 if the track has no detection
+   */
+  private int[] assignDetections(double[][] detectionCoordinates) {
+    int numberTracks = tracks.size();
+    int numberDetections = detectionCoordinates.length;
+
+    int[] trackAssignments = new int[numberTracks];
+    for (int i = 0; i < numberTracks; i++) {
+      trackAssignments[i] = -1;
+    }
+    if (numberTracks == 0 || numberDetections == 0) {
+      return trackAssignments;
+    }
+
+    double[][] trackCoordinates = new double[numberTracks][];
+    trackGrid.clear();
+    for (int track = 0; track < numberTracks; track++) {
+      trackCoordinates[track] = tracks.get(track).filter.getPosition(new double[dimensions]);
+      trackGrid.add(track, trackCoordinates[track]);
+    }
+
+    // Find every track and detection pair within the gate, and group the pairs which share a track or detection.
+    // Tracks are nodes 0 to numberTracks - 1 and detections follow them.
+    List<GatedPair> pairs = new ArrayList<GatedPair>();
+    int[] groups = new int[numberTracks + numberDetections];
+    for (int node = 0; node < groups.length; node++) {
+      groups[node] = node;
+    }
+    SpatialHashGrid.IndexList candidates = new SpatialHashGrid.IndexList();
+    for (int detection = 0; detection < numberDetections; detection++) {
+      candidates.clear();
+      trackGrid.findCandidates(detectionCoordinates[detection], candidates);
+      for (int i = 0; i < candidates.size(); i++) {
+        int track = candidates.get(i);
+        double distanceSquared = getDistanceSquared(trackCoordinates[track], detectionCoordinates[detection]);
+        if (distanceSquared < gateDistanceSquared) {
+          pairs.add(new GatedPair(track, detection, distanceSquared));
+          union(groups, track, numberTracks + detection);
+        }
+      }
+    }
+
+    Map<Integer, List<GatedPair>> groupPairs = new HashMap<Integer, List<GatedPair>>();
+    for (GatedPair pair : pairs) {
+      int group = find(groups, pair.track);
+      List<GatedPair> members = groupPairs.get(group);
+      if (members == null) {
+        members = new ArrayList<GatedPair>();
+        groupPairs.put(group, members);
+      }
+      members.add(pair);
+    }
+
+    for (List<GatedPair> members : groupPairs.values()) {
+      if (members.size() == 1) {
+        GatedPair pair = members.get(0);
+        trackAssignments[pair.track] = pair.detection;
+      } else {
+        assignGroup(members, trackAssignments);
+      }
+    }
+
+    return trackAssignments;
+  }
+
+  /**
+   * Assign the tracks and detections of a group of competing pairs.
+   *
+   * @param members
+   *          the pairs in the group
+   * @param trackAssignments
+   *          the index of the detection assigned to each track
+   */
+  private void assignGroup(List<GatedPair> members, int[] trackAssignments) {
+    Map<Integer, Integer> groupTracks = new HashMap<Integer, Integer>();
+    Map<Integer, Integer> groupDetections = new HashMap<Integer, Integer>();
+    List<Integer> trackIndices = new ArrayList<Integer>();
+    List<Integer> detectionIndices = new ArrayList<Integer>();
+    for (GatedPair pair : members) {
+      if (!groupTracks.containsKey(pair.track)) {
+        groupTracks.put(pair.track, trackIndices.size());
+        trackIndices.add(pair.track);
+      }
+      if (!groupDetections.containsKey(pair.detection)) {
+        groupDetections.put(pair.detection, detectionIndices.size());
+        detectionIndices.add(pair.detection);
+      }
+    }
+
+    double[][] costs = new double[trackIndices.size()][detectionIndices.size()];
+    for (double[] row : costs) {
+      Arrays.fill(row, gateDistanceSquared);
+    }
+    for (GatedPair pair : members) {
+      costs[groupTracks.get(pair.track)][groupDetections.get(pair.detection)] = pair.distanceSquared;
+    }
+
+    int[] assignment =
+        HungarianAssignment.solveGated(costs, trackIndices.size(), detectionIndices.size(), gateDistanceSquared);
+    for (int row = 0; row < trackIndices.size(); row++) {
+      int column = assignment[row];
+      if (column >= 0) {
+        trackAssignments[trackIndices.get(row)] = detectionIndices.get(column);
+      }
+    }
+  }
+
+  /**
+   * Create the tracked entity for a track.
+   *
+   * @param track
+   *          the track
+   * @param lost
+   *          {@code true} if the track has been lost
+   *
+   * @return the tracked entity
+   */
+  private TrackedEntity<T> newTrackedEntity(EntityTrack track, boolean lost) {
+    T position = positionCoordinates.newPosition(track.filter.getPosition(new double[dimensions]));
+
+    return new SimpleTrackedEntity<T>(track.id, position, track.stateNew, track.stateVisible, lost);
+  }
+
+  /**
+   * Get the square of the distance between two points.
+   *
+   * @param a
+   *          the first point
+   * @param b
+   *          the second point
+   *
+   * @return the square of the distance
+   */
+  private double getDistanceSquared(double[] a, double[] b) {
+    double distanceSquared = 0.0;
+    for (int axis = 0; axis < dimensions; axis++) {
+      double difference = a[axis] - b[axis];
+      distanceSquared += difference * difference;
+    }
+
+    return distanceSquared;
+  }
+
+  /**
+   * Find the group of a node.
+   *
+   * @param groups
+   *          the parent of each node
+   * @param node
+   *          the node
+   *
+   * @return the root node of the group
+   */
+  private static int find(int[] groups, int node) {
+    while (groups[node] != node) {
+      groups[node] = groups[groups[node]];
+      node = groups[node];
+    }
+
+    return node;
+  }
+
+  /**
+   * Merge the groups of two nodes.
+   *
+   * @param groups
+   *          the parent of each node
+   * @param a
+   *          the first node
+   * @param b
+   *          the second node
+   */
+  private static void union(int[] groups, int a, int b) {
+    int rootA = find(groups, a);
+    int rootB = find(groups, b);
+    if (rootA != rootB) {
+      groups[rootB] = rootA;
+    }
+  }
+
+  /**
+   * A track and a detection which are within the gate distance of each other.
+   *
+   * @author agent
+   */
+  private static class GatedPair {
+
+    /**
+     * Index of the track.
+     */
+    private final int track;
+
+    /**
+     * Index of the detection.
+     */
+    private final int detection;
+
+    /**
+     * The square of the distance between the track and the detection.
+     */
+    private final double distanceSquared;
+
+    /**
+     * Construct a new pair.
+     *
+     * @param track
+     *          index of the track
+     * @param detection
+     *          index of the detection
+     * @param distanceSquared
+     *          the square of the distance between the track and the detection
+     */
+    public GatedPair(int track, int detection, double distanceSquared) {
+      this.track = track;
+      this.detection = detection;
+      this.distanceSquared = distanceSquared;
+    }
+  }
+
+  /**
+   * A single entity being tracked.
+   *
+   * @author agent
+   */
+  private static class EntityTrack {
+
+    /**
+     * ID of the track.
+     */
+    private final String id;
+
+    /**
+     * The filter for the position of the entity.
+     */
+    private final ConstantVelocityKalmanFilter filter;
+
+    /**
+     * The time the entity was last detected, in milliseconds.
+     */
+    private long lastSeenTime;
+
+    /**
+     * {@code true} if the track was started in the latest frame.
+     */
+    private boolean stateNew = true;
+
+    /**
+     * {@code true} if the entity was detected in the latest frame.
+     */
+    private boolean stateVisible = true;
+
+    /**
+     * Construct a new track.
+     *
+     * @param id
+     *          ID of the track
+     * @param filter
+     *          the filter for the position of the entity
+     * @param lastSeenTime
+     *          the time the entity was detected, in milliseconds
+     */
+    public EntityTrack(String id, ConstantVelocityKalmanFilter filter, long lastSeenTime) {
+      this.id = id;
+      this.filter = filter;
+      this.lastSeenTime = lastSeenTime;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.interaction.model.entity.tracker;
+
+/**
+ * Converts between entity positions and the coordinates a tracker works with.
+ *
+ * @param <T>
+ *          the location type
+ *
+ * @author agent
+ */
+public interface PositionCoordinates<T> {
+
+  /**
+   * Get the number of coordinates in a position.
+   *
+   * @return the number of coordinates, from 1 to 3
+   */
+  int getDimensions();
+
+  /**
+   * Get the coordinates of a position.
+   *
+   * @param position
+   *          the position
+   * @param coordinates
+   *          the array to place the coordinates in
+   */
+  void getCoordinates(T position, double[] coordinates);
+
+  /**
+   * Create a position from coordinates.
+   *
+   * @param coordinates
+   *          the coordinates
+   *
+   * @return the position
+   */
+  T newPosition(double[] coordinates);
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.interaction.model.entity.tracker;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A uniform grid of cells for quickly finding the points near a location.
+ *
+ * <p>
+ * Only the cell holding a location and its direct neighbours are searched, so the cell size should be no smaller than
+ * the search distance.
+ *
+ * @author agent
+ */
+class SpatialHashGrid {
+
+  /**
+   * Number of bits for each cell coordinate in a cell key.
+   */
+  private static final int CELL_KEY_BITS = 21;
+
+  /**
+   * Mask for a cell coordinate in a cell key.
+   */
+  private static final long CELL_KEY_MASK = (1L << CELL_KEY_BITS) - 1;
+
+  /**
+   * The size of a cell on each axis.
+   */
+  private final double cellSize;
+
+  /**
+   * The number of coordinates in a location.
+   */
+  private final int dimensions;
+
+  /**
+   * The indices of the points in each cell, keyed by cell key.
+   */
+  private final Map<Long, IndexList> cells = new HashMap<Long, IndexList>();
+
+  /**
+   * The cell coordinates for the location being searched.
+   */
+  private final long[] searchCell;
+
+  /**
+   * Construct a new grid.
+   *
+   * @param cellSize
+   *          the size of a cell on each axis
+   * @param dimensions
+   *          the number of coordinates in a location, from 1 to 3
+   */
+  SpatialHashGrid(double cellSize, int dimensions) {
+    if (dimensions < 1 || dimensions > 3) {
+      throw new IllegalArgumentException(String.format("Spatial hash grids need 1 to 3 dimensions, not %d",
+          dimensions));
+    }
+
+    this.cellSize = cellSize;
+    this.dimensions = dimensions;
+    searchCell = new long[dimensions];
+  }
+
+  /**
+   * Remove all points from the grid.
+   */
+  void clear() {
+    cells.clear();
+  }
+
+  /**
+   * Add a point to the grid.
+   *
+   * @param index
+   *          the index of the point
+   * @param coordinates
+   *          the location of the point
+   */
+  void add(int index, double[] coordinates) {
+    for (int axis = 0; axis < dimensions; axis++) {
+      searchCell[axis] = getCellCoordinate(coordinates[axis]);
+    }
+
+    Long key = getCellKey(searchCell, null);
+    IndexList cell = cells.get(key);
+    if (cell == null) {
+      cell = new IndexList();
+      cells.put(key, cell);
+    }
+    cell.add(index);
+  }
+
+  /**
+   * Find all points in the cell holding a location and in its neighbouring cells.
+   *
+   * @param coordinates
+   *          the location
+   * @param candidates
+   *          the list the indices of the points are added to
+   */
+  void findCandidates(double[] coordinates, IndexList candidates) {
+    for (int axis = 0; axis < dimensions; axis++) {
+      searchCell[axis] = getCellCoordinate(coordinates[axis]);
+    }
+
+    int numberNeighbors = 1;
+    for (int axis = 0; axis < dimensions; axis++) {
+      numberNeighbors *= 3;
+    }
+
+    int[] offsets = new int[dimensions];
+    for (int neighbor = 0; neighbor < numberNeighbors; neighbor++) {
+      int remainder = neighbor;
+      for (int axis = 0; axis < dimensions; axis++) {
+        offsets[axis] = remainder % 3 - 1;
+        remainder /= 3;
+      }
+
+      IndexList cell = cells.get(getCellKey(searchCell, offsets));
+      if (cell != null) {
+        candidates.addAll(cell);
+      }
+    }
+  }
+
+  /**
+   * Get the cell coordinate for a coordinate.
+   *
+   * @param coordinate
+   *          the coordinate
+   *
+   * @return the cell coordinate
+   */
+  private long getCellCoordinate(double coordinate) {
+    return (long) Math.floor(coordinate / cellSize);
+  }
+
+  /**
+   * Get the key for a cell. Cells far enough apart can share a key, which only adds extra candidates.
+   *
+   * @param cell
+   *          the cell coordinates
+   * @param offsets
+   *          the offset to add to each cell coordinate, can be {@code null}
+   *
+   * @return the key for the cell
+   */
+  private Long getCellKey(long[] cell, int[] offsets) {
+    long key = 0;
+    for (int axis = 0; axis < dimensions; axis++) {
+      long coordinate = cell[axis];
+      if (offsets != null) {
+        coordinate += offsets[axis];
+      }
+      key = (key << CELL_KEY_BITS) | (coordinate & CELL_KEY_MASK);
+    }
+
+    return key;
+  }
+
+  /**
+   * A growable list of indices.
+   *
+   * @author agent
+   */
+  static class IndexList {
+
+    /**
+     * The indices.
+     */
+    private int[] indices = new int[4];
+
+    /**
+     * The number of indices in the list.
+     */
+    private int size;
+
+    /**
+     * Add an index to the list.
+     *
+     * @param index
+     *          the index
+     */
+    void add(int index) {
+      if (size == indices.length) {
+        indices = Arrays.copyOf(indices, size * 2);
+      }
+      indices[size++] = index;
+    }
+
+    /**
+     * Add all indices from another list.
+     *
+     * @param list
+     *          the other list
+     */
+    void addAll(IndexList list) {
+      for (int i = 0; i < list.size; i++) {
+        add(list.indices[i]);
+      }
+    }
+
+    /**
+     * Get an index from the list.
+     *
+     * @param position
+     *          position of the index in the list
+     *
+     * @return the index
+     */
+    int get(int position) {
+      return indices[position];
+    }
+
+    /**
+     * Get the number of indices in the list.
+     *
+     * @return the number of indices
+     */
+    int size() {
+      return size;
+    }
+
+    /**
+     * Remove all indices from the list.
+     */
+    void clear() {
+      size = 0;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.interaction.model.entity.tracker;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests for the {@link ConstantVelocityKalmanFilter}.
+ *
+ * @author agent
+ */
+public class ConstantVelocityKalmanFilterTest {
+
+  /**
+   * Noisy measurements of a still entity converge on its position with no velocity.
+   */
+  @Test
+  public void testConvergesOnStillEntity() {
+    Random random = new Random(7);
+    ConstantVelocityKalmanFilter filter =
+        new ConstantVelocityKalmanFilter(new double[] { 3.0, -2.0 }, 0.01, 0.25, 1.0);
+
+    for (int step = 0; step < 200; step++) {
+      filter.predict(0.1);
+      filter.update(new double[] { 5.0 + random.nextGaussian() * 0.5, 1.0 + random.nextGaussian() * 0.5 });
+    }
+
+    double[] position = filter.getPosition(new double[2]);
+    Assert.assertEquals(5.0, position[0], 0.2);
+    Assert.assertEquals(1.0, position[1], 0.2);
+
+    double[] velocity = filter.getVelocity(new double[2]);
+    Assert.assertEquals(0.0, velocity[0], 0.2);
+    Assert.assertEquals(0.0, velocity[1], 0.2);
+  }
+
+  /**
+   * Measurements of an entity moving at a constant velocity converge on that velocity, and predictions follow it.
+   */
+  @Test
+  public void testConvergesOnVelocity() {
+    ConstantVelocityKalmanFilter filter = new ConstantVelocityKalmanFilter(new double[] { 0.0 }, 0.01, 0.01, 4.0);
+
+    double dt = 0.05;
+    double speed = 2.0;
+    for (int step = 1; step <= 100; step++) {
+      filter.predict(dt);
+      filter.update(new double[] { speed * dt * step });
+    }
+
+    Assert.assertEquals(speed, filter.getVelocity(new double[1])[0], 0.01);
+    Assert.assertEquals(speed * dt * 100, filter.getPosition(new double[1])[0], 0.01);
+    Assert.assertEquals(speed * dt * 110, filter.predictPosition(0.5, new double[1])[0], 0.02);
+  }
+
+  /**
+   * Predicting moves the estimate by the velocity, and a prediction alone doesn't change the estimate.
+   */
+  @Test
+  public void testPredict() {
+    ConstantVelocityKalmanFilter filter = new ConstantVelocityKalmanFilter(new double[] { 1.0 }, 0.01, 0.01, 4.0);
+    filter.predict(1.0);
+    filter.update(new double[] { 3.0 });
+    double velocity = filter.getVelocity(new double[1])[0];
+    double position = filter.getPosition(new double[1])[0];
+    Assert.assertTrue(velocity > 0.0);
+
+    Assert.assertEquals(position + velocity * 2.0, filter.predictPosition(2.0, new double[1])[0], 1e-9);
+    Assert.assertEquals(position, filter.getPosition(new double[1])[0], 0.0);
+
+    filter.predict(2.0);
+    Assert.assertEquals(position + velocity * 2.0, filter.getPosition(new double[1])[0], 1e-9);
+  }
+
+  /**
+   * The filter starts at the first measurement, not moving.
+   */
+  @Test
+  public void testInitialState() {
+    ConstantVelocityKalmanFilter filter =
+        new ConstantVelocityKalmanFilter(new double[] { 1.0, 2.0, 3.0 }, 0.01, 0.01, 4.0);
+
+    Assert.assertArrayEquals(new double[] { 1.0, 2.0, 3.0 }, filter.getPosition(new double[3]), 0.0);
+    Assert.assertArrayEquals(new double[] { 0.0, 0.0, 0.0 }, filter.getVelocity(new double[3]), 0.0);
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.interaction.model.entity.tracker;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests for the {@link HungarianAssignment}.
+ *
+ * @author agent
+ */
+public class HungarianAssignmentTest {
+
+  /**
+   * A known matrix gets its known optimal assignment.
+   */
+  @Test
+  public void testKnownMatrix() {
+    double[][] costs = { { 4, 1, 3 }, { 2, 0, 5 }, { 3, 2, 2 } };
+
+    int[] assignment = HungarianAssignment.solve(costs, 3);
+
+    Assert.assertArrayEquals(new int[] { 1, 0, 2 }, assignment);
+    Assert.assertEquals(5.0, getCost(costs, assignment), 0.0);
+  }
+
+  /**
+   * Only the requested corner of a larger matrix is used.
+   */
+  @Test
+  public void testSizeSmallerThanMatrix() {
+    double[][] costs = { { 9, 1, 0 }, { 1, 9, 0 }, { 0, 0, 0 } };
+
+    Assert.assertArrayEquals(new int[] { 1, 0 }, HungarianAssignment.solve(costs, 2));
+  }
+
+  /**
+   * Random matrices get an assignment as cheap as the best found by trying every permutation.
+   */
+  @Test
+  public void testMatchesBruteForce() {
+    Random random = new Random(42);
+    for (int trial = 0; trial < 200; trial++) {
+      int size = 1 + random.nextInt(6);
+      double[][] costs = new double[size][size];
+      for (int row = 0; row < size; row++) {
+        for (int column = 0; column < size; column++) {
+          costs[row][column] = random.nextInt(20);
+        }
+      }
+
+      int[] assignment = HungarianAssignment.solve(costs, size);
+
+      assertPermutation(assignment, size);
+      Assert.assertEquals(getBruteForceCost(costs, new int[size], new boolean[size], 0), getCost(costs, assignment),
+          1e-9);
+    }
+  }
+
+  /**
+   * With more rows than columns, the extra rows are left unassigned.
+   */
+  @Test
+  public void testMoreRowsThanColumns() {
+    double[][] costs = { { 5, 1 }, { 1, 5 }, { 2, 2 } };
+
+    Assert.assertArrayEquals(new int[] { 1, 0, -1 }, HungarianAssignment.solveGated(costs, 3, 2, 100));
+  }
+
+  /**
+   * With more columns than rows, the cheapest columns are used.
+   */
+  @Test
+  public void testMoreColumnsThanRows() {
+    double[][] costs = { { 5, 3, 1 }, { 4, 1, 2 } };
+
+    Assert.assertArrayEquals(new int[] { 2, 1 }, HungarianAssignment.solveGated(costs, 2, 3, 100));
+  }
+
+  /**
+   * A pair at or beyond the gate cost is never assigned.
+   */
+  @Test
+  public void testGateThreshold() {
+    double[][] costs = { { 10, 3 }, { 9.99, 10 } };
+
+    Assert.assertArrayEquals(new int[] { 1, 0 }, HungarianAssignment.solveGated(costs, 2, 2, 10));
+    Assert.assertArrayEquals(new int[] { -1 }, HungarianAssignment.solveGated(new double[][] { { 10 } }, 1, 1, 10));
+    Assert.assertArrayEquals(new int[] { -1 }, HungarianAssignment.solveGated(new double[][] { { 25 } }, 1, 1, 10));
+  }
+
+  /**
+   * Gated pairs are not forced on a row just to make the total smaller.
+   */
+  @Test
+  public void testGatePrefersRealPairs() {
+    // Row 0 fits either column, row 1 only fits column 0. Both rows should be paired.
+    double[][] costs = { { 1, 2 }, { 3, 100 } };
+
+    Assert.assertArrayEquals(new int[] { 1, 0 }, HungarianAssignment.solveGated(costs, 2, 2, 10));
+  }
+
+  /**
+   * Get the total cost of an assignment.
+   *
+   * @param costs
+   *          the cost matrix
+   * @param assignment
+   *          the column for each row
+   *
+   * @return the total cost
+   */
+  private double getCost(double[][] costs, int[] assignment) {
+    double cost = 0;
+    for (int row = 0; row < assignment.length; row++) {
+      cost += costs[row][assignment[row]];
+    }
+
+    return cost;
+  }
+
+  /**
+   * Get the smallest total cost of any assignment by trying them all.
+   *
+   * @param costs
+   *          the cost matrix
+   * @param assignment
+   *          the assignment being built
+   * @param used
+   *          which columns have been used
+   * @param row
+   *          the row being assigned
+   *
+   * @return the smallest total cost
+   */
+  private double getBruteForceCost(double[][] costs, int[] assignment, boolean[] used, int row) {
+    if (row == assignment.length) {
+      return getCost(costs, assignment);
+    }
+
+    double best = Double.POSITIVE_INFINITY;
+    for (int column = 0; column < assignment.length; column++) {
+      if (!used[column]) {
+        used[column] = true;
+        assignment[row] = column;
+        best = Math.min(best, getBruteForceCost(costs, assignment, used, row + 1));
+        used[column] = false;
+      }
+    }
+
+    return best;
+  }
+
+  /**
+   * Assert that an assignment uses every column exactly once.
+   *
+   * @param assignment
+   *          the assignment
+   * @param size
+   *          the number of columns
+   */
+  private void assertPermutation(int[] assignment, int size) {
+    boolean[] used = new boolean[size];
+    for (int column : assignment) {
+      Assert.assertFalse(used[column]);
+      used[column] = true;
+    }
+  }
+}
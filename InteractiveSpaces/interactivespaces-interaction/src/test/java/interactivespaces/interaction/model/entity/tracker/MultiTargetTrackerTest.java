@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.interaction.model.entity.tracker;
+
+import interactivespaces.interaction.model.entity.TrackedEntity;
+import interactivespaces.interaction.model.entity.TrackedEntityListener;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the {@link MultiTargetTracker}.
+ *
+ * @author agent
+ */
+public class MultiTargetTrackerTest {
+
+  /**
+   * How long a track can go unseen, in milliseconds.
+   */
+  private static final long LOST_TIMEOUT = 500;
+
+  private MultiTargetTracker<double[]> tracker;
+
+  private List<List<TrackedEntity<double[]>>> updates;
+
+  @Before
+  public void setup() {
+    tracker = new MultiTargetTracker<double[]>(new ArrayPositionCoordinates(), 1.0, 0.5, 0.01, LOST_TIMEOUT);
+
+    updates = new ArrayList<List<TrackedEntity<double[]>>>();
+    tracker.addTrackedEntityListener(new TrackedEntityListener<double[]>() {
+      @Override
+      public void onTrackedEntityUpdate(List<TrackedEntity<double[]>> entities) {
+        updates.add(entities);
+      }
+    });
+  }
+
+  /**
+   * Entities moving close to each other keep their IDs from frame to frame, whatever order the detections come in.
+   */
+  @Test
+  public void testIdStability() {
+    List<TrackedEntity<double[]>> first =
+        tracker.update(Arrays.asList(point(0.0, 0.0), point(0.0, 1.5)), 0);
+    Assert.assertEquals(2, first.size());
+    for (TrackedEntity<double[]> entity : first) {
+      Assert.assertTrue(entity.isNew());
+      Assert.assertTrue(entity.isVisible());
+    }
+    String lowerId = findNearest(first, 0.0, 0.0).getId();
+    String upperId = findNearest(first, 0.0, 1.5).getId();
+    Assert.assertFalse(lowerId.equals(upperId));
+
+    for (int frame = 1; frame <= 20; frame++) {
+      double x = 0.2 * frame;
+      List<double[]> detections = new ArrayList<double[]>();
+      detections.add(point(x, 0.0));
+      detections.add(point(x, 1.5));
+      if (frame % 2 == 0) {
+        Collections.reverse(detections);
+      }
+
+      List<TrackedEntity<double[]>> update = tracker.update(detections, frame * 100);
+
+      Assert.assertEquals(2, update.size());
+      Assert.assertEquals(lowerId, findNearest(update, x, 0.0).getId());
+      Assert.assertEquals(upperId, findNearest(update, x, 1.5).getId());
+      for (TrackedEntity<double[]> entity : update) {
+        Assert.assertFalse(entity.isNew());
+        Assert.assertTrue(entity.isVisible());
+        Assert.assertFalse(entity.isLost());
+      }
+    }
+
+    Assert.assertEquals(2, tracker.getNumberTracks());
+    Assert.assertEquals(21, updates.size());
+  }
+
+  /**
+   * When detections compete for tracks, the pairing with the smallest total distance wins.
+   */
+  @Test
+  public void testCompetingDetections() {
+    tracker.update(Arrays.asList(point(0.0, 0.0), point(0.8, 0.0)), 0);
+    String leftId = findNearest(tracker.getTrackedEntities(), 0.0, 0.0).getId();
+    String rightId = findNearest(tracker.getTrackedEntities(), 0.8, 0.0).getId();
+
+    // Both detections are within the gate of both tracks.
+    List<TrackedEntity<double[]>> update = tracker.update(Arrays.asList(point(0.9, 0.0), point(0.1, 0.0)), 100);
+
+    Assert.assertEquals(2, update.size());
+    Assert.assertEquals(leftId, findNearest(update, 0.1, 0.0).getId());
+    Assert.assertEquals(rightId, findNearest(update, 0.9, 0.0).getId());
+  }
+
+  /**
+   * A detection outside the gate of every track starts a new track.
+   */
+  @Test
+  public void testOutsideGateStartsNewTrack() {
+    tracker.update(Collections.singletonList(point(0.0, 0.0)), 0);
+    String id = tracker.getTrackedEntities().get(0).getId();
+
+    List<TrackedEntity<double[]>> update = tracker.update(Collections.singletonList(point(1.5, 0.0)), 100);
+
+    Assert.assertEquals(2, update.size());
+    TrackedEntity<double[]> old = findById(update, id);
+    Assert.assertFalse(old.isVisible());
+    Assert.assertFalse(old.isLost());
+    TrackedEntity<double[]> created = findNearest(update, 1.5, 0.0);
+    Assert.assertFalse(id.equals(created.getId()));
+    Assert.assertTrue(created.isNew());
+  }
+
+  /**
+   * An entity which stops being seen is reported invisible, then lost once the timeout passes, then dropped.
+   */
+  @Test
+  public void testLostAndExpired() {
+    tracker.update(Collections.singletonList(point(0.0, 0.0)), 0);
+    String id = tracker.getTrackedEntities().get(0).getId();
+
+    List<double[]> none = Collections.emptyList();
+    List<TrackedEntity<double[]>> update = tracker.update(none, 200);
+    Assert.assertEquals(1, update.size());
+    Assert.assertFalse(update.get(0).isVisible());
+    Assert.assertFalse(update.get(0).isLost());
+    Assert.assertEquals(1, tracker.getNumberTracks());
+    Assert.assertNotNull(tracker.predictPosition(id, 300));
+
+    update = tracker.update(none, LOST_TIMEOUT);
+    Assert.assertEquals(1, update.size());
+    Assert.assertFalse(update.get(0).isLost());
+
+    update = tracker.update(none, LOST_TIMEOUT + 1);
+    Assert.assertEquals(1, update.size());
+    Assert.assertEquals(id, update.get(0).getId());
+    Assert.assertTrue(update.get(0).isLost());
+    Assert.assertEquals(0, tracker.getNumberTracks());
+    Assert.assertNull(tracker.predictPosition(id, LOST_TIMEOUT + 1));
+
+    int numberUpdates = updates.size();
+    Assert.assertTrue(tracker.update(none, LOST_TIMEOUT + 100).isEmpty());
+    Assert.assertEquals("Empty frames should not be sent to listeners", numberUpdates, updates.size());
+  }
+
+  /**
+   * A track seen again before the timeout is visible again and keeps its ID.
+   */
+  @Test
+  public void testReacquired() {
+    tracker.update(Collections.singletonList(point(0.0, 0.0)), 0);
+    String id = tracker.getTrackedEntities().get(0).getId();
+
+    List<double[]> none = Collections.emptyList();
+    tracker.update(none, 100);
+    tracker.update(none, 200);
+    List<TrackedEntity<double[]>> update = tracker.update(Collections.singletonList(point(0.1, 0.0)), 300);
+
+    Assert.assertEquals(1, update.size());
+    Assert.assertEquals(id, update.get(0).getId());
+    Assert.assertTrue(update.get(0).isVisible());
+  }
+
+  /**
+   * Create a point.
+   *
+   * @param x
+   *          the x coordinate
+   * @param y
+   *          the y coordinate
+   *
+   * @return the point
+   */
+  private static double[] point(double x, double y) {
+    return new double[] { x, y };
+  }
+
+  /**
+   * Find the entity nearest a location.
+   *
+   * @param entities
+   *          the entities to search
+   * @param x
+   *          the x coordinate
+   * @param y
+   *          the y coordinate
+   *
+   * @return the nearest entity
+   */
+  private TrackedEntity<double[]> findNearest(List<TrackedEntity<double[]>> entities, double x, double y) {
+    TrackedEntity<double[]> nearest = null;
+    double nearestDistance = Double.POSITIVE_INFINITY;
+    for (TrackedEntity<double[]> entity : entities) {
+      double dx = entity.getPosition()[0] - x;
+      double dy = entity.getPosition()[1] - y;
+      double distance = dx * dx + dy * dy;
+      if (distance < nearestDistance) {
+        nearest = entity;
+        nearestDistance = distance;
+      }
+    }
+
+    return nearest;
+  }
+
+  /**
+   * Find an entity by ID.
+   *
+   * @param entities
+   *          the entities to search
+   * @param id
+   *          the ID
+   *
+   * @return the entity
+   */
+  private TrackedEntity<double[]> findById(List<TrackedEntity<double[]>> entities, String id) {
+    Map<String, TrackedEntity<double[]>> byId = new HashMap<String, TrackedEntity<double[]>>();
+    for (TrackedEntity<double[]> entity : entities) {
+      byId.put(entity.getId(), entity);
+    }
+    Assert.assertTrue(byId.containsKey(id));
+
+    return byId.get(id);
+  }
+
+  /**
+   * Positions which are simply arrays of two coordinates.
+   *
+   * @author agent
+   */
+  private static class ArrayPositionCoordinates implements PositionCoordinates<double[]> {
+
+    @Override
+    public int getDimensions() {
+      return 2;
+    }
+
+    @Override
+    public void getCoordinates(double[] position, double[] coordinates) {
+      System.arraycopy(position, 0, coordinates, 0, 2);
+    }
+
+    @Override
+    public double[] newPosition(double[] coordinates) {
+      return coordinates.clone();
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.interaction.model.entity.tracker;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests for the {@link SpatialHashGrid}.
+ *
+ * @author agent
+ */
+public class SpatialHashGridTest {
+
+  /**
+   * Points just across a cell border are candidates, points two cells away are not.
+   */
+  @Test
+  public void testAcrossCellBorder() {
+    SpatialHashGrid grid = new SpatialHashGrid(1.0, 2);
+    grid.add(0, new double[] { 0.99, 0.5 });
+    grid.add(1, new double[] { 1.01, 0.5 });
+    grid.add(2, new double[] { 2.5, 0.5 });
+    grid.add(3, new double[] { 3.5, 0.5 });
+
+    Assert.assertEquals(set(0, 1, 2), findCandidates(grid, 1.01, 0.5));
+    Assert.assertEquals(set(0, 1), findCandidates(grid, 0.5, 0.5));
+  }
+
+  /**
+   * Cell borders at zero and in negative coordinates are handled like any other.
+   */
+  @Test
+  public void testNegativeCoordinates() {
+    SpatialHashGrid grid = new SpatialHashGrid(1.0, 1);
+    grid.add(0, new double[] { -0.01 });
+    grid.add(1, new double[] { 0.01 });
+    grid.add(2, new double[] { -1.5 });
+    grid.add(3, new double[] { -2.5 });
+
+    Assert.assertEquals(set(0, 1), findCandidates(grid, 0.01));
+    Assert.assertEquals(set(0, 2, 3), findCandidates(grid, -1.5));
+  }
+
+  /**
+   * Diagonal neighbours are found in three dimensions.
+   */
+  @Test
+  public void testDiagonalNeighbors() {
+    SpatialHashGrid grid = new SpatialHashGrid(2.0, 3);
+    grid.add(0, new double[] { 1.9, 1.9, 1.9 });
+    grid.add(1, new double[] { -0.1, -0.1, -0.1 });
+    grid.add(2, new double[] { 4.1, 1.9, 1.9 });
+
+    Assert.assertEquals(set(0, 1), findCandidates(grid, 0.1, 0.1, 0.1));
+    Assert.assertEquals(set(0, 2), findCandidates(grid, 2.1, 2.1, 2.1));
+  }
+
+  /**
+   * Clearing the grid removes every point.
+   */
+  @Test
+  public void testClear() {
+    SpatialHashGrid grid = new SpatialHashGrid(1.0, 2);
+    grid.add(0, new double[] { 0.5, 0.5 });
+    grid.clear();
+
+    Assert.assertEquals(set(), findCandidates(grid, 0.5, 0.5));
+  }
+
+  /**
+   * Only 1 to 3 dimensions are supported.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooManyDimensions() {
+    new SpatialHashGrid(1.0, 4);
+  }
+
+  /**
+   * Find the candidates near a location.
+   *
+   * @param grid
+   *          the grid to search
+   * @param coordinates
+   *          the location
+   *
+   * @return the indices of the candidates
+   */
+  private Set<Integer> findCandidates(SpatialHashGrid grid, double... coordinates) {
+    SpatialHashGrid.IndexList candidates = new SpatialHashGrid.IndexList();
+    grid.findCandidates(coordinates, candidates);
+
+    Set<Integer> result = new HashSet<Integer>();
+    for (int i = 0; i < candidates.size(); i++) {
+      Assert.assertTrue("Candidate found twice", result.add(candidates.get(i)));
+    }
+
+    return result;
+  }
+
+  /**
+   * Create a set of indices.
+   *
+   * @param indices
+   *          the indices
+   *
+   * @return the set
+   */
+  private Set<Integer> set(Integer... indices) {
+    Set<Integer> result = new HashSet<Integer>();
+    for (Integer index : indices) {
+      result.add(index);
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.launcher.bootstrap;
+
+import org.apache.commons.logging.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Timings for how long each part of the container boot took, down to the individual bundles.
+ *
+ * @author agent
+ */
+public class BundleStartupProfile {
+
+  /**
+   * The time the boot started, in milliseconds since the epoch.
+   */
+  private final long bootStartTime;
+
+  /**
+   * Timings for the boot phases, in the order they happened.
+   */
+  private final Map<String, Long> phaseTimes = new LinkedHashMap<String, Long>();
+
+  /**
+   * Timings for the individual bundles, keyed by bundle name.
+   */
+  private final Map<String, BundleTiming> bundleTimings = new ConcurrentHashMap<String, BundleTiming>();
+
+  /**
+   * {@code true} if the boot reused the plugins cache.
+   */
+  private volatile boolean warmStart;
+
+  /**
+   * Construct a new profile.
+   *
+   * @param bootStartTime
+   *          the time the boot started, in milliseconds since the epoch
+   */
+  public BundleStartupProfile(long bootStartTime) {
+    this.bootStartTime = bootStartTime;
+  }
+
+  /**
+   * Set whether the boot reused the plugins cache.
+   *
+   * @param warmStart
+   *          {@code true} if the plugins cache was reused
+   */
+  public void setWarmStart(boolean warmStart) {
+    this.warmStart = warmStart;
+  }
+
+  /**
+   * Record how long a boot phase took.
+   *
+   * @param phase
+   *          name of the phase
+   * @param time
+   *          how long the phase took, in milliseconds
+   */
+  public synchronized void recordPhase(String phase, long time) {
+    phaseTimes.put(phase, time);
+  }
+
+  /**
+   * Record how long it took to install a bundle.
+   *
+   * @param bundleName
+   *          name of the bundle
+   * @param time
+   *          how long the install took, in milliseconds
+   */
+  public void recordInstall(String bundleName, long time) {
+    getBundleTiming(bundleName).installTime = time;
+  }
+
+  /**
+   * Record how long it took to start a bundle.
+   *
+   * @param bundleName
+   *          name of the bundle
+   * @param startLevel
+   *          the start level of the bundle
+   * @param time
+   *          how long the start took, in milliseconds
+   */
+  public void recordStart(String bundleName, int startLevel, long time) {
+    BundleTiming timing = getBundleTiming(bundleName);
+    timing.startLevel = startLevel;
+    timing.startTime = time;
+  }
+
+  /**
+   * Is the boot reusing the plugins cache?
+   *
+   * @return {@code true} if the plugins cache was reused
+   */
+  public boolean isWarmStart() {
+    return warmStart;
+  }
+
+  /**
+   * Get how long a boot phase took.
+   *
+   * @param phase
+   *          name of the phase
+   *
+   * @return how long the phase took, in milliseconds, or {@code null} if the phase wasn't recorded
+   */
+  public synchronized Long getPhaseTime(String phase) {
+    return phaseTimes.get(phase);
+  }
+
+  /**
+   * Get the names of the recorded boot phases.
+   *
+   * @return the phase names, in the order they were first recorded
+   */
+  public synchronized List<String> getPhases() {
+    return new ArrayList<String>(phaseTimes.keySet());
+  }
+
+  /**
+   * Get how long it took to install a bundle.
+   *
+   * @param bundleName
+   *          name of the bundle
+   *
+   * @return how long the install took, in milliseconds, 0 if not recorded
+   */
+  public long getInstallTime(String bundleName) {
+    BundleTiming timing = bundleTimings.get(bundleName);
+    return timing != null ? timing.installTime : 0;
+  }
+
+  /**
+   * Get how long it took to start a bundle.
+   *
+   * @param bundleName
+   *          name of the bundle
+   *
+   * @return how long the start took, in milliseconds, 0 if not recorded
+   */
+  public long getStartTime(String bundleName) {
+    BundleTiming timing = bundleTimings.get(bundleName);
+    return timing != null ? timing.startTime : 0;
+  }
+
+  /**
+   * Get the start level a bundle was started at.
+   *
+   * @param bundleName
+   *          name of the bundle
+   *
+   * @return the start level, 0 if not recorded
+   */
+  public int getStartLevel(String bundleName) {
+    BundleTiming timing = bundleTimings.get(bundleName);
+    return timing != null ? timing.startLevel : 0;
+  }
+
+  /**
+   * Log the profile.
+   *
+   * @param log
+   *          the log to write to
+   * @param detailed
+   *          {@code true} if the timings for each phase and bundle should be logged, otherwise only a summary is
+   *          logged
+   */
+  public synchronized void log(Log log, boolean detailed) {
+    log.info(String.format("Container boot took %d msec with a %s plugins cache", System.currentTimeMillis()
+        - bootStartTime, warmStart ? "warm" : "cold"));
+    if (!detailed) {
+      return;
+    }
+
+    for (Map.Entry<String, Long> phase : phaseTimes.entrySet()) {
+      log.info(String.format("Boot phase %s took %d msec", phase.getKey(), phase.getValue()));
+    }
+
+    List<BundleTiming> timings = new ArrayList<BundleTiming>(bundleTimings.values());
+    Collections.sort(timings, new Comparator<BundleTiming>() {
+      @Override
+      public int compare(BundleTiming o1, BundleTiming o2) {
+        long total1 = o1.installTime + o1.startTime;
+        long total2 = o2.installTime + o2.startTime;
+        return total1 < total2 ? 1 : (total1 > total2 ? -1 : 0);
+      }
+    });
+    for (BundleTiming timing : timings) {
+      log.info(String.format("Bundle %s: install %d msec, start %d msec, start level %d", timing.bundleName,
+          timing.installTime, timing.startTime, timing.startLevel));
+    }
+  }
+
+  /**
+   * Get the timing for a bundle, creating it if needed.
+   *
+   * @param bundleName
+   *          name of the bundle
+   *
+   * @return the timing for the bundle
+   */
+  private BundleTiming getBundleTiming(String bundleName) {
+    BundleTiming timing = bundleTimings.get(bundleName);
+    if (timing == null) {
+      synchronized (bundleTimings) {
+        timing = bundleTimings.get(bundleName);
+        if (timing == null) {
+          timing = new BundleTiming(bundleName);
+          bundleTimings.put(bundleName, timing);
+        }
+      }
+    }
+
+    return timing;
+  }
+
+  /**
+   * The timings for a single bundle.
+   *
+   * @author agent
+   */
+  private static class BundleTiming {
+
+    /**
+     * Name of the bundle.
+     */
+    private final String bundleName;
+
+    /**
+     * How long the install took, in milliseconds.
+     */
+    private volatile long installTime;
+
+    /**
+     * How long the start took, in milliseconds.
+     */
+    private volatile long startTime;
+
+    /**
+     * The start level of the bundle.
+     */
+    private volatile int startLevel;
+
+    /**
+     * Construct a new timing.
+     *
+     * @param bundleName
+     *          name of the bundle
+     */
+    public BundleTiming(String bundleName) {
+      this.bundleName = bundleName;
+    }
+  }
+}
@@ -24,16 +24,20 @@ import interactivespaces.system.core.container.InteractiveSpacesStartLevel;
 import interactivespaces.system.core.container.SimpleContainerCustomizerProvider;
 import interactivespaces.system.core.logging.LoggingProvider;
 
+import org.apache.commons.logging.Log;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.BundleEvent;
 import org.osgi.framework.BundleException;
 import org.osgi.framework.Constants;
+import org.osgi.framework.FrameworkEvent;
+import org.osgi.framework.FrameworkListener;
 import org.osgi.framework.SynchronousBundleListener;
 import org.osgi.framework.launch.Framework;
 import org.osgi.framework.launch.FrameworkFactory;
 import org.osgi.framework.startlevel.BundleStartLevel;
 import org.osgi.framework.startlevel.FrameworkStartLevel;
+import org.osgi.framework.wiring.FrameworkWiring;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -50,6 +54,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 
@@ -70,6 +81,28 @@ public class InteractiveSpacesFrameworkBootstrap {
    */
   public static final String CONFIG_PROPERTY_VALUE_STARTUP_LOGGING = "true";
 
+  /**
+   * Configuration parameter to specify if the timings for each bundle should be logged at the end of the boot.
+   */
+  public static final String CONFIG_PROPERTY_STARTUP_PROFILE = "interactivespaces.logging.container.startup.profile";
+
+  /**
+   * Configuration parameter to specify if the plugins cache can be reused when the bundle set has not changed.
+   */
+  public static final String CONFIG_PROPERTY_WARM_START = "interactivespaces.container.warmstart";
+
+  /**
+   * Configuration parameter for the number of threads used to start the bundles in a start level. A value of 1 starts
+   * the bundles one after another.
+   */
+  public static final String CONFIG_PROPERTY_STARTUP_THREADS = "interactivespaces.container.startup.threads";
+
+  /**
+   * The default number of threads used to start the bundles in a start level. Bundles are started one after another
+   * unless parallel starts are asked for, since starting them in parallel changes their activation order.
+   */
+  public static final int STARTUP_THREADS_DEFAULT = 1;
+
   /**
    * The argument for saying the container should run with no shell access.
    */
@@ -185,6 +218,41 @@ public class InteractiveSpacesFrameworkBootstrap {
    */
   private FrameworkStartLevel frameworkStartLevel;
 
+  /**
+   * The timings for the boot.
+   */
+  private BundleStartupProfile startupProfile;
+
+  /**
+   * {@code true} if the timings for each bundle should be logged at the end of the boot.
+   */
+  private boolean startupProfileDetailed;
+
+  /**
+   * The fingerprint for the plugins cache.
+   */
+  private PluginsCacheFingerprint pluginsCacheFingerprint;
+
+  /**
+   * The fingerprint of the bundle set for this boot.
+   */
+  private String bundleSetFingerprint;
+
+  /**
+   * {@code true} if reusing the plugins cache is allowed.
+   */
+  private boolean warmStartEnabled;
+
+  /**
+   * {@code true} if the plugins cache from the last boot is being reused.
+   */
+  private boolean warmStart;
+
+  /**
+   * Number of threads for starting bundles.
+   */
+  private int startupThreads = STARTUP_THREADS_DEFAULT;
+
   /**
    * Boot the framework.
    *
@@ -192,6 +260,7 @@ public class InteractiveSpacesFrameworkBootstrap {
    *          the arguments to be passed to the bootstrap
    */
   public void boot(List<String> args) {
+    startupProfile = new BundleStartupProfile(System.currentTimeMillis());
 
     baseInstallFolder = new File(".").getAbsoluteFile().getParentFile();
 
@@ -222,18 +291,21 @@ public class InteractiveSpacesFrameworkBootstrap {
       ExtensionsReader extensionsReader = new ExtensionsReader(loggingProvider.getLog());
       extensionsReader.processExtensionFiles(environmentFolder);
 
+      addContainerPathBundles(initialBundles, extensionsReader.getContainerPath());
+
       createFramework(extensionsReader);
 
       registerCoreServices();
 
       loadClasses(extensionsReader.getLoadClasses());
 
-      addContainerPathBundles(initialBundles, extensionsReader.getContainerPath());
-
       framework.start();
 
       startBundles(initialBundles);
-      frameworkStartLevel.setStartLevel(InteractiveSpacesStartLevel.STARTUP_LEVEL_LAST.getStartLevel());
+      setFrameworkStartLevel(InteractiveSpacesStartLevel.STARTUP_LEVEL_LAST.getStartLevel());
+
+      savePluginsCacheFingerprint();
+      startupProfile.log(loggingProvider.getLog(), startupProfileDetailed);
 
       framework.waitForStop(0);
       System.exit(0);
@@ -326,6 +398,10 @@ public class InteractiveSpacesFrameworkBootstrap {
   /**
    * Start all bundles.
    *
+   * <p>
+   * All bundles are installed and resolved first. The bundles in each start level are then started, using several
+   * threads if configured to, before the framework moves on to the next start level.
+   *
    * @param jars
    *          the jars to start as OSGi bundles
    *
@@ -333,10 +409,12 @@ public class InteractiveSpacesFrameworkBootstrap {
    *           something happened while starting bundles that could not be recovered from
    */
   private void startBundles(List<File> jars) throws BundleException {
+    long phaseStart = System.currentTimeMillis();
     for (File bundleFile : jars) {
-      String bundleUri = bundleFile.getAbsoluteFile().toURI().toString();
+      String bundleUri = getBundleUri(bundleFile);
 
       try {
+        long installStart = System.currentTimeMillis();
         Bundle bundle = rootBundleContext.installBundle(bundleUri);
 
         String symbolicName = bundle.getSymbolicName();
@@ -358,6 +436,7 @@ public class InteractiveSpacesFrameworkBootstrap {
           }
 
           bundles.add(bundle);
+          startupProfile.recordInstall(symbolicName, System.currentTimeMillis() - installStart);
         } else {
           logBadBundle(bundleUri, new Exception("No symbolic name"));
         }
@@ -365,9 +444,11 @@ public class InteractiveSpacesFrameworkBootstrap {
         logBadBundle(bundleUri, e);
       }
     }
+    startupProfile.recordPhase("install", System.currentTimeMillis() - phaseStart);
 
-    // Start all installed non-fragment bundles.
-    for (final Bundle bundle : bundles) {
+    // Group all installed non-fragment bundles by start level.
+    Map<Integer, List<Bundle>> startLevelBundles = new TreeMap<Integer, List<Bundle>>();
+    for (Bundle bundle : bundles) {
       if (!isFragment(bundle)) {
         // TODO(keith): See if way to start up shell from property
         // since we may want it for remote access.
@@ -376,11 +457,125 @@ public class InteractiveSpacesFrameworkBootstrap {
           continue;
         }
 
-        startBundle(bundle);
+        int startLevel = bundle.adapt(BundleStartLevel.class).getStartLevel();
+        List<Bundle> levelBundles = startLevelBundles.get(startLevel);
+        if (levelBundles == null) {
+          levelBundles = new ArrayList<Bundle>();
+          startLevelBundles.put(startLevel, levelBundles);
+        }
+        levelBundles.add(bundle);
+      }
+    }
+
+    // Resolve everything at once so the bundle starts don't each contend for the resolver.
+    phaseStart = System.currentTimeMillis();
+    framework.adapt(FrameworkWiring.class).resolveBundles(bundles);
+    startupProfile.recordPhase("resolve", System.currentTimeMillis() - phaseStart);
+
+    phaseStart = System.currentTimeMillis();
+    ExecutorService executorService = null;
+    if (startupThreads > 1) {
+      executorService = Executors.newFixedThreadPool(startupThreads, new BundleStartThreadFactory());
+    }
+    try {
+      for (Map.Entry<Integer, List<Bundle>> levelBundles : startLevelBundles.entrySet()) {
+        int startLevel = levelBundles.getKey();
+        setFrameworkStartLevel(startLevel);
+        startBundles(levelBundles.getValue(), startLevel, executorService);
+      }
+    } finally {
+      if (executorService != null) {
+        executorService.shutdown();
+      }
+    }
+    startupProfile.recordPhase("start", System.currentTimeMillis() - phaseStart);
+  }
+
+  /**
+   * Start all bundles in a start level.
+   *
+   * @param levelBundles
+   *          the bundles to start
+   * @param startLevel
+   *          the start level of the bundles
+   * @param executorService
+   *          the executor service to start the bundles with, can be {@code null} to start them in the calling thread
+   *
+   * @throws BundleException
+   *           interrupted while waiting for the bundles to start
+   */
+  private void startBundles(List<Bundle> levelBundles, final int startLevel, ExecutorService executorService)
+      throws BundleException {
+    if (executorService == null || levelBundles.size() == 1) {
+      for (Bundle bundle : levelBundles) {
+        startBundle(bundle, startLevel);
+      }
+
+      return;
+    }
+
+    List<Callable<Void>> starts = new ArrayList<Callable<Void>>();
+    for (final Bundle bundle : levelBundles) {
+      starts.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          startBundle(bundle, startLevel);
+
+          return null;
+        }
+      });
+    }
+
+    try {
+      executorService.invokeAll(starts);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BundleException(String.format("Interrupted while starting bundles at start level %d", startLevel), e);
+    }
+  }
+
+  /**
+   * Move the framework to a start level and wait for the move to complete.
+   *
+   * @param startLevel
+   *          the start level to move to, nothing happens if the framework is already at or above this level
+   *
+   * @throws BundleException
+   *           interrupted while waiting for the start level change
+   */
+  private void setFrameworkStartLevel(int startLevel) throws BundleException {
+    if (frameworkStartLevel.getStartLevel() >= startLevel) {
+      return;
+    }
+
+    final CountDownLatch changed = new CountDownLatch(1);
+    frameworkStartLevel.setStartLevel(startLevel, new FrameworkListener() {
+      @Override
+      public void frameworkEvent(FrameworkEvent event) {
+        changed.countDown();
       }
+    });
+
+    try {
+      changed.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BundleException(String.format("Interrupted while moving to start level %d", startLevel), e);
     }
   }
 
+  /**
+   * Get the URI used as the location of a bundle.
+   *
+   * @param bundleFile
+   *          the file for the bundle
+   *
+   * @return the URI for the bundle
+   */
+  private String getBundleUri(File bundleFile) {
+    return bundleFile.getAbsoluteFile().toURI().toString();
+  }
+
   /**
    * Log that we had a bad bundle.
    *
@@ -397,15 +592,22 @@ public class InteractiveSpacesFrameworkBootstrap {
   /**
    * Start a particular bundle.
    *
+   * <p>
+   * The start is transient so that a reused plugins cache doesn't have the framework start the bundle on its own.
+   *
    * @param bundle
    *          the bundle to start
+   * @param startLevel
+   *          the start level of the bundle
    */
-  private void startBundle(Bundle bundle) {
+  private void startBundle(Bundle bundle, int startLevel) {
+    long start = System.currentTimeMillis();
     try {
-      bundle.start();
+      bundle.start(Bundle.START_TRANSIENT);
     } catch (Exception e) {
       loggingProvider.getLog().error(String.format("Error while starting bundle %s", bundle.getLocation()), e);
     }
+    startupProfile.recordStart(bundle.getSymbolicName(), startLevel, System.currentTimeMillis() - start);
   }
 
   /**
@@ -418,9 +620,9 @@ public class InteractiveSpacesFrameworkBootstrap {
    *           unable to create and/or start the framework
    */
   private void createFramework(ExtensionsReader extensionsReader) throws Exception {
-    Map<String, String> m = new HashMap<String, String>();
+    long phaseStart = System.currentTimeMillis();
 
-    m.put(Constants.FRAMEWORK_STORAGE_CLEAN, "onFirstInit");
+    Map<String, String> m = new HashMap<String, String>();
 
     String delegations = getClassloaderDelegations();
     if (delegations != null) {
@@ -461,12 +663,19 @@ public class InteractiveSpacesFrameworkBootstrap {
         new File(new File(runtimeFolder, ContainerFilesystemLayout.FOLDER_INTERACTIVESPACES_RUN), FOLDER_PLUGINS_CACHE);
     m.put(Constants.FRAMEWORK_STORAGE, pluginsCacheFolder.getCanonicalPath());
 
+    configureStartup(m, pluginsCacheFolder);
+
     framework = getFrameworkFactory().newFramework(m);
     frameworkStartLevel = framework.adapt(FrameworkStartLevel.class);
 
     framework.init();
     rootBundleContext = framework.getBundleContext();
 
+    if (warmStart) {
+      uninstallUnknownBundles();
+    }
+    startupProfile.recordPhase("framework", System.currentTimeMillis() - phaseStart);
+
     if (CONFIG_PROPERTY_VALUE_STARTUP_LOGGING.equals(m.get(CONFIG_PROPERTY_STARTUP_LOGGING))) {
       rootBundleContext.addBundleListener(new SynchronousBundleListener() {
         @Override
@@ -486,6 +695,113 @@ public class InteractiveSpacesFrameworkBootstrap {
     }
   }
 
+  /**
+   * Configure how the bundles will be started and whether the plugins cache from the last boot can be reused.
+   *
+   * @param frameworkConfig
+   *          the configuration for the framework, the storage clean property will be added if the plugins cache can't
+   *          be reused
+   * @param pluginsCacheFolder
+   *          the folder for the plugins cache
+   */
+  private void configureStartup(Map<String, String> frameworkConfig, File pluginsCacheFolder) {
+    startupProfileDetailed =
+        CONFIG_PROPERTY_VALUE_STARTUP_LOGGING.equals(frameworkConfig.get(CONFIG_PROPERTY_STARTUP_PROFILE));
+    warmStartEnabled = !"false".equals(frameworkConfig.get(CONFIG_PROPERTY_WARM_START));
+
+    startupThreads = STARTUP_THREADS_DEFAULT;
+    String startupThreadsValue = frameworkConfig.get(CONFIG_PROPERTY_STARTUP_THREADS);
+    if (startupThreadsValue != null) {
+      try {
+        startupThreads = Math.max(1, Integer.parseInt(startupThreadsValue.trim()));
+      } catch (NumberFormatException e) {
+        loggingProvider.getLog().warn(
+            String.format("Bad value %s for %s, using %d threads", startupThreadsValue, CONFIG_PROPERTY_STARTUP_THREADS,
+                startupThreads));
+      }
+    }
+
+    // Only the configuration which changes how bundles are resolved matters for reusing the cache.
+    Map<String, String> resolutionConfig = new HashMap<String, String>();
+    for (String key : new String[] { Constants.FRAMEWORK_BOOTDELEGATION, Constants.FRAMEWORK_SYSTEMPACKAGES_EXTRA,
+        CoreConfiguration.CONFIGURATION_INTERACTIVESPACES_VERSION }) {
+      resolutionConfig.put(key, frameworkConfig.get(key));
+    }
+
+    pluginsCacheFingerprint =
+        new PluginsCacheFingerprint(new File(pluginsCacheFolder.getParentFile(),
+            PluginsCacheFingerprint.FILENAME_FINGERPRINT));
+    bundleSetFingerprint = pluginsCacheFingerprint.calculate(initialBundles, resolutionConfig);
+
+    warmStart =
+        warmStartEnabled && pluginsCacheFolder.isDirectory() && pluginsCacheFingerprint.matches(bundleSetFingerprint);
+    startupProfile.setWarmStart(warmStart);
+    if (!warmStart) {
+      if (!pluginsCacheFingerprint.clear()) {
+        loggingProvider.getLog().warn("Could not remove the plugins cache fingerprint");
+      }
+
+      frameworkConfig.put(Constants.FRAMEWORK_STORAGE_CLEAN, Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT);
+    }
+  }
+
+  /**
+   * Uninstall all bundles in a reused plugins cache which are not part of the bundle set for this boot, such as
+   * bundles installed while the container was running.
+   */
+  private void uninstallUnknownBundles() {
+    Set<String> bundleUris = new HashSet<String>();
+    for (File bundleFile : initialBundles) {
+      bundleUris.add(getBundleUri(bundleFile));
+    }
+
+    uninstallUnknownBundles(rootBundleContext.getBundles(), bundleUris, loggingProvider.getLog());
+  }
+
+  /**
+   * Uninstall all bundles which are neither the system bundle nor part of a bundle set.
+   *
+   * @param cachedBundles
+   *          the bundles found in the plugins cache
+   * @param bundleUris
+   *          the locations of the bundles in the bundle set
+   * @param log
+   *          the log for reporting bundles which couldn't be uninstalled
+   *
+   * @return the locations of the bundles which were uninstalled
+   */
+  static List<String> uninstallUnknownBundles(Bundle[] cachedBundles, Set<String> bundleUris, Log log) {
+    List<String> uninstalled = new ArrayList<String>();
+    for (Bundle bundle : cachedBundles) {
+      String location = bundle.getLocation();
+      if (!Constants.SYSTEM_BUNDLE_LOCATION.equals(location) && !bundleUris.contains(location)) {
+        try {
+          bundle.uninstall();
+          uninstalled.add(location);
+        } catch (BundleException e) {
+          log.warn(String.format("Could not uninstall cached bundle %s", location), e);
+        }
+      }
+    }
+
+    return uninstalled;
+  }
+
+  /**
+   * Save the fingerprint of the bundle set so the next boot can reuse the plugins cache.
+   */
+  private void savePluginsCacheFingerprint() {
+    if (!warmStartEnabled || warmStart) {
+      return;
+    }
+
+    try {
+      pluginsCacheFingerprint.save(bundleSetFingerprint);
+    } catch (IOException e) {
+      loggingProvider.getLog().warn("Could not save the plugins cache fingerprint", e);
+    }
+  }
+
   /**
    * Load a collection of libraries.
    *
@@ -698,4 +1014,25 @@ public class InteractiveSpacesFrameworkBootstrap {
     }
 
   }
+
+  /**
+   * A factory for the threads which start bundles.
+   *
+   * @author Keith M. Hughes
+   */
+  private static class BundleStartThreadFactory implements ThreadFactory {
+
+    /**
+     * The number of threads created so far.
+     */
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "interactivespaces-bundle-start-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+
+      return thread;
+    }
+  }
 }
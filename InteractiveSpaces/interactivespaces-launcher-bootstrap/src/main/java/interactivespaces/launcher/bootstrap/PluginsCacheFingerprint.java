@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.launcher.bootstrap;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A fingerprint of everything which goes into the OSGi plugins cache.
+ *
+ * <p>
+ * If the fingerprint of a boot matches the one saved by the last successful boot, the plugins cache can be reused
+ * rather than having every bundle installed and resolved again.
+ *
+ * @author agent
+ */
+public class PluginsCacheFingerprint {
+
+  /**
+   * The name of the file holding the fingerprint. This is stored next to the plugins cache.
+   */
+  public static final String FILENAME_FINGERPRINT = "plugins-cache.fingerprint";
+
+  /**
+   * The algorithm used for the fingerprint.
+   */
+  public static final String FINGERPRINT_ALGORITHM = "SHA-1";
+
+  /**
+   * The file where the fingerprint is saved.
+   */
+  private final File fingerprintFile;
+
+  /**
+   * Construct a new fingerprint.
+   *
+   * @param fingerprintFile
+   *          the file where the fingerprint is saved
+   */
+  public PluginsCacheFingerprint(File fingerprintFile) {
+    this.fingerprintFile = fingerprintFile;
+  }
+
+  /**
+   * Calculate the fingerprint for a boot.
+   *
+   * @param bundleFiles
+   *          the files for the bundles being installed
+   * @param frameworkConfiguration
+   *          the configuration the OSGi framework is being created with
+   *
+   * @return the fingerprint
+   */
+  public String calculate(List<File> bundleFiles, Map<String, String> frameworkConfiguration) {
+    List<String> bundleDescriptions = new ArrayList<String>();
+    for (File bundleFile : bundleFiles) {
+      bundleDescriptions.add(String.format("%s\t%d\t%d", bundleFile.getAbsolutePath(), bundleFile.length(),
+          bundleFile.lastModified()));
+    }
+    Collections.sort(bundleDescriptions);
+
+    MessageDigest digest = newDigest();
+    Charset charset = Charset.forName("UTF-8");
+    for (String bundleDescription : bundleDescriptions) {
+      digest.update(bundleDescription.getBytes(charset));
+      digest.update((byte) '\n');
+    }
+
+    for (Map.Entry<String, String> entry : new TreeMap<String, String>(frameworkConfiguration).entrySet()) {
+      digest.update(String.format("%s=%s", entry.getKey(), entry.getValue()).getBytes(charset));
+      digest.update((byte) '\n');
+    }
+
+    StringBuilder fingerprint = new StringBuilder();
+    for (byte b : digest.digest()) {
+      fingerprint.append(String.format("%02x", b & 0xff));
+    }
+
+    return fingerprint.toString();
+  }
+
+  /**
+   * Does a fingerprint match the one saved by the last successful boot?
+   *
+   * @param fingerprint
+   *          the fingerprint to check
+   *
+   * @return {@code true} if the fingerprint matches
+   */
+  public boolean matches(String fingerprint) {
+    if (!fingerprintFile.isFile()) {
+      return false;
+    }
+
+    BufferedReader reader = null;
+    try {
+      reader = new BufferedReader(new FileReader(fingerprintFile));
+
+      return fingerprint.equals(reader.readLine());
+    } catch (IOException e) {
+      return false;
+    } finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        } catch (IOException e) {
+          // Don't care. Closing.
+        }
+      }
+    }
+  }
+
+  /**
+   * Save a fingerprint so the next boot can check against it.
+   *
+   * @param fingerprint
+   *          the fingerprint to save
+   *
+   * @throws IOException
+   *           the fingerprint could not be saved
+   */
+  public void save(String fingerprint) throws IOException {
+    Writer writer = new FileWriter(fingerprintFile);
+    try {
+      writer.write(fingerprint);
+      writer.write('\n');
+    } finally {
+      writer.close();
+    }
+  }
+
+  /**
+   * Remove any saved fingerprint.
+   *
+   * <p>
+   * This should be done before the plugins cache is rebuilt so an interrupted boot can't leave a stale fingerprint.
+   *
+   * @return {@code true} if there is no longer a saved fingerprint
+   */
+  public boolean clear() {
+    return !fingerprintFile.exists() || fingerprintFile.delete();
+  }
+
+  /**
+   * Create the message digest for calculating fingerprints.
+   *
+   * @return the message digest
+   */
+  private MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(String.format("No %s message digest available", FINGERPRINT_ALGORITHM), e);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.launcher.bootstrap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.logging.Log;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+
+/**
+ * Tests for the {@link BundleStartupProfile}.
+ *
+ * @author agent
+ */
+public class BundleStartupProfileTest {
+
+  /**
+   * Recorded timings can be read back.
+   */
+  @Test
+  public void testRoundTrip() {
+    BundleStartupProfile profile = new BundleStartupProfile(System.currentTimeMillis());
+    assertFalse(profile.isWarmStart());
+
+    profile.setWarmStart(true);
+    profile.recordPhase("install", 30);
+    profile.recordPhase("resolve", 20);
+    profile.recordInstall("a", 5);
+    profile.recordStart("a", 3, 7);
+    profile.recordStart("b", 4, 11);
+
+    assertTrue(profile.isWarmStart());
+    assertEquals(Arrays.asList("install", "resolve"), profile.getPhases());
+    assertEquals(Long.valueOf(30), profile.getPhaseTime("install"));
+    assertEquals(Long.valueOf(20), profile.getPhaseTime("resolve"));
+    assertNull(profile.getPhaseTime("start"));
+
+    assertEquals(5, profile.getInstallTime("a"));
+    assertEquals(7, profile.getStartTime("a"));
+    assertEquals(3, profile.getStartLevel("a"));
+
+    assertEquals(0, profile.getInstallTime("b"));
+    assertEquals(11, profile.getStartTime("b"));
+    assertEquals(4, profile.getStartLevel("b"));
+
+    assertEquals(0, profile.getStartTime("c"));
+  }
+
+  /**
+   * Only the summary is logged unless a detailed profile is asked for.
+   */
+  @Test
+  public void testSummaryLog() {
+    BundleStartupProfile profile = new BundleStartupProfile(System.currentTimeMillis());
+    profile.recordPhase("install", 30);
+    profile.recordStart("a", 1, 7);
+
+    Log log = Mockito.mock(Log.class);
+    profile.log(log, false);
+
+    Mockito.verify(log, Mockito.times(1)).info(Mockito.anyString());
+  }
+
+  /**
+   * A detailed profile logs the phases in order, then the bundles slowest first.
+   */
+  @Test
+  public void testDetailedLog() {
+    BundleStartupProfile profile = new BundleStartupProfile(System.currentTimeMillis());
+    profile.recordPhase("install", 30);
+    profile.recordPhase("start", 20);
+    profile.recordInstall("fast", 1);
+    profile.recordStart("fast", 1, 1);
+    profile.recordInstall("slow", 10);
+    profile.recordStart("slow", 2, 50);
+
+    Log log = Mockito.mock(Log.class);
+    profile.log(log, true);
+
+    InOrder inOrder = Mockito.inOrder(log);
+    inOrder.verify(log).info(Mockito.contains("cold plugins cache"));
+    inOrder.verify(log).info("Boot phase install took 30 msec");
+    inOrder.verify(log).info("Boot phase start took 20 msec");
+    inOrder.verify(log).info("Bundle slow: install 10 msec, start 50 msec, start level 2");
+    inOrder.verify(log).info("Bundle fast: install 1 msec, start 1 msec, start level 1");
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.launcher.bootstrap;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.commons.logging.Log;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleException;
+import org.osgi.framework.Constants;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests for the {@link InteractiveSpacesFrameworkBootstrap}.
+ *
+ * @author agent
+ */
+public class InteractiveSpacesFrameworkBootstrapTest {
+
+  private Log log;
+
+  private Set<String> bundleUris;
+
+  @Before
+  public void setup() {
+    log = Mockito.mock(Log.class);
+    bundleUris = new HashSet<String>(Arrays.asList("file:/is/lib/a.jar", "file:/is/lib/b.jar"));
+  }
+
+  /**
+   * Only cached bundles which aren't in the bundle set, and aren't the system bundle, are uninstalled.
+   */
+  @Test
+  public void testUninstallUnknownBundles() throws Exception {
+    Bundle system = newBundle(Constants.SYSTEM_BUNDLE_LOCATION);
+    Bundle known = newBundle("file:/is/lib/a.jar");
+    Bundle unknown = newBundle("file:/is/startup/runtime.jar");
+
+    assertEquals(Collections.singletonList("file:/is/startup/runtime.jar"),
+        InteractiveSpacesFrameworkBootstrap.uninstallUnknownBundles(new Bundle[] { system, known, unknown },
+            bundleUris, log));
+
+    Mockito.verify(system, Mockito.never()).uninstall();
+    Mockito.verify(known, Mockito.never()).uninstall();
+    Mockito.verify(unknown).uninstall();
+  }
+
+  /**
+   * A bundle which can't be uninstalled is logged and the rest are still pruned.
+   */
+  @Test
+  public void testUninstallUnknownBundlesFailure() throws Exception {
+    Bundle broken = newBundle("file:/is/startup/broken.jar");
+    Mockito.doThrow(new BundleException("Nope")).when(broken).uninstall();
+    Bundle unknown = newBundle("file:/is/startup/runtime.jar");
+
+    assertEquals(Collections.singletonList("file:/is/startup/runtime.jar"),
+        InteractiveSpacesFrameworkBootstrap.uninstallUnknownBundles(new Bundle[] { broken, unknown }, bundleUris,
+            log));
+
+    Mockito.verify(unknown).uninstall();
+    Mockito.verify(log).warn(Mockito.contains("broken.jar"), Mockito.any(BundleException.class));
+  }
+
+  /**
+   * Nothing is uninstalled when the cache holds exactly the bundle set.
+   */
+  @Test
+  public void testUninstallUnknownBundlesNone() throws Exception {
+    Bundle a = newBundle("file:/is/lib/a.jar");
+    Bundle b = newBundle("file:/is/lib/b.jar");
+
+    assertEquals(0,
+        InteractiveSpacesFrameworkBootstrap.uninstallUnknownBundles(new Bundle[] { a, b }, bundleUris, log).size());
+
+    Mockito.verify(a, Mockito.never()).uninstall();
+    Mockito.verify(b, Mockito.never()).uninstall();
+  }
+
+  /**
+   * Create a mock bundle.
+   *
+   * @param location
+   *          location of the bundle
+   *
+   * @return the bundle
+   */
+  private Bundle newBundle(String location) {
+    Bundle bundle = Mockito.mock(Bundle.class);
+    Mockito.when(bundle.getLocation()).thenReturn(location);
+
+    return bundle;
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.launcher.bootstrap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the {@link PluginsCacheFingerprint}.
+ *
+ * @author agent
+ */
+public class PluginsCacheFingerprintTest {
+
+  private File folder;
+
+  private PluginsCacheFingerprint fingerprint;
+
+  private List<File> bundleFiles;
+
+  private Map<String, String> config;
+
+  @Before
+  public void setup() throws Exception {
+    folder = File.createTempFile("fingerprint", "test");
+    folder.delete();
+    folder.mkdirs();
+
+    fingerprint = new PluginsCacheFingerprint(new File(folder, PluginsCacheFingerprint.FILENAME_FINGERPRINT));
+
+    bundleFiles = new ArrayList<File>();
+    bundleFiles.add(writeJar("a.jar", "a"));
+    bundleFiles.add(writeJar("b.jar", "bb"));
+
+    config = new HashMap<String, String>();
+    config.put("org.osgi.framework.system.packages.extra", "org.foo");
+  }
+
+  @After
+  public void cleanup() {
+    for (File file : folder.listFiles()) {
+      file.delete();
+    }
+    folder.delete();
+  }
+
+  /**
+   * The fingerprint doesn't change if nothing changes, whatever order the bundles are listed in.
+   */
+  @Test
+  public void testStable() {
+    String original = fingerprint.calculate(bundleFiles, config);
+
+    List<File> reversed = new ArrayList<File>();
+    reversed.add(bundleFiles.get(1));
+    reversed.add(bundleFiles.get(0));
+
+    assertEquals(original, fingerprint.calculate(reversed, new HashMap<String, String>(config)));
+  }
+
+  /**
+   * Adding a jar changes the fingerprint.
+   */
+  @Test
+  public void testJarAdded() throws Exception {
+    String original = fingerprint.calculate(bundleFiles, config);
+
+    bundleFiles.add(writeJar("c.jar", "c"));
+
+    assertFalse(original.equals(fingerprint.calculate(bundleFiles, config)));
+  }
+
+  /**
+   * Removing a jar changes the fingerprint.
+   */
+  @Test
+  public void testJarRemoved() {
+    String original = fingerprint.calculate(bundleFiles, config);
+
+    bundleFiles.remove(0);
+
+    assertFalse(original.equals(fingerprint.calculate(bundleFiles, config)));
+  }
+
+  /**
+   * Touching a jar changes the fingerprint, even if its size is the same.
+   */
+  @Test
+  public void testJarTouched() {
+    String original = fingerprint.calculate(bundleFiles, config);
+
+    File jar = bundleFiles.get(0);
+    assertTrue(jar.setLastModified(jar.lastModified() - 10000));
+
+    assertFalse(original.equals(fingerprint.calculate(bundleFiles, config)));
+  }
+
+  /**
+   * Changing the framework configuration changes the fingerprint.
+   */
+  @Test
+  public void testConfigurationChanged() {
+    String original = fingerprint.calculate(bundleFiles, config);
+
+    config.put("org.osgi.framework.system.packages.extra", "org.foo, org.bar");
+
+    assertFalse(original.equals(fingerprint.calculate(bundleFiles, config)));
+  }
+
+  /**
+   * A saved fingerprint is matched until it is cleared.
+   */
+  @Test
+  public void testSaveMatchClear() throws Exception {
+    String original = fingerprint.calculate(bundleFiles, config);
+    assertFalse(fingerprint.matches(original));
+
+    fingerprint.save(original);
+    assertTrue(fingerprint.matches(original));
+    assertFalse(fingerprint.matches(fingerprint.calculate(bundleFiles.subList(0, 1), config)));
+
+    assertTrue(fingerprint.clear());
+    assertFalse(fingerprint.matches(original));
+    assertTrue(fingerprint.clear());
+  }
+
+  /**
+   * Write a fake bundle jar.
+   *
+   * @param name
+   *          name of the jar
+   * @param contents
+   *          contents of the jar
+   *
+   * @return the jar file
+   *
+   * @throws IOException
+   *           the jar could not be written
+   */
+  private File writeJar(String name, String contents) throws IOException {
+    File jar = new File(folder, name);
+    FileWriter writer = new FileWriter(jar);
+    try {
+      writer.write(contents);
+    } finally {
+      writer.close();
+    }
+
+    return jar;
+  }
+}
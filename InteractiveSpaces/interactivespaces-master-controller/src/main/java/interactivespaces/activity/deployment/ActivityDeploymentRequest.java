@@ -18,6 +18,10 @@ package interactivespaces.activity.deployment;
 
 import interactivespaces.resource.Version;
 
+import com.google.common.collect.Lists;
+
+import java.util.List;
+
 /**
  * A request for an activity deployment.
  *
@@ -50,6 +54,16 @@ public class ActivityDeploymentRequest {
    */
   private final String activitySourceUri;
 
+  /**
+   * Digest of the activity bundle, can be {@code null} if not known.
+   */
+  private String bundleDigest;
+
+  /**
+   * URIs of peers which the bundle can be fetched from before trying the activity source URI.
+   */
+  private List<String> peerSourceUris = Lists.newArrayList();
+
   /**
    * Construct a deployment request.
    *
@@ -118,9 +132,48 @@ public class ActivityDeploymentRequest {
     return activitySourceUri;
   }
 
+  /**
+   * Get the digest of the activity bundle.
+   *
+   * @return the digest, can be {@code null} if not known
+   */
+  public String getBundleDigest() {
+    return bundleDigest;
+  }
+
+  /**
+   * Set the digest of the activity bundle.
+   *
+   * @param bundleDigest
+   *          the digest, can be {@code null} if not known
+   */
+  public void setBundleDigest(String bundleDigest) {
+    this.bundleDigest = bundleDigest;
+  }
+
+  /**
+   * Get the URIs of peers which the bundle can be fetched from.
+   *
+   * @return the peer URIs, in the order they should be tried
+   */
+  public List<String> getPeerSourceUris() {
+    return peerSourceUris;
+  }
+
+  /**
+   * Set the URIs of peers which the bundle can be fetched from.
+   *
+   * @param peerSourceUris
+   *          the peer URIs, in the order they should be tried
+   */
+  public void setPeerSourceUris(List<String> peerSourceUris) {
+    this.peerSourceUris = Lists.newArrayList(peerSourceUris);
+  }
+
   @Override
   public String toString() {
     return "ActivityDeploymentRequest [transactionId=" + transactionId + ", uuid=" + uuid + ", identifyingName="
-        + identifyingName + ", version=" + version + ", activitySourceUri=" + activitySourceUri + "]";
+        + identifyingName + ", version=" + version + ", activitySourceUri=" + activitySourceUri + ", bundleDigest="
+        + bundleDigest + ", peerSourceUris=" + peerSourceUris + "]";
   }
 }
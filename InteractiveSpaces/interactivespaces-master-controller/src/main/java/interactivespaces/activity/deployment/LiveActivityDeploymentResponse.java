@@ -43,6 +43,16 @@ public class LiveActivityDeploymentResponse {
    */
   private final long timeDeployed;
 
+  /**
+   * More detail about the deployment, can be {@code null}.
+   */
+  private String statusDetail;
+
+  /**
+   * URI where the controller serves its cached copy of the bundle, can be {@code null}.
+   */
+  private String bundleCacheUri;
+
   /**
    * Construct a response.
    *
@@ -109,6 +119,44 @@ public class LiveActivityDeploymentResponse {
     return timeDeployed;
   }
 
+  /**
+   * Get more detail about the deployment.
+   *
+   * @return the detail, can be {@code null}
+   */
+  public String getStatusDetail() {
+    return statusDetail;
+  }
+
+  /**
+   * Set more detail about the deployment.
+   *
+   * @param statusDetail
+   *          the detail, can be {@code null}
+   */
+  public void setStatusDetail(String statusDetail) {
+    this.statusDetail = statusDetail;
+  }
+
+  /**
+   * Get the URI where the controller serves its cached copy of the bundle to peers.
+   *
+   * @return the URI, can be {@code null} if the controller doesn't serve bundles
+   */
+  public String getBundleCacheUri() {
+    return bundleCacheUri;
+  }
+
+  /**
+   * Set the URI where the controller serves its cached copy of the bundle to peers.
+   *
+   * @param bundleCacheUri
+   *          the URI, can be {@code null} if the controller doesn't serve bundles
+   */
+  public void setBundleCacheUri(String bundleCacheUri) {
+    this.bundleCacheUri = bundleCacheUri;
+  }
+
   /**
    * State of the deployment.
    *
@@ -69,6 +69,10 @@ public class RosDeploymentMessageTranslator {
     rosRequest.setIdentifyingName(request.getIdentifyingName());
     rosRequest.setVersion(request.getVersion().toString());
     rosRequest.setActivitySourceUri(request.getActivitySourceUri());
+    if (request.getBundleDigest() != null) {
+      rosRequest.setBundleDigest(request.getBundleDigest());
+    }
+    rosRequest.setPeerSourceUris(request.getPeerSourceUris());
   }
 
   /**
@@ -80,9 +84,19 @@ public class RosDeploymentMessageTranslator {
    * @return the deserialized message
    */
   public static ActivityDeploymentRequest deserializeActivityDeploymentRequest(LiveActivityDeployRequest rosMessage) {
-    return new ActivityDeploymentRequest(rosMessage.getTransactionId(), rosMessage.getUuid(),
-        rosMessage.getIdentifyingName(), Version.parseVersion(rosMessage.getVersion()),
-        rosMessage.getActivitySourceUri());
+    ActivityDeploymentRequest request =
+        new ActivityDeploymentRequest(rosMessage.getTransactionId(), rosMessage.getUuid(),
+            rosMessage.getIdentifyingName(), Version.parseVersion(rosMessage.getVersion()),
+            rosMessage.getActivitySourceUri());
+    String bundleDigest = rosMessage.getBundleDigest();
+    if (bundleDigest != null && !bundleDigest.isEmpty()) {
+      request.setBundleDigest(bundleDigest);
+    }
+    if (rosMessage.getPeerSourceUris() != null) {
+      request.setPeerSourceUris(rosMessage.getPeerSourceUris());
+    }
+
+    return request;
   }
 
   /**
@@ -99,6 +113,12 @@ public class RosDeploymentMessageTranslator {
     rosMessage.setTransactionId(deployStatus.getTransactionId());
     rosMessage.setUuid(deployStatus.getUuid());
     rosMessage.setTimeDeployed(deployStatus.getTimeDeployed());
+    if (deployStatus.getStatusDetail() != null) {
+      rosMessage.setStatusDetail(deployStatus.getStatusDetail());
+    }
+    if (deployStatus.getBundleCacheUri() != null) {
+      rosMessage.setBundleCacheUri(deployStatus.getBundleCacheUri());
+    }
 
     switch (deployStatus.getStatus()) {
       case STATUS_SUCCESS:
@@ -146,8 +166,19 @@ public class RosDeploymentMessageTranslator {
             rosMessage.getStatus()));
     }
 
-    return new LiveActivityDeploymentResponse(rosMessage.getTransactionId(), rosMessage.getUuid(), status,
-        rosMessage.getTimeDeployed());
+    LiveActivityDeploymentResponse response =
+        new LiveActivityDeploymentResponse(rosMessage.getTransactionId(), rosMessage.getUuid(), status,
+            rosMessage.getTimeDeployed());
+    String statusDetail = rosMessage.getStatusDetail();
+    if (statusDetail != null && !statusDetail.isEmpty()) {
+      response.setStatusDetail(statusDetail);
+    }
+    String bundleCacheUri = rosMessage.getBundleCacheUri();
+    if (bundleCacheUri != null && !bundleCacheUri.isEmpty()) {
+      response.setBundleCacheUri(bundleCacheUri);
+    }
+
+    return response;
   }
 
   /**
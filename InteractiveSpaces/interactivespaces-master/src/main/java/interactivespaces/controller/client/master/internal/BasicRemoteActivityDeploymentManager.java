@@ -16,12 +16,14 @@
 
 package interactivespaces.controller.client.master.internal;
 
+import interactivespaces.activity.deployment.ActivityDeploymentRequest;
 import interactivespaces.activity.deployment.LiveActivityDeploymentResponse;
 import interactivespaces.activity.deployment.LiveActivityDeploymentResponse.ActivityDeployStatus;
 import interactivespaces.container.resource.deployment.ContainerResourceDeploymentCommitResponse;
 import interactivespaces.container.resource.deployment.ContainerResourceDeploymentQueryRequest;
 import interactivespaces.container.resource.deployment.ContainerResourceDeploymentQueryResponse;
 import interactivespaces.controller.client.master.RemoteActivityDeploymentManager;
+import interactivespaces.controller.client.master.internal.BundleDistributionPlanner.BundleTransferStarter;
 import interactivespaces.domain.basic.Activity;
 import interactivespaces.domain.basic.ActivityDependency;
 import interactivespaces.domain.basic.LiveActivity;
@@ -33,6 +35,7 @@ import interactivespaces.resource.NamedVersionedResource;
 import interactivespaces.resource.ResourceDependencyReference;
 import interactivespaces.resource.Version;
 import interactivespaces.resource.VersionRange;
+import interactivespaces.resource.repository.ResourceRepositoryRequestListener;
 import interactivespaces.resource.repository.ResourceRepositoryServer;
 import interactivespaces.resource.repository.ResourceRepositoryStorageManager;
 import interactivespaces.system.InteractiveSpacesEnvironment;
@@ -46,6 +49,8 @@ import interactivespaces_msgs.LiveActivityDeleteRequest;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A basic remote activity installer.
@@ -58,6 +63,35 @@ import java.util.Set;
  */
 public class BasicRemoteActivityDeploymentManager implements RemoteActivityDeploymentManager {
 
+  /**
+   * Configuration property giving how many controllers a single source sends an activity bundle to at once. A value of
+   * {@code 0} or less means the master sends every bundle itself.
+   */
+  public static final String CONFIGURATION_PROPERTY_DISTRIBUTION_FANOUT =
+      "interactivespaces.master.deployment.distribution.fanout";
+
+  /**
+   * The default fanout for activity bundle distribution.
+   */
+  public static final int DISTRIBUTION_FANOUT_DEFAULT = 0;
+
+  /**
+   * Configuration property giving how long a bundle transfer can take before its source is given to another
+   * controller, in milliseconds.
+   */
+  public static final String CONFIGURATION_PROPERTY_DISTRIBUTION_TRANSFER_TIMEOUT =
+      "interactivespaces.master.deployment.distribution.transfer.timeout";
+
+  /**
+   * The default bundle transfer timeout, in milliseconds.
+   */
+  public static final long DISTRIBUTION_TRANSFER_TIMEOUT_DEFAULT = 5 * 60 * 1000;
+
+  /**
+   * How often to check for stale bundle transfers, in seconds.
+   */
+  public static final int DISTRIBUTION_STALE_CHECK_PERIOD = 10;
+
   /**
    * The client for making calls to a remote space controller.
    */
@@ -98,13 +132,71 @@ public class BasicRemoteActivityDeploymentManager implements RemoteActivityDeplo
    */
   private InteractiveSpacesEnvironment spaceEnvironment;
 
+  /**
+   * Plans where controllers get activity bundles from.
+   */
+  private BundleDistributionPlanner distributionPlanner;
+
+  /**
+   * The periodic check for stale bundle transfers, {@code null} if not running.
+   */
+  private ScheduledFuture<?> staleTransferCheck;
+
+  /**
+   * Tells the distribution planner when a controller falls back to the master for a bundle.
+   */
+  private final ResourceRepositoryRequestListener repositoryRequestListener = new ResourceRepositoryRequestListener() {
+    @Override
+    public void onResourceRequest(String category, String name, Version version, String transactionId) {
+      distributionPlanner.masterRequested(transactionId);
+    }
+  };
+
   @Override
   public void startup() {
+    int fanout =
+        spaceEnvironment.getSystemConfiguration().getPropertyInteger(CONFIGURATION_PROPERTY_DISTRIBUTION_FANOUT,
+            DISTRIBUTION_FANOUT_DEFAULT);
+    long transferTimeout =
+        spaceEnvironment.getSystemConfiguration().getPropertyLong(CONFIGURATION_PROPERTY_DISTRIBUTION_TRANSFER_TIMEOUT,
+            DISTRIBUTION_TRANSFER_TIMEOUT_DEFAULT);
+
+    distributionPlanner =
+        new BundleDistributionPlanner(fanout, transferTimeout, spaceEnvironment.getTimeProvider(),
+            new BundleTransferStarter() {
+              @Override
+              public void startTransfer(ActivityDeploymentRequest request) {
+                remoteSpaceControllerClient.deployActivity(
+                    ((MasterActivityDeploymentRequest) request).getLiveActivity(), request);
+              }
+            });
+
+    if (distributionPlanner.isEnabled()) {
+      spaceEnvironment.getLog().info(String.format("Activity bundles distributed with a fanout of %d", fanout));
+
+      repositoryServer.addResourceRequestListener(repositoryRequestListener);
+
+      staleTransferCheck = spaceEnvironment.getExecutorService().scheduleAtFixedRate(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            distributionPlanner.checkStaleTransfers();
+          } catch (Exception e) {
+            spaceEnvironment.getLog().error("Could not check for stale activity bundle transfers", e);
+          }
+        }
+      }, DISTRIBUTION_STALE_CHECK_PERIOD, DISTRIBUTION_STALE_CHECK_PERIOD, TimeUnit.SECONDS);
+    }
   }
 
   @Override
   public void shutdown() {
-    // Nothing to do
+    if (staleTransferCheck != null) {
+      staleTransferCheck.cancel(false);
+      staleTransferCheck = null;
+    }
+
+    repositoryServer.removeResourceRequestListener(repositoryRequestListener);
   }
 
   @Override
@@ -115,10 +207,22 @@ public class BasicRemoteActivityDeploymentManager implements RemoteActivityDeplo
 
     String transactionId = transactionIdGenerator.newUuid();
 
+    Version version = Version.parseVersion(activity.getVersion());
+    String activityUri =
+        repositoryServer.getResourceUri(ResourceRepositoryStorageManager.RESOURCE_CATEGORY_ACTIVITY,
+            activity.getIdentifyingName(), version);
+    if (distributionPlanner.isEnabled()) {
+      // Lets the planner see when a controller given a peer falls back to the master.
+      activityUri += "?" + ResourceRepositoryServer.REQUEST_PARAMETER_TRANSACTION_ID + "=" + transactionId;
+    }
     MasterActivityDeploymentRequest request =
-        new MasterActivityDeploymentRequest(activeLiveActivity, transactionId, repositoryServer.getResourceUri(
-            ResourceRepositoryStorageManager.RESOURCE_CATEGORY_ACTIVITY, activity.getIdentifyingName(),
-            Version.parseVersion(activity.getVersion())), spaceEnvironment.getTimeProvider().getCurrentTime());
+        new MasterActivityDeploymentRequest(activeLiveActivity, transactionId, activityUri, spaceEnvironment
+            .getTimeProvider().getCurrentTime());
+    if (distributionPlanner.isEnabled()) {
+      // Without a digest the controller copies the bundle straight from the master and doesn't cache it.
+      request.setBundleDigest(repositoryServer.getResourceDigest(
+          ResourceRepositoryStorageManager.RESOURCE_CATEGORY_ACTIVITY, activity.getIdentifyingName(), version));
+    }
 
     List<? extends ActivityDependency> dependencies = activity.getDependencies();
     if (dependencies != null && !dependencies.isEmpty()) {
@@ -170,6 +274,9 @@ public class BasicRemoteActivityDeploymentManager implements RemoteActivityDeplo
 
     deploymentRequests.remove(response.getTransactionId());
 
+    distributionPlanner.transferComplete(response.getTransactionId(),
+        response.getStatus() == ActivityDeployStatus.STATUS_SUCCESS, response.getBundleCacheUri());
+
     remoteSpaceControllerClientListeners.signalActivityDeployStatus(response.getUuid(), response);
   }
 
@@ -321,7 +428,7 @@ public class BasicRemoteActivityDeploymentManager implements RemoteActivityDeplo
    */
   private void deployActivity(MasterActivityDeploymentRequest request) {
     updateDeploymentStatus(request, MasterActivityDeploymentRequestStatus.DEPLOYING_ACTIVITY);
-    remoteSpaceControllerClient.deployActivity(request.getLiveActivity(), request);
+    distributionPlanner.planTransfer(request);
   }
 
   /**
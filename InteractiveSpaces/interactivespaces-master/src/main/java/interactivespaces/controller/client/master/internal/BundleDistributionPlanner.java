@@ -0,0 +1,476 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.controller.client.master.internal;
+
+import interactivespaces.activity.deployment.ActivityDeploymentRequest;
+import interactivespaces.time.TimeProvider;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Plans where controllers fetch activity bundles from so that the master doesn't have to send every bundle to every
+ * controller itself.
+ *
+ * <p>
+ * Every source, whether the master or a controller which already holds the bundle, serves at most the fanout number of
+ * transfers of a bundle at once. Controllers which finish a transfer become sources for the controllers still waiting,
+ * so a distribution to many controllers becomes a tree rooted at the master. Controllers which are given a peer source
+ * still fall back to the master if the peer fails them. Once the master sees such a fallback, through
+ * {@link #masterRequested(String)}, the transfer counts against the master rather than the peer.
+ *
+ * <p>
+ * A fanout of {@code 0} or less turns planning off and every transfer is started right away from the master.
+ *
+ * @author agent
+ */
+public class BundleDistributionPlanner {
+
+  /**
+   * The maximum number of bundles whose distribution is tracked.
+   */
+  public static final int BUNDLES_TRACKED_MAX = 64;
+
+  /**
+   * The source name used for the master.
+   */
+  private static final String SOURCE_MASTER = "";
+
+  /**
+   * Starts transfers once the planner has chosen their sources.
+   */
+  private final BundleTransferStarter transferStarter;
+
+  /**
+   * The maximum number of transfers a single source can serve at once.
+   */
+  private final int fanout;
+
+  /**
+   * How long a transfer can go on before its slot is given to someone else, in milliseconds.
+   */
+  private final long staleTransferTimeout;
+
+  /**
+   * The time provider for transfer times.
+   */
+  private final TimeProvider timeProvider;
+
+  /**
+   * The distributions being tracked, keyed by bundle digest, least recently used first.
+   */
+  private final Map<String, BundleDistribution> distributions = new LinkedHashMap<String, BundleDistribution>(16,
+      0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, BundleDistribution> eldest) {
+      return size() > BUNDLES_TRACKED_MAX && eldest.getValue().isIdle();
+    }
+  };
+
+  /**
+   * Digests of the bundles being transferred, keyed by transaction ID.
+   */
+  private final Map<String, String> transactionDigests = Maps.newHashMap();
+
+  /**
+   * Construct a new planner.
+   *
+   * @param fanout
+   *          the maximum number of transfers a single source can serve at once, {@code 0} or less for no planning
+   * @param staleTransferTimeout
+   *          how long a transfer can go on before its slot is given to someone else, in milliseconds
+   * @param timeProvider
+   *          the time provider for transfer times
+   * @param transferStarter
+   *          starts transfers once their sources are chosen
+   */
+  public BundleDistributionPlanner(int fanout, long staleTransferTimeout, TimeProvider timeProvider,
+      BundleTransferStarter transferStarter) {
+    this.fanout = fanout;
+    this.staleTransferTimeout = staleTransferTimeout;
+    this.timeProvider = timeProvider;
+    this.transferStarter = transferStarter;
+  }
+
+  /**
+   * Is the planner choosing sources?
+   *
+   * @return {@code true} if sources are being planned
+   */
+  public boolean isEnabled() {
+    return fanout > 0;
+  }
+
+  /**
+   * Plan the transfer of a bundle. The transfer is started, either now or once a source is free.
+   *
+   * @param request
+   *          the deployment request for the bundle
+   */
+  public void planTransfer(ActivityDeploymentRequest request) {
+    String digest = request.getBundleDigest();
+    if (!isEnabled() || digest == null) {
+      transferStarter.startTransfer(request);
+
+      return;
+    }
+
+    List<ActivityDeploymentRequest> toStart = Lists.newArrayList();
+    synchronized (distributions) {
+      BundleDistribution distribution = distributions.get(digest);
+      if (distribution == null) {
+        distribution = new BundleDistribution();
+        distributions.put(digest, distribution);
+      }
+
+      transactionDigests.put(request.getTransactionId(), digest);
+      distribution.waiting.add(request);
+      distribution.collectStartableTransfers(toStart);
+    }
+
+    startTransfers(toStart);
+  }
+
+  /**
+   * A transfer has completed, whether it succeeded or not.
+   *
+   * @param transactionId
+   *          transaction ID of the deployment
+   * @param success
+   *          {@code true} if the deployment succeeded
+   * @param bundleCacheUri
+   *          where the controller now serves the bundle from, can be {@code null}
+   */
+  public void transferComplete(String transactionId, boolean success, String bundleCacheUri) {
+    List<ActivityDeploymentRequest> toStart = Lists.newArrayList();
+    synchronized (distributions) {
+      String digest = transactionDigests.remove(transactionId);
+      if (digest == null) {
+        return;
+      }
+
+      BundleDistribution distribution = distributions.get(digest);
+      if (distribution == null) {
+        return;
+      }
+
+      BundleTransfer transfer = distribution.active.remove(transactionId);
+      if (transfer != null) {
+        if (success) {
+          if (bundleCacheUri != null && !distribution.holders.contains(bundleCacheUri)) {
+            distribution.holders.add(bundleCacheUri);
+          }
+        } else if (!SOURCE_MASTER.equals(transfer.source)) {
+          // The peer may have been the problem, don't hand it out again.
+          distribution.holders.remove(transfer.source);
+        }
+      } else {
+        distribution.waiting.remove(findWaiting(distribution, transactionId));
+      }
+
+      distribution.collectStartableTransfers(toStart);
+    }
+
+    startTransfers(toStart);
+  }
+
+  /**
+   * The master has been asked for a bundle by a transfer.
+   *
+   * <p>
+   * A transfer which was given a peer only asks the master once the peer has failed it. Its slot moves from the peer to
+   * the master so no further transfers are given to the master until it is back under the fanout, and the peer isn't
+   * handed out again.
+   *
+   * @param transactionId
+   *          transaction ID of the deployment
+   */
+  public void masterRequested(String transactionId) {
+    List<ActivityDeploymentRequest> toStart = Lists.newArrayList();
+    synchronized (distributions) {
+      String digest = transactionDigests.get(transactionId);
+      if (digest == null) {
+        return;
+      }
+
+      BundleDistribution distribution = distributions.get(digest);
+      if (distribution == null) {
+        return;
+      }
+
+      BundleTransfer transfer = distribution.active.get(transactionId);
+      if (transfer == null || SOURCE_MASTER.equals(transfer.source)) {
+        return;
+      }
+
+      distribution.active.put(transactionId, new BundleTransfer(SOURCE_MASTER, transfer.startTime));
+      distribution.holders.remove(transfer.source);
+
+      distribution.collectStartableTransfers(toStart);
+    }
+
+    startTransfers(toStart);
+  }
+
+  /**
+   * Free the slots of any transfers which have gone on for too long and start waiting transfers in their place.
+   *
+   * <p>
+   * The stale transfers themselves keep going, they just no longer count against their source and their completion is
+   * ignored.
+   */
+  public void checkStaleTransfers() {
+    long staleTime = timeProvider.getCurrentTime() - staleTransferTimeout;
+
+    List<ActivityDeploymentRequest> toStart = Lists.newArrayList();
+    synchronized (distributions) {
+      for (BundleDistribution distribution : distributions.values()) {
+        Iterator<Map.Entry<String, BundleTransfer>> transfers = distribution.active.entrySet().iterator();
+        while (transfers.hasNext()) {
+          Map.Entry<String, BundleTransfer> transfer = transfers.next();
+          if (transfer.getValue().startTime < staleTime) {
+            transfers.remove();
+            transactionDigests.remove(transfer.getKey());
+          }
+        }
+
+        distribution.collectStartableTransfers(toStart);
+      }
+    }
+
+    startTransfers(toStart);
+  }
+
+  /**
+   * Get the number of transfers of a bundle which are waiting for a source.
+   *
+   * @param digest
+   *          digest of the bundle
+   *
+   * @return the number of waiting transfers
+   */
+  public int getNumberWaitingTransfers(String digest) {
+    synchronized (distributions) {
+      BundleDistribution distribution = distributions.get(digest);
+      return (distribution != null) ? distribution.waiting.size() : 0;
+    }
+  }
+
+  /**
+   * Get the peers known to hold a bundle.
+   *
+   * @param digest
+   *          digest of the bundle
+   *
+   * @return the URIs of the peers holding the bundle
+   */
+  public List<String> getHolders(String digest) {
+    synchronized (distributions) {
+      BundleDistribution distribution = distributions.get(digest);
+      if (distribution == null) {
+        return Collections.emptyList();
+      }
+
+      return Lists.newArrayList(distribution.holders);
+    }
+  }
+
+  /**
+   * Find a waiting request.
+   *
+   * @param distribution
+   *          the distribution the request is waiting in
+   * @param transactionId
+   *          transaction ID of the request
+   *
+   * @return the request, or {@code null} if it isn't waiting
+   */
+  private ActivityDeploymentRequest findWaiting(BundleDistribution distribution, String transactionId) {
+    for (ActivityDeploymentRequest request : distribution.waiting) {
+      if (request.getTransactionId().equals(transactionId)) {
+        return request;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Start transfers whose sources have been chosen.
+   *
+   * @param requests
+   *          the requests for the transfers
+   */
+  private void startTransfers(List<ActivityDeploymentRequest> requests) {
+    for (ActivityDeploymentRequest request : requests) {
+      transferStarter.startTransfer(request);
+    }
+  }
+
+  /**
+   * Starts a transfer once its source has been chosen.
+   *
+   * @author agent
+   */
+  public interface BundleTransferStarter {
+
+    /**
+     * Start the transfer.
+     *
+     * @param request
+     *          the deployment request, with its peer sources set
+     */
+    void startTransfer(ActivityDeploymentRequest request);
+  }
+
+  /**
+   * The distribution of a single bundle.
+   *
+   * @author agent
+   */
+  private class BundleDistribution {
+
+    /**
+     * URIs of the peers which hold the bundle, in the order they got it.
+     */
+    private final List<String> holders = Lists.newArrayList();
+
+    /**
+     * The active transfers, keyed by transaction ID.
+     */
+    private final Map<String, BundleTransfer> active = Maps.newHashMap();
+
+    /**
+     * Requests waiting for a source to be free.
+     */
+    private final Queue<ActivityDeploymentRequest> waiting = new LinkedList<ActivityDeploymentRequest>();
+
+    /**
+     * Is nothing happening with the bundle right now?
+     *
+     * @return {@code true} if there are no active or waiting transfers
+     */
+    public boolean isIdle() {
+      return active.isEmpty() && waiting.isEmpty();
+    }
+
+    /**
+     * Give sources to as many waiting requests as possible.
+     *
+     * <p>
+     * Must be called with the distributions locked.
+     *
+     * @param toStart
+     *          the list to place the requests which can be started in
+     */
+    public void collectStartableTransfers(List<ActivityDeploymentRequest> toStart) {
+      while (!waiting.isEmpty()) {
+        String source = chooseSource();
+        if (source == null) {
+          return;
+        }
+
+        ActivityDeploymentRequest request = waiting.poll();
+        if (SOURCE_MASTER.equals(source)) {
+          request.setPeerSourceUris(Collections.<String> emptyList());
+        } else {
+          request.setPeerSourceUris(Collections.singletonList(source));
+        }
+
+        active.put(request.getTransactionId(), new BundleTransfer(source, timeProvider.getCurrentTime()));
+        toStart.add(request);
+      }
+    }
+
+    /**
+     * Choose a source which can take another transfer, preferring peers over the master.
+     *
+     * @return the source, or {@code null} if every source is busy
+     */
+    private String chooseSource() {
+      for (String holder : holders) {
+        if (getNumberActiveTransfers(holder) < fanout) {
+          return holder;
+        }
+      }
+
+      if (getNumberActiveTransfers(SOURCE_MASTER) < fanout) {
+        return SOURCE_MASTER;
+      }
+
+      return null;
+    }
+
+    /**
+     * Get the number of transfers a source is serving.
+     *
+     * @param source
+     *          the source
+     *
+     * @return the number of active transfers
+     */
+    private int getNumberActiveTransfers(String source) {
+      int count = 0;
+      for (BundleTransfer transfer : active.values()) {
+        if (transfer.source.equals(source)) {
+          count++;
+        }
+      }
+
+      return count;
+    }
+  }
+
+  /**
+   * A transfer of a bundle from a source.
+   *
+   * @author agent
+   */
+  private static class BundleTransfer {
+
+    /**
+     * The source of the transfer.
+     */
+    private final String source;
+
+    /**
+     * When the transfer was started.
+     */
+    private final long startTime;
+
+    /**
+     * Construct a new transfer.
+     *
+     * @param source
+     *          the source of the transfer
+     * @param startTime
+     *          when the transfer was started
+     */
+    public BundleTransfer(String source, long startTime) {
+      this.source = source;
+      this.startTime = startTime;
+    }
+  }
+}
@@ -23,7 +23,19 @@ import interactivespaces.master.server.services.MasterSupportManager;
 import interactivespaces.util.io.FileSupport;
 import interactivespaces.util.io.FileSupportImpl;
 
+import com.google.common.base.Charsets;
+import com.google.common.io.Closeables;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.util.Map;
 
 /**
@@ -38,6 +50,18 @@ public class BasicMasterApiMasterSupportManager extends BaseMasterApiManager imp
    */
   public static final String MASTER_DOMAIN_FILE = "master-domain.xml";
 
+  /**
+   * The extension of the file the description is written to before it
+   * replaces the master domain description file.
+   */
+  public static final String MASTER_DOMAIN_FILE_TEMP_EXTENSION = ".tmp";
+
+  /**
+   * The extension the old master domain description file is moved to while
+   * it is replaced, on platforms where a rename can't replace a file.
+   */
+  public static final String MASTER_DOMAIN_FILE_BACKUP_EXTENSION = ".bak";
+
   /**
    * The master support manager.
    */
@@ -51,9 +75,7 @@ public class BasicMasterApiMasterSupportManager extends BaseMasterApiManager imp
   @Override
   public Map<String, Object> getMasterDomainDescription() {
     try {
-      String description = masterSupportManager.getMasterDomainDescription();
-
-      fileSupport.writeFile(new File(MASTER_DOMAIN_FILE), description);
+      writeMasterDomainFile(new File(MASTER_DOMAIN_FILE));
 
       return MasterApiMessageSupport.getSimpleSuccessResponse();
     } catch (Exception e) {
@@ -66,9 +88,7 @@ public class BasicMasterApiMasterSupportManager extends BaseMasterApiManager imp
   @Override
   public Map<String, Object> importMasterDomainDescription() {
     try {
-      String description = fileSupport.readFile(new File(MASTER_DOMAIN_FILE));
-
-      masterSupportManager.importMasterDomainDescription(description);
+      readMasterDomainFile(new File(MASTER_DOMAIN_FILE));
 
       return MasterApiMessageSupport.getSimpleSuccessResponse();
     } catch (Exception e) {
@@ -78,6 +98,97 @@ public class BasicMasterApiMasterSupportManager extends BaseMasterApiManager imp
     }
   }
 
+  /**
+   * Write the master domain description to a file.
+   *
+   * <p>
+   * The description is streamed to a temporary file which then replaces the
+   * file, so a failed write never leaves a partial description behind or
+   * loses the old one.
+   *
+   * @param file
+   *          the file to write
+   *
+   * @throws IOException
+   *           the file could not be written
+   */
+  private void writeMasterDomainFile(File file) throws IOException {
+    File tempFile = new File(file.getPath() + MASTER_DOMAIN_FILE_TEMP_EXTENSION);
+
+    boolean written = false;
+    Writer out = null;
+    try {
+      out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), Charsets.UTF_8));
+      masterSupportManager.writeMasterDomainDescription(out);
+      out.close();
+      out = null;
+
+      replaceFile(tempFile, file);
+      written = true;
+    } finally {
+      Closeables.close(out, true);
+      if (!written) {
+        fileSupport.delete(tempFile);
+      }
+    }
+  }
+
+  /**
+   * Replace a file with a new one.
+   *
+   * <p>
+   * The rename replaces the file atomically where the platform allows it.
+   * Otherwise the old file is moved aside and only deleted once the new file
+   * is in place, and put back if the new file can't be moved in.
+   *
+   * @param newFile
+   *          the file holding the new contents
+   * @param file
+   *          the file to replace
+   *
+   * @throws IOException
+   *           the file could not be replaced
+   */
+  private void replaceFile(File newFile, File file) throws IOException {
+    if (fileSupport.rename(newFile, file)) {
+      return;
+    }
+
+    File backupFile = new File(file.getPath() + MASTER_DOMAIN_FILE_BACKUP_EXTENSION);
+    fileSupport.delete(backupFile);
+    if (fileSupport.exists(file) && !fileSupport.rename(file, backupFile)) {
+      throw new IOException(String.format("Could not rename %s to %s", file, backupFile));
+    }
+
+    if (!fileSupport.rename(newFile, file)) {
+      if (fileSupport.exists(backupFile)) {
+        fileSupport.rename(backupFile, file);
+      }
+      throw new IOException(String.format("Could not rename %s to %s", newFile, file));
+    }
+
+    fileSupport.delete(backupFile);
+  }
+
+  /**
+   * Import the master domain description from a file.
+   *
+   * @param file
+   *          the file to read
+   *
+   * @throws IOException
+   *           the file could not be read
+   */
+  private void readMasterDomainFile(File file) throws IOException {
+    Reader in = null;
+    try {
+      in = new BufferedReader(new InputStreamReader(new FileInputStream(file), Charsets.UTF_8));
+      masterSupportManager.importMasterDomainDescription(in);
+    } finally {
+      Closeables.closeQuietly(in);
+    }
+  }
+
   /**
    * @param masterSupportManager
    *          the masterSupportManager to set
@@ -25,7 +25,7 @@ import interactivespaces.system.InteractiveSpacesEnvironment;
 import interactivespaces.system.InteractiveSpacesSystemControl;
 import interactivespaces.util.io.directorywatcher.DirectoryWatcher;
 import interactivespaces.util.io.directorywatcher.DirectoryWatcherListener;
-import interactivespaces.util.io.directorywatcher.SimpleDirectoryWatcher;
+import interactivespaces.util.io.directorywatcher.DirectoryWatchers;
 
 import java.io.File;
 import java.util.List;
@@ -160,7 +160,7 @@ public class MasterFileControl implements DirectoryWatcherListener {
    */
   public void startup() {
     File controlDirectory = new File(spaceEnvironment.getFilesystem().getInstallDirectory(), FOLDER_RUN_CONTROL);
-    watcher = new SimpleDirectoryWatcher(true);
+    watcher = DirectoryWatchers.newDirectoryWatcher(true);
     watcher.addDirectory(controlDirectory);
     watcher.addDirectoryWatcherListener(this);
 
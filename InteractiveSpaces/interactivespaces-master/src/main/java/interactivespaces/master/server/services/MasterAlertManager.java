@@ -33,6 +33,12 @@ public interface MasterAlertManager {
    */
   public static final String ALERT_TYPE_CONTROLLER_TIMEOUT = "controller.timeout";
 
+  /**
+   * Alert type for a controller which is suspected of having failed, but has
+   * not timed out yet.
+   */
+  public static final String ALERT_TYPE_CONTROLLER_SUSPECTED = "controller.suspected";
+
   /**
    * Start the alert manager up.
    */
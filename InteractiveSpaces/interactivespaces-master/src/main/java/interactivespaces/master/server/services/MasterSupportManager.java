@@ -16,6 +16,9 @@
 
 package interactivespaces.master.server.services;
 
+import java.io.Reader;
+import java.io.Writer;
+
 /**
  * Manager for supporting master operations.
  *
@@ -47,4 +50,22 @@ public interface MasterSupportManager {
    *          the description to import
    */
   void importMasterDomainDescription(String description);
+
+  /**
+   * Write a description of the entire master domain. Each entity is written as
+   * it is read so the description is never held in memory.
+   *
+   * @param out
+   *          where to write the description, will not be closed
+   */
+  void writeMasterDomainDescription(Writer out);
+
+  /**
+   * Import a master domain description. Entities are imported as they are read
+   * and saved in batches.
+   *
+   * @param in
+   *          where to read the description from, will not be closed
+   */
+  void importMasterDomainDescription(Reader in);
 }
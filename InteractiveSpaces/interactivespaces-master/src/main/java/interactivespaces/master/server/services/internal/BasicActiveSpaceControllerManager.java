@@ -46,6 +46,7 @@ import com.google.common.collect.Sets;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * An implementation of the {@link ActiveSpaceControllerManager}.
@@ -57,8 +58,12 @@ public class BasicActiveSpaceControllerManager implements InternalActiveSpaceCon
 
   /**
    * All active controllers keyed by their controller's UUID.
+   *
+   * <p>
+   * Lookups don't lock so that heartbeats from many controllers don't contend. Additions still synchronize on the map
+   * so that a controller is only made active once.
    */
-  private final Map<String, ActiveSpaceController> activeSpaceControllers = Maps.newHashMap();
+  private final ConcurrentMap<String, ActiveSpaceController> activeSpaceControllers = Maps.newConcurrentMap();
 
   /**
    * All active activities keyed by their live activity's UUID.
@@ -822,9 +827,7 @@ public class BasicActiveSpaceControllerManager implements InternalActiveSpaceCon
    */
   @VisibleForTesting
   ActiveSpaceController getActiveControllerByUuid(String uuid) {
-    synchronized (activeSpaceControllers) {
-      return activeSpaceControllers.get(uuid);
-    }
+    return activeSpaceControllers.get(uuid);
   }
 
   /**
@@ -896,7 +899,12 @@ public class BasicActiveSpaceControllerManager implements InternalActiveSpaceCon
         // error or something that is currently being shown.
         active.setDeployState(ActivityState.READY);
 
-        spaceEnvironment.getLog().info(String.format("Live activity %s deployed successfully", uuid));
+        if (result.getStatusDetail() != null) {
+          spaceEnvironment.getLog().info(
+              String.format("Live activity %s deployed successfully, %s", uuid, result.getStatusDetail()));
+        } else {
+          spaceEnvironment.getLog().info(String.format("Live activity %s deployed successfully", uuid));
+        }
 
       } else {
         active.setDeployState(ActivityState.DEPLOY_FAILURE, result.getStatus().toString());
@@ -23,6 +23,7 @@ import interactivespaces.master.api.master.MasterApiMasterSupportManager;
 import interactivespaces.master.api.master.MasterApiSpaceControllerManager;
 import interactivespaces.master.server.services.ActiveSpaceControllerManager;
 import interactivespaces.master.server.services.ActivityRepository;
+import interactivespaces.master.server.services.AutomationRepository;
 import interactivespaces.master.server.services.AutomationManager;
 import interactivespaces.master.server.services.SpaceControllerRepository;
 import interactivespaces.master.server.services.ScriptingNames;
@@ -32,7 +33,7 @@ import interactivespaces.service.script.StringScriptSource;
 import interactivespaces.system.InteractiveSpacesEnvironment;
 import interactivespaces.util.io.directorywatcher.BaseDirectoryWatcherListener;
 import interactivespaces.util.io.directorywatcher.DirectoryWatcher;
-import interactivespaces.util.io.directorywatcher.SimpleDirectoryWatcher;
+import interactivespaces.util.io.directorywatcher.DirectoryWatchers;
 
 import com.google.common.collect.Maps;
 
@@ -85,6 +86,11 @@ public class BasicAutomationManager implements AutomationManager {
    */
   private ActivityRepository activityRepository;
 
+  /**
+   * The automation repository holding the named scripts.
+   */
+  private AutomationRepository automationRepository;
+
   /**
    * The activity controller manager to use for the automation master.
    */
@@ -125,6 +131,7 @@ public class BasicAutomationManager implements AutomationManager {
     prepareImportDirectoryWatcher();
     prepareAutomationBindings();
     schedulerService.addSchedulingEntities(automationBindings);
+    prepareNamedScripts();
   }
 
   @Override
@@ -156,11 +163,29 @@ public class BasicAutomationManager implements AutomationManager {
     }
   }
 
+  /**
+   * Prepare all named scripts so that their first run doesn't pay for engine
+   * startup and compilation.
+   */
+  private void prepareNamedScripts() {
+    if (automationRepository == null) {
+      return;
+    }
+
+    for (NamedScript script : automationRepository.getAllNamedScripts()) {
+      try {
+        scriptService.prepareScriptByName(script.getLanguage(), new StringScriptSource(script.getContent()));
+      } catch (Exception e) {
+        spaceEnvironment.getLog().warn(String.format("Could not prepare script %s", script.getName()), e);
+      }
+    }
+  }
+
   /**
    * Prepare the directory watcher for automatic import of activities.
    */
   private void prepareImportDirectoryWatcher() {
-    importDirectoryWatcher = new SimpleDirectoryWatcher();
+    importDirectoryWatcher = DirectoryWatchers.newDirectoryWatcher();
     importDirectoryWatcher.addDirectory(new File(spaceEnvironment.getFilesystem().getInstallDirectory(),
         ACTIVITY_IMPORT_DIRECTORY));
     importDirectoryWatcher.addDirectory(new File(spaceEnvironment.getFilesystem().getInstallDirectory(),
@@ -256,6 +281,14 @@ public class BasicAutomationManager implements AutomationManager {
     this.activityRepository = activityRepository;
   }
 
+  /**
+   * @param automationRepository
+   *          the automationRepository to set
+   */
+  public void setAutomationRepository(AutomationRepository automationRepository) {
+    this.automationRepository = automationRepository;
+  }
+
   /**
    * @param activeControllerManager
    *          the activeControllerManager to set
@@ -35,8 +35,7 @@ import interactivespaces.util.io.directorywatcher.BatchDirectoryWatcher;
 import interactivespaces.util.io.directorywatcher.BatchDirectoryWatcherListener;
 import interactivespaces.util.io.directorywatcher.DirectoryWatcher;
 import interactivespaces.util.io.directorywatcher.DirectoryWatcherListener;
-import interactivespaces.util.io.directorywatcher.SimpleBatchDirectoryWatcher;
-import interactivespaces.util.io.directorywatcher.SimpleDirectoryWatcher;
+import interactivespaces.util.io.directorywatcher.DirectoryWatchers;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -208,7 +207,7 @@ public class BasicExtensionManager implements ExtensionManager {
    * Initialize the Startup extensions.
    */
   private void initializeStartupExtensions() {
-    startupExtensionsDirectoryWatcher = new SimpleBatchDirectoryWatcher();
+    startupExtensionsDirectoryWatcher = DirectoryWatchers.newBatchDirectoryWatcher();
     startupExtensionsDirectoryWatcher.addDirectory(new File(spaceEnvironment.getFilesystem().getInstallDirectory(),
         STARTUP_EXTENSIONS_DIRECTORY));
     startupExtensionsDirectoryWatcher.addBatchDirectoryWatcherListener(new BatchDirectoryWatcherListener() {
@@ -251,7 +250,7 @@ public class BasicExtensionManager implements ExtensionManager {
    * Initialize the API extensions.
    */
   private void initializeApiExtensions() {
-    apiExtensionsDirectoryWatcher = new SimpleDirectoryWatcher();
+    apiExtensionsDirectoryWatcher = DirectoryWatchers.newDirectoryWatcher();
     apiExtensionsDirectoryWatcher.addDirectory(new File(spaceEnvironment.getFilesystem().getInstallDirectory(),
         API_EXTENSIONS_DIRECTORY));
     apiExtensionsDirectoryWatcher.addDirectoryWatcherListener(new DirectoryWatcherListener() {
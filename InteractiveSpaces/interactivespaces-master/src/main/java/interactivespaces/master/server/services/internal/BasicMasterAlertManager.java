@@ -16,6 +16,7 @@
 
 package interactivespaces.master.server.services.internal;
 
+import interactivespaces.configuration.Configuration;
 import interactivespaces.domain.basic.SpaceController;
 import interactivespaces.master.server.services.ActiveSpaceController;
 import interactivespaces.master.server.services.ActiveSpaceControllerManager;
@@ -26,18 +27,25 @@ import interactivespaces.master.server.services.SpaceControllerRepository;
 import interactivespaces.service.alert.AlertService;
 import interactivespaces.system.InteractiveSpacesEnvironment;
 
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A basic implementation of a {@link MasterAlertManager}.
  *
+ * <p>
+ * Each space controller's heartbeats feed a {@link PhiAccrualFailureDetector}. A controller whose suspicion level
+ * passes the suspicion threshold raises a {@link MasterAlertManager#ALERT_TYPE_CONTROLLER_SUSPECTED} alert, and one
+ * which passes the failure threshold or has gone longer than the space controller heartbeat time without a heartbeat
+ * raises a {@link MasterAlertManager#ALERT_TYPE_CONTROLLER_TIMEOUT} alert.
+ *
+ * <p>
+ * Controllers are not all scanned every time. Each watcher is placed in a {@link HashedTimingWheel} at the time it
+ * could next need an alert and is only looked at then.
+ *
  * @author Keith M. Hughes
  */
 public class BasicMasterAlertManager implements MasterAlertManager {
@@ -47,10 +55,54 @@ public class BasicMasterAlertManager implements MasterAlertManager {
    */
   public static final int SPACE_CONTROLLER_HEARTBEAT_TIME_DEFAULT = 30000;
 
+  /**
+   * Configuration property giving the number of milliseconds space controllers are expected to send heartbeats at
+   * before any have been seen.
+   */
+  public static final String CONFIGURATION_PROPERTY_SPACE_CONTROLLER_HEARTBEAT_INTERVAL =
+      "interactivespaces.master.alert.controller.heartbeat.interval";
+
+  /**
+   * Default number of milliseconds space controllers are expected to send heartbeats at.
+   */
+  public static final long SPACE_CONTROLLER_HEARTBEAT_INTERVAL_DEFAULT = 10000;
+
+  /**
+   * Configuration property giving the suspicion level at which a space controller is suspected of having failed.
+   */
+  public static final String CONFIGURATION_PROPERTY_SPACE_CONTROLLER_SUSPICION_THRESHOLD =
+      "interactivespaces.master.alert.controller.threshold.suspicion";
+
+  /**
+   * Default suspicion level at which a space controller is suspected of having failed.
+   */
+  public static final double SPACE_CONTROLLER_SUSPICION_THRESHOLD_DEFAULT = 8.0;
+
+  /**
+   * Configuration property giving the suspicion level at which a space controller is considered to have failed.
+   */
+  public static final String CONFIGURATION_PROPERTY_SPACE_CONTROLLER_FAILURE_THRESHOLD =
+      "interactivespaces.master.alert.controller.threshold.failure";
+
+  /**
+   * Default suspicion level at which a space controller is considered to have failed.
+   */
+  public static final double SPACE_CONTROLLER_FAILURE_THRESHOLD_DEFAULT = 12.0;
+
+  /**
+   * Configuration property giving the number of milliseconds the watcher thread delays between scans.
+   */
+  public static final String CONFIGURATION_PROPERTY_WATCHER_DELAY = "interactivespaces.master.alert.watcher.delay";
+
   /**
    * The default number of milliseconds the watcher thread delays between scans.
    */
-  private static final int WATCHER_DELAY_DEFAULT = 1000;
+  public static final long WATCHER_DELAY_DEFAULT = 250;
+
+  /**
+   * The number of buckets in the timing wheel.
+   */
+  private static final int TIMING_WHEEL_NUMBER_BUCKETS = 512;
 
   /**
    * The active controller manager to listen to.
@@ -63,6 +115,21 @@ public class BasicMasterAlertManager implements MasterAlertManager {
    */
   private long spaceControllerHeartbeatTime = SPACE_CONTROLLER_HEARTBEAT_TIME_DEFAULT;
 
+  /**
+   * Number of milliseconds space controllers are expected to send heartbeats at before any have been seen.
+   */
+  private long spaceControllerHeartbeatInterval = SPACE_CONTROLLER_HEARTBEAT_INTERVAL_DEFAULT;
+
+  /**
+   * Suspicion level at which a space controller is suspected of having failed.
+   */
+  private double spaceControllerSuspicionThreshold = SPACE_CONTROLLER_SUSPICION_THRESHOLD_DEFAULT;
+
+  /**
+   * Suspicion level at which a space controller is considered to have failed.
+   */
+  private double spaceControllerFailureThreshold = SPACE_CONTROLLER_FAILURE_THRESHOLD_DEFAULT;
+
   /**
    * The listener for space controller events.
    */
@@ -93,12 +160,18 @@ public class BasicMasterAlertManager implements MasterAlertManager {
    * Number of milliseconds the alert watcher waits before scanning for activity
    * state.
    */
-  private final long alertWatcherDelay = WATCHER_DELAY_DEFAULT;
+  private long alertWatcherDelay = WATCHER_DELAY_DEFAULT;
 
   /**
    * A mapping of controller UUIDs to the controller.
    */
-  private final Map<String, SpaceControllerAlertWatcher> spaceControllerWatchers = Maps.newHashMap();
+  private final ConcurrentMap<String, SpaceControllerAlertWatcher> spaceControllerWatchers = Maps.newConcurrentMap();
+
+  /**
+   * The watchers, by when they next need to be checked. Its tick is the alert
+   * watcher delay, so it is recreated at startup once the delay is configured.
+   */
+  private volatile HashedTimingWheel<SpaceControllerAlertWatcher> checkWheel = newCheckWheel();
 
   /**
    * The alert service to use.
@@ -117,6 +190,19 @@ public class BasicMasterAlertManager implements MasterAlertManager {
 
   @Override
   public void startup() {
+    Configuration systemConfiguration = spaceEnvironment.getSystemConfiguration();
+    spaceControllerHeartbeatInterval =
+        systemConfiguration.getPropertyLong(CONFIGURATION_PROPERTY_SPACE_CONTROLLER_HEARTBEAT_INTERVAL,
+            spaceControllerHeartbeatInterval);
+    spaceControllerSuspicionThreshold =
+        systemConfiguration.getPropertyDouble(CONFIGURATION_PROPERTY_SPACE_CONTROLLER_SUSPICION_THRESHOLD,
+            spaceControllerSuspicionThreshold);
+    spaceControllerFailureThreshold =
+        systemConfiguration.getPropertyDouble(CONFIGURATION_PROPERTY_SPACE_CONTROLLER_FAILURE_THRESHOLD,
+            spaceControllerFailureThreshold);
+    alertWatcherDelay = systemConfiguration.getPropertyLong(CONFIGURATION_PROPERTY_WATCHER_DELAY, alertWatcherDelay);
+    checkWheel = newCheckWheel();
+
     activeSpaceControllerManager.addSpaceControllerListener(spaceControllerListener);
 
     alertWatcherControl = spaceEnvironment.getExecutorService().scheduleAtFixedRate(new Runnable() {
@@ -126,7 +212,9 @@ public class BasicMasterAlertManager implements MasterAlertManager {
       }
     }, alertWatcherDelay, alertWatcherDelay, TimeUnit.MILLISECONDS);
 
-    spaceEnvironment.getLog().info("Master alert manager started");
+    spaceEnvironment.getLog().info(
+        String.format("Master alert manager started, suspicion threshold %.1f, failure threshold %.1f",
+            spaceControllerSuspicionThreshold, spaceControllerFailureThreshold));
   }
 
   @Override
@@ -138,14 +226,31 @@ public class BasicMasterAlertManager implements MasterAlertManager {
     }
   }
 
+  /**
+   * Create a timing wheel which ticks at the alert watcher delay.
+   *
+   * @return the timing wheel
+   */
+  private HashedTimingWheel<SpaceControllerAlertWatcher> newCheckWheel() {
+    return new HashedTimingWheel<SpaceControllerAlertWatcher>(alertWatcherDelay, TIMING_WHEEL_NUMBER_BUCKETS);
+  }
+
   /**
    * Scan for alerts.
+   *
+   * <p>
+   * Only the watchers which are due to be checked are looked at.
    */
   public void scan() {
     long currentTimestamp = spaceEnvironment.getTimeProvider().getCurrentTime();
 
-    for (SpaceControllerAlertWatcher watcher : getSpaceControllerWatchers()) {
-      watcher.check(currentTimestamp);
+    HashedTimingWheel<SpaceControllerAlertWatcher> wheel = checkWheel;
+    synchronized (wheel) {
+      for (SpaceControllerAlertWatcher watcher : wheel.advance(currentTimestamp)) {
+        if (!watcher.isRemoved()) {
+          wheel.schedule(watcher, watcher.check(currentTimestamp));
+        }
+      }
     }
   }
 
@@ -199,10 +304,13 @@ public class BasicMasterAlertManager implements MasterAlertManager {
    */
   private void addSpaceControllerWatcher(String uuid) {
     long timestamp = spaceEnvironment.getTimeProvider().getCurrentTime();
-    synchronized (spaceControllerWatchers) {
-      SpaceControllerAlertWatcher watcher = new SpaceControllerAlertWatcher(uuid, timestamp);
-      spaceControllerWatchers.put(uuid, watcher);
+    SpaceControllerAlertWatcher watcher = new SpaceControllerAlertWatcher(uuid, timestamp);
+    SpaceControllerAlertWatcher previous = spaceControllerWatchers.put(uuid, watcher);
+    if (previous != null) {
+      previous.remove();
     }
+
+    checkWheel.schedule(watcher, watcher.getNextCheckTime(timestamp));
   }
 
   /**
@@ -214,9 +322,7 @@ public class BasicMasterAlertManager implements MasterAlertManager {
    * @return the watcher
    */
   public SpaceControllerAlertWatcher getSpaceControllerWatcher(String uuid) {
-    synchronized (spaceControllerWatchers) {
-      return spaceControllerWatchers.get(uuid);
-    }
+    return spaceControllerWatchers.get(uuid);
   }
 
   /**
@@ -229,19 +335,9 @@ public class BasicMasterAlertManager implements MasterAlertManager {
    *          the UUID of the space controller
    */
   public void removeSpaceControllerWatcher(String uuid) {
-    synchronized (spaceControllerWatchers) {
-      spaceControllerWatchers.remove(uuid);
-    }
-  }
-
-  /**
-   * Get all space controller watchers currently registered.
-   *
-   * @return all watchers
-   */
-  private List<SpaceControllerAlertWatcher> getSpaceControllerWatchers() {
-    synchronized (spaceControllerWatchers) {
-      return Lists.newArrayList(spaceControllerWatchers.values());
+    SpaceControllerAlertWatcher watcher = spaceControllerWatchers.remove(uuid);
+    if (watcher != null) {
+      watcher.remove();
     }
   }
 
@@ -283,6 +379,54 @@ public class BasicMasterAlertManager implements MasterAlertManager {
     return spaceControllerHeartbeatTime;
   }
 
+  /**
+   * Set the interval space controllers are expected to send heartbeats at before any have been seen.
+   *
+   * @param spaceControllerHeartbeatInterval
+   *          the interval in milliseconds
+   */
+  public void setSpaceControllerHeartbeatInterval(long spaceControllerHeartbeatInterval) {
+    this.spaceControllerHeartbeatInterval = spaceControllerHeartbeatInterval;
+  }
+
+  /**
+   * Set the suspicion level at which a space controller is suspected of having failed.
+   *
+   * @param spaceControllerSuspicionThreshold
+   *          the suspicion level
+   */
+  public void setSpaceControllerSuspicionThreshold(double spaceControllerSuspicionThreshold) {
+    this.spaceControllerSuspicionThreshold = spaceControllerSuspicionThreshold;
+  }
+
+  /**
+   * Get the suspicion level at which a space controller is suspected of having failed.
+   *
+   * @return the suspicion level
+   */
+  public double getSpaceControllerSuspicionThreshold() {
+    return spaceControllerSuspicionThreshold;
+  }
+
+  /**
+   * Set the suspicion level at which a space controller is considered to have failed.
+   *
+   * @param spaceControllerFailureThreshold
+   *          the suspicion level
+   */
+  public void setSpaceControllerFailureThreshold(double spaceControllerFailureThreshold) {
+    this.spaceControllerFailureThreshold = spaceControllerFailureThreshold;
+  }
+
+  /**
+   * Get the suspicion level at which a space controller is considered to have failed.
+   *
+   * @return the suspicion level
+   */
+  public double getSpaceControllerFailureThreshold() {
+    return spaceControllerFailureThreshold;
+  }
+
   /**
    * @param spaceControllerRepository
    *          the controllerRepository to set
@@ -314,22 +458,42 @@ public class BasicMasterAlertManager implements MasterAlertManager {
    */
   public class SpaceControllerAlertWatcher {
 
+    /**
+     * Alert level when no alert has been raised since the last heartbeat.
+     */
+    private static final int ALERT_LEVEL_NONE = 0;
+
+    /**
+     * Alert level when the controller has been suspected since the last heartbeat.
+     */
+    private static final int ALERT_LEVEL_SUSPECTED = 1;
+
+    /**
+     * Alert level when the controller has timed out since the last heartbeat.
+     */
+    private static final int ALERT_LEVEL_TIMEOUT = 2;
+
     /**
      * UUID of the controller being watched.
      */
     private final String uuid;
 
     /**
-     * Last timestamp for a heartbeat.
+     * The failure detector for the controller's heartbeats.
      */
-    private final AtomicLong lastHeartbeatTimestamp;
+    private final PhiAccrualFailureDetector failureDetector;
 
     /**
-     * {@code true} if an alert has been sent.
+     * The highest alert raised since the last heartbeat.
      *
      * TODO(keith): make a strategy.
      */
-    private volatile boolean alerted = false;
+    private volatile int alertLevel = ALERT_LEVEL_NONE;
+
+    /**
+     * {@code true} if the watcher is no longer being used.
+     */
+    private volatile boolean removed = false;
 
     /**
      * Construct a new alert watcher.
@@ -341,7 +505,7 @@ public class BasicMasterAlertManager implements MasterAlertManager {
      */
     public SpaceControllerAlertWatcher(String uuid, long timestamp) {
       this.uuid = uuid;
-      lastHeartbeatTimestamp = new AtomicLong(timestamp);
+      failureDetector = new PhiAccrualFailureDetector(spaceControllerHeartbeatInterval, timestamp);
     }
 
     /**
@@ -351,8 +515,20 @@ public class BasicMasterAlertManager implements MasterAlertManager {
      *          the new heartbeat
      */
     public void heartbeat(long heartbeatTimestamp) {
-      lastHeartbeatTimestamp.set(heartbeatTimestamp);
-      alerted = false;
+      failureDetector.heartbeat(heartbeatTimestamp);
+      alertLevel = ALERT_LEVEL_NONE;
+    }
+
+    /**
+     * Get the current suspicion level for the space controller.
+     *
+     * @param currentTimestamp
+     *          the current time
+     *
+     * @return the suspicion level
+     */
+    public double getSuspicionLevel(long currentTimestamp) {
+      return failureDetector.getPhi(currentTimestamp);
     }
 
     /**
@@ -360,12 +536,60 @@ public class BasicMasterAlertManager implements MasterAlertManager {
      *
      * @param currentTimestamp
      *          the time stamp to check against
+     *
+     * @return the time the watcher next needs to be checked
+     */
+    public long check(long currentTimestamp) {
+      long timeSinceLastHeartbeat = currentTimestamp - failureDetector.getLastHeartbeatTimestamp();
+      double phi = failureDetector.getPhi(currentTimestamp);
+      if (timeSinceLastHeartbeat > spaceControllerHeartbeatTime || phi >= spaceControllerFailureThreshold) {
+        handleAlertSpaceControllerTimeout(timeSinceLastHeartbeat, phi);
+      } else if (phi >= spaceControllerSuspicionThreshold) {
+        handleAlertSpaceControllerSuspected(timeSinceLastHeartbeat, phi);
+      }
+
+      return getNextCheckTime(currentTimestamp);
+    }
+
+    /**
+     * Get the next time the watcher needs to be checked if no heartbeats come in.
+     *
+     * @param currentTimestamp
+     *          the current time
+     *
+     * @return the time of the next check
      */
-    public void check(long currentTimestamp) {
-      long timeSinceLastHeartbeat = currentTimestamp - lastHeartbeatTimestamp.get();
-      if (timeSinceLastHeartbeat > spaceControllerHeartbeatTime) {
-        handleAlertSpaceControllerTimeout(timeSinceLastHeartbeat);
+    public long getNextCheckTime(long currentTimestamp) {
+      // Never wait longer than a heartbeat interval so that a change in the heartbeat statistics is picked up.
+      long nextCheckTime = currentTimestamp + spaceControllerHeartbeatInterval;
+
+      int level = alertLevel;
+      if (level < ALERT_LEVEL_TIMEOUT) {
+        nextCheckTime =
+            Math.min(nextCheckTime, failureDetector.getLastHeartbeatTimestamp() + spaceControllerHeartbeatTime + 1);
+        nextCheckTime = Math.min(nextCheckTime, failureDetector.getTimeOfPhi(spaceControllerFailureThreshold));
+        if (level < ALERT_LEVEL_SUSPECTED) {
+          nextCheckTime = Math.min(nextCheckTime, failureDetector.getTimeOfPhi(spaceControllerSuspicionThreshold));
+        }
       }
+
+      return Math.max(nextCheckTime, currentTimestamp);
+    }
+
+    /**
+     * Is the watcher no longer being used?
+     *
+     * @return {@code true} if the watcher has been removed
+     */
+    public boolean isRemoved() {
+      return removed;
+    }
+
+    /**
+     * The watcher is no longer being used.
+     */
+    void remove() {
+      removed = true;
     }
 
     /**
@@ -373,34 +597,67 @@ public class BasicMasterAlertManager implements MasterAlertManager {
      *
      * @param timeSinceLastHeartbeat
      *          number of milliseconds since last heartbeat
+     * @param phi
+     *          the suspicion level of the space controller
+     */
+    private void handleAlertSpaceControllerTimeout(long timeSinceLastHeartbeat, double phi) {
+      if (alertLevel < ALERT_LEVEL_TIMEOUT) {
+        alertLevel = ALERT_LEVEL_TIMEOUT;
+
+        alertService.raiseAlert(ALERT_TYPE_CONTROLLER_TIMEOUT, uuid, createAlertMessage(
+            "No space controller heartbeat in %d milliseconds", timeSinceLastHeartbeat, phi,
+            spaceControllerFailureThreshold));
+      }
+    }
+
+    /**
+     * A space controller is suspected of having failed. Decide what to do.
+     *
+     * @param timeSinceLastHeartbeat
+     *          number of milliseconds since last heartbeat
+     * @param phi
+     *          the suspicion level of the space controller
      */
-    private void handleAlertSpaceControllerTimeout(long timeSinceLastHeartbeat) {
-      if (!alerted) {
-        alerted = true;
+    private void handleAlertSpaceControllerSuspected(long timeSinceLastHeartbeat, double phi) {
+      if (alertLevel < ALERT_LEVEL_SUSPECTED) {
+        alertLevel = ALERT_LEVEL_SUSPECTED;
 
-        alertService.raiseAlert(ALERT_TYPE_CONTROLLER_TIMEOUT, uuid, createAlertMessage(timeSinceLastHeartbeat));
+        alertService.raiseAlert(ALERT_TYPE_CONTROLLER_SUSPECTED, uuid, createAlertMessage(
+            "Space controller heartbeat overdue, none in %d milliseconds", timeSinceLastHeartbeat, phi,
+            spaceControllerSuspicionThreshold));
       }
     }
 
     /**
      * Create a message for the alert.
      *
+     * @param summaryFormat
+     *          format for the first line of the message, given the time since the last heartbeat
      * @param timeSinceLastHeartbeat
      *          the amount of time for the scan
+     * @param phi
+     *          the suspicion level of the space controller
+     * @param threshold
+     *          the suspicion level threshold which was passed
      *
      * @return the fully formated message
      */
-    private String createAlertMessage(long timeSinceLastHeartbeat) {
+    private String createAlertMessage(String summaryFormat, long timeSinceLastHeartbeat, double phi,
+        double threshold) {
+      String summary = String.format(summaryFormat, timeSinceLastHeartbeat);
+      String suspicion =
+          String.format("Suspicion level: %.1f (threshold %.1f)\nMean heartbeat interval: %.0f milliseconds\n"
+              + "Heartbeat interval deviation: %.0f milliseconds\n", phi, threshold,
+              failureDetector.getMeanInterval(), failureDetector.getStandardDeviation());
+
       SpaceController controller = spaceControllerRepository.getSpaceControllerByUuid(uuid);
 
       if (controller != null) {
-        String message =
-            "No space controller heartbeat in %d milliseconds\n\n" + "ID: %s\nUUID: %s\nName: %s\nHostId: %s\n";
-        return String.format(message, timeSinceLastHeartbeat, controller.getId(), uuid, controller.getName(),
-            controller.getHostId());
+        String message = "%s\n\n" + "ID: %s\nUUID: %s\nName: %s\nHostId: %s\n%s";
+        return String.format(message, summary, controller.getId(), uuid, controller.getName(),
+            controller.getHostId(), suspicion);
       } else {
-        return String.format("No space controller heartbeat in %d milliseconds\nUnknown space controller with UUID %s",
-            timeSinceLastHeartbeat, uuid);
+        return String.format("%s\nUnknown space controller with UUID %s\n%s", summary, uuid, suspicion);
       }
     }
   }
@@ -1,19 +1,38 @@
 package interactivespaces.master.server.services.internal;
 
 import interactivespaces.InteractiveSpacesException;
+import interactivespaces.SimpleInteractiveSpacesException;
 import interactivespaces.common.ResourceRepositoryUploadChannel;
 import interactivespaces.master.server.services.ActiveSpaceController;
 import interactivespaces.resource.Version;
 import interactivespaces.resource.repository.ResourceRepositoryServer;
 import interactivespaces.resource.repository.ResourceRepositoryStorageManager;
+import interactivespaces.util.data.chunk.ChunkedContentBundle;
+import interactivespaces.util.data.chunk.ChunkedContentManifest;
+import interactivespaces.util.data.chunk.ContentChunker;
 import interactivespaces.util.data.resource.CopyableResource;
 import interactivespaces.util.data.resource.CopyableResourceListener;
 import interactivespaces.util.io.FileSupport;
 import interactivespaces.util.io.FileSupportImpl;
 
+import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+
 import org.apache.commons.logging.Log;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 /**
  * Basic data bundle manager. Needs to be sub-classed to provide the necessary
@@ -28,11 +47,31 @@ public abstract class BasicMasterDataBundleManager implements MasterDataBundleMa
    */
   public static final Version DATA_BUNDLE_STATIC_VERSION = new Version(0, 0, 0, "noversion");
 
+  /**
+   * Prefix for the names of data resources holding chunks of chunked data bundles.
+   */
+  public static final String DATA_BUNDLE_CHUNK_PREFIX = "chunk-";
+
+  /**
+   * Subdirectory of the data repository for incoming uploads.
+   */
+  private static final String INCOMING_DIRECTORY = "incoming";
+
   /**
    * Resource repository server to use.
    */
   private ResourceRepositoryServer resourceRepositoryServer;
 
+  /**
+   * Resource repository storage, chunked data bundles aren't supported if {@code null}.
+   */
+  private ResourceRepositoryStorageManager repositoryStorageManager;
+
+  /**
+   * Mutex for making changes to the stored chunks.
+   */
+  private final Object chunkMutex = new Object();
+
   /**
    * Logger for the manager.
    */
@@ -109,6 +148,12 @@ public abstract class BasicMasterDataBundleManager implements MasterDataBundleMa
    *          the actual resource that was uploaded.
    */
   private void handleDataBundleUploadSuccess(String controllerUuid, CopyableResource resourceUpload) {
+    if (repositoryStorageManager != null) {
+      handleDataBundleUpload(controllerUuid, resourceUpload);
+
+      return;
+    }
+
     OutputStream outputStream = null;
     boolean noException = true;
     try {
@@ -124,6 +169,261 @@ public abstract class BasicMasterDataBundleManager implements MasterDataBundleMa
     }
   }
 
+  /**
+   * Handle an upload which may be either a full or a chunked data bundle.
+   *
+   * @param controllerUuid
+   *          the controllerUuid that was uploaded
+   * @param resourceUpload
+   *          the actual resource that was uploaded
+   */
+  private void handleDataBundleUpload(String controllerUuid, CopyableResource resourceUpload) {
+    File incomingDirectory =
+        new File(repositoryStorageManager.getBaseLocation(ResourceRepositoryStorageManager.RESOURCE_CATEGORY_DATA),
+            INCOMING_DIRECTORY);
+    fileSupport.directoryExists(incomingDirectory);
+
+    File incomingFile = null;
+    try {
+      incomingFile = File.createTempFile(controllerUuid, ".zip", incomingDirectory);
+      OutputStream incomingStream = new FileOutputStream(incomingFile);
+      try {
+        resourceUpload.copyTo(incomingStream);
+      } finally {
+        incomingStream.close();
+      }
+
+      ChunkedContentManifest manifest = ChunkedContentBundle.readManifest(incomingFile);
+      synchronized (chunkMutex) {
+        try {
+          if (manifest != null) {
+            storeChunkedDataBundle(controllerUuid, incomingFile, manifest);
+          } else {
+            storeDataBundle(controllerUuid, new FileInputStream(incomingFile));
+          }
+        } finally {
+          // A failed upload may have stored chunks no manifest refers to.
+          collectChunkGarbage();
+        }
+      }
+    } catch (InteractiveSpacesException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new InteractiveSpacesException("Unable to upload bundle for " + controllerUuid, e);
+    } finally {
+      if (incomingFile != null) {
+        fileSupport.delete(incomingFile);
+      }
+    }
+  }
+
+  /**
+   * Store the chunks of a chunked data bundle and make its manifest the controller's data bundle.
+   *
+   * <p>
+   * The current data bundle is left alone if the upload doesn't hold every chunk the repository is missing.
+   *
+   * @param controllerUuid
+   *          UUID of the controller
+   * @param bundleFile
+   *          the uploaded bundle
+   * @param manifest
+   *          the manifest of the bundle
+   *
+   * @throws IOException
+   *           the bundle could not be read
+   */
+  private void storeChunkedDataBundle(String controllerUuid, File bundleFile, ChunkedContentManifest manifest)
+      throws IOException {
+    int numberChunksStored = 0;
+    ZipFile zipFile = new ZipFile(bundleFile);
+    try {
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        String hash = ChunkedContentBundle.getChunkHash(entry.getName());
+        if (hash == null || containsChunk(hash)) {
+          continue;
+        }
+
+        byte[] compressed = readEntry(zipFile, entry);
+        byte[] data = ContentChunker.decompressChunk(new ByteArrayInputStream(compressed));
+        if (!hash.equals(ContentChunker.hashChunk(data, data.length))) {
+          throw new SimpleInteractiveSpacesException(String.format(
+              "Data bundle from controller %s has a corrupt chunk %s", controllerUuid, hash));
+        }
+
+        OutputStream chunkStream =
+            repositoryStorageManager.newResourceOutputStream(ResourceRepositoryStorageManager.RESOURCE_CATEGORY_DATA,
+                DATA_BUNDLE_CHUNK_PREFIX + hash, DATA_BUNDLE_STATIC_VERSION);
+        try {
+          chunkStream.write(compressed);
+        } finally {
+          chunkStream.close();
+        }
+        numberChunksStored++;
+      }
+    } finally {
+      zipFile.close();
+    }
+
+    for (String hash : manifest.getChunkHashes()) {
+      if (!containsChunk(hash)) {
+        throw new SimpleInteractiveSpacesException(String.format(
+            "Data bundle from controller %s is missing chunk %s, keeping the previous data bundle", controllerUuid,
+            hash));
+      }
+    }
+
+    manifest.setProperty(ChunkedContentBundle.PROPERTY_CHUNK_URI, resourceRepositoryServer.getResourceUri(
+        ResourceRepositoryStorageManager.RESOURCE_CATEGORY_DATA, DATA_BUNDLE_CHUNK_PREFIX
+            + ChunkedContentBundle.CHUNK_URI_HASH_PLACEHOLDER, DATA_BUNDLE_STATIC_VERSION));
+
+    OutputStream outputStream =
+        resourceRepositoryServer.createResourceOutputStream(ResourceRepositoryStorageManager.RESOURCE_CATEGORY_DATA,
+            controllerUuid, DATA_BUNDLE_STATIC_VERSION);
+    ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+    try {
+      zipOutputStream.putNextEntry(new ZipEntry(ChunkedContentBundle.ENTRY_MANIFEST));
+      manifest.write(zipOutputStream);
+      zipOutputStream.closeEntry();
+    } finally {
+      zipOutputStream.close();
+    }
+
+    log.info(String.format("Stored chunked data bundle for controller %s, %d new chunks", controllerUuid,
+        numberChunksStored));
+  }
+
+  /**
+   * Store a full data bundle as the controller's data bundle.
+   *
+   * @param controllerUuid
+   *          UUID of the controller
+   * @param bundleStream
+   *          stream of the bundle contents, will be closed
+   *
+   * @throws IOException
+   *           the bundle could not be stored
+   */
+  private void storeDataBundle(String controllerUuid, InputStream bundleStream) throws IOException {
+    OutputStream outputStream = null;
+    try {
+      outputStream =
+          resourceRepositoryServer.createResourceOutputStream(ResourceRepositoryStorageManager.RESOURCE_CATEGORY_DATA,
+              controllerUuid, DATA_BUNDLE_STATIC_VERSION);
+      ByteStreams.copy(bundleStream, outputStream);
+    } finally {
+      Closeables.closeQuietly(bundleStream);
+      if (outputStream != null) {
+        outputStream.close();
+      }
+    }
+  }
+
+  /**
+   * Remove all stored chunks which no controller's data bundle refers to.
+   *
+   * <p>
+   * Must be called with {@link #chunkMutex} held.
+   */
+  private void collectChunkGarbage() {
+    File dataDirectory = repositoryStorageManager.getBaseLocation(ResourceRepositoryStorageManager.RESOURCE_CATEGORY_DATA);
+    File[] files = dataDirectory.listFiles();
+    if (files == null) {
+      return;
+    }
+
+    String chunkFilePrefix = DATA_BUNDLE_CHUNK_PREFIX;
+    String resourceFileSuffix = getDataResourceFileName("");
+
+    Set<String> referencedChunks = Sets.newHashSet();
+    Set<File> chunkFiles = Sets.newHashSet();
+    for (File file : files) {
+      String fileName = file.getName();
+      if (!file.isFile() || !fileName.endsWith(resourceFileSuffix)) {
+        continue;
+      }
+
+      if (fileName.startsWith(chunkFilePrefix)) {
+        chunkFiles.add(file);
+      } else {
+        try {
+          ChunkedContentManifest manifest = ChunkedContentBundle.readManifest(file);
+          if (manifest != null) {
+            referencedChunks.addAll(manifest.getChunkHashes());
+          }
+        } catch (Exception e) {
+          // Can't tell which chunks it needs, so keep everything.
+          log.error(String.format("Could not read data bundle %s, not removing any chunks", file), e);
+          return;
+        }
+      }
+    }
+
+    int numberRemoved = 0;
+    for (File chunkFile : chunkFiles) {
+      String fileName = chunkFile.getName();
+      String hash = fileName.substring(chunkFilePrefix.length(), fileName.length() - resourceFileSuffix.length());
+      if (!referencedChunks.contains(hash)) {
+        fileSupport.delete(chunkFile);
+        numberRemoved++;
+      }
+    }
+
+    if (numberRemoved > 0) {
+      log.info(String.format("Removed %d data bundle chunks no longer referenced", numberRemoved));
+    }
+  }
+
+  /**
+   * Is a chunk stored in the repository?
+   *
+   * @param hash
+   *          hash of the chunk
+   *
+   * @return {@code true} if the chunk is stored
+   */
+  private boolean containsChunk(String hash) {
+    return repositoryStorageManager.containsResource(ResourceRepositoryStorageManager.RESOURCE_CATEGORY_DATA,
+        DATA_BUNDLE_CHUNK_PREFIX + hash, DATA_BUNDLE_STATIC_VERSION);
+  }
+
+  /**
+   * Get the file name of a data resource.
+   *
+   * @param name
+   *          name of the resource
+   *
+   * @return the file name
+   */
+  private String getDataResourceFileName(String name) {
+    return repositoryStorageManager.getRepositoryResourceName(ResourceRepositoryStorageManager.RESOURCE_CATEGORY_DATA,
+        name, DATA_BUNDLE_STATIC_VERSION);
+  }
+
+  /**
+   * Read a zip entry into memory.
+   *
+   * @param zipFile
+   *          the zip file
+   * @param entry
+   *          the entry
+   *
+   * @return the entry contents
+   *
+   * @throws IOException
+   *           the entry could not be read
+   */
+  private byte[] readEntry(ZipFile zipFile, ZipEntry entry) throws IOException {
+    InputStream in = zipFile.getInputStream(entry);
+    try {
+      return ByteStreams.toByteArray(in);
+    } finally {
+      in.close();
+    }
+  }
+
   /**
    * Set the resource repository to use for this request.
    *
@@ -134,6 +434,16 @@ public abstract class BasicMasterDataBundleManager implements MasterDataBundleMa
     this.resourceRepositoryServer = resourceRepositoryServer;
   }
 
+  /**
+   * Set the resource repository storage to use for chunked data bundles.
+   *
+   * @param repositoryStorageManager
+   *          the repository storage, chunked data bundles are stored whole if {@code null}
+   */
+  public void setRepositoryStorageManager(ResourceRepositoryStorageManager repositoryStorageManager) {
+    this.repositoryStorageManager = repositoryStorageManager;
+  }
+
   /**
    * @param log
    *          the log to set
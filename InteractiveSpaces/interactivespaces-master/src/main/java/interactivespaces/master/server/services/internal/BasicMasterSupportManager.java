@@ -20,9 +20,20 @@ import interactivespaces.master.server.services.ActivityRepository;
 import interactivespaces.master.server.services.AutomationRepository;
 import interactivespaces.master.server.services.MasterSupportManager;
 import interactivespaces.master.server.services.SpaceControllerRepository;
-import interactivespaces.master.server.services.internal.support.JdomMasterDomainDescriptionCreator;
-import interactivespaces.master.server.services.internal.support.JdomMasterDomainDescriptionImporter;
+import interactivespaces.master.server.services.internal.support.StreamingMasterDomainDescriptionCreator;
+import interactivespaces.master.server.services.internal.support.StreamingMasterDomainDescriptionImporter;
 import interactivespaces.system.InteractiveSpacesEnvironment;
+import interactivespaces.time.TimeProvider;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
 
 /**
  * A basic implementation of the {@link MasterSupportManager}.
@@ -31,6 +42,13 @@ import interactivespaces.system.InteractiveSpacesEnvironment;
  */
 public class BasicMasterSupportManager implements MasterSupportManager {
 
+  /**
+   * Configuration property for the number of entities saved in a single
+   * transaction when importing a master domain description.
+   */
+  public static final String CONFIGURATION_PROPERTY_IMPORT_BATCH_SIZE =
+      "interactivespaces.master.domain.import.batch.size";
+
   /**
    * Repository for activity entities.
    */
@@ -51,6 +69,11 @@ public class BasicMasterSupportManager implements MasterSupportManager {
    */
   private InteractiveSpacesEnvironment spaceEnvironment;
 
+  /**
+   * The transaction manager for the repositories, can be {@code null}.
+   */
+  private PlatformTransactionManager transactionManager;
+
   @Override
   public void startup() {
     // Nothing right now
@@ -63,17 +86,54 @@ public class BasicMasterSupportManager implements MasterSupportManager {
 
   @Override
   public String getMasterDomainDescription() {
-    JdomMasterDomainDescriptionCreator creator = new JdomMasterDomainDescriptionCreator();
+    StringWriter out = new StringWriter();
+    writeMasterDomainDescription(out);
 
-    return creator.newDescription(activityRepository, spaceControllerRepository, automationRepository);
+    return out.toString();
   }
 
   @Override
   public void importMasterDomainDescription(String description) {
-    JdomMasterDomainDescriptionImporter importer = new JdomMasterDomainDescriptionImporter();
+    importMasterDomainDescription(new StringReader(description));
+  }
 
-    importer.importDescription(description, activityRepository, spaceControllerRepository, automationRepository,
-        spaceEnvironment.getTimeProvider());
+  @Override
+  public void writeMasterDomainDescription(final Writer out) {
+    final StreamingMasterDomainDescriptionCreator creator = new StreamingMasterDomainDescriptionCreator();
+
+    if (transactionManager != null) {
+      // A single read-only transaction gives a consistent snapshot of the
+      // domain and lets lazy relationships load while writing.
+      TransactionTemplate template = new TransactionTemplate(transactionManager);
+      template.setReadOnly(true);
+      template.execute(new TransactionCallbackWithoutResult() {
+        @Override
+        protected void doInTransactionWithoutResult(TransactionStatus status) {
+          creator.writeDescription(out, activityRepository, spaceControllerRepository, automationRepository);
+        }
+      });
+    } else {
+      creator.writeDescription(out, activityRepository, spaceControllerRepository, automationRepository);
+    }
+  }
+
+  @Override
+  public void importMasterDomainDescription(Reader in) {
+    int batchSize =
+        spaceEnvironment.getSystemConfiguration().getPropertyInteger(CONFIGURATION_PROPERTY_IMPORT_BATCH_SIZE,
+            StreamingMasterDomainDescriptionImporter.BATCH_SIZE_DEFAULT);
+    StreamingMasterDomainDescriptionImporter importer =
+        new StreamingMasterDomainDescriptionImporter(transactionManager, batchSize);
+
+    TimeProvider timeProvider = spaceEnvironment.getTimeProvider();
+    long start = timeProvider.getCurrentTime();
+    int numberEntities =
+        importer.importDescription(in, activityRepository, spaceControllerRepository, automationRepository,
+            timeProvider);
+
+    spaceEnvironment.getLog().info(
+        String.format("Imported %d master domain entities in %d msecs", numberEntities,
+            timeProvider.getCurrentTime() - start));
   }
 
   /**
@@ -107,4 +167,12 @@ public class BasicMasterSupportManager implements MasterSupportManager {
   public void setSpaceEnvironment(InteractiveSpacesEnvironment spaceEnvironment) {
     this.spaceEnvironment = spaceEnvironment;
   }
+
+  /**
+   * @param transactionManager
+   *          the transactionManager to set
+   */
+  public void setTransactionManager(PlatformTransactionManager transactionManager) {
+    this.transactionManager = transactionManager;
+  }
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.master.server.services.internal;
+
+import com.google.common.collect.Lists;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A hashed timing wheel which hands back items once their deadlines have passed.
+ *
+ * <p>
+ * Items are hashed into buckets by the tick their deadline falls in, so moving the wheel forward only looks at the
+ * buckets for the ticks which have passed rather than at every item. Time is supplied by the caller so the wheel can
+ * run off any time provider.
+ *
+ * <p>
+ * Items can be scheduled from any thread. The wheel must only be advanced from one thread at a time.
+ *
+ * @param <T>
+ *          the type of the items
+ *
+ * @author agent
+ */
+public class HashedTimingWheel<T> {
+
+  /**
+   * The duration of a tick, in milliseconds.
+   */
+  private final long tickDuration;
+
+  /**
+   * The buckets of the wheel.
+   */
+  private final List<List<Entry<T>>> buckets;
+
+  /**
+   * Items scheduled since the wheel last advanced.
+   */
+  private final Queue<Entry<T>> newEntries = new ConcurrentLinkedQueue<Entry<T>>();
+
+  /**
+   * The last tick the wheel has completely passed, or {@link Long#MIN_VALUE} if the wheel has never advanced.
+   */
+  private long lastTick = Long.MIN_VALUE;
+
+  /**
+   * Construct a new wheel.
+   *
+   * @param tickDuration
+   *          the duration of a tick, in milliseconds
+   * @param numberBuckets
+   *          the number of buckets in the wheel
+   */
+  public HashedTimingWheel(long tickDuration, int numberBuckets) {
+    this.tickDuration = tickDuration;
+
+    buckets = Lists.newArrayListWithCapacity(numberBuckets);
+    for (int i = 0; i < numberBuckets; i++) {
+      buckets.add(Lists.<Entry<T>> newArrayList());
+    }
+  }
+
+  /**
+   * Schedule an item.
+   *
+   * @param item
+   *          the item
+   * @param deadline
+   *          the time after which the item should be handed back
+   */
+  public void schedule(T item, long deadline) {
+    newEntries.add(new Entry<T>(item, deadline));
+  }
+
+  /**
+   * Move the wheel forward to the current time.
+   *
+   * @param currentTime
+   *          the current time
+   *
+   * @return all items whose deadlines are at or before the current time, in no particular order
+   */
+  public List<T> advance(long currentTime) {
+    long currentTick = currentTime / tickDuration;
+    if (lastTick == Long.MIN_VALUE) {
+      lastTick = currentTick - 1;
+    }
+
+    List<T> expired = Lists.newArrayList();
+
+    Entry<T> entry;
+    while ((entry = newEntries.poll()) != null) {
+      long entryTick = entry.deadline / tickDuration;
+      if (entryTick <= lastTick) {
+        // Deadline is in a tick which has already gone by.
+        expired.add(entry.item);
+      } else {
+        getBucket(entryTick).add(entry);
+      }
+    }
+
+    // The current tick is looked at again next time as it hasn't completely passed. Past a full turn every bucket has
+    // been looked at.
+    long ticks = Math.min(currentTick - lastTick, buckets.size());
+    for (long tick = 1; tick <= ticks; tick++) {
+      Iterator<Entry<T>> bucket = getBucket(lastTick + tick).iterator();
+      while (bucket.hasNext()) {
+        entry = bucket.next();
+        if (entry.deadline <= currentTime) {
+          expired.add(entry.item);
+          bucket.remove();
+        }
+      }
+    }
+
+    lastTick = Math.max(lastTick, currentTick - 1);
+
+    return expired;
+  }
+
+  /**
+   * Get the bucket for a tick.
+   *
+   * @param tick
+   *          the tick
+   *
+   * @return the bucket
+   */
+  private List<Entry<T>> getBucket(long tick) {
+    return buckets.get((int) (((tick % buckets.size()) + buckets.size()) % buckets.size()));
+  }
+
+  /**
+   * An item in the wheel.
+   *
+   * @param <T>
+   *          the type of the item
+   *
+   * @author agent
+   */
+  private static class Entry<T> {
+
+    /**
+     * The item.
+     */
+    private final T item;
+
+    /**
+     * The time after which the item should be handed back.
+     */
+    private final long deadline;
+
+    /**
+     * Construct a new entry.
+     *
+     * @param item
+     *          the item
+     * @param deadline
+     *          the time after which the item should be handed back
+     */
+    public Entry(T item, long deadline) {
+      this.item = item;
+      this.deadline = deadline;
+    }
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.master.server.services.internal;
+
+import interactivespaces.InteractiveSpacesException;
+import interactivespaces.system.InteractiveSpacesEnvironment;
+import interactivespaces.time.MonotonicWallClock;
+import interactivespaces.time.TimeProvider;
+import interactivespaces.time.TimeSyncServer;
+import interactivespaces.util.resource.ManagedResource;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the time server space controllers synchronize their clocks against.
+ *
+ * <p>
+ * The time served comes from the master's time provider, interpolated to
+ * nanoseconds with the master's monotonic clock. The clock is checked against
+ * the time provider every {@link #CLOCK_CHECK_PERIOD} milliseconds and is
+ * anchored again if the two have drifted apart, so changes to the master's
+ * time, such as NTP corrections, reach the space controllers.
+ *
+ * <p>
+ * The server only runs when
+ * {@link #CONFIGURATION_PROPERTY_TIME_SERVER_ENABLE} is {@code true}. If it
+ * can't open its port the error is logged and the master carries on without
+ * it.
+ *
+ * @author agent
+ */
+public class MasterTimeSyncServer implements ManagedResource {
+
+  /**
+   * Configuration property saying whether the master runs a time server for
+   * space controllers using the {@code master} time provider.
+   */
+  public static final String CONFIGURATION_PROPERTY_TIME_SERVER_ENABLE = "interactivespaces.master.time.server.enable";
+
+  /**
+   * The default value for {@link #CONFIGURATION_PROPERTY_TIME_SERVER_ENABLE}.
+   */
+  public static final boolean TIME_SERVER_ENABLE_DEFAULT = false;
+
+  /**
+   * How often the served clock is checked against the time provider, in
+   * milliseconds.
+   */
+  public static final long CLOCK_CHECK_PERIOD = 10000;
+
+  /**
+   * How far the served clock can be from the time provider before it is
+   * anchored again, in milliseconds. Both are read to the millisecond, so they
+   * can seem up to a millisecond apart when they agree.
+   */
+  public static final long CLOCK_DRIFT_MAX = 1;
+
+  /**
+   * The time server.
+   */
+  private TimeSyncServer timeSyncServer;
+
+  /**
+   * The clock giving the time served.
+   */
+  private MonotonicWallClock clock;
+
+  /**
+   * The future for checking the served clock against the time provider.
+   */
+  private ScheduledFuture<?> clockCheckFuture;
+
+  /**
+   * The space environment to use.
+   */
+  private InteractiveSpacesEnvironment spaceEnvironment;
+
+  @Override
+  public void startup() {
+    if (!spaceEnvironment.getSystemConfiguration().getPropertyBoolean(CONFIGURATION_PROPERTY_TIME_SERVER_ENABLE,
+        TIME_SERVER_ENABLE_DEFAULT)) {
+      return;
+    }
+
+    int port =
+        spaceEnvironment.getSystemConfiguration().getPropertyInteger(
+            InteractiveSpacesEnvironment.CONFIGURATION_PROVIDER_TIME_MASTER_PORT, TimeSyncServer.PORT_DEFAULT);
+    clock = new MonotonicWallClock(spaceEnvironment.getTimeProvider().getCurrentTime());
+
+    TimeSyncServer server = new TimeSyncServer(port, clock, spaceEnvironment.getLog());
+    try {
+      server.startup();
+      timeSyncServer = server;
+    } catch (InteractiveSpacesException e) {
+      spaceEnvironment.getLog().error("Could not start the time sync server, continuing without it", e);
+      return;
+    }
+
+    clockCheckFuture = spaceEnvironment.getExecutorService().scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        checkClock();
+      }
+    }, CLOCK_CHECK_PERIOD, CLOCK_CHECK_PERIOD, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void shutdown() {
+    if (clockCheckFuture != null) {
+      clockCheckFuture.cancel(true);
+      clockCheckFuture = null;
+    }
+
+    if (timeSyncServer != null) {
+      timeSyncServer.shutdown();
+      timeSyncServer = null;
+    }
+  }
+
+  /**
+   * Anchor the served clock to the time provider again if it has drifted away
+   * from it.
+   */
+  private void checkClock() {
+    TimeProvider timeProvider = spaceEnvironment.getTimeProvider();
+    long providerTime = timeProvider.getCurrentTime();
+    long clockTime = clock.getCurrentTimeNanos() / MonotonicWallClock.NANOSECONDS_PER_MILLISECOND;
+    long drift = clockTime - providerTime;
+    if (Math.abs(drift) > CLOCK_DRIFT_MAX) {
+      clock.setCurrentTime(timeProvider.getCurrentTime());
+      spaceEnvironment.getLog().info(
+          String.format("Time sync server clock was %d msec off the master time, anchored again", drift));
+    }
+  }
+
+  /**
+   * @param spaceEnvironment
+   *          the spaceEnvironment to set
+   */
+  public void setSpaceEnvironment(InteractiveSpacesEnvironment spaceEnvironment) {
+    this.spaceEnvironment = spaceEnvironment;
+  }
+}
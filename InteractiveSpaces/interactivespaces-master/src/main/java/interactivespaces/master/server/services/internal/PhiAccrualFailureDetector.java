@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.master.server.services.internal;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A phi accrual failure detector for a stream of heartbeats.
+ *
+ * <p>
+ * Rather than a yes or no answer, the detector gives a suspicion level phi which grows the longer a heartbeat is
+ * overdue compared to the heartbeats seen so far. A phi of {@code 1} means about a 10% chance that the sender is still
+ * alive and the heartbeat is just late, {@code 2} about 1%, {@code 3} about 0.1%, and so on. Senders on jittery links
+ * build up a wider spread of intervals and so need to be later before they are suspected.
+ *
+ * <p>
+ * The mean and variance of the intervals are exponentially weighted moving averages. Heartbeats can be recorded from
+ * any thread without locking.
+ *
+ * @author agent
+ */
+public class PhiAccrualFailureDetector {
+
+  /**
+   * The default weight given to a new interval in the moving averages.
+   */
+  public static final double SMOOTHING_DEFAULT = 0.1;
+
+  /**
+   * The default minimum standard deviation of the intervals, in milliseconds.
+   */
+  public static final long MIN_STANDARD_DEVIATION_DEFAULT = 500;
+
+  /**
+   * The largest phi value given. Past this the normal approximation has no meaningful precision left.
+   */
+  public static final double PHI_MAX = 100.0;
+
+  /**
+   * The weight given to a new interval in the moving averages.
+   */
+  private final double smoothing;
+
+  /**
+   * The minimum standard deviation of the intervals, in milliseconds.
+   */
+  private final double minStandardDeviation;
+
+  /**
+   * The current heartbeat history.
+   */
+  private final AtomicReference<HeartbeatHistory> history;
+
+  /**
+   * Construct a detector with the default smoothing and minimum standard deviation.
+   *
+   * @param expectedInterval
+   *          the interval heartbeats are expected at before any have been seen, in milliseconds
+   * @param startTimestamp
+   *          the time to measure the first heartbeat from
+   */
+  public PhiAccrualFailureDetector(long expectedInterval, long startTimestamp) {
+    this(expectedInterval, startTimestamp, SMOOTHING_DEFAULT, MIN_STANDARD_DEVIATION_DEFAULT);
+  }
+
+  /**
+   * Construct a detector.
+   *
+   * @param expectedInterval
+   *          the interval heartbeats are expected at before any have been seen, in milliseconds
+   * @param startTimestamp
+   *          the time to measure the first heartbeat from
+   * @param smoothing
+   *          the weight given to a new interval in the moving averages, between {@code 0} and {@code 1}
+   * @param minStandardDeviation
+   *          the minimum standard deviation of the intervals, in milliseconds
+   */
+  public PhiAccrualFailureDetector(long expectedInterval, long startTimestamp, double smoothing,
+      long minStandardDeviation) {
+    this.smoothing = smoothing;
+    this.minStandardDeviation = minStandardDeviation;
+
+    // Start out assuming the intervals spread a quarter of the expected interval either way.
+    double standardDeviation = expectedInterval / 4.0;
+    history =
+        new AtomicReference<HeartbeatHistory>(new HeartbeatHistory(startTimestamp, expectedInterval, standardDeviation
+            * standardDeviation));
+  }
+
+  /**
+   * A heartbeat has arrived.
+   *
+   * <p>
+   * Heartbeats older than the most recent one are ignored.
+   *
+   * @param timestamp
+   *          the time of the heartbeat
+   */
+  public void heartbeat(long timestamp) {
+    while (true) {
+      HeartbeatHistory current = history.get();
+      if (timestamp <= current.lastTimestamp) {
+        return;
+      }
+
+      double difference = (timestamp - current.lastTimestamp) - current.mean;
+      double increment = smoothing * difference;
+      HeartbeatHistory next =
+          new HeartbeatHistory(timestamp, current.mean + increment, (1.0 - smoothing)
+              * (current.variance + difference * increment));
+      if (history.compareAndSet(current, next)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Get the suspicion level at a given time.
+   *
+   * @param timestamp
+   *          the time to get the suspicion level for
+   *
+   * @return the suspicion level, {@code 0} if the last heartbeat was very recent
+   */
+  public double getPhi(long timestamp) {
+    HeartbeatHistory current = history.get();
+
+    return calculatePhi(timestamp - current.lastTimestamp, current);
+  }
+
+  /**
+   * Get the earliest time at which the suspicion level will reach a threshold if no more heartbeats arrive.
+   *
+   * @param threshold
+   *          the suspicion level
+   *
+   * @return the time the suspicion level will reach the threshold
+   */
+  public long getTimeOfPhi(double threshold) {
+    HeartbeatHistory current = history.get();
+
+    // phi only grows with the time since the last heartbeat, so bisect for the crossing.
+    long low = 0;
+    long high = Math.max(1, (long) current.mean);
+    while (calculatePhi(high, current) < threshold) {
+      low = high;
+      if (high > Long.MAX_VALUE / 4) {
+        return Long.MAX_VALUE;
+      }
+      high *= 2;
+    }
+    while (high - low > 1) {
+      long middle = low + (high - low) / 2;
+      if (calculatePhi(middle, current) < threshold) {
+        low = middle;
+      } else {
+        high = middle;
+      }
+    }
+
+    return current.lastTimestamp + high;
+  }
+
+  /**
+   * Get the time of the most recent heartbeat.
+   *
+   * @return the time of the most recent heartbeat, or the start time if there have been none
+   */
+  public long getLastHeartbeatTimestamp() {
+    return history.get().lastTimestamp;
+  }
+
+  /**
+   * Get the mean interval between heartbeats.
+   *
+   * @return the mean interval, in milliseconds
+   */
+  public double getMeanInterval() {
+    return history.get().mean;
+  }
+
+  /**
+   * Get the standard deviation of the interval between heartbeats.
+   *
+   * @return the standard deviation, in milliseconds
+   */
+  public double getStandardDeviation() {
+    return getStandardDeviation(history.get());
+  }
+
+  /**
+   * Calculate the suspicion level for a time since the last heartbeat.
+   *
+   * @param elapsed
+   *          the time since the last heartbeat, in milliseconds
+   * @param current
+   *          the heartbeat history
+   *
+   * @return the suspicion level
+   */
+  private double calculatePhi(long elapsed, HeartbeatHistory current) {
+    if (elapsed <= 0) {
+      return 0.0;
+    }
+
+    // A logistic approximation of the normal distribution's tail, which stays accurate far out where 1 - CDF would
+    // round to zero.
+    double y = (elapsed - current.mean) / getStandardDeviation(current);
+    double e = Math.exp(-y * (1.5976 + 0.070566 * y * y));
+    double phi;
+    if (elapsed > current.mean) {
+      phi = -Math.log10(e / (1.0 + e));
+    } else {
+      phi = -Math.log10(1.0 - 1.0 / (1.0 + e));
+    }
+
+    return Double.isNaN(phi) ? PHI_MAX : Math.min(phi, PHI_MAX);
+  }
+
+  /**
+   * Get the standard deviation of the intervals in a history.
+   *
+   * @param current
+   *          the heartbeat history
+   *
+   * @return the standard deviation, never less than the minimum
+   */
+  private double getStandardDeviation(HeartbeatHistory current) {
+    return Math.max(Math.sqrt(current.variance), minStandardDeviation);
+  }
+
+  /**
+   * The statistics of the heartbeats seen so far. Never modified, so can be swapped atomically.
+   *
+   * @author agent
+   */
+  private static class HeartbeatHistory {
+
+    /**
+     * The time of the most recent heartbeat.
+     */
+    private final long lastTimestamp;
+
+    /**
+     * The mean interval between heartbeats.
+     */
+    private final double mean;
+
+    /**
+     * The variance of the interval between heartbeats.
+     */
+    private final double variance;
+
+    /**
+     * Construct a new history.
+     *
+     * @param lastTimestamp
+     *          the time of the most recent heartbeat
+     * @param mean
+     *          the mean interval between heartbeats
+     * @param variance
+     *          the variance of the interval between heartbeats
+     */
+    public HeartbeatHistory(long lastTimestamp, double mean, double variance) {
+      this.lastTimestamp = lastTimestamp;
+      this.mean = mean;
+      this.variance = variance;
+    }
+  }
+}
@@ -40,6 +40,7 @@ import interactivespaces.master.server.services.internal.LiveActivityDeleteResul
 import interactivespaces.master.server.services.internal.MasterDataBundleManager;
 import interactivespaces.master.server.services.internal.RemoteSpaceControllerClientListenerHelper;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
@@ -52,6 +53,7 @@ import interactivespaces_msgs.ContainerResourceQueryResponseMessage;
 import interactivespaces_msgs.ControllerFullStatus;
 import interactivespaces_msgs.ControllerRequest;
 import interactivespaces_msgs.ControllerStatus;
+import interactivespaces_msgs.ControllerStatusRequest;
 import interactivespaces_msgs.LiveActivityDeleteRequest;
 import interactivespaces_msgs.LiveActivityDeleteStatus;
 import interactivespaces_msgs.LiveActivityDeployRequest;
@@ -72,6 +74,7 @@ import org.ros.node.topic.Subscriber;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -96,6 +99,11 @@ public class RosRemoteSpaceControllerClient implements RemoteSpaceControllerClie
    */
   private final Map<String, SpaceControllerCommunicator> controllerCommunicators = Maps.newHashMap();
 
+  /**
+   * The ID of the last full status snapshot applied from each controller, keyed by controller UUID.
+   */
+  private final ConcurrentMap<String, Long> controllerStatusSnapshotIds = Maps.newConcurrentMap();
+
   /**
    * Helps with listeners for activity events.
    */
@@ -171,6 +179,11 @@ public class RosRemoteSpaceControllerClient implements RemoteSpaceControllerClie
    */
   private MessageDeserializer<ControllerFullStatus> controllerFullStatusDeserializer;
 
+  /**
+   * ROS message serializer for controller status requests.
+   */
+  private MessageSerializer<ControllerStatusRequest> controllerStatusRequestSerializer;
+
   /**
    * ROS message serializer for the full controller status.
    */
@@ -226,6 +239,9 @@ public class RosRemoteSpaceControllerClient implements RemoteSpaceControllerClie
 
     controllerFullStatusDeserializer = messageSerializationFactory.newMessageDeserializer(ControllerFullStatus._TYPE);
 
+    controllerStatusRequestSerializer =
+        messageSerializationFactory.newMessageSerializer(ControllerStatusRequest._TYPE);
+
     configurationRequestSerializer = messageSerializationFactory.newMessageSerializer(ConfigurationRequest._TYPE);
 
     containerResourceQueryRequestSerializer =
@@ -264,11 +280,13 @@ public class RosRemoteSpaceControllerClient implements RemoteSpaceControllerClie
 
   @Override
   public void connect(ActiveSpaceController controller) {
+    controllerStatusSnapshotIds.remove(controller.getController().getUuid());
     getCommunicator(controller, true);
   }
 
   @Override
   public void disconnect(ActiveSpaceController controller) {
+    controllerStatusSnapshotIds.remove(controller.getController().getUuid());
     shutdownCommunicator(controller);
   }
 
@@ -282,7 +300,12 @@ public class RosRemoteSpaceControllerClient implements RemoteSpaceControllerClie
 
   @Override
   public void requestStatus(ActiveSpaceController controller) {
-    sendControllerRequest(controller, ControllerRequest.OPERATION_CONTROLLER_STATUS);
+    // Let the controller know what it can send changes against.
+    ControllerStatusRequest request = rosMessageFactory.newFromType(ControllerStatusRequest._TYPE);
+    request.setAcknowledgedSnapshotId(getControllerStatusSnapshotId(controller.getController().getUuid()));
+
+    sendControllerRequest(controller, ControllerRequest.OPERATION_CONTROLLER_STATUS,
+        controllerStatusRequestSerializer.serialize(request));
   }
 
   @Override
@@ -537,11 +560,17 @@ public class RosRemoteSpaceControllerClient implements RemoteSpaceControllerClie
         handleControllerHeartbeat(status);
 
         ControllerFullStatus fullStatus = controllerFullStatusDeserializer.deserialize(status.getPayload());
+        recordControllerStatusSnapshot(status.getControllerUuid(), fullStatus);
 
         List<LiveActivityRuntimeStatus> liveActivityStatuses = fullStatus.getLiveActivityStatuses();
         if (log.isInfoEnabled()) {
-          log.info(String.format("Received controller full status %s, %d activities", status.getControllerUuid(),
-              liveActivityStatuses.size()));
+          if (fullStatus.getBaseSnapshotId() != 0) {
+            log.info(String.format("Received controller full status %s, %d activities changed",
+                status.getControllerUuid(), liveActivityStatuses.size()));
+          } else {
+            log.info(String.format("Received controller full status %s, %d activities", status.getControllerUuid(),
+                liveActivityStatuses.size()));
+          }
         }
         for (LiveActivityRuntimeStatus liveActivityStatus : liveActivityStatuses) {
           if (log.isInfoEnabled()) {
@@ -563,6 +592,21 @@ public class RosRemoteSpaceControllerClient implements RemoteSpaceControllerClie
 
         break;
 
+      case ControllerStatus.STATUS_CONTROLLER_LIVE_ACTIVITY_RUNTIME_STATUS_BATCH:
+        ControllerFullStatus batch = controllerFullStatusDeserializer.deserialize(status.getPayload());
+        if (batch.getHeartbeat()) {
+          handleControllerHeartbeat(status);
+        }
+
+        for (LiveActivityRuntimeStatus batchedStatus : batch.getLiveActivityStatuses()) {
+          if (log.isInfoEnabled()) {
+            log.info(String.format("Activity status %s, %d\n", batchedStatus.getUuid(), batchedStatus.getStatus()));
+          }
+          handleRemoteLiveActivityStatusUpdate(batchedStatus);
+        }
+
+        break;
+
       case ControllerStatus.STATUS_CONTROLLER_ACTIVITY_INSTALL:
         LiveActivityDeployStatus deployStatus = liveActivityDeployStatusDeserializer.deserialize(status.getPayload());
 
@@ -624,6 +668,45 @@ public class RosRemoteSpaceControllerClient implements RemoteSpaceControllerClie
     }
   }
 
+  /**
+   * Record the snapshot a controller full status gives.
+   *
+   * <p>
+   * A full status which is only changes from a snapshot other than the one
+   * last recorded means the two sides are out of step, so the next status
+   * request asks for everything.
+   *
+   * @param controllerUuid
+   *          UUID of the controller
+   * @param fullStatus
+   *          the full status
+   */
+  @VisibleForTesting
+  void recordControllerStatusSnapshot(String controllerUuid, ControllerFullStatus fullStatus) {
+    Long recordedSnapshotId = controllerStatusSnapshotIds.get(controllerUuid);
+    long baseSnapshotId = fullStatus.getBaseSnapshotId();
+    if (baseSnapshotId == 0 || (recordedSnapshotId != null && recordedSnapshotId == baseSnapshotId)) {
+      controllerStatusSnapshotIds.put(controllerUuid, fullStatus.getSnapshotId());
+    } else {
+      controllerStatusSnapshotIds.put(controllerUuid, 0L);
+    }
+  }
+
+  /**
+   * Get the ID of the last full status snapshot applied from a controller.
+   *
+   * @param controllerUuid
+   *          UUID of the controller
+   *
+   * @return the snapshot ID, {@code 0} if there is none
+   */
+  @VisibleForTesting
+  long getControllerStatusSnapshotId(String controllerUuid) {
+    Long snapshotId = controllerStatusSnapshotIds.get(controllerUuid);
+
+    return snapshotId != null ? snapshotId : 0;
+  }
+
   /**
    * Handle a controller heartbeat message.
    *
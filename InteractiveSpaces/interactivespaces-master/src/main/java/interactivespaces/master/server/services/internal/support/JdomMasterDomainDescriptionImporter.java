@@ -50,6 +50,11 @@ import java.util.Map;
 /**
  * An importer of the master domain description.
  *
+ * <p>
+ * The methods which import a single entity are also used by the
+ * {@link StreamingMasterDomainDescriptionImporter}, which hands them one entity
+ * element at a time.
+ *
  * @author Keith M. Hughes
  */
 public class JdomMasterDomainDescriptionImporter implements MasterDomainDescription {
@@ -140,7 +145,7 @@ public class JdomMasterDomainDescriptionImporter implements MasterDomainDescript
    * @param controllerRepository
    *          repository for controller entities
    */
-  private void getSpaceController(Element controllerElement, SpaceControllerRepository controllerRepository) {
+  void getSpaceController(Element controllerElement, SpaceControllerRepository controllerRepository) {
     String id = controllerElement.getAttributeValue(ATTRIBUTE_NAME_ID);
 
     SpaceController controller = controllerRepository.newSpaceController();
@@ -251,7 +256,7 @@ public class JdomMasterDomainDescriptionImporter implements MasterDomainDescript
    * @param timeProvider
    *          the time provider
    */
-  private void getActivity(Element activityElement, ActivityRepository activityRepository, TimeProvider timeProvider) {
+  void getActivity(Element activityElement, ActivityRepository activityRepository, TimeProvider timeProvider) {
     String id = activityElement.getAttributeValue(ATTRIBUTE_NAME_ID);
 
     Activity activity = activityRepository.newActivity();
@@ -358,7 +363,7 @@ public class JdomMasterDomainDescriptionImporter implements MasterDomainDescript
    * @param activityRepository
    *          repository for activity entities
    */
-  private void getLiveActivity(Element liveActivityElement, ActivityRepository activityRepository) {
+  void getLiveActivity(Element liveActivityElement, ActivityRepository activityRepository) {
     String id = liveActivityElement.getAttributeValue(ATTRIBUTE_NAME_ID);
 
     LiveActivity liveActivity = activityRepository.newLiveActivity();
@@ -470,7 +475,7 @@ public class JdomMasterDomainDescriptionImporter implements MasterDomainDescript
    * @param activityRepository
    *          repository for activity entities
    */
-  private void getLiveActivityGroup(Element groupElement, ActivityRepository activityRepository) {
+  void getLiveActivityGroup(Element groupElement, ActivityRepository activityRepository) {
     String id = groupElement.getAttributeValue(ATTRIBUTE_NAME_ID);
 
     LiveActivityGroup group = activityRepository.newLiveActivityGroup();
@@ -554,7 +559,7 @@ public class JdomMasterDomainDescriptionImporter implements MasterDomainDescript
    * @param activityRepository
    *          repository for space entities
    */
-  private void getSpace(Element spaceElement, ActivityRepository activityRepository) {
+  void getSpace(Element spaceElement, ActivityRepository activityRepository) {
     String id = spaceElement.getAttributeValue(ATTRIBUTE_NAME_ID);
 
     Space space = activityRepository.newSpace();
@@ -650,7 +655,7 @@ public class JdomMasterDomainDescriptionImporter implements MasterDomainDescript
    * @param automationRepository
    *          repository for automation entities
    */
-  private void getNamedScript(Element scriptElement, AutomationRepository automationRepository) {
+  void getNamedScript(Element scriptElement, AutomationRepository automationRepository) {
     String id = scriptElement.getAttributeValue(ATTRIBUTE_NAME_ID);
 
     NamedScript script = automationRepository.newNamedScript();
@@ -0,0 +1,751 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.master.server.services.internal.support;
+
+import interactivespaces.InteractiveSpacesException;
+import interactivespaces.domain.basic.Activity;
+import interactivespaces.domain.basic.ActivityConfiguration;
+import interactivespaces.domain.basic.ActivityDependency;
+import interactivespaces.domain.basic.ConfigurationParameter;
+import interactivespaces.domain.basic.GroupLiveActivity;
+import interactivespaces.domain.basic.LiveActivity;
+import interactivespaces.domain.basic.LiveActivityGroup;
+import interactivespaces.domain.basic.SpaceController;
+import interactivespaces.domain.basic.SpaceControllerConfiguration;
+import interactivespaces.domain.basic.SpaceControllerMode;
+import interactivespaces.domain.space.Space;
+import interactivespaces.domain.system.NamedScript;
+import interactivespaces.master.server.services.ActivityRepository;
+import interactivespaces.master.server.services.AutomationRepository;
+import interactivespaces.master.server.services.SpaceControllerRepository;
+
+import com.google.common.collect.Sets;
+
+import java.io.Writer;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * A creator of the master domain description which writes each entity as it
+ * goes rather than building the whole description in memory first.
+ *
+ * <p>
+ * The description is the same as the one from the
+ * {@link JdomMasterDomainDescriptionCreator} and is written with StAX, indented
+ * for people to read.
+ *
+ * @author agent
+ */
+public class StreamingMasterDomainDescriptionCreator implements MasterDomainDescription {
+
+  /**
+   * The encoding declared for the description.
+   */
+  public static final String ENCODING = "UTF-8";
+
+  /**
+   * The string used for each level of indentation.
+   */
+  private static final String INDENT = "  ";
+
+  /**
+   * The end of a CDATA section, which must be split if it appears in content.
+   */
+  private static final String CDATA_END = "]]>";
+
+  /**
+   * The writer for the description.
+   */
+  private XMLStreamWriter writer;
+
+  /**
+   * The depth of the element being written.
+   */
+  private int depth;
+
+  /**
+   * {@code true} if the current element has child elements.
+   */
+  private boolean hasChildElements;
+
+  /**
+   * Write a description of the entire space domain.
+   *
+   * @param out
+   *          where the description is written, will be flushed but not closed
+   * @param activityRepository
+   *          the repository for activity entities
+   * @param controllerRepository
+   *          the repository for controller entities
+   * @param automationRepository
+   *          the repository for automation entities
+   *
+   * @throws InteractiveSpacesException
+   *           the description could not be written
+   */
+  public void writeDescription(Writer out, ActivityRepository activityRepository,
+      SpaceControllerRepository controllerRepository, AutomationRepository automationRepository)
+      throws InteractiveSpacesException {
+    try {
+      writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+      depth = 0;
+
+      writer.writeStartDocument(ENCODING, "1.0");
+      startElement(ELEMENT_NAME_DESCRIPTION_ROOT_ELEMENT);
+
+      writeSpaceControllerEntries(controllerRepository);
+      writeActivityEntries(activityRepository);
+      writeLiveActivityEntries(activityRepository);
+      writeLiveActivityGroupEntries(activityRepository);
+      writeSpaceEntries(activityRepository);
+      writeNamedScriptEntries(automationRepository);
+
+      endElement();
+      writer.writeEndDocument();
+      writer.writeCharacters("\n");
+      writer.flush();
+    } catch (XMLStreamException e) {
+      throw new InteractiveSpacesException("Could not create domain model", e);
+    } finally {
+      closeWriter();
+    }
+  }
+
+  /**
+   * Write the space controllers section.
+   *
+   * @param controllerRepository
+   *          repository for the controllers
+   *
+   * @throws XMLStreamException
+   *           the section could not be written
+   */
+  private void writeSpaceControllerEntries(SpaceControllerRepository controllerRepository)
+      throws XMLStreamException {
+    startElement(ELEMENT_NAME_ROOT_SPACE_CONTROLLERS);
+
+    for (SpaceController controller : controllerRepository.getAllSpaceControllers()) {
+      writeSpaceControllerEntry(controller);
+    }
+
+    endElement();
+  }
+
+  /**
+   * Write the entry for a specific space controller.
+   *
+   * @param controller
+   *          the controller to write
+   *
+   * @throws XMLStreamException
+   *           the entry could not be written
+   */
+  private void writeSpaceControllerEntry(SpaceController controller) throws XMLStreamException {
+    startElement(ELEMENT_NAME_INDIVIDUAL_SPACE_CONTROLLER);
+    writer.writeAttribute(ATTRIBUTE_NAME_ID, controller.getId());
+
+    textElement(ELEMENT_NAME_NAME, controller.getName());
+    cdataElement(ELEMENT_NAME_DESCRIPTION, controller.getDescription());
+    textElement(ELEMENT_NAME_SPACE_CONTROLLER_HOST_ID, controller.getHostId());
+    textElement(ELEMENT_NAME_UUID, controller.getUuid());
+    writeMetadata(controller.getMetadata());
+
+    SpaceControllerMode mode = controller.getMode();
+    if (mode != null) {
+      textElement(ELEMENT_NAME_SPACE_CONTROLLER_MODE, mode.name());
+    }
+
+    writeSpaceControllerConfiguration(controller.getConfiguration());
+
+    endElement();
+  }
+
+  /**
+   * Write a space controller configuration if there is one.
+   *
+   * @param configuration
+   *          the possible configuration (can be {@code null})
+   *
+   * @throws XMLStreamException
+   *           the configuration could not be written
+   */
+  private void writeSpaceControllerConfiguration(SpaceControllerConfiguration configuration)
+      throws XMLStreamException {
+    if (configuration != null) {
+      startElement(ELEMENT_NAME_SPACE_CONTROLLER_CONFIGURATION);
+      writeConfigurationParameters(configuration.getParameters(),
+          ELEMENT_NAME_SPACE_CONTROLLER_CONFIGURATION_ROOT_PARAMETERS,
+          ELEMENT_NAME_SPACE_CONTROLLER_CONFIGURATION_INDIVIDUAL_PARAMETER,
+          ATTRIBUTE_NAME_SPACE_CONTROLLER_CONFIGURATION_PARAMETER_NAME);
+      endElement();
+    }
+  }
+
+  /**
+   * Write the activities section.
+   *
+   * @param activityRepository
+   *          repository for the activities
+   *
+   * @throws XMLStreamException
+   *           the section could not be written
+   */
+  private void writeActivityEntries(ActivityRepository activityRepository) throws XMLStreamException {
+    startElement(ELEMENT_NAME_ROOT_ACTIVITIES);
+
+    for (Activity activity : activityRepository.getAllActivities()) {
+      writeActivityEntry(activity);
+    }
+
+    endElement();
+  }
+
+  /**
+   * Write the entry for a specific activity.
+   *
+   * @param activity
+   *          the activity to write
+   *
+   * @throws XMLStreamException
+   *           the entry could not be written
+   */
+  private void writeActivityEntry(Activity activity) throws XMLStreamException {
+    startElement(ELEMENT_NAME_INDIVIDUAL_ACTIVITY);
+    writer.writeAttribute(ATTRIBUTE_NAME_ID, activity.getId());
+
+    Date lastUploadDate = activity.getLastUploadDate();
+    if (lastUploadDate != null) {
+      writer.writeAttribute(ATTRIBUTE_NAME_LAST_UPLOAD_DATE, Long.toString(lastUploadDate.getTime()));
+    }
+
+    Date lastStartDate = activity.getLastStartDate();
+    if (lastStartDate != null) {
+      writer.writeAttribute(ATTRIBUTE_NAME_LAST_START_DATE, Long.toString(lastStartDate.getTime()));
+    }
+
+    textElement(ELEMENT_NAME_ACTIVITY_IDENTIFYING_NAME, activity.getIdentifyingName());
+    textElement(ELEMENT_NAME_ACTIVITY_VERSION, activity.getVersion());
+    textElement(ELEMENT_NAME_NAME, activity.getName());
+    cdataElement(ELEMENT_NAME_DESCRIPTION, activity.getDescription());
+    writeMetadata(activity.getMetadata());
+
+    String bundleContentHash = activity.getBundleContentHash();
+    if (bundleContentHash != null) {
+      textElement(ELEMENT_NAME_ACTIVITY_BUNDLE_CONTENT_HASH, bundleContentHash);
+    }
+
+    writeActivityDependencies(activity);
+
+    endElement();
+  }
+
+  /**
+   * Write the dependencies for an activity, if any.
+   *
+   * @param activity
+   *          the activity with the dependencies
+   *
+   * @throws XMLStreamException
+   *           the dependencies could not be written
+   */
+  private void writeActivityDependencies(Activity activity) throws XMLStreamException {
+    List<? extends ActivityDependency> dependencies = activity.getDependencies();
+    if (!dependencies.isEmpty()) {
+      startElement(ELEMENT_NAME_ROOT_ACTIVITY_DEPENDENCIES);
+      for (ActivityDependency dependency : dependencies) {
+        startElement(ELEMENT_NAME_INDIVIDUAL_ACTIVITY_DEPENDENCY);
+        textElement(ELEMENT_NAME_ACTIVITY_DEPENDENCY_NAME, dependency.getIdentifyingName());
+        textElement(ELEMENT_NAME_ACTIVITY_DEPENDENCY_VERSION_MINIMUM, dependency.getMinimumVersion());
+        textElement(ELEMENT_NAME_ACTIVITY_DEPENDENCY_VERSION_MAXIMUM, dependency.getMaximumVersion());
+        textElement(ELEMENT_NAME_ACTIVITY_DEPENDENCY_REQUIRED, dependency.isRequired() ? VALUE_TRUE : VALUE_FALSE);
+        endElement();
+      }
+      endElement();
+    }
+  }
+
+  /**
+   * Write the live activities section.
+   *
+   * @param activityRepository
+   *          repository for the activity entities
+   *
+   * @throws XMLStreamException
+   *           the section could not be written
+   */
+  private void writeLiveActivityEntries(ActivityRepository activityRepository) throws XMLStreamException {
+    startElement(ELEMENT_NAME_ROOT_LIVE_ACTIVITIES);
+
+    for (LiveActivity liveActivity : activityRepository.getAllLiveActivities()) {
+      writeLiveActivityEntry(liveActivity);
+    }
+
+    endElement();
+  }
+
+  /**
+   * Write the entry for a specific live activity.
+   *
+   * @param liveActivity
+   *          the live activity to write
+   *
+   * @throws XMLStreamException
+   *           the entry could not be written
+   */
+  private void writeLiveActivityEntry(LiveActivity liveActivity) throws XMLStreamException {
+    startElement(ELEMENT_NAME_INDIVIDUAL_LIVE_ACTIVITY);
+    writer.writeAttribute(ATTRIBUTE_NAME_ID, liveActivity.getId());
+
+    textElement(ELEMENT_NAME_UUID, liveActivity.getUuid());
+    textElement(ELEMENT_NAME_NAME, liveActivity.getName());
+    cdataElement(ELEMENT_NAME_DESCRIPTION, liveActivity.getDescription());
+
+    SpaceController controller = liveActivity.getController();
+    if (controller != null) {
+      referenceElement(ELEMENT_NAME_LIVE_ACTIVITY_CONTROLLER, ATTRIBUTE_NAME_ID, controller.getId());
+    }
+
+    Activity activity = liveActivity.getActivity();
+    if (activity != null) {
+      referenceElement(ELEMENT_NAME_LIVE_ACTIVITY_ACTIVITY, ATTRIBUTE_NAME_ID, activity.getId());
+    }
+
+    writeMetadata(liveActivity.getMetadata());
+    writeActivityConfiguration(liveActivity.getConfiguration());
+
+    Date lastDeployDate = liveActivity.getLastDeployDate();
+    if (lastDeployDate != null) {
+      textElement(ELEMENT_NAME_LIVE_ACTIVITY_LAST_DEPLOY_DATE, Long.toString(lastDeployDate.getTime()));
+    }
+
+    endElement();
+  }
+
+  /**
+   * Write an activity configuration if there is one.
+   *
+   * @param configuration
+   *          the possible configuration (can be {@code null})
+   *
+   * @throws XMLStreamException
+   *           the configuration could not be written
+   */
+  private void writeActivityConfiguration(ActivityConfiguration configuration) throws XMLStreamException {
+    if (configuration != null) {
+      startElement(ELEMENT_NAME_ACTIVITY_CONFIGURATION);
+      writeConfigurationParameters(configuration.getParameters(), ELEMENT_NAME_ACTIVITY_CONFIGURATION_ROOT_PARAMETERS,
+          ELEMENT_NAME_ACTIVITY_CONFIGURATION_INDIVIDUAL_PARAMETER,
+          ATTRIBUTE_NAME_ACTIVITY_CONFIGURATION_PARAMETER_NAME);
+      endElement();
+    }
+  }
+
+  /**
+   * Write the parameters of a configuration, if there are any.
+   *
+   * @param parameters
+   *          the parameters
+   * @param rootElementName
+   *          name of the element holding all parameters
+   * @param parameterElementName
+   *          name of the element for an individual parameter
+   * @param nameAttributeName
+   *          name of the attribute for the name of a parameter
+   *
+   * @throws XMLStreamException
+   *           the parameters could not be written
+   */
+  private void writeConfigurationParameters(Set<ConfigurationParameter> parameters, String rootElementName,
+      String parameterElementName, String nameAttributeName) throws XMLStreamException {
+    if (!parameters.isEmpty()) {
+      startElement(rootElementName);
+      for (ConfigurationParameter parameter : parameters) {
+        startElement(parameterElementName);
+        writer.writeAttribute(nameAttributeName, parameter.getName());
+        writeCData(parameter.getValue());
+        endElement();
+      }
+      endElement();
+    }
+  }
+
+  /**
+   * Write the live activity groups section.
+   *
+   * @param activityRepository
+   *          repository for the activity entities
+   *
+   * @throws XMLStreamException
+   *           the section could not be written
+   */
+  private void writeLiveActivityGroupEntries(ActivityRepository activityRepository) throws XMLStreamException {
+    startElement(ELEMENT_NAME_ROOT_LIVE_ACTIVITY_GROUPS);
+
+    for (LiveActivityGroup group : activityRepository.getAllLiveActivityGroups()) {
+      writeLiveActivityGroupEntry(group);
+    }
+
+    endElement();
+  }
+
+  /**
+   * Write the entry for a specific live activity group.
+   *
+   * @param group
+   *          the live activity group to write
+   *
+   * @throws XMLStreamException
+   *           the entry could not be written
+   */
+  private void writeLiveActivityGroupEntry(LiveActivityGroup group) throws XMLStreamException {
+    startElement(ELEMENT_NAME_INDIVIDUAL_LIVE_ACTIVITY_GROUP);
+    writer.writeAttribute(ATTRIBUTE_NAME_ID, group.getId());
+
+    cdataElement(ELEMENT_NAME_NAME, group.getName());
+    cdataElement(ELEMENT_NAME_DESCRIPTION, group.getDescription());
+    writeMetadata(group.getMetadata());
+
+    List<? extends GroupLiveActivity> activities = group.getLiveActivities();
+    if (!activities.isEmpty()) {
+      startElement(ELEMENT_NAME_LIVE_ACTIVITY_GROUP_ROOT_GROUP_LIVE_ACTIVITIES);
+      for (GroupLiveActivity activity : activities) {
+        emptyElement(ELEMENT_NAME_LIVE_ACTIVITY_GROUP_INDIVIDUAL_GROUP_LIVE_ACTIVITY);
+        writer.writeAttribute(ATTRIBUTE_NAME_GROUP_LIVE_ACTIVITY_ID, activity.getActivity().getId());
+        writer.writeAttribute(ATTRIBUTE_NAME_GROUP_LIVE_ACTIVITY_DEPENDENCY, activity.getDependency().name());
+      }
+      endElement();
+    }
+
+    endElement();
+  }
+
+  /**
+   * Write the spaces section.
+   *
+   * @param activityRepository
+   *          repository for the space entities
+   *
+   * @throws XMLStreamException
+   *           the section could not be written
+   */
+  private void writeSpaceEntries(ActivityRepository activityRepository) throws XMLStreamException {
+    startElement(ELEMENT_NAME_ROOT_SPACES);
+
+    Set<String> spacesDone = Sets.newHashSet();
+    for (Space rootSpace : activityRepository.getAllSpaces()) {
+      walkSpace(spacesDone, rootSpace);
+    }
+
+    endElement();
+  }
+
+  /**
+   * Do a depth first walk of a space so everything that needs to be defined is
+   * written out before it is used.
+   *
+   * @param spacesDone
+   *          IDs of the spaces which have been done
+   * @param space
+   *          the current space
+   *
+   * @throws XMLStreamException
+   *           the space could not be written
+   */
+  private void walkSpace(Set<String> spacesDone, Space space) throws XMLStreamException {
+    // Though there better not be circularly defined spaces, this will
+    // help not get trapped by them.
+    if (spacesDone.add(space.getId())) {
+      for (Space subspace : space.getSpaces()) {
+        walkSpace(spacesDone, subspace);
+      }
+
+      writeSpaceEntry(space);
+    }
+  }
+
+  /**
+   * Write the entry for a specific space.
+   *
+   * @param space
+   *          the space to write
+   *
+   * @throws XMLStreamException
+   *           the entry could not be written
+   */
+  private void writeSpaceEntry(Space space) throws XMLStreamException {
+    startElement(ELEMENT_NAME_INDIVIDUAL_SPACE);
+    writer.writeAttribute(ATTRIBUTE_NAME_ID, space.getId());
+
+    cdataElement(ELEMENT_NAME_NAME, space.getName());
+    cdataElement(ELEMENT_NAME_DESCRIPTION, space.getDescription());
+    writeMetadata(space.getMetadata());
+
+    List<? extends Space> subspaces = space.getSpaces();
+    if (!subspaces.isEmpty()) {
+      startElement(ELEMENT_NAME_SPACE_ROOT_SUBSPACES);
+      for (Space subspace : subspaces) {
+        referenceElement(ELEMENT_NAME_SPACE_INDIVIDUAL_SUBSPACE, ATTRIBUTE_NAME_ID, subspace.getId());
+      }
+      endElement();
+    }
+
+    List<? extends LiveActivityGroup> groups = space.getActivityGroups();
+    if (!groups.isEmpty()) {
+      startElement(ELEMENT_NAME_SPACE_ROOT_LIVE_ACTIVITY_GROUPS);
+      for (LiveActivityGroup group : groups) {
+        referenceElement(ELEMENT_NAME_SPACE_INDIVIDUAL_LIVE_ACTIVITY_GROUP, ATTRIBUTE_NAME_ID, group.getId());
+      }
+      endElement();
+    }
+
+    endElement();
+  }
+
+  /**
+   * Write all named script entries.
+   *
+   * @param automationRepository
+   *          repository which contains the scripts
+   *
+   * @throws XMLStreamException
+   *           the section could not be written
+   */
+  private void writeNamedScriptEntries(AutomationRepository automationRepository) throws XMLStreamException {
+    startElement(ELEMENT_NAME_ROOT_NAMED_SCRIPTS);
+
+    for (NamedScript script : automationRepository.getAllNamedScripts()) {
+      writeNamedScriptEntry(script);
+    }
+
+    endElement();
+  }
+
+  /**
+   * Write the entry for a specific named script.
+   *
+   * @param script
+   *          the named script to write
+   *
+   * @throws XMLStreamException
+   *           the entry could not be written
+   */
+  private void writeNamedScriptEntry(NamedScript script) throws XMLStreamException {
+    startElement(ELEMENT_NAME_INDIVIDUAL_NAMED_SCRIPT);
+    writer.writeAttribute(ATTRIBUTE_NAME_ID, script.getId());
+
+    cdataElement(ELEMENT_NAME_NAME, script.getName());
+    cdataElement(ELEMENT_NAME_DESCRIPTION, script.getDescription());
+    textElement(ELEMENT_NAME_NAMED_SCRIPT_LANGUAGE, script.getLanguage());
+    cdataElement(ELEMENT_NAME_NAMED_SCRIPT_CONTENT, script.getContent());
+    writeMetadata(script.getMetadata());
+
+    startElement(ELEMENT_NAME_NAMED_SCRIPT_SCHEDULE);
+    writer.writeAttribute(ATTRIBUTE_NAME_NAMED_SCRIPT_SCHEDULE_SCHEDULED, script.getScheduled() ? VALUE_TRUE
+        : VALUE_FALSE);
+    writeCData(script.getSchedule());
+    endElement();
+
+    endElement();
+  }
+
+  /**
+   * Write a metadata element.
+   *
+   * @param metadata
+   *          the metadata to write
+   *
+   * @throws XMLStreamException
+   *           the metadata could not be written
+   */
+  private void writeMetadata(Map<String, Object> metadata) throws XMLStreamException {
+    if (metadata == null || metadata.isEmpty()) {
+      emptyElement(ELEMENT_NAME_METADATA);
+      return;
+    }
+
+    startElement(ELEMENT_NAME_METADATA);
+    for (Entry<String, Object> entry : metadata.entrySet()) {
+      startElement(ELEMENT_NAME_METADATA_ITEM);
+      writer.writeAttribute(ATTRIBUTE_NAME_METADATA_ITEM_NAME, entry.getKey());
+      writeCData(entry.getValue().toString());
+      endElement();
+    }
+    endElement();
+  }
+
+  /**
+   * Start an element on a new, indented line.
+   *
+   * @param name
+   *          name of the element
+   *
+   * @throws XMLStreamException
+   *           the element could not be written
+   */
+  private void startElement(String name) throws XMLStreamException {
+    newLine();
+    writer.writeStartElement(name);
+    depth++;
+    hasChildElements = false;
+  }
+
+  /**
+   * Write an element with no content on a new, indented line. Its attributes
+   * can be written right after.
+   *
+   * @param name
+   *          name of the element
+   *
+   * @throws XMLStreamException
+   *           the element could not be written
+   */
+  private void emptyElement(String name) throws XMLStreamException {
+    newLine();
+    writer.writeEmptyElement(name);
+    hasChildElements = true;
+  }
+
+  /**
+   * End the current element. The end tag goes on its own line if the element
+   * had child elements.
+   *
+   * @throws XMLStreamException
+   *           the element could not be written
+   */
+  private void endElement() throws XMLStreamException {
+    depth--;
+    if (hasChildElements) {
+      newLine();
+    }
+    writer.writeEndElement();
+    hasChildElements = true;
+  }
+
+  /**
+   * Write an element which holds text.
+   *
+   * @param name
+   *          name of the element
+   * @param text
+   *          the text, can be {@code null}
+   *
+   * @throws XMLStreamException
+   *           the element could not be written
+   */
+  private void textElement(String name, String text) throws XMLStreamException {
+    startElement(name);
+    if (text != null) {
+      writer.writeCharacters(text);
+    }
+    endElement();
+  }
+
+  /**
+   * Write an element which holds text in a CDATA section.
+   *
+   * @param name
+   *          name of the element
+   * @param text
+   *          the text, can be {@code null}
+   *
+   * @throws XMLStreamException
+   *           the element could not be written
+   */
+  private void cdataElement(String name, String text) throws XMLStreamException {
+    startElement(name);
+    writeCData(text);
+    endElement();
+  }
+
+  /**
+   * Write an element which refers to another entity by ID.
+   *
+   * @param name
+   *          name of the element
+   * @param attributeName
+   *          name of the ID attribute
+   * @param id
+   *          the ID of the entity referred to
+   *
+   * @throws XMLStreamException
+   *           the element could not be written
+   */
+  private void referenceElement(String name, String attributeName, String id) throws XMLStreamException {
+    emptyElement(name);
+    writer.writeAttribute(attributeName, id);
+  }
+
+  /**
+   * Write text as a CDATA section, splitting it where it contains the end of a
+   * CDATA section.
+   *
+   * @param text
+   *          the text, can be {@code null}
+   *
+   * @throws XMLStreamException
+   *           the text could not be written
+   */
+  private void writeCData(String text) throws XMLStreamException {
+    if (text == null || text.isEmpty()) {
+      return;
+    }
+
+    int start = 0;
+    int end;
+    while ((end = text.indexOf(CDATA_END, start)) != -1) {
+      // Split between the two brackets so neither section contains the end.
+      writer.writeCData(text.substring(start, end + 2));
+      start = end + 2;
+    }
+    writer.writeCData(text.substring(start));
+  }
+
+  /**
+   * Start a new line indented for the current depth.
+   *
+   * @throws XMLStreamException
+   *           the line could not be written
+   */
+  private void newLine() throws XMLStreamException {
+    StringBuilder line = new StringBuilder(1 + depth * INDENT.length()).append('\n');
+    for (int i = 0; i < depth; i++) {
+      line.append(INDENT);
+    }
+    writer.writeCharacters(line.toString());
+  }
+
+  /**
+   * Close the XML writer, if there is one. The underlying writer is left open.
+   */
+  private void closeWriter() {
+    if (writer != null) {
+      try {
+        writer.close();
+      } catch (XMLStreamException e) {
+        // Nothing to be done, the underlying writer belongs to the caller.
+      }
+      writer = null;
+    }
+  }
+}
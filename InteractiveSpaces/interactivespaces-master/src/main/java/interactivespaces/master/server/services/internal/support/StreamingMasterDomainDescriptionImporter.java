@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.master.server.services.internal.support;
+
+import interactivespaces.InteractiveSpacesException;
+import interactivespaces.SimpleInteractiveSpacesException;
+import interactivespaces.master.server.services.ActivityRepository;
+import interactivespaces.master.server.services.AutomationRepository;
+import interactivespaces.master.server.services.SpaceControllerRepository;
+import interactivespaces.time.TimeProvider;
+
+import org.jdom.Element;
+import org.jdom.Text;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * An importer of the master domain description which streams the description
+ * rather than reading it all into memory.
+ *
+ * <p>
+ * The description is read with StAX. Only the element of the entity being
+ * imported is ever held in memory. It is handed to the single entity methods of
+ * the {@link JdomMasterDomainDescriptionImporter}, so both importers map
+ * entities the same way.
+ *
+ * <p>
+ * Entities are saved in batches, each batch in its own transaction. A failure
+ * rolls back the batch it happens in. Batches which were already committed
+ * stay in the database.
+ *
+ * <p>
+ * Sections are imported in the order they appear in the description, so
+ * entities must come after the entities they refer to. Descriptions written by
+ * the {@link StreamingMasterDomainDescriptionCreator} or the
+ * {@link JdomMasterDomainDescriptionCreator} are always in this order.
+ *
+ * @author agent
+ */
+public class StreamingMasterDomainDescriptionImporter implements MasterDomainDescription {
+
+  /**
+   * The default number of entities saved in a single transaction.
+   */
+  public static final int BATCH_SIZE_DEFAULT = 100;
+
+  /**
+   * The importer which maps the individual entities.
+   */
+  private final JdomMasterDomainDescriptionImporter entityImporter = new JdomMasterDomainDescriptionImporter();
+
+  /**
+   * The transaction manager for the batches, {@code null} if each entity is
+   * saved in its own transaction.
+   */
+  private final PlatformTransactionManager transactionManager;
+
+  /**
+   * The number of entities saved in a single transaction.
+   */
+  private final int batchSize;
+
+  /**
+   * The transaction for the current batch, {@code null} if there is none.
+   */
+  private TransactionStatus batchTransaction;
+
+  /**
+   * The number of entities saved in the current batch.
+   */
+  private int numberBatchEntities;
+
+  /**
+   * The number of entities imported.
+   */
+  private int numberEntities;
+
+  /**
+   * Construct a new importer.
+   *
+   * @param transactionManager
+   *          the transaction manager for the batches, can be {@code null} if
+   *          each entity should be saved in its own transaction
+   * @param batchSize
+   *          the number of entities saved in a single transaction
+   */
+  public StreamingMasterDomainDescriptionImporter(PlatformTransactionManager transactionManager, int batchSize) {
+    this.transactionManager = transactionManager;
+    this.batchSize = Math.max(1, batchSize);
+  }
+
+  /**
+   * Import a space domain description.
+   *
+   * @param description
+   *          the reader for the description to import, will not be closed
+   * @param activityRepository
+   *          the repository for activity entities
+   * @param controllerRepository
+   *          the repository for controller entities
+   * @param automationRepository
+   *          the repository for automation entities
+   * @param timeProvider
+   *          the time provider to use
+   *
+   * @return the number of entities imported
+   *
+   * @throws InteractiveSpacesException
+   *           the description could not be read or an entity could not be
+   *           saved
+   */
+  public int importDescription(Reader description, ActivityRepository activityRepository,
+      SpaceControllerRepository controllerRepository, AutomationRepository automationRepository,
+      TimeProvider timeProvider) throws InteractiveSpacesException {
+    XMLStreamReader reader = null;
+    try {
+      reader = newXmlInputFactory().createXMLStreamReader(description);
+
+      reader.nextTag();
+      if (!ELEMENT_NAME_DESCRIPTION_ROOT_ELEMENT.equals(reader.getLocalName())) {
+        throw new SimpleInteractiveSpacesException(String.format(
+            "The description file doesn't have root element %s", ELEMENT_NAME_DESCRIPTION_ROOT_ELEMENT));
+      }
+
+      while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+        String sectionName = reader.getLocalName();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+          Element entityElement = readElement(reader);
+          if (importEntity(sectionName, entityElement, activityRepository, controllerRepository,
+              automationRepository, timeProvider)) {
+            entitySaved();
+          }
+        }
+      }
+
+      commitBatch();
+
+      return numberEntities;
+    } catch (XMLStreamException e) {
+      throw new InteractiveSpacesException("Unable to read master domain model description", e);
+    } finally {
+      rollbackBatch();
+      closeReader(reader);
+    }
+  }
+
+  /**
+   * Import a single entity.
+   *
+   * @param sectionName
+   *          name of the section the entity is in
+   * @param entityElement
+   *          the XML element for the entity
+   * @param activityRepository
+   *          the repository for activity entities
+   * @param controllerRepository
+   *          the repository for controller entities
+   * @param automationRepository
+   *          the repository for automation entities
+   * @param timeProvider
+   *          the time provider to use
+   *
+   * @return {@code true} if an entity was saved, {@code false} if the element
+   *         was not one which is imported
+   */
+  private boolean importEntity(String sectionName, Element entityElement, ActivityRepository activityRepository,
+      SpaceControllerRepository controllerRepository, AutomationRepository automationRepository,
+      TimeProvider timeProvider) {
+    String entityName = entityElement.getName();
+
+    beginBatch();
+
+    if (ELEMENT_NAME_ROOT_SPACE_CONTROLLERS.equals(sectionName)
+        && ELEMENT_NAME_INDIVIDUAL_SPACE_CONTROLLER.equals(entityName)) {
+      entityImporter.getSpaceController(entityElement, controllerRepository);
+    } else if (ELEMENT_NAME_ROOT_ACTIVITIES.equals(sectionName)
+        && ELEMENT_NAME_INDIVIDUAL_ACTIVITY.equals(entityName)) {
+      entityImporter.getActivity(entityElement, activityRepository, timeProvider);
+    } else if (ELEMENT_NAME_ROOT_LIVE_ACTIVITIES.equals(sectionName)
+        && ELEMENT_NAME_INDIVIDUAL_LIVE_ACTIVITY.equals(entityName)) {
+      entityImporter.getLiveActivity(entityElement, activityRepository);
+    } else if (ELEMENT_NAME_ROOT_LIVE_ACTIVITY_GROUPS.equals(sectionName)
+        && ELEMENT_NAME_INDIVIDUAL_LIVE_ACTIVITY_GROUP.equals(entityName)) {
+      entityImporter.getLiveActivityGroup(entityElement, activityRepository);
+    } else if (ELEMENT_NAME_ROOT_SPACES.equals(sectionName) && ELEMENT_NAME_INDIVIDUAL_SPACE.equals(entityName)) {
+      entityImporter.getSpace(entityElement, activityRepository);
+    } else if (ELEMENT_NAME_ROOT_NAMED_SCRIPTS.equals(sectionName)
+        && ELEMENT_NAME_INDIVIDUAL_NAMED_SCRIPT.equals(entityName)) {
+      entityImporter.getNamedScript(entityElement, automationRepository);
+    } else {
+      return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Read the element the reader is on, and everything in it, into a JDOM
+   * element.
+   *
+   * <p>
+   * The reader is left on the end of the element.
+   *
+   * @param reader
+   *          the reader, positioned on the start of the element
+   *
+   * @return the element
+   *
+   * @throws XMLStreamException
+   *           the element could not be read
+   */
+  private Element readElement(XMLStreamReader reader) throws XMLStreamException {
+    Deque<Element> elements = new ArrayDeque<Element>();
+    Element root = newElement(reader);
+    elements.push(root);
+
+    while (!elements.isEmpty()) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT:
+          Element element = newElement(reader);
+          elements.peek().addContent(element);
+          elements.push(element);
+          break;
+
+        case XMLStreamConstants.END_ELEMENT:
+          elements.pop();
+          break;
+
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+        case XMLStreamConstants.SPACE:
+          elements.peek().addContent(new Text(reader.getText()));
+          break;
+
+        default:
+          // Comments and processing instructions are not part of the model.
+      }
+    }
+
+    return root;
+  }
+
+  /**
+   * Create a JDOM element for the element the reader is on.
+   *
+   * @param reader
+   *          the reader, positioned on the start of an element
+   *
+   * @return the element with its attributes
+   */
+  private Element newElement(XMLStreamReader reader) {
+    Element element = new Element(reader.getLocalName());
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+    }
+
+    return element;
+  }
+
+  /**
+   * Start a batch if there isn't one in progress.
+   */
+  private void beginBatch() {
+    if (transactionManager != null && batchTransaction == null) {
+      batchTransaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+    }
+  }
+
+  /**
+   * An entity has been saved. Commit the batch if it is full.
+   */
+  private void entitySaved() {
+    numberEntities++;
+    numberBatchEntities++;
+    if (numberBatchEntities >= batchSize) {
+      commitBatch();
+    }
+  }
+
+  /**
+   * Commit the current batch, if there is one.
+   */
+  private void commitBatch() {
+    if (batchTransaction != null) {
+      TransactionStatus transaction = batchTransaction;
+      batchTransaction = null;
+      transactionManager.commit(transaction);
+    }
+    numberBatchEntities = 0;
+  }
+
+  /**
+   * Roll back the current batch, if there is one.
+   */
+  private void rollbackBatch() {
+    if (batchTransaction != null) {
+      TransactionStatus transaction = batchTransaction;
+      batchTransaction = null;
+      transactionManager.rollback(transaction);
+    }
+    numberBatchEntities = 0;
+  }
+
+  /**
+   * Close the XML reader, if there is one.
+   *
+   * @param reader
+   *          the reader, can be {@code null}
+   */
+  private void closeReader(XMLStreamReader reader) {
+    if (reader != null) {
+      try {
+        reader.close();
+      } catch (XMLStreamException e) {
+        // Nothing to be done, the underlying reader belongs to the caller.
+      }
+    }
+  }
+
+  /**
+   * Create the factory for XML readers.
+   *
+   * <p>
+   * DTDs and external entities are not supported, descriptions don't use them
+   * and they would let a description read arbitrary files.
+   *
+   * @return the factory
+   */
+  private XMLInputFactory newXmlInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+
+    return factory;
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.resource.repository;
+
+import interactivespaces.resource.Version;
+
+/**
+ * A listener for resources being requested from a {@link ResourceRepositoryServer}.
+ *
+ * @author agent
+ */
+public interface ResourceRepositoryRequestListener {
+
+  /**
+   * A resource has been requested as part of a transaction.
+   *
+   * <p>
+   * Requests which don't name a transaction aren't reported.
+   *
+   * @param category
+   *          category of the resource
+   * @param name
+   *          the name of the resource
+   * @param version
+   *          the version of the resource
+   * @param transactionId
+   *          ID of the transaction the request was made for
+   */
+  void onResourceRequest(String category, String name, Version version, String transactionId);
+}
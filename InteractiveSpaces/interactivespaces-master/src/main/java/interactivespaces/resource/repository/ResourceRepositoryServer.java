@@ -30,6 +30,11 @@ import java.io.OutputStream;
  */
 public interface ResourceRepositoryServer extends ManagedResource {
 
+  /**
+   * The URI query parameter naming the transaction a resource is being requested for.
+   */
+  String REQUEST_PARAMETER_TRANSACTION_ID = "transaction";
+
   /**
    * Get a full URI for the given resource.
    *
@@ -44,6 +49,24 @@ public interface ResourceRepositoryServer extends ManagedResource {
    */
   String getResourceUri(String category, String name, Version version);
 
+  /**
+   * Get the digest of a resource's contents.
+   *
+   * <p>
+   * The digest is calculated with {@link interactivespaces.util.data.resource.MessageDigestResourceSignature}, written
+   * as hex with no separators, and is sent along with the resource so the receiver can verify and cache it.
+   *
+   * @param category
+   *          category of the resource
+   * @param name
+   *          the name of the resource
+   * @param version
+   *          the version of the resource
+   *
+   * @return the digest, or {@code null} if there is no such resource
+   */
+  String getResourceDigest(String category, String name, Version version);
+
   /**
    * Create an output stream for writing a new resource into the repository.
    *
@@ -78,4 +101,23 @@ public interface ResourceRepositoryServer extends ManagedResource {
    *          the channel whose listener should be removed
    */
   void removeResourceUploadListener(ResourceRepositoryUploadChannel channel);
+
+  /**
+   * Add a listener for resources requested as part of a transaction.
+   *
+   * @param listener
+   *          the listener to add
+   */
+  void addResourceRequestListener(ResourceRepositoryRequestListener listener);
+
+  /**
+   * Remove a listener for resource requests.
+   *
+   * <p>
+   * Does nothing if the listener was never added.
+   *
+   * @param listener
+   *          the listener to remove
+   */
+  void removeResourceRequestListener(ResourceRepositoryRequestListener listener);
 }
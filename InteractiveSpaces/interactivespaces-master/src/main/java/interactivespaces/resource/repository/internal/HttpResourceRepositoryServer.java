@@ -19,6 +19,7 @@ package interactivespaces.resource.repository.internal;
 import interactivespaces.InteractiveSpacesException;
 import interactivespaces.common.ResourceRepositoryUploadChannel;
 import interactivespaces.resource.Version;
+import interactivespaces.resource.repository.ResourceRepositoryRequestListener;
 import interactivespaces.resource.repository.ResourceRepositoryServer;
 import interactivespaces.resource.repository.ResourceRepositoryStorageManager;
 import interactivespaces.service.web.HttpResponseCode;
@@ -31,13 +32,24 @@ import interactivespaces.service.web.server.WebServer;
 import interactivespaces.service.web.server.internal.netty.NettyWebServer;
 import interactivespaces.system.InteractiveSpacesEnvironment;
 import interactivespaces.util.data.resource.CopyableResourceListener;
+import interactivespaces.util.data.resource.MessageDigestResourceSignature;
 import interactivespaces.util.io.Files;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * An Interactive Spaces resource repository server using HTTP.
@@ -67,6 +79,21 @@ public class HttpResourceRepositoryServer implements ResourceRepositoryServer {
    */
   private static final String UUID_PARAMETER_KEY = "uuid";
 
+  /**
+   * The HTTP response header giving the digest of a resource.
+   */
+  public static final String HEADER_RESOURCE_DIGEST = "X-Interactivespaces-Digest";
+
+  /**
+   * The HTTP request header for range requests.
+   */
+  private static final String HEADER_RANGE = "Range";
+
+  /**
+   * Pattern for the byte ranges which are supported.
+   */
+  private static final Pattern RANGE_HEADER_REGEX = Pattern.compile("bytes=(\\d+)-(\\d+)?");
+
   /**
    * Webserver for the activity repository.
    */
@@ -103,6 +130,21 @@ public class HttpResourceRepositoryServer implements ResourceRepositoryServer {
   private final Map<String, CopyableResourceListener> resourceUploadListenerMap =
       new HashMap<String, CopyableResourceListener>();
 
+  /**
+   * The listeners for resources requested as part of a transaction.
+   */
+  private final List<ResourceRepositoryRequestListener> requestListeners = Lists.newCopyOnWriteArrayList();
+
+  /**
+   * Digests of resource files, keyed by the file path.
+   */
+  private final Map<String, ResourceDigest> resourceDigests = Maps.newConcurrentMap();
+
+  /**
+   * Calculates resource digests.
+   */
+  private final MessageDigestResourceSignature resourceSignature = new MessageDigestResourceSignature();
+
   @Override
   public void startup() {
     repositoryPort =
@@ -153,6 +195,42 @@ public class HttpResourceRepositoryServer implements ResourceRepositoryServer {
     return repositoryBaseUrl + "/" + category + "/" + name + "/" + version;
   }
 
+  @Override
+  public String getResourceDigest(String category, String name, Version version) {
+    File resourceFile = getResourceFile(category, name, version);
+    if (!resourceFile.isFile()) {
+      return null;
+    }
+
+    String key = resourceFile.getAbsolutePath();
+    ResourceDigest digest = resourceDigests.get(key);
+    if (digest == null || !digest.isCurrent(resourceFile)) {
+      digest =
+          new ResourceDigest(resourceFile.length(), resourceFile.lastModified(),
+              resourceSignature.getBundleSignature(resourceFile).replace(" ", ""));
+      resourceDigests.put(key, digest);
+    }
+
+    return digest.digest;
+  }
+
+  /**
+   * Get the file holding a resource.
+   *
+   * @param category
+   *          category of the resource
+   * @param name
+   *          the name of the resource
+   * @param version
+   *          the version of the resource
+   *
+   * @return the file for the resource, which may not exist
+   */
+  private File getResourceFile(String category, String name, Version version) {
+    return new File(repositoryStorageManager.getBaseLocation(category),
+        repositoryStorageManager.getRepositoryResourceName(category, name, version));
+  }
+
   @Override
   public OutputStream createResourceOutputStream(String category, String name, Version version) {
     return repositoryStorageManager.newResourceOutputStream(category, name, version);
@@ -179,12 +257,33 @@ public class HttpResourceRepositoryServer implements ResourceRepositoryServer {
 
     InputStream resourceStream = repositoryStorageManager.getResourceStream(category, name, version);
     if (resourceStream != null) {
-      response.setResponseCode(HttpResponseCode.OK);
+      String transactionId = request.getUriQueryParameters().get(REQUEST_PARAMETER_TRANSACTION_ID);
+      if (transactionId != null) {
+        signalResourceRequest(category, name, version, transactionId);
+      }
+
+      String digest = getResourceDigest(category, name, version);
+      if (digest != null) {
+        response.addContentHeader(HEADER_RESOURCE_DIGEST, digest);
+      }
+
       try {
-        Files.copyInputStream(resourceStream, response.getOutputStream());
+        long resourceLength = getResourceFile(category, name, version).length();
+        long[] range = getRequestedRange(request, resourceLength);
+        if (range != null) {
+          response.setResponseCode(HttpResponseCode.PARTIAL_CONTENT);
+          response.addContentHeader("Content-Range", "bytes " + range[0] + "-" + range[1] + "/" + resourceLength);
+          ByteStreams.skipFully(resourceStream, range[0]);
+          ByteStreams.copy(ByteStreams.limit(resourceStream, range[1] - range[0] + 1), response.getOutputStream());
+        } else {
+          response.setResponseCode(HttpResponseCode.OK);
+          Files.copyInputStream(resourceStream, response.getOutputStream());
+        }
       } catch (IOException e) {
         spaceEnvironment.getLog().error(
             String.format("Error while writing resource %s:%s of category %s", name, version, category));
+      } finally {
+        Closeables.closeQuietly(resourceStream);
       }
     } else {
       spaceEnvironment.getLog().warn(String.format("No such resource %s:%s of category %s", name, version, category));
@@ -192,6 +291,60 @@ public class HttpResourceRepositoryServer implements ResourceRepositoryServer {
     }
   }
 
+  /**
+   * Tell the request listeners about a resource requested as part of a transaction.
+   *
+   * @param category
+   *          category of the resource
+   * @param name
+   *          the name of the resource
+   * @param version
+   *          the version of the resource
+   * @param transactionId
+   *          ID of the transaction
+   */
+  private void signalResourceRequest(String category, String name, Version version, String transactionId) {
+    for (ResourceRepositoryRequestListener listener : requestListeners) {
+      try {
+        listener.onResourceRequest(category, name, version, transactionId);
+      } catch (Exception e) {
+        spaceEnvironment.getLog().error("Error while signaling a resource repository request", e);
+      }
+    }
+  }
+
+  /**
+   * Get the byte range asked for by a request.
+   *
+   * @param request
+   *          the request
+   * @param resourceLength
+   *          the length of the resource, in bytes
+   *
+   * @return the first and last byte positions, or {@code null} if the whole resource should be sent
+   */
+  private long[] getRequestedRange(HttpRequest request, long resourceLength) {
+    Set<String> rangeHeaders = request.getHeader(HEADER_RANGE);
+    if (rangeHeaders == null || rangeHeaders.size() != 1) {
+      return null;
+    }
+
+    Matcher matcher = RANGE_HEADER_REGEX.matcher(rangeHeaders.iterator().next().trim());
+    if (!matcher.matches()) {
+      return null;
+    }
+
+    long begin = Long.parseLong(matcher.group(1));
+    long end = (matcher.group(2) != null) ? Long.parseLong(matcher.group(2)) : resourceLength - 1;
+    end = Math.min(end, resourceLength - 1);
+    if (begin > end) {
+      // Not satisfiable, send everything and let the client start over.
+      return null;
+    }
+
+    return new long[] { begin, end };
+  }
+
   @Override
   public void
       registerResourceUploadListener(ResourceRepositoryUploadChannel channel, CopyableResourceListener listener) {
@@ -203,6 +356,16 @@ public class HttpResourceRepositoryServer implements ResourceRepositoryServer {
     resourceUploadListenerMap.remove(channel.getChannelId());
   }
 
+  @Override
+  public void addResourceRequestListener(ResourceRepositoryRequestListener listener) {
+    requestListeners.add(listener);
+  }
+
+  @Override
+  public void removeResourceRequestListener(ResourceRepositoryRequestListener listener) {
+    requestListeners.remove(listener);
+  }
+
   /**
    * Handle a resource upload.
    *
@@ -234,4 +397,55 @@ public class HttpResourceRepositoryServer implements ResourceRepositoryServer {
   public void setRepositoryStorageManager(ResourceRepositoryStorageManager repositoryStorageManager) {
     this.repositoryStorageManager = repositoryStorageManager;
   }
+
+  /**
+   * The digest of a resource file, along with what the file looked like when the digest was calculated.
+   *
+   * @author Keith M. Hughes
+   */
+  private static class ResourceDigest {
+
+    /**
+     * Length of the file when the digest was calculated.
+     */
+    private final long length;
+
+    /**
+     * Modification time of the file when the digest was calculated.
+     */
+    private final long lastModified;
+
+    /**
+     * The digest.
+     */
+    private final String digest;
+
+    /**
+     * Construct a new resource digest.
+     *
+     * @param length
+     *          length of the file
+     * @param lastModified
+     *          modification time of the file
+     * @param digest
+     *          the digest
+     */
+    public ResourceDigest(long length, long lastModified, String digest) {
+      this.length = length;
+      this.lastModified = lastModified;
+      this.digest = digest;
+    }
+
+    /**
+     * Does the digest still describe the file?
+     *
+     * @param file
+     *          the file
+     *
+     * @return {@code true} if the file hasn't changed since the digest was calculated
+     */
+    public boolean isCurrent(File file) {
+      return file.length() == length && file.lastModified() == lastModified;
+    }
+  }
 }
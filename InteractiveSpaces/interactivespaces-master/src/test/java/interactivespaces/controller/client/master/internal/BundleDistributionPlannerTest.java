@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.controller.client.master.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import interactivespaces.activity.deployment.ActivityDeploymentRequest;
+import interactivespaces.controller.client.master.internal.BundleDistributionPlanner.BundleTransferStarter;
+import interactivespaces.resource.Version;
+import interactivespaces.time.SettableTimeProvider;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Unit tests for {@link BundleDistributionPlanner}.
+ *
+ * @author agent
+ */
+public class BundleDistributionPlannerTest {
+
+  private static final String DIGEST = "abcdef";
+
+  private static final long TRANSFER_TIMEOUT = 1000;
+
+  private SettableTimeProvider timeProvider;
+
+  private List<ActivityDeploymentRequest> started;
+
+  private BundleTransferStarter starter;
+
+  @Before
+  public void setup() {
+    timeProvider = new SettableTimeProvider();
+    timeProvider.setCurrentTime(1000);
+
+    started = Lists.newArrayList();
+    starter = new BundleTransferStarter() {
+      @Override
+      public void startTransfer(ActivityDeploymentRequest request) {
+        started.add(request);
+      }
+    };
+  }
+
+  /**
+   * With no fanout every transfer starts right away from the master.
+   */
+  @Test
+  public void testDisabled() {
+    BundleDistributionPlanner planner = new BundleDistributionPlanner(0, TRANSFER_TIMEOUT, timeProvider, starter);
+
+    for (int i = 0; i < 5; i++) {
+      planner.planTransfer(newRequest(i, DIGEST));
+    }
+
+    assertEquals(5, started.size());
+    for (ActivityDeploymentRequest request : started) {
+      assertTrue(request.getPeerSourceUris().isEmpty());
+    }
+  }
+
+  /**
+   * A request without a digest is never held back.
+   */
+  @Test
+  public void testNoDigest() {
+    BundleDistributionPlanner planner = new BundleDistributionPlanner(1, TRANSFER_TIMEOUT, timeProvider, starter);
+
+    planner.planTransfer(newRequest(0, null));
+    planner.planTransfer(newRequest(1, null));
+
+    assertEquals(2, started.size());
+  }
+
+  /**
+   * Only the fanout number of transfers come from the master, the rest wait for peers.
+   */
+  @Test
+  public void testFanoutTree() {
+    BundleDistributionPlanner planner = new BundleDistributionPlanner(2, TRANSFER_TIMEOUT, timeProvider, starter);
+
+    for (int i = 0; i < 7; i++) {
+      planner.planTransfer(newRequest(i, DIGEST));
+    }
+
+    assertEquals(2, started.size());
+    assertTrue(started.get(0).getPeerSourceUris().isEmpty());
+    assertTrue(started.get(1).getPeerSourceUris().isEmpty());
+    assertEquals(5, planner.getNumberWaitingTransfers(DIGEST));
+
+    // The first controller becomes a source for two more, and the master takes another.
+    planner.transferComplete("t0", true, "http://peer0/bundles/" + DIGEST + ".zip");
+    assertEquals(5, started.size());
+    assertEquals(Lists.newArrayList("http://peer0/bundles/" + DIGEST + ".zip"), started.get(2).getPeerSourceUris());
+    assertEquals(Lists.newArrayList("http://peer0/bundles/" + DIGEST + ".zip"), started.get(3).getPeerSourceUris());
+    assertTrue(started.get(4).getPeerSourceUris().isEmpty());
+    assertEquals(2, planner.getNumberWaitingTransfers(DIGEST));
+  }
+
+  /**
+   * A peer which fails a transfer is no longer used as a source.
+   */
+  @Test
+  public void testFailedPeerDropped() {
+    BundleDistributionPlanner planner = new BundleDistributionPlanner(1, TRANSFER_TIMEOUT, timeProvider, starter);
+
+    planner.planTransfer(newRequest(0, DIGEST));
+    planner.transferComplete("t0", true, "http://peer0");
+    planner.planTransfer(newRequest(1, DIGEST));
+    assertEquals(Lists.newArrayList("http://peer0"), started.get(1).getPeerSourceUris());
+
+    planner.transferComplete("t1", false, null);
+    assertTrue(planner.getHolders(DIGEST).isEmpty());
+  }
+
+  /**
+   * A transfer which falls back to the master takes a master slot.
+   */
+  @Test
+  public void testMasterFallback() {
+    BundleDistributionPlanner planner = new BundleDistributionPlanner(1, TRANSFER_TIMEOUT, timeProvider, starter);
+
+    planner.planTransfer(newRequest(0, DIGEST));
+    planner.transferComplete("t0", true, "http://peer0");
+    planner.planTransfer(newRequest(1, DIGEST));
+    planner.planTransfer(newRequest(2, DIGEST));
+    planner.planTransfer(newRequest(3, DIGEST));
+    assertEquals(Lists.newArrayList("http://peer0"), started.get(1).getPeerSourceUris());
+    assertTrue(started.get(2).getPeerSourceUris().isEmpty());
+    assertEquals(1, planner.getNumberWaitingTransfers(DIGEST));
+
+    // Asking the master for a bundle it was already sending changes nothing.
+    planner.masterRequested("t2");
+    assertTrue(planner.getHolders(DIGEST).contains("http://peer0"));
+
+    planner.masterRequested("t1");
+    assertTrue(planner.getHolders(DIGEST).isEmpty());
+
+    // The master is still sending to the controller which fell back.
+    planner.transferComplete("t2", true, null);
+    assertEquals(3, started.size());
+    assertEquals(1, planner.getNumberWaitingTransfers(DIGEST));
+
+    planner.transferComplete("t1", true, null);
+    assertEquals(4, started.size());
+    assertTrue(started.get(3).getPeerSourceUris().isEmpty());
+  }
+
+  /**
+   * A transfer which takes too long gives up its slot.
+   */
+  @Test
+  public void testStaleTransfer() {
+    BundleDistributionPlanner planner = new BundleDistributionPlanner(1, TRANSFER_TIMEOUT, timeProvider, starter);
+
+    planner.planTransfer(newRequest(0, DIGEST));
+    planner.planTransfer(newRequest(1, DIGEST));
+    assertEquals(1, started.size());
+
+    planner.checkStaleTransfers();
+    assertEquals(1, started.size());
+
+    timeProvider.setCurrentTime(1000 + TRANSFER_TIMEOUT + 1);
+    planner.checkStaleTransfers();
+    assertEquals(2, started.size());
+
+    // A late completion of the stale transfer is ignored.
+    planner.transferComplete("t0", true, "http://peer0");
+    assertTrue(planner.getHolders(DIGEST).isEmpty());
+  }
+
+  /**
+   * Create a new request.
+   *
+   * @param index
+   *          index of the request
+   * @param digest
+   *          digest of the bundle
+   *
+   * @return the request
+   */
+  private ActivityDeploymentRequest newRequest(int index, String digest) {
+    ActivityDeploymentRequest request =
+        new ActivityDeploymentRequest("t" + index, "uuid" + index, "activity", Version.parseVersion("1.0.0"),
+            "http://master/activity");
+    request.setBundleDigest(digest);
+
+    return request;
+  }
+}
@@ -152,4 +152,42 @@ public class BasicMasterAlertManagerTest {
         Mockito.eq(MasterAlertManager.ALERT_TYPE_CONTROLLER_TIMEOUT), Mockito.eq(uuid),
         Mockito.anyString());
   }
+
+  /**
+   * A controller with steady heartbeats is caught long before the heartbeat
+   * time runs out.
+   */
+  @Test
+  public void testAlertManagerPhiTrigger() {
+    String uuid = "this.is.my.uuid";
+    long timestamp = 1000;
+    long interval = 2000;
+
+    SpaceController controller = new SimpleSpaceController();
+    controller.setUuid(uuid);
+
+    ActiveSpaceController active = new ActiveSpaceController(controller, timeProvider);
+
+    alertManager.setSpaceControllerHeartbeatInterval(interval);
+    timeProvider.setCurrentTime(timestamp);
+    alertManager.getSpaceControllerListener().onSpaceControllerConnectAttempted(active);
+    for (int i = 0; i < 20; i++) {
+      timestamp += interval;
+      timeProvider.setCurrentTime(timestamp);
+      alertManager.getSpaceControllerListener().onSpaceControllerHeartbeat(uuid, timestamp);
+      alertManager.scan();
+    }
+
+    timeProvider.setCurrentTime(timestamp + interval + 100);
+    alertManager.scan();
+    Mockito.verify(alertService, Mockito.never()).raiseAlert(Mockito.anyString(),
+        Mockito.anyString(), Mockito.anyString());
+
+    timeProvider.setCurrentTime(timestamp + 3 * interval);
+    alertManager.scan();
+    Mockito.verify(alertService, Mockito.times(1)).raiseAlert(
+        Mockito.eq(MasterAlertManager.ALERT_TYPE_CONTROLLER_TIMEOUT), Mockito.eq(uuid),
+        Mockito.anyString());
+    assertTrue(3 * interval < alertManager.getSpaceControllerHeartbeatTime());
+  }
 }
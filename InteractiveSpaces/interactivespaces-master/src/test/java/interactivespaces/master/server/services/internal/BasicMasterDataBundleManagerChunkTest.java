@@ -0,0 +1,401 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.master.server.services.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import interactivespaces.InteractiveSpacesException;
+import interactivespaces.common.ResourceRepositoryUploadChannel;
+import interactivespaces.master.server.services.ActiveSpaceController;
+import interactivespaces.resource.Version;
+import interactivespaces.resource.repository.ResourceRepositoryServer;
+import interactivespaces.resource.repository.ResourceRepositoryStorageManager;
+import interactivespaces.util.data.chunk.ChunkedContentBundle;
+import interactivespaces.util.data.chunk.ChunkedContentManifest;
+import interactivespaces.util.data.chunk.ContentChunk;
+import interactivespaces.util.data.chunk.ContentChunkHandler;
+import interactivespaces.util.data.chunk.ContentChunker;
+import interactivespaces.util.data.resource.CopyableResource;
+import interactivespaces.util.data.resource.CopyableResourceListener;
+import interactivespaces.util.io.FileSupportImpl;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+
+import org.apache.commons.logging.Log;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Tests for how the {@link BasicMasterDataBundleManager} stores chunked data bundles.
+ *
+ * <p>
+ * The repository storage is a temporary directory holding each data resource in a file of its own.
+ *
+ * @author agent
+ */
+public class BasicMasterDataBundleManagerChunkTest {
+
+  private static final String CONTROLLER_UUID = "controller1";
+
+  private static final String OTHER_CONTROLLER_UUID = "controller2";
+
+  private static final String SECTION = "controller";
+
+  private static final String DATA_URI_PREFIX = "data:";
+
+  private File dataDirectory;
+
+  private ContentChunker chunker;
+
+  private CopyableResourceListener uploadListener;
+
+  private BasicMasterDataBundleManager dataBundleManager;
+
+  @Before
+  public void setup() {
+    dataDirectory = Files.createTempDir();
+    chunker = new ContentChunker(1024, 4096, 16384);
+
+    ResourceRepositoryStorageManager storageManager = Mockito.mock(ResourceRepositoryStorageManager.class);
+    when(storageManager.getBaseLocation(ResourceRepositoryStorageManager.RESOURCE_CATEGORY_DATA)).thenReturn(
+        dataDirectory);
+    when(storageManager.getRepositoryResourceName(anyString(), anyString(), any(Version.class))).thenAnswer(
+        new Answer<String>() {
+          @Override
+          public String answer(InvocationOnMock invocation) {
+            return getResourceFileName((String) invocation.getArguments()[1]);
+          }
+        });
+    when(storageManager.containsResource(anyString(), anyString(), any(Version.class))).thenAnswer(
+        new Answer<Boolean>() {
+          @Override
+          public Boolean answer(InvocationOnMock invocation) {
+            return getResourceFile((String) invocation.getArguments()[1]).isFile();
+          }
+        });
+    Answer<OutputStream> newResourceOutputStream = new Answer<OutputStream>() {
+      @Override
+      public OutputStream answer(InvocationOnMock invocation) throws IOException {
+        return new FileOutputStream(getResourceFile((String) invocation.getArguments()[1]));
+      }
+    };
+    when(storageManager.newResourceOutputStream(anyString(), anyString(), any(Version.class))).thenAnswer(
+        newResourceOutputStream);
+
+    ResourceRepositoryServer repositoryServer = Mockito.mock(ResourceRepositoryServer.class);
+    when(repositoryServer.createResourceOutputStream(anyString(), anyString(), any(Version.class))).thenAnswer(
+        newResourceOutputStream);
+    when(repositoryServer.getResourceUri(anyString(), anyString(), any(Version.class))).thenAnswer(
+        new Answer<String>() {
+          @Override
+          public String answer(InvocationOnMock invocation) {
+            return DATA_URI_PREFIX + invocation.getArguments()[1];
+          }
+        });
+
+    dataBundleManager = new BasicMasterDataBundleManager() {
+      @Override
+      protected void sendControllerDataBundleCaptureRequest(ActiveSpaceController controller, String destinationUri) {
+      }
+
+      @Override
+      protected void sendControllerDataBundleRestoreRequest(ActiveSpaceController controller, String sourceUri) {
+      }
+    };
+    dataBundleManager.setRepositoryServer(repositoryServer);
+    dataBundleManager.setRepositoryStorageManager(storageManager);
+    dataBundleManager.setLog(Mockito.mock(Log.class));
+    dataBundleManager.startup();
+
+    ArgumentCaptor<CopyableResourceListener> listener = ArgumentCaptor.forClass(CopyableResourceListener.class);
+    Mockito.verify(repositoryServer).registerResourceUploadListener(
+        Mockito.eq(ResourceRepositoryUploadChannel.DATA_BUNDLE_UPLOAD), listener.capture());
+    uploadListener = listener.getValue();
+  }
+
+  @After
+  public void cleanup() {
+    FileSupportImpl.INSTANCE.delete(dataDirectory);
+  }
+
+  /**
+   * The chunks of an upload are stored and the stored manifest says where to get them.
+   */
+  @Test
+  public void testChunkedBundleStored() throws Exception {
+    Map<String, byte[]> files = newFiles(1);
+    upload(CONTROLLER_UUID, newChunkedBundle(files, null));
+
+    ChunkedContentManifest stored = readStoredManifest(CONTROLLER_UUID);
+    assertEquals(getChunkHashes(files), stored.getChunkHashes());
+    assertEquals(DATA_URI_PREFIX + BasicMasterDataBundleManager.DATA_BUNDLE_CHUNK_PREFIX
+        + ChunkedContentBundle.CHUNK_URI_HASH_PLACEHOLDER, stored.getProperty(ChunkedContentBundle.PROPERTY_CHUNK_URI));
+    assertEquals(getChunkHashes(files), getStoredChunkHashes());
+  }
+
+  /**
+   * An upload missing a chunk the repository doesn't have leaves the previous bundle in place.
+   */
+  @Test
+  public void testMissingChunkRejected() throws Exception {
+    Map<String, byte[]> files = newFiles(1);
+    upload(CONTROLLER_UUID, newChunkedBundle(files, null));
+
+    Map<String, byte[]> newFiles = newFiles(2);
+    String missingHash = getChunkHashes(newFiles).iterator().next();
+    try {
+      upload(CONTROLLER_UUID, newChunkedBundle(newFiles, missingHash));
+      fail("Upload missing a chunk was accepted");
+    } catch (InteractiveSpacesException e) {
+      // Expected.
+    }
+
+    assertEquals(getChunkHashes(files), readStoredManifest(CONTROLLER_UUID).getChunkHashes());
+    assertEquals(getChunkHashes(files), getStoredChunkHashes());
+  }
+
+  /**
+   * Chunks no stored bundle refers to any more are removed.
+   */
+  @Test
+  public void testUnreferencedChunksCollected() throws Exception {
+    Map<String, byte[]> firstFiles = newFiles(1);
+    Map<String, byte[]> otherFiles = newFiles(2);
+    upload(CONTROLLER_UUID, newChunkedBundle(firstFiles, null));
+    upload(OTHER_CONTROLLER_UUID, newChunkedBundle(otherFiles, null));
+
+    Map<String, byte[]> secondFiles = newFiles(3);
+    upload(CONTROLLER_UUID, newChunkedBundle(secondFiles, null));
+
+    Set<String> expected = Sets.newHashSet(getChunkHashes(secondFiles));
+    expected.addAll(getChunkHashes(otherFiles));
+    assertEquals(expected, getStoredChunkHashes());
+  }
+
+  /**
+   * A full data bundle is stored as is.
+   */
+  @Test
+  public void testFullBundleStored() throws Exception {
+    ByteArrayOutputStream bundle = new ByteArrayOutputStream();
+    ZipOutputStream zipOutputStream = new ZipOutputStream(bundle);
+    zipOutputStream.putNextEntry(new ZipEntry("controller/data.txt"));
+    zipOutputStream.write("some data".getBytes());
+    zipOutputStream.close();
+
+    upload(CONTROLLER_UUID, bundle.toByteArray());
+
+    assertArrayEquals(bundle.toByteArray(), Files.toByteArray(getResourceFile(CONTROLLER_UUID)));
+  }
+
+  /**
+   * Upload a data bundle.
+   *
+   * @param controllerUuid
+   *          UUID of the controller uploading
+   * @param bundle
+   *          the bundle contents
+   */
+  private void upload(String controllerUuid, final byte[] bundle) {
+    uploadListener.onUploadSuccess(controllerUuid, new CopyableResource() {
+      @Override
+      public boolean moveTo(File destination) {
+        throw new IllegalStateException("Should not be calling moveTo");
+      }
+
+      @Override
+      public boolean copyTo(OutputStream destination) {
+        try {
+          destination.write(bundle);
+        } catch (IOException e) {
+          throw new InteractiveSpacesException("Error writing to output", e);
+        }
+        return true;
+      }
+    });
+  }
+
+  /**
+   * Create a chunked data bundle holding every chunk of its files.
+   *
+   * @param files
+   *          the file contents, keyed by path
+   * @param leaveOut
+   *          hash of a chunk to leave out of the bundle, {@code null} to leave none out
+   *
+   * @return the bundle contents
+   *
+   * @throws IOException
+   *           the bundle could not be written
+   */
+  private byte[] newChunkedBundle(Map<String, byte[]> files, String leaveOut) throws IOException {
+    final Map<String, byte[]> chunks = Maps.newLinkedHashMap();
+    ChunkedContentManifest manifest = new ChunkedContentManifest();
+    for (Map.Entry<String, byte[]> file : files.entrySet()) {
+      List<ContentChunk> fileChunks =
+          chunker.chunk(new ByteArrayInputStream(file.getValue()), new ContentChunkHandler() {
+            @Override
+            public void onChunk(ContentChunk chunk, byte[] data) {
+              chunks.put(chunk.getHash(), ContentChunker.compressChunk(data, chunk.getLength()));
+            }
+          });
+      manifest.getOrCreateSection(SECTION).addFile(file.getKey(), file.getValue().length, fileChunks);
+    }
+
+    ByteArrayOutputStream bundle = new ByteArrayOutputStream();
+    ZipOutputStream zipOutputStream = new ZipOutputStream(bundle);
+    zipOutputStream.putNextEntry(new ZipEntry(ChunkedContentBundle.ENTRY_MANIFEST));
+    manifest.write(zipOutputStream);
+    zipOutputStream.closeEntry();
+    for (Map.Entry<String, byte[]> chunk : chunks.entrySet()) {
+      if (!chunk.getKey().equals(leaveOut)) {
+        zipOutputStream.putNextEntry(new ZipEntry(ChunkedContentBundle.ENTRY_CHUNK_PREFIX + chunk.getKey()));
+        zipOutputStream.write(chunk.getValue());
+        zipOutputStream.closeEntry();
+      }
+    }
+    zipOutputStream.close();
+
+    return bundle.toByteArray();
+  }
+
+  /**
+   * Create the files of a data bundle.
+   *
+   * @param seed
+   *          seed for the file contents, different seeds give files with no chunks in common
+   *
+   * @return the file contents, keyed by path
+   */
+  private Map<String, byte[]> newFiles(long seed) {
+    Random random = new Random(seed);
+    Map<String, byte[]> files = Maps.newLinkedHashMap();
+    for (int i = 0; i < 3; i++) {
+      byte[] content = new byte[20000];
+      random.nextBytes(content);
+      files.put("file" + i, content);
+    }
+
+    return files;
+  }
+
+  /**
+   * Get the hashes of all chunks of some files.
+   *
+   * @param files
+   *          the file contents, keyed by path
+   *
+   * @return the chunk hashes
+   *
+   * @throws IOException
+   *           the files could not be chunked
+   */
+  private Set<String> getChunkHashes(Map<String, byte[]> files) throws IOException {
+    Set<String> hashes = Sets.newHashSet();
+    for (byte[] content : files.values()) {
+      for (ContentChunk chunk : chunker.chunk(new ByteArrayInputStream(content), null)) {
+        hashes.add(chunk.getHash());
+      }
+    }
+
+    return hashes;
+  }
+
+  /**
+   * Get the hashes of all chunks in the repository.
+   *
+   * @return the chunk hashes
+   */
+  private Set<String> getStoredChunkHashes() {
+    String prefix = BasicMasterDataBundleManager.DATA_BUNDLE_CHUNK_PREFIX;
+    String suffix = getResourceFileName("");
+    Set<String> hashes = Sets.newHashSet();
+    for (File file : dataDirectory.listFiles()) {
+      String name = file.getName();
+      if (file.isFile() && name.startsWith(prefix)) {
+        hashes.add(name.substring(prefix.length(), name.length() - suffix.length()));
+      }
+    }
+
+    return hashes;
+  }
+
+  /**
+   * Read the manifest of the data bundle stored for a controller.
+   *
+   * @param controllerUuid
+   *          UUID of the controller
+   *
+   * @return the manifest
+   *
+   * @throws IOException
+   *           the bundle could not be read
+   */
+  private ChunkedContentManifest readStoredManifest(String controllerUuid) throws IOException {
+    return ChunkedContentBundle.readManifest(getResourceFile(controllerUuid));
+  }
+
+  /**
+   * Get the file a data resource is stored in.
+   *
+   * @param name
+   *          name of the resource
+   *
+   * @return the file
+   */
+  private File getResourceFile(String name) {
+    return new File(dataDirectory, getResourceFileName(name));
+  }
+
+  /**
+   * Get the file name of a data resource.
+   *
+   * @param name
+   *          name of the resource
+   *
+   * @return the file name
+   */
+  private String getResourceFileName(String name) {
+    return name + "-noversion.zip";
+  }
+}
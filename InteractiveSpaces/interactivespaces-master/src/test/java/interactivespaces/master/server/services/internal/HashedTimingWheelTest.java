@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.master.server.services.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Sets;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link HashedTimingWheel}.
+ *
+ * @author agent
+ */
+public class HashedTimingWheelTest {
+
+  /**
+   * Items come back once their deadline has passed, and not before.
+   */
+  @Test
+  public void testDeadlines() {
+    HashedTimingWheel<String> wheel = new HashedTimingWheel<String>(100, 8);
+    wheel.advance(1000);
+
+    wheel.schedule("a", 1150);
+    wheel.schedule("b", 1420);
+    wheel.schedule("c", 1420 + 8 * 100);
+
+    assertTrue(wheel.advance(1100).isEmpty());
+    assertEquals(Sets.newHashSet("a"), Sets.newHashSet(wheel.advance(1160)));
+    assertTrue(wheel.advance(1410).isEmpty());
+    assertEquals(Sets.newHashSet("b"), Sets.newHashSet(wheel.advance(1420)));
+    assertTrue(wheel.advance(2000).isEmpty());
+    assertEquals(Sets.newHashSet("c"), Sets.newHashSet(wheel.advance(2300)));
+  }
+
+  /**
+   * Moving forward more than a full turn finds everything due.
+   */
+  @Test
+  public void testLongAdvance() {
+    HashedTimingWheel<Integer> wheel = new HashedTimingWheel<Integer>(10, 4);
+    wheel.advance(0);
+    for (int i = 0; i < 20; i++) {
+      wheel.schedule(i, i * 7);
+    }
+
+    assertEquals(15, wheel.advance(100).size());
+    assertEquals(5, wheel.advance(1000).size());
+  }
+
+  /**
+   * Items scheduled in the past come back on the next advance.
+   */
+  @Test
+  public void testOverdue() {
+    HashedTimingWheel<String> wheel = new HashedTimingWheel<String>(100, 8);
+    wheel.advance(1000);
+    wheel.schedule("late", 500);
+
+    assertEquals(Sets.newHashSet("late"), Sets.newHashSet(wheel.advance(1001)));
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.master.server.services.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PhiAccrualFailureDetector}.
+ *
+ * @author agent
+ */
+public class PhiAccrualFailureDetectorTest {
+
+  /**
+   * The suspicion level grows the longer a heartbeat is overdue.
+   */
+  @Test
+  public void testPhiGrows() {
+    PhiAccrualFailureDetector detector = new PhiAccrualFailureDetector(1000, 0);
+    long timestamp = 0;
+    for (int i = 0; i < 20; i++) {
+      timestamp += 1000;
+      detector.heartbeat(timestamp);
+    }
+
+    assertEquals(0.0, detector.getPhi(timestamp), 0.0);
+    double previous = 0.0;
+    for (long elapsed = 100; elapsed < 5000; elapsed += 100) {
+      double phi = detector.getPhi(timestamp + elapsed);
+      assertTrue(phi >= previous);
+      previous = phi;
+    }
+    assertTrue(detector.getPhi(timestamp + 500) < 1.0);
+    assertTrue(detector.getPhi(timestamp + 4000) > 8.0);
+  }
+
+  /**
+   * Jittery heartbeats make a late heartbeat less suspicious than steady ones.
+   */
+  @Test
+  public void testJitterLowersSuspicion() {
+    PhiAccrualFailureDetector steady = new PhiAccrualFailureDetector(1000, 0, 0.1, 10);
+    PhiAccrualFailureDetector jittery = new PhiAccrualFailureDetector(1000, 0, 0.1, 10);
+    long steadyTimestamp = 0;
+    long jitteryTimestamp = 0;
+    for (int i = 0; i < 50; i++) {
+      steadyTimestamp += 1000;
+      steady.heartbeat(steadyTimestamp);
+      jitteryTimestamp += (i % 2 == 0) ? 500 : 1500;
+      jittery.heartbeat(jitteryTimestamp);
+    }
+
+    assertEquals(1000.0, steady.getMeanInterval(), 100.0);
+    assertEquals(1000.0, jittery.getMeanInterval(), 100.0);
+    assertTrue(steady.getPhi(steadyTimestamp + 2000) > jittery.getPhi(jitteryTimestamp + 2000));
+  }
+
+  /**
+   * Old and duplicate heartbeats don't change anything.
+   */
+  @Test
+  public void testOldHeartbeatIgnored() {
+    PhiAccrualFailureDetector detector = new PhiAccrualFailureDetector(1000, 0);
+    detector.heartbeat(1000);
+    double mean = detector.getMeanInterval();
+
+    detector.heartbeat(1000);
+    detector.heartbeat(500);
+
+    assertEquals(1000, detector.getLastHeartbeatTimestamp());
+    assertEquals(mean, detector.getMeanInterval(), 0.0);
+  }
+
+  /**
+   * The time given for reaching a suspicion level is when it is reached.
+   */
+  @Test
+  public void testTimeOfPhi() {
+    PhiAccrualFailureDetector detector = new PhiAccrualFailureDetector(1000, 0);
+    detector.heartbeat(1000);
+    detector.heartbeat(2000);
+
+    for (double threshold = 1.0; threshold < 20.0; threshold += 1.0) {
+      long time = detector.getTimeOfPhi(threshold);
+      assertTrue(detector.getPhi(time) >= threshold);
+      assertTrue(detector.getPhi(time - 1) < threshold);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.master.server.services.internal.ros;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+
+import interactivespaces_msgs.ControllerFullStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for the controller status snapshot bookkeeping in {@link RosRemoteSpaceControllerClient}.
+ *
+ * @author agent
+ */
+public class RosRemoteSpaceControllerClientTest {
+
+  private static final String CONTROLLER_UUID = "controller";
+
+  private RosRemoteSpaceControllerClient client;
+
+  @Before
+  public void setup() {
+    client = new RosRemoteSpaceControllerClient();
+  }
+
+  /**
+   * Nothing is acknowledged for a controller which has never sent a full status.
+   */
+  @Test
+  public void testNoSnapshot() {
+    assertEquals(0, client.getControllerStatusSnapshotId(CONTROLLER_UUID));
+  }
+
+  /**
+   * A complete full status and then a delta against it are both recorded.
+   */
+  @Test
+  public void testSnapshotsRecorded() {
+    client.recordControllerStatusSnapshot(CONTROLLER_UUID, newFullStatus(5, 0));
+    assertEquals(5, client.getControllerStatusSnapshotId(CONTROLLER_UUID));
+
+    client.recordControllerStatusSnapshot(CONTROLLER_UUID, newFullStatus(6, 5));
+    assertEquals(6, client.getControllerStatusSnapshotId(CONTROLLER_UUID));
+  }
+
+  /**
+   * A delta against a snapshot other than the one recorded leaves 0, so the next request asks for everything. A
+   * complete full status then starts things over.
+   */
+  @Test
+  public void testMismatchedBase() {
+    client.recordControllerStatusSnapshot(CONTROLLER_UUID, newFullStatus(5, 0));
+    client.recordControllerStatusSnapshot(CONTROLLER_UUID, newFullStatus(7, 3));
+    assertEquals(0, client.getControllerStatusSnapshotId(CONTROLLER_UUID));
+
+    client.recordControllerStatusSnapshot(CONTROLLER_UUID, newFullStatus(8, 0));
+    assertEquals(8, client.getControllerStatusSnapshotId(CONTROLLER_UUID));
+  }
+
+  /**
+   * A delta from a controller with nothing recorded leaves 0.
+   */
+  @Test
+  public void testDeltaWithoutSnapshot() {
+    client.recordControllerStatusSnapshot(CONTROLLER_UUID, newFullStatus(7, 6));
+    assertEquals(0, client.getControllerStatusSnapshotId(CONTROLLER_UUID));
+  }
+
+  /**
+   * Create a full status.
+   *
+   * @param snapshotId
+   *          ID of the snapshot the full status gives
+   * @param baseSnapshotId
+   *          ID of the snapshot the full status has changes from, {@code 0} if it is complete
+   *
+   * @return the full status
+   */
+  private ControllerFullStatus newFullStatus(long snapshotId, long baseSnapshotId) {
+    ControllerFullStatus fullStatus = Mockito.mock(ControllerFullStatus.class);
+    when(fullStatus.getSnapshotId()).thenReturn(snapshotId);
+    when(fullStatus.getBaseSnapshotId()).thenReturn(baseSnapshotId);
+
+    return fullStatus;
+  }
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.master.server.services.internal.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import interactivespaces.domain.basic.Activity;
+import interactivespaces.domain.basic.ActivityConfiguration;
+import interactivespaces.domain.basic.ActivityDependency;
+import interactivespaces.domain.basic.ConfigurationParameter;
+import interactivespaces.domain.basic.GroupLiveActivity.GroupLiveActivityDependency;
+import interactivespaces.domain.basic.LiveActivity;
+import interactivespaces.domain.basic.LiveActivityGroup;
+import interactivespaces.domain.basic.SpaceController;
+import interactivespaces.domain.basic.SpaceControllerConfiguration;
+import interactivespaces.domain.basic.SpaceControllerMode;
+import interactivespaces.domain.basic.pojo.SimpleActivity;
+import interactivespaces.domain.basic.pojo.SimpleActivityConfiguration;
+import interactivespaces.domain.basic.pojo.SimpleActivityDependency;
+import interactivespaces.domain.basic.pojo.SimpleConfigurationParameter;
+import interactivespaces.domain.basic.pojo.SimpleLiveActivity;
+import interactivespaces.domain.basic.pojo.SimpleLiveActivityGroup;
+import interactivespaces.domain.basic.pojo.SimpleSpaceController;
+import interactivespaces.domain.basic.pojo.SimpleSpaceControllerConfiguration;
+import interactivespaces.domain.space.Space;
+import interactivespaces.domain.space.pojo.SimpleSpace;
+import interactivespaces.domain.system.NamedScript;
+import interactivespaces.domain.system.pojo.SimpleNamedScript;
+import interactivespaces.master.server.services.ActivityRepository;
+import interactivespaces.master.server.services.AutomationRepository;
+import interactivespaces.master.server.services.SpaceControllerRepository;
+import interactivespaces.time.TimeProvider;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Tests for the {@link StreamingMasterDomainDescriptionCreator} and the
+ * {@link StreamingMasterDomainDescriptionImporter}.
+ *
+ * @author agent
+ */
+public class StreamingMasterDomainDescriptionTest {
+
+  private static final String DESCRIPTION_CDATA_END = "Contains ]]> which ends a CDATA section";
+
+  private ActivityRepository activityRepository;
+  private SpaceControllerRepository controllerRepository;
+  private AutomationRepository automationRepository;
+  private TimeProvider timeProvider;
+  private PlatformTransactionManager transactionManager;
+
+  private SpaceController controller;
+  private Activity activity;
+  private LiveActivity liveActivity;
+  private LiveActivityGroup group;
+  private Space subspace;
+  private Space space;
+  private NamedScript script;
+
+  @Before
+  public void setup() {
+    activityRepository = Mockito.mock(ActivityRepository.class);
+    controllerRepository = Mockito.mock(SpaceControllerRepository.class);
+    automationRepository = Mockito.mock(AutomationRepository.class);
+    timeProvider = Mockito.mock(TimeProvider.class);
+    transactionManager = Mockito.mock(PlatformTransactionManager.class);
+
+    Mockito.when(transactionManager.getTransaction(Mockito.any(TransactionDefinition.class))).thenReturn(
+        Mockito.mock(TransactionStatus.class));
+
+    Mockito.when(controllerRepository.newSpaceController()).thenAnswer(new Answer<SpaceController>() {
+      @Override
+      public SpaceController answer(InvocationOnMock invocation) {
+        return new SimpleSpaceController();
+      }
+    });
+    Mockito.when(controllerRepository.newSpaceControllerConfiguration()).thenAnswer(
+        new Answer<SpaceControllerConfiguration>() {
+          @Override
+          public SpaceControllerConfiguration answer(InvocationOnMock invocation) {
+            return new SimpleSpaceControllerConfiguration();
+          }
+        });
+    Mockito.when(controllerRepository.newSpaceControllerConfigurationParameter()).thenAnswer(
+        new Answer<ConfigurationParameter>() {
+          @Override
+          public ConfigurationParameter answer(InvocationOnMock invocation) {
+            return new SimpleConfigurationParameter();
+          }
+        });
+    Mockito.when(activityRepository.newActivity()).thenAnswer(new Answer<Activity>() {
+      @Override
+      public Activity answer(InvocationOnMock invocation) {
+        return new SimpleActivity();
+      }
+    });
+    Mockito.when(activityRepository.newActivityDependency()).thenAnswer(new Answer<ActivityDependency>() {
+      @Override
+      public ActivityDependency answer(InvocationOnMock invocation) {
+        return new SimpleActivityDependency();
+      }
+    });
+    Mockito.when(activityRepository.newLiveActivity()).thenAnswer(new Answer<LiveActivity>() {
+      @Override
+      public LiveActivity answer(InvocationOnMock invocation) {
+        return new SimpleLiveActivity();
+      }
+    });
+    Mockito.when(activityRepository.newActivityConfiguration()).thenAnswer(new Answer<ActivityConfiguration>() {
+      @Override
+      public ActivityConfiguration answer(InvocationOnMock invocation) {
+        return new SimpleActivityConfiguration();
+      }
+    });
+    Mockito.when(activityRepository.newActivityConfigurationParameter()).thenAnswer(
+        new Answer<ConfigurationParameter>() {
+          @Override
+          public ConfigurationParameter answer(InvocationOnMock invocation) {
+            return new SimpleConfigurationParameter();
+          }
+        });
+    Mockito.when(activityRepository.newLiveActivityGroup()).thenAnswer(new Answer<LiveActivityGroup>() {
+      @Override
+      public LiveActivityGroup answer(InvocationOnMock invocation) {
+        return new SimpleLiveActivityGroup();
+      }
+    });
+    Mockito.when(activityRepository.newSpace()).thenAnswer(new Answer<Space>() {
+      @Override
+      public Space answer(InvocationOnMock invocation) {
+        return new SimpleSpace();
+      }
+    });
+    Mockito.when(automationRepository.newNamedScript()).thenAnswer(new Answer<NamedScript>() {
+      @Override
+      public NamedScript answer(InvocationOnMock invocation) {
+        return new SimpleNamedScript();
+      }
+    });
+
+    createDomain();
+  }
+
+  /**
+   * An exported domain imports back into the same entities, committed in
+   * batches.
+   */
+  @Test
+  public void testRoundTrip() {
+    StringWriter out = new StringWriter();
+    new StreamingMasterDomainDescriptionCreator().writeDescription(out, activityRepository, controllerRepository,
+        automationRepository);
+    String description = out.toString();
+
+    assertTrue(description.startsWith("<?xml"));
+
+    StreamingMasterDomainDescriptionImporter importer =
+        new StreamingMasterDomainDescriptionImporter(transactionManager, 2);
+    int numberEntities =
+        importer.importDescription(new StringReader(description), activityRepository, controllerRepository,
+            automationRepository, timeProvider);
+
+    assertEquals(7, numberEntities);
+    Mockito.verify(transactionManager, Mockito.times(4)).commit(Mockito.any(TransactionStatus.class));
+    Mockito.verify(transactionManager, Mockito.never()).rollback(Mockito.any(TransactionStatus.class));
+
+    ArgumentCaptor<SpaceController> controllerCaptor = ArgumentCaptor.forClass(SpaceController.class);
+    Mockito.verify(controllerRepository).saveSpaceController(controllerCaptor.capture());
+    SpaceController importedController = controllerCaptor.getValue();
+    assertEquals(controller.getUuid(), importedController.getUuid());
+    assertEquals(controller.getHostId(), importedController.getHostId());
+    assertEquals(DESCRIPTION_CDATA_END, importedController.getDescription());
+    assertEquals(SpaceControllerMode.DISABLED, importedController.getMode());
+    assertEquals("bar", importedController.getMetadata().get("foo"));
+    assertEquals("1 < 2", importedController.getConfiguration().getParameterMap().get("a.b").getValue());
+
+    ArgumentCaptor<Activity> activityCaptor = ArgumentCaptor.forClass(Activity.class);
+    Mockito.verify(activityRepository).saveActivity(activityCaptor.capture());
+    Activity importedActivity = activityCaptor.getValue();
+    assertEquals(activity.getIdentifyingName(), importedActivity.getIdentifyingName());
+    assertEquals(activity.getVersion(), importedActivity.getVersion());
+    assertEquals(activity.getLastUploadDate(), importedActivity.getLastUploadDate());
+    assertEquals("other.activity", importedActivity.getDependencies().get(0).getIdentifyingName());
+    assertTrue(importedActivity.getDependencies().get(0).isRequired());
+
+    ArgumentCaptor<LiveActivity> liveActivityCaptor = ArgumentCaptor.forClass(LiveActivity.class);
+    Mockito.verify(activityRepository).saveLiveActivity(liveActivityCaptor.capture());
+    LiveActivity importedLiveActivity = liveActivityCaptor.getValue();
+    assertEquals(liveActivity.getUuid(), importedLiveActivity.getUuid());
+    assertSame(importedController, importedLiveActivity.getController());
+    assertSame(importedActivity, importedLiveActivity.getActivity());
+    assertEquals("value", importedLiveActivity.getConfiguration().getParameterMap().get("param").getValue());
+    assertEquals(liveActivity.getLastDeployDate(), importedLiveActivity.getLastDeployDate());
+
+    ArgumentCaptor<LiveActivityGroup> groupCaptor = ArgumentCaptor.forClass(LiveActivityGroup.class);
+    Mockito.verify(activityRepository).saveLiveActivityGroup(groupCaptor.capture());
+    LiveActivityGroup importedGroup = groupCaptor.getValue();
+    assertEquals(group.getName(), importedGroup.getName());
+    assertSame(importedLiveActivity, importedGroup.getLiveActivities().get(0).getActivity());
+    assertEquals(GroupLiveActivityDependency.OPTIONAL, importedGroup.getLiveActivities().get(0).getDependency());
+
+    ArgumentCaptor<Space> spaceCaptor = ArgumentCaptor.forClass(Space.class);
+    Mockito.verify(activityRepository, Mockito.times(2)).saveSpace(spaceCaptor.capture());
+    List<Space> importedSpaces = spaceCaptor.getAllValues();
+    assertEquals(subspace.getName(), importedSpaces.get(0).getName());
+    assertEquals(space.getName(), importedSpaces.get(1).getName());
+    assertSame(importedSpaces.get(0), importedSpaces.get(1).getSpaces().get(0));
+    assertSame(importedGroup, importedSpaces.get(1).getActivityGroups().get(0));
+
+    ArgumentCaptor<NamedScript> scriptCaptor = ArgumentCaptor.forClass(NamedScript.class);
+    Mockito.verify(automationRepository).saveNamedScript(scriptCaptor.capture());
+    NamedScript importedScript = scriptCaptor.getValue();
+    assertEquals(script.getContent(), importedScript.getContent());
+    assertEquals(script.getSchedule(), importedScript.getSchedule());
+    assertTrue(importedScript.getScheduled());
+  }
+
+  /**
+   * A failure while saving rolls back the batch it happened in.
+   */
+  @Test
+  public void testFailureRollsBackBatch() {
+    StringWriter out = new StringWriter();
+    new StreamingMasterDomainDescriptionCreator().writeDescription(out, activityRepository, controllerRepository,
+        automationRepository);
+
+    RuntimeException failure = new RuntimeException("Database is full");
+    Mockito.doThrow(failure).when(activityRepository).saveLiveActivity(Mockito.any(LiveActivity.class));
+
+    StreamingMasterDomainDescriptionImporter importer =
+        new StreamingMasterDomainDescriptionImporter(transactionManager, 2);
+    try {
+      importer.importDescription(new StringReader(out.toString()), activityRepository, controllerRepository,
+          automationRepository, timeProvider);
+      throw new AssertionError("Import should have failed");
+    } catch (RuntimeException e) {
+      assertSame(failure, e);
+    }
+
+    // The controller and activity were committed as the first batch.
+    Mockito.verify(transactionManager, Mockito.times(1)).commit(Mockito.any(TransactionStatus.class));
+    Mockito.verify(transactionManager, Mockito.times(1)).rollback(Mockito.any(TransactionStatus.class));
+  }
+
+  /**
+   * Create the domain which is exported.
+   */
+  private void createDomain() {
+    controller = new SimpleSpaceController();
+    controller.setUuid("controller-uuid");
+    controller.setName("Controller");
+    controller.setDescription(DESCRIPTION_CDATA_END);
+    controller.setHostId("host");
+    controller.setMode(SpaceControllerMode.DISABLED);
+    controller.getMetadata().put("foo", "bar");
+    SpaceControllerConfiguration controllerConfiguration = new SimpleSpaceControllerConfiguration();
+    controllerConfiguration.addParameter(newParameter("a.b", "1 < 2"));
+    controller.setConfiguration(controllerConfiguration);
+
+    activity = new SimpleActivity();
+    activity.setIdentifyingName("a.b.c");
+    activity.setVersion("1.0.0");
+    activity.setName("Activity");
+    activity.setDescription("An activity");
+    activity.setLastUploadDate(new Date(1000));
+    ActivityDependency dependency = new SimpleActivityDependency();
+    dependency.setIdentifyingName("other.activity");
+    dependency.setMinimumVersion("1.0.0");
+    dependency.setMaximumVersion("2.0.0");
+    dependency.setRequired(true);
+    List<ActivityDependency> dependencies = Lists.newArrayList(dependency);
+    activity.setDependencies(dependencies);
+
+    liveActivity = new SimpleLiveActivity();
+    liveActivity.setUuid("live-activity-uuid");
+    liveActivity.setName("Live Activity");
+    liveActivity.setDescription("A live activity");
+    liveActivity.setController(controller);
+    liveActivity.setActivity(activity);
+    liveActivity.setLastDeployDate(new Date(2000));
+    ActivityConfiguration activityConfiguration = new SimpleActivityConfiguration();
+    activityConfiguration.addParameter(newParameter("param", "value"));
+    liveActivity.setConfiguration(activityConfiguration);
+
+    group = new SimpleLiveActivityGroup();
+    group.setName("Group");
+    group.setDescription("A group");
+    group.addLiveActivity(liveActivity, GroupLiveActivityDependency.OPTIONAL);
+
+    subspace = new SimpleSpace();
+    subspace.setName("Subspace");
+    subspace.setDescription("A subspace");
+
+    space = new SimpleSpace();
+    space.setName("Space");
+    space.setDescription("A space");
+    space.addSpace(subspace);
+    space.addActivityGroup(group);
+
+    script = new SimpleNamedScript();
+    script.setName("Script");
+    script.setDescription("A script");
+    script.setLanguage("javascript");
+    script.setContent("if (a < b && c) { print(']]>'); }");
+    script.setSchedule("0 0 * * * ?");
+    script.setScheduled(true);
+
+    Mockito.when(controllerRepository.getAllSpaceControllers()).thenReturn(Lists.newArrayList(controller));
+    Mockito.when(activityRepository.getAllActivities()).thenReturn(Lists.newArrayList(activity));
+    Mockito.when(activityRepository.getAllLiveActivities()).thenReturn(Lists.newArrayList(liveActivity));
+    Mockito.when(activityRepository.getAllLiveActivityGroups()).thenReturn(Lists.newArrayList(group));
+    Mockito.when(activityRepository.getAllSpaces()).thenReturn(Lists.newArrayList(space));
+    Mockito.when(automationRepository.getAllNamedScripts()).thenReturn(Lists.newArrayList(script));
+  }
+
+  /**
+   * Create a configuration parameter.
+   *
+   * @param name
+   *          name of the parameter
+   * @param value
+   *          value of the parameter
+   *
+   * @return the parameter
+   */
+  private ConfigurationParameter newParameter(String name, String value) {
+    ConfigurationParameter parameter = new SimpleConfigurationParameter();
+    parameter.setName(name);
+    parameter.setValue(value);
+
+    return parameter;
+  }
+}
@@ -35,8 +35,10 @@ import interactivespaces.system.internal.osgi.OsgiInteractiveSpacesSystemControl
 import interactivespaces.system.internal.osgi.RosOsgiInteractiveSpacesEnvironment;
 import interactivespaces.system.resources.ContainerResourceManager;
 import interactivespaces.time.LocalTimeProvider;
+import interactivespaces.time.MasterTimeProvider;
 import interactivespaces.time.NtpTimeProvider;
 import interactivespaces.time.TimeProvider;
+import interactivespaces.time.TimeSyncServer;
 import interactivespaces.util.resource.ManagedResource;
 import interactivespaces.util.resource.ManagedResources;
 
@@ -176,6 +178,11 @@ public class GeneralInteractiveSpacesSupportActivator implements BundleActivator
    */
   private static final long NTP_UPDATE_PERIOD_SECONDS = 10L;
 
+  /**
+   * Update period for synchronizing with the master's time server.
+   */
+  private static final long MASTER_TIME_UPDATE_PERIOD_SECONDS = 10L;
+
   @Override
   public void start(BundleContext context) throws Exception {
     bundleContext = context;
@@ -348,6 +355,26 @@ public class GeneralInteractiveSpacesSupportActivator implements BundleActivator
         log.warn(String.format("Could not find host for NTP time provider. No value for configuration %s",
             InteractiveSpacesEnvironment.CONFIGURATION_PROVIDER_TIME_NTP_URL));
 
+        return new LocalTimeProvider();
+      }
+    } else if (InteractiveSpacesEnvironment.CONFIGURATION_VALUE_PROVIDER_TIME_MASTER.equals(provider)) {
+      String host = containerProperties.get(InteractiveSpacesEnvironment.CONFIGURATION_PROVIDER_TIME_MASTER_HOST);
+      if (host == null) {
+        String masterUri = containerProperties.get(RosEnvironment.CONFIGURATION_ROS_MASTER_URI);
+        if (masterUri != null) {
+          host = URI.create(masterUri).getHost();
+        }
+      }
+      if (host != null) {
+        String port = containerProperties.get(InteractiveSpacesEnvironment.CONFIGURATION_PROVIDER_TIME_MASTER_PORT);
+        InetAddress masterAddress = InetAddressFactory.newFromHostString(host);
+        return new MasterTimeProvider(masterAddress,
+            (port != null) ? Integer.parseInt(port) : TimeSyncServer.PORT_DEFAULT,
+            MASTER_TIME_UPDATE_PERIOD_SECONDS, TimeUnit.SECONDS, executorService, log);
+      } else {
+        log.warn(String.format("Could not find host for master time provider. No value for configuration %s",
+            InteractiveSpacesEnvironment.CONFIGURATION_PROVIDER_TIME_MASTER_HOST));
+
         return new LocalTimeProvider();
       }
     } else {
@@ -20,7 +20,9 @@ import com.google.common.annotations.VisibleForTesting;
 
 import org.ros.address.AdvertiseAddress;
 import org.ros.address.BindAddress;
+import org.ros.internal.node.server.XmlRpcServer;
 import org.ros.internal.node.server.master.MasterServer;
+import org.ros.internal.xmlrpc.webserver.XmlRpcWebServerType;
 
 import java.net.URI;
 import java.util.concurrent.ScheduledExecutorService;
@@ -42,28 +44,39 @@ public class RosCore {
   private final MasterServer masterServer;
 
   public static RosCore newPublic(String host, int port, ScheduledExecutorService executorService) {
-    return new RosCore(BindAddress.newPublic(port), new AdvertiseAddress(host), executorService);
+    return new RosCore(BindAddress.newPublic(port), new AdvertiseAddress(host), executorService,
+        XmlRpcServer.WEB_SERVER_TYPE_DEFAULT);
+  }
+
+  public static RosCore newPublic(String host, int port, ScheduledExecutorService executorService,
+      XmlRpcWebServerType webServerType) {
+    return new RosCore(BindAddress.newPublic(port), new AdvertiseAddress(host), executorService,
+        webServerType);
   }
 
   public static RosCore newPublic(int port, ScheduledExecutorService executorService) {
-    return new RosCore(BindAddress.newPublic(port), AdvertiseAddress.newPublic(), executorService);
+    return new RosCore(BindAddress.newPublic(port), AdvertiseAddress.newPublic(), executorService,
+        XmlRpcServer.WEB_SERVER_TYPE_DEFAULT);
   }
 
   public static RosCore newPublic(ScheduledExecutorService executorService) {
-    return new RosCore(BindAddress.newPublic(), AdvertiseAddress.newPublic(), executorService);
+    return new RosCore(BindAddress.newPublic(), AdvertiseAddress.newPublic(), executorService,
+        XmlRpcServer.WEB_SERVER_TYPE_DEFAULT);
   }
 
   public static RosCore newPrivate(int port, ScheduledExecutorService executorService) {
-    return new RosCore(BindAddress.newPrivate(port), AdvertiseAddress.newPrivate(), executorService);
+    return new RosCore(BindAddress.newPrivate(port), AdvertiseAddress.newPrivate(), executorService,
+        XmlRpcServer.WEB_SERVER_TYPE_DEFAULT);
   }
 
   public static RosCore newPrivate(ScheduledExecutorService executorService) {
-    return new RosCore(BindAddress.newPrivate(), AdvertiseAddress.newPrivate(), executorService);
+    return new RosCore(BindAddress.newPrivate(), AdvertiseAddress.newPrivate(), executorService,
+        XmlRpcServer.WEB_SERVER_TYPE_DEFAULT);
   }
 
   private RosCore(BindAddress bindAddress, AdvertiseAddress advertiseAddress,
-      ScheduledExecutorService executorService) {
-    masterServer = new MasterServer(bindAddress, advertiseAddress, executorService);
+      ScheduledExecutorService executorService, XmlRpcWebServerType webServerType) {
+    masterServer = new MasterServer(bindAddress, advertiseAddress, executorService, webServerType);
   }
 
   public void start() {
@@ -29,6 +29,7 @@ import org.ros.internal.message.service.ServiceDescription;
 import org.ros.internal.message.topic.TopicDescription;
 import org.ros.internal.node.client.MasterClient;
 import org.ros.internal.node.client.Registrar;
+import org.ros.internal.node.client.SlaveClientPool;
 import org.ros.internal.node.parameter.DefaultParameterTree;
 import org.ros.internal.node.parameter.ParameterManager;
 import org.ros.internal.node.response.Response;
@@ -109,6 +110,7 @@ public class DefaultNode implements ConnectedNode {
   private final ParameterTree parameterTree;
   private final PublisherFactory publisherFactory;
   private final SubscriberFactory subscriberFactory;
+  private final SlaveClientPool slaveClientPool;
   private final ServiceFactory serviceFactory;
   private final Registrar registrar;
 
@@ -145,7 +147,7 @@ public class DefaultNode implements ConnectedNode {
         new SlaveServer(nodeName, nodeConfiguration.getTcpRosBindAddress(),
             nodeConfiguration.getTcpRosAdvertiseAddress(), nodeConfiguration.getXmlRpcBindAddress(),
             nodeConfiguration.getXmlRpcAdvertiseAddress(), masterClient, topicParticipantManager, serviceManager,
-            parameterManager, scheduledExecutorService);
+            parameterManager, scheduledExecutorService, nodeConfiguration.getXmlRpcWebServerType());
     slaveServer.start();
 
     NodeIdentifier nodeIdentifier = slaveServer.toNodeIdentifier();
@@ -157,7 +159,10 @@ public class DefaultNode implements ConnectedNode {
     publisherFactory =
         new PublisherFactory(nodeIdentifier, topicParticipantManager, nodeConfiguration.getTopicMessageFactory(),
             scheduledExecutorService);
-    subscriberFactory = new SubscriberFactory(nodeIdentifier, topicParticipantManager, scheduledExecutorService);
+    slaveClientPool = new SlaveClientPool(nodeName, scheduledExecutorService);
+    subscriberFactory =
+        new SubscriberFactory(nodeIdentifier, topicParticipantManager, scheduledExecutorService,
+            slaveClientPool);
     serviceFactory = new ServiceFactory(nodeName, slaveServer, serviceManager, scheduledExecutorService);
 
     registrar = new Registrar(masterClient, scheduledExecutorService);
@@ -415,6 +420,7 @@ public class DefaultNode implements ConnectedNode {
 
     parameterManager.shutdown();
     registrar.shutdown();
+    slaveClientPool.shutdown();
     slaveServer.shutdown();
     signalOnShutdownComplete();
     nodeListeners.shutdown();
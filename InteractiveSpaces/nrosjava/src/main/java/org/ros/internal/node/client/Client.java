@@ -16,6 +16,7 @@
 
 package org.ros.internal.node.client;
 
+import org.apache.commons.httpclient.HttpClient;
 import org.apache.xmlrpc.client.XmlRpcClient;
 import org.apache.xmlrpc.client.XmlRpcClientConfigImpl;
 import org.apache.xmlrpc.client.XmlRpcCommonsTransportFactory;
@@ -54,6 +55,19 @@ abstract class Client<T extends XmlRpcEndpoint> {
    *          the class literal for the XML-RPC interface
    */
   public Client(URI uri, Class<T> interfaceClass) {
+    this(uri, interfaceClass, null);
+  }
+
+  /**
+   * @param uri
+   *          the {@link URI} to connect to
+   * @param interfaceClass
+   *          the class literal for the XML-RPC interface
+   * @param httpClient
+   *          the {@link HttpClient} all requests should go through, can be
+   *          {@code null} if a new connection should be made for every request
+   */
+  public Client(URI uri, Class<T> interfaceClass, HttpClient httpClient) {
     this.uri = uri;
     XmlRpcClientConfigImpl config = new XmlRpcClientConfigImpl();
     try {
@@ -65,7 +79,11 @@ abstract class Client<T extends XmlRpcEndpoint> {
     config.setReplyTimeout(REPLY_TIMEOUT);
 
     XmlRpcClient client = new XmlRpcClient();
-    client.setTransportFactory(new XmlRpcCommonsTransportFactory(client));
+    XmlRpcCommonsTransportFactory transportFactory = new XmlRpcCommonsTransportFactory(client);
+    if (httpClient != null) {
+      transportFactory.setHttpClient(httpClient);
+    }
+    client.setTransportFactory(transportFactory);
     client.setConfig(config);
 
     XmlRpcClientFactory<T> factory = new XmlRpcClientFactory<T>(client);
@@ -18,6 +18,7 @@ package org.ros.internal.node.client;
 
 import com.google.common.collect.Lists;
 
+import org.apache.commons.httpclient.HttpClient;
 import org.ros.internal.node.response.IntegerResultFactory;
 import org.ros.internal.node.response.ProtocolDescriptionResultFactory;
 import org.ros.internal.node.response.Response;
@@ -46,6 +47,19 @@ public class SlaveClient extends Client<SlaveXmlRpcEndpoint> {
     this.nodeName = nodeName;
   }
 
+  /**
+   * @param nodeName
+   *          the name of the node making the calls
+   * @param uri
+   *          the {@link URI} of the remote slave
+   * @param httpClient
+   *          the {@link HttpClient} to share connections through
+   */
+  public SlaveClient(GraphName nodeName, URI uri, HttpClient httpClient) {
+    super(uri, SlaveXmlRpcEndpoint.class, httpClient);
+    this.nodeName = nodeName;
+  }
+
   public List<Object> getBusStats() {
     throw new UnsupportedOperationException();
   }
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.ros.internal.node.client;
+
+import org.ros.exception.RemoteException;
+
+/**
+ * A call against a remote slave which is run by a {@link SlaveClientPool}.
+ *
+ * <p>
+ * A call which fails with an exception other than a {@link RemoteException}
+ * is considered to have failed in transport and will be retried. An
+ * {@link Error} is never retried.
+ *
+ * @author agent
+ */
+public interface SlaveClientCall {
+
+  /**
+   * Perform the call.
+   *
+   * @param client
+   *          the client to make the call with
+   *
+   * @throws RemoteException
+   *           the remote slave rejected the call, the call will not be retried
+   */
+  void call(SlaveClient client) throws RemoteException;
+}
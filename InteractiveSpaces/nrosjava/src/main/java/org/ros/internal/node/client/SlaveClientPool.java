@@ -0,0 +1,507 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.ros.internal.node.client;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+import org.apache.commons.logging.Log;
+import org.ros.exception.RemoteException;
+import org.ros.internal.node.server.SlaveServer;
+import org.ros.log.RosLogFactory;
+import org.ros.namespace.GraphName;
+
+import java.net.URI;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pool of {@link SlaveClient}s, one per remote {@link SlaveServer} URI, which
+ * all share a set of persistent HTTP connections.
+ *
+ * <p>
+ * Calls made through {@link #submit(URI, SlaveClientCall)} are run
+ * asynchronously with a bound on how many can be in flight at once, and are
+ * retried with an exponential backoff if the transport fails.
+ *
+ * <p>
+ * Calls against the same slave are run one at a time in the order they were
+ * submitted, including while a call is waiting for a retry, so an older update
+ * can never overwrite a newer one.
+ *
+ * @author agent
+ */
+public class SlaveClientPool {
+
+  /**
+   * The default maximum number of persistent connections to a single slave.
+   */
+  public static final int MAX_CONNECTIONS_PER_HOST_DEFAULT = 2;
+
+  /**
+   * The default maximum number of persistent connections across all slaves.
+   */
+  public static final int MAX_TOTAL_CONNECTIONS_DEFAULT = 64;
+
+  /**
+   * The default maximum number of calls which can be in flight at the same
+   * time.
+   */
+  public static final int MAX_CONCURRENT_CALLS_DEFAULT = 16;
+
+  /**
+   * The default number of times a call will be attempted before giving up.
+   */
+  public static final int MAX_ATTEMPTS_DEFAULT = 5;
+
+  /**
+   * The default delay before the first retry, in milliseconds.
+   */
+  public static final long RETRY_DELAY_INITIAL_DEFAULT = 250;
+
+  /**
+   * The default maximum delay between retries, in milliseconds.
+   */
+  public static final long RETRY_DELAY_MAX_DEFAULT = 8000;
+
+  private static final Log log = RosLogFactory.getLog(SlaveClientPool.class);
+
+  /**
+   * The name of the node the calls are made on behalf of.
+   */
+  private final GraphName nodeName;
+
+  /**
+   * The executor service for running calls and scheduling retries.
+   */
+  private final ScheduledExecutorService executorService;
+
+  /**
+   * The connection manager holding all persistent connections.
+   */
+  private final MultiThreadedHttpConnectionManager connectionManager;
+
+  /**
+   * The HTTP client shared by all slave clients.
+   */
+  private final HttpClient httpClient;
+
+  /**
+   * The slave clients, keyed by the URI of the remote slave.
+   */
+  private final ConcurrentMap<URI, SlaveClient> clients = Maps.newConcurrentMap();
+
+  /**
+   * Calls which have not finished yet, in submission order, keyed by the URI
+   * of the remote slave. The head of each queue is the call being run or
+   * retried for that slave.
+   */
+  private final Map<URI, Queue<PooledCall>> slaveCalls = Maps.newHashMap();
+
+  /**
+   * Slaves whose head call is waiting for a free slot.
+   */
+  private final Queue<URI> readySlaves = new LinkedList<URI>();
+
+  /**
+   * Number of calls which have not finished yet.
+   */
+  private int numberOutstandingCalls;
+
+  /**
+   * Number of calls currently running.
+   */
+  private int numberActiveCalls;
+
+  /**
+   * The maximum number of calls which can be running at the same time.
+   */
+  private final int maxConcurrentCalls;
+
+  /**
+   * The maximum number of attempts for a call.
+   */
+  private final int maxAttempts;
+
+  /**
+   * The delay before the first retry, in milliseconds.
+   */
+  private final long retryDelayInitial;
+
+  /**
+   * The maximum delay between retries, in milliseconds.
+   */
+  private final long retryDelayMax;
+
+  /**
+   * Mutex for the call queues and call counts.
+   */
+  private final Object mutex = new Object();
+
+  /**
+   * {@code true} if the pool is accepting calls.
+   */
+  private volatile boolean running = true;
+
+  /**
+   * Construct a pool with the default limits.
+   *
+   * @param nodeName
+   *          the name of the node the calls are made on behalf of
+   * @param executorService
+   *          the executor service for running calls
+   */
+  public SlaveClientPool(GraphName nodeName, ScheduledExecutorService executorService) {
+    this(nodeName, executorService, MAX_CONCURRENT_CALLS_DEFAULT, MAX_ATTEMPTS_DEFAULT,
+        RETRY_DELAY_INITIAL_DEFAULT, RETRY_DELAY_MAX_DEFAULT);
+  }
+
+  /**
+   * Construct a pool.
+   *
+   * @param nodeName
+   *          the name of the node the calls are made on behalf of
+   * @param executorService
+   *          the executor service for running calls
+   * @param maxConcurrentCalls
+   *          the maximum number of calls which can be running at the same time
+   * @param maxAttempts
+   *          the maximum number of attempts for a call
+   * @param retryDelayInitial
+   *          the delay before the first retry, in milliseconds
+   * @param retryDelayMax
+   *          the maximum delay between retries, in milliseconds
+   */
+  public SlaveClientPool(GraphName nodeName, ScheduledExecutorService executorService,
+      int maxConcurrentCalls, int maxAttempts, long retryDelayInitial, long retryDelayMax) {
+    this.nodeName = nodeName;
+    this.executorService = executorService;
+    this.maxConcurrentCalls = maxConcurrentCalls;
+    this.maxAttempts = maxAttempts;
+    this.retryDelayInitial = retryDelayInitial;
+    this.retryDelayMax = retryDelayMax;
+
+    connectionManager = new MultiThreadedHttpConnectionManager();
+    HttpConnectionManagerParams params = connectionManager.getParams();
+    params.setDefaultMaxConnectionsPerHost(MAX_CONNECTIONS_PER_HOST_DEFAULT);
+    params.setMaxTotalConnections(MAX_TOTAL_CONNECTIONS_DEFAULT);
+    params.setStaleCheckingEnabled(true);
+    params.setTcpNoDelay(true);
+    httpClient = new HttpClient(connectionManager);
+  }
+
+  /**
+   * Get the client for a remote slave, creating it if it doesn't exist yet.
+   *
+   * @param uri
+   *          the URI of the remote slave
+   *
+   * @return the client for the slave
+   */
+  public SlaveClient getClient(URI uri) {
+    SlaveClient client = clients.get(uri);
+    if (client == null) {
+      client = new SlaveClient(nodeName, uri, httpClient);
+      SlaveClient existing = clients.putIfAbsent(uri, client);
+      if (existing != null) {
+        client = existing;
+      }
+    }
+
+    return client;
+  }
+
+  /**
+   * Remove the client for a remote slave from the pool.
+   *
+   * @param uri
+   *          the URI of the remote slave
+   */
+  public void removeClient(URI uri) {
+    clients.remove(uri);
+  }
+
+  /**
+   * Submit a call against a remote slave. The call will be run asynchronously.
+   *
+   * @param uri
+   *          the URI of the remote slave
+   * @param call
+   *          the call to make
+   *
+   * @throws RejectedExecutionException
+   *           the pool has been shut down
+   */
+  public void submit(URI uri, SlaveClientCall call) {
+    if (!running) {
+      throw new RejectedExecutionException("Slave client pool has been shut down");
+    }
+
+    enqueue(new PooledCall(uri, call));
+  }
+
+  /**
+   * Shut the pool down. Pending calls will be dropped and all persistent
+   * connections closed.
+   */
+  public void shutdown() {
+    running = false;
+    synchronized (mutex) {
+      slaveCalls.clear();
+      readySlaves.clear();
+      numberOutstandingCalls = 0;
+    }
+    clients.clear();
+    connectionManager.shutdown();
+  }
+
+  /**
+   * Get the number of calls which are either waiting for a slot or are
+   * currently running.
+   *
+   * @return the number of outstanding calls
+   */
+  public int getNumberOutstandingCalls() {
+    synchronized (mutex) {
+      return numberOutstandingCalls;
+    }
+  }
+
+  /**
+   * Queue a call behind any earlier calls to the same slave and start as many
+   * waiting calls as the concurrency limit allows.
+   *
+   * @param call
+   *          the call to queue
+   */
+  private void enqueue(PooledCall call) {
+    List<PooledCall> toStart = Lists.newArrayList();
+    synchronized (mutex) {
+      Queue<PooledCall> calls = slaveCalls.get(call.uri);
+      if (calls == null) {
+        calls = new LinkedList<PooledCall>();
+        slaveCalls.put(call.uri, calls);
+        readySlaves.add(call.uri);
+      }
+      calls.add(call);
+      numberOutstandingCalls++;
+
+      collectStartableCalls(toStart);
+    }
+
+    start(toStart);
+  }
+
+  /**
+   * A call attempt has ended. Start any calls which were waiting for a slot.
+   *
+   * @param call
+   *          the call whose attempt ended
+   * @param finished
+   *          {@code true} if the call is done, {@code false} if it will be
+   *          retried and so still holds its slave
+   */
+  private void onAttemptComplete(PooledCall call, boolean finished) {
+    List<PooledCall> toStart = Lists.newArrayList();
+    synchronized (mutex) {
+      numberActiveCalls--;
+      if (finished) {
+        Queue<PooledCall> calls = slaveCalls.get(call.uri);
+        if (calls != null && calls.peek() == call) {
+          calls.poll();
+          numberOutstandingCalls--;
+          if (calls.isEmpty()) {
+            slaveCalls.remove(call.uri);
+          } else {
+            readySlaves.add(call.uri);
+          }
+        }
+      }
+      collectStartableCalls(toStart);
+    }
+
+    start(toStart);
+  }
+
+  /**
+   * A call waiting for a retry can be attempted again.
+   *
+   * @param call
+   *          the call to retry
+   */
+  private void onRetryDue(PooledCall call) {
+    List<PooledCall> toStart = Lists.newArrayList();
+    synchronized (mutex) {
+      Queue<PooledCall> calls = slaveCalls.get(call.uri);
+      if (calls != null && calls.peek() == call) {
+        readySlaves.add(call.uri);
+      }
+      collectStartableCalls(toStart);
+    }
+
+    start(toStart);
+  }
+
+  /**
+   * Start the head call of as many waiting slaves as allowed.
+   *
+   * <p>
+   * Must be called with {@link #mutex} held.
+   *
+   * @param toStart
+   *          the list to place the calls to start in
+   */
+  private void collectStartableCalls(List<PooledCall> toStart) {
+    while (running && numberActiveCalls < maxConcurrentCalls && !readySlaves.isEmpty()) {
+      toStart.add(slaveCalls.get(readySlaves.poll()).peek());
+      numberActiveCalls++;
+    }
+  }
+
+  /**
+   * Hand calls to the executor service.
+   *
+   * @param calls
+   *          the calls to start
+   */
+  private void start(List<PooledCall> calls) {
+    for (PooledCall call : calls) {
+      try {
+        executorService.execute(call);
+      } catch (RejectedExecutionException e) {
+        log.warn(String.format("Could not run call against slave %s", call.uri), e);
+        onAttemptComplete(call, true);
+      }
+    }
+  }
+
+  /**
+   * Get the delay before the next attempt of a call.
+   *
+   * @param attempt
+   *          the attempt which just failed, starting at 1
+   *
+   * @return the delay in milliseconds
+   */
+  private long getRetryDelay(int attempt) {
+    long delay = retryDelayInitial << Math.min(attempt - 1, 20);
+    return Math.min(delay, retryDelayMax);
+  }
+
+  /**
+   * A call against a remote slave being managed by the pool.
+   *
+   * @author agent
+   */
+  private class PooledCall implements Runnable {
+
+    /**
+     * The URI of the remote slave.
+     */
+    private final URI uri;
+
+    /**
+     * The call to make.
+     */
+    private final SlaveClientCall call;
+
+    /**
+     * The number of attempts made so far.
+     */
+    private int attempts;
+
+    /**
+     * Construct a new pooled call.
+     *
+     * @param uri
+     *          the URI of the remote slave
+     * @param call
+     *          the call to make
+     */
+    public PooledCall(URI uri, SlaveClientCall call) {
+      this.uri = uri;
+      this.call = call;
+    }
+
+    @Override
+    public void run() {
+      boolean finished = true;
+      try {
+        attempts++;
+        call.call(getClient(uri));
+      } catch (RemoteException e) {
+        log.error(String.format("Slave %s rejected call", uri), e);
+      } catch (Exception e) {
+        // Connection failures often leak through as
+        // UndeclaredThrowableExceptions from the XML-RPC proxy.
+        finished = !retry(e);
+      } finally {
+        onAttemptComplete(this, finished);
+      }
+    }
+
+    /**
+     * Schedule the call to be retried if it has attempts left.
+     *
+     * @param cause
+     *          the reason the last attempt failed
+     *
+     * @return {@code true} if a retry was scheduled
+     */
+    private boolean retry(Exception cause) {
+      if (!running) {
+        return false;
+      }
+
+      if (attempts >= maxAttempts) {
+        log.error(String.format("Call to slave %s failed after %d attempts", uri, attempts), cause);
+        removeClient(uri);
+        return false;
+      }
+
+      long delay = getRetryDelay(attempts);
+      if (log.isDebugEnabled()) {
+        log.debug(String.format("Call to slave %s failed, retrying in %d msec", uri, delay), cause);
+      }
+      try {
+        executorService.schedule(new Runnable() {
+          @Override
+          public void run() {
+            if (running) {
+              onRetryDue(PooledCall.this);
+            }
+          }
+        }, delay, TimeUnit.MILLISECONDS);
+
+        return true;
+      } catch (RejectedExecutionException e) {
+        log.warn(String.format("Could not schedule retry of call to slave %s", uri), e);
+
+        return false;
+      }
+    }
+  }
+}
@@ -35,6 +35,7 @@ import org.ros.internal.transport.ProtocolDescription;
 import org.ros.internal.transport.ProtocolNames;
 import org.ros.internal.transport.tcp.TcpRosProtocolDescription;
 import org.ros.internal.transport.tcp.TcpRosServer;
+import org.ros.internal.xmlrpc.webserver.XmlRpcWebServerType;
 import org.ros.namespace.GraphName;
 
 import java.net.URI;
@@ -58,7 +59,17 @@ public class SlaveServer extends XmlRpcServer {
       AdvertiseAddress xmlRpcAdvertiseAddress, MasterClient master,
       TopicParticipantManager topicParticipantManager, ServiceManager serviceManager,
       ParameterManager parameterManager, ScheduledExecutorService executorService) {
-    super(xmlRpcBindAddress, xmlRpcAdvertiseAddress, executorService);
+    this(nodeName, tcpRosBindAddress, tcpRosAdvertiseAddress, xmlRpcBindAddress, xmlRpcAdvertiseAddress, master,
+        topicParticipantManager, serviceManager, parameterManager, executorService, WEB_SERVER_TYPE_DEFAULT);
+  }
+
+  public SlaveServer(GraphName nodeName, BindAddress tcpRosBindAddress,
+      AdvertiseAddress tcpRosAdvertiseAddress, BindAddress xmlRpcBindAddress,
+      AdvertiseAddress xmlRpcAdvertiseAddress, MasterClient master,
+      TopicParticipantManager topicParticipantManager, ServiceManager serviceManager,
+      ParameterManager parameterManager, ScheduledExecutorService executorService,
+      XmlRpcWebServerType webServerType) {
+    super(xmlRpcBindAddress, xmlRpcAdvertiseAddress, executorService, webServerType);
     this.nodeName = nodeName;
     this.masterClient = master;
     this.topicParticipantManager = topicParticipantManager;
@@ -24,7 +24,8 @@ import org.ros.address.AdvertiseAddress;
 import org.ros.address.BindAddress;
 import org.ros.exception.RosRuntimeException;
 import org.ros.internal.system.Process;
-import org.ros.internal.xmlrpc.webserver.NettyXmlRpcWebServer;
+import org.ros.internal.xmlrpc.webserver.XmlRpcWebServer;
+import org.ros.internal.xmlrpc.webserver.XmlRpcWebServerType;
 import org.ros.log.RosLogFactory;
 
 import java.net.InetSocketAddress;
@@ -43,13 +44,33 @@ public class XmlRpcServer {
 
   private static final Log log = RosLogFactory.getLog(XmlRpcServer.class);
 
-  private final NettyXmlRpcWebServer server;
+  /**
+   * The type of web server used if none is specified.
+   */
+  public static final XmlRpcWebServerType WEB_SERVER_TYPE_DEFAULT = XmlRpcWebServerType.NETTY;
+
+  private final XmlRpcWebServer server;
   private final AdvertiseAddress advertiseAddress;
   private final CountDownLatch startLatch;
 
   public XmlRpcServer(BindAddress bindAddress, AdvertiseAddress advertiseAddress, ScheduledExecutorService threadPool) {
+    this(bindAddress, advertiseAddress, threadPool, WEB_SERVER_TYPE_DEFAULT);
+  }
+
+  /**
+   * @param bindAddress
+   *          the address to bind the server to
+   * @param advertiseAddress
+   *          the address the server is advertised at
+   * @param threadPool
+   *          the thread pool for the server
+   * @param webServerType
+   *          the type of web server which carries the XML-RPC requests
+   */
+  public XmlRpcServer(BindAddress bindAddress, AdvertiseAddress advertiseAddress, ScheduledExecutorService threadPool,
+      XmlRpcWebServerType webServerType) {
     InetSocketAddress address = bindAddress.toInetSocketAddress();
-    server = new NettyXmlRpcWebServer(address.getPort(), address.getAddress(), threadPool, log);
+    server = webServerType.newWebServer(address.getPort(), address.getAddress(), threadPool, log);
     this.advertiseAddress = advertiseAddress;
     this.advertiseAddress.setPortCallable(new Callable<Integer>() {
       @Override
@@ -22,12 +22,16 @@ import com.google.common.collect.Lists;
 import org.apache.commons.logging.Log;
 import org.ros.address.AdvertiseAddress;
 import org.ros.address.BindAddress;
+import org.ros.exception.RemoteException;
 import org.ros.internal.node.client.SlaveClient;
+import org.ros.internal.node.client.SlaveClientCall;
+import org.ros.internal.node.client.SlaveClientPool;
 import org.ros.internal.node.server.NodeIdentifier;
 import org.ros.internal.node.server.SlaveServer;
 import org.ros.internal.node.server.XmlRpcServer;
 import org.ros.internal.node.topic.TopicParticipant;
 import org.ros.internal.node.xmlrpc.MasterXmlRpcEndpointImpl;
+import org.ros.internal.xmlrpc.webserver.XmlRpcWebServerType;
 import org.ros.log.RosLogFactory;
 import org.ros.master.client.TopicSystemState;
 import org.ros.namespace.GraphName;
@@ -84,10 +88,21 @@ public class MasterServer extends XmlRpcServer implements MasterRegistrationList
    */
   private final MasterRegistrationManagerImpl masterRegistrationManager;
 
+  /**
+   * The pool of clients used to contact node slave servers.
+   */
+  private final SlaveClientPool slaveClientPool;
+
   public MasterServer(BindAddress bindAddress, AdvertiseAddress advertiseAddress,
       ScheduledExecutorService executorService) {
-    super(bindAddress, advertiseAddress, executorService);
+    this(bindAddress, advertiseAddress, executorService, WEB_SERVER_TYPE_DEFAULT);
+  }
+
+  public MasterServer(BindAddress bindAddress, AdvertiseAddress advertiseAddress,
+      ScheduledExecutorService executorService, XmlRpcWebServerType webServerType) {
+    super(bindAddress, advertiseAddress, executorService, webServerType);
     masterRegistrationManager = new MasterRegistrationManagerImpl(this);
+    slaveClientPool = new SlaveClientPool(MASTER_NODE_NAME, executorService);
   }
 
   /**
@@ -99,6 +114,13 @@ public class MasterServer extends XmlRpcServer implements MasterRegistrationList
     super.start(MasterXmlRpcEndpointImpl.class, new MasterXmlRpcEndpointImpl(this));
   }
 
+  @Override
+  public void shutdown() {
+    slaveClientPool.shutdown();
+
+    super.shutdown();
+  }
+
   /**
    * Register a service with the master.
    *
@@ -255,6 +277,10 @@ public class MasterServer extends XmlRpcServer implements MasterRegistrationList
   /**
    * Contact a subscriber and send it a publisher update.
    *
+   * <p>
+   * The update is sent asynchronously through the slave client pool so that a
+   * slow or dead subscriber does not hold up the rest of the fan-out.
+   *
    * @param subscriberSlaveUri
    *          the slave URI of the subscriber to contact
    * @param topicName
@@ -263,10 +289,14 @@ public class MasterServer extends XmlRpcServer implements MasterRegistrationList
    *          the new list of publisher URIs to be sent to the subscriber
    */
   @VisibleForTesting
-  protected void contactSubscriberForPublisherUpdate(URI subscriberSlaveUri, GraphName topicName,
-      List<URI> publisherUris) {
-    SlaveClient client = new SlaveClient(MASTER_NODE_NAME, subscriberSlaveUri);
-    client.publisherUpdate(topicName, publisherUris);
+  protected void contactSubscriberForPublisherUpdate(URI subscriberSlaveUri,
+      final GraphName topicName, final List<URI> publisherUris) {
+    slaveClientPool.submit(subscriberSlaveUri, new SlaveClientCall() {
+      @Override
+      public void call(SlaveClient client) throws RemoteException {
+        client.publisherUpdate(topicName, publisherUris);
+      }
+    });
   }
 
   /**
@@ -481,7 +511,11 @@ public class MasterServer extends XmlRpcServer implements MasterRegistrationList
           nodeInfo.getNodeName(), nodeInfo.getNodeSlaveUri()));
     }
 
-    SlaveClient client = new SlaveClient(MASTER_NODE_NAME, nodeInfo.getNodeSlaveUri());
-    client.shutdown("Replaced by new slave");
+    slaveClientPool.submit(nodeInfo.getNodeSlaveUri(), new SlaveClientCall() {
+      @Override
+      public void call(SlaveClient client) throws RemoteException {
+        client.shutdown("Replaced by new slave");
+      }
+    });
   }
 }
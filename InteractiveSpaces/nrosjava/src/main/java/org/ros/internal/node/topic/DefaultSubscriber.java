@@ -22,6 +22,7 @@ import com.google.common.collect.Sets;
 import org.apache.commons.logging.Log;
 import org.ros.concurrent.ListenerGroup;
 import org.ros.concurrent.SignalRunnable;
+import org.ros.internal.node.client.SlaveClientPool;
 import org.ros.internal.node.server.NodeIdentifier;
 import org.ros.internal.transport.ProtocolNames;
 import org.ros.internal.transport.queue.IncomingMessageQueue;
@@ -76,17 +77,25 @@ public class DefaultSubscriber<T> extends DefaultTopicParticipant implements Sub
    */
   private final ListenerGroup<SubscriberListener<T>> subscriberListeners;
 
+  /**
+   * The pool of clients used to contact the slaves of publishers.
+   */
+  private final SlaveClientPool slaveClientPool;
+
   public static <S> DefaultSubscriber<S> newDefault(NodeIdentifier nodeIdentifier,
       TopicDeclaration description, ScheduledExecutorService executorService,
-      MessageDeserializer<S> deserializer) {
-    return new DefaultSubscriber<S>(nodeIdentifier, description, deserializer, executorService);
+      SlaveClientPool slaveClientPool, MessageDeserializer<S> deserializer) {
+    return new DefaultSubscriber<S>(nodeIdentifier, description, deserializer, executorService,
+        slaveClientPool);
   }
 
   private DefaultSubscriber(NodeIdentifier nodeIdentifier, TopicDeclaration topicDeclaration,
-      MessageDeserializer<T> deserializer, ScheduledExecutorService executorService) {
+      MessageDeserializer<T> deserializer, ScheduledExecutorService executorService,
+      SlaveClientPool slaveClientPool) {
     super(topicDeclaration);
     this.nodeIdentifier = nodeIdentifier;
     this.executorService = executorService;
+    this.slaveClientPool = slaveClientPool;
     incomingMessageQueue = new IncomingMessageQueue<T>(deserializer, executorService);
     knownPublishers = Sets.newHashSet();
     tcpClientManager = new TcpRosClientManager(executorService);
@@ -176,8 +185,13 @@ public class DefaultSubscriber<T> extends DefaultTopicParticipant implements Sub
    */
   public void updatePublishers(Collection<PublisherIdentifier> publisherIdentifiers) {
     for (final PublisherIdentifier publisherIdentifier : publisherIdentifiers) {
-      executorService.execute(new UpdatePublisherRunnable<T>(this, nodeIdentifier,
-          publisherIdentifier));
+      synchronized (mutex) {
+        if (knownPublishers.contains(publisherIdentifier)) {
+          continue;
+        }
+      }
+      slaveClientPool.submit(publisherIdentifier.getNodeUri(), new UpdatePublisherCall<T>(
+          this, publisherIdentifier));
     }
   }
 
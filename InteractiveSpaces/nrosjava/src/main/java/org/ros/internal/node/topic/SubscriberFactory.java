@@ -16,6 +16,7 @@
 
 package org.ros.internal.node.topic;
 
+import org.ros.internal.node.client.SlaveClientPool;
 import org.ros.internal.node.server.NodeIdentifier;
 import org.ros.message.MessageDeserializer;
 import org.ros.namespace.GraphName;
@@ -34,13 +35,16 @@ public class SubscriberFactory {
   private final NodeIdentifier nodeIdentifier;
   private final TopicParticipantManager topicParticipantManager;
   private final ScheduledExecutorService executorService;
+  private final SlaveClientPool slaveClientPool;
   private final Object mutex;
 
   public SubscriberFactory(NodeIdentifier nodeIdentifier,
-      TopicParticipantManager topicParticipantManager, ScheduledExecutorService executorService) {
+      TopicParticipantManager topicParticipantManager, ScheduledExecutorService executorService,
+      SlaveClientPool slaveClientPool) {
     this.nodeIdentifier = nodeIdentifier;
     this.topicParticipantManager = topicParticipantManager;
     this.executorService = executorService;
+    this.slaveClientPool = slaveClientPool;
     mutex = new Object();
   }
 
@@ -67,7 +71,7 @@ public class SubscriberFactory {
       } else {
         DefaultSubscriber<T> subscriber =
             DefaultSubscriber.newDefault(nodeIdentifier, topicDeclaration, executorService,
-                messageDeserializer);
+                slaveClientPool, messageDeserializer);
         subscriber.addSubscriberListener(new DefaultSubscriberListener<T>() {
           @Override
           public void onNewPublisher(Subscriber<T> subscriber,
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.ros.internal.node.topic;
+
+import org.apache.commons.logging.Log;
+import org.ros.exception.RemoteException;
+import org.ros.internal.node.client.SlaveClient;
+import org.ros.internal.node.client.SlaveClientCall;
+import org.ros.internal.node.client.SlaveClientPool;
+import org.ros.internal.node.response.Response;
+import org.ros.internal.transport.ProtocolDescription;
+import org.ros.internal.transport.ProtocolNames;
+import org.ros.log.RosLogFactory;
+import org.ros.node.topic.Publisher;
+import org.ros.node.topic.Subscriber;
+
+/**
+ * A {@link SlaveClientCall} which is used whenever new publishers are being
+ * added to a {@link DefaultSubscriber}. It takes care of registration between
+ * the {@link Subscriber} and remote {@link Publisher}.
+ *
+ * <p>
+ * The call is run by the node's {@link SlaveClientPool}, which takes care of
+ * retrying it if the publisher's slave can't be reached.
+ *
+ * @author damonkohler@google.com (Damon Kohler)
+ */
+class UpdatePublisherCall<MessageType> implements SlaveClientCall {
+
+  private static final Log log = RosLogFactory.getLog(UpdatePublisherCall.class);
+
+  private final DefaultSubscriber<MessageType> subscriber;
+  private final PublisherIdentifier publisherIdentifier;
+
+  /**
+   * @param subscriber
+   *          the {@link Subscriber} which wants to connect
+   * @param publisherIdentifier
+   *          {@link PublisherIdentifier} of the new {@link Publisher}
+   */
+  public UpdatePublisherCall(DefaultSubscriber<MessageType> subscriber,
+      PublisherIdentifier publisherIdentifier) {
+    this.subscriber = subscriber;
+    this.publisherIdentifier = publisherIdentifier;
+  }
+
+  @Override
+  public void call(SlaveClient slaveClient) throws RemoteException {
+    Response<ProtocolDescription> response =
+        slaveClient.requestTopic(subscriber.getTopicName(), ProtocolNames.SUPPORTED);
+    // TODO(kwc): all of this logic really belongs in a protocol handler
+    // registry.
+    ProtocolDescription selected = response.getResult();
+    if (ProtocolNames.SUPPORTED.contains(selected.getName())) {
+      subscriber.addPublisher(publisherIdentifier, selected.getAddress());
+    } else {
+      log.error("Publisher returned unsupported protocol selection: " + response);
+    }
+  }
+}
@@ -28,6 +28,7 @@ import org.jboss.netty.channel.group.ChannelGroup;
 import org.jboss.netty.channel.group.ChannelGroupFuture;
 import org.jboss.netty.channel.group.DefaultChannelGroup;
 import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
+import org.jboss.netty.handler.codec.http.HttpChunkAggregator;
 import org.jboss.netty.handler.codec.http.HttpRequestDecoder;
 import org.jboss.netty.handler.codec.http.HttpResponseEncoder;
 import org.ros.exception.RosRuntimeException;
@@ -40,9 +41,25 @@ import java.util.concurrent.ScheduledExecutorService;
 /**
  * An Apache XMLRPC webserver based on Netty.
  *
+ * <p>
+ * Connections are handled by non-blocking I/O on the shared thread pool, and
+ * are kept alive between requests if the client asks for it. XMLRPC calls are
+ * run on the thread pool rather than on the I/O threads, so a slow call doesn't
+ * hold up other connections.
+ *
  * @author Keith M. Hughes
  */
-public class NettyXmlRpcWebServer {
+public class NettyXmlRpcWebServer implements XmlRpcWebServer {
+
+  /**
+   * The largest XMLRPC request body which will be accepted, in bytes.
+   */
+  public static final int MAX_REQUEST_CONTENT_LENGTH = 16 * 1024 * 1024;
+
+  /**
+   * The number of pending connections the server socket will queue up.
+   */
+  public static final int CONNECTION_BACKLOG = 1024;
 
   /**
    * Port for the web server.
@@ -106,9 +123,7 @@ public class NettyXmlRpcWebServer {
     serverHandler = new NettyXmlRpcWebServerHandler(this);
   }
 
-  /**
-   * Start the web server up.
-   */
+  @Override
   public void start() {
     allChannels = new DefaultChannelGroup("Apache XML-RPC Netty server");
 
@@ -122,8 +137,7 @@ public class NettyXmlRpcWebServer {
         // Create a default pipeline implementation.
         ChannelPipeline pipeline = pipeline();
         pipeline.addLast("decoder", new HttpRequestDecoder());
-        // pipeline.addLast("aggregator", new
-        // HttpChunkAggregator(4615604));
+        pipeline.addLast("aggregator", new HttpChunkAggregator(MAX_REQUEST_CONTENT_LENGTH));
         pipeline.addLast("encoder", new HttpResponseEncoder());
         pipeline.addLast("handler", serverHandler);
 
@@ -131,13 +145,16 @@ public class NettyXmlRpcWebServer {
       }
     });
 
+    bootstrap.setOption("backlog", CONNECTION_BACKLOG);
+    bootstrap.setOption("reuseAddress", true);
+    bootstrap.setOption("child.tcpNoDelay", true);
+    bootstrap.setOption("child.keepAlive", true);
+
     serverChannel = bootstrap.bind(new InetSocketAddress(port));
     allChannels.add(serverChannel);
   }
 
-  /**
-   * Shut the web server down.
-   */
+  @Override
   public void shutdown() {
     if (allChannels != null) {
       ChannelGroupFuture future = allChannels.close();
@@ -151,11 +168,7 @@ public class NettyXmlRpcWebServer {
     }
   }
 
-  /**
-   * Get the Apache XML RPC server associated with this web server.
-   *
-   * @return the Apache XML RPC server associated with this web server
-   */
+  @Override
   public XmlRpcStreamServer getXmlRpcServer() {
     return xmlRpcServer;
   }
@@ -169,11 +182,7 @@ public class NettyXmlRpcWebServer {
     allChannels.add(channel);
   }
 
-  /**
-   * Get the socket port for the web server.
-   *
-   * @return the socket port
-   */
+  @Override
   public int getPort() {
     if (serverChannel != null) {
       SocketAddress localAddress = serverChannel.getLocalAddress();
@@ -193,6 +202,15 @@ public class NettyXmlRpcWebServer {
     }
   }
 
+  /**
+   * Get the executor service which XMLRPC calls are run on.
+   *
+   * @return the executor service
+   */
+  public ScheduledExecutorService getExecutorService() {
+    return threadPool;
+  }
+
   /**
    * Return the log for the web server.
    *
@@ -18,12 +18,17 @@ package org.ros.internal.xmlrpc.webserver;
 
 import static org.jboss.netty.handler.codec.http.HttpHeaders.isKeepAlive;
 import static org.jboss.netty.handler.codec.http.HttpHeaders.setContentLength;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.CONNECTION;
 import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.CONTENT_TYPE;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Values.KEEP_ALIVE;
 import static org.jboss.netty.handler.codec.http.HttpMethod.POST;
 import static org.jboss.netty.handler.codec.http.HttpResponseStatus.FORBIDDEN;
+import static org.jboss.netty.handler.codec.http.HttpResponseStatus.INTERNAL_SERVER_ERROR;
+import static org.jboss.netty.handler.codec.http.HttpResponseStatus.SERVICE_UNAVAILABLE;
 import static org.jboss.netty.handler.codec.http.HttpVersion.HTTP_1_1;
 
 import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelFuture;
 import org.jboss.netty.channel.ChannelFutureListener;
 import org.jboss.netty.channel.ChannelHandlerContext;
@@ -39,6 +44,7 @@ import org.jboss.netty.handler.codec.http.HttpVersion;
 import org.jboss.netty.util.CharsetUtil;
 
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Web server handler for the Netty XMLRPC handler
@@ -106,14 +112,36 @@ public class NettyXmlRpcWebServerHandler extends SimpleChannelUpstreamHandler {
    *          The request.
    * @return True if the request was handled, false otherwise.
    */
-  private boolean handleWebRequest(ChannelHandlerContext ctx, HttpRequest req) throws IOException {
+  private boolean handleWebRequest(final ChannelHandlerContext ctx, final HttpRequest req) throws IOException {
     if (req.getMethod() != POST) {
       return false;
     }
 
-    XmlRpcServerClientConnection connection =
-        new XmlRpcServerClientConnection(ctx, req, webServer.getXmlRpcServer(), this);
-    connection.process();
+    // XMLRPC handlers can block, so they are run off the I/O thread. Reading
+    // stops until the response is written so that a pipelined request on the
+    // same connection can't be answered first.
+    final Channel channel = ctx.getChannel();
+    channel.setReadable(false);
+    try {
+      webServer.getExecutorService().execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            XmlRpcServerClientConnection connection =
+                new XmlRpcServerClientConnection(ctx, req, webServer.getXmlRpcServer(),
+                    NettyXmlRpcWebServerHandler.this);
+            connection.process();
+          } catch (Exception e) {
+            webServer.getLog().error("Error while handling XMLRPC request", e);
+            sendError(ctx, INTERNAL_SERVER_ERROR);
+          } finally {
+            channel.setReadable(true);
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      sendError(ctx, SERVICE_UNAVAILABLE);
+    }
 
     return true;
   }
@@ -130,16 +158,23 @@ public class NettyXmlRpcWebServerHandler extends SimpleChannelUpstreamHandler {
    */
   public void sendHttpResponse(ChannelHandlerContext ctx, HttpRequest req, HttpResponse res) {
     // Generate an error page if response status code is not OK (200).
-    if (res.getStatus().getCode() != HttpResponseStatus.OK.getCode()) {
+    boolean ok = res.getStatus().getCode() == HttpResponseStatus.OK.getCode();
+    if (!ok) {
       res.setContent(ChannelBuffers.copiedBuffer(res.getStatus().toString(), CharsetUtil.UTF_8));
-      setContentLength(res, res.getContent().readableBytes());
+    }
+
+    // The content length is what lets the client find the end of the response
+    // on a connection which is kept open.
+    setContentLength(res, res.getContent().readableBytes());
+    boolean keepAlive = ok && isKeepAlive(req);
+    if (keepAlive && req.getProtocolVersion() == HttpVersion.HTTP_1_0) {
+      res.setHeader(CONNECTION, KEEP_ALIVE);
     }
 
     // Send the response and close the connection if necessary.
     ChannelFuture f = ctx.getChannel().write(res);
 
-    if (!isKeepAlive(req) || res.getStatus().getCode() != HttpResponseStatus.OK.getCode()
-        || req.getMethod() == POST) {
+    if (!keepAlive) {
       f.addListener(ChannelFutureListener.CLOSE);
     }
   }
@@ -176,6 +211,7 @@ public class NettyXmlRpcWebServerHandler extends SimpleChannelUpstreamHandler {
     response.setHeader(CONTENT_TYPE, "text/plain; charset=UTF-8");
     response.setContent(ChannelBuffers.copiedBuffer("Failure: " + status.toString() + "\r\n",
         CharsetUtil.UTF_8));
+    setContentLength(response, response.getContent().readableBytes());
 
     // Close the connection as soon as the error message is sent.
     ctx.getChannel().write(response).addListener(ChannelFutureListener.CLOSE);
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.ros.internal.xmlrpc.webserver;
+
+import org.apache.xmlrpc.server.XmlRpcStreamServer;
+import org.apache.xmlrpc.webserver.WebServer;
+import org.ros.exception.RosRuntimeException;
+
+import java.io.IOException;
+import java.net.InetAddress;
+
+/**
+ * An XMLRPC web server which uses the Apache XMLRPC {@link WebServer}, which
+ * has a blocking accept loop and a thread per connection.
+ *
+ * @author agent
+ */
+public class ThreadedXmlRpcWebServer implements XmlRpcWebServer {
+
+  /**
+   * The Apache web server.
+   */
+  private final WebServer server;
+
+  /**
+   * Construct a new web server.
+   *
+   * @param port
+   *          the port to listen on, {@code 0} for any free port
+   * @param address
+   *          the address to bind to
+   */
+  public ThreadedXmlRpcWebServer(int port, InetAddress address) {
+    server = new WebServer(port, address);
+  }
+
+  @Override
+  public void start() {
+    try {
+      server.start();
+    } catch (IOException e) {
+      throw new RosRuntimeException("Could not start threaded XMLRPC web server", e);
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    server.shutdown();
+  }
+
+  @Override
+  public XmlRpcStreamServer getXmlRpcServer() {
+    return server.getXmlRpcServer();
+  }
+
+  @Override
+  public int getPort() {
+    return server.getPort();
+  }
+}
@@ -160,6 +160,10 @@ public class XmlRpcServerClientConnection implements ServerStreamConnection {
       handler.sendHttpResponse(ctx, request, res);
     } catch (XmlRpcException e) {
       handler.getWebServer().getLog().error("Error during XMLRPC server request handling", e);
+
+      // Answer so the client isn't left waiting on a connection which may be
+      // kept alive.
+      handler.sendError(ctx, HttpResponseStatus.INTERNAL_SERVER_ERROR);
     }
   }
 
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.ros.internal.xmlrpc.webserver;
+
+import org.apache.xmlrpc.server.XmlRpcStreamServer;
+
+/**
+ * A web server which carries XMLRPC requests to an Apache XMLRPC server.
+ *
+ * @author agent
+ */
+public interface XmlRpcWebServer {
+
+  /**
+   * Start the web server up.
+   */
+  void start();
+
+  /**
+   * Shut the web server down.
+   */
+  void shutdown();
+
+  /**
+   * Get the Apache XML RPC server associated with this web server.
+   *
+   * @return the Apache XML RPC server associated with this web server
+   */
+  XmlRpcStreamServer getXmlRpcServer();
+
+  /**
+   * Get the socket port for the web server.
+   *
+   * <p>
+   * Only valid after the server has been started.
+   *
+   * @return the socket port
+   */
+  int getPort();
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.ros.internal.xmlrpc.webserver;
+
+import org.apache.commons.logging.Log;
+
+import java.net.InetAddress;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * The kinds of web servers which can carry XMLRPC requests.
+ *
+ * @author agent
+ */
+public enum XmlRpcWebServerType {
+
+  /**
+   * A non-blocking web server on Netty. Connections share the executor service
+   * rather than getting a thread each.
+   */
+  NETTY("netty") {
+    @Override
+    public XmlRpcWebServer newWebServer(int port, InetAddress address,
+        ScheduledExecutorService executorService, Log log) {
+      return new NettyXmlRpcWebServer(port, address, executorService, log);
+    }
+  },
+
+  /**
+   * The Apache XMLRPC web server, with a thread per connection.
+   */
+  THREADED("threaded") {
+    @Override
+    public XmlRpcWebServer newWebServer(int port, InetAddress address,
+        ScheduledExecutorService executorService, Log log) {
+      return new ThreadedXmlRpcWebServer(port, address);
+    }
+  };
+
+  /**
+   * The name of the type as used in configurations.
+   */
+  private final String configurationName;
+
+  /**
+   * Construct a new type.
+   *
+   * @param configurationName
+   *          the name of the type as used in configurations
+   */
+  private XmlRpcWebServerType(String configurationName) {
+    this.configurationName = configurationName;
+  }
+
+  /**
+   * Create a web server of this type.
+   *
+   * @param port
+   *          the port to listen on, {@code 0} for any free port
+   * @param address
+   *          the address to bind to
+   * @param executorService
+   *          the executor service for the server
+   * @param log
+   *          the logger for the server
+   *
+   * @return the new web server, not started
+   */
+  public abstract XmlRpcWebServer newWebServer(int port, InetAddress address,
+      ScheduledExecutorService executorService, Log log);
+
+  /**
+   * Get the name of the type as used in configurations.
+   *
+   * @return the configuration name
+   */
+  public String getConfigurationName() {
+    return configurationName;
+  }
+
+  /**
+   * Get the web server type for a configuration name.
+   *
+   * @param configurationName
+   *          the configuration name, case is ignored
+   *
+   * @return the type, or {@code null} if there is no type with that name
+   */
+  public static XmlRpcWebServerType fromConfigurationName(String configurationName) {
+    for (XmlRpcWebServerType type : values()) {
+      if (type.configurationName.equalsIgnoreCase(configurationName)) {
+        return type;
+      }
+    }
+
+    return null;
+  }
+}
@@ -30,6 +30,8 @@ import org.ros.internal.message.service.ServiceDescriptionFactory;
 import org.ros.internal.message.service.ServiceRequestMessageFactory;
 import org.ros.internal.message.service.ServiceResponseMessageFactory;
 import org.ros.internal.message.topic.TopicDescriptionFactory;
+import org.ros.internal.node.server.XmlRpcServer;
+import org.ros.internal.xmlrpc.webserver.XmlRpcWebServerType;
 import org.ros.message.MessageDefinitionProvider;
 import org.ros.message.MessageFactory;
 import org.ros.message.MessageSerializationFactory;
@@ -84,6 +86,7 @@ public class NodeConfiguration {
   private AdvertiseAddressFactory tcpRosAdvertiseAddressFactory;
   private BindAddress xmlRpcBindAddress;
   private AdvertiseAddressFactory xmlRpcAdvertiseAddressFactory;
+  private XmlRpcWebServerType xmlRpcWebServerType;
   private ScheduledExecutorService scheduledExecutorService;
   private TimeProvider timeProvider;
   private Log log;
@@ -110,6 +113,7 @@ public class NodeConfiguration {
     copy.tcpRosAdvertiseAddressFactory = nodeConfiguration.tcpRosAdvertiseAddressFactory;
     copy.xmlRpcBindAddress = nodeConfiguration.xmlRpcBindAddress;
     copy.xmlRpcAdvertiseAddressFactory = nodeConfiguration.xmlRpcAdvertiseAddressFactory;
+    copy.xmlRpcWebServerType = nodeConfiguration.xmlRpcWebServerType;
     copy.scheduledExecutorService = nodeConfiguration.scheduledExecutorService;
     copy.timeProvider = nodeConfiguration.timeProvider;
     copy.log = nodeConfiguration.log;
@@ -191,6 +195,7 @@ public class NodeConfiguration {
     setMessageSerializationFactory(new DefaultMessageSerializationFactory(messageDefinitionProvider));
     setParentResolver(NameResolver.newRoot());
     setTimeProvider(new WallTimeProvider());
+    setXmlRpcWebServerType(XmlRpcServer.WEB_SERVER_TYPE_DEFAULT);
   }
 
   /**
@@ -544,6 +549,27 @@ public class NodeConfiguration {
     return this;
   }
 
+  /**
+   * @return the type of web server which carries the {@link Node}'s XML-RPC
+   *         requests
+   */
+  public XmlRpcWebServerType getXmlRpcWebServerType() {
+    return xmlRpcWebServerType;
+  }
+
+  /**
+   * Sets the type of web server which carries the {@link Node}'s XML-RPC
+   * requests. By default, {@link XmlRpcWebServerType#NETTY} is used.
+   *
+   * @param xmlRpcWebServerType
+   *          the type of web server
+   * @return this {@link NodeConfiguration}
+   */
+  public NodeConfiguration setXmlRpcWebServerType(XmlRpcWebServerType xmlRpcWebServerType) {
+    this.xmlRpcWebServerType = xmlRpcWebServerType;
+    return this;
+  }
+
   /**
    * @return the configured {@link TimeProvider}
    */
@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.ros.internal.node.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Lists;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ros.concurrent.DefaultScheduledExecutorService;
+import org.ros.exception.RemoteException;
+import org.ros.internal.node.response.StatusCode;
+import org.ros.namespace.GraphName;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the {@link SlaveClientPool}.
+ *
+ * @author agent
+ */
+public class SlaveClientPoolTest {
+
+  private ScheduledExecutorService executorService;
+  private SlaveClientPool pool;
+  private URI uri;
+
+  @Before
+  public void setup() throws Exception {
+    executorService = new DefaultScheduledExecutorService();
+    pool = new SlaveClientPool(GraphName.of("/test"), executorService, 2, 3, 10, 40);
+    uri = new URI("http://localhost:11311/");
+  }
+
+  @After
+  public void cleanup() {
+    pool.shutdown();
+    executorService.shutdown();
+  }
+
+  /**
+   * Clients are cached per URI.
+   */
+  @Test
+  public void testClientCached() {
+    assertSame(pool.getClient(uri), pool.getClient(uri));
+  }
+
+  /**
+   * A call failing in transport is retried until it succeeds.
+   */
+  @Test
+  public void testRetryUntilSuccess() throws Exception {
+    final AtomicInteger attempts = new AtomicInteger();
+    final CountDownLatch done = new CountDownLatch(1);
+    pool.submit(uri, new SlaveClientCall() {
+      @Override
+      public void call(SlaveClient client) {
+        if (attempts.incrementAndGet() < 3) {
+          throw new RuntimeException("Connection refused");
+        }
+        done.countDown();
+      }
+    });
+
+    assertTrue(done.await(1, TimeUnit.SECONDS));
+    assertEquals(3, attempts.get());
+  }
+
+  /**
+   * A call rejected by the remote slave is not retried.
+   */
+  @Test
+  public void testRemoteExceptionNotRetried() throws Exception {
+    final AtomicInteger attempts = new AtomicInteger();
+    pool.submit(uri, new SlaveClientCall() {
+      @Override
+      public void call(SlaveClient client) {
+        attempts.incrementAndGet();
+        throw new RemoteException(StatusCode.ERROR, "No such topic");
+      }
+    });
+
+    // A retry would run before a later call to the same slave.
+    awaitNextCall(uri);
+    assertEquals(1, attempts.get());
+  }
+
+  /**
+   * No more than the maximum number of calls run at once, and calls to
+   * different slaves do use every slot.
+   */
+  @Test
+  public void testConcurrencyBounded() throws Exception {
+    int numberCalls = 10;
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    final CountDownLatch limitReached = new CountDownLatch(2);
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(numberCalls);
+    for (int i = 0; i < numberCalls; i++) {
+      pool.submit(new URI("http://host" + i + ":11311/"), new SlaveClientCall() {
+        @Override
+        public void call(SlaveClient client) {
+          int current = running.incrementAndGet();
+          synchronized (maxRunning) {
+            maxRunning.set(Math.max(maxRunning.get(), current));
+          }
+          limitReached.countDown();
+          try {
+            // Hold the slot until the test has seen the limit reached.
+            release.await(2, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            // Just finish up.
+          } finally {
+            running.decrementAndGet();
+            done.countDown();
+          }
+        }
+      });
+    }
+
+    assertTrue(limitReached.await(2, TimeUnit.SECONDS));
+    assertEquals(numberCalls, pool.getNumberOutstandingCalls());
+    release.countDown();
+
+    assertTrue(done.await(2, TimeUnit.SECONDS));
+    assertEquals(2, maxRunning.get());
+  }
+
+  /**
+   * An error thrown by a call is not retried.
+   */
+  @Test
+  public void testErrorNotRetried() throws Exception {
+    final AtomicInteger attempts = new AtomicInteger();
+    pool.submit(uri, new SlaveClientCall() {
+      @Override
+      public void call(SlaveClient client) {
+        attempts.incrementAndGet();
+        throw new AssertionError("Broken");
+      }
+    });
+
+    // A retry would run before a later call to the same slave, and the
+    // failed call no longer counts once the later call runs.
+    assertEquals(1, awaitNextCall(uri));
+    assertEquals(1, attempts.get());
+  }
+
+  /**
+   * Calls to the same slave run in submission order, even when an earlier call
+   * has to be retried.
+   */
+  @Test
+  public void testCallsToSameSlaveOrdered() throws Exception {
+    int numberCalls = 5;
+    final List<Integer> completed = Collections.synchronizedList(Lists.<Integer> newArrayList());
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    final CountDownLatch done = new CountDownLatch(numberCalls);
+    for (int i = 0; i < numberCalls; i++) {
+      final int id = i;
+      final AtomicInteger attempts = new AtomicInteger();
+      pool.submit(uri, new SlaveClientCall() {
+        @Override
+        public void call(SlaveClient client) {
+          int current = running.incrementAndGet();
+          synchronized (maxRunning) {
+            maxRunning.set(Math.max(maxRunning.get(), current));
+          }
+          try {
+            // The first call fails once, so would be overtaken if calls to a
+            // slave weren't kept in order.
+            if (id == 0 && attempts.incrementAndGet() == 1) {
+              throw new RuntimeException("Connection refused");
+            }
+            completed.add(id);
+            done.countDown();
+          } finally {
+            running.decrementAndGet();
+          }
+        }
+      });
+    }
+
+    assertTrue(done.await(2, TimeUnit.SECONDS));
+    assertEquals(Lists.newArrayList(0, 1, 2, 3, 4), completed);
+    assertEquals(1, maxRunning.get());
+  }
+
+  /**
+   * Calls to different slaves still run concurrently.
+   */
+  @Test
+  public void testCallsToDifferentSlavesConcurrent() throws Exception {
+    final CountDownLatch bothRunning = new CountDownLatch(2);
+    final CountDownLatch done = new CountDownLatch(2);
+    SlaveClientCall call = new SlaveClientCall() {
+      @Override
+      public void call(SlaveClient client) {
+        bothRunning.countDown();
+        try {
+          bothRunning.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          // Just finish up.
+        }
+        done.countDown();
+      }
+    };
+    pool.submit(uri, call);
+    pool.submit(new URI("http://otherhost:11311/"), call);
+
+    assertTrue(done.await(2, TimeUnit.SECONDS));
+    assertEquals(0, bothRunning.getCount());
+  }
+
+  /**
+   * Submit a call to a slave and wait for it to run.
+   *
+   * <p>
+   * Calls to a slave run in order, so once this returns every earlier call to
+   * the slave, retries included, has finished.
+   *
+   * @param slaveUri
+   *          URI of the slave
+   *
+   * @return the number of outstanding calls while the call was running
+   *
+   * @throws InterruptedException
+   *           the wait was interrupted
+   */
+  private int awaitNextCall(URI slaveUri) throws InterruptedException {
+    final AtomicInteger outstanding = new AtomicInteger();
+    final CountDownLatch ran = new CountDownLatch(1);
+    pool.submit(slaveUri, new SlaveClientCall() {
+      @Override
+      public void call(SlaveClient client) {
+        outstanding.set(pool.getNumberOutstandingCalls());
+        ran.countDown();
+      }
+    });
+
+    assertTrue(ran.await(2, TimeUnit.SECONDS));
+
+    return outstanding.get();
+  }
+}
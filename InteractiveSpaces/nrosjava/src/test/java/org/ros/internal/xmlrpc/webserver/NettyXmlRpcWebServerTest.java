@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.ros.internal.xmlrpc.webserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Lists;
+
+import org.apache.commons.logging.Log;
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.XmlRpcHandler;
+import org.apache.xmlrpc.XmlRpcRequest;
+import org.apache.xmlrpc.server.XmlRpcHandlerMapping;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.ros.concurrent.DefaultScheduledExecutorService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Tests for the {@link NettyXmlRpcWebServer}.
+ *
+ * @author agent
+ */
+public class NettyXmlRpcWebServerTest {
+
+  /**
+   * How long to wait for a response, in milliseconds.
+   */
+  private static final int RESPONSE_TIMEOUT = 5000;
+
+  private ScheduledExecutorService executorService;
+
+  private NettyXmlRpcWebServer server;
+
+  private List<String> handlerThreads;
+
+  @Before
+  public void setup() {
+    executorService = new DefaultScheduledExecutorService();
+    handlerThreads = Collections.synchronizedList(Lists.<String> newArrayList());
+
+    server = new NettyXmlRpcWebServer(0, null, executorService, Mockito.mock(Log.class));
+    server.getXmlRpcServer().setHandlerMapping(new XmlRpcHandlerMapping() {
+      @Override
+      public XmlRpcHandler getHandler(final String name) {
+        return new XmlRpcHandler() {
+          @Override
+          public Object execute(XmlRpcRequest request) throws XmlRpcException {
+            handlerThreads.add(Thread.currentThread().getName());
+            if ("echo".equals(name)) {
+              return request.getParameter(0);
+            } else {
+              // Nothing can serialize this, so the response can't be written.
+              return new Object();
+            }
+          }
+        };
+      }
+    });
+    server.start();
+  }
+
+  @After
+  public void cleanup() {
+    server.shutdown();
+    executorService.shutdown();
+  }
+
+  /**
+   * Several requests are answered over one kept-alive connection, with the
+   * handlers run off the I/O threads.
+   */
+  @Test
+  public void testKeepAlive() throws Exception {
+    Socket socket = connect();
+    try {
+      for (int i = 0; i < 3; i++) {
+        HttpResult result = call(socket, "echo", "hello" + i);
+        assertEquals(200, result.status);
+        assertTrue(result.body.contains("hello" + i));
+      }
+    } finally {
+      socket.close();
+    }
+
+    assertEquals(3, handlerThreads.size());
+    for (String thread : handlerThreads) {
+      assertFalse(thread, thread.contains("I/O"));
+    }
+  }
+
+  /**
+   * A request whose response can't be written gets a 500, and the server
+   * keeps answering other requests.
+   */
+  @Test
+  public void testErrorResponse() throws Exception {
+    Socket socket = connect();
+    try {
+      HttpResult result = call(socket, "broken", "hello");
+      assertEquals(500, result.status);
+
+      // The connection is closed after an error.
+      assertEquals(-1, socket.getInputStream().read());
+    } finally {
+      socket.close();
+    }
+
+    socket = connect();
+    try {
+      assertEquals(200, call(socket, "echo", "again").status);
+    } finally {
+      socket.close();
+    }
+  }
+
+  /**
+   * Connect to the server.
+   *
+   * @return the connected socket
+   *
+   * @throws IOException
+   *           the connection failed
+   */
+  private Socket connect() throws IOException {
+    Socket socket = new Socket(InetAddress.getByName("127.0.0.1"), server.getPort());
+    socket.setSoTimeout(RESPONSE_TIMEOUT);
+
+    return socket;
+  }
+
+  /**
+   * Make an XMLRPC call with a single string parameter and read the response.
+   *
+   * @param socket
+   *          the connection to use
+   * @param methodName
+   *          the name of the method
+   * @param parameter
+   *          the parameter
+   *
+   * @return the HTTP response
+   *
+   * @throws IOException
+   *           the call failed
+   */
+  private HttpResult call(Socket socket, String methodName, String parameter) throws IOException {
+    byte[] body =
+        ("<?xml version=\"1.0\"?><methodCall><methodName>" + methodName
+            + "</methodName><params><param><value><string>" + parameter
+            + "</string></value></param></params></methodCall>").getBytes("UTF-8");
+    String header =
+        "POST /RPC2 HTTP/1.1\r\nHost: localhost\r\nContent-Type: text/xml\r\nContent-Length: " + body.length
+            + "\r\n\r\n";
+
+    OutputStream out = socket.getOutputStream();
+    out.write(header.getBytes("UTF-8"));
+    out.write(body);
+    out.flush();
+
+    InputStream in = socket.getInputStream();
+    String statusLine = readLine(in);
+    int status = Integer.parseInt(statusLine.split(" ")[1]);
+
+    int contentLength = -1;
+    String line;
+    while (!(line = readLine(in)).isEmpty()) {
+      int colon = line.indexOf(':');
+      if (line.substring(0, colon).trim().equalsIgnoreCase("Content-Length")) {
+        contentLength = Integer.parseInt(line.substring(colon + 1).trim());
+      }
+    }
+    assertTrue("No Content-Length in response", contentLength >= 0);
+
+    byte[] content = new byte[contentLength];
+    int read = 0;
+    while (read < contentLength) {
+      int count = in.read(content, read, contentLength - read);
+      if (count < 0) {
+        throw new IOException("Connection closed in the middle of the response");
+      }
+      read += count;
+    }
+
+    return new HttpResult(status, new String(content, "UTF-8"));
+  }
+
+  /**
+   * Read a CRLF terminated line.
+   *
+   * @param in
+   *          the stream to read from
+   *
+   * @return the line without its terminator
+   *
+   * @throws IOException
+   *           the line could not be read
+   */
+  private String readLine(InputStream in) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int c;
+    while ((c = in.read()) != '\n') {
+      if (c < 0) {
+        throw new IOException("Connection closed in the middle of a line");
+      }
+      if (c != '\r') {
+        line.write(c);
+      }
+    }
+
+    return new String(line.toByteArray(), "UTF-8");
+  }
+
+  /**
+   * The result of an HTTP request.
+   */
+  private static class HttpResult {
+
+    /**
+     * The HTTP status code.
+     */
+    private final int status;
+
+    /**
+     * The response body.
+     */
+    private final String body;
+
+    /**
+     * Construct a new result.
+     *
+     * @param status
+     *          the HTTP status code
+     * @param body
+     *          the response body
+     */
+    public HttpResult(int status, String body) {
+      this.status = status;
+      this.body = body;
+    }
+  }
+}
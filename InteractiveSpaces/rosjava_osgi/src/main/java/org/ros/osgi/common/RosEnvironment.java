@@ -80,6 +80,12 @@ public interface RosEnvironment {
    */
   String CONFIGURATION_ROS_NETWORK_TYPE = "org.ros.network.type";
 
+  /**
+   * Configuration property giving the type of web server used for XML-RPC,
+   * e.g. netty, threaded.
+   */
+  String CONFIGURATION_ROS_XMLRPC_SERVER_TYPE = "org.ros.xmlrpc.server.type";
+
   /**
    * Get the node configuration to be used as a public node for this
    * environment.
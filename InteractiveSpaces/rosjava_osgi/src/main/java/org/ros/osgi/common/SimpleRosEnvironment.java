@@ -22,6 +22,8 @@ import com.google.common.collect.Maps;
 import org.apache.commons.logging.Log;
 import org.ros.concurrent.DefaultScheduledExecutorService;
 import org.ros.exception.RosRuntimeException;
+import org.ros.internal.node.server.XmlRpcServer;
+import org.ros.internal.xmlrpc.webserver.XmlRpcWebServerType;
 import org.ros.master.uri.MasterUriProvider;
 import org.ros.namespace.GraphName;
 import org.ros.namespace.NameResolver;
@@ -92,6 +94,12 @@ public class SimpleRosEnvironment implements RosEnvironment {
    */
   private String networkType;
 
+  /**
+   * The type of web server used for XML-RPC by nodes and masters made from
+   * this environment.
+   */
+  private XmlRpcWebServerType xmlRpcWebServerType = XmlRpcServer.WEB_SERVER_TYPE_DEFAULT;
+
   /**
    * The container logger.
    */
@@ -149,6 +157,17 @@ public class SimpleRosEnvironment implements RosEnvironment {
     if (networkType != null)
       setNetworkType(networkType);
 
+    String xmlRpcServerType = getProperty(CONFIGURATION_ROS_XMLRPC_SERVER_TYPE);
+    if (xmlRpcServerType != null) {
+      XmlRpcWebServerType type = XmlRpcWebServerType.fromConfigurationName(xmlRpcServerType);
+      if (type != null) {
+        xmlRpcWebServerType = type;
+      } else {
+        log.warn(String.format("Unknown XML-RPC server type %s, using %s", xmlRpcServerType,
+            xmlRpcWebServerType.getConfigurationName()));
+      }
+    }
+
     if (executorService == null) {
       executorService = new DefaultScheduledExecutorService();
       ownExecutorService = true;
@@ -243,10 +262,12 @@ public class SimpleRosEnvironment implements RosEnvironment {
     if (masterUriProvider != null) {
       NodeConfiguration conf = NodeConfiguration.newPublic(host, masterUriProvider.getMasterUri());
       conf.setLog(log);
+      conf.setXmlRpcWebServerType(xmlRpcWebServerType);
       return conf;
     } else if (masterUri != null) {
       NodeConfiguration conf = NodeConfiguration.newPublic(host, masterUri);
       conf.setLog(log);
+      conf.setXmlRpcWebServerType(xmlRpcWebServerType);
       return conf;
     } else {
       throw new RosRuntimeException("No ROS master URI available");
@@ -275,6 +296,7 @@ public class SimpleRosEnvironment implements RosEnvironment {
   public NodeConfiguration getPrivateNodeConfiguration() {
     NodeConfiguration configuration = NodeConfiguration.newPrivate(masterUri);
     configuration.setLog(log);
+    configuration.setXmlRpcWebServerType(xmlRpcWebServerType);
 
     return configuration;
   }
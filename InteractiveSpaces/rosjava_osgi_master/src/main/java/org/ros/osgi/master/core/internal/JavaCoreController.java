@@ -40,7 +40,7 @@ public class JavaCoreController extends BaseCoreController {
       URI masterUri = configuration.getMasterUri();
       master =
           RosCore.newPublic(masterUri.getHost(), masterUri.getPort(),
-              rosEnvironment.getExecutorService());
+              rosEnvironment.getExecutorService(), configuration.getXmlRpcWebServerType());
       master.start();
 
       master.awaitStart();
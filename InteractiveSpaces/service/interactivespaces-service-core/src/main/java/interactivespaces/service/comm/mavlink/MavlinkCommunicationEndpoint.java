@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink;
+
+import interactivespaces.util.resource.ManagedResource;
+
+/**
+ * An endpoint which receives MAVLink telemetry.
+ *
+ * <p>
+ * Listeners are called on the thread which receives the frames, one frame at a
+ * time. Messages and views handed to listeners are only valid for the duration
+ * of the call.
+ *
+ * @author agent
+ */
+public interface MavlinkCommunicationEndpoint extends ManagedResource {
+
+  /**
+   * @return the dialect the endpoint understands
+   */
+  MavlinkDialect getDialect();
+
+  /**
+   * Add a listener for every message which comes in.
+   *
+   * @param listener
+   *          the listener to add
+   */
+  void addMessageListener(MavlinkMessageListener listener);
+
+  /**
+   * Remove a listener for every message which comes in.
+   *
+   * <p>
+   * Does nothing if the listener was never added.
+   *
+   * @param listener
+   *          the listener to remove
+   */
+  void removeMessageListener(MavlinkMessageListener listener);
+
+  /**
+   * Add a listener for a single message type.
+   *
+   * @param messageId
+   *          ID of the message
+   * @param listener
+   *          the listener to add
+   */
+  void addMessageListener(int messageId, MavlinkMessageListener listener);
+
+  /**
+   * Remove a listener for a single message type.
+   *
+   * <p>
+   * Does nothing if the listener was never added.
+   *
+   * @param messageId
+   *          ID of the message
+   * @param listener
+   *          the listener to remove
+   */
+  void removeMessageListener(int messageId, MavlinkMessageListener listener);
+
+  /**
+   * Add a listener which gets messages through a typed view.
+   *
+   * <p>
+   * The view is rewrapped around every message of its type, so it should not
+   * be shared with other listeners.
+   *
+   * @param view
+   *          the view to hand messages to the listener through
+   * @param listener
+   *          the listener to add
+   * @param <T>
+   *          the type of the view
+   *
+   * @return the listener actually registered, for use with
+   *         {@link #removeMessageListener(int, MavlinkMessageListener)}
+   */
+  <T extends MavlinkMessageView> MavlinkMessageListener addMessageViewListener(T view,
+      MavlinkMessageViewListener<T> listener);
+
+  /**
+   * @return the number of good frames received
+   */
+  long getNumberFrames();
+
+  /**
+   * @return the number of frames which failed their CRC or were otherwise bad
+   */
+  long getNumberBadFrames();
+
+  /**
+   * @return the number of frames received for messages not in the dialect
+   */
+  long getNumberUnknownMessages();
+
+  /**
+   * @return the number of frames lost, according to the sequence numbers
+   */
+  long getNumberFramesLost();
+
+  /**
+   * Get the fraction of frames from a system which have been lost.
+   *
+   * @param systemId
+   *          ID of the system
+   *
+   * @return the fraction lost, between {@code 0} and {@code 1}
+   */
+  double getLossRate(int systemId);
+}
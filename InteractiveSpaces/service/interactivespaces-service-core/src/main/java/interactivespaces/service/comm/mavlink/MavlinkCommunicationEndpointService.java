@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink;
+
+import interactivespaces.InteractiveSpacesException;
+import interactivespaces.service.SupportedService;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * A service for obtaining endpoints which receive MAVLink telemetry from
+ * vehicles and ground stations.
+ *
+ * @author agent
+ */
+public interface MavlinkCommunicationEndpointService extends SupportedService {
+
+  /**
+   * The name of the service.
+   */
+  String SERVICE_NAME = "comm.mavlink";
+
+  /**
+   * The port ground stations usually send MAVLink telemetry to.
+   */
+  int UDP_PORT_DEFAULT = 14550;
+
+  /**
+   * Create a new endpoint which receives MAVLink datagrams on a UDP port.
+   *
+   * @param localPort
+   *          the port on the local host to receive on
+   * @param dialect
+   *          the dialect for the messages
+   * @param log
+   *          the logger for the endpoint
+   *
+   * @return the new endpoint
+   */
+  MavlinkCommunicationEndpoint newUdpEndpoint(int localPort, MavlinkDialect dialect, Log log);
+
+  /**
+   * Create a new endpoint which receives MAVLink frames over a serial port.
+   *
+   * @param portName
+   *          name of the port (OS dependent)
+   * @param baud
+   *          the baud rate of the port
+   * @param dialect
+   *          the dialect for the messages
+   * @param log
+   *          the logger for the endpoint
+   *
+   * @return the new endpoint
+   *
+   * @throws InteractiveSpacesException
+   *           the port has already been opened or no such port exists on the
+   *           host
+   */
+  MavlinkCommunicationEndpoint newSerialEndpoint(String portName, int baud, MavlinkDialect dialect, Log log)
+      throws InteractiveSpacesException;
+}
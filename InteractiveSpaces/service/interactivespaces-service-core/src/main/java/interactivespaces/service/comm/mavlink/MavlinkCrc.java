@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink;
+
+import java.nio.charset.Charset;
+
+/**
+ * The X.25 CRC used by MAVLink frames.
+ *
+ * @author agent
+ */
+public final class MavlinkCrc {
+
+  /**
+   * The initial value of a CRC.
+   */
+  public static final int CRC_INITIAL = 0xffff;
+
+  /**
+   * The charset for strings which are part of a CRC.
+   */
+  private static final Charset CHARSET = Charset.forName("US-ASCII");
+
+  /**
+   * Add a byte to a CRC.
+   *
+   * @param crc
+   *          the current CRC
+   * @param b
+   *          the byte to add
+   *
+   * @return the new CRC
+   */
+  public static int accumulate(int crc, int b) {
+    int tmp = (b ^ crc) & 0xff;
+    tmp = (tmp ^ (tmp << 4)) & 0xff;
+
+    return ((crc >>> 8) ^ (tmp << 8) ^ (tmp << 3) ^ (tmp >>> 4)) & 0xffff;
+  }
+
+  /**
+   * Add a range of bytes to a CRC.
+   *
+   * @param crc
+   *          the current CRC
+   * @param buffer
+   *          the buffer holding the bytes
+   * @param offset
+   *          the offset of the first byte
+   * @param length
+   *          the number of bytes
+   *
+   * @return the new CRC
+   */
+  public static int accumulate(int crc, byte[] buffer, int offset, int length) {
+    for (int i = offset, end = offset + length; i < end; i++) {
+      int tmp = (buffer[i] ^ crc) & 0xff;
+      tmp = (tmp ^ (tmp << 4)) & 0xff;
+      crc = ((crc >>> 8) ^ (tmp << 8) ^ (tmp << 3) ^ (tmp >>> 4)) & 0xffff;
+    }
+
+    return crc;
+  }
+
+  /**
+   * Add the characters of a string to a CRC.
+   *
+   * @param crc
+   *          the current CRC
+   * @param s
+   *          the string
+   *
+   * @return the new CRC
+   */
+  public static int accumulate(int crc, String s) {
+    byte[] bytes = s.getBytes(CHARSET);
+    return accumulate(crc, bytes, 0, bytes.length);
+  }
+
+  /**
+   * Private constructor for utility class.
+   */
+  private MavlinkCrc() {
+  }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink;
+
+import interactivespaces.InteractiveSpacesException;
+import interactivespaces.SimpleInteractiveSpacesException;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+/**
+ * A collection of MAVLink message definitions.
+ *
+ * <p>
+ * Definitions can be looked up by message ID without any allocation, so a
+ * dialect can be consulted for every frame which comes in.
+ *
+ * @author agent
+ */
+public class MavlinkDialect {
+
+  /**
+   * The largest message ID allowed by MAVLink 2.
+   */
+  public static final int MESSAGE_ID_MAX = 0xffffff;
+
+  /**
+   * The number of bits of the message ID used to index the leaf tables.
+   */
+  private static final int LEAF_BITS = 12;
+
+  /**
+   * The size of a leaf table.
+   */
+  private static final int LEAF_SIZE = 1 << LEAF_BITS;
+
+  /**
+   * Mask for getting the leaf index from a message ID.
+   */
+  private static final int LEAF_MASK = LEAF_SIZE - 1;
+
+  /**
+   * Marker in a field specification list that all following fields are
+   * extension fields.
+   */
+  public static final String FIELD_SPECIFICATION_EXTENSIONS = "extensions";
+
+  /**
+   * The message definitions, indexed first by the high bits of the ID and then
+   * by the low bits.
+   */
+  private final AtomicReferenceArray<MavlinkMessageDefinition[]> definitionsById =
+      new AtomicReferenceArray<MavlinkMessageDefinition[]>((MESSAGE_ID_MAX >>> LEAF_BITS) + 1);
+
+  /**
+   * The message definitions keyed by their name.
+   */
+  private final Map<String, MavlinkMessageDefinition> definitionsByName = Maps.newConcurrentMap();
+
+  /**
+   * Get a dialect containing the common telemetry messages.
+   *
+   * <p>
+   * This covers the messages needed to follow a vehicle. Other messages can be
+   * added with {@link #load(File)} or {@link #addMessage(int, String, String...)}.
+   *
+   * @return a new dialect
+   */
+  public static MavlinkDialect newStandardDialect() {
+    MavlinkDialect dialect = new MavlinkDialect();
+
+    dialect.addMessage(0, "HEARTBEAT", "uint8_t type", "uint8_t autopilot", "uint8_t base_mode",
+        "uint32_t custom_mode", "uint8_t system_status", "uint8_t_mavlink_version mavlink_version");
+    dialect.addMessage(1, "SYS_STATUS", "uint32_t onboard_control_sensors_present",
+        "uint32_t onboard_control_sensors_enabled", "uint32_t onboard_control_sensors_health", "uint16_t load",
+        "uint16_t voltage_battery", "int16_t current_battery", "int8_t battery_remaining",
+        "uint16_t drop_rate_comm", "uint16_t errors_comm", "uint16_t errors_count1", "uint16_t errors_count2",
+        "uint16_t errors_count3", "uint16_t errors_count4");
+    dialect.addMessage(2, "SYSTEM_TIME", "uint64_t time_unix_usec", "uint32_t time_boot_ms");
+    dialect.addMessage(24, "GPS_RAW_INT", "uint64_t time_usec", "uint8_t fix_type", "int32_t lat", "int32_t lon",
+        "int32_t alt", "uint16_t eph", "uint16_t epv", "uint16_t vel", "uint16_t cog",
+        "uint8_t satellites_visible");
+    dialect.addMessage(30, "ATTITUDE", "uint32_t time_boot_ms", "float roll", "float pitch", "float yaw",
+        "float rollspeed", "float pitchspeed", "float yawspeed");
+    dialect.addMessage(33, "GLOBAL_POSITION_INT", "uint32_t time_boot_ms", "int32_t lat", "int32_t lon",
+        "int32_t alt", "int32_t relative_alt", "int16_t vx", "int16_t vy", "int16_t vz", "uint16_t hdg");
+    dialect.addMessage(74, "VFR_HUD", "float airspeed", "float groundspeed", "int16_t heading",
+        "uint16_t throttle", "float alt", "float climb");
+    dialect.addMessage(253, "STATUSTEXT", "uint8_t severity", "char[50] text");
+
+    return dialect;
+  }
+
+  /**
+   * Load a dialect from a MAVLink message definition file.
+   *
+   * <p>
+   * Only the messages in the file itself are loaded, {@code include} elements
+   * are not followed. Load each included file separately and combine them with
+   * {@link #addAll(MavlinkDialect)}.
+   *
+   * @param file
+   *          the message definition file
+   *
+   * @return the dialect
+   *
+   * @throws InteractiveSpacesException
+   *           the file could not be read or is not a valid definition file
+   */
+  public static MavlinkDialect load(File file) throws InteractiveSpacesException {
+    Document document;
+    try {
+      document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file);
+    } catch (Exception e) {
+      throw new InteractiveSpacesException(String.format("Could not read MAVLink definition file %s",
+          file.getAbsolutePath()), e);
+    }
+
+    MavlinkDialect dialect = new MavlinkDialect();
+
+    NodeList messages = document.getElementsByTagName("message");
+    for (int i = 0; i < messages.getLength(); i++) {
+      Element message = (Element) messages.item(i);
+
+      List<String> fieldSpecifications = Lists.newArrayList();
+      NodeList children = message.getChildNodes();
+      for (int j = 0; j < children.getLength(); j++) {
+        Node child = children.item(j);
+        if (child.getNodeType() != Node.ELEMENT_NODE) {
+          continue;
+        }
+
+        Element element = (Element) child;
+        if ("field".equals(element.getTagName())) {
+          fieldSpecifications.add(element.getAttribute("type") + " " + element.getAttribute("name"));
+        } else if (FIELD_SPECIFICATION_EXTENSIONS.equals(element.getTagName())) {
+          fieldSpecifications.add(FIELD_SPECIFICATION_EXTENSIONS);
+        }
+      }
+
+      int id;
+      try {
+        id = Integer.parseInt(message.getAttribute("id").trim());
+      } catch (NumberFormatException e) {
+        throw new SimpleInteractiveSpacesException(String.format(
+            "MAVLink message %s in definition file %s has an illegal ID", message.getAttribute("name"),
+            file.getAbsolutePath()));
+      }
+
+      dialect.addMessage(id, message.getAttribute("name"),
+          fieldSpecifications.toArray(new String[fieldSpecifications.size()]));
+    }
+
+    return dialect;
+  }
+
+  /**
+   * Add a message to the dialect.
+   *
+   * <p>
+   * Fields are given in the order they appear in the message definition, as
+   * {@code "type name"} where the type can have an array length, e.g.
+   * {@code "char[50] text"}. All fields after an entry of
+   * {@link #FIELD_SPECIFICATION_EXTENSIONS} are extension fields.
+   *
+   * @param id
+   *          ID of the message
+   * @param name
+   *          name of the message
+   * @param fieldSpecifications
+   *          the field specifications
+   *
+   * @return the new message definition
+   *
+   * @throws SimpleInteractiveSpacesException
+   *           the ID or one of the fields is not legal
+   */
+  public MavlinkMessageDefinition addMessage(int id, String name, String... fieldSpecifications)
+      throws SimpleInteractiveSpacesException {
+    List<MavlinkFieldDefinition> fields = Lists.newArrayList();
+    boolean extension = false;
+    for (String specification : fieldSpecifications) {
+      String trimmed = specification.trim();
+      if (FIELD_SPECIFICATION_EXTENSIONS.equals(trimmed)) {
+        extension = true;
+      } else {
+        fields.add(parseFieldSpecification(name, trimmed, extension));
+      }
+    }
+
+    MavlinkMessageDefinition definition = new MavlinkMessageDefinition(id, name, fields);
+    addMessageDefinition(definition);
+
+    return definition;
+  }
+
+  /**
+   * Add a message definition to the dialect. A definition with the same ID will
+   * be replaced.
+   *
+   * @param definition
+   *          the definition to add
+   *
+   * @throws SimpleInteractiveSpacesException
+   *           the ID of the message is not legal
+   */
+  public void addMessageDefinition(MavlinkMessageDefinition definition) throws SimpleInteractiveSpacesException {
+    int id = definition.getId();
+    if (id < 0 || id > MESSAGE_ID_MAX) {
+      throw new SimpleInteractiveSpacesException(String.format("MAVLink message %s has an illegal ID %d",
+          definition.getName(), id));
+    }
+
+    synchronized (definitionsById) {
+      MavlinkMessageDefinition[] leaf = definitionsById.get(id >>> LEAF_BITS);
+      MavlinkMessageDefinition[] newLeaf =
+          (leaf != null) ? leaf.clone() : new MavlinkMessageDefinition[LEAF_SIZE];
+      newLeaf[id & LEAF_MASK] = definition;
+      definitionsById.set(id >>> LEAF_BITS, newLeaf);
+    }
+
+    definitionsByName.put(definition.getName(), definition);
+  }
+
+  /**
+   * Add all message definitions from another dialect to this one.
+   *
+   * @param other
+   *          the other dialect
+   */
+  public void addAll(MavlinkDialect other) {
+    for (MavlinkMessageDefinition definition : other.getMessageDefinitions()) {
+      addMessageDefinition(definition);
+    }
+  }
+
+  /**
+   * Get the definition of a message.
+   *
+   * @param id
+   *          ID of the message
+   *
+   * @return the definition, or {@code null} if the dialect has no such message
+   */
+  public MavlinkMessageDefinition getMessageDefinition(int id) {
+    if (id < 0 || id > MESSAGE_ID_MAX) {
+      return null;
+    }
+
+    MavlinkMessageDefinition[] leaf = definitionsById.get(id >>> LEAF_BITS);
+    return (leaf != null) ? leaf[id & LEAF_MASK] : null;
+  }
+
+  /**
+   * Get the definition of a message.
+   *
+   * @param name
+   *          name of the message
+   *
+   * @return the definition, or {@code null} if the dialect has no such message
+   */
+  public MavlinkMessageDefinition getMessageDefinition(String name) {
+    return definitionsByName.get(name);
+  }
+
+  /**
+   * @return all message definitions in the dialect
+   */
+  public Collection<MavlinkMessageDefinition> getMessageDefinitions() {
+    return Collections.unmodifiableCollection(definitionsByName.values());
+  }
+
+  /**
+   * Parse a field specification.
+   *
+   * @param messageName
+   *          name of the message the field is in
+   * @param specification
+   *          the specification, of the form {@code "type name"}
+   * @param extension
+   *          {@code true} if the field is an extension field
+   *
+   * @return the field definition
+   *
+   * @throws SimpleInteractiveSpacesException
+   *           the specification is not legal
+   */
+  private MavlinkFieldDefinition parseFieldSpecification(String messageName, String specification,
+      boolean extension) throws SimpleInteractiveSpacesException {
+    String[] parts = specification.split("\\s+");
+    if (parts.length != 2) {
+      throw new SimpleInteractiveSpacesException(String.format(
+          "MAVLink message %s has an illegal field specification %s", messageName, specification));
+    }
+
+    String typeName = parts[0];
+    int arrayLength = 0;
+    int bracket = typeName.indexOf('[');
+    if (bracket != -1) {
+      try {
+        arrayLength = Integer.parseInt(typeName.substring(bracket + 1, typeName.length() - 1));
+      } catch (NumberFormatException e) {
+        throw new SimpleInteractiveSpacesException(String.format(
+            "MAVLink message %s has an illegal array length in field %s", messageName, specification));
+      }
+      typeName = typeName.substring(0, bracket);
+    }
+
+    MavlinkFieldType type = MavlinkFieldType.fromDefinitionName(typeName);
+    if (type == null) {
+      throw new SimpleInteractiveSpacesException(String.format("MAVLink message %s has an unknown field type %s",
+          messageName, typeName));
+    }
+
+    return new MavlinkFieldDefinition(parts[1], type, arrayLength, extension);
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink;
+
+/**
+ * The definition of a single field in a MAVLink message.
+ *
+ * @author agent
+ */
+public class MavlinkFieldDefinition {
+
+  /**
+   * Name of the field.
+   */
+  private final String name;
+
+  /**
+   * Type of the field, or of each element if the field is an array.
+   */
+  private final MavlinkFieldType type;
+
+  /**
+   * Number of elements in the field, {@code 0} if the field is not an array.
+   */
+  private final int arrayLength;
+
+  /**
+   * {@code true} if the field is a MAVLink 2 extension field.
+   */
+  private final boolean extension;
+
+  /**
+   * Offset of the field in the payload, in bytes.
+   */
+  private int offset;
+
+  /**
+   * Construct a new field definition.
+   *
+   * @param name
+   *          name of the field
+   * @param type
+   *          type of the field, or of each element if the field is an array
+   * @param arrayLength
+   *          number of elements in the field, {@code 0} if the field is not an
+   *          array
+   * @param extension
+   *          {@code true} if the field is a MAVLink 2 extension field
+   */
+  public MavlinkFieldDefinition(String name, MavlinkFieldType type, int arrayLength, boolean extension) {
+    this.name = name;
+    this.type = type;
+    this.arrayLength = arrayLength;
+    this.extension = extension;
+  }
+
+  /**
+   * @return name of the field
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return type of the field, or of each element if the field is an array
+   */
+  public MavlinkFieldType getType() {
+    return type;
+  }
+
+  /**
+   * @return number of elements in the field, {@code 0} if the field is not an
+   *         array
+   */
+  public int getArrayLength() {
+    return arrayLength;
+  }
+
+  /**
+   * @return {@code true} if the field is an array
+   */
+  public boolean isArray() {
+    return arrayLength > 0;
+  }
+
+  /**
+   * @return {@code true} if the field is a MAVLink 2 extension field
+   */
+  public boolean isExtension() {
+    return extension;
+  }
+
+  /**
+   * @return offset of the field in the payload, in bytes
+   */
+  public int getOffset() {
+    return offset;
+  }
+
+  /**
+   * Set the offset of the field in the payload.
+   *
+   * @param offset
+   *          offset of the field in the payload, in bytes
+   */
+  void setOffset(int offset) {
+    this.offset = offset;
+  }
+
+  /**
+   * @return the number of bytes the field takes up in the payload
+   */
+  public int getSize() {
+    return type.getSize() * Math.max(1, arrayLength);
+  }
+
+  @Override
+  public String toString() {
+    return "MavlinkFieldDefinition [name=" + name + ", type=" + type + ", arrayLength=" + arrayLength
+        + ", extension=" + extension + ", offset=" + offset + "]";
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink;
+
+/**
+ * The types a MAVLink message field can have.
+ *
+ * @author agent
+ */
+public enum MavlinkFieldType {
+
+  /**
+   * A character, arrays of these are strings.
+   */
+  CHAR("char", 1),
+
+  /**
+   * A signed 8 bit integer.
+   */
+  INT8("int8_t", 1),
+
+  /**
+   * An unsigned 8 bit integer.
+   */
+  UINT8("uint8_t", 1),
+
+  /**
+   * A signed 16 bit integer.
+   */
+  INT16("int16_t", 2),
+
+  /**
+   * An unsigned 16 bit integer.
+   */
+  UINT16("uint16_t", 2),
+
+  /**
+   * A signed 32 bit integer.
+   */
+  INT32("int32_t", 4),
+
+  /**
+   * An unsigned 32 bit integer.
+   */
+  UINT32("uint32_t", 4),
+
+  /**
+   * A signed 64 bit integer.
+   */
+  INT64("int64_t", 8),
+
+  /**
+   * An unsigned 64 bit integer.
+   */
+  UINT64("uint64_t", 8),
+
+  /**
+   * A single precision float.
+   */
+  FLOAT("float", 4),
+
+  /**
+   * A double precision float.
+   */
+  DOUBLE("double", 8);
+
+  /**
+   * The type name used in MAVLink message definitions.
+   */
+  private final String definitionName;
+
+  /**
+   * The size of the type on the wire, in bytes.
+   */
+  private final int size;
+
+  /**
+   * Construct a type.
+   *
+   * @param definitionName
+   *          the type name used in MAVLink message definitions
+   * @param size
+   *          the size of the type on the wire, in bytes
+   */
+  private MavlinkFieldType(String definitionName, int size) {
+    this.definitionName = definitionName;
+    this.size = size;
+  }
+
+  /**
+   * @return the type name used in MAVLink message definitions
+   */
+  public String getDefinitionName() {
+    return definitionName;
+  }
+
+  /**
+   * @return the size of the type on the wire, in bytes
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Get the type for a type name used in MAVLink message definitions.
+   *
+   * <p>
+   * The special {@code uint8_t_mavlink_version} type is a {@link #UINT8}.
+   *
+   * @param definitionName
+   *          the type name, without any array length
+   *
+   * @return the type, or {@code null} if the name is not a known type
+   */
+  public static MavlinkFieldType fromDefinitionName(String definitionName) {
+    if ("uint8_t_mavlink_version".equals(definitionName)) {
+      return UINT8;
+    }
+
+    for (MavlinkFieldType type : values()) {
+      if (type.definitionName.equals(definitionName)) {
+        return type;
+      }
+    }
+
+    return null;
+  }
+}
@@ -0,0 +1,441 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink;
+
+/**
+ * Parses MAVLink 1 and MAVLink 2 frames out of raw bytes and hands the
+ * messages in them to a listener.
+ *
+ * <p>
+ * Frames are parsed in place. The {@link MavlinkMessage} given to the listener
+ * points into the buffer which was handed to the parser, so nothing is
+ * allocated per frame. A frame which is split across two calls of
+ * {@link #parse(byte[], int, int)}, as happens with serial links, is carried
+ * over in a small internal buffer.
+ *
+ * <p>
+ * Frames are checked against their CRC, including the CRC extra byte of the
+ * message definition. Frames with a bad CRC are dropped and the parser
+ * resynchronizes on the next start byte. Frames for messages not in the
+ * dialect are counted and skipped. Signatures on signed MAVLink 2 frames are
+ * skipped over but not checked.
+ *
+ * <p>
+ * Instances are not thread safe, bytes from one link must be handed to the
+ * parser by one thread at a time.
+ *
+ * @author agent
+ */
+public class MavlinkFrameParser {
+
+  /**
+   * The start byte for MAVLink 1 frames.
+   */
+  public static final int START_BYTE_VERSION_1 = 0xfe;
+
+  /**
+   * The start byte for MAVLink 2 frames.
+   */
+  public static final int START_BYTE_VERSION_2 = 0xfd;
+
+  /**
+   * The length of a MAVLink 1 header, including the start byte.
+   */
+  public static final int HEADER_LENGTH_VERSION_1 = 6;
+
+  /**
+   * The length of a MAVLink 2 header, including the start byte.
+   */
+  public static final int HEADER_LENGTH_VERSION_2 = 10;
+
+  /**
+   * The length of the checksum.
+   */
+  public static final int CHECKSUM_LENGTH = 2;
+
+  /**
+   * The length of the signature on a signed MAVLink 2 frame.
+   */
+  public static final int SIGNATURE_LENGTH = 13;
+
+  /**
+   * The MAVLink 2 incompatibility flag for signed frames.
+   */
+  public static final int INCOMPATIBILITY_FLAG_SIGNED = 0x01;
+
+  /**
+   * The longest possible frame.
+   */
+  public static final int FRAME_LENGTH_MAX = HEADER_LENGTH_VERSION_2 + 255 + CHECKSUM_LENGTH + SIGNATURE_LENGTH;
+
+  /**
+   * The number of bytes needed at the start of a frame to know its length.
+   */
+  private static final int FRAME_LENGTH_PREFIX = 3;
+
+  /**
+   * Result of processing a frame: the frame was good.
+   */
+  private static final int FRAME_RESULT_GOOD = 0;
+
+  /**
+   * Result of processing a frame: the frame was well formed but was skipped.
+   */
+  private static final int FRAME_RESULT_SKIPPED = 1;
+
+  /**
+   * Result of processing a frame: the frame was bad.
+   */
+  private static final int FRAME_RESULT_BAD = 2;
+
+  /**
+   * The dialect for the messages.
+   */
+  private final MavlinkDialect dialect;
+
+  /**
+   * The listener for parsed messages.
+   */
+  private final MavlinkMessageListener listener;
+
+  /**
+   * The message handed to the listener.
+   */
+  private final MavlinkMessage message = new MavlinkMessage();
+
+  /**
+   * The tracker for frame sequence numbers.
+   */
+  private final MavlinkSequenceTracker sequenceTracker = new MavlinkSequenceTracker();
+
+  /**
+   * The start of a frame which was cut off at the end of the last chunk.
+   */
+  private final byte[] carry = new byte[FRAME_LENGTH_MAX];
+
+  /**
+   * The number of bytes in {@link #carry}.
+   */
+  private int carryLength;
+
+  /**
+   * Buffer for joining carried over bytes with the start of the next chunk.
+   */
+  private final byte[] joined = new byte[2 * FRAME_LENGTH_MAX];
+
+  /**
+   * The number of good frames.
+   */
+  private long numberFrames;
+
+  /**
+   * The number of frames which failed their CRC or were otherwise bad.
+   */
+  private long numberBadFrames;
+
+  /**
+   * The number of frames for messages not in the dialect.
+   */
+  private long numberUnknownMessages;
+
+  /**
+   * The number of frames lost according to the sequence numbers.
+   */
+  private long numberFramesLost;
+
+  /**
+   * The number of bytes which were thrown away while looking for frames.
+   */
+  private long numberBytesDiscarded;
+
+  /**
+   * Construct a new parser.
+   *
+   * @param dialect
+   *          the dialect for the messages
+   * @param listener
+   *          the listener for parsed messages
+   */
+  public MavlinkFrameParser(MavlinkDialect dialect, MavlinkMessageListener listener) {
+    this.dialect = dialect;
+    this.listener = listener;
+  }
+
+  /**
+   * Parse a chunk of a byte stream. A frame cut off at the end of the chunk
+   * will be completed by the next chunk.
+   *
+   * @param data
+   *          the buffer holding the chunk
+   * @param offset
+   *          offset of the chunk in the buffer
+   * @param length
+   *          length of the chunk
+   */
+  public void parse(byte[] data, int offset, int length) {
+    int position = offset;
+    int end = offset + length;
+
+    if (carryLength > 0) {
+      // Any frame starting in the carried bytes is complete once a full frame
+      // length of new bytes has been added.
+      int joinedFromData = Math.min(length, FRAME_LENGTH_MAX);
+      System.arraycopy(carry, 0, joined, 0, carryLength);
+      System.arraycopy(data, offset, joined, carryLength, joinedFromData);
+      int joinedEnd = carryLength + joinedFromData;
+
+      int unconsumed = parseRegion(joined, 0, joinedEnd);
+      if (joinedFromData == length) {
+        saveCarry(joined, unconsumed, joinedEnd);
+        return;
+      }
+
+      position = offset + Math.max(unconsumed - carryLength, 0);
+      carryLength = 0;
+    }
+
+    saveCarry(data, parseRegion(data, position, end), end);
+  }
+
+  /**
+   * Parse a datagram. Datagrams hold whole frames, so nothing is carried over
+   * to or from other datagrams.
+   *
+   * @param data
+   *          the buffer holding the datagram
+   * @param offset
+   *          offset of the datagram in the buffer
+   * @param length
+   *          length of the datagram
+   */
+  public void parseDatagram(byte[] data, int offset, int length) {
+    discardCarry();
+    parse(data, offset, length);
+    discardCarry();
+  }
+
+  /**
+   * Throw away any partial frame carried over from the last chunk.
+   */
+  public void discardCarry() {
+    numberBytesDiscarded += carryLength;
+    carryLength = 0;
+  }
+
+  /**
+   * @return the tracker for frame sequence numbers
+   */
+  public MavlinkSequenceTracker getSequenceTracker() {
+    return sequenceTracker;
+  }
+
+  /**
+   * @return the number of good frames
+   */
+  public long getNumberFrames() {
+    return numberFrames;
+  }
+
+  /**
+   * @return the number of frames which failed their CRC or were otherwise bad
+   */
+  public long getNumberBadFrames() {
+    return numberBadFrames;
+  }
+
+  /**
+   * @return the number of frames for messages not in the dialect
+   */
+  public long getNumberUnknownMessages() {
+    return numberUnknownMessages;
+  }
+
+  /**
+   * @return the number of frames lost according to the sequence numbers
+   */
+  public long getNumberFramesLost() {
+    return numberFramesLost;
+  }
+
+  /**
+   * @return the number of bytes which were thrown away while looking for frames
+   */
+  public long getNumberBytesDiscarded() {
+    return numberBytesDiscarded;
+  }
+
+  /**
+   * Parse all complete frames in a region of a buffer.
+   *
+   * @param buffer
+   *          the buffer
+   * @param position
+   *          the start of the region
+   * @param end
+   *          the end of the region
+   *
+   * @return the position of an incomplete frame at the end of the region, or
+   *         {@code end} if there is none
+   */
+  private int parseRegion(byte[] buffer, int position, int end) {
+    while (position < end) {
+      int startByte = buffer[position] & 0xff;
+      if (startByte != START_BYTE_VERSION_1 && startByte != START_BYTE_VERSION_2) {
+        position++;
+        numberBytesDiscarded++;
+        continue;
+      }
+
+      int frameLength = getFrameLength(buffer, position, end - position);
+      if (frameLength < 0 || position + frameLength > end) {
+        return position;
+      }
+
+      if (processFrame(buffer, position) == FRAME_RESULT_BAD) {
+        position++;
+        numberBytesDiscarded++;
+      } else {
+        position += frameLength;
+      }
+    }
+
+    return end;
+  }
+
+  /**
+   * Get the length of a frame.
+   *
+   * @param buffer
+   *          the buffer holding the frame
+   * @param start
+   *          position of the start byte of the frame
+   * @param available
+   *          the number of bytes available from the start of the frame
+   *
+   * @return the length of the frame, or {@code -1} if not enough of the frame
+   *         is available to know
+   */
+  private int getFrameLength(byte[] buffer, int start, int available) {
+    if (available < FRAME_LENGTH_PREFIX) {
+      return -1;
+    }
+
+    int payloadLength = buffer[start + 1] & 0xff;
+    if ((buffer[start] & 0xff) == START_BYTE_VERSION_1) {
+      return HEADER_LENGTH_VERSION_1 + payloadLength + CHECKSUM_LENGTH;
+    } else {
+      int length = HEADER_LENGTH_VERSION_2 + payloadLength + CHECKSUM_LENGTH;
+      if ((buffer[start + 2] & INCOMPATIBILITY_FLAG_SIGNED) != 0) {
+        length += SIGNATURE_LENGTH;
+      }
+
+      return length;
+    }
+  }
+
+  /**
+   * Check a complete frame and hand its message to the listener if it is good.
+   *
+   * @param buffer
+   *          the buffer holding the frame
+   * @param start
+   *          position of the start byte of the frame
+   *
+   * @return the result of processing the frame
+   */
+  private int processFrame(byte[] buffer, int start) {
+    int payloadLength = buffer[start + 1] & 0xff;
+
+    int version;
+    int sequence;
+    int systemId;
+    int componentId;
+    int messageId;
+    int payloadOffset;
+    if ((buffer[start] & 0xff) == START_BYTE_VERSION_1) {
+      version = MavlinkMessage.VERSION_1;
+      sequence = buffer[start + 2] & 0xff;
+      systemId = buffer[start + 3] & 0xff;
+      componentId = buffer[start + 4] & 0xff;
+      messageId = buffer[start + 5] & 0xff;
+      payloadOffset = start + HEADER_LENGTH_VERSION_1;
+    } else {
+      if ((buffer[start + 2] & ~INCOMPATIBILITY_FLAG_SIGNED) != 0) {
+        // Flags we don't understand mean we can't read the frame.
+        numberBadFrames++;
+        return FRAME_RESULT_BAD;
+      }
+
+      version = MavlinkMessage.VERSION_2;
+      sequence = buffer[start + 4] & 0xff;
+      systemId = buffer[start + 5] & 0xff;
+      componentId = buffer[start + 6] & 0xff;
+      messageId =
+          (buffer[start + 7] & 0xff) | ((buffer[start + 8] & 0xff) << 8) | ((buffer[start + 9] & 0xff) << 16);
+      payloadOffset = start + HEADER_LENGTH_VERSION_2;
+    }
+
+    MavlinkMessageDefinition definition = dialect.getMessageDefinition(messageId);
+    if (definition == null) {
+      numberUnknownMessages++;
+      return FRAME_RESULT_SKIPPED;
+    }
+
+    if (version == MavlinkMessage.VERSION_1 && payloadLength != definition.getMinimumLength()) {
+      numberBadFrames++;
+      return FRAME_RESULT_BAD;
+    }
+
+    int crc = MavlinkCrc.accumulate(MavlinkCrc.CRC_INITIAL, buffer, start + 1, payloadOffset + payloadLength
+        - start - 1);
+    crc = MavlinkCrc.accumulate(crc, definition.getCrcExtra());
+    int checksumOffset = payloadOffset + payloadLength;
+    int checksum = (buffer[checksumOffset] & 0xff) | ((buffer[checksumOffset + 1] & 0xff) << 8);
+    if (crc != checksum) {
+      numberBadFrames++;
+      return FRAME_RESULT_BAD;
+    }
+
+    numberFrames++;
+    numberFramesLost += sequenceTracker.update(systemId, componentId, sequence);
+
+    // A MAVLink 2 sender with a newer dialect can send extension fields this dialect doesn't know about. They come
+    // after every known field, so they are dropped.
+    int knownPayloadLength = Math.min(payloadLength, definition.getMaximumLength());
+    listener.onMavlinkMessage(message.wrap(buffer, payloadOffset, knownPayloadLength, version, sequence, systemId,
+        componentId, definition));
+
+    return FRAME_RESULT_GOOD;
+  }
+
+  /**
+   * Save the unparsed end of a chunk to be joined with the next chunk.
+   *
+   * @param buffer
+   *          the buffer holding the chunk
+   * @param start
+   *          the start of the unparsed bytes
+   * @param end
+   *          the end of the chunk
+   */
+  private void saveCarry(byte[] buffer, int start, int end) {
+    carryLength = end - start;
+    if (carryLength > 0) {
+      System.arraycopy(buffer, start, carry, 0, carryLength);
+    }
+  }
+}
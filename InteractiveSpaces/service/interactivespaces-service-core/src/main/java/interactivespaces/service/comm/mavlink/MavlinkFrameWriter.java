@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink;
+
+/**
+ * Writes MAVLink frames for a single system and component.
+ *
+ * <p>
+ * Instances are not thread safe.
+ *
+ * @author agent
+ */
+public class MavlinkFrameWriter {
+
+  /**
+   * The ID of the system the frames come from.
+   */
+  private final int systemId;
+
+  /**
+   * The ID of the component the frames come from.
+   */
+  private final int componentId;
+
+  /**
+   * The frame version to write.
+   */
+  private final int version;
+
+  /**
+   * The sequence number for the next frame.
+   */
+  private int sequence;
+
+  /**
+   * Construct a new writer.
+   *
+   * @param systemId
+   *          the ID of the system the frames come from
+   * @param componentId
+   *          the ID of the component the frames come from
+   * @param version
+   *          the frame version to write, one of {@link MavlinkMessage#VERSION_1}
+   *          or {@link MavlinkMessage#VERSION_2}
+   */
+  public MavlinkFrameWriter(int systemId, int componentId, int version) {
+    this.systemId = systemId;
+    this.componentId = componentId;
+    this.version = version;
+  }
+
+  /**
+   * Write a frame.
+   *
+   * <p>
+   * MAVLink 1 frames leave out extension fields. MAVLink 2 frames have
+   * trailing zero bytes of the payload removed.
+   *
+   * @param definition
+   *          the definition of the message
+   * @param payload
+   *          the payload of the message in wire order, at least as long as the
+   *          payload being written
+   * @param frame
+   *          the buffer to write the frame into, there must be room for
+   *          {@link MavlinkFrameParser#FRAME_LENGTH_MAX} bytes
+   * @param offset
+   *          the position to start writing the frame at
+   *
+   * @return the length of the frame
+   */
+  public int writeFrame(MavlinkMessageDefinition definition, byte[] payload, byte[] frame, int offset) {
+    int messageId = definition.getId();
+    int payloadLength;
+    int payloadOffset;
+    if (version == MavlinkMessage.VERSION_1) {
+      payloadLength = definition.getMinimumLength();
+
+      frame[offset] = (byte) MavlinkFrameParser.START_BYTE_VERSION_1;
+      frame[offset + 1] = (byte) payloadLength;
+      frame[offset + 2] = (byte) sequence;
+      frame[offset + 3] = (byte) systemId;
+      frame[offset + 4] = (byte) componentId;
+      frame[offset + 5] = (byte) messageId;
+      payloadOffset = offset + MavlinkFrameParser.HEADER_LENGTH_VERSION_1;
+    } else {
+      payloadLength = definition.getMaximumLength();
+      while (payloadLength > 1 && payload[payloadLength - 1] == 0) {
+        payloadLength--;
+      }
+
+      frame[offset] = (byte) MavlinkFrameParser.START_BYTE_VERSION_2;
+      frame[offset + 1] = (byte) payloadLength;
+      frame[offset + 2] = 0;
+      frame[offset + 3] = 0;
+      frame[offset + 4] = (byte) sequence;
+      frame[offset + 5] = (byte) systemId;
+      frame[offset + 6] = (byte) componentId;
+      frame[offset + 7] = (byte) messageId;
+      frame[offset + 8] = (byte) (messageId >>> 8);
+      frame[offset + 9] = (byte) (messageId >>> 16);
+      payloadOffset = offset + MavlinkFrameParser.HEADER_LENGTH_VERSION_2;
+    }
+
+    System.arraycopy(payload, 0, frame, payloadOffset, payloadLength);
+
+    int crc = MavlinkCrc.accumulate(MavlinkCrc.CRC_INITIAL, frame, offset + 1, payloadOffset + payloadLength
+        - offset - 1);
+    crc = MavlinkCrc.accumulate(crc, definition.getCrcExtra());
+    int checksumOffset = payloadOffset + payloadLength;
+    frame[checksumOffset] = (byte) crc;
+    frame[checksumOffset + 1] = (byte) (crc >>> 8);
+
+    sequence = (sequence + 1) & 0xff;
+
+    return checksumOffset + MavlinkFrameParser.CHECKSUM_LENGTH - offset;
+  }
+}
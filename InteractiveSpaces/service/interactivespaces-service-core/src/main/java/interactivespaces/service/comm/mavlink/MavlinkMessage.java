@@ -0,0 +1,441 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink;
+
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+
+/**
+ * A MAVLink message which has been received.
+ *
+ * <p>
+ * The message is a view onto the buffer the frame arrived in, no bytes are
+ * copied. The same instance is reused for every frame, so a message is only
+ * valid for the duration of the listener call it is handed to. Anything needed
+ * later must be read out of it before the call returns.
+ *
+ * <p>
+ * MAVLink 2 senders drop trailing zero bytes from payloads. Reading any part of
+ * a field past the end of the received payload gives zero, so readers don't
+ * have to care whether the payload was truncated.
+ *
+ * @author agent
+ */
+public class MavlinkMessage {
+
+  /**
+   * Frame version for MAVLink 1 frames.
+   */
+  public static final int VERSION_1 = 1;
+
+  /**
+   * Frame version for MAVLink 2 frames.
+   */
+  public static final int VERSION_2 = 2;
+
+  /**
+   * The buffer holding the frame.
+   */
+  private byte[] buffer;
+
+  /**
+   * Offset of the payload in the buffer.
+   */
+  private int payloadOffset;
+
+  /**
+   * Length of the payload as received, in bytes.
+   */
+  private int payloadLength;
+
+  /**
+   * The frame version.
+   */
+  private int version;
+
+  /**
+   * The sequence number of the frame.
+   */
+  private int sequence;
+
+  /**
+   * The ID of the system which sent the message.
+   */
+  private int systemId;
+
+  /**
+   * The ID of the component which sent the message.
+   */
+  private int componentId;
+
+  /**
+   * The definition of the message.
+   */
+  private MavlinkMessageDefinition definition;
+
+  /**
+   * Point the message at a new frame.
+   *
+   * @param buffer
+   *          the buffer holding the frame
+   * @param payloadOffset
+   *          offset of the payload in the buffer
+   * @param payloadLength
+   *          length of the payload as received, in bytes
+   * @param version
+   *          the frame version
+   * @param sequence
+   *          the sequence number of the frame
+   * @param systemId
+   *          the ID of the system which sent the message
+   * @param componentId
+   *          the ID of the component which sent the message
+   * @param definition
+   *          the definition of the message
+   *
+   * @return this message
+   */
+  public MavlinkMessage wrap(byte[] buffer, int payloadOffset, int payloadLength, int version, int sequence,
+      int systemId, int componentId, MavlinkMessageDefinition definition) {
+    this.buffer = buffer;
+    this.payloadOffset = payloadOffset;
+    this.payloadLength = payloadLength;
+    this.version = version;
+    this.sequence = sequence;
+    this.systemId = systemId;
+    this.componentId = componentId;
+    this.definition = definition;
+
+    return this;
+  }
+
+  /**
+   * @return the ID of the message
+   */
+  public int getMessageId() {
+    return definition.getId();
+  }
+
+  /**
+   * @return the definition of the message
+   */
+  public MavlinkMessageDefinition getDefinition() {
+    return definition;
+  }
+
+  /**
+   * @return the frame version, one of {@link #VERSION_1} or {@link #VERSION_2}
+   */
+  public int getVersion() {
+    return version;
+  }
+
+  /**
+   * @return the sequence number of the frame
+   */
+  public int getSequence() {
+    return sequence;
+  }
+
+  /**
+   * @return the ID of the system which sent the message
+   */
+  public int getSystemId() {
+    return systemId;
+  }
+
+  /**
+   * @return the ID of the component which sent the message
+   */
+  public int getComponentId() {
+    return componentId;
+  }
+
+  /**
+   * @return length of the payload as received, in bytes
+   */
+  public int getPayloadLength() {
+    return payloadLength;
+  }
+
+  /**
+   * Get a signed byte from the payload.
+   *
+   * @param offset
+   *          offset in the payload
+   *
+   * @return the value
+   */
+  public byte getInt8(int offset) {
+    return (offset < payloadLength) ? buffer[payloadOffset + offset] : 0;
+  }
+
+  /**
+   * Get an unsigned byte from the payload.
+   *
+   * @param offset
+   *          offset in the payload
+   *
+   * @return the value
+   */
+  public int getUint8(int offset) {
+    return getInt8(offset) & 0xff;
+  }
+
+  /**
+   * Get a signed 16 bit integer from the payload.
+   *
+   * @param offset
+   *          offset in the payload
+   *
+   * @return the value
+   */
+  public short getInt16(int offset) {
+    return (short) getLittleEndian(offset, 2);
+  }
+
+  /**
+   * Get an unsigned 16 bit integer from the payload.
+   *
+   * @param offset
+   *          offset in the payload
+   *
+   * @return the value
+   */
+  public int getUint16(int offset) {
+    return (int) getLittleEndian(offset, 2);
+  }
+
+  /**
+   * Get a signed 32 bit integer from the payload.
+   *
+   * @param offset
+   *          offset in the payload
+   *
+   * @return the value
+   */
+  public int getInt32(int offset) {
+    return (int) getLittleEndian(offset, 4);
+  }
+
+  /**
+   * Get an unsigned 32 bit integer from the payload.
+   *
+   * @param offset
+   *          offset in the payload
+   *
+   * @return the value
+   */
+  public long getUint32(int offset) {
+    return getLittleEndian(offset, 4);
+  }
+
+  /**
+   * Get a 64 bit integer from the payload.
+   *
+   * <p>
+   * Unsigned values larger than {@link Long#MAX_VALUE} come back negative.
+   *
+   * @param offset
+   *          offset in the payload
+   *
+   * @return the value
+   */
+  public long getInt64(int offset) {
+    return getLittleEndian(offset, 8);
+  }
+
+  /**
+   * Get a single precision float from the payload.
+   *
+   * @param offset
+   *          offset in the payload
+   *
+   * @return the value
+   */
+  public float getFloat(int offset) {
+    return Float.intBitsToFloat(getInt32(offset));
+  }
+
+  /**
+   * Get a double precision float from the payload.
+   *
+   * @param offset
+   *          offset in the payload
+   *
+   * @return the value
+   */
+  public double getDouble(int offset) {
+    return Double.longBitsToDouble(getInt64(offset));
+  }
+
+  /**
+   * Get a string from the payload. The string ends at the first zero byte or
+   * the maximum length, whichever comes first.
+   *
+   * @param offset
+   *          offset in the payload
+   * @param maximumLength
+   *          the maximum length of the string
+   *
+   * @return the string
+   */
+  public String getString(int offset, int maximumLength) {
+    int end = Math.min(offset + maximumLength, payloadLength);
+    int length = 0;
+    while (offset + length < end && buffer[payloadOffset + offset + length] != 0) {
+      length++;
+    }
+
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) (buffer[payloadOffset + offset + i] & 0xff);
+    }
+
+    return new String(chars);
+  }
+
+  /**
+   * Copy the payload out of the message. Truncated payloads are filled out with
+   * zeros to the full length of the message.
+   *
+   * @param destination
+   *          the buffer to copy into, it must be at least
+   *          {@link MavlinkMessageDefinition#getMaximumLength()} long
+   *
+   * @return the full length of the payload
+   */
+  public int copyPayload(byte[] destination) {
+    int length = definition.getMaximumLength();
+    int copied = Math.min(payloadLength, length);
+    System.arraycopy(buffer, payloadOffset, destination, 0, copied);
+    for (int i = copied; i < length; i++) {
+      destination[i] = 0;
+    }
+
+    return length;
+  }
+
+  /**
+   * Get the value of a field. Values are boxed, so this is meant for generic
+   * processing of messages rather than the fast path.
+   *
+   * @param field
+   *          the field
+   *
+   * @return the value, arrays of numbers are returned as arrays and arrays of
+   *         characters as strings
+   */
+  public Object getFieldValue(MavlinkFieldDefinition field) {
+    if (field.isArray()) {
+      if (field.getType() == MavlinkFieldType.CHAR) {
+        return getString(field.getOffset(), field.getArrayLength());
+      }
+
+      Object[] values = new Object[field.getArrayLength()];
+      int size = field.getType().getSize();
+      for (int i = 0; i < values.length; i++) {
+        values[i] = getScalarValue(field.getType(), field.getOffset() + i * size);
+      }
+
+      return values;
+    } else {
+      return getScalarValue(field.getType(), field.getOffset());
+    }
+  }
+
+  /**
+   * Get the values of all fields of the message.
+   *
+   * @return map of field name to value, as given by
+   *         {@link #getFieldValue(MavlinkFieldDefinition)}
+   */
+  public Map<String, Object> getFieldValues() {
+    Map<String, Object> values = Maps.newHashMap();
+    for (MavlinkFieldDefinition field : definition.getFields()) {
+      values.put(field.getName(), getFieldValue(field));
+    }
+
+    return values;
+  }
+
+  /**
+   * Get a single value of a given type.
+   *
+   * @param type
+   *          the type
+   * @param offset
+   *          offset in the payload
+   *
+   * @return the boxed value
+   */
+  private Object getScalarValue(MavlinkFieldType type, int offset) {
+    switch (type) {
+      case CHAR:
+        return String.valueOf((char) getUint8(offset));
+      case INT8:
+        return getInt8(offset);
+      case UINT8:
+        return getUint8(offset);
+      case INT16:
+        return getInt16(offset);
+      case UINT16:
+        return getUint16(offset);
+      case INT32:
+        return getInt32(offset);
+      case UINT32:
+        return getUint32(offset);
+      case INT64:
+      case UINT64:
+        return getInt64(offset);
+      case FLOAT:
+        return getFloat(offset);
+      case DOUBLE:
+        return getDouble(offset);
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Read a little endian value from the payload. Bytes past the end of the
+   * payload read as zero.
+   *
+   * @param offset
+   *          offset in the payload
+   * @param size
+   *          number of bytes in the value
+   *
+   * @return the value, zero extended to a long
+   */
+  private long getLittleEndian(int offset, int size) {
+    int available = Math.min(size, payloadLength - offset);
+    long value = 0;
+    for (int i = available - 1; i >= 0; i--) {
+      value = (value << 8) | (buffer[payloadOffset + offset + i] & 0xff);
+    }
+
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return "MavlinkMessage [name=" + definition.getName() + ", systemId=" + systemId + ", componentId="
+        + componentId + ", sequence=" + sequence + ", version=" + version + "]";
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The definition of a MAVLink message.
+ *
+ * <p>
+ * Fields are given in the order they appear in the message definition. The
+ * wire order and the CRC extra are calculated from them the same way the
+ * MAVLink generator does it: base fields are sorted by the size of their type,
+ * largest first, keeping definition order for fields of the same size, and
+ * extension fields follow in definition order.
+ *
+ * @author agent
+ */
+public class MavlinkMessageDefinition {
+
+  /**
+   * Sorts fields by the size of their type, largest first.
+   */
+  private static final Comparator<MavlinkFieldDefinition> WIRE_ORDER = new Comparator<MavlinkFieldDefinition>() {
+    @Override
+    public int compare(MavlinkFieldDefinition o1, MavlinkFieldDefinition o2) {
+      return o2.getType().getSize() - o1.getType().getSize();
+    }
+  };
+
+  /**
+   * ID of the message.
+   */
+  private final int id;
+
+  /**
+   * Name of the message.
+   */
+  private final String name;
+
+  /**
+   * The fields, in wire order.
+   */
+  private final List<MavlinkFieldDefinition> fields;
+
+  /**
+   * The fields, keyed by their name.
+   */
+  private final Map<String, MavlinkFieldDefinition> fieldsByName = Maps.newHashMap();
+
+  /**
+   * The CRC extra byte for the message.
+   */
+  private final int crcExtra;
+
+  /**
+   * Length of the payload without extension fields, in bytes.
+   */
+  private final int minimumLength;
+
+  /**
+   * Length of the payload including extension fields, in bytes.
+   */
+  private final int maximumLength;
+
+  /**
+   * Construct a new message definition.
+   *
+   * @param id
+   *          ID of the message
+   * @param name
+   *          name of the message
+   * @param definitionFields
+   *          the fields in the order they appear in the message definition
+   */
+  public MavlinkMessageDefinition(int id, String name, List<MavlinkFieldDefinition> definitionFields) {
+    this.id = id;
+    this.name = name;
+
+    List<MavlinkFieldDefinition> baseFields = Lists.newArrayList();
+    List<MavlinkFieldDefinition> extensionFields = Lists.newArrayList();
+    for (MavlinkFieldDefinition field : definitionFields) {
+      if (field.isExtension()) {
+        extensionFields.add(field);
+      } else {
+        baseFields.add(field);
+      }
+    }
+
+    // Collections.sort is stable, which the wire order relies on.
+    Collections.sort(baseFields, WIRE_ORDER);
+
+    int crc = MavlinkCrc.accumulate(MavlinkCrc.CRC_INITIAL, name + " ");
+    int offset = 0;
+    for (MavlinkFieldDefinition field : baseFields) {
+      field.setOffset(offset);
+      offset += field.getSize();
+
+      crc = MavlinkCrc.accumulate(crc, field.getType().getDefinitionName() + " ");
+      crc = MavlinkCrc.accumulate(crc, field.getName() + " ");
+      if (field.isArray()) {
+        crc = MavlinkCrc.accumulate(crc, field.getArrayLength());
+      }
+    }
+    minimumLength = offset;
+
+    for (MavlinkFieldDefinition field : extensionFields) {
+      field.setOffset(offset);
+      offset += field.getSize();
+    }
+    maximumLength = offset;
+
+    crcExtra = (crc & 0xff) ^ (crc >>> 8);
+
+    List<MavlinkFieldDefinition> wireFields = Lists.newArrayList(baseFields);
+    wireFields.addAll(extensionFields);
+    fields = Collections.unmodifiableList(wireFields);
+    for (MavlinkFieldDefinition field : fields) {
+      fieldsByName.put(field.getName(), field);
+    }
+  }
+
+  /**
+   * @return ID of the message
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * @return name of the message
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return the fields, in wire order
+   */
+  public List<MavlinkFieldDefinition> getFields() {
+    return fields;
+  }
+
+  /**
+   * Get a field by its name.
+   *
+   * @param fieldName
+   *          name of the field
+   *
+   * @return the field, or {@code null} if there is no such field
+   */
+  public MavlinkFieldDefinition getField(String fieldName) {
+    return fieldsByName.get(fieldName);
+  }
+
+  /**
+   * @return the CRC extra byte for the message
+   */
+  public int getCrcExtra() {
+    return crcExtra;
+  }
+
+  /**
+   * @return length of the payload without extension fields, in bytes
+   */
+  public int getMinimumLength() {
+    return minimumLength;
+  }
+
+  /**
+   * @return length of the payload including extension fields, in bytes
+   */
+  public int getMaximumLength() {
+    return maximumLength;
+  }
+
+  @Override
+  public String toString() {
+    return "MavlinkMessageDefinition [id=" + id + ", name=" + name + ", crcExtra=" + crcExtra + "]";
+  }
+}
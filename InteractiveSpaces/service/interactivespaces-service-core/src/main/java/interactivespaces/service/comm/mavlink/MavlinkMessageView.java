@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink;
+
+import interactivespaces.SimpleInteractiveSpacesException;
+
+/**
+ * A typed view onto a {@link MavlinkMessage}.
+ *
+ * <p>
+ * Views read their fields straight out of the receive buffer. A view can be
+ * rewrapped around each new message, so a single instance can serve every
+ * message of its type.
+ *
+ * @author agent
+ */
+public abstract class MavlinkMessageView {
+
+  /**
+   * The message being viewed.
+   */
+  protected MavlinkMessage message;
+
+  /**
+   * @return the ID of the messages the view is for
+   */
+  public abstract int getMessageId();
+
+  /**
+   * Point the view at a message.
+   *
+   * @param message
+   *          the message
+   *
+   * @return this view
+   *
+   * @throws SimpleInteractiveSpacesException
+   *           the message is not of the type the view is for
+   */
+  public MavlinkMessageView wrap(MavlinkMessage message) throws SimpleInteractiveSpacesException {
+    if (message.getMessageId() != getMessageId()) {
+      throw new SimpleInteractiveSpacesException(String.format("Cannot view MAVLink message %s as message %d",
+          message.getDefinition().getName(), getMessageId()));
+    }
+
+    this.message = message;
+
+    return this;
+  }
+
+  /**
+   * @return the message being viewed
+   */
+  public MavlinkMessage getMessage() {
+    return message;
+  }
+
+  /**
+   * @return the ID of the system which sent the message
+   */
+  public int getSystemId() {
+    return message.getSystemId();
+  }
+
+  /**
+   * @return the ID of the component which sent the message
+   */
+  public int getComponentId() {
+    return message.getComponentId();
+  }
+}
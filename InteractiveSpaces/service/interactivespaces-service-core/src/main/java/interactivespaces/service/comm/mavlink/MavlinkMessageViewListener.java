@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink;
+
+/**
+ * A listener for MAVLink messages of a single type, handed to the listener
+ * through a typed view.
+ *
+ * @param <T>
+ *          the type of the view
+ *
+ * @author agent
+ */
+public interface MavlinkMessageViewListener<T extends MavlinkMessageView> {
+
+  /**
+   * A message has come in.
+   *
+   * <p>
+   * The view is only valid for the duration of the call.
+   *
+   * @param view
+   *          the view of the message
+   */
+  void onMavlinkMessage(T view);
+}
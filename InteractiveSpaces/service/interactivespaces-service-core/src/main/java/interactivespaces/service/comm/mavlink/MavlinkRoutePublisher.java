@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink;
+
+import interactivespaces.activity.component.route.MessageRouterActivityComponent;
+import interactivespaces.activity.component.route.MessageRouterSupportedMessageTypes;
+import interactivespaces.time.TimeProvider;
+import interactivespaces.util.data.json.JsonMapper;
+
+import interactivespaces_msgs.GenericMessage;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.apache.commons.logging.Log;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes selected MAVLink messages as JSON on the output channels of a
+ * message router.
+ *
+ * <p>
+ * Telemetry usually comes in far faster than anything downstream wants it, so
+ * each route has a minimum interval between messages published for any one
+ * system. Messages which come in faster are dropped before any JSON is built.
+ *
+ * @author agent
+ */
+public class MavlinkRoutePublisher {
+
+  /**
+   * JSON key for the message name.
+   */
+  public static final String JSON_KEY_MESSAGE = "message";
+
+  /**
+   * JSON key for the ID of the sending system.
+   */
+  public static final String JSON_KEY_SYSTEM_ID = "systemId";
+
+  /**
+   * JSON key for the ID of the sending component.
+   */
+  public static final String JSON_KEY_COMPONENT_ID = "componentId";
+
+  /**
+   * JSON key for the frame sequence number.
+   */
+  public static final String JSON_KEY_SEQUENCE = "sequence";
+
+  /**
+   * JSON key for the message fields.
+   */
+  public static final String JSON_KEY_FIELDS = "fields";
+
+  /**
+   * The JSON mapper.
+   */
+  private static final JsonMapper MAPPER = new JsonMapper();
+
+  /**
+   * The router to publish on.
+   */
+  private final MessageRouterActivityComponent<GenericMessage> router;
+
+  /**
+   * The time provider for rate limiting.
+   */
+  private final TimeProvider timeProvider;
+
+  /**
+   * The logger for publishing errors.
+   */
+  private final Log log;
+
+  /**
+   * The routes which have been added.
+   */
+  private final List<Route> routes = Lists.newArrayList();
+
+  /**
+   * Construct a new publisher.
+   *
+   * @param router
+   *          the router to publish on
+   * @param timeProvider
+   *          the time provider for rate limiting
+   * @param log
+   *          the logger for publishing errors
+   */
+  public MavlinkRoutePublisher(MessageRouterActivityComponent<GenericMessage> router, TimeProvider timeProvider,
+      Log log) {
+    this.router = router;
+    this.timeProvider = timeProvider;
+    this.log = log;
+  }
+
+  /**
+   * Publish a message type from an endpoint on an output channel.
+   *
+   * @param endpoint
+   *          the endpoint the messages come from
+   * @param messageId
+   *          ID of the message
+   * @param channelName
+   *          name of the output channel
+   * @param minimumInterval
+   *          the minimum time between messages published for a single system,
+   *          in milliseconds, {@code 0} to publish every message
+   */
+  public synchronized void addRoute(MavlinkCommunicationEndpoint endpoint, int messageId, String channelName,
+      long minimumInterval) {
+    Route route = new Route(endpoint, messageId, channelName, minimumInterval);
+    routes.add(route);
+    endpoint.addMessageListener(messageId, route);
+  }
+
+  /**
+   * Stop publishing everything.
+   */
+  public synchronized void removeAllRoutes() {
+    for (Route route : routes) {
+      route.endpoint.removeMessageListener(route.messageId, route);
+    }
+    routes.clear();
+  }
+
+  /**
+   * Publish a message.
+   *
+   * @param channelName
+   *          name of the output channel
+   * @param message
+   *          the message
+   */
+  private void publish(String channelName, MavlinkMessage message) {
+    Map<String, Object> data = Maps.newHashMap();
+    data.put(JSON_KEY_MESSAGE, message.getDefinition().getName());
+    data.put(JSON_KEY_SYSTEM_ID, message.getSystemId());
+    data.put(JSON_KEY_COMPONENT_ID, message.getComponentId());
+    data.put(JSON_KEY_SEQUENCE, message.getSequence());
+    data.put(JSON_KEY_FIELDS, message.getFieldValues());
+
+    GenericMessage outgoing = router.newMessage();
+    try {
+      outgoing.setType(MessageRouterSupportedMessageTypes.JSON_MESSAGE_TYPE);
+      outgoing.setMessage(MAPPER.toString(data));
+
+      router.writeOutputMessage(channelName, outgoing);
+    } catch (Exception e) {
+      log.error(String.format("Could not write MAVLink message on output channel %s", channelName), e);
+    }
+  }
+
+  /**
+   * A route from a message type to an output channel.
+   *
+   * @author agent
+   */
+  private class Route implements MavlinkMessageListener {
+
+    /**
+     * The endpoint the messages come from.
+     */
+    private final MavlinkCommunicationEndpoint endpoint;
+
+    /**
+     * ID of the message.
+     */
+    private final int messageId;
+
+    /**
+     * Name of the output channel.
+     */
+    private final String channelName;
+
+    /**
+     * The minimum time between messages for a single system, in milliseconds.
+     */
+    private final long minimumInterval;
+
+    /**
+     * The time the last message was published for each system.
+     */
+    private final long[] lastPublishTimes = new long[256];
+
+    /**
+     * Construct a new route.
+     *
+     * @param endpoint
+     *          the endpoint the messages come from
+     * @param messageId
+     *          ID of the message
+     * @param channelName
+     *          name of the output channel
+     * @param minimumInterval
+     *          the minimum time between messages for a single system, in
+     *          milliseconds
+     */
+    public Route(MavlinkCommunicationEndpoint endpoint, int messageId, String channelName, long minimumInterval) {
+      this.endpoint = endpoint;
+      this.messageId = messageId;
+      this.channelName = channelName;
+      this.minimumInterval = minimumInterval;
+
+      for (int i = 0; i < lastPublishTimes.length; i++) {
+        lastPublishTimes[i] = Long.MIN_VALUE / 2;
+      }
+    }
+
+    @Override
+    public void onMavlinkMessage(MavlinkMessage message) {
+      if (minimumInterval > 0) {
+        long now = timeProvider.getCurrentTime();
+        int systemId = message.getSystemId();
+        if (now - lastPublishTimes[systemId] < minimumInterval) {
+          return;
+        }
+        lastPublishTimes[systemId] = now;
+      }
+
+      publish(channelName, message);
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink;
+
+/**
+ * Tracks MAVLink sequence numbers to find out how many frames have been lost.
+ *
+ * <p>
+ * Each component of each system numbers its frames separately. Tables for a
+ * system are only created once the system has been heard from.
+ *
+ * @author agent
+ */
+public class MavlinkSequenceTracker {
+
+  /**
+   * The number of possible system or component IDs.
+   */
+  private static final int NUMBER_IDS = 256;
+
+  /**
+   * The next expected sequence number, indexed by system and then component. A
+   * value of {@code -1} means nothing has been heard from the component yet.
+   */
+  private final int[][] expectedSequences = new int[NUMBER_IDS][];
+
+  /**
+   * The number of frames received from each system.
+   */
+  private final long[] numberReceived = new long[NUMBER_IDS];
+
+  /**
+   * The number of frames lost from each system.
+   */
+  private final long[] numberLost = new long[NUMBER_IDS];
+
+  /**
+   * A frame has been received.
+   *
+   * @param systemId
+   *          ID of the system which sent the frame
+   * @param componentId
+   *          ID of the component which sent the frame
+   * @param sequence
+   *          sequence number of the frame
+   *
+   * @return the number of frames lost since the last frame from the component
+   */
+  public int update(int systemId, int componentId, int sequence) {
+    int[] expected = expectedSequences[systemId];
+    if (expected == null) {
+      expected = new int[NUMBER_IDS];
+      for (int i = 0; i < NUMBER_IDS; i++) {
+        expected[i] = -1;
+      }
+      expectedSequences[systemId] = expected;
+    }
+
+    int lost = 0;
+    int expectedSequence = expected[componentId];
+    if (expectedSequence != -1) {
+      lost = (sequence - expectedSequence) & 0xff;
+    }
+    expected[componentId] = (sequence + 1) & 0xff;
+
+    numberReceived[systemId]++;
+    numberLost[systemId] += lost;
+
+    return lost;
+  }
+
+  /**
+   * Get the number of frames received from a system.
+   *
+   * @param systemId
+   *          ID of the system
+   *
+   * @return the number of frames
+   */
+  public long getNumberReceived(int systemId) {
+    return numberReceived[systemId];
+  }
+
+  /**
+   * Get the number of frames lost from a system.
+   *
+   * @param systemId
+   *          ID of the system
+   *
+   * @return the number of frames
+   */
+  public long getNumberLost(int systemId) {
+    return numberLost[systemId];
+  }
+
+  /**
+   * Get the fraction of frames from a system which have been lost.
+   *
+   * @param systemId
+   *          ID of the system
+   *
+   * @return the fraction lost, between {@code 0} and {@code 1}
+   */
+  public double getLossRate(int systemId) {
+    long total = numberReceived[systemId] + numberLost[systemId];
+    return (total > 0) ? (double) numberLost[systemId] / total : 0.0;
+  }
+
+  /**
+   * Forget everything which has been tracked.
+   */
+  public void reset() {
+    for (int i = 0; i < NUMBER_IDS; i++) {
+      expectedSequences[i] = null;
+      numberReceived[i] = 0;
+      numberLost[i] = 0;
+    }
+  }
+}
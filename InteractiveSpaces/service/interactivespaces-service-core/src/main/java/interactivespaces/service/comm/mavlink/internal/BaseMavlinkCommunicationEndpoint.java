@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink.internal;
+
+import interactivespaces.service.comm.mavlink.MavlinkCommunicationEndpoint;
+import interactivespaces.service.comm.mavlink.MavlinkDialect;
+import interactivespaces.service.comm.mavlink.MavlinkFrameParser;
+import interactivespaces.service.comm.mavlink.MavlinkMessage;
+import interactivespaces.service.comm.mavlink.MavlinkMessageListener;
+import interactivespaces.service.comm.mavlink.MavlinkMessageView;
+import interactivespaces.service.comm.mavlink.MavlinkMessageViewListener;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Support for MAVLink endpoints. Subclasses feed the bytes they receive to the
+ * {@link #parser}.
+ *
+ * @author agent
+ */
+public abstract class BaseMavlinkCommunicationEndpoint implements MavlinkCommunicationEndpoint {
+
+  /**
+   * The dialect for the messages.
+   */
+  private final MavlinkDialect dialect;
+
+  /**
+   * The dispatcher for the messages.
+   */
+  private final MavlinkMessageDispatcher dispatcher;
+
+  /**
+   * The parser for incoming bytes.
+   */
+  protected final MavlinkFrameParser parser;
+
+  /**
+   * The logger for the endpoint.
+   */
+  protected final Log log;
+
+  /**
+   * Construct a new endpoint.
+   *
+   * @param dialect
+   *          the dialect for the messages
+   * @param log
+   *          the logger for the endpoint
+   */
+  public BaseMavlinkCommunicationEndpoint(MavlinkDialect dialect, Log log) {
+    this.dialect = dialect;
+    this.log = log;
+
+    dispatcher = new MavlinkMessageDispatcher(log);
+    parser = new MavlinkFrameParser(dialect, dispatcher);
+  }
+
+  @Override
+  public MavlinkDialect getDialect() {
+    return dialect;
+  }
+
+  @Override
+  public void addMessageListener(MavlinkMessageListener listener) {
+    dispatcher.addListener(listener);
+  }
+
+  @Override
+  public void removeMessageListener(MavlinkMessageListener listener) {
+    dispatcher.removeListener(listener);
+  }
+
+  @Override
+  public void addMessageListener(int messageId, MavlinkMessageListener listener) {
+    dispatcher.addListener(messageId, listener);
+  }
+
+  @Override
+  public void removeMessageListener(int messageId, MavlinkMessageListener listener) {
+    dispatcher.removeListener(messageId, listener);
+  }
+
+  @Override
+  public <T extends MavlinkMessageView> MavlinkMessageListener addMessageViewListener(final T view,
+      final MavlinkMessageViewListener<T> listener) {
+    MavlinkMessageListener messageListener = new MavlinkMessageListener() {
+      @Override
+      public void onMavlinkMessage(MavlinkMessage message) {
+        view.wrap(message);
+        listener.onMavlinkMessage(view);
+      }
+    };
+    dispatcher.addListener(view.getMessageId(), messageListener);
+
+    return messageListener;
+  }
+
+  @Override
+  public long getNumberFrames() {
+    return parser.getNumberFrames();
+  }
+
+  @Override
+  public long getNumberBadFrames() {
+    return parser.getNumberBadFrames();
+  }
+
+  @Override
+  public long getNumberUnknownMessages() {
+    return parser.getNumberUnknownMessages();
+  }
+
+  @Override
+  public long getNumberFramesLost() {
+    return parser.getNumberFramesLost();
+  }
+
+  @Override
+  public double getLossRate(int systemId) {
+    return parser.getSequenceTracker().getLossRate(systemId);
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink.internal;
+
+import interactivespaces.service.BaseSupportedService;
+import interactivespaces.service.comm.mavlink.MavlinkCommunicationEndpoint;
+import interactivespaces.service.comm.mavlink.MavlinkCommunicationEndpointService;
+import interactivespaces.service.comm.mavlink.MavlinkDialect;
+import interactivespaces.service.comm.network.server.UdpServerNetworkCommunicationEndpointService;
+import interactivespaces.service.comm.serial.SerialCommunicationEndpoint;
+import interactivespaces.service.comm.serial.SerialCommunicationEndpointService;
+
+import org.apache.commons.logging.Log;
+
+import java.nio.ByteOrder;
+
+/**
+ * An Interactive Spaces implementation of the MAVLink endpoint service.
+ *
+ * @author agent
+ */
+public class InteractiveSpacesMavlinkCommunicationEndpointService extends BaseSupportedService implements
+    MavlinkCommunicationEndpointService {
+
+  @Override
+  public String getName() {
+    return SERVICE_NAME;
+  }
+
+  @Override
+  public MavlinkCommunicationEndpoint newUdpEndpoint(int localPort, MavlinkDialect dialect, Log log) {
+    UdpServerNetworkCommunicationEndpointService serverService =
+        getSpaceEnvironment().getServiceRegistry().getRequiredService(
+            UdpServerNetworkCommunicationEndpointService.SERVICE_NAME);
+
+    return new UdpMavlinkCommunicationEndpoint(serverService.newServer(localPort, ByteOrder.LITTLE_ENDIAN, log),
+        dialect, log);
+  }
+
+  @Override
+  public MavlinkCommunicationEndpoint newSerialEndpoint(String portName, int baud, MavlinkDialect dialect, Log log) {
+    SerialCommunicationEndpointService serialService =
+        getSpaceEnvironment().getServiceRegistry().getRequiredService(SerialCommunicationEndpointService.SERVICE_NAME);
+
+    SerialCommunicationEndpoint serialEndpoint = serialService.newSerialEndpoint(portName);
+    serialEndpoint.setBaud(baud);
+
+    return new SerialMavlinkCommunicationEndpoint(serialEndpoint, dialect, getSpaceEnvironment()
+        .getExecutorService(), log);
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink.internal;
+
+import interactivespaces.service.comm.mavlink.MavlinkDialect;
+import interactivespaces.service.comm.mavlink.MavlinkMessage;
+import interactivespaces.service.comm.mavlink.MavlinkMessageListener;
+
+import org.apache.commons.logging.Log;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Hands MAVLink messages to the listeners registered for them.
+ *
+ * <p>
+ * Listener lists are copied on write and looked up by message ID through a
+ * two level table, so dispatching a message neither locks nor allocates.
+ *
+ * @author agent
+ */
+public class MavlinkMessageDispatcher implements MavlinkMessageListener {
+
+  /**
+   * The number of bits of the message ID used to index the leaf tables.
+   */
+  private static final int LEAF_BITS = 12;
+
+  /**
+   * The size of a leaf table.
+   */
+  private static final int LEAF_SIZE = 1 << LEAF_BITS;
+
+  /**
+   * Mask for getting the leaf index from a message ID.
+   */
+  private static final int LEAF_MASK = LEAF_SIZE - 1;
+
+  /**
+   * An empty listener list.
+   */
+  private static final MavlinkMessageListener[] NO_LISTENERS = new MavlinkMessageListener[0];
+
+  /**
+   * Listeners for single message types, indexed first by the high bits of the
+   * message ID and then by the low bits.
+   */
+  private final AtomicReferenceArray<AtomicReferenceArray<MavlinkMessageListener[]>> listenersById =
+      new AtomicReferenceArray<AtomicReferenceArray<MavlinkMessageListener[]>>(
+          (MavlinkDialect.MESSAGE_ID_MAX >>> LEAF_BITS) + 1);
+
+  /**
+   * Listeners for all messages.
+   */
+  private volatile MavlinkMessageListener[] allMessageListeners = NO_LISTENERS;
+
+  /**
+   * The logger for listener errors.
+   */
+  private final Log log;
+
+  /**
+   * Construct a new dispatcher.
+   *
+   * @param log
+   *          the logger for listener errors
+   */
+  public MavlinkMessageDispatcher(Log log) {
+    this.log = log;
+  }
+
+  @Override
+  public void onMavlinkMessage(MavlinkMessage message) {
+    dispatch(allMessageListeners, message);
+
+    int messageId = message.getMessageId();
+    AtomicReferenceArray<MavlinkMessageListener[]> leaf = listenersById.get(messageId >>> LEAF_BITS);
+    if (leaf != null) {
+      MavlinkMessageListener[] listeners = leaf.get(messageId & LEAF_MASK);
+      if (listeners != null) {
+        dispatch(listeners, message);
+      }
+    }
+  }
+
+  /**
+   * Add a listener for all messages.
+   *
+   * @param listener
+   *          the listener to add
+   */
+  public synchronized void addListener(MavlinkMessageListener listener) {
+    allMessageListeners = addToList(allMessageListeners, listener);
+  }
+
+  /**
+   * Remove a listener for all messages.
+   *
+   * @param listener
+   *          the listener to remove
+   */
+  public synchronized void removeListener(MavlinkMessageListener listener) {
+    allMessageListeners = removeFromList(allMessageListeners, listener);
+  }
+
+  /**
+   * Add a listener for a single message type.
+   *
+   * @param messageId
+   *          ID of the message
+   * @param listener
+   *          the listener to add
+   */
+  public synchronized void addListener(int messageId, MavlinkMessageListener listener) {
+    AtomicReferenceArray<MavlinkMessageListener[]> leaf = listenersById.get(messageId >>> LEAF_BITS);
+    if (leaf == null) {
+      leaf = new AtomicReferenceArray<MavlinkMessageListener[]>(LEAF_SIZE);
+      listenersById.set(messageId >>> LEAF_BITS, leaf);
+    }
+
+    MavlinkMessageListener[] listeners = leaf.get(messageId & LEAF_MASK);
+    leaf.set(messageId & LEAF_MASK, addToList((listeners != null) ? listeners : NO_LISTENERS, listener));
+  }
+
+  /**
+   * Remove a listener for a single message type.
+   *
+   * @param messageId
+   *          ID of the message
+   * @param listener
+   *          the listener to remove
+   */
+  public synchronized void removeListener(int messageId, MavlinkMessageListener listener) {
+    AtomicReferenceArray<MavlinkMessageListener[]> leaf = listenersById.get(messageId >>> LEAF_BITS);
+    if (leaf != null) {
+      MavlinkMessageListener[] listeners = leaf.get(messageId & LEAF_MASK);
+      if (listeners != null) {
+        MavlinkMessageListener[] newListeners = removeFromList(listeners, listener);
+        leaf.set(messageId & LEAF_MASK, (newListeners.length > 0) ? newListeners : null);
+      }
+    }
+  }
+
+  /**
+   * Hand a message to a list of listeners.
+   *
+   * @param listeners
+   *          the listeners
+   * @param message
+   *          the message
+   */
+  private void dispatch(MavlinkMessageListener[] listeners, MavlinkMessage message) {
+    for (MavlinkMessageListener listener : listeners) {
+      try {
+        listener.onMavlinkMessage(message);
+      } catch (Throwable e) {
+        log.error(String.format("Error while handling MAVLink message %s", message.getDefinition().getName()), e);
+      }
+    }
+  }
+
+  /**
+   * Get a copy of a listener list with a listener added.
+   *
+   * @param listeners
+   *          the current list
+   * @param listener
+   *          the listener to add
+   *
+   * @return the new list
+   */
+  private static MavlinkMessageListener[] addToList(MavlinkMessageListener[] listeners,
+      MavlinkMessageListener listener) {
+    MavlinkMessageListener[] newListeners = new MavlinkMessageListener[listeners.length + 1];
+    System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+    newListeners[listeners.length] = listener;
+
+    return newListeners;
+  }
+
+  /**
+   * Get a copy of a listener list with a listener removed.
+   *
+   * @param listeners
+   *          the current list
+   * @param listener
+   *          the listener to remove
+   *
+   * @return the new list, or the current list if the listener wasn't in it
+   */
+  private static MavlinkMessageListener[] removeFromList(MavlinkMessageListener[] listeners,
+      MavlinkMessageListener listener) {
+    for (int i = 0; i < listeners.length; i++) {
+      if (listeners[i] == listener) {
+        MavlinkMessageListener[] newListeners = new MavlinkMessageListener[listeners.length - 1];
+        System.arraycopy(listeners, 0, newListeners, 0, i);
+        System.arraycopy(listeners, i + 1, newListeners, i, listeners.length - i - 1);
+
+        return newListeners;
+      }
+    }
+
+    return listeners;
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink.internal;
+
+import interactivespaces.service.comm.mavlink.MavlinkDialect;
+import interactivespaces.service.comm.serial.SerialCommunicationEndpoint;
+import interactivespaces.util.concurrency.CancellableLoop;
+
+import org.apache.commons.logging.Log;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * A MAVLink endpoint which reads frames from a serial port.
+ *
+ * @author agent
+ */
+public class SerialMavlinkCommunicationEndpoint extends BaseMavlinkCommunicationEndpoint {
+
+  /**
+   * The size of the read buffer.
+   */
+  public static final int READ_BUFFER_SIZE = 4096;
+
+  /**
+   * The serial endpoint the frames come in on.
+   */
+  private final SerialCommunicationEndpoint serialEndpoint;
+
+  /**
+   * The executor service for running the reader loop.
+   */
+  private final ScheduledExecutorService executorService;
+
+  /**
+   * The buffer bytes are read into.
+   */
+  private final byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+
+  /**
+   * Loop for reading from the serial port.
+   */
+  private CancellableLoop readerLoop;
+
+  /**
+   * Construct a new endpoint.
+   *
+   * @param serialEndpoint
+   *          the serial endpoint the frames come in on
+   * @param dialect
+   *          the dialect for the messages
+   * @param executorService
+   *          the executor service for running the reader loop
+   * @param log
+   *          the logger for the endpoint
+   */
+  public SerialMavlinkCommunicationEndpoint(SerialCommunicationEndpoint serialEndpoint, MavlinkDialect dialect,
+      ScheduledExecutorService executorService, Log log) {
+    super(dialect, log);
+    this.serialEndpoint = serialEndpoint;
+    this.executorService = executorService;
+  }
+
+  @Override
+  public void startup() {
+    log.info(String.format("Starting up MAVLink connection with serial connection %s", serialEndpoint));
+    serialEndpoint.startup();
+
+    readerLoop = new CancellableLoop() {
+      @Override
+      protected void loop() throws InterruptedException {
+        readBytes();
+      }
+
+      @Override
+      protected void handleException(Exception e) {
+        log.error("Error while reading MAVLink frames", e);
+      }
+
+      @Override
+      protected void cleanup() {
+        log.info("MAVLink serial connection read loop shut down");
+      }
+    };
+
+    executorService.submit(readerLoop);
+  }
+
+  @Override
+  public void shutdown() {
+    log.info(String.format("Shutting down MAVLink connection with serial connection %s", serialEndpoint));
+
+    if (readerLoop != null) {
+      readerLoop.cancel();
+      readerLoop = null;
+    }
+
+    serialEndpoint.shutdown();
+  }
+
+  /**
+   * Read whatever bytes are available and parse them.
+   */
+  private void readBytes() {
+    int numberRead = serialEndpoint.read(readBuffer, 0, readBuffer.length);
+    if (numberRead > 0) {
+      parser.parse(readBuffer, 0, numberRead);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "SerialMavlinkCommunicationEndpoint [serialEndpoint=" + serialEndpoint + "]";
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink.internal;
+
+import interactivespaces.service.comm.mavlink.MavlinkDialect;
+import interactivespaces.service.comm.network.server.UdpServerNetworkCommunicationEndpoint;
+import interactivespaces.service.comm.network.server.UdpServerNetworkCommunicationEndpointListener;
+import interactivespaces.service.comm.network.server.UdpServerRequest;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * A MAVLink endpoint which receives datagrams from a UDP server.
+ *
+ * <p>
+ * Frames are parsed straight out of the datagram bytes.
+ *
+ * @author agent
+ */
+public class UdpMavlinkCommunicationEndpoint extends BaseMavlinkCommunicationEndpoint {
+
+  /**
+   * The size of the socket receive buffer asked for. Telemetry arrives in
+   * bursts, so room for a few thousand frames keeps them from being dropped.
+   */
+  public static final int RECEIVE_BUFFER_SIZE = 4 * 1024 * 1024;
+
+  /**
+   * The UDP server the datagrams come in on.
+   */
+  private final UdpServerNetworkCommunicationEndpoint udpServer;
+
+  /**
+   * Construct a new endpoint.
+   *
+   * @param udpServer
+   *          the UDP server the datagrams come in on
+   * @param dialect
+   *          the dialect for the messages
+   * @param log
+   *          the logger for the endpoint
+   */
+  public UdpMavlinkCommunicationEndpoint(UdpServerNetworkCommunicationEndpoint udpServer, MavlinkDialect dialect,
+      Log log) {
+    super(dialect, log);
+    this.udpServer = udpServer;
+
+    udpServer.setReceiveBufferSize(RECEIVE_BUFFER_SIZE);
+
+    udpServer.addListener(new UdpServerNetworkCommunicationEndpointListener() {
+      @Override
+      public void onUdpRequest(UdpServerNetworkCommunicationEndpoint serverEndpoint, UdpServerRequest serverRequest) {
+        handleDatagram(serverRequest.getRequest());
+      }
+    });
+  }
+
+  @Override
+  public void startup() {
+    log.info(String.format("Starting up MAVLink UDP endpoint on port %d", udpServer.getServerPort()));
+    udpServer.startup();
+  }
+
+  @Override
+  public void shutdown() {
+    log.info(String.format("Shutting down MAVLink UDP endpoint on port %d", udpServer.getServerPort()));
+    udpServer.shutdown();
+  }
+
+  /**
+   * Handle a datagram.
+   *
+   * @param datagram
+   *          the bytes of the datagram
+   */
+  private void handleDatagram(byte[] datagram) {
+    try {
+      // The parser keeps state, so only one datagram can go through it at a
+      // time.
+      synchronized (parser) {
+        parser.parseDatagram(datagram, 0, datagram.length);
+      }
+    } catch (Throwable e) {
+      log.error("Error while handling MAVLink datagram", e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "UdpMavlinkCommunicationEndpoint [serverPort=" + udpServer.getServerPort() + "]";
+  }
+}
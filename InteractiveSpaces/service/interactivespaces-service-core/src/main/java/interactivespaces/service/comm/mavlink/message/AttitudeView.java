@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink.message;
+
+import interactivespaces.service.comm.mavlink.MavlinkMessageView;
+
+/**
+ * A view of the MAVLink {@code ATTITUDE} message.
+ *
+ * @author agent
+ */
+public class AttitudeView extends MavlinkMessageView {
+
+  /**
+   * ID of the message.
+   */
+  public static final int MESSAGE_ID = 30;
+
+  @Override
+  public int getMessageId() {
+    return MESSAGE_ID;
+  }
+
+  /**
+   * @return the time since system boot, in milliseconds
+   */
+  public long getTimeBootMs() {
+    return message.getUint32(0);
+  }
+
+  /**
+   * @return the roll angle, in radians
+   */
+  public float getRoll() {
+    return message.getFloat(4);
+  }
+
+  /**
+   * @return the pitch angle, in radians
+   */
+  public float getPitch() {
+    return message.getFloat(8);
+  }
+
+  /**
+   * @return the yaw angle, in radians
+   */
+  public float getYaw() {
+    return message.getFloat(12);
+  }
+
+  /**
+   * @return the roll angular speed, in radians per second
+   */
+  public float getRollspeed() {
+    return message.getFloat(16);
+  }
+
+  /**
+   * @return the pitch angular speed, in radians per second
+   */
+  public float getPitchspeed() {
+    return message.getFloat(20);
+  }
+
+  /**
+   * @return the yaw angular speed, in radians per second
+   */
+  public float getYawspeed() {
+    return message.getFloat(24);
+  }
+}
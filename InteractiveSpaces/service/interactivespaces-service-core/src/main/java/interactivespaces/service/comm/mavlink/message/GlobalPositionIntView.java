@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink.message;
+
+import interactivespaces.service.comm.mavlink.MavlinkMessageView;
+
+/**
+ * A view of the MAVLink {@code GLOBAL_POSITION_INT} message.
+ *
+ * @author agent
+ */
+public class GlobalPositionIntView extends MavlinkMessageView {
+
+  /**
+   * ID of the message.
+   */
+  public static final int MESSAGE_ID = 33;
+
+  @Override
+  public int getMessageId() {
+    return MESSAGE_ID;
+  }
+
+  /**
+   * The scale between raw latitudes and longitudes and degrees.
+   */
+  public static final double DEGREES_SCALE = 1.0e-7;
+
+  /**
+   * @return the time since system boot, in milliseconds
+   */
+  public long getTimeBootMs() {
+    return message.getUint32(0);
+  }
+
+  /**
+   * @return the latitude, in degrees times 10^7
+   */
+  public int getLat() {
+    return message.getInt32(4);
+  }
+
+  /**
+   * @return the latitude, in degrees
+   */
+  public double getLatitudeDegrees() {
+    return getLat() * DEGREES_SCALE;
+  }
+
+  /**
+   * @return the longitude, in degrees times 10^7
+   */
+  public int getLon() {
+    return message.getInt32(8);
+  }
+
+  /**
+   * @return the longitude, in degrees
+   */
+  public double getLongitudeDegrees() {
+    return getLon() * DEGREES_SCALE;
+  }
+
+  /**
+   * @return the altitude above mean sea level, in millimeters
+   */
+  public int getAlt() {
+    return message.getInt32(12);
+  }
+
+  /**
+   * @return the altitude above the home position, in millimeters
+   */
+  public int getRelativeAlt() {
+    return message.getInt32(16);
+  }
+
+  /**
+   * @return the ground speed to the north, in centimeters per second
+   */
+  public int getVx() {
+    return message.getInt16(20);
+  }
+
+  /**
+   * @return the ground speed to the east, in centimeters per second
+   */
+  public int getVy() {
+    return message.getInt16(22);
+  }
+
+  /**
+   * @return the ground speed downwards, in centimeters per second
+   */
+  public int getVz() {
+    return message.getInt16(24);
+  }
+
+  /**
+   * @return the heading, in hundredths of a degree, {@code 65535} if not known
+   */
+  public int getHdg() {
+    return message.getUint16(26);
+  }
+}
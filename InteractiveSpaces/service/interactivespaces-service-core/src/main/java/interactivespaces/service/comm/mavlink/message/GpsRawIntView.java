@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink.message;
+
+import interactivespaces.service.comm.mavlink.MavlinkMessageView;
+
+/**
+ * A view of the MAVLink {@code GPS_RAW_INT} message.
+ *
+ * @author agent
+ */
+public class GpsRawIntView extends MavlinkMessageView {
+
+  /**
+   * ID of the message.
+   */
+  public static final int MESSAGE_ID = 24;
+
+  @Override
+  public int getMessageId() {
+    return MESSAGE_ID;
+  }
+
+  /**
+   * The scale between raw latitudes and longitudes and degrees.
+   */
+  public static final double DEGREES_SCALE = 1.0e-7;
+
+  /**
+   * @return the timestamp, in microseconds
+   */
+  public long getTimeUsec() {
+    return message.getInt64(0);
+  }
+
+  /**
+   * @return the type of GPS fix
+   */
+  public int getFixType() {
+    return message.getUint8(28);
+  }
+
+  /**
+   * @return the latitude, in degrees times 10^7
+   */
+  public int getLat() {
+    return message.getInt32(8);
+  }
+
+  /**
+   * @return the latitude, in degrees
+   */
+  public double getLatitudeDegrees() {
+    return getLat() * DEGREES_SCALE;
+  }
+
+  /**
+   * @return the longitude, in degrees times 10^7
+   */
+  public int getLon() {
+    return message.getInt32(12);
+  }
+
+  /**
+   * @return the longitude, in degrees
+   */
+  public double getLongitudeDegrees() {
+    return getLon() * DEGREES_SCALE;
+  }
+
+  /**
+   * @return the altitude above mean sea level, in millimeters
+   */
+  public int getAlt() {
+    return message.getInt32(16);
+  }
+
+  /**
+   * @return the horizontal dilution of position, times 100
+   */
+  public int getEph() {
+    return message.getUint16(20);
+  }
+
+  /**
+   * @return the vertical dilution of position, times 100
+   */
+  public int getEpv() {
+    return message.getUint16(22);
+  }
+
+  /**
+   * @return the ground speed, in centimeters per second
+   */
+  public int getVel() {
+    return message.getUint16(24);
+  }
+
+  /**
+   * @return the course over ground, in hundredths of a degree
+   */
+  public int getCog() {
+    return message.getUint16(26);
+  }
+
+  /**
+   * @return the number of satellites visible
+   */
+  public int getSatellitesVisible() {
+    return message.getUint8(29);
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink.message;
+
+import interactivespaces.service.comm.mavlink.MavlinkMessageView;
+
+/**
+ * A view of the MAVLink {@code HEARTBEAT} message.
+ *
+ * @author agent
+ */
+public class HeartbeatView extends MavlinkMessageView {
+
+  /**
+   * ID of the message.
+   */
+  public static final int MESSAGE_ID = 0;
+
+  @Override
+  public int getMessageId() {
+    return MESSAGE_ID;
+  }
+
+  /**
+   * @return the type of the vehicle or component
+   */
+  public int getType() {
+    return message.getUint8(4);
+  }
+
+  /**
+   * @return the autopilot type
+   */
+  public int getAutopilot() {
+    return message.getUint8(5);
+  }
+
+  /**
+   * @return the system mode bit flags
+   */
+  public int getBaseMode() {
+    return message.getUint8(6);
+  }
+
+  /**
+   * @return the autopilot specific mode
+   */
+  public long getCustomMode() {
+    return message.getUint32(0);
+  }
+
+  /**
+   * @return the system status
+   */
+  public int getSystemStatus() {
+    return message.getUint8(7);
+  }
+
+  /**
+   * @return the MAVLink version the sender speaks
+   */
+  public int getMavlinkVersion() {
+    return message.getUint8(8);
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink.message;
+
+import interactivespaces.service.comm.mavlink.MavlinkMessageView;
+
+/**
+ * A view of the MAVLink {@code SYS_STATUS} message.
+ *
+ * @author agent
+ */
+public class SysStatusView extends MavlinkMessageView {
+
+  /**
+   * ID of the message.
+   */
+  public static final int MESSAGE_ID = 1;
+
+  @Override
+  public int getMessageId() {
+    return MESSAGE_ID;
+  }
+
+  /**
+   * @return bit flags of the sensors which are present
+   */
+  public long getOnboardControlSensorsPresent() {
+    return message.getUint32(0);
+  }
+
+  /**
+   * @return bit flags of the sensors which are enabled
+   */
+  public long getOnboardControlSensorsEnabled() {
+    return message.getUint32(4);
+  }
+
+  /**
+   * @return bit flags of the sensors which are healthy
+   */
+  public long getOnboardControlSensorsHealth() {
+    return message.getUint32(8);
+  }
+
+  /**
+   * @return the main loop load, in tenths of a percent
+   */
+  public int getLoad() {
+    return message.getUint16(12);
+  }
+
+  /**
+   * @return the battery voltage, in millivolts
+   */
+  public int getVoltageBattery() {
+    return message.getUint16(14);
+  }
+
+  /**
+   * @return the battery current, in centiamperes, {@code -1} if not known
+   */
+  public int getCurrentBattery() {
+    return message.getInt16(16);
+  }
+
+  /**
+   * @return the remaining battery energy, in percent, {@code -1} if not known
+   */
+  public int getBatteryRemaining() {
+    return message.getInt8(30);
+  }
+
+  /**
+   * @return the communication drop rate, in hundredths of a percent
+   */
+  public int getDropRateComm() {
+    return message.getUint16(18);
+  }
+
+  /**
+   * @return the number of communication errors
+   */
+  public int getErrorsComm() {
+    return message.getUint16(20);
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink.message;
+
+import interactivespaces.service.comm.mavlink.MavlinkMessageView;
+
+/**
+ * A view of the MAVLink {@code VFR_HUD} message.
+ *
+ * @author agent
+ */
+public class VfrHudView extends MavlinkMessageView {
+
+  /**
+   * ID of the message.
+   */
+  public static final int MESSAGE_ID = 74;
+
+  @Override
+  public int getMessageId() {
+    return MESSAGE_ID;
+  }
+
+  /**
+   * @return the airspeed, in meters per second
+   */
+  public float getAirspeed() {
+    return message.getFloat(0);
+  }
+
+  /**
+   * @return the ground speed, in meters per second
+   */
+  public float getGroundspeed() {
+    return message.getFloat(4);
+  }
+
+  /**
+   * @return the compass heading, in degrees
+   */
+  public int getHeading() {
+    return message.getInt16(16);
+  }
+
+  /**
+   * @return the throttle setting, in percent
+   */
+  public int getThrottle() {
+    return message.getUint16(18);
+  }
+
+  /**
+   * @return the altitude above mean sea level, in meters
+   */
+  public float getAlt() {
+    return message.getFloat(8);
+  }
+
+  /**
+   * @return the climb rate, in meters per second
+   */
+  public float getClimb() {
+    return message.getFloat(12);
+  }
+}
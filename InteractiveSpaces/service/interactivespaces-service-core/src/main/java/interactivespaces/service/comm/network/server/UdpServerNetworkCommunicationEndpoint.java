@@ -41,6 +41,20 @@ public interface UdpServerNetworkCommunicationEndpoint extends ManagedResource {
    */
   ByteOrder getByteOrder();
 
+  /**
+   * Set the size of the socket receive buffer. Larger buffers let the server
+   * ride out bursts of datagrams without dropping them.
+   *
+   * <p>
+   * Must be called before the endpoint is started. The operating system may
+   * limit the size.
+   *
+   * @param receiveBufferSize
+   *          the size of the buffer, in bytes, {@code 0} for the operating
+   *          system default
+   */
+  void setReceiveBufferSize(int receiveBufferSize);
+
   /**
    * Add a listener to the endpoint.
    *
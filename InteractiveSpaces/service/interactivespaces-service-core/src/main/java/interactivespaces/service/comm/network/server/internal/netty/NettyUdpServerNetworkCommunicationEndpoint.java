@@ -68,6 +68,12 @@ public class NettyUdpServerNetworkCommunicationEndpoint implements UdpServerNetw
    */
   private final ByteOrder byteOrder;
 
+  /**
+   * The size of the socket receive buffer, {@code 0} for the operating system
+   * default.
+   */
+  private int receiveBufferSize;
+
   /**
    * The bootstrap for the UDP client.
    */
@@ -136,6 +142,10 @@ public class NettyUdpServerNetworkCommunicationEndpoint implements UdpServerNetw
     // safe to send small packets in UDP.
     bootstrap.setOption("receiveBufferSizePredictorFactory", new FixedReceiveBufferSizePredictorFactory(BUFFER_SIZE));
 
+    if (receiveBufferSize > 0) {
+      bootstrap.setOption("receiveBufferSize", receiveBufferSize);
+    }
+
     // Bind to the port and start the service.
     bootstrap.bind(new InetSocketAddress(serverPort));
   }
@@ -153,6 +163,11 @@ public class NettyUdpServerNetworkCommunicationEndpoint implements UdpServerNetw
     return byteOrder;
   }
 
+  @Override
+  public void setReceiveBufferSize(int receiveBufferSize) {
+    this.receiveBufferSize = receiveBufferSize;
+  }
+
   @Override
   public void addListener(UdpServerNetworkCommunicationEndpointListener listener) {
     listeners.add(listener);
@@ -17,6 +17,7 @@
 package interactivespaces.service.core.internal.osgi;
 
 import interactivespaces.osgi.service.InteractiveSpacesServiceOsgiBundleActivator;
+import interactivespaces.service.comm.mavlink.internal.InteractiveSpacesMavlinkCommunicationEndpointService;
 import interactivespaces.service.comm.network.client.internal.netty.NettyTcpClientNetworkCommunicationEndpointService;
 import interactivespaces.service.comm.network.client.internal.netty.NettyUdpClientNetworkCommunicationEndpointService;
 import interactivespaces.service.comm.network.server.internal.netty.NettyTcpServerNetworkCommunicationEndpointService;
@@ -24,6 +25,7 @@ import interactivespaces.service.comm.network.server.internal.netty.NettyUdpServ
 import interactivespaces.service.comm.serial.xbee.internal.InteractiveSpacesXBeeCommunicationEndpointService;
 import interactivespaces.service.control.opensoundcontrol.internal.InteractiveSpacesOpenSoundControlClientCommunicationEndpointService;
 import interactivespaces.service.control.opensoundcontrol.internal.InteractiveSpacesOpenSoundControlServerCommunicationEndpointService;
+import interactivespaces.service.data.timeseries.internal.SimpleTimeSeriesService;
 
 /**
  * The Bundle Activator for the core InteractiveSpaces services.
@@ -46,5 +48,9 @@ public class ServicesCoreOsgiBundleActivator extends InteractiveSpacesServiceOsg
 
     registerNewInteractiveSpacesService(new InteractiveSpacesOpenSoundControlClientCommunicationEndpointService());
     registerNewInteractiveSpacesService(new InteractiveSpacesOpenSoundControlServerCommunicationEndpointService());
+
+    registerNewInteractiveSpacesService(new InteractiveSpacesMavlinkCommunicationEndpointService());
+
+    registerNewInteractiveSpacesService(new SimpleTimeSeriesService());
   }
 }
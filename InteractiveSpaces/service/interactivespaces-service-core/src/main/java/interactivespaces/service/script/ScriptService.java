@@ -39,6 +39,29 @@ public interface ScriptService extends SupportedService {
    */
   public static final String SERVICE_NAME = "scripting";
 
+  /**
+   * Configuration property giving the maximum number of compiled scripts
+   * cached per script engine.
+   */
+  public static final String CONFIGURATION_COMPILED_SCRIPT_CACHE_SIZE =
+      "interactivespaces.service.script.compiled.cache.size";
+
+  /**
+   * Default value for {@link #CONFIGURATION_COMPILED_SCRIPT_CACHE_SIZE}.
+   */
+  public static final int CONFIGURATION_DEFAULT_COMPILED_SCRIPT_CACHE_SIZE = 64;
+
+  /**
+   * Configuration property giving the maximum number of idle script engines
+   * pooled per language.
+   */
+  public static final String CONFIGURATION_ENGINE_POOL_SIZE = "interactivespaces.service.script.engine.pool.size";
+
+  /**
+   * Default value for {@link #CONFIGURATION_ENGINE_POOL_SIZE}.
+   */
+  public static final int CONFIGURATION_DEFAULT_ENGINE_POOL_SIZE = 4;
+
   /**
    * A set of empty bindings.
    */
@@ -145,6 +168,23 @@ public interface ScriptService extends SupportedService {
    */
   Script newScriptByExtension(String extension, ScriptSource scriptSource);
 
+  /**
+   * Prepare a script so that later runs of it start quickly.
+   *
+   * <p>
+   * Scripts in compilable languages are compiled and cached. Otherwise an
+   * engine for the language is warmed up.
+   *
+   * @param languageName
+   *          name of the script language
+   * @param scriptSource
+   *          the source of the script
+   *
+   * @throws InteractiveSpacesException
+   *           if the script could not compile
+   */
+  void prepareScriptByName(String languageName, ScriptSource scriptSource);
+
   /**
    * Create an {@link Activity} from the scripting language by its name.
    *
@@ -0,0 +1,357 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink;
+
+import interactivespaces.service.comm.mavlink.message.AttitudeView;
+import interactivespaces.service.comm.mavlink.message.GlobalPositionIntView;
+import interactivespaces.service.comm.mavlink.message.HeartbeatView;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * Tests for the {@link MavlinkFrameParser} and the dialect it uses.
+ *
+ * @author agent
+ */
+public class MavlinkFrameParserTest {
+
+  private MavlinkDialect dialect;
+  private List<String> received;
+  private MavlinkFrameParser parser;
+
+  @Before
+  public void setup() {
+    dialect = MavlinkDialect.newStandardDialect();
+    received = Lists.newArrayList();
+    parser = new MavlinkFrameParser(dialect, new MavlinkMessageListener() {
+      @Override
+      public void onMavlinkMessage(MavlinkMessage message) {
+        received.add(message.getDefinition().getName() + ":" + message.getSequence());
+      }
+    });
+  }
+
+  /**
+   * The CRC extras calculated from the definitions match the published ones.
+   */
+  @Test
+  public void testCrcExtras() {
+    int[][] expected = { { 0, 50 }, { 1, 124 }, { 2, 137 }, { 24, 24 }, { 30, 39 }, { 33, 104 }, { 74, 20 },
+        { 253, 83 } };
+    for (int[] e : expected) {
+      Assert.assertEquals(e[1], dialect.getMessageDefinition(e[0]).getCrcExtra());
+    }
+  }
+
+  /**
+   * Fields are laid out on the wire largest type first.
+   */
+  @Test
+  public void testWireOrder() {
+    MavlinkMessageDefinition heartbeat = dialect.getMessageDefinition("HEARTBEAT");
+    Assert.assertEquals(9, heartbeat.getMaximumLength());
+    Assert.assertEquals(0, heartbeat.getField("custom_mode").getOffset());
+    Assert.assertEquals(4, heartbeat.getField("type").getOffset());
+    Assert.assertEquals(8, heartbeat.getField("mavlink_version").getOffset());
+
+    Assert.assertEquals(30, dialect.getMessageDefinition("GPS_RAW_INT").getMaximumLength());
+    Assert.assertEquals(51, dialect.getMessageDefinition("STATUSTEXT").getMaximumLength());
+  }
+
+  /**
+   * A MAVLink 1 frame can be read through a typed view.
+   */
+  @Test
+  public void testVersion1View() {
+    MavlinkFrameWriter writer = new MavlinkFrameWriter(1, 1, MavlinkMessage.VERSION_1);
+    byte[] frame = new byte[MavlinkFrameParser.FRAME_LENGTH_MAX];
+    int length = writer.writeFrame(dialect.getMessageDefinition(AttitudeView.MESSAGE_ID), attitude(1234, 0.5f),
+        frame, 0);
+
+    final AttitudeView view = new AttitudeView();
+    final float[] roll = new float[1];
+    final long[] time = new long[1];
+    MavlinkFrameParser viewParser = new MavlinkFrameParser(dialect, new MavlinkMessageListener() {
+      @Override
+      public void onMavlinkMessage(MavlinkMessage message) {
+        view.wrap(message);
+        roll[0] = view.getRoll();
+        time[0] = view.getTimeBootMs();
+      }
+    });
+    viewParser.parseDatagram(frame, 0, length);
+
+    Assert.assertEquals(1, viewParser.getNumberFrames());
+    Assert.assertEquals(0.5f, roll[0], 0.0f);
+    Assert.assertEquals(1234, time[0]);
+  }
+
+  /**
+   * A MAVLink 2 frame with its trailing zeros removed reads the missing fields
+   * as zero.
+   */
+  @Test
+  public void testVersion2Truncated() {
+    MavlinkMessageDefinition definition = dialect.getMessageDefinition(GlobalPositionIntView.MESSAGE_ID);
+    ByteBuffer payload = ByteBuffer.allocate(definition.getMaximumLength()).order(ByteOrder.LITTLE_ENDIAN);
+    payload.putInt(0, 99).putInt(4, 374221234).putInt(8, -1220845678).putShort(20, (short) -15);
+
+    MavlinkFrameWriter writer = new MavlinkFrameWriter(7, 1, MavlinkMessage.VERSION_2);
+    byte[] frame = new byte[MavlinkFrameParser.FRAME_LENGTH_MAX];
+    int length = writer.writeFrame(definition, payload.array(), frame, 0);
+    Assert.assertEquals(22, frame[1]);
+
+    final GlobalPositionIntView view = new GlobalPositionIntView();
+    final double[] values = new double[4];
+    MavlinkFrameParser viewParser = new MavlinkFrameParser(dialect, new MavlinkMessageListener() {
+      @Override
+      public void onMavlinkMessage(MavlinkMessage message) {
+        view.wrap(message);
+        values[0] = view.getLatitudeDegrees();
+        values[1] = view.getVx();
+        values[2] = view.getVy();
+        values[3] = view.getHdg();
+      }
+    });
+    viewParser.parseDatagram(frame, 0, length);
+
+    Assert.assertEquals(1, viewParser.getNumberFrames());
+    Assert.assertEquals(37.4221234, values[0], 1e-9);
+    Assert.assertEquals(-15, values[1], 0.0);
+    Assert.assertEquals(0, values[2], 0.0);
+    Assert.assertEquals(0, values[3], 0.0);
+  }
+
+  /**
+   * A MAVLink 2 frame with extension fields from a newer dialect is read with
+   * the extensions dropped.
+   */
+  @Test
+  public void testVersion2UnknownExtensions() {
+    MavlinkDialect newer = new MavlinkDialect();
+    MavlinkMessageDefinition newerAttitude =
+        newer.addMessage(AttitudeView.MESSAGE_ID, "ATTITUDE", "uint32_t time_boot_ms", "float roll", "float pitch",
+            "float yaw", "float rollspeed", "float pitchspeed", "float yawspeed",
+            MavlinkDialect.FIELD_SPECIFICATION_EXTENSIONS, "float quality");
+    Assert.assertEquals(dialect.getMessageDefinition(AttitudeView.MESSAGE_ID).getCrcExtra(),
+        newerAttitude.getCrcExtra());
+
+    ByteBuffer payload = ByteBuffer.allocate(newerAttitude.getMaximumLength()).order(ByteOrder.LITTLE_ENDIAN);
+    payload.put(attitude(1234, 0.5f)).putFloat(28, 0.75f);
+
+    MavlinkFrameWriter writer = new MavlinkFrameWriter(1, 1, MavlinkMessage.VERSION_2);
+    byte[] frame = new byte[MavlinkFrameParser.FRAME_LENGTH_MAX];
+    int length = writer.writeFrame(newerAttitude, payload.array(), frame, 0);
+    Assert.assertEquals(32, frame[1]);
+
+    final AttitudeView view = new AttitudeView();
+    final float[] roll = new float[1];
+    final int[] payloadLength = new int[1];
+    MavlinkFrameParser viewParser = new MavlinkFrameParser(dialect, new MavlinkMessageListener() {
+      @Override
+      public void onMavlinkMessage(MavlinkMessage message) {
+        view.wrap(message);
+        roll[0] = view.getRoll();
+        payloadLength[0] = message.getPayloadLength();
+      }
+    });
+    viewParser.parseDatagram(frame, 0, length);
+
+    Assert.assertEquals(1, viewParser.getNumberFrames());
+    Assert.assertEquals(0, viewParser.getNumberBadFrames());
+    Assert.assertEquals(0.5f, roll[0], 0.0f);
+    Assert.assertEquals(28, payloadLength[0]);
+  }
+
+  /**
+   * Frames split across chunks at every possible point are all parsed.
+   */
+  @Test
+  public void testSplitAcrossChunks() {
+    byte[] stream = new byte[20000];
+    int length = writeMixedFrames(stream, 100);
+
+    int position = 0;
+    int chunk = 1;
+    while (position < length) {
+      int size = Math.min(chunk, length - position);
+      parser.parse(stream, position, size);
+      position += size;
+      chunk = (chunk % 41) + 1;
+    }
+
+    Assert.assertEquals(100, received.size());
+    for (int i = 0; i < received.size(); i++) {
+      Assert.assertTrue(received.get(i).endsWith(":" + i));
+    }
+    Assert.assertEquals(0, parser.getNumberBadFrames());
+    Assert.assertEquals(0, parser.getNumberFramesLost());
+  }
+
+  /**
+   * A frame with a bad CRC is dropped and the parser picks up at the next
+   * frame, even when garbage surrounds the frames.
+   */
+  @Test
+  public void testBadCrcResync() {
+    byte[] stream = new byte[2000];
+    stream[0] = 0x12;
+    stream[1] = (byte) MavlinkFrameParser.START_BYTE_VERSION_2;
+    stream[2] = 0x01;
+    int length = 3;
+    MavlinkFrameWriter writer = new MavlinkFrameWriter(1, 1, MavlinkMessage.VERSION_2);
+    MavlinkMessageDefinition definition = dialect.getMessageDefinition(AttitudeView.MESSAGE_ID);
+    int[] starts = new int[3];
+    for (int i = 0; i < starts.length; i++) {
+      starts[i] = length;
+      length += writer.writeFrame(definition, attitude(i + 1, i), stream, length);
+    }
+    stream[starts[1] + 12]++;
+
+    parser.parse(stream, 0, length);
+
+    Assert.assertEquals(2, received.size());
+    Assert.assertEquals("ATTITUDE:0", received.get(0));
+    Assert.assertEquals("ATTITUDE:2", received.get(1));
+    // The garbage start byte reads as a frame with unknown flags.
+    Assert.assertEquals(2, parser.getNumberBadFrames());
+    Assert.assertEquals(1, parser.getNumberFramesLost());
+  }
+
+  /**
+   * Frames for messages not in the dialect are skipped.
+   */
+  @Test
+  public void testUnknownMessageSkipped() {
+    MavlinkDialect other = new MavlinkDialect();
+    MavlinkMessageDefinition unknown = other.addMessage(147, "BATTERY_STATUS", "uint8_t id", "int32_t current");
+
+    byte[] stream = new byte[200];
+    MavlinkFrameWriter writer = new MavlinkFrameWriter(1, 1, MavlinkMessage.VERSION_2);
+    int length = writer.writeFrame(unknown, new byte[] { 1, 2, 3, 4, 5 }, stream, 0);
+    length += writer.writeFrame(dialect.getMessageDefinition(HeartbeatView.MESSAGE_ID), new byte[9], stream, length);
+
+    parser.parse(stream, 0, length);
+
+    Assert.assertEquals(1, received.size());
+    Assert.assertEquals("HEARTBEAT:1", received.get(0));
+    Assert.assertEquals(1, parser.getNumberUnknownMessages());
+  }
+
+  /**
+   * A signed MAVLink 2 frame has its signature skipped.
+   */
+  @Test
+  public void testSignedFrame() {
+    MavlinkMessageDefinition definition = dialect.getMessageDefinition(HeartbeatView.MESSAGE_ID);
+    byte[] stream = new byte[200];
+    MavlinkFrameWriter writer = new MavlinkFrameWriter(1, 1, MavlinkMessage.VERSION_2);
+    int length = writer.writeFrame(definition, new byte[] { 0, 0, 0, 0, 2, 3, 0, 0, 3 }, stream, 0);
+
+    stream[2] = MavlinkFrameParser.INCOMPATIBILITY_FLAG_SIGNED;
+    int crc = MavlinkCrc.accumulate(MavlinkCrc.CRC_INITIAL, stream, 1, length - 3);
+    crc = MavlinkCrc.accumulate(crc, definition.getCrcExtra());
+    stream[length - 2] = (byte) crc;
+    stream[length - 1] = (byte) (crc >>> 8);
+    length += MavlinkFrameParser.SIGNATURE_LENGTH;
+
+    length += writer.writeFrame(definition, new byte[9], stream, length);
+
+    parser.parse(stream, 0, length);
+
+    Assert.assertEquals(2, received.size());
+    Assert.assertEquals(0, parser.getNumberBytesDiscarded());
+  }
+
+  /**
+   * Gaps in the sequence numbers are counted as lost frames.
+   */
+  @Test
+  public void testSequenceLoss() {
+    MavlinkFrameWriter writer = new MavlinkFrameWriter(3, 1, MavlinkMessage.VERSION_1);
+    MavlinkMessageDefinition definition = dialect.getMessageDefinition(HeartbeatView.MESSAGE_ID);
+    byte[] frame = new byte[MavlinkFrameParser.FRAME_LENGTH_MAX];
+    for (int i = 0; i < 10; i++) {
+      int length = writer.writeFrame(definition, new byte[9], frame, 0);
+      if (i != 3 && i != 4) {
+        parser.parseDatagram(frame, 0, length);
+      }
+    }
+
+    Assert.assertEquals(8, parser.getSequenceTracker().getNumberReceived(3));
+    Assert.assertEquals(2, parser.getSequenceTracker().getNumberLost(3));
+    Assert.assertEquals(0.2, parser.getSequenceTracker().getLossRate(3), 1e-9);
+  }
+
+  /**
+   * Write a mix of frames of both versions.
+   *
+   * @param buffer
+   *          the buffer to write into
+   * @param numberFrames
+   *          the number of frames to write
+   *
+   * @return the number of bytes written
+   */
+  private int writeMixedFrames(byte[] buffer, int numberFrames) {
+    MavlinkFrameWriter writer1 = new MavlinkFrameWriter(1, 1, MavlinkMessage.VERSION_1);
+    MavlinkFrameWriter writer2 = new MavlinkFrameWriter(1, 1, MavlinkMessage.VERSION_2);
+    MavlinkMessageDefinition attitude = dialect.getMessageDefinition(AttitudeView.MESSAGE_ID);
+    MavlinkMessageDefinition heartbeat = dialect.getMessageDefinition(HeartbeatView.MESSAGE_ID);
+
+    int length = 0;
+    for (int i = 0; i < numberFrames; i++) {
+      // Keep the two writers on the same sequence numbers.
+      MavlinkFrameWriter writer = (i % 3 == 0) ? writer1 : writer2;
+      MavlinkFrameWriter other = (writer == writer1) ? writer2 : writer1;
+      if (i % 2 == 0) {
+        length += writer.writeFrame(attitude, attitude(i, i), buffer, length);
+        other.writeFrame(attitude, attitude(i, i), new byte[MavlinkFrameParser.FRAME_LENGTH_MAX], 0);
+      } else {
+        length += writer.writeFrame(heartbeat, new byte[] { 0, 0, 0, 0, 2, 3, 81, 4, 3 }, buffer, length);
+        other.writeFrame(heartbeat, new byte[9], new byte[MavlinkFrameParser.FRAME_LENGTH_MAX], 0);
+      }
+    }
+
+    return length;
+  }
+
+  /**
+   * Get an attitude payload.
+   *
+   * @param timeBootMs
+   *          the boot time
+   * @param roll
+   *          the roll
+   *
+   * @return the payload
+   */
+  private byte[] attitude(long timeBootMs, float roll) {
+    ByteBuffer payload = ByteBuffer.allocate(28).order(ByteOrder.LITTLE_ENDIAN);
+    payload.putInt(0, (int) timeBootMs).putFloat(4, roll).putFloat(8, 0.25f).putFloat(12, -1.0f);
+
+    return payload.array();
+  }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.comm.mavlink;
+
+import interactivespaces.service.comm.mavlink.internal.UdpMavlinkCommunicationEndpoint;
+import interactivespaces.service.comm.mavlink.message.AttitudeView;
+import interactivespaces.service.comm.mavlink.message.GlobalPositionIntView;
+import interactivespaces.service.comm.mavlink.message.GpsRawIntView;
+import interactivespaces.service.comm.mavlink.message.HeartbeatView;
+import interactivespaces.service.comm.mavlink.message.SysStatusView;
+import interactivespaces.service.comm.mavlink.message.VfrHudView;
+import interactivespaces.service.comm.network.server.internal.netty.NettyUdpServerNetworkCommunicationEndpointService;
+import interactivespaces.system.SimpleInteractiveSpacesEnvironment;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.impl.Jdk14Logger;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A harness for measuring MAVLink ingestion throughput.
+ *
+ * <p>
+ * A telemetry stream with the message mix of a typical autopilot is replayed,
+ * by default one frame per datagram the way autopilots send it. Telemetry
+ * routers often pack several frames into each datagram, which can be
+ * replayed as well.
+ * The stream is first parsed straight out of memory to measure the parser and
+ * dispatch alone, then sent over loopback UDP to a
+ * {@link UdpMavlinkCommunicationEndpoint} to measure the whole ingestion path.
+ *
+ * <p>
+ * Run with an optional number of frames to replay, an optional UDP send rate
+ * in datagrams per second and an optional number of frames per datagram.
+ *
+ * @author agent
+ */
+public class MavlinkUdpReplayHarness {
+
+  /**
+   * The default number of frames in the replayed stream.
+   */
+  public static final int NUMBER_FRAMES_DEFAULT = 1000000;
+
+  /**
+   * The default rate datagrams are sent over UDP, in datagrams per second.
+   */
+  public static final int SEND_RATE_DEFAULT = 150000;
+
+  /**
+   * The default number of frames in each datagram.
+   */
+  public static final int FRAMES_PER_DATAGRAM_DEFAULT = 1;
+
+  /**
+   * The number of times the stream is parsed when measuring the parser.
+   */
+  public static final int NUMBER_PARSE_ROUNDS = 5;
+
+  /**
+   * The port the UDP endpoint receives on.
+   */
+  public static final int UDP_PORT = 14551;
+
+  /**
+   * The dialect for the stream.
+   */
+  private final MavlinkDialect dialect = MavlinkDialect.newStandardDialect();
+
+  /**
+   * The datagrams of the stream.
+   */
+  private byte[][] datagrams;
+
+  /**
+   * The number of frames in the stream.
+   */
+  private int numberFrames;
+
+  /**
+   * Sum of values read from the messages, so the reads can't be optimized
+   * away.
+   */
+  private double checksum;
+
+  /**
+   * Run the harness.
+   *
+   * @param args
+   *          the number of frames, the UDP send rate and the number of frames
+   *          per datagram, all optional
+   *
+   * @throws Exception
+   *           something bad happened
+   */
+  public static void main(String[] args) throws Exception {
+    int numberFrames = (args.length > 0) ? Integer.parseInt(args[0]) : NUMBER_FRAMES_DEFAULT;
+    int sendRate = (args.length > 1) ? Integer.parseInt(args[1]) : SEND_RATE_DEFAULT;
+    int framesPerDatagram = (args.length > 2) ? Integer.parseInt(args[2]) : FRAMES_PER_DATAGRAM_DEFAULT;
+
+    MavlinkUdpReplayHarness harness = new MavlinkUdpReplayHarness();
+    harness.buildStream(numberFrames, framesPerDatagram);
+    harness.measureParser();
+    harness.measureUdp(sendRate);
+  }
+
+  /**
+   * Build the telemetry stream.
+   *
+   * <p>
+   * The mix follows the default ArduPilot stream rates: attitude at 10 Hz,
+   * position, GPS and HUD at 4 Hz, status and heartbeat at 1 Hz.
+   *
+   * @param numberFrames
+   *          the number of frames in the stream
+   * @param framesPerDatagram
+   *          the number of frames in each datagram
+   */
+  public void buildStream(int numberFrames, int framesPerDatagram) {
+    int[] schedule =
+        { AttitudeView.MESSAGE_ID, GlobalPositionIntView.MESSAGE_ID, AttitudeView.MESSAGE_ID,
+            GpsRawIntView.MESSAGE_ID, AttitudeView.MESSAGE_ID, VfrHudView.MESSAGE_ID, AttitudeView.MESSAGE_ID,
+            AttitudeView.MESSAGE_ID, GlobalPositionIntView.MESSAGE_ID, AttitudeView.MESSAGE_ID,
+            GpsRawIntView.MESSAGE_ID, AttitudeView.MESSAGE_ID, VfrHudView.MESSAGE_ID, AttitudeView.MESSAGE_ID,
+            AttitudeView.MESSAGE_ID, GlobalPositionIntView.MESSAGE_ID, GpsRawIntView.MESSAGE_ID,
+            VfrHudView.MESSAGE_ID, GlobalPositionIntView.MESSAGE_ID, GpsRawIntView.MESSAGE_ID,
+            VfrHudView.MESSAGE_ID, SysStatusView.MESSAGE_ID, HeartbeatView.MESSAGE_ID };
+
+    Random random = new Random(42);
+    MavlinkFrameWriter writer = new MavlinkFrameWriter(1, 1, MavlinkMessage.VERSION_2);
+    byte[] datagram = new byte[framesPerDatagram * MavlinkFrameParser.FRAME_LENGTH_MAX];
+    this.numberFrames = numberFrames;
+    datagrams = new byte[(numberFrames + framesPerDatagram - 1) / framesPerDatagram][];
+    for (int i = 0; i < datagrams.length; i++) {
+      int length = 0;
+      for (int j = i * framesPerDatagram; j < Math.min((i + 1) * framesPerDatagram, numberFrames); j++) {
+        MavlinkMessageDefinition definition = dialect.getMessageDefinition(schedule[j % schedule.length]);
+        byte[] payload = new byte[definition.getMaximumLength()];
+        random.nextBytes(payload);
+
+        length += writer.writeFrame(definition, payload, datagram, length);
+      }
+
+      datagrams[i] = new byte[length];
+      System.arraycopy(datagram, 0, datagrams[i], 0, length);
+    }
+  }
+
+  /**
+   * Measure parsing and dispatch straight out of memory.
+   */
+  public void measureParser() {
+    MavlinkFrameParser parser = new MavlinkFrameParser(dialect, newViewListener());
+
+    long best = Long.MAX_VALUE;
+    for (int round = 0; round < NUMBER_PARSE_ROUNDS; round++) {
+      long start = System.nanoTime();
+      for (byte[] datagram : datagrams) {
+        parser.parseDatagram(datagram, 0, datagram.length);
+      }
+      best = Math.min(best, System.nanoTime() - start);
+    }
+
+    System.out.format("Parse only: %d frames, %d bad, %.0f messages/sec, %.0f nsec/message%n",
+        parser.getNumberFrames(), parser.getNumberBadFrames(), numberFrames * 1.0e9 / best,
+        (double) best / numberFrames);
+  }
+
+  /**
+   * Measure the full path through a UDP endpoint.
+   *
+   * @param sendRate
+   *          the rate to send datagrams at, in datagrams per second
+   *
+   * @throws Exception
+   *           something bad happened
+   */
+  public void measureUdp(int sendRate) throws Exception {
+    Log log = new Jdk14Logger("mavlink");
+    ScheduledExecutorService threadPool = Executors.newScheduledThreadPool(10);
+    SimpleInteractiveSpacesEnvironment spaceEnvironment = new SimpleInteractiveSpacesEnvironment();
+    spaceEnvironment.setExecutorService(threadPool);
+
+    NettyUdpServerNetworkCommunicationEndpointService serverService =
+        new NettyUdpServerNetworkCommunicationEndpointService();
+    serverService.setSpaceEnvironment(spaceEnvironment);
+    serverService.startup();
+
+    UdpMavlinkCommunicationEndpoint endpoint =
+        new UdpMavlinkCommunicationEndpoint(serverService.newServer(UDP_PORT, ByteOrder.LITTLE_ENDIAN, log),
+            dialect, log);
+    final AtomicLong lastReceiveTime = new AtomicLong();
+    endpoint.addMessageListener(new MavlinkMessageListener() {
+      @Override
+      public void onMavlinkMessage(MavlinkMessage message) {
+        lastReceiveTime.lazySet(System.nanoTime());
+      }
+    });
+    addViewListeners(endpoint);
+    endpoint.startup();
+
+    DatagramSocket socket = new DatagramSocket();
+    InetAddress address = InetAddress.getByName("127.0.0.1");
+    DatagramPacket packet = new DatagramPacket(new byte[0], 0, address, UDP_PORT);
+
+    // Datagrams are sent in a batch every millisecond, parking in between so
+    // the sender doesn't starve the receiver of CPU.
+    int batchSize = Math.max(1, sendRate / 1000);
+    long start = System.nanoTime();
+    for (int i = 0; i < datagrams.length; i++) {
+      if (i % batchSize == 0) {
+        long delay = start + (i / batchSize) * 1000000L - System.nanoTime();
+        if (delay > 0) {
+          LockSupport.parkNanos(delay);
+        }
+      }
+
+      packet.setData(datagrams[i]);
+      socket.send(packet);
+    }
+    long sendTime = System.nanoTime() - start;
+
+    // Wait for the endpoint to go quiet.
+    Thread.sleep(500);
+    long receiveTime = lastReceiveTime.get() - start;
+
+    System.out.format("UDP: sent %d frames in %d datagrams at %.0f datagrams/sec, received %d frames (%d lost)"
+        + " at %.0f messages/sec%n", numberFrames, datagrams.length, datagrams.length * 1.0e9 / sendTime,
+        endpoint.getNumberFrames(), numberFrames - endpoint.getNumberFrames(), endpoint.getNumberFrames() * 1.0e9
+            / receiveTime);
+
+    socket.close();
+    endpoint.shutdown();
+    serverService.shutdown();
+    threadPool.shutdown();
+  }
+
+  /**
+   * Get a listener which reads every message through its typed view.
+   *
+   * @return the listener
+   */
+  private MavlinkMessageListener newViewListener() {
+    final AttitudeView attitude = new AttitudeView();
+    final GlobalPositionIntView position = new GlobalPositionIntView();
+    final GpsRawIntView gps = new GpsRawIntView();
+    final VfrHudView hud = new VfrHudView();
+
+    return new MavlinkMessageListener() {
+      @Override
+      public void onMavlinkMessage(MavlinkMessage message) {
+        switch (message.getMessageId()) {
+          case AttitudeView.MESSAGE_ID:
+            attitude.wrap(message);
+            checksum += attitude.getRoll() + attitude.getPitch() + attitude.getYaw();
+            break;
+          case GlobalPositionIntView.MESSAGE_ID:
+            position.wrap(message);
+            checksum += position.getLatitudeDegrees() + position.getLongitudeDegrees() + position.getRelativeAlt();
+            break;
+          case GpsRawIntView.MESSAGE_ID:
+            gps.wrap(message);
+            checksum += gps.getSatellitesVisible() + gps.getEph();
+            break;
+          case VfrHudView.MESSAGE_ID:
+            hud.wrap(message);
+            checksum += hud.getGroundspeed() + hud.getHeading();
+            break;
+          default:
+            checksum += message.getPayloadLength();
+        }
+      }
+    };
+  }
+
+  /**
+   * Add typed view listeners to an endpoint.
+   *
+   * @param endpoint
+   *          the endpoint
+   */
+  private void addViewListeners(MavlinkCommunicationEndpoint endpoint) {
+    endpoint.addMessageViewListener(new AttitudeView(), new MavlinkMessageViewListener<AttitudeView>() {
+      @Override
+      public void onMavlinkMessage(AttitudeView view) {
+        checksum += view.getRoll() + view.getPitch() + view.getYaw();
+      }
+    });
+    endpoint.addMessageViewListener(new GlobalPositionIntView(),
+        new MavlinkMessageViewListener<GlobalPositionIntView>() {
+          @Override
+          public void onMavlinkMessage(GlobalPositionIntView view) {
+            checksum += view.getLatitudeDegrees() + view.getLongitudeDegrees();
+          }
+        });
+  }
+
+  /**
+   * @return sum of values read from the messages
+   */
+  public double getChecksum() {
+    return checksum;
+  }
+}
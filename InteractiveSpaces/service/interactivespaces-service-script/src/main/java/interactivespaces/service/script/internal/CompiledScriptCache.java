@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.script.internal;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+/**
+ * A cache of {@link CompiledScript} instances for a single scripting language.
+ *
+ * <p>
+ * Scripts are keyed by a hash of their contents, so the same script text is
+ * only compiled once per engine no matter how many script sources it comes
+ * from. The least recently used scripts are evicted when the cache is full.
+ *
+ * <p>
+ * A compiled script belongs to the engine which compiled it. If the engine
+ * claims to be thread safe, a single engine compiles and evaluates every
+ * script. Otherwise engines are pooled: an evaluation borrows an engine, along
+ * with the scripts it has compiled, for just the time it runs, so scripts on
+ * different threads never share an engine and never wait on each other.
+ *
+ * @author agent
+ */
+public class CompiledScriptCache {
+
+  /**
+   * The JSR 223 engine parameter giving the threading model of the engine.
+   */
+  public static final String ENGINE_PARAMETER_THREADING = "THREADING";
+
+  /**
+   * The factory for new engines.
+   */
+  private final ScriptEngineFactory scriptEngineFactory;
+
+  /**
+   * The maximum number of compiled scripts to keep per engine.
+   */
+  private final int maxEntries;
+
+  /**
+   * The maximum number of idle engines to keep when engines are pooled.
+   */
+  private final int maxIdleEngines;
+
+  /**
+   * The engine used by everyone, {@code null} if engines are pooled.
+   */
+  private final ScriptCompiler sharedCompiler;
+
+  /**
+   * The idle engines when engines are pooled.
+   */
+  private final LinkedList<ScriptCompiler> idleCompilers = new LinkedList<ScriptCompiler>();
+
+  /**
+   * Number of lookups which found an already compiled script.
+   */
+  private final AtomicLong numberHits = new AtomicLong();
+
+  /**
+   * Number of lookups which required a compile.
+   */
+  private final AtomicLong numberMisses = new AtomicLong();
+
+  /**
+   * Construct a new cache.
+   *
+   * @param scriptEngineFactory
+   *          the factory for new engines, its engines must be
+   *          {@link Compilable}
+   * @param initialEngine
+   *          an engine already created by the factory, it will be the first
+   *          engine used
+   * @param maxEntries
+   *          the maximum number of compiled scripts to keep per engine
+   * @param maxIdleEngines
+   *          the maximum number of idle engines to keep if the engines are not
+   *          thread safe
+   */
+  public CompiledScriptCache(ScriptEngineFactory scriptEngineFactory, ScriptEngine initialEngine, int maxEntries,
+      int maxIdleEngines) {
+    this.scriptEngineFactory = scriptEngineFactory;
+    this.maxEntries = maxEntries;
+    this.maxIdleEngines = maxIdleEngines;
+
+    ScriptCompiler initialCompiler = new ScriptCompiler(initialEngine);
+    if (scriptEngineFactory.getParameter(ENGINE_PARAMETER_THREADING) != null) {
+      sharedCompiler = initialCompiler;
+    } else {
+      sharedCompiler = null;
+      idleCompilers.add(initialCompiler);
+    }
+  }
+
+  /**
+   * Get the cache key for script contents.
+   *
+   * @param contents
+   *          the contents of the script
+   *
+   * @return the key
+   */
+  public String getContentKey(String contents) {
+    return Hashing.sha1().hashString(contents, Charsets.UTF_8).toString();
+  }
+
+  /**
+   * Compile a script if it isn't already in the cache.
+   *
+   * <p>
+   * This both checks that the script compiles and makes sure the first
+   * evaluation doesn't have to wait for the compile.
+   *
+   * @param contents
+   *          the contents of the script
+   *
+   * @throws ScriptException
+   *           the script could not be compiled
+   */
+  public void prepare(String contents) throws ScriptException {
+    String key = getContentKey(contents);
+    ScriptCompiler compiler = borrowCompiler();
+    try {
+      compiler.getCompiledScript(key, contents);
+    } finally {
+      returnCompiler(compiler);
+    }
+  }
+
+  /**
+   * Evaluate a script, compiling it if the engine running it hasn't yet.
+   *
+   * <p>
+   * The bindings are copied so that anything the script sets at the top level
+   * does not leak back into the caller's map.
+   *
+   * @param key
+   *          the key for the script contents, from
+   *          {@link #getContentKey(String)}
+   * @param contents
+   *          the contents of the script
+   * @param bindings
+   *          the bindings for the script
+   *
+   * @return the result of the script
+   *
+   * @throws ScriptException
+   *           the script could not be compiled or failed
+   */
+  public Object eval(String key, String contents, Map<String, Object> bindings) throws ScriptException {
+    SimpleBindings scriptBindings = new SimpleBindings(Maps.newHashMap(bindings));
+    ScriptCompiler compiler = borrowCompiler();
+    try {
+      return compiler.getCompiledScript(key, contents).eval(scriptBindings);
+    } finally {
+      returnCompiler(compiler);
+    }
+  }
+
+  /**
+   * Evaluate a script, compiling it if the engine running it hasn't yet.
+   *
+   * @param contents
+   *          the contents of the script
+   * @param bindings
+   *          the bindings for the script
+   *
+   * @return the result of the script
+   *
+   * @throws ScriptException
+   *           the script could not be compiled or failed
+   */
+  public Object eval(String contents, Map<String, Object> bindings) throws ScriptException {
+    return eval(getContentKey(contents), contents, bindings);
+  }
+
+  /**
+   * Remove all compiled scripts and idle engines from the cache.
+   */
+  public void clear() {
+    if (sharedCompiler != null) {
+      sharedCompiler.clear();
+    } else {
+      synchronized (idleCompilers) {
+        idleCompilers.clear();
+      }
+    }
+  }
+
+  /**
+   * Is a single engine shared by all evaluations?
+   *
+   * @return {@code true} if the engine is thread safe and shared
+   */
+  public boolean isEngineShared() {
+    return sharedCompiler != null;
+  }
+
+  /**
+   * Get the number of idle engines when engines are pooled.
+   *
+   * @return the number of idle engines
+   */
+  public int getNumberIdleEngines() {
+    synchronized (idleCompilers) {
+      return idleCompilers.size();
+    }
+  }
+
+  /**
+   * Get the number of lookups which found an already compiled script.
+   *
+   * @return the number of hits
+   */
+  public long getNumberHits() {
+    return numberHits.get();
+  }
+
+  /**
+   * Get the number of lookups which required a compile.
+   *
+   * @return the number of misses
+   */
+  public long getNumberMisses() {
+    return numberMisses.get();
+  }
+
+  /**
+   * Get an engine to compile and run a script with.
+   *
+   * @return the compiler for the engine
+   *
+   * @throws ScriptException
+   *           a new engine was needed and could not be created
+   */
+  private ScriptCompiler borrowCompiler() throws ScriptException {
+    if (sharedCompiler != null) {
+      return sharedCompiler;
+    }
+
+    ScriptCompiler compiler;
+    synchronized (idleCompilers) {
+      compiler = idleCompilers.poll();
+    }
+    if (compiler == null) {
+      ScriptEngine engine = scriptEngineFactory.getScriptEngine();
+      if (!(engine instanceof Compilable)) {
+        throw new ScriptException(String.format("Could not create a compiling engine for %s",
+            scriptEngineFactory.getLanguageName()));
+      }
+      compiler = new ScriptCompiler(engine);
+    }
+
+    return compiler;
+  }
+
+  /**
+   * Return an engine borrowed with {@link #borrowCompiler()}.
+   *
+   * @param compiler
+   *          the compiler for the engine
+   */
+  private void returnCompiler(ScriptCompiler compiler) {
+    if (compiler == sharedCompiler) {
+      return;
+    }
+
+    synchronized (idleCompilers) {
+      if (idleCompilers.size() < maxIdleEngines) {
+        idleCompilers.addFirst(compiler);
+      }
+    }
+  }
+
+  /**
+   * An engine and the scripts it has compiled.
+   *
+   * @author agent
+   */
+  private class ScriptCompiler {
+
+    /**
+     * The engine which compiles the scripts.
+     */
+    private final ScriptEngine engine;
+
+    /**
+     * The compiled scripts, keyed by the hash of their contents, in access
+     * order.
+     */
+    private final Map<String, CompiledScript> scripts;
+
+    /**
+     * Construct a new compiler.
+     *
+     * @param engine
+     *          the engine which compiles the scripts
+     */
+    public ScriptCompiler(ScriptEngine engine) {
+      this.engine = engine;
+
+      scripts = new LinkedHashMap<String, CompiledScript>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledScript> eldest) {
+          return size() > maxEntries;
+        }
+      };
+    }
+
+    /**
+     * Get the compiled form of a script, compiling it if necessary.
+     *
+     * @param key
+     *          the key for the script contents
+     * @param contents
+     *          the contents of the script
+     *
+     * @return the compiled script
+     *
+     * @throws ScriptException
+     *           the script could not be compiled
+     */
+    public synchronized CompiledScript getCompiledScript(String key, String contents) throws ScriptException {
+      CompiledScript script = scripts.get(key);
+      if (script != null) {
+        numberHits.incrementAndGet();
+        return script;
+      }
+
+      numberMisses.incrementAndGet();
+      script = ((Compilable) engine).compile(contents);
+      scripts.put(key, script);
+
+      return script;
+    }
+
+    /**
+     * Remove all compiled scripts.
+     */
+    public synchronized void clear() {
+      scripts.clear();
+    }
+  }
+}
@@ -22,56 +22,107 @@ import interactivespaces.service.script.ScriptSource;
 
 import java.util.Map;
 
-import javax.script.Bindings;
-import javax.script.Compilable;
-import javax.script.CompiledScript;
 import javax.script.ScriptException;
-import javax.script.SimpleBindings;
 
 /**
  * A {@link Script} for compiled scripts.
  *
+ * <p>
+ * The compiled form comes from a {@link CompiledScriptCache}, so the script is
+ * compiled once and reused across invocations until its source changes.
+ *
  * @author Keith M. Hughes
  */
 public class CompiledScriptScript implements Script {
 
   /**
-   * The engine for compiling the scripts.
+   * The cache which compiles and holds the scripts.
    */
-  private Compilable compileEngine;
+  private final CompiledScriptCache scriptCache;
 
   /**
    * Source for the script.
    */
-  private ScriptSource scriptSource;
+  private final ScriptSource scriptSource;
 
   /**
-   * The compiled script.
+   * The current contents of the script and their cache key.
    */
-  private CompiledScript script;
+  private volatile ScriptContents contents;
 
-  public CompiledScriptScript(Compilable compileEngine, ScriptSource scriptSource) {
+  /**
+   * Construct a new compiled script.
+   *
+   * @param scriptCache
+   *          the cache which compiles and holds the scripts
+   * @param scriptSource
+   *          the source for the script
+   */
+  public CompiledScriptScript(CompiledScriptCache scriptCache, ScriptSource scriptSource) {
+    this.scriptCache = scriptCache;
     this.scriptSource = scriptSource;
 
     try {
-      script = compileEngine.compile(scriptSource.getScriptContents());
+      contents = readContents();
+      scriptCache.prepare(contents.text);
     } catch (ScriptException e) {
       throw new InteractiveSpacesException("Could not compile script", e);
     }
-
   }
 
   @Override
   public Object eval(Map<String, Object> bindings) {
-    Bindings myBindings = new SimpleBindings(bindings);
     try {
       if (scriptSource.isModified()) {
-        script = compileEngine.compile(scriptSource.getScriptContents());
+        contents = readContents();
       }
 
-      return script.eval(myBindings);
+      ScriptContents current = contents;
+      return scriptCache.eval(current.key, current.text, bindings);
     } catch (ScriptException e) {
       throw new InteractiveSpacesException("Could not evaluate script", e);
     }
   }
+
+  /**
+   * Read the contents of the script from its source.
+   *
+   * @return the contents
+   */
+  private ScriptContents readContents() {
+    String text = scriptSource.getScriptContents();
+
+    return new ScriptContents(text, scriptCache.getContentKey(text));
+  }
+
+  /**
+   * The text of a script and its cache key.
+   *
+   * @author Keith M. Hughes
+   */
+  private static class ScriptContents {
+
+    /**
+     * The text of the script.
+     */
+    private final String text;
+
+    /**
+     * The cache key for the text.
+     */
+    private final String key;
+
+    /**
+     * Construct new script contents.
+     *
+     * @param text
+     *          the text of the script
+     * @param key
+     *          the cache key for the text
+     */
+    public ScriptContents(String text, String key) {
+      this.text = text;
+      this.key = key;
+    }
+  }
 }
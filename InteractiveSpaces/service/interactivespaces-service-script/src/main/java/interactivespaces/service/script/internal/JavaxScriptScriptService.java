@@ -42,16 +42,18 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.script.Compilable;
-import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
-import javax.script.SimpleBindings;
 
 /**
  * An {@link ScriptService} using {@code javax.script}.
  *
+ * <p>
+ * Scripts in languages which can be compiled are compiled once and cached by
+ * content. Engines for other languages are pooled and reused.
+ *
  * @author Keith M. Hughes
  */
 public class JavaxScriptScriptService extends BaseSupportedService implements ScriptService {
@@ -71,6 +73,16 @@ public class JavaxScriptScriptService extends BaseSupportedService implements Sc
    */
   private final Map<String, ScriptLanguage> extensionToLanguage = Maps.newHashMap();
 
+  /**
+   * The maximum number of compiled scripts to cache per language.
+   */
+  private int compiledScriptCacheSize = CONFIGURATION_DEFAULT_COMPILED_SCRIPT_CACHE_SIZE;
+
+  /**
+   * The maximum number of idle engines to pool per language.
+   */
+  private int enginePoolSize = CONFIGURATION_DEFAULT_ENGINE_POOL_SIZE;
+
   @Override
   public String getName() {
     return ScriptService.SERVICE_NAME;
@@ -78,6 +90,13 @@ public class JavaxScriptScriptService extends BaseSupportedService implements Sc
 
   @Override
   public void startup() {
+    Configuration systemConfiguration = getSpaceEnvironment().getSystemConfiguration();
+    compiledScriptCacheSize =
+        systemConfiguration.getPropertyInteger(CONFIGURATION_COMPILED_SCRIPT_CACHE_SIZE,
+            CONFIGURATION_DEFAULT_COMPILED_SCRIPT_CACHE_SIZE);
+    enginePoolSize =
+        systemConfiguration.getPropertyInteger(CONFIGURATION_ENGINE_POOL_SIZE, CONFIGURATION_DEFAULT_ENGINE_POOL_SIZE);
+
     final ClassLoader oldClassLoader = Thread.currentThread().getContextClassLoader();
     Thread.currentThread().setContextClassLoader(null);
     try {
@@ -105,6 +124,13 @@ public class JavaxScriptScriptService extends BaseSupportedService implements Sc
     }
   }
 
+  @Override
+  public void shutdown() {
+    for (ScriptLanguage language : languages) {
+      language.clear();
+    }
+  }
+
   /**
    * Register a new scripting engine factory with the factory.
    *
@@ -117,7 +143,8 @@ public class JavaxScriptScriptService extends BaseSupportedService implements Sc
    */
   private void registerLanguage(String languageName, ScriptEngineFactory scriptEngineFactory,
       ActivityScriptFactory activityScriptFactory) {
-    ScriptLanguage language = new ScriptLanguage(scriptEngineFactory, activityScriptFactory);
+    ScriptLanguage language =
+        new ScriptLanguage(scriptEngineFactory, activityScriptFactory, compiledScriptCacheSize, enginePoolSize);
     languages.add(language);
 
     nameToLanguage.put(scriptEngineFactory.getLanguageName(), language);
@@ -199,14 +226,22 @@ public class JavaxScriptScriptService extends BaseSupportedService implements Sc
     final ClassLoader oldClassLoader = Thread.currentThread().getContextClassLoader();
     Thread.currentThread().setContextClassLoader(JavaxScriptScriptService.class.getClassLoader());
     try {
-      ScriptEngine engine = factory.getScriptEngine();
-      if (engine != null) {
-        engine.setBindings(new SimpleBindings(bindings), ScriptContext.GLOBAL_SCOPE);
-
-        engine.eval(scriptSource.getScriptContents());
+      CompiledScriptCache scriptCache = scriptLanguage.getCompiledScriptCache();
+      if (scriptCache != null) {
+        scriptCache.eval(scriptSource.getScriptContents(), bindings);
+      } else {
+        ScriptEnginePool enginePool = scriptLanguage.getScriptEnginePool();
+        ScriptEngine engine = enginePool.borrowEngine(bindings);
+        try {
+          if (engine != null) {
+            engine.eval(scriptSource.getScriptContents());
+          }
+        } finally {
+          enginePool.returnEngine(engine);
+        }
       }
     } catch (ScriptException ex) {
-      ex.printStackTrace();
+      getSpaceEnvironment().getLog().error(String.format("Error running script for %s %s", idType, languageId), ex);
     } finally {
       Thread.currentThread().setContextClassLoader(oldClassLoader);
     }
@@ -250,11 +285,42 @@ public class JavaxScriptScriptService extends BaseSupportedService implements Sc
    * @return the script
    */
   private Script newScript(ScriptLanguage scriptLanguage, ScriptSource scriptSource) {
-    ScriptEngine engine = scriptLanguage.getScriptEngineFactory().getScriptEngine();
-    if (engine instanceof Compilable) {
-      return new CompiledScriptScript((Compilable) engine, scriptSource);
-    } else {
-      return new ScriptEngineScript(engine, scriptSource);
+    final ClassLoader oldClassLoader = Thread.currentThread().getContextClassLoader();
+    Thread.currentThread().setContextClassLoader(JavaxScriptScriptService.class.getClassLoader());
+    try {
+      CompiledScriptCache scriptCache = scriptLanguage.getCompiledScriptCache();
+      if (scriptCache != null) {
+        return new CompiledScriptScript(scriptCache, scriptSource);
+      } else {
+        return new ScriptEngineScript(scriptLanguage.getScriptEngineFactory().getScriptEngine(), scriptSource);
+      }
+    } finally {
+      Thread.currentThread().setContextClassLoader(oldClassLoader);
+    }
+  }
+
+  @Override
+  public void prepareScriptByName(String languageName, ScriptSource scriptSource) {
+    ScriptLanguage scriptLanguage = nameToLanguage.get(languageName);
+    if (scriptLanguage == null) {
+      throw new SimpleInteractiveSpacesException(String.format("Unable to find a script engine for language %s",
+          languageName));
+    }
+
+    final ClassLoader oldClassLoader = Thread.currentThread().getContextClassLoader();
+    Thread.currentThread().setContextClassLoader(JavaxScriptScriptService.class.getClassLoader());
+    try {
+      CompiledScriptCache scriptCache = scriptLanguage.getCompiledScriptCache();
+      if (scriptCache != null) {
+        scriptCache.prepare(scriptSource.getScriptContents());
+      } else {
+        scriptLanguage.getScriptEnginePool().prewarm(1);
+      }
+    } catch (ScriptException e) {
+      throw new InteractiveSpacesException(String.format("Could not compile script for language %s", languageName),
+          e);
+    } finally {
+      Thread.currentThread().setContextClassLoader(oldClassLoader);
     }
   }
 
@@ -335,6 +401,35 @@ public class JavaxScriptScriptService extends BaseSupportedService implements Sc
      */
     private final ActivityScriptFactory activityScriptFactory;
 
+    /**
+     * The pool of engines for the language.
+     */
+    private final ScriptEnginePool scriptEnginePool;
+
+    /**
+     * The maximum number of compiled scripts to cache per engine.
+     */
+    private final int compiledScriptCacheSize;
+
+    /**
+     * The maximum number of idle engines to pool.
+     */
+    private final int enginePoolSize;
+
+    /**
+     * The cache of compiled scripts, created on first use.
+     *
+     * <p>
+     * Is {@code null} until first use, or always if the language can't be
+     * compiled.
+     */
+    private CompiledScriptCache compiledScriptCache;
+
+    /**
+     * {@code true} if the language has been checked for being compilable.
+     */
+    private boolean compilableChecked;
+
     /**
      * Construct a script language.
      *
@@ -342,10 +437,59 @@ public class JavaxScriptScriptService extends BaseSupportedService implements Sc
      *          the script engine factory for the language
      * @param activityScriptFactory
      *          the activity script factory for the language
+     * @param compiledScriptCacheSize
+     *          the maximum number of compiled scripts to cache
+     * @param enginePoolSize
+     *          the maximum number of idle engines to pool
      */
-    public ScriptLanguage(ScriptEngineFactory scriptEngineFactory, ActivityScriptFactory activityScriptFactory) {
+    public ScriptLanguage(ScriptEngineFactory scriptEngineFactory, ActivityScriptFactory activityScriptFactory,
+        int compiledScriptCacheSize, int enginePoolSize) {
       this.scriptEngineFactory = scriptEngineFactory;
       this.activityScriptFactory = activityScriptFactory;
+      this.compiledScriptCacheSize = compiledScriptCacheSize;
+      this.enginePoolSize = enginePoolSize;
+      this.scriptEnginePool = new ScriptEnginePool(scriptEngineFactory, enginePoolSize);
+    }
+
+    /**
+     * Get the cache of compiled scripts for the language.
+     *
+     * <p>
+     * The first call creates an engine to check whether the language can be
+     * compiled, that engine then becomes the first one the cache uses.
+     *
+     * @return the cache, or {@code null} if the language can't be compiled
+     */
+    public synchronized CompiledScriptCache getCompiledScriptCache() {
+      if (!compilableChecked) {
+        ScriptEngine compileEngine = scriptEngineFactory.getScriptEngine();
+        if (compileEngine instanceof Compilable) {
+          compiledScriptCache =
+              new CompiledScriptCache(scriptEngineFactory, compileEngine, compiledScriptCacheSize, enginePoolSize);
+        }
+        compilableChecked = true;
+      }
+
+      return compiledScriptCache;
+    }
+
+    /**
+     * Get the pool of engines for the language.
+     *
+     * @return the engine pool
+     */
+    public ScriptEnginePool getScriptEnginePool() {
+      return scriptEnginePool;
+    }
+
+    /**
+     * Release all cached scripts and pooled engines.
+     */
+    public synchronized void clear() {
+      if (compiledScriptCache != null) {
+        compiledScriptCache.clear();
+      }
+      scriptEnginePool.clear();
     }
 
     /**
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.script.internal;
+
+import java.util.LinkedList;
+import java.util.Map;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.SimpleBindings;
+
+/**
+ * A pool of warmed {@link ScriptEngine} instances for a single scripting
+ * language.
+ *
+ * <p>
+ * Engines are handed out to one user at a time. Their bindings are reset when
+ * they are returned so no state carries over from one script to the next.
+ *
+ * @author agent
+ */
+public class ScriptEnginePool {
+
+  /**
+   * The factory for new engines.
+   */
+  private final ScriptEngineFactory scriptEngineFactory;
+
+  /**
+   * The maximum number of idle engines to keep.
+   */
+  private final int maxIdleEngines;
+
+  /**
+   * The idle engines.
+   */
+  private final LinkedList<ScriptEngine> idleEngines = new LinkedList<ScriptEngine>();
+
+  /**
+   * Construct a new pool.
+   *
+   * @param scriptEngineFactory
+   *          the factory for new engines
+   * @param maxIdleEngines
+   *          the maximum number of idle engines to keep
+   */
+  public ScriptEnginePool(ScriptEngineFactory scriptEngineFactory, int maxIdleEngines) {
+    this.scriptEngineFactory = scriptEngineFactory;
+    this.maxIdleEngines = maxIdleEngines;
+  }
+
+  /**
+   * Get an engine from the pool, creating one if none are idle.
+   *
+   * @param bindings
+   *          the global bindings for the engine
+   *
+   * @return the engine, or {@code null} if the factory could not create one
+   */
+  public ScriptEngine borrowEngine(Map<String, Object> bindings) {
+    ScriptEngine engine;
+    synchronized (idleEngines) {
+      engine = idleEngines.poll();
+    }
+    if (engine == null) {
+      engine = scriptEngineFactory.getScriptEngine();
+    }
+
+    if (engine != null) {
+      engine.setBindings(new SimpleBindings(bindings), ScriptContext.GLOBAL_SCOPE);
+    }
+
+    return engine;
+  }
+
+  /**
+   * Return an engine to the pool.
+   *
+   * @param engine
+   *          the engine being returned, can be {@code null}
+   */
+  public void returnEngine(ScriptEngine engine) {
+    if (engine == null) {
+      return;
+    }
+
+    engine.setBindings(new SimpleBindings(), ScriptContext.GLOBAL_SCOPE);
+    engine.setBindings(engine.createBindings(), ScriptContext.ENGINE_SCOPE);
+
+    synchronized (idleEngines) {
+      if (idleEngines.size() < maxIdleEngines) {
+        idleEngines.add(engine);
+      }
+    }
+  }
+
+  /**
+   * Create engines until the pool has the requested number idle.
+   *
+   * @param numberEngines
+   *          the number of idle engines wanted, capped by the pool maximum
+   */
+  public void prewarm(int numberEngines) {
+    int target = Math.min(numberEngines, maxIdleEngines);
+    while (getNumberIdleEngines() < target) {
+      ScriptEngine engine = scriptEngineFactory.getScriptEngine();
+      if (engine == null) {
+        return;
+      }
+
+      synchronized (idleEngines) {
+        idleEngines.add(engine);
+      }
+    }
+  }
+
+  /**
+   * Get the number of idle engines in the pool.
+   *
+   * @return the number of idle engines
+   */
+  public int getNumberIdleEngines() {
+    synchronized (idleEngines) {
+      return idleEngines.size();
+    }
+  }
+
+  /**
+   * Drop all idle engines.
+   */
+  public void clear() {
+    synchronized (idleEngines) {
+      idleEngines.clear();
+    }
+  }
+}
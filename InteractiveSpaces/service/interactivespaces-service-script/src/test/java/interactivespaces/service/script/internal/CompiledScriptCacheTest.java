@@ -0,0 +1,306 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.script.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import interactivespaces.service.script.ScriptSource;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.script.ScriptException;
+
+/**
+ * Tests for the {@link CompiledScriptCache} and {@link CompiledScriptScript}.
+ *
+ * @author agent
+ */
+public class CompiledScriptCacheTest {
+
+  /**
+   * A script is compiled the first time it is seen and then reused.
+   */
+  @Test
+  public void testHitAndMiss() throws Exception {
+    FakeCompilingScriptEngineFactory factory = new FakeCompilingScriptEngineFactory(true);
+    CompiledScriptCache cache = newCache(factory, 10, 2);
+
+    assertEquals("a:1", cache.eval("a", bindings(1)));
+    assertEquals(0, cache.getNumberHits());
+    assertEquals(1, cache.getNumberMisses());
+
+    assertEquals("a:2", cache.eval("a", bindings(2)));
+    assertEquals(1, cache.getNumberHits());
+    assertEquals(1, cache.getNumberMisses());
+
+    assertEquals("b:3", cache.eval("b", bindings(3)));
+    assertEquals(2, cache.getNumberMisses());
+    assertEquals(2, factory.getNumberCompiles());
+  }
+
+  /**
+   * The least recently used script is evicted when the cache is full.
+   */
+  @Test
+  public void testEviction() throws Exception {
+    FakeCompilingScriptEngineFactory factory = new FakeCompilingScriptEngineFactory(true);
+    CompiledScriptCache cache = newCache(factory, 2, 2);
+
+    cache.eval("a", bindings(1));
+    cache.eval("b", bindings(1));
+    cache.eval("a", bindings(1));
+    cache.eval("c", bindings(1));
+
+    // b was the least recently used, a is still there.
+    cache.eval("a", bindings(1));
+    assertEquals(3, factory.getNumberCompiles());
+
+    cache.eval("b", bindings(1));
+    assertEquals(4, factory.getNumberCompiles());
+  }
+
+  /**
+   * Preparing a script compiles it so the first evaluation is a hit, and a
+   * script which doesn't compile is reported.
+   */
+  @Test
+  public void testPrepare() throws Exception {
+    FakeCompilingScriptEngineFactory factory = new FakeCompilingScriptEngineFactory(true);
+    CompiledScriptCache cache = newCache(factory, 10, 2);
+
+    cache.prepare("a");
+    assertEquals(1, factory.getNumberCompiles());
+
+    cache.eval("a", bindings(1));
+    assertEquals(1, cache.getNumberHits());
+
+    try {
+      cache.prepare("syntax error");
+      throw new AssertionError("Script should not have compiled");
+    } catch (ScriptException e) {
+      // Expected
+    }
+  }
+
+  /**
+   * Bindings set by the script do not leak back into the caller's map.
+   */
+  @Test
+  public void testBindingsCopied() throws Exception {
+    FakeCompilingScriptEngineFactory factory = new FakeCompilingScriptEngineFactory(true);
+    CompiledScriptCache cache = newCache(factory, 10, 2);
+
+    Map<String, Object> bindings = bindings(1);
+    cache.eval("a", bindings);
+
+    assertEquals(1, bindings.size());
+  }
+
+  /**
+   * A compiled script picks up a change in its source.
+   */
+  @Test
+  public void testSourceChange() throws Exception {
+    FakeCompilingScriptEngineFactory factory = new FakeCompilingScriptEngineFactory(true);
+    CompiledScriptCache cache = newCache(factory, 10, 2);
+
+    ChangeableScriptSource source = new ChangeableScriptSource("a");
+    CompiledScriptScript script = new CompiledScriptScript(cache, source);
+
+    assertEquals("a:1", script.eval(bindings(1)));
+    assertEquals("a:2", script.eval(bindings(2)));
+    assertEquals(1, factory.getNumberCompiles());
+
+    source.setContents("b");
+    assertEquals("b:3", script.eval(bindings(3)));
+    assertEquals(2, factory.getNumberCompiles());
+
+    // Changing back finds the original compiled script.
+    source.setContents("a");
+    assertEquals("a:4", script.eval(bindings(4)));
+    assertEquals(2, factory.getNumberCompiles());
+  }
+
+  /**
+   * A thread safe engine is shared by everyone.
+   */
+  @Test
+  public void testThreadSafeEngineShared() throws Exception {
+    FakeCompilingScriptEngineFactory factory = new FakeCompilingScriptEngineFactory(true);
+    CompiledScriptCache cache = newCache(factory, 10, 2);
+
+    assertTrue(cache.isEngineShared());
+
+    runConcurrently(cache, 8, 50);
+
+    assertEquals(1, factory.getNumberEnginesCreated());
+    assertEquals(1, factory.getNumberCompiles());
+  }
+
+  /**
+   * Engines which aren't thread safe are never used by two threads at once,
+   * and concurrent evaluations get their own engines rather than waiting.
+   */
+  @Test
+  public void testEnginesPooledWhenNotThreadSafe() throws Exception {
+    FakeCompilingScriptEngineFactory factory = new FakeCompilingScriptEngineFactory(false);
+    CompiledScriptCache cache = newCache(factory, 10, 3);
+
+    assertFalse(cache.isEngineShared());
+
+    runConcurrently(cache, 8, 200);
+
+    assertFalse(factory.wasUsedConcurrently());
+    assertTrue(factory.getNumberEnginesCreated() <= 9);
+    assertTrue(cache.getNumberIdleEngines() <= 3);
+
+    // Each engine compiles the script once, no matter how often it runs it.
+    assertEquals(factory.getNumberEnginesCreated(), factory.getNumberCompiles());
+  }
+
+  /**
+   * Evaluate a script from many threads at once.
+   *
+   * @param cache
+   *          the cache to evaluate with
+   * @param numberThreads
+   *          the number of threads
+   * @param numberEvals
+   *          the number of evaluations per thread
+   *
+   * @throws Exception
+   *           an evaluation failed
+   */
+  private void runConcurrently(final CompiledScriptCache cache, int numberThreads, final int numberEvals)
+      throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(numberThreads);
+    try {
+      List<Future<Void>> futures = Lists.newArrayList();
+      for (int i = 0; i < numberThreads; i++) {
+        final int thread = i;
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            for (int j = 0; j < numberEvals; j++) {
+              assertEquals("a:" + thread, cache.eval("a", bindings(thread)));
+            }
+            return null;
+          }
+        }));
+      }
+
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Create a new cache.
+   *
+   * @param factory
+   *          the factory for the engines
+   * @param maxEntries
+   *          the maximum number of scripts per engine
+   * @param maxIdleEngines
+   *          the maximum number of idle engines
+   *
+   * @return the cache
+   */
+  private CompiledScriptCache newCache(FakeCompilingScriptEngineFactory factory, int maxEntries, int maxIdleEngines) {
+    return new CompiledScriptCache(factory, factory.getScriptEngine(), maxEntries, maxIdleEngines);
+  }
+
+  /**
+   * Get bindings with a value for {@code x}.
+   *
+   * @param x
+   *          the value
+   *
+   * @return the bindings
+   */
+  private static Map<String, Object> bindings(Object x) {
+    Map<String, Object> bindings = Maps.newHashMap();
+    bindings.put("x", x);
+
+    return bindings;
+  }
+
+  /**
+   * A script source whose contents can be changed.
+   *
+   * @author agent
+   */
+  private static class ChangeableScriptSource implements ScriptSource {
+
+    /**
+     * The current contents.
+     */
+    private String contents;
+
+    /**
+     * {@code true} if the contents changed since they were last read.
+     */
+    private boolean modified;
+
+    /**
+     * Construct a new source.
+     *
+     * @param contents
+     *          the initial contents
+     */
+    public ChangeableScriptSource(String contents) {
+      this.contents = contents;
+    }
+
+    /**
+     * Change the contents.
+     *
+     * @param contents
+     *          the new contents
+     */
+    public void setContents(String contents) {
+      this.contents = contents;
+      modified = true;
+    }
+
+    @Override
+    public String getScriptContents() {
+      modified = false;
+      return contents;
+    }
+
+    @Override
+    public boolean isModified() {
+      return modified;
+    }
+  }
+}
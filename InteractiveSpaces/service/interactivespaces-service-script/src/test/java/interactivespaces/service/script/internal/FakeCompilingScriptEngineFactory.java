@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.script.internal;
+
+import com.google.common.collect.Lists;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+/**
+ * A script engine factory for tests whose engines compile scripts.
+ *
+ * <p>
+ * A script evaluates to its own text followed by a colon and the value of the
+ * {@code x} binding. Each engine notes if it was ever used by two threads at
+ * once.
+ *
+ * @author agent
+ */
+public class FakeCompilingScriptEngineFactory implements ScriptEngineFactory {
+
+  /**
+   * {@code true} if the engines claim to be thread safe.
+   */
+  private final boolean threadSafe;
+
+  /**
+   * Number of engines created.
+   */
+  private final AtomicInteger numberEnginesCreated = new AtomicInteger();
+
+  /**
+   * Number of scripts compiled across all engines.
+   */
+  private final AtomicInteger numberCompiles = new AtomicInteger();
+
+  /**
+   * {@code true} if any engine was used by more than one thread at once.
+   */
+  private final AtomicBoolean concurrentUse = new AtomicBoolean();
+
+  /**
+   * Construct a new factory.
+   *
+   * @param threadSafe
+   *          {@code true} if the engines claim to be thread safe
+   */
+  public FakeCompilingScriptEngineFactory(boolean threadSafe) {
+    this.threadSafe = threadSafe;
+  }
+
+  @Override
+  public String getEngineName() {
+    return "fake";
+  }
+
+  @Override
+  public String getEngineVersion() {
+    return "1.0";
+  }
+
+  @Override
+  public List<String> getExtensions() {
+    return Lists.newArrayList("fake");
+  }
+
+  @Override
+  public List<String> getMimeTypes() {
+    return Lists.newArrayList();
+  }
+
+  @Override
+  public List<String> getNames() {
+    return Lists.newArrayList("fake");
+  }
+
+  @Override
+  public String getLanguageName() {
+    return "fake";
+  }
+
+  @Override
+  public String getLanguageVersion() {
+    return "1.0";
+  }
+
+  @Override
+  public Object getParameter(String key) {
+    if (CompiledScriptCache.ENGINE_PARAMETER_THREADING.equals(key)) {
+      return threadSafe ? "MULTITHREADED" : null;
+    } else if (ScriptEngine.NAME.equals(key)) {
+      return getEngineName();
+    }
+
+    return null;
+  }
+
+  @Override
+  public String getMethodCallSyntax(String obj, String m, String... args) {
+    return obj + "." + m;
+  }
+
+  @Override
+  public String getOutputStatement(String toDisplay) {
+    return toDisplay;
+  }
+
+  @Override
+  public String getProgram(String... statements) {
+    return statements[0];
+  }
+
+  @Override
+  public ScriptEngine getScriptEngine() {
+    numberEnginesCreated.incrementAndGet();
+
+    return new FakeEngine();
+  }
+
+  /**
+   * Get the number of engines created.
+   *
+   * @return the number of engines
+   */
+  public int getNumberEnginesCreated() {
+    return numberEnginesCreated.get();
+  }
+
+  /**
+   * Get the number of scripts compiled across all engines.
+   *
+   * @return the number of compiles
+   */
+  public int getNumberCompiles() {
+    return numberCompiles.get();
+  }
+
+  /**
+   * Was any engine used by more than one thread at once?
+   *
+   * @return {@code true} if an engine was used concurrently
+   */
+  public boolean wasUsedConcurrently() {
+    return concurrentUse.get();
+  }
+
+  /**
+   * The engine made by the factory.
+   *
+   * @author agent
+   */
+  public class FakeEngine extends AbstractScriptEngine implements Compilable {
+
+    /**
+     * Number of threads currently in the engine.
+     */
+    private final AtomicInteger numberUsers = new AtomicInteger();
+
+    @Override
+    public Object eval(String script, ScriptContext context) throws ScriptException {
+      if (numberUsers.getAndIncrement() != 0) {
+        concurrentUse.set(true);
+      }
+      try {
+        // Give other threads a chance to collide with this one.
+        Thread.yield();
+
+        return script + ":" + context.getAttribute("x");
+      } finally {
+        numberUsers.decrementAndGet();
+      }
+    }
+
+    @Override
+    public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+      throw new ScriptException("Readers not supported");
+    }
+
+    @Override
+    public Bindings createBindings() {
+      return new SimpleBindings();
+    }
+
+    @Override
+    public ScriptEngineFactory getFactory() {
+      return FakeCompilingScriptEngineFactory.this;
+    }
+
+    @Override
+    public CompiledScript compile(final String script) throws ScriptException {
+      if (script.contains("syntax error")) {
+        throw new ScriptException("Bad script");
+      }
+
+      numberCompiles.incrementAndGet();
+
+      return new CompiledScript() {
+        @Override
+        public Object eval(ScriptContext context) throws ScriptException {
+          return FakeEngine.this.eval(script, context);
+        }
+
+        @Override
+        public ScriptEngine getEngine() {
+          return FakeEngine.this;
+        }
+      };
+    }
+
+    @Override
+    public CompiledScript compile(Reader script) throws ScriptException {
+      throw new ScriptException("Readers not supported");
+    }
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package interactivespaces.service.script.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+
+/**
+ * Tests for the {@link ScriptEnginePool}.
+ *
+ * @author agent
+ */
+public class ScriptEnginePoolTest {
+
+  /**
+   * A returned engine is reused, with its bindings reset.
+   */
+  @Test
+  public void testBorrowAndReturn() {
+    FakeCompilingScriptEngineFactory factory = new FakeCompilingScriptEngineFactory(false);
+    ScriptEnginePool pool = new ScriptEnginePool(factory, 2);
+
+    Map<String, Object> bindings = Maps.newHashMap();
+    bindings.put("x", 1);
+
+    ScriptEngine engine = pool.borrowEngine(bindings);
+    assertEquals(1, engine.getBindings(ScriptContext.GLOBAL_SCOPE).get("x"));
+    engine.put("y", 2);
+
+    pool.returnEngine(engine);
+    assertEquals(1, pool.getNumberIdleEngines());
+
+    ScriptEngine again = pool.borrowEngine(Maps.<String, Object> newHashMap());
+    assertSame(engine, again);
+    assertNull(again.getBindings(ScriptContext.GLOBAL_SCOPE).get("x"));
+    assertNull(again.get("y"));
+    assertEquals(1, factory.getNumberEnginesCreated());
+  }
+
+  /**
+   * Prewarming creates idle engines up to the pool maximum.
+   */
+  @Test
+  public void testPrewarm() {
+    FakeCompilingScriptEngineFactory factory = new FakeCompilingScriptEngineFactory(false);
+    ScriptEnginePool pool = new ScriptEnginePool(factory, 2);
+
+    pool.prewarm(5);
+
+    assertEquals(2, pool.getNumberIdleEngines());
+    assertEquals(2, factory.getNumberEnginesCreated());
+  }
+
+  /**
+   * Under concurrent use no engine is handed to two borrowers at once and the
+   * idle engines stay within the pool maximum.
+   */
+  @Test
+  public void testConcurrentBorrow() throws Exception {
+    FakeCompilingScriptEngineFactory factory = new FakeCompilingScriptEngineFactory(false);
+    final ScriptEnginePool pool = new ScriptEnginePool(factory, 3);
+    final Set<ScriptEngine> borrowed = Collections.newSetFromMap(new IdentityHashMap<ScriptEngine, Boolean>());
+    final Set<ScriptEngine> allEngines =
+        Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<ScriptEngine, Boolean>()));
+    final AtomicBoolean sharedBorrow = new AtomicBoolean();
+
+    int numberThreads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(numberThreads);
+    try {
+      List<Future<Void>> futures = Lists.newArrayList();
+      for (int i = 0; i < numberThreads; i++) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            for (int j = 0; j < 500; j++) {
+              ScriptEngine engine = pool.borrowEngine(Maps.<String, Object> newHashMap());
+              allEngines.add(engine);
+              synchronized (borrowed) {
+                if (!borrowed.add(engine)) {
+                  sharedBorrow.set(true);
+                }
+              }
+              Thread.yield();
+              synchronized (borrowed) {
+                borrowed.remove(engine);
+              }
+              pool.returnEngine(engine);
+            }
+            return null;
+          }
+        }));
+      }
+
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertFalse(sharedBorrow.get());
+    assertTrue(pool.getNumberIdleEngines() <= 3);
+    assertTrue(pool.getNumberIdleEngines() > 0);
+    assertEquals(factory.getNumberEnginesCreated(), allEngines.size());
+  }
+}